@@ -26,6 +26,7 @@ mill {
         feature("data-services") {
             description = "Provides Data services"
             module(":services:mill-data-grpc-service")
+            module(":services:mill-data-flight-service")
             module(":services:mill-data-http-service")
             module(":services:mill-export-service")
             module(":services:mill-data-query-service")
@@ -192,6 +193,7 @@ dependencies {
 
     implementation(project(":services:mill-analysis-service"))
     implementation(project(":persistence:mill-analysis-persistence"))
+    implementation(project(":persistence:mill-data-persistence"))
 
     implementation(libs.springdoc.openapi.starter.webmvc.ui)
     implementation(libs.springdoc.openapi.starter.webflux.api)
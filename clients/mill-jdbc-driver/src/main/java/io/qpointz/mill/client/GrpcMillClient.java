@@ -2,7 +2,8 @@ package io.qpointz.mill.client;
 
 import io.grpc.*;
 import io.grpc.inprocess.InProcessChannelBuilder;
-import io.grpc.stub.StreamObserver;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.qpointz.mill.proto.*;
 import lombok.Getter;
 import lombok.SneakyThrows;
@@ -18,6 +19,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static io.qpointz.mill.client.MillClientConfiguration.CLIENT_PROTOCOL_GRPC_VALUE;
 import static io.qpointz.mill.client.MillClientConfiguration.CLIENT_PROTOCOL_IN_PROC_VALUE;
@@ -70,7 +72,8 @@ public class GrpcMillClient extends MillClient {
     @Override
     public CompletableFuture<MillQueryResult> execQueryAsync(QueryRequest request) {
         try {
-            val responseIterator = new AsyncQueryResponseIterator();
+            val responseIterator = new AsyncQueryResponseIterator(
+                    this.configuration.getPrefetchBlocks(), this.configuration.getPrefetchBytes());
             this.asyncStub().execQuery(request, responseIterator);
             return CompletableFuture.completedFuture(MillQueryResult.fromResponses(responseIterator));
         } catch (Exception ex) {
@@ -196,12 +199,43 @@ public class GrpcMillClient extends MillClient {
         return builder.build();
     }
 
-    private static final class AsyncQueryResponseIterator implements Iterator<QueryResultResponse>, StreamObserver<QueryResultResponse> {
+    /**
+     * Bridges the async {@code ExecQuery} stream to a blocking iterator using manual inbound flow
+     * control. At most {@code maxBlocks} responses are requested ahead of the consumer, and further
+     * requests are held back while buffered responses exceed {@code maxBytes}, so client memory
+     * stays bounded while the next blocks are still received and decoded ahead of the reader.
+     */
+    static final class AsyncQueryResponseIterator
+            implements Iterator<QueryResultResponse>, ClientResponseObserver<QueryRequest, QueryResultResponse>, AutoCloseable {
         private static final Object END = new Object();
 
+        private final int maxBlocks;
+        private final long maxBytes;
         private final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        private final AtomicLong bufferedBytes = new AtomicLong();
+        private ClientCallStreamObserver<QueryRequest> requestStream;
+        private int deferredRequests;
         private QueryResultResponse next;
         private RuntimeException terminalError;
+        private boolean closed;
+
+        AsyncQueryResponseIterator(int maxBlocks, long maxBytes) {
+            this.maxBlocks = Math.max(1, maxBlocks);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<QueryRequest> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.disableAutoRequestWithInitial(this.maxBlocks);
+        }
+
+        /**
+         * Serialized bytes of responses received but not yet consumed.
+         */
+        long getBufferedBytes() {
+            return this.bufferedBytes.get();
+        }
 
         @Override
         public synchronized boolean hasNext() {
@@ -211,6 +245,9 @@ public class GrpcMillClient extends MillClient {
             if (this.terminalError != null) {
                 throw this.terminalError;
             }
+            if (this.closed) {
+                return false;
+            }
 
             Object item;
             try {
@@ -221,6 +258,7 @@ public class GrpcMillClient extends MillClient {
             }
 
             if (item == END) {
+                this.closed = true;
                 return false;
             }
             if (item instanceof RuntimeException rte) {
@@ -228,7 +266,10 @@ public class GrpcMillClient extends MillClient {
                 throw rte;
             }
 
-            this.next = (QueryResultResponse) item;
+            val response = (QueryResultResponse) item;
+            this.bufferedBytes.addAndGet(-response.getSerializedSize());
+            requestMore();
+            this.next = response;
             return true;
         }
 
@@ -242,8 +283,25 @@ public class GrpcMillClient extends MillClient {
             return current;
         }
 
+        /**
+         * Returns the credit of one consumed response, holding credits back while the byte
+         * budget is exhausted.
+         */
+        private void requestMore() {
+            this.deferredRequests++;
+            if (this.maxBytes > 0 && this.bufferedBytes.get() >= this.maxBytes) {
+                return;
+            }
+            val count = this.deferredRequests;
+            this.deferredRequests = 0;
+            if (this.requestStream != null) {
+                this.requestStream.request(count);
+            }
+        }
+
         @Override
         public void onNext(QueryResultResponse value) {
+            this.bufferedBytes.addAndGet(value.getSerializedSize());
             this.queue.offer(value);
         }
 
@@ -256,6 +314,23 @@ public class GrpcMillClient extends MillClient {
         public void onCompleted() {
             this.queue.offer(END);
         }
+
+        /**
+         * Cancels the call when the consumer abandons the result before the stream ends.
+         */
+        @Override
+        public synchronized void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.next = null;
+            if (this.requestStream != null) {
+                this.requestStream.cancel("Query result closed by client", null);
+            }
+            this.queue.clear();
+            this.bufferedBytes.set(0);
+        }
     }
 
 }
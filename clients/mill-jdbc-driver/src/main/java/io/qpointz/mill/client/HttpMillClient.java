@@ -7,15 +7,24 @@ import io.qpointz.mill.MillCodeException;
 import io.qpointz.mill.MillRuntimeException;
 import io.qpointz.mill.proto.*;
 import lombok.*;
+import lombok.extern.java.Log;
 import okhttp3.*;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 
+@Log
 @AllArgsConstructor
 @Builder
 public class HttpMillClient extends MillClient {
@@ -35,6 +44,13 @@ public class HttpMillClient extends MillClient {
     @Getter
     private final String authenticationHeaderValue;
 
+    /**
+     * Result pages fetched or in flight ahead of the reader; {@code 0} fetches each page on demand.
+     */
+    @Getter
+    @Builder.Default
+    private final int prefetchDepth = MillClientConfiguration.DEFAULT_PREFETCH_BLOCKS;
+
     @Getter(lazy = true)
     private final String requestUrl = buildUrl();
 
@@ -92,6 +108,8 @@ public class HttpMillClient extends MillClient {
                 this.protocol(config.getProtocol());
             }
 
+            this.prefetchDepth(config.getPrefetchBlocks());
+
             if (config.getBearerToken()!=null && !config.getBearerToken().isEmpty()) {
                 this.useBearerToken(config.getBearerToken());
             } else if (config.getUsername()!=null && !config.getUsername().isEmpty() && config.getPassword()!=null && !config.getPassword().isEmpty()) {
@@ -189,6 +207,11 @@ public class HttpMillClient extends MillClient {
         val req = builder.build();
         val call = this.getHttpClient().newCall(req);
         val result = new CompletableFuture<T>();
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
 
         call.enqueue(new Callback() {
             @Override
@@ -277,108 +300,177 @@ public class HttpMillClient extends MillClient {
         //no closable resources associated with client
     }
 
+    private static QueryResultResponse parseQueryResultResponse(byte[] bytes) {
+        try {
+            return QueryResultResponse.parseFrom(bytes);
+        } catch (InvalidProtocolBufferException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private QueryResultResponse doInitial(QueryRequest initialRequest) {
+        try {
+            return this.post("SubmitQuery", initialRequest, HttpMillClient::parseQueryResultResponse);
+        } catch (MillCodeException e) {
+            throw new MillRuntimeException(e);
+        }
+    }
+
     @Override
     public MillQueryResult execQuery(QueryRequest request) {
-        return MillQueryResult.fromResponses(new QueryResultResponseIterator(request));
+        val responses = new QueryResultResponseIterator(request);
+        return MillQueryResult.fromResponses(responses, responses::getStatistics);
     }
 
     @Override
     public CompletableFuture<MillQueryResult> execQueryAsync(QueryRequest request) {
-        return postAsync("SubmitQuery", request, b -> {
-            try {
-                return QueryResultResponse.parseFrom(b);
-            } catch (InvalidProtocolBufferException e) {
-                throw new RuntimeException(e);
-            }
-        }).thenApply(initial -> MillQueryResult.fromResponses(new QueryResultResponseIterator(request.getConfig().getFetchSize(), initial)));
+        return postAsync("SubmitQuery", request, HttpMillClient::parseQueryResultResponse).thenApply(initial -> {
+            val responses = new QueryResultResponseIterator(request.getConfig().getFetchSize(), initial);
+            return MillQueryResult.fromResponses(responses, responses::getStatistics);
+        });
     }
 
-    private class QueryResultResponseIterator implements Iterator<QueryResultResponse> {
+    /**
+     * Iterates a paged query result. Up to {@link #prefetchDepth} pages are fetched ahead of the reader:
+     * the next {@code FetchQueryResult} is issued as soon as the previous page arrives instead of when
+     * the reader asks for it. Paging ids are chained (each page carries the id of the next one), so at
+     * most one request is on the wire at a time; pipelining overlaps the round trip with the reader
+     * consuming buffered pages. Pages are handed out in request order; closing the iterator cancels the
+     * outstanding fetch. Its counters are exposed through {@link MillQueryResult#getPrefetchStatistics()}.
+     */
+    private class QueryResultResponseIterator implements Iterator<QueryResultResponse>, AutoCloseable {
 
         private final int fetchSize;
-        private String pagingId;
-        private QueryResultResponse response;
-        private boolean didNext;
-        private boolean hasNext;
-        private boolean hasMorePages;
+        private final int depth;
+        private final Deque<CompletableFuture<QueryResultResponse>> pages = new ArrayDeque<>();
+        private String tailPagingId;
+        private boolean tailPending;
+        private QueryResultResponse next;
+        private boolean closed;
+        private int maxBufferedPages;
+        private long pagesFetched;
+        private long stallNanos;
 
         public QueryResultResponseIterator(QueryRequest initialRequest) {
-            this.fetchSize = initialRequest.getConfig().getFetchSize();
-            setNext(doInitial(initialRequest));
+            this(initialRequest.getConfig().getFetchSize(), doInitial(initialRequest));
         }
 
         private QueryResultResponseIterator(int fetchSize, QueryResultResponse initial) {
             this.fetchSize = fetchSize;
-            setNext(initial);
-        }
-
-        private QueryResultResponse doInitial(QueryRequest initialRequest) {
-            QueryResultResponse initial = null;
-            try {
-                initial = HttpMillClient.this.post("SubmitQuery", initialRequest, b -> {
-                    try {
-                        return QueryResultResponse.parseFrom(b);
-                    } catch (InvalidProtocolBufferException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
-            } catch (MillCodeException e) {
-                throw new MillRuntimeException(e);
+            this.depth = Math.max(0, HttpMillClient.this.getPrefetchDepth());
+            synchronized (this) {
+                this.pages.add(CompletableFuture.completedFuture(initial));
+                this.tailPagingId = initial.getPagingId();
+                fill(false);
             }
-            return initial;
         }
 
-        private void setNext(QueryResultResponse response) {
-            this.didNext = true;
-            this.response = response;
-            this.pagingId = response!=null ? response.getPagingId() : null;
-            this.hasNext = response != null;
-            this.hasMorePages = this.pagingId !=null && !this.pagingId.isEmpty();
+        private static boolean hasMorePages(String pagingId) {
+            return pagingId != null && !pagingId.isEmpty();
         }
 
-        private void doNext() {
-            if (!this.hasMorePages) {
-                setNext(null);
+        /**
+         * Issues the next fetch when the previous page has arrived and the window has room,
+         * or unconditionally when the reader is waiting ({@code demand}).
+         */
+        private void fill(boolean demand) {
+            if (this.closed || this.tailPending || !hasMorePages(this.tailPagingId)) {
+                return;
+            }
+            if (!demand && this.pages.size() >= this.depth) {
                 return;
             }
-
             val request = QueryResultRequest.newBuilder()
-                    .setPagingId(this.pagingId)
+                    .setPagingId(this.tailPagingId)
                     .setFetchSize(this.fetchSize)
                     .build();
+            this.tailPagingId = null;
+            this.tailPending = true;
+            val page = HttpMillClient.this.postAsync("FetchQueryResult", request, HttpMillClient::parseQueryResultResponse);
+            this.pages.add(page);
+            this.maxBufferedPages = Math.max(this.maxBufferedPages, this.pages.size());
+            page.whenComplete(this::onFetched);
+        }
 
-            try {
-                val nextResponse = HttpMillClient.this.post("FetchQueryResult", request, b -> {
-                    try {
-                        return QueryResultResponse.parseFrom(b);
-                    } catch (InvalidProtocolBufferException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
-                setNext(nextResponse);
-            } catch (MillCodeException ex1) {
-                throw new MillRuntimeException(ex1);
+        private synchronized void onFetched(QueryResultResponse response, Throwable error) {
+            this.tailPending = false;
+            if (error != null) {
+                //surfaced to the reader when it reaches the failed page
+                return;
             }
+            this.pagesFetched++;
+            this.tailPagingId = response.getPagingId();
+            fill(false);
         }
 
         @Override
         public boolean hasNext() {
-            if (!this.didNext) {
-                doNext();
+            if (this.next != null) {
+                return true;
+            }
+            final CompletableFuture<QueryResultResponse> page;
+            synchronized (this) {
+                if (this.closed) {
+                    return false;
+                }
+                fill(this.pages.isEmpty());
+                page = this.pages.poll();
+                if (page == null) {
+                    return false;
+                }
+                fill(false);
+            }
+            this.next = await(page);
+            return true;
+        }
+
+        private QueryResultResponse await(CompletableFuture<QueryResultResponse> page) {
+            val started = page.isDone() ? 0L : System.nanoTime();
+            try {
+                return page.join();
+            } catch (CompletionException | CancellationException e) {
+                val cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof MillCodeException mce) {
+                    throw new MillRuntimeException(mce);
+                }
+                throw new MillRuntimeException("Failed to fetch query result page", cause);
+            } finally {
+                if (started != 0L) {
+                    synchronized (this) {
+                        this.stallNanos += System.nanoTime() - started;
+                    }
+                }
             }
-            return this.hasNext;
         }
 
         @Override
         public QueryResultResponse next() {
-            if (!this.didNext) {
-                doNext();
-            }
-            if (this.response == null) {
+            if (!this.hasNext()) {
                 throw new NoSuchElementException("No results available");
             }
-            this.didNext = false;
-            return this.response;
+            val current = this.next;
+            this.next = null;
+            return current;
+        }
+
+        public synchronized PrefetchStatistics getStatistics() {
+            return new PrefetchStatistics(this.depth, this.maxBufferedPages, this.pagesFetched, Duration.ofNanos(this.stallNanos));
+        }
+
+        @Override
+        public void close() {
+            final List<CompletableFuture<QueryResultResponse>> outstanding;
+            synchronized (this) {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+                this.next = null;
+                outstanding = new ArrayList<>(this.pages);
+                this.pages.clear();
+            }
+            outstanding.forEach(page -> page.cancel(true));
+            log.fine(() -> String.format("Query result closed: %s", getStatistics()));
         }
     }
 
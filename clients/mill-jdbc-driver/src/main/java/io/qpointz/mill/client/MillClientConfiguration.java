@@ -26,6 +26,8 @@ public class MillClientConfiguration {
     public static final String TLS_KEY_PRIVATE_KEY_PASSWORD_PROP = "tlsKeyPrivateKeyPassword";
     public static final String TLS_TRUST_ROOT_CERT_PROP = "tlsTrustRootCert";
     public static final String FETCH_SIZE_PROP = "fetchSize";
+    public static final String PREFETCH_BLOCKS_PROP = "prefetchBlocks";
+    public static final String PREFETCH_BYTES_PROP = "prefetchBytes";
 
     public static final String CLIENT_PROTOCOL_PROP = "protocol";
     public static final String CLIENT_PROTOCOL_GRPC_VALUE = "grpc";
@@ -33,6 +35,8 @@ public class MillClientConfiguration {
     public static final String CLIENT_PROTOCOL_HTTP_VALUE = "http";
     public static final String CLIENT_PROTOCOL_HTTPS_VALUE = "https";
     public static final int DEFAULT_FETCH_SIZE = 1000;
+    public static final int DEFAULT_PREFETCH_BLOCKS = 4;
+    public static final long DEFAULT_PREFETCH_BYTES = 64L * 1024 * 1024;
 
 
 
@@ -84,6 +88,22 @@ public class MillClientConfiguration {
     @Builder.Default
     private int fetchSize = DEFAULT_FETCH_SIZE;
 
+    /**
+     * Maximum number of result blocks requested from the server ahead of the consumer.
+     * For HTTP this is the number of result pages fetched ahead; {@code 0} fetches pages on demand.
+     */
+    @Getter
+    @Builder.Default
+    private int prefetchBlocks = DEFAULT_PREFETCH_BLOCKS;
+
+    /**
+     * Maximum serialized size of result blocks buffered ahead of the consumer;
+     * {@code 0} limits the prefetch window by block count only.
+     */
+    @Getter
+    @Builder.Default
+    private long prefetchBytes = DEFAULT_PREFETCH_BYTES;
+
 
     public static MillClientConfigurationBuilder builder() {
         return new MillClientConfigurationBuilder();
@@ -124,6 +144,8 @@ public class MillClientConfiguration {
                     .stringProp(properties, TLS_KEY_PRIVATE_KEY_PASSWORD_PROP, null, this::tlsKeyPrivateKeyPassword)
                     .stringProp(properties, TLS_TRUST_ROOT_CERT_PROP, null, this::tlsTrustRootCert)
                     .stringProp(properties, CLIENT_PROTOCOL_PROP, null, this::protocol)
+                    .anyProp(properties, PREFETCH_BLOCKS_PROP, DEFAULT_PREFETCH_BLOCKS, Integer::parseInt, this::prefetchBlocks)
+                    .anyProp(properties, PREFETCH_BYTES_PROP, DEFAULT_PREFETCH_BYTES, Long::parseLong, this::prefetchBytes)
                     ;
 
         }
@@ -6,24 +6,39 @@ import io.qpointz.mill.proto.VectorBlockSchema;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Transport-agnostic query result abstraction that exposes stable schema metadata
  * and a single-pass stream of data vector blocks.
  *
- * The returned iterator is thread-safe for concurrent hasNext/next calls.
+ * The returned iterator is thread-safe for concurrent hasNext/next calls. It implements
+ * {@link AutoCloseable}; closing it releases the underlying transport stream early.
  */
 public class MillQueryResult {
 
     private final VectorBlockSchema schema;
     private final Iterator<VectorBlock> vectorBlocks;
+    private final Supplier<PrefetchStatistics> prefetchStatistics;
 
-    private MillQueryResult(VectorBlockSchema schema, Iterator<VectorBlock> vectorBlocks) {
+    private MillQueryResult(VectorBlockSchema schema, Iterator<VectorBlock> vectorBlocks,
+                            Supplier<PrefetchStatistics> prefetchStatistics) {
         this.schema = schema;
         this.vectorBlocks = vectorBlocks;
+        this.prefetchStatistics = prefetchStatistics;
     }
 
     public static MillQueryResult fromResponses(Iterator<QueryResultResponse> responses) {
+        return fromResponses(responses, null);
+    }
+
+    /**
+     * Creates a result over pages fetched by the client, whose prefetch counters are read from
+     * {@code prefetchStatistics}.
+     */
+    static MillQueryResult fromResponses(Iterator<QueryResultResponse> responses,
+                                         Supplier<PrefetchStatistics> prefetchStatistics) {
         VectorBlock firstVector = null;
         while (responses.hasNext() && firstVector == null) {
             QueryResultResponse response = responses.next();
@@ -37,7 +52,7 @@ public class MillQueryResult {
                 : null;
 
         Iterator<VectorBlock> vectors = new ResponseVectorIterator(firstVector, responses);
-        return new MillQueryResult(schema, vectors);
+        return new MillQueryResult(schema, vectors, prefetchStatistics);
     }
 
     public boolean hasSchema() {
@@ -55,7 +70,15 @@ public class MillQueryResult {
         return this.vectorBlocks;
     }
 
-    private static final class ResponseVectorIterator implements Iterator<VectorBlock> {
+    /**
+     * Current prefetch counters of a result fetched page by page, e.g. over HTTP; empty for
+     * results streamed by the server.
+     */
+    public Optional<PrefetchStatistics> getPrefetchStatistics() {
+        return Optional.ofNullable(this.prefetchStatistics).map(Supplier::get);
+    }
+
+    private static final class ResponseVectorIterator implements Iterator<VectorBlock>, AutoCloseable {
         private final Iterator<QueryResultResponse> responses;
         private VectorBlock nextVector;
 
@@ -88,5 +111,13 @@ public class MillQueryResult {
             this.nextVector = null;
             return current;
         }
+
+        @Override
+        public synchronized void close() throws Exception {
+            this.nextVector = null;
+            if (this.responses instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
     }
 }
@@ -7,6 +7,7 @@ import io.qpointz.mill.sql.VectorBlockRecordIterator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.SneakyThrows;
 import lombok.val;
 
 import java.util.Arrays;
@@ -100,13 +101,20 @@ public class MillSqlQuery {
     }
 
     private class RecordIterator extends VectorBlockRecordIterator {
+        private final Iterator<VectorBlock> vectorBlocks;
+
         protected RecordIterator(Iterator<VectorBlock> vectorBlocks) {
             super(vectorBlocks);
+            this.vectorBlocks = vectorBlocks;
         }
 
         @Override
+        @SneakyThrows
         public void close() {
-            //no closable associated resources
+            //releases transport resources (pending page fetches, open streams) of abandoned results
+            if (this.vectorBlocks instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
         }
     }
 
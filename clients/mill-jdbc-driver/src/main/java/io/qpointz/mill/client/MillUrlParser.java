@@ -19,6 +19,7 @@ public class MillUrlParser {
     protected enum KnownPropertyType {
         STRING,
         INT,
+        LONG,
         FILE,
         PATH
     }
@@ -44,7 +45,9 @@ public class MillUrlParser {
             KnownProperty.of(TLS_KEY_PRIVATE_KEY_PASSWORD_PROP, STRING, false, "TLS private key password"),
             KnownProperty.of(TLS_TRUST_ROOT_CERT_PROP, STRING, false, "TLS custom root CA certificate path"),
             KnownProperty.of(FETCH_SIZE_PROP, INT, true, String.format("Record batch fetch size. Default %s", DEFAULT_FETCH_SIZE)),
-            KnownProperty.of(API_PATH_PROP,STRING, false, String.format("API relative path. Default %s", DEFAULT_API_PATH))
+            KnownProperty.of(API_PATH_PROP,STRING, false, String.format("API relative path. Default %s", DEFAULT_API_PATH)),
+            KnownProperty.of(PREFETCH_BLOCKS_PROP, INT, false, String.format("Result blocks (gRPC) or pages (HTTP) fetched ahead of the consumer. Default %s", DEFAULT_PREFETCH_BLOCKS)),
+            KnownProperty.of(PREFETCH_BYTES_PROP, LONG, false, String.format("Result bytes buffered ahead of the consumer, 0 - unlimited (gRPC). Default %s", DEFAULT_PREFETCH_BYTES))
     );
 
     public MillUrlParser(String url, Properties... props) {
@@ -0,0 +1,14 @@
+package io.qpointz.mill.client;
+
+import java.time.Duration;
+
+/**
+ * Prefetch counters of a paged query result, see {@link MillQueryResult#getPrefetchStatistics()}.
+ *
+ * @param depth            configured number of pages kept fetched or in flight ahead of the reader
+ * @param maxBufferedPages largest number of pages observed ahead of the reader
+ * @param pagesFetched     {@code FetchQueryResult} round trips completed
+ * @param stallTime        total time the reader waited for a page that was not yet available
+ */
+public record PrefetchStatistics(int depth, int maxBufferedPages, long pagesFetched, Duration stallTime) {
+}
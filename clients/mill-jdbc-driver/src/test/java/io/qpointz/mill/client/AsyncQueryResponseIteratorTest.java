@@ -0,0 +1,88 @@
+package io.qpointz.mill.client;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.qpointz.mill.proto.QueryRequest;
+import io.qpointz.mill.proto.QueryResultResponse;
+import io.qpointz.mill.proto.VectorBlock;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AsyncQueryResponseIteratorTest {
+
+    @SuppressWarnings("unchecked")
+    private static ClientCallStreamObserver<QueryRequest> requestStream() {
+        return mock(ClientCallStreamObserver.class);
+    }
+
+    private static QueryResultResponse response(int size) {
+        return QueryResultResponse.newBuilder()
+                .setVector(VectorBlock.newBuilder().setVectorSize(size).build())
+                .build();
+    }
+
+    @Test
+    void requestsInitialWindowAndOneBlockPerConsumed() {
+        val stream = requestStream();
+        val iter = new GrpcMillClient.AsyncQueryResponseIterator(3, 0);
+        iter.beforeStart(stream);
+        verify(stream).disableAutoRequestWithInitial(3);
+
+        iter.onNext(response(1));
+        iter.onNext(response(2));
+        iter.onCompleted();
+
+        assertEquals(1, iter.next().getVector().getVectorSize());
+        assertEquals(2, iter.next().getVector().getVectorSize());
+        assertFalse(iter.hasNext());
+        verify(stream, times(2)).request(1);
+    }
+
+    @Test
+    void holdsRequestsWhileByteBudgetExhausted() {
+        val stream = requestStream();
+        val blockBytes = response(1).getSerializedSize();
+        val iter = new GrpcMillClient.AsyncQueryResponseIterator(4, blockBytes);
+        iter.beforeStart(stream);
+
+        iter.onNext(response(1));
+        iter.onNext(response(2));
+        iter.onNext(response(3));
+        assertEquals(3L * blockBytes, iter.getBufferedBytes());
+
+        iter.next();
+        iter.next();
+        verify(stream, never()).request(anyInt());
+
+        iter.next();
+        verify(stream).request(3);
+        assertEquals(0, iter.getBufferedBytes());
+    }
+
+    @Test
+    void propagatesStreamFailure() {
+        val iter = new GrpcMillClient.AsyncQueryResponseIterator(1, 0);
+        iter.beforeStart(requestStream());
+        iter.onError(new IllegalStateException("boom"));
+
+        val ex = assertThrows(RuntimeException.class, iter::hasNext);
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    @Test
+    void closeCancelsCall() {
+        val stream = requestStream();
+        val iter = new GrpcMillClient.AsyncQueryResponseIterator(2, 0);
+        iter.beforeStart(stream);
+        iter.onNext(response(1));
+
+        iter.close();
+
+        verify(stream).cancel(anyString(), isNull());
+        assertFalse(iter.hasNext());
+        assertEquals(0, iter.getBufferedBytes());
+    }
+
+}
@@ -4,6 +4,9 @@ import com.google.protobuf.Message;
 import io.qpointz.mill.proto.HandshakeRequest;
 import io.qpointz.mill.proto.HandshakeResponse;
 import io.qpointz.mill.proto.ProtocolVersion;
+import io.qpointz.mill.proto.QueryRequest;
+import io.qpointz.mill.proto.QueryResultResponse;
+import io.qpointz.mill.proto.VectorBlock;
 import lombok.SneakyThrows;
 import lombok.val;
 import okhttp3.mockwebserver.MockResponse;
@@ -13,6 +16,8 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -108,4 +113,75 @@ class HttpMillClientTest {
         }
     }
 
+    private MockResponse page(int size, String pagingId) throws IOException {
+        val builder = QueryResultResponse.newBuilder()
+                .setVector(VectorBlock.newBuilder().setVectorSize(size).build());
+        if (pagingId != null) {
+            builder.setPagingId(pagingId);
+        }
+        return new MockResponse().setResponseCode(200).setBody(fromMessage(builder.build()));
+    }
+
+    @SneakyThrows
+    @Test
+    void execQueryShouldPrefetchPagesInOrder() throws IOException {
+        try (val srv = new MockWebServer()) {
+            srv.enqueue(page(1, "p1"));
+            srv.enqueue(page(2, "p2"));
+            srv.enqueue(page(3, "p3"));
+            srv.enqueue(page(4, null));
+            srv.start();
+
+            val client = HttpMillClient.builder()
+                    .url(srv.url("/api").toString())
+                    .prefetchDepth(2)
+                    .build();
+
+            val result = client.execQuery(QueryRequest.getDefaultInstance());
+            val blocks = result.getVectorBlocks();
+            assertTrue(blocks.hasNext());
+
+            assertEquals(srv.url("/api/SubmitQuery"), srv.takeRequest(5, TimeUnit.SECONDS).getRequestUrl());
+            assertEquals(srv.url("/api/FetchQueryResult"), srv.takeRequest(5, TimeUnit.SECONDS).getRequestUrl());
+            assertEquals(srv.url("/api/FetchQueryResult"), srv.takeRequest(5, TimeUnit.SECONDS).getRequestUrl());
+            //window of two pages ahead is full until the reader advances
+            assertNull(srv.takeRequest(200, TimeUnit.MILLISECONDS));
+
+            val sizes = new ArrayList<Integer>();
+            while (blocks.hasNext()) {
+                sizes.add(blocks.next().getVectorSize());
+            }
+            assertEquals(List.of(1, 2, 3, 4), sizes);
+            assertEquals(4, srv.getRequestCount());
+
+            val statistics = result.getPrefetchStatistics().orElseThrow();
+            assertEquals(2, statistics.depth());
+            assertEquals(2, statistics.maxBufferedPages());
+            assertEquals(3, statistics.pagesFetched());
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void execQueryWithoutPrefetchShouldFetchOnDemand() throws IOException {
+        try (val srv = new MockWebServer()) {
+            srv.enqueue(page(1, "p1"));
+            srv.enqueue(page(2, null));
+            srv.start();
+
+            val client = HttpMillClient.builder()
+                    .url(srv.url("/api").toString())
+                    .prefetchDepth(0)
+                    .build();
+
+            val blocks = client.execQuery(QueryRequest.getDefaultInstance()).getVectorBlocks();
+            assertEquals(1, blocks.next().getVectorSize());
+            assertEquals(1, srv.getRequestCount());
+
+            assertEquals(2, blocks.next().getVectorSize());
+            assertFalse(blocks.hasNext());
+            assertEquals(2, srv.getRequestCount());
+        }
+    }
+
 }
@@ -100,4 +100,12 @@ class MillUrlParserTest {
         assertEquals("https://mld6-run-service.example.run.app/services/jet/", client.getClientUrl());
     }
 
-}
\ No newline at end of file
+    @Test
+    void prefetchBytesDeclaredAsLong() {
+        val prefetchBytes = MillUrlParser.KNOWN_PROPERTIES.stream()
+                .filter(p -> p.key().equals(PREFETCH_BYTES_PROP))
+                .findFirst().orElseThrow();
+        assertEquals(MillUrlParser.KnownPropertyType.LONG, prefetchBytes.type());
+    }
+
+}
@@ -13,10 +13,12 @@ import java.net.URI
  * @property uri    canonical `s3://` URI for this blob
  * @property contentLength object size in bytes when known (for example from [ListObjectsV2]);
  *   when non-null, readers may skip a separate `HeadObject` call to obtain length
+ * @property eTag object ETag when known from listing; identifies the cached content version
  */
 data class S3BlobPath(
     val bucket: String,
     val key: String,
     override val uri: URI = URI.create("s3://$bucket/$key"),
-    val contentLength: Long? = null
+    val contentLength: Long? = null,
+    val eTag: String? = null
 ) : BlobPath
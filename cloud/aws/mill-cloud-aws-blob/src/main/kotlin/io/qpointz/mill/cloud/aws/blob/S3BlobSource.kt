@@ -2,11 +2,13 @@ package io.qpointz.mill.cloud.aws.blob
 
 import io.qpointz.mill.source.BlobPath
 import io.qpointz.mill.source.BlobSource
+import io.qpointz.mill.source.blob.BlobBlockCache
 import software.amazon.awssdk.services.s3.S3Client
 import software.amazon.awssdk.services.s3.model.GetObjectRequest
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Request
 import software.amazon.awssdk.services.s3.model.RequestPayer
 import java.io.InputStream
+import java.net.URI
 import java.nio.channels.SeekableByteChannel
 
 /**
@@ -18,17 +20,22 @@ import java.nio.channels.SeekableByteChannel
  * The caller must [close] this source when finished to release the
  * underlying [S3Client].
  *
+ * Seekable reads go through [blockCache], so Parquet footers and column chunks are
+ * fetched in block-sized, coalesced ranged requests and reused across channels.
+ *
  * @property client the S3 client (lifecycle owned by this source)
  * @property bucket the S3 bucket name
  * @property prefix key prefix for listing (empty string → entire bucket)
  * @property requesterPays when `true`, include `x-amz-request-payer: requester` on S3 reads
  *   (required for many Requester Pays buckets when the caller is not the bucket owner)
+ * @property blockCache cache behind [openSeekableChannel] (lifecycle owned by this source)
  */
 class S3BlobSource(
     private val client: S3Client,
     private val bucket: String,
     private val prefix: String = "",
-    private val requesterPays: Boolean = false
+    private val requesterPays: Boolean = false,
+    val blockCache: BlobBlockCache = BlobBlockCache()
 ) : BlobSource {
 
     /**
@@ -38,12 +45,33 @@ class S3BlobSource(
      *
      * @return a lazily evaluated [Sequence] of [S3BlobPath] handles
      */
-    override fun listBlobs(): Sequence<BlobPath> = sequence {
+    override fun listBlobs(): Sequence<BlobPath> = listObjects(prefix)
+
+    /**
+     * Lists the objects whose key continues the source prefix with [prefix].
+     */
+    override fun listBlobs(prefix: String): Sequence<BlobPath> = listObjects(this.prefix + prefix)
+
+    /**
+     * Recreates an [S3BlobPath] for an `s3://` [uri] under [bucket] and [prefix].
+     */
+    override fun blobOf(uri: URI): BlobPath? {
+        if (uri.scheme != "s3" || uri.host != bucket) return null
+        val key = uri.path.removePrefix("/")
+        return if (key.isNotEmpty() && key.startsWith(prefix)) S3BlobPath(bucket, key) else null
+    }
+
+    /**
+     * Returns the ETag of listed objects, or `null` for handles restored by [blobOf].
+     */
+    override fun versionOf(path: BlobPath): String? = requireS3Path(path).eTag
+
+    private fun listObjects(keyPrefix: String): Sequence<BlobPath> = sequence {
         var continuationToken: String? = null
         do {
             val requestBuilder = ListObjectsV2Request.builder()
                 .bucket(bucket)
-                .prefix(prefix)
+                .prefix(keyPrefix)
             if (requesterPays) {
                 requestBuilder.requestPayer(RequestPayer.REQUESTER)
             }
@@ -56,7 +84,8 @@ class S3BlobSource(
                     S3BlobPath(
                         bucket = bucket,
                         key = obj.key(),
-                        contentLength = obj.size()
+                        contentLength = obj.size(),
+                        eTag = obj.eTag()
                     )
                 )
             }
@@ -87,27 +116,31 @@ class S3BlobSource(
     /**
      * Opens a [SeekableByteChannel] for random-access reading.
      *
-     * The channel uses ranged GET requests with a bounded read-ahead buffer,
+     * The channel reads through [blockCache] with ranged GET requests,
      * suitable for formats like Parquet that require seekable I/O.
      *
      * @param path a [BlobPath] (must be an [S3BlobPath])
-     * @return an [S3SeekableByteChannel] — caller must close it
+     * @return a caching channel over an [S3RangeReader] — caller must close it
      */
     override fun openSeekableChannel(path: BlobPath): SeekableByteChannel {
         val s3Path = requireS3Path(path)
-        return S3SeekableByteChannel(
-            client = client,
-            bucket = s3Path.bucket,
-            key = s3Path.key,
-            knownContentLength = s3Path.contentLength,
-            requesterPays = requesterPays
+        return blockCache.open(
+            S3RangeReader(
+                client = client,
+                bucket = s3Path.bucket,
+                objectKey = s3Path.key,
+                knownContentLength = s3Path.contentLength,
+                knownETag = s3Path.eTag,
+                requesterPays = requesterPays
+            )
         )
     }
 
     /**
-     * Closes the underlying [S3Client], releasing network resources.
+     * Closes the underlying [S3Client] and drops cached blocks.
      */
     override fun close() {
+        blockCache.close()
         client.close()
     }
 
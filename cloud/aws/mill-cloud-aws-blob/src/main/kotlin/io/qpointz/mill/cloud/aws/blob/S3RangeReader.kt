@@ -0,0 +1,72 @@
+package io.qpointz.mill.cloud.aws.blob
+
+import io.qpointz.mill.source.blob.BlobRangeReader
+import software.amazon.awssdk.services.s3.S3Client
+import software.amazon.awssdk.services.s3.model.GetObjectRequest
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse
+import software.amazon.awssdk.services.s3.model.RequestPayer
+
+/**
+ * A [BlobRangeReader] backed by S3 ranged `GetObject` requests.
+ *
+ * Object size and ETag are taken from list metadata when provided, else obtained
+ * lazily from a single `HeadObject` call. Ranged reads are conditional on the ETag,
+ * so an object overwritten while it is being read fails instead of mixing versions.
+ *
+ * The reader does **not** own the [S3Client] lifecycle; the caller
+ * (typically [S3BlobSource]) is responsible for closing the client.
+ *
+ * @param client the S3 client to issue requests against
+ * @param bucket the S3 bucket name
+ * @param objectKey the S3 object key
+ * @param knownContentLength when non-null and non-negative, used as [size] without calling
+ *   `HeadObject` (typically from list metadata)
+ * @param knownETag when non-null, used as [version] (typically from list metadata)
+ * @param requesterPays when `true`, sends `x-amz-request-payer: requester` on head and ranged get
+ */
+class S3RangeReader(
+    private val client: S3Client,
+    private val bucket: String,
+    private val objectKey: String,
+    private val knownContentLength: Long? = null,
+    private val knownETag: String? = null,
+    private val requesterPays: Boolean = false
+) : BlobRangeReader {
+
+    private val head: HeadObjectResponse by lazy {
+        val headBuilder = HeadObjectRequest.builder()
+            .bucket(bucket)
+            .key(objectKey)
+        if (requesterPays) {
+            headBuilder.requestPayer(RequestPayer.REQUESTER)
+        }
+        client.headObject(headBuilder.build())
+    }
+
+    override val key: String = "s3://$bucket/$objectKey"
+
+    override val version: String? by lazy { knownETag ?: head.eTag() }
+
+    private val cachedSize: Long by lazy {
+        val known = knownContentLength
+        if (known != null && known >= 0L) known else head.contentLength()
+    }
+
+    override fun size(): Long = cachedSize
+
+    /**
+     * Issues one ranged `GetObject` for `[offset, offset + length)`.
+     */
+    override fun read(offset: Long, length: Int): ByteArray {
+        val getBuilder = GetObjectRequest.builder()
+            .bucket(bucket)
+            .key(objectKey)
+            .range("bytes=$offset-${offset + length - 1}")
+        version?.let { getBuilder.ifMatch(it) }
+        if (requesterPays) {
+            getBuilder.requestPayer(RequestPayer.REQUESTER)
+        }
+        return client.getObject(getBuilder.build()).use { it.readNBytes(length) }
+    }
+}
@@ -173,6 +173,31 @@ class S3FlowBackendIT {
         }
     }
 
+    @Test
+    fun shouldServeRepeatedFooterReadsFromBlockCache() {
+        val materializer = SourceMaterializer()
+        materializer.createBlobSource(parquetDescriptor).use { src ->
+            val cache = (src as S3BlobSource).blockCache
+            val blob = src.listBlobs().first()
+
+            fun readTail(): String = src.openSeekableChannel(blob).use { ch ->
+                val buf = ByteBuffer.allocate(4)
+                ch.position(ch.size() - 4)
+                while (buf.hasRemaining()) ch.read(buf)
+                String(buf.array())
+            }
+
+            assertThat(readTail()).isEqualTo("PAR1")
+            val afterFirst = cache.metrics.snapshot()
+            assertThat(readTail()).isEqualTo("PAR1")
+            val afterSecond = cache.metrics.snapshot()
+
+            assertThat(afterFirst.requests).isEqualTo(1)
+            assertThat(afterSecond.requests).isEqualTo(afterFirst.requests)
+            assertThat(afterSecond.hits).isGreaterThan(afterFirst.hits)
+        }
+    }
+
     // ── flow backend: schema listing ───────────────────────────────
 
     @Test
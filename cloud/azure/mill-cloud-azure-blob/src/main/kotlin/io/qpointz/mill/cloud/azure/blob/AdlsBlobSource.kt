@@ -1,8 +1,10 @@
 package io.qpointz.mill.cloud.azure.blob
 
 import com.azure.storage.blob.BlobContainerClient
+import com.azure.storage.blob.models.ListBlobsOptions
 import io.qpointz.mill.source.BlobPath
 import io.qpointz.mill.source.BlobSource
+import io.qpointz.mill.source.blob.BlobBlockCache
 import org.slf4j.LoggerFactory
 import java.io.InputStream
 import java.net.URI
@@ -12,17 +14,19 @@ import java.nio.channels.SeekableByteChannel
  * [BlobSource] backed by an Azure Blob Storage container.
  *
  * Blob discovery is performed via [BlobContainerClient.listBlobs]; streaming reads
- * use [com.azure.storage.blob.BlobClient.openInputStream] and seekable reads delegate
- * to [AdlsSeekableByteChannel] (range-based downloads).
+ * use [com.azure.storage.blob.BlobClient.openInputStream] and seekable reads go through
+ * [blockCache] over an [AdlsRangeReader] (range-based downloads).
  *
- * Azure SDK HTTP clients are self-managed — [close] is a no-op.
+ * Azure SDK HTTP clients are self-managed — [close] only drops cached blocks.
  *
  * @property containerClient pre-built Azure container client
  * @property prefix          optional blob name prefix filter
+ * @property blockCache      cache behind [openSeekableChannel] (lifecycle owned by this source)
  */
 class AdlsBlobSource(
     private val containerClient: BlobContainerClient,
-    private val prefix: String?
+    private val prefix: String?,
+    val blockCache: BlobBlockCache = BlobBlockCache()
 ) : BlobSource {
 
     private val log = LoggerFactory.getLogger(AdlsBlobSource::class.java)
@@ -66,6 +70,30 @@ class AdlsBlobSource(
         return paths.asSequence()
     }
 
+    /**
+     * Lists the blobs whose name continues the source prefix with [prefix], as a flat listing.
+     */
+    override fun listBlobs(prefix: String): Sequence<BlobPath> {
+        if (prefix.isEmpty()) return listBlobs()
+        val namePrefix = this.prefix.orEmpty() + prefix
+        val baseUri = containerClient.blobContainerUrl
+        log.trace("listBlobs: containerUrl={}, prefix={}", baseUri, namePrefix)
+        return containerClient.listBlobs(ListBlobsOptions().setPrefix(namePrefix), null)
+            .asSequence()
+            .map { item -> AdlsBlobPath(blobName = item.name, uri = URI.create("$baseUri/${item.name}")) }
+    }
+
+    /**
+     * Recreates an [AdlsBlobPath] for a [uri] inside this container.
+     */
+    override fun blobOf(uri: URI): BlobPath? {
+        val base = "${containerClient.blobContainerUrl}/"
+        val text = uri.toString()
+        if (!text.startsWith(base)) return null
+        val name = text.removePrefix(base)
+        return if (name.isNotEmpty() && name.startsWith(prefix.orEmpty())) AdlsBlobPath(name, uri) else null
+    }
+
     override fun openInputStream(path: BlobPath): InputStream {
         val adlsPath = requireAdlsPath(path)
         return containerClient.getBlobClient(adlsPath.blobName).openInputStream()
@@ -74,11 +102,12 @@ class AdlsBlobSource(
     override fun openSeekableChannel(path: BlobPath): SeekableByteChannel {
         val adlsPath = requireAdlsPath(path)
         val blobClient = containerClient.getBlobClient(adlsPath.blobName)
-        return AdlsSeekableByteChannel(blobClient)
+        return blockCache.open(AdlsRangeReader(blobClient))
     }
 
     override fun close() {
-        // Azure SDK HTTP clients are self-managed; no explicit teardown needed.
+        // Azure SDK HTTP clients are self-managed; only the block cache needs releasing.
+        blockCache.close()
     }
 
     private fun requireAdlsPath(path: BlobPath): AdlsBlobPath {
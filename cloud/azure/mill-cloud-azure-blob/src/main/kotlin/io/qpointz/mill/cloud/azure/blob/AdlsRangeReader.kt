@@ -0,0 +1,36 @@
+package io.qpointz.mill.cloud.azure.blob
+
+import com.azure.storage.blob.BlobClient
+import com.azure.storage.blob.models.BlobProperties
+import com.azure.storage.blob.models.BlobRange
+import com.azure.storage.blob.models.BlobRequestConditions
+import io.qpointz.mill.source.blob.BlobRangeReader
+import java.io.ByteArrayOutputStream
+
+/**
+ * [BlobRangeReader] backed by Azure range downloads.
+ *
+ * Blob size and ETag are fetched lazily with one properties call; downloads are
+ * conditional on that ETag.
+ *
+ * @param blobClient client of the blob to read
+ */
+class AdlsRangeReader(
+    private val blobClient: BlobClient
+) : BlobRangeReader {
+
+    private val properties: BlobProperties by lazy { blobClient.properties }
+
+    override val key: String = blobClient.blobUrl
+
+    override val version: String? by lazy { properties.eTag }
+
+    override fun size(): Long = properties.blobSize
+
+    override fun read(offset: Long, length: Int): ByteArray {
+        val buffer = ByteArrayOutputStream(length)
+        val conditions = version?.let { BlobRequestConditions().setIfMatch(it) }
+        blobClient.downloadStreamWithResponse(buffer, BlobRange(offset, length.toLong()), null, conditions, false, null, null)
+        return buffer.toByteArray()
+    }
+}
@@ -4,7 +4,9 @@ import com.google.cloud.storage.BlobId
 import com.google.cloud.storage.Storage
 import io.qpointz.mill.source.BlobPath
 import io.qpointz.mill.source.BlobSource
+import io.qpointz.mill.source.blob.BlobBlockCache
 import java.io.InputStream
+import java.net.URI
 import java.nio.channels.Channels
 import java.nio.channels.SeekableByteChannel
 
@@ -17,20 +19,40 @@ import java.nio.channels.SeekableByteChannel
  * The caller must [close] this source when finished to release the
  * underlying [Storage] client and HTTP transport.
  *
+ * Seekable reads go through [blockCache], keyed by the blob ETag.
+ *
  * @property storage the GCS client
  * @property bucket  target bucket name
  * @property prefix  optional key prefix to scope listing
+ * @property blockCache cache behind [openSeekableChannel] (lifecycle owned by this source)
  */
 class GcsBlobSource(
     private val storage: Storage,
     private val bucket: String,
-    private val prefix: String?
+    private val prefix: String?,
+    val blockCache: BlobBlockCache = BlobBlockCache()
 ) : BlobSource {
 
-    override fun listBlobs(): Sequence<BlobPath> {
+    override fun listBlobs(): Sequence<BlobPath> = listObjects(prefix.orEmpty())
+
+    /**
+     * Lists the objects whose key continues the source prefix with [prefix].
+     */
+    override fun listBlobs(prefix: String): Sequence<BlobPath> = listObjects(this.prefix.orEmpty() + prefix)
+
+    /**
+     * Recreates a [GcsBlobPath] for a `gs://` [uri] under [bucket] and [prefix].
+     */
+    override fun blobOf(uri: URI): BlobPath? {
+        if (uri.scheme != "gs" || uri.host != bucket) return null
+        val name = uri.path.removePrefix("/")
+        return if (name.isNotEmpty() && name.startsWith(prefix.orEmpty())) GcsBlobPath(bucket, name) else null
+    }
+
+    private fun listObjects(namePrefix: String): Sequence<BlobPath> {
         val options = buildList {
-            if (!prefix.isNullOrBlank()) {
-                add(Storage.BlobListOption.prefix(prefix))
+            if (namePrefix.isNotBlank()) {
+                add(Storage.BlobListOption.prefix(namePrefix))
             }
         }
         return storage.list(bucket, *options.toTypedArray())
@@ -51,11 +73,11 @@ class GcsBlobSource(
         val blobId = BlobId.of(gcsPath.bucket, gcsPath.name)
         val blob = storage.get(blobId)
             ?: throw IllegalStateException("Blob not found: ${gcsPath.uri}")
-        val reader = storage.reader(blobId)
-        return GcsSeekableByteChannel(reader, blob.size)
+        return blockCache.open(GcsRangeReader(storage, blob))
     }
 
     override fun close() {
+        blockCache.close()
         try {
             storage.close()
         } catch (_: Exception) {
@@ -0,0 +1,43 @@
+package io.qpointz.mill.cloud.gcp.blob
+
+import com.google.cloud.storage.Blob
+import com.google.cloud.storage.Storage
+import io.qpointz.mill.source.blob.BlobRangeReader
+import java.io.EOFException
+import java.nio.ByteBuffer
+
+/**
+ * [BlobRangeReader] backed by GCS ranged reads.
+ *
+ * Every [read] opens a [com.google.cloud.ReadChannel] on the blob's generation, limited
+ * to the requested range, so the bytes always come from the version whose [Blob.getEtag]
+ * is reported as [version].
+ *
+ * @param storage GCS client (lifecycle owned by [GcsBlobSource])
+ * @param blob    blob metadata obtained when the channel was opened
+ */
+class GcsRangeReader(
+    private val storage: Storage,
+    private val blob: Blob
+) : BlobRangeReader {
+
+    override val key: String = "gs://${blob.bucket}/${blob.name}"
+
+    override val version: String? = blob.etag
+
+    override fun size(): Long = blob.size
+
+    override fun read(offset: Long, length: Int): ByteArray {
+        val buffer = ByteBuffer.allocate(length)
+        storage.reader(blob.blobId).use { channel ->
+            channel.seek(offset)
+            channel.limit(offset + length)
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw EOFException("Unexpected end of $key at ${offset + buffer.position()}")
+                }
+            }
+        }
+        return buffer.array()
+    }
+}
@@ -9,14 +9,24 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
+import java.lang.ref.Cleaner;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * {@link VectorBlockIterator} over a JDBC {@link ResultSet}.
+ *
+ * <p>An optional release hook (typically closing result set, statement and connection)
+ * runs once when the result set is drained, when {@link #close()} is called, or when the
+ * iterator is abandoned and garbage collected, whichever comes first.</p>
+ */
 @Slf4j
-public class ResultSetVectorBlockIterator implements VectorBlockIterator {
+public class ResultSetVectorBlockIterator implements VectorBlockIterator, AutoCloseable {
+
+    private static final Cleaner CLEANER = Cleaner.create();
 
     @Getter
     private final ResultSet resultSet;
@@ -27,11 +37,19 @@ public class ResultSetVectorBlockIterator implements VectorBlockIterator {
     private final MappingVectorProducer<ResultSetColumnReader, ?>[] vectorProducers;
     private final int columnCount;
     private final AtomicInteger blockIdx;
+    private final Cleaner.Cleanable release;
 
     public ResultSetVectorBlockIterator(ResultSet resultSet, int fetchSize, List<String> names) {
+        this(resultSet, fetchSize, names, null);
+    }
+
+    public ResultSetVectorBlockIterator(ResultSet resultSet, int fetchSize, List<String> names, AutoCloseable onClose) {
         this.resultSet = resultSet;
         this.fetchSize = fetchSize;
         this.blockIdx = new AtomicInteger(-1);
+        this.release = onClose != null
+                ? CLEANER.register(this, new ReleaseAction(onClose))
+                : null;
         try {
             this.columnCount = this.resultSet.getMetaData().getColumnCount();
             columnReaders = new ResultSetColumnReader[columnCount];
@@ -63,6 +81,7 @@ public class ResultSetVectorBlockIterator implements VectorBlockIterator {
             }
             this.schema = schemaBuilder.build();
         } catch (SQLException e) {
+            close();
             throw new RuntimeException(e);
         }
     }
@@ -100,14 +119,20 @@ public class ResultSetVectorBlockIterator implements VectorBlockIterator {
     private void doNext() {
         var rowIndex = 0;
         this.block = null;
+        if (this.closed) {
+            this.didNext = true;
+            return;
+        }
 
         try {
+            var drained = true;
             while (this.resultSet.next()) {
                 for (var column = 0; column < this.columnCount; column++) {
                     vectorProducers[column].append(columnReaders[column]);
                 }
                 rowIndex++;
                 if (rowIndex >= this.fetchSize) {
+                    drained = false;
                     break;
                 }
             }
@@ -127,9 +152,41 @@ public class ResultSetVectorBlockIterator implements VectorBlockIterator {
                 }
                 this.block = blockBuilder.build();
             }
+            if (drained) {
+                close();
+            }
         } catch (SQLException e) {
+            close();
             throw new RuntimeException(e);
         }
         this.didNext = true;
     }
+
+    private boolean closed = false;
+
+    /**
+     * Releases underlying JDBC resources. Safe to call multiple times; subsequent
+     * {@link #hasNext()} calls return {@code false} once buffered block is consumed.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if (this.release != null) {
+            this.release.clean();
+        }
+    }
+
+    private record ReleaseAction(AutoCloseable resource) implements Runnable {
+        @Override
+        public void run() {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                log.warn("Failed to release result set resources", e);
+            }
+        }
+    }
 }
@@ -1,10 +1,32 @@
 package io.qpointz.mill.source.format.arrow
 
+import com.fasterxml.jackson.annotation.JsonProperty
 import com.fasterxml.jackson.annotation.JsonTypeName
 import io.qpointz.mill.source.descriptor.FormatDescriptor
 
 /**
  * Format descriptor for Apache Arrow IPC payloads (stream/file).
+ *
+ * YAML example:
+ * ```yaml
+ * format:
+ *   type: arrow
+ *   memoryLimit: 268435456
+ * ```
+ *
+ * @property memoryLimit maximum off-heap bytes all readers of this format may hold at once
  */
 @JsonTypeName("arrow")
-class ArrowFormatDescriptor : FormatDescriptor
+data class ArrowFormatDescriptor(
+    @JsonProperty("memoryLimit") val memoryLimit: Long = DEFAULT_MEMORY_LIMIT
+) : FormatDescriptor {
+
+    init {
+        require(memoryLimit > 0) { "memoryLimit must be positive, got $memoryLimit" }
+    }
+
+    companion object {
+        /** Default off-heap limit: 256 MiB. */
+        const val DEFAULT_MEMORY_LIMIT: Long = 256L * 1024 * 1024
+    }
+}
@@ -7,12 +7,41 @@ import io.qpointz.mill.source.RecordSchema
 import io.qpointz.mill.source.RecordSource
 import io.qpointz.mill.source.statistics.RecordStatistic
 import io.qpointz.mill.source.statistics.RecordStatisticReader
+import org.apache.arrow.memory.BufferAllocator
 import org.apache.arrow.memory.RootAllocator
 
-class ArrowFormatHandler : FormatHandler, RecordStatisticReader {
+/**
+ * [FormatHandler] for Arrow IPC blobs.
+ *
+ * All schema inference, statistics and record sources created by one handler allocate
+ * from a single [RootAllocator] capped at [memoryLimit], each through a child allocator
+ * of its own; exceeding the limit fails the read with an Arrow `OutOfMemoryException`
+ * instead of exhausting the process. [allocatedMemory] and [peakMemoryAllocation]
+ * expose the current and peak off-heap usage.
+ *
+ * The allocator is created on first use and released by [close], which the owning
+ * [io.qpointz.mill.source.factory.MaterializedSource] calls when the source is closed.
+ *
+ * @property memoryLimit maximum off-heap bytes held by this handler at once
+ */
+class ArrowFormatHandler(
+    val memoryLimit: Long = ArrowFormatDescriptor.DEFAULT_MEMORY_LIMIT
+) : FormatHandler, RecordStatisticReader, AutoCloseable {
+
+    private val rootAllocator = lazy { RootAllocator(memoryLimit) }
+
+    private val allocator: BufferAllocator by rootAllocator
+
+    /** Off-heap bytes currently allocated by readers of this handler. */
+    val allocatedMemory: Long
+        get() = allocator.allocatedMemory
+
+    /** Highest off-heap allocation observed by this handler. */
+    val peakMemoryAllocation: Long
+        get() = allocator.peakMemoryAllocation
+
     override fun inferSchema(blob: BlobPath, blobSource: BlobSource): RecordSchema {
-        val allocator = RootAllocator(Long.MAX_VALUE)
-        return allocator.use { alloc ->
+        return childAllocator("schema", blob).use { alloc ->
             ArrowReaders.open(blob, blobSource, alloc).use { reader ->
                 ArrowSchemaConverter.toRecordSchema(reader.root.schema)
             }
@@ -20,12 +49,11 @@ class ArrowFormatHandler : FormatHandler, RecordStatisticReader {
     }
 
     override fun createRecordSource(blob: BlobPath, blobSource: BlobSource, schema: RecordSchema): RecordSource {
-        return ArrowRecordSource(blob, blobSource, schema)
+        return ArrowRecordSource(blob, blobSource, schema, allocator)
     }
 
     override fun readRecordStatistic(blob: BlobPath, blobSource: BlobSource): RecordStatistic {
-        val allocator = RootAllocator(Long.MAX_VALUE)
-        return allocator.use { alloc ->
+        return childAllocator("statistic", blob).use { alloc ->
             ArrowReaders.open(blob, blobSource, alloc).use { reader ->
                 var totalRows = 0L
                 while (reader.loadNextBatch()) {
@@ -35,4 +63,17 @@ class ArrowFormatHandler : FormatHandler, RecordStatisticReader {
             }
         }
     }
+
+    private fun childAllocator(purpose: String, blob: BlobPath): BufferAllocator =
+        allocator.newChildAllocator("arrow-$purpose:${blob.uri}", 0, memoryLimit)
+
+    /**
+     * Releases the root allocator. Fails with an [IllegalStateException] when record
+     * iterators of this handler are still open, since their buffers would leak.
+     */
+    override fun close() {
+        if (rootAllocator.isInitialized()) {
+            allocator.close()
+        }
+    }
 }
@@ -11,6 +11,6 @@ class ArrowFormatHandlerFactory : FormatHandlerFactory {
         require(descriptor is ArrowFormatDescriptor) {
             "Expected ArrowFormatDescriptor, got ${descriptor::class.java.name}"
         }
-        return ArrowFormatHandler()
+        return ArrowFormatHandler(descriptor.memoryLimit)
     }
 }
@@ -1,102 +1,205 @@
 package io.qpointz.mill.source.format.arrow
 
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.proto.VectorBlockSchema
 import io.qpointz.mill.source.BlobPath
 import io.qpointz.mill.source.BlobSource
+import io.qpointz.mill.source.CloseableRecordIterator
 import io.qpointz.mill.source.FlowRecordSource
+import io.qpointz.mill.source.FlowVectorSource
 import io.qpointz.mill.source.Record
+import io.qpointz.mill.source.RecordScanSpec
 import io.qpointz.mill.source.RecordSchema
-import org.apache.arrow.memory.ArrowBuf
-import org.apache.arrow.memory.RootAllocator
+import io.qpointz.mill.source.ScanMetrics
+import io.qpointz.mill.source.ScanPushdownSource
+import io.qpointz.mill.source.SchemaField
+import io.qpointz.mill.vectors.VectorBlockIterator
+import org.apache.arrow.memory.BufferAllocator
 import org.apache.arrow.vector.FieldVector
-import org.apache.arrow.vector.types.pojo.ArrowType
-import org.apache.arrow.vector.types.pojo.Field
-import org.apache.arrow.vector.util.Text
-import java.nio.ByteBuffer
-import java.time.Instant
-import java.time.LocalDateTime
-import java.time.OffsetDateTime
-import java.time.ZoneId
-import java.time.ZonedDateTime
 
 /**
- * Row-oriented Arrow IPC source. Reader path is timezone-aware for timestamp
- * fields with per-column timezone metadata and normalizes values to UTC instant.
+ * Arrow IPC (stream or file) source streaming one record batch at a time.
+ *
+ * Both access modes are native:
+ * - [vectorBlocks] converts Arrow [FieldVector]s straight into [VectorBlock] vectors,
+ *   splitting record batches larger than the requested batch size;
+ * - [iterator] exposes the same batches row by row.
+ *
+ * Every iteration reads through its own child of [allocator], closed when the iteration
+ * is exhausted or closed, so at most one decoded record batch per open iterator is held
+ * off-heap. Timestamp fields with timezone metadata are normalized to a UTC instant.
+ *
+ * Only the columns of [schema] are converted; field indices of the original schema are
+ * preserved, so projected vectors keep their table-level `fieldIdx`.
+ *
+ * @property blob       the Arrow blob to read
+ * @property blobSource the source providing I/O access to the blob
+ * @property schema     the Mill schema describing the fields to read
+ * @property allocator  parent allocator bounding off-heap memory of all iterations
+ * @property metrics    counters opened sources are reported to
  */
 class ArrowRecordSource(
     private val blob: BlobPath,
     private val blobSource: BlobSource,
-    override val schema: RecordSchema
-) : FlowRecordSource {
+    override val schema: RecordSchema,
+    private val allocator: BufferAllocator,
+    private val metrics: ScanMetrics? = null,
+) : FlowRecordSource, FlowVectorSource, ScanPushdownSource {
 
-    override fun iterator(): Iterator<Record> {
-        val allocator = RootAllocator(Long.MAX_VALUE)
-        val reader = ArrowReaders.open(blob, blobSource, allocator)
-        return loadAllRecords(reader, allocator).iterator()
+    /**
+     * Returns a source converting only the columns of [spec]; predicates are not evaluated.
+     */
+    override fun pushdown(spec: RecordScanSpec, metrics: ScanMetrics): ArrowRecordSource {
+        return ArrowRecordSource(blob, blobSource, schema.project(spec.columns), allocator, metrics)
     }
 
-    private fun loadAllRecords(reader: ArrowBatchReader, allocator: RootAllocator): List<Record> {
-        return try {
-            val records = mutableListOf<Record>()
-            while (reader.loadNextBatch()) {
-                val root = reader.root
-                val fields = root.schema.fields
-                val vectors = root.fieldVectors
-                for (rowIndex in 0 until root.rowCount) {
-                    val values = mutableMapOf<String, Any?>()
-                    for (colIndex in fields.indices) {
-                        val field = fields[colIndex]
-                        val vector = vectors[colIndex]
-                        values[field.name] = convertValue(vector, field, rowIndex)
-                    }
-                    records += Record(values)
-                }
-            }
-            records
-        } finally {
-            runCatching { reader.close() }
-            runCatching { allocator.close() }
+    override fun iterator(): Iterator<Record> =
+        ArrowRecordIterator(cursor(), schema)
+
+    override fun vectorBlocks(batchSize: Int): VectorBlockIterator {
+        require(batchSize > 0) { "batchSize must be positive, got $batchSize" }
+        return ArrowVectorBlockIterator(cursor(), schema, batchSize)
+    }
+
+    private fun cursor(): ArrowBatchCursor {
+        metrics?.sourceOpened()
+        return ArrowBatchCursor(blob, blobSource, allocator)
+    }
+}
+
+/**
+ * Record batch reader bound to a child allocator of its own.
+ *
+ * Closes itself once the last batch has been consumed.
+ */
+private class ArrowBatchCursor(
+    blob: BlobPath,
+    blobSource: BlobSource,
+    parent: BufferAllocator,
+) : AutoCloseable {
+
+    private val allocator: BufferAllocator = parent.newChildAllocator("arrow:${blob.uri}", 0, parent.limit)
+
+    private val reader: ArrowBatchReader = try {
+        ArrowReaders.open(blob, blobSource, allocator)
+    } catch (e: Exception) {
+        allocator.close()
+        throw e
+    }
+
+    private var closed = false
+
+    /** Rows of the current batch; `0` before the first and after the last batch. */
+    var rows = 0
+        private set
+
+    /**
+     * Loads the next non-empty batch; returns `false` and closes the cursor at the end.
+     */
+    fun nextBatch(): Boolean {
+        if (closed) return false
+        while (reader.loadNextBatch()) {
+            rows = reader.root.rowCount
+            if (rows > 0) return true
         }
+        close()
+        return false
+    }
+
+    /** Vector of [field] in the current batch, or `null` when the blob lacks the column. */
+    fun vector(field: SchemaField): FieldVector? = reader.root.getVector(field.name)
+
+    override fun close() {
+        if (closed) return
+        closed = true
+        rows = 0
+        runCatching { reader.close() }
+        allocator.close()
     }
+}
+
+/**
+ * Row view over [ArrowBatchCursor] batches.
+ */
+private class ArrowRecordIterator(
+    private val cursor: ArrowBatchCursor,
+    schema: RecordSchema,
+) : CloseableRecordIterator {
+
+    private val fields = schema.fields
+
+    private var vectors: List<FieldVector?> = emptyList()
 
-    private fun convertValue(vector: FieldVector, field: Field, rowIndex: Int): Any? {
-        if (vector.isNull(rowIndex)) return null
-        val raw = vector.getObject(rowIndex)
-        val base = normalizeGeneric(raw)
+    private var row = 0
 
-        val tsType = field.type as? ArrowType.Timestamp ?: return base
-        if (tsType.timezone.isNullOrBlank()) return base
-        return normalizeTimestampToUtc(base, tsType.timezone)
+    override fun hasNext(): Boolean {
+        if (row < cursor.rows) return true
+        row = 0
+        if (!cursor.nextBatch()) return false
+        vectors = fields.map(cursor::vector)
+        return true
     }
 
-    private fun normalizeGeneric(value: Any?): Any? {
-        return when (value) {
-            is Text -> value.toString()
-            is ArrowBuf -> {
-                val bytes = ByteArray(value.readableBytes().toInt())
-                value.getBytes(value.readerIndex(), bytes)
-                bytes
-            }
-            is ByteBuffer -> {
-                val duplicate = value.duplicate()
-                val bytes = ByteArray(duplicate.remaining())
-                duplicate.get(bytes)
-                bytes
-            }
-            else -> value
+    override fun next(): Record {
+        if (!hasNext()) throw NoSuchElementException()
+        val values = HashMap<String, Any?>(fields.size * 2)
+        for (idx in fields.indices) {
+            values[fields[idx].name] = ArrowVectors.value(vectors[idx], row)
         }
+        row++
+        return Record(values)
+    }
+
+    override fun close() {
+        cursor.close()
+    }
+}
+
+/**
+ * Columnar iterator producing blocks of at most `batchSize` rows from [ArrowBatchCursor] batches.
+ */
+private class ArrowVectorBlockIterator(
+    private val cursor: ArrowBatchCursor,
+    schema: RecordSchema,
+    private val batchSize: Int,
+) : VectorBlockIterator, AutoCloseable {
+
+    private val fields = schema.fields
+
+    private val vbSchema: VectorBlockSchema = schema.toVectorBlockSchema()
+
+    private var vectors: List<FieldVector?> = emptyList()
+
+    private var offset = 0
+
+    override fun schema(): VectorBlockSchema = vbSchema
+
+    override fun hasNext(): Boolean {
+        if (offset < cursor.rows) return true
+        offset = 0
+        if (!cursor.nextBatch()) return false
+        vectors = fields.map(cursor::vector)
+        return true
     }
 
-    private fun normalizeTimestampToUtc(value: Any?, timezone: String): Any? {
-        if (value == null) return null
-        val zone = ZoneId.of(timezone)
-
-        return when (value) {
-            is Instant -> value
-            is ZonedDateTime -> value.toInstant()
-            is OffsetDateTime -> value.toInstant()
-            is LocalDateTime -> value.atZone(zone).toInstant()
-            is Number -> Instant.ofEpochMilli(value.toLong())
-            else -> value
+    override fun next(): VectorBlock {
+        if (!hasNext()) throw NoSuchElementException()
+        val size = minOf(batchSize, cursor.rows - offset)
+        val block = VectorBlock.newBuilder()
+            .setSchema(vbSchema)
+            .setVectorSize(size)
+        for (idx in fields.indices) {
+            block.addVectors(ArrowVectors.toVector(fields[idx], vectors[idx], offset, size))
         }
+        offset += size
+        return block.build()
+    }
+
+    override fun remove() {
+        throw UnsupportedOperationException("remove() is not supported")
+    }
+
+    override fun close() {
+        cursor.close()
     }
 }
@@ -0,0 +1,183 @@
+package io.qpointz.mill.source.format.arrow
+
+import com.google.protobuf.ByteString
+import io.qpointz.mill.proto.LogicalDataType.LogicalDataTypeId
+import io.qpointz.mill.proto.Vector
+import io.qpointz.mill.source.SchemaField
+import org.apache.arrow.memory.ArrowBuf
+import org.apache.arrow.vector.BaseIntVector
+import org.apache.arrow.vector.BitVector
+import org.apache.arrow.vector.FieldVector
+import org.apache.arrow.vector.Float4Vector
+import org.apache.arrow.vector.Float8Vector
+import org.apache.arrow.vector.VarBinaryVector
+import org.apache.arrow.vector.VarCharVector
+import org.apache.arrow.vector.types.pojo.ArrowType
+import org.apache.arrow.vector.util.Text
+import java.nio.ByteBuffer
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.OffsetDateTime
+import java.time.ZoneId
+import java.time.ZonedDateTime
+
+/**
+ * Conversions from Arrow [FieldVector]s to Mill row values and protobuf [Vector]s.
+ *
+ * Timestamp fields with timezone metadata are normalized to a UTC [Instant].
+ */
+internal object ArrowVectors {
+
+    /**
+     * Returns the value at [row] of [vector] as exposed on the row path, or `null`
+     * when the row is null or the column is missing ([vector] is `null`).
+     */
+    fun value(vector: FieldVector?, row: Int): Any? {
+        if (vector == null || vector.isNull(row)) return null
+        val base = normalizeGeneric(vector.getObject(row))
+
+        val tsType = vector.field.type as? ArrowType.Timestamp ?: return base
+        if (tsType.timezone.isNullOrBlank()) return base
+        return normalizeTimestampToUtc(base, tsType.timezone)
+    }
+
+    /**
+     * Encodes rows `[offset, offset + size)` of [vector] for [field] with the same typing
+     * rules as the row-to-vector bridge in source-core: nulls carry the type default and
+     * are flagged in the nulls vector. Primitive Arrow vectors are read without boxing.
+     */
+    fun toVector(field: SchemaField, vector: FieldVector?, offset: Int, size: Int): Vector {
+        val result = Vector.newBuilder().setFieldIdx(field.index)
+        val end = offset + size
+
+        fun isNull(row: Int) = vector == null || vector.isNull(row)
+
+        if ((offset until end).any(::isNull)) {
+            val nulls = Vector.NullsVector.newBuilder()
+            for (row in offset until end) nulls.addNulls(isNull(row))
+            result.setNulls(nulls)
+        }
+
+        when (field.type.asLogicalDataType().typeId) {
+            LogicalDataTypeId.INT,
+            LogicalDataTypeId.SMALL_INT,
+            LogicalDataTypeId.TINY_INT -> {
+                val b = Vector.I32Vector.newBuilder()
+                for (row in offset until end) {
+                    b.addValues(if (isNull(row)) 0 else long(vector!!, row).toInt())
+                }
+                result.setI32Vector(b)
+            }
+            LogicalDataTypeId.BIG_INT -> {
+                val b = Vector.I64Vector.newBuilder()
+                for (row in offset until end) {
+                    b.addValues(if (isNull(row)) 0L else long(vector!!, row))
+                }
+                result.setI64Vector(b)
+            }
+            LogicalDataTypeId.FLOAT -> {
+                val b = Vector.FP32Vector.newBuilder()
+                for (row in offset until end) {
+                    b.addValues(
+                        when {
+                            isNull(row) -> 0f
+                            vector is Float4Vector -> vector.get(row)
+                            else -> (value(vector, row) as? Number)?.toFloat() ?: 0f
+                        }
+                    )
+                }
+                result.setFp32Vector(b)
+            }
+            LogicalDataTypeId.DOUBLE -> {
+                val b = Vector.FP64Vector.newBuilder()
+                for (row in offset until end) {
+                    b.addValues(
+                        when {
+                            isNull(row) -> 0.0
+                            vector is Float8Vector -> vector.get(row)
+                            else -> (value(vector, row) as? Number)?.toDouble() ?: 0.0
+                        }
+                    )
+                }
+                result.setFp64Vector(b)
+            }
+            LogicalDataTypeId.BOOL -> {
+                val b = Vector.BoolVector.newBuilder()
+                for (row in offset until end) {
+                    b.addValues(
+                        when {
+                            isNull(row) -> false
+                            vector is BitVector -> vector.get(row) != 0
+                            else -> value(vector, row) as? Boolean ?: false
+                        }
+                    )
+                }
+                result.setBoolVector(b)
+            }
+            LogicalDataTypeId.BINARY -> {
+                val b = Vector.BytesVector.newBuilder()
+                for (row in offset until end) {
+                    val bytes = when {
+                        isNull(row) -> null
+                        vector is VarBinaryVector -> vector.get(row)
+                        else -> value(vector, row) as? ByteArray
+                    }
+                    b.addValues(if (bytes != null) ByteString.copyFrom(bytes) else ByteString.EMPTY)
+                }
+                result.setByteVector(b)
+            }
+            else -> {
+                // STRING, and Date, Time, Timestamp, etc. encoded as string like the row bridge
+                val b = Vector.StringVector.newBuilder()
+                for (row in offset until end) {
+                    b.addValues(
+                        when {
+                            isNull(row) -> ""
+                            vector is VarCharVector -> String(vector.get(row), Charsets.UTF_8)
+                            else -> value(vector, row)?.toString() ?: ""
+                        }
+                    )
+                }
+                result.setStringVector(b)
+            }
+        }
+        return result.build()
+    }
+
+    private fun long(vector: FieldVector, row: Int): Long = when (vector) {
+        is BaseIntVector -> vector.getValueAsLong(row)
+        else -> (value(vector, row) as? Number)?.toLong() ?: 0L
+    }
+
+    private fun normalizeGeneric(value: Any?): Any? {
+        return when (value) {
+            is Text -> value.toString()
+            is ArrowBuf -> {
+                val bytes = ByteArray(value.readableBytes().toInt())
+                value.getBytes(value.readerIndex(), bytes)
+                bytes
+            }
+            is ByteBuffer -> {
+                val duplicate = value.duplicate()
+                val bytes = ByteArray(duplicate.remaining())
+                duplicate.get(bytes)
+                bytes
+            }
+            else -> value
+        }
+    }
+
+    private fun normalizeTimestampToUtc(value: Any?, timezone: String): Any? {
+        if (value == null) return null
+        val zone = ZoneId.of(timezone)
+
+        return when (value) {
+            is Instant -> value
+            is ZonedDateTime -> value.toInstant()
+            is OffsetDateTime -> value.toInstant()
+            is LocalDateTime -> value.atZone(zone).toInstant()
+            is Number -> Instant.ofEpochMilli(value.toLong())
+            else -> value
+        }
+    }
+}
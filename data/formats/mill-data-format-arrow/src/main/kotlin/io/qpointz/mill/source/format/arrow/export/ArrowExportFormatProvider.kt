@@ -5,7 +5,7 @@ import io.qpointz.mill.source.export.ExportFormatProvider
 import io.qpointz.mill.source.export.StreamingExportEncoder
 
 /**
- * SPI: Apache Arrow IPC **stream** format (record batches; column types inferred as UTF-8 for export).
+ * SPI: Apache Arrow IPC **stream** format (typed columns, one record batch per vector block).
  */
 class ArrowExportFormatProvider : ExportFormatProvider {
 
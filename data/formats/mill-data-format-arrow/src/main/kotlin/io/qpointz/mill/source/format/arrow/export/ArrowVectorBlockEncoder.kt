@@ -0,0 +1,211 @@
+package io.qpointz.mill.source.format.arrow.export
+
+import io.qpointz.mill.proto.DataType
+import io.qpointz.mill.proto.LogicalDataType.LogicalDataTypeId
+import io.qpointz.mill.proto.Vector
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.proto.VectorBlockSchema
+import org.apache.arrow.memory.BufferAllocator
+import org.apache.arrow.vector.BigIntVector
+import org.apache.arrow.vector.BitVector
+import org.apache.arrow.vector.DateDayVector
+import org.apache.arrow.vector.FieldVector
+import org.apache.arrow.vector.FixedSizeBinaryVector
+import org.apache.arrow.vector.Float4Vector
+import org.apache.arrow.vector.Float8Vector
+import org.apache.arrow.vector.IntVector
+import org.apache.arrow.vector.SmallIntVector
+import org.apache.arrow.vector.TimeNanoVector
+import org.apache.arrow.vector.TimeStampMilliTZVector
+import org.apache.arrow.vector.TimeStampMilliVector
+import org.apache.arrow.vector.TinyIntVector
+import org.apache.arrow.vector.VarBinaryVector
+import org.apache.arrow.vector.VarCharVector
+import org.apache.arrow.vector.VectorSchemaRoot
+import org.apache.arrow.vector.types.DateUnit
+import org.apache.arrow.vector.types.FloatingPointPrecision
+import org.apache.arrow.vector.types.TimeUnit
+import org.apache.arrow.vector.types.pojo.ArrowType
+import org.apache.arrow.vector.types.pojo.Field
+import org.apache.arrow.vector.types.pojo.FieldType
+import org.apache.arrow.vector.types.pojo.Schema
+
+/**
+ * Copies Mill [VectorBlock]s column by column into one reusable [VectorSchemaRoot].
+ *
+ * Arrow column types are chosen from the logical type of each [VectorBlockSchema] field and
+ * the physical vector kind of the first block, following Mill's physical encodings:
+ *
+ * | Logical type | Mill vector | Arrow type |
+ * |--------------|-------------|------------|
+ * | `TINY_INT` / `SMALL_INT` / `INT` | I32 | `int8` / `int16` / `int32` |
+ * | `BIG_INT` | I64 | `int64` |
+ * | `DATE` | I64 (epoch days) | `date32` |
+ * | `TIME` | I64 (nanos of day) | `time64[ns]` |
+ * | `TIMESTAMP` / `TIMESTAMP_TZ` | I64 (epoch millis, UTC) | `timestamp[ms]` / `timestamp[ms, UTC]` |
+ * | `FLOAT` / `DOUBLE` | FP32 / FP64 | `float32` / `float64` |
+ * | `BOOL` | Bool | `bool` |
+ * | `UUID` | Bytes | `fixed_size_binary(16)` |
+ * | any other | Bytes / String | `binary` / `utf8` |
+ *
+ * Columns whose vectors carry a different physical kind than the logical type implies
+ * (e.g. temporal values rendered as strings by row-oriented sources) keep that kind; an
+ * I32 or I64 column of any other logical type is written as `int32` / `int64`. Columns the
+ * first block lacks, or all columns when there is no first block, take the kind of the
+ * table above.
+ *
+ * @param schema    schema of the blocks to encode
+ * @param first     first block, fixing the physical kind of every column; `null` when the
+ *                  schema is needed before any block is available
+ * @param allocator allocator of the reused vectors
+ */
+class ArrowVectorBlockEncoder(
+    schema: VectorBlockSchema,
+    first: VectorBlock?,
+    allocator: BufferAllocator,
+) : AutoCloseable {
+
+    private val columns: List<Column> = schema.fieldsList.mapIndexed { idx, field ->
+        val valuesCase = first?.takeIf { idx < it.vectorsCount }?.getVectors(idx)?.valuesCase
+            ?.takeUnless { it == Vector.ValuesCase.VALUES_NOT_SET }
+            ?: defaultValuesCase(field.type.type.typeId)
+        Column(field.name, field.type, valuesCase)
+    }
+
+    /** Root holding the last encoded block; reused for every block. */
+    val root: VectorSchemaRoot = VectorSchemaRoot.create(
+        Schema(columns.map { it.arrowField() }),
+        allocator,
+    )
+
+    /**
+     * Replaces the content of [root] with [block].
+     *
+     * @throws IllegalStateException when a vector's kind differs from the first block's
+     */
+    fun encode(block: VectorBlock) {
+        val size = block.vectorSize
+        for (idx in columns.indices) {
+            val target = root.getVector(idx)
+            target.reset()
+            val vector = if (idx < block.vectorsCount) block.getVectors(idx) else null
+            columns[idx].copy(vector, target, size)
+            target.valueCount = size
+        }
+        root.rowCount = size
+    }
+
+    override fun close() {
+        root.close()
+    }
+
+    private fun defaultValuesCase(typeId: LogicalDataTypeId): Vector.ValuesCase = when (typeId) {
+        LogicalDataTypeId.TINY_INT,
+        LogicalDataTypeId.SMALL_INT,
+        LogicalDataTypeId.INT -> Vector.ValuesCase.I32_VECTOR
+        LogicalDataTypeId.BIG_INT,
+        LogicalDataTypeId.DATE,
+        LogicalDataTypeId.TIME,
+        LogicalDataTypeId.TIMESTAMP,
+        LogicalDataTypeId.TIMESTAMP_TZ -> Vector.ValuesCase.I64_VECTOR
+        LogicalDataTypeId.FLOAT -> Vector.ValuesCase.FP32_VECTOR
+        LogicalDataTypeId.DOUBLE -> Vector.ValuesCase.FP64_VECTOR
+        LogicalDataTypeId.BOOL -> Vector.ValuesCase.BOOL_VECTOR
+        LogicalDataTypeId.BINARY,
+        LogicalDataTypeId.UUID -> Vector.ValuesCase.BYTE_VECTOR
+        else -> Vector.ValuesCase.STRING_VECTOR
+    }
+
+    private class Column(
+        private val name: String,
+        private val type: DataType,
+        private val valuesCase: Vector.ValuesCase,
+    ) {
+        private val typeId = type.type.typeId
+
+        fun arrowField(): Field {
+            val nullable = type.nullability != DataType.Nullability.NOT_NULL
+            return Field(name, FieldType(nullable, arrowType(), null), emptyList())
+        }
+
+        private fun arrowType(): ArrowType = when (valuesCase) {
+            Vector.ValuesCase.I32_VECTOR -> when (typeId) {
+                LogicalDataTypeId.TINY_INT -> ArrowType.Int(8, true)
+                LogicalDataTypeId.SMALL_INT -> ArrowType.Int(16, true)
+                else -> ArrowType.Int(32, true)
+            }
+            Vector.ValuesCase.I64_VECTOR -> when (typeId) {
+                LogicalDataTypeId.DATE -> ArrowType.Date(DateUnit.DAY)
+                LogicalDataTypeId.TIME -> ArrowType.Time(TimeUnit.NANOSECOND, 64)
+                LogicalDataTypeId.TIMESTAMP -> ArrowType.Timestamp(TimeUnit.MILLISECOND, null)
+                LogicalDataTypeId.TIMESTAMP_TZ -> ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC")
+                else -> ArrowType.Int(64, true)
+            }
+            Vector.ValuesCase.FP32_VECTOR -> ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE)
+            Vector.ValuesCase.FP64_VECTOR -> ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)
+            Vector.ValuesCase.BOOL_VECTOR -> ArrowType.Bool()
+            Vector.ValuesCase.BYTE_VECTOR ->
+                if (typeId == LogicalDataTypeId.UUID) ArrowType.FixedSizeBinary(16) else ArrowType.Binary()
+            else -> ArrowType.Utf8()
+        }
+
+        /**
+         * Writes the first [size] rows of [vector] into [target], which was just reset: rows
+         * left unset (nulls, or a missing vector) stay null.
+         */
+        fun copy(vector: Vector?, target: FieldVector, size: Int) {
+            if (vector == null || vector.valuesCase == Vector.ValuesCase.VALUES_NOT_SET) return
+            check(vector.valuesCase == valuesCase) {
+                "Column '$name' changed from $valuesCase to ${vector.valuesCase} between blocks"
+            }
+            val values = NonNullRows(vector, size)
+
+            when (target) {
+                is TinyIntVector -> vector.i32Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it)) } }
+                is SmallIntVector -> vector.i32Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it)) } }
+                is IntVector -> vector.i32Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it)) } }
+                is BigIntVector -> vector.i64Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it)) } }
+                is DateDayVector -> vector.i64Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it).toInt()) } }
+                is TimeNanoVector -> vector.i64Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it)) } }
+                is TimeStampMilliTZVector -> vector.i64Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it)) } }
+                is TimeStampMilliVector -> vector.i64Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it)) } }
+                is Float4Vector -> vector.fp32Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it)) } }
+                is Float8Vector -> vector.fp64Vector.let { v -> values.forEach { target.setSafe(it, v.getValues(it)) } }
+                is BitVector -> vector.boolVector.let { v -> values.forEach { target.setSafe(it, if (v.getValues(it)) 1 else 0) } }
+                is FixedSizeBinaryVector -> vector.byteVector.let { v ->
+                    // values of another width than the column's (e.g. empty placeholders) are left null
+                    values.forEach {
+                        val bytes = v.getValues(it)
+                        if (bytes.size() == target.byteWidth) target.setSafe(it, bytes.toByteArray())
+                    }
+                }
+                is VarBinaryVector -> vector.byteVector.let { v ->
+                    values.forEach {
+                        val bytes = v.getValues(it)
+                        target.setSafe(it, bytes.asReadOnlyByteBuffer(), 0, bytes.size())
+                    }
+                }
+                is VarCharVector -> vector.stringVector.valuesList.asByteStringList().let { v ->
+                    values.forEach {
+                        val bytes = v[it]
+                        target.setSafe(it, bytes.asReadOnlyByteBuffer(), 0, bytes.size())
+                    }
+                }
+                else -> throw IllegalStateException("Unsupported Arrow vector ${target.javaClass.simpleName} for '$name'")
+            }
+        }
+    }
+
+    /**
+     * Row indices of the first [size] rows of [vector] that are not flagged null.
+     */
+    private class NonNullRows(val vector: Vector, val size: Int) {
+        val hasNulls = vector.hasNulls()
+
+        inline fun forEach(action: (Int) -> Unit) {
+            for (row in 0 until size) {
+                if (!hasNulls || !vector.nulls.getNulls(row)) action(row)
+            }
+        }
+    }
+}
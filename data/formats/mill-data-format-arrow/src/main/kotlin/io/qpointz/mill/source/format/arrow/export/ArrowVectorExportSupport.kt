@@ -1,5 +1,6 @@
 package io.qpointz.mill.source.format.arrow.export
 
+import io.qpointz.mill.proto.VectorBlock
 import io.qpointz.mill.source.RecordSchema
 import io.qpointz.mill.source.SchemaField
 import io.qpointz.mill.source.format.arrow.ArrowRecordWriter
@@ -8,6 +9,8 @@ import io.qpointz.mill.sql.RecordReader
 import io.qpointz.mill.sql.RecordReaders
 import io.qpointz.mill.types.sql.DatabaseType
 import io.qpointz.mill.vectors.VectorBlockIterator
+import org.apache.arrow.memory.RootAllocator
+import org.apache.arrow.vector.ipc.ArrowStreamWriter
 import java.io.OutputStream
 
 /**
@@ -39,15 +42,44 @@ internal fun RecordReader.rowToRecord(): io.qpointz.mill.source.Record {
 }
 
 /**
- * Arrow IPC **streaming** export over [VectorBlockIterator] (one record batch per row, UTF-8 columns).
+ * Arrow IPC **streaming** export over [VectorBlockIterator].
  */
 internal object ArrowVectorExportSupport {
 
     /**
+     * Writes one typed record batch per non-empty block, copying vectors column by column
+     * through [ArrowVectorBlockEncoder]. Writes nothing when there are no rows.
+     *
      * @param iterator vector batch source
      * @param out Arrow IPC stream bytes
      */
     fun writeIpcStream(iterator: VectorBlockIterator, out: OutputStream) {
+        val first = nextNonEmpty(iterator) ?: return
+        RootAllocator(Long.MAX_VALUE).use { allocator ->
+            ArrowVectorBlockEncoder(iterator.schema(), first, allocator).use { encoder ->
+                ArrowStreamWriter(encoder.root, null, out).use { writer ->
+                    writer.start()
+                    var block: VectorBlock? = first
+                    while (block != null) {
+                        encoder.encode(block)
+                        writer.writeBatch()
+                        block = nextNonEmpty(iterator)
+                    }
+                    writer.end()
+                }
+            }
+        }
+    }
+
+    /**
+     * Row-by-row encoder writing every column as UTF-8, one record batch per row.
+     *
+     * Superseded by [writeIpcStream]; kept as the baseline for encoder comparisons.
+     *
+     * @param iterator vector batch source
+     * @param out Arrow IPC stream bytes
+     */
+    fun writeRowIpcStream(iterator: VectorBlockIterator, out: OutputStream) {
         RecordReaders.recordReader(iterator).useReader { rr ->
             if (!rr.hasNext()) {
                 return@useReader
@@ -63,4 +95,12 @@ internal object ArrowVectorExportSupport {
             }
         }
     }
+
+    private fun nextNonEmpty(iterator: VectorBlockIterator): VectorBlock? {
+        while (iterator.hasNext()) {
+            val block = iterator.next()
+            if (block.vectorSize > 0) return block
+        }
+        return null
+    }
 }
@@ -1,11 +1,17 @@
 package io.qpointz.mill.source.format.arrow
 
+import io.qpointz.mill.source.CloseableRecordIterator
 import io.qpointz.mill.source.FlowRecordSource
 import io.qpointz.mill.source.LocalBlobSource
+import io.qpointz.mill.source.RecordScanSpec
+import io.qpointz.mill.source.ScanMetrics
 import io.qpointz.mill.source.statistics.SourceStatisticWiring
+import org.apache.arrow.memory.OutOfMemoryException
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.io.TempDir
 import java.nio.file.Path
 
@@ -90,4 +96,90 @@ class ArrowFormatHandlerTest {
 
         assertEquals(firstPass, secondPass)
     }
+
+    @Test
+    fun shouldStreamVectorBlocksSplitToBatchSize() {
+        ArrowTestUtils.writeSingleBatchStream(tempDir.resolve("batch.arrow"), 5)
+
+        val handler = ArrowFormatHandler()
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first()
+        val source = handler.createRecordSource(blob, blobSource, handler.inferSchema(blob, blobSource)) as ArrowRecordSource
+
+        val blocks = source.vectorBlocks(2).asSequence().toList()
+        assertEquals(listOf(2, 2, 1), blocks.map { it.vectorSize })
+        assertEquals(listOf(0, 1, 2, 3, 4), blocks.flatMap { it.getVectors(0).i32Vector.valuesList })
+        assertEquals(listOf("name-0", "name-1", "", "name-3", "name-4"), blocks.flatMap { it.getVectors(1).stringVector.valuesList })
+        assertEquals(listOf(true, false), blocks[1].getVectors(1).nulls.nullsList)
+        assertFalse(blocks[0].getVectors(1).hasNulls())
+    }
+
+    @Test
+    fun shouldKeepFieldIndices_whenProjected() {
+        ArrowTestUtils.writeArrowStream(tempDir.resolve("events.arrow"))
+
+        val handler = ArrowFormatHandler()
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first()
+        val metrics = ScanMetrics()
+        val source = (handler.createRecordSource(blob, blobSource, handler.inferSchema(blob, blobSource)) as ArrowRecordSource)
+            .pushdown(RecordScanSpec(columns = setOf("active", "event_ts")), metrics)
+
+        val blocks = source.vectorBlocks().asSequence().toList()
+        assertEquals(listOf(2, 3), blocks[0].vectorsList.map { it.fieldIdx })
+        assertEquals(listOf(true, false), blocks.flatMap { it.getVectors(0).boolVector.valuesList })
+        assertEquals("2026-01-01T10:00:00Z", blocks[0].getVectors(1).stringVector.getValues(0))
+
+        val records = source.toList()
+        assertEquals(setOf("active", "event_ts"), records[0].values.keys)
+        assertEquals(2L, metrics.snapshot().sources)
+    }
+
+    @Test
+    fun shouldReleaseOffHeapMemory_afterIteration() {
+        ArrowTestUtils.writeSingleBatchStream(tempDir.resolve("batch.arrow"), 100)
+
+        val handler = ArrowFormatHandler()
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first()
+        val source = handler.createRecordSource(blob, blobSource, handler.inferSchema(blob, blobSource)) as ArrowRecordSource
+
+        assertEquals(100, source.toList().size)
+        assertEquals(0L, handler.allocatedMemory)
+
+        val iterator = source.iterator() as CloseableRecordIterator
+        iterator.next()
+        assertTrue(handler.allocatedMemory > 0)
+        iterator.close()
+        assertEquals(0L, handler.allocatedMemory)
+        assertTrue(handler.peakMemoryAllocation > 0)
+    }
+
+    @Test
+    fun shouldFailRead_whenMemoryLimitExceeded() {
+        ArrowTestUtils.writeSingleBatchStream(tempDir.resolve("batch.arrow"), 10_000)
+
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first()
+        val schema = ArrowFormatHandler().inferSchema(blob, blobSource)
+        val handler = ArrowFormatHandlerFactory().create(ArrowFormatDescriptor(memoryLimit = 1024)) as ArrowFormatHandler
+
+        val source = handler.createRecordSource(blob, blobSource, schema) as ArrowRecordSource
+        assertThrows<OutOfMemoryException> { source.vectorBlocks().hasNext() }
+    }
+
+    @Test
+    fun shouldCloseAllocator_afterIteration() {
+        ArrowTestUtils.writeSingleBatchStream(tempDir.resolve("batch.arrow"), 10)
+
+        val handler = ArrowFormatHandler()
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first()
+        val source = handler.createRecordSource(blob, blobSource, handler.inferSchema(blob, blobSource)) as ArrowRecordSource
+        assertEquals(10, source.toList().size)
+        assertEquals(0L, handler.allocatedMemory)
+
+        handler.close()
+        ArrowFormatHandler().close()
+    }
 }
@@ -6,7 +6,10 @@ import io.qpointz.mill.types.logical.TimestampTZLogical
 import io.qpointz.mill.types.sql.DatabaseType
 import org.apache.arrow.memory.RootAllocator
 import org.apache.arrow.vector.VectorSchemaRoot
+import org.apache.arrow.vector.IntVector
+import org.apache.arrow.vector.VarCharVector
 import org.apache.arrow.vector.ipc.ArrowFileWriter
+import org.apache.arrow.vector.ipc.ArrowStreamWriter
 import java.nio.file.Files
 import java.nio.file.Path
 import java.nio.file.StandardOpenOption
@@ -67,4 +70,34 @@ object ArrowTestUtils {
             }
         }
     }
+
+    val idNameSchema: RecordSchema = RecordSchema.of(
+        "id" to DatabaseType.i32(false),
+        "name" to DatabaseType.string(true, -1)
+    )
+
+    /**
+     * Writes an Arrow IPC stream of [idNameSchema] holding [rows] rows in one record batch;
+     * every third name is null.
+     */
+    fun writeSingleBatchStream(path: Path, rows: Int) {
+        RootAllocator(Long.MAX_VALUE).use { alloc ->
+            VectorSchemaRoot.create(ArrowSchemaConverter.toArrowSchema(idNameSchema), alloc).use { root ->
+                val ids = root.getVector("id") as IntVector
+                val names = root.getVector("name") as VarCharVector
+                for (row in 0 until rows) {
+                    ids.setSafe(row, row)
+                    if (row % 3 == 2) names.setNull(row) else names.setSafe(row, "name-$row".toByteArray())
+                }
+                root.rowCount = rows
+                Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING).use { out ->
+                    ArrowStreamWriter(root, null, out).use { writer ->
+                        writer.start()
+                        writer.writeBatch()
+                        writer.end()
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,200 @@
+package io.qpointz.mill.source.format.arrow.export
+
+import com.google.protobuf.ByteString
+import io.qpointz.mill.proto.DataType
+import io.qpointz.mill.proto.Field
+import io.qpointz.mill.proto.LogicalDataType
+import io.qpointz.mill.proto.LogicalDataType.LogicalDataTypeId
+import io.qpointz.mill.proto.Vector
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.proto.VectorBlockSchema
+import io.qpointz.mill.vectors.VectorBlockIterator
+import org.apache.arrow.memory.RootAllocator
+import org.apache.arrow.vector.BigIntVector
+import org.apache.arrow.vector.DateDayVector
+import org.apache.arrow.vector.Float8Vector
+import org.apache.arrow.vector.IntVector
+import org.apache.arrow.vector.TimeStampMilliTZVector
+import org.apache.arrow.vector.VarBinaryVector
+import org.apache.arrow.vector.VarCharVector
+import org.apache.arrow.vector.ipc.ArrowStreamReader
+import org.apache.arrow.vector.types.pojo.ArrowType
+import org.junit.jupiter.api.Assertions.assertArrayEquals
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+
+class ArrowVectorExportSupportTest {
+
+    private class Blocks(private val schema: VectorBlockSchema, blocks: List<VectorBlock>) : VectorBlockIterator {
+        private val iterator = blocks.iterator()
+        override fun schema(): VectorBlockSchema = schema
+        override fun hasNext(): Boolean = iterator.hasNext()
+        override fun next(): VectorBlock = iterator.next()
+        override fun remove() {
+            throw UnsupportedOperationException()
+        }
+    }
+
+    private fun field(name: String, idx: Int, typeId: LogicalDataTypeId): Field = Field.newBuilder()
+        .setName(name)
+        .setFieldIdx(idx)
+        .setType(
+            DataType.newBuilder()
+                .setType(LogicalDataType.newBuilder().setTypeId(typeId))
+                .setNullability(DataType.Nullability.NULL)
+        )
+        .build()
+
+    private val schema = VectorBlockSchema.newBuilder()
+        .addFields(field("id", 0, LogicalDataTypeId.INT))
+        .addFields(field("amount", 1, LogicalDataTypeId.DOUBLE))
+        .addFields(field("name", 2, LogicalDataTypeId.STRING))
+        .addFields(field("created", 3, LogicalDataTypeId.TIMESTAMP_TZ))
+        .addFields(field("day", 4, LogicalDataTypeId.DATE))
+        .addFields(field("payload", 5, LogicalDataTypeId.BINARY))
+        .addFields(field("total", 6, LogicalDataTypeId.BIG_INT))
+        .build()
+
+    private fun nulls(vararg values: Boolean) = Vector.NullsVector.newBuilder().addAllNulls(values.toList())
+
+    private fun block(ids: List<Int>, nameNulls: Vector.NullsVector.Builder? = null): VectorBlock {
+        val size = ids.size
+        val name = Vector.newBuilder().setFieldIdx(2)
+            .setStringVector(Vector.StringVector.newBuilder().addAllValues(ids.map { "name-$it" }))
+        if (nameNulls != null) name.setNulls(nameNulls)
+        return VectorBlock.newBuilder()
+            .setSchema(schema)
+            .setVectorSize(size)
+            .addVectors(Vector.newBuilder().setFieldIdx(0).setI32Vector(Vector.I32Vector.newBuilder().addAllValues(ids)))
+            .addVectors(Vector.newBuilder().setFieldIdx(1).setFp64Vector(Vector.FP64Vector.newBuilder().addAllValues(ids.map { it * 1.5 })))
+            .addVectors(name)
+            .addVectors(Vector.newBuilder().setFieldIdx(3).setI64Vector(Vector.I64Vector.newBuilder().addAllValues(ids.map { it * 1000L })))
+            .addVectors(Vector.newBuilder().setFieldIdx(4).setI64Vector(Vector.I64Vector.newBuilder().addAllValues(ids.map { it.toLong() })))
+            .addVectors(Vector.newBuilder().setFieldIdx(5).setByteVector(Vector.BytesVector.newBuilder().addAllValues(ids.map { ByteString.copyFrom(byteArrayOf(it.toByte())) })))
+            .addVectors(Vector.newBuilder().setFieldIdx(6).setI64Vector(Vector.I64Vector.newBuilder().addAllValues(ids.map { it.toLong() shl 40 })))
+            .build()
+    }
+
+    private fun encode(blocks: List<VectorBlock>, encoder: (VectorBlockIterator, java.io.OutputStream) -> Unit = ArrowVectorExportSupport::writeIpcStream): ByteArray {
+        val out = ByteArrayOutputStream()
+        encoder(Blocks(schema, blocks), out)
+        return out.toByteArray()
+    }
+
+    @Test
+    fun shouldWriteTypedArrowColumns() {
+        val bytes = encode(listOf(block(listOf(1, 2))))
+
+        RootAllocator(Long.MAX_VALUE).use { allocator ->
+            ArrowStreamReader(ByteArrayInputStream(bytes), allocator).use { reader ->
+                val fields = reader.vectorSchemaRoot.schema.fields
+                assertEquals(ArrowType.Int(32, true), fields[0].type)
+                assertEquals(ArrowType.FloatingPoint(org.apache.arrow.vector.types.FloatingPointPrecision.DOUBLE), fields[1].type)
+                assertEquals(ArrowType.Utf8(), fields[2].type)
+                assertEquals("UTC", (fields[3].type as ArrowType.Timestamp).timezone)
+                assertEquals(ArrowType.Date(org.apache.arrow.vector.types.DateUnit.DAY), fields[4].type)
+                assertEquals(ArrowType.Binary(), fields[5].type)
+                assertEquals(ArrowType.Int(64, true), fields[6].type)
+
+                assertTrue(reader.loadNextBatch())
+                val root = reader.vectorSchemaRoot
+                assertEquals(2, root.rowCount)
+                assertEquals(2, (root.getVector("id") as IntVector).get(1))
+                assertEquals(3.0, (root.getVector("amount") as Float8Vector).get(1))
+                assertEquals("name-1", (root.getVector("name") as VarCharVector).getObject(0).toString())
+                assertEquals(2000L, (root.getVector("created") as TimeStampMilliTZVector).get(1))
+                assertEquals(1, (root.getVector("day") as DateDayVector).get(0))
+                assertArrayEquals(byteArrayOf(2), (root.getVector("payload") as VarBinaryVector).get(1))
+                assertEquals(2L shl 40, (root.getVector("total") as BigIntVector).get(1))
+            }
+        }
+    }
+
+    @Test
+    fun shouldWriteOneBatchPerBlock_withNulls() {
+        val bytes = encode(listOf(
+            block(listOf(1, 2, 3)),
+            block(emptyList()),
+            block(listOf(4, 5), nulls(true, false)),
+        ))
+
+        RootAllocator(Long.MAX_VALUE).use { allocator ->
+            ArrowStreamReader(ByteArrayInputStream(bytes), allocator).use { reader ->
+                val names = mutableListOf<String?>()
+                val sizes = mutableListOf<Int>()
+                while (reader.loadNextBatch()) {
+                    val root = reader.vectorSchemaRoot
+                    sizes += root.rowCount
+                    val name = root.getVector("name") as VarCharVector
+                    for (row in 0 until root.rowCount) names += name.getObject(row)?.toString()
+                }
+                assertEquals(listOf(3, 2), sizes)
+                assertEquals(listOf("name-1", "name-2", "name-3", null, "name-5"), names)
+            }
+        }
+    }
+
+    @Test
+    fun shouldKeepStringEncoding_ofTemporalColumns() {
+        val tsSchema = VectorBlockSchema.newBuilder()
+            .addFields(field("ts", 0, LogicalDataTypeId.TIMESTAMP))
+            .build()
+        val block = VectorBlock.newBuilder()
+            .setSchema(tsSchema)
+            .setVectorSize(1)
+            .addVectors(Vector.newBuilder().setFieldIdx(0).setStringVector(Vector.StringVector.newBuilder().addValues("2026-01-01T10:00")))
+            .build()
+        val out = ByteArrayOutputStream()
+        ArrowVectorExportSupport.writeIpcStream(Blocks(tsSchema, listOf(block)), out)
+
+        RootAllocator(Long.MAX_VALUE).use { allocator ->
+            ArrowStreamReader(ByteArrayInputStream(out.toByteArray()), allocator).use { reader ->
+                assertEquals(ArrowType.Utf8(), reader.vectorSchemaRoot.schema.fields[0].type)
+                assertTrue(reader.loadNextBatch())
+                assertEquals("2026-01-01T10:00", reader.vectorSchemaRoot.getVector(0).getObject(0).toString())
+            }
+        }
+    }
+
+    @Test
+    fun shouldRejectBlocks_whenVectorKindChanges() {
+        val changed = block(listOf(3)).toBuilder()
+            .setVectors(0, Vector.newBuilder().setFieldIdx(0).setStringVector(Vector.StringVector.newBuilder().addValues("3")))
+            .build()
+
+        assertThrows<IllegalStateException> { encode(listOf(block(listOf(1)), changed)) }
+    }
+
+    @Test
+    fun shouldWriteNothing_whenNoRows() {
+        assertEquals(0, encode(emptyList()).size)
+        assertEquals(0, encode(listOf(block(emptyList()))).size)
+    }
+
+    @Test
+    fun shouldExportSameRowsAsRowEncoder() {
+        val blocks = (0 until 4).map { b -> block((b * 100 until b * 100 + 100).toList()) }
+
+        fun rowsOf(bytes: ByteArray): List<List<String?>> = RootAllocator(Long.MAX_VALUE).use { allocator ->
+            ArrowStreamReader(ByteArrayInputStream(bytes), allocator).use { reader ->
+                val rows = mutableListOf<List<String?>>()
+                while (reader.loadNextBatch()) {
+                    val root = reader.vectorSchemaRoot
+                    for (row in 0 until root.rowCount) {
+                        rows += listOf("id", "name").map { root.getVector(it).getObject(row)?.toString() }
+                    }
+                }
+                rows
+            }
+        }
+
+        val typed = rowsOf(encode(blocks))
+        val rowWise = rowsOf(encode(blocks, ArrowVectorExportSupport::writeRowIpcStream))
+        assertEquals(400, typed.size)
+        assertEquals(rowWise, typed)
+    }
+}
@@ -1,6 +1,8 @@
 package io.qpointz.mill.source.format.excel
 
 import io.qpointz.mill.source.*
+import org.apache.poi.poifs.filesystem.FileMagic
+import org.apache.poi.ss.usermodel.Workbook
 import org.apache.poi.ss.usermodel.WorkbookFactory
 
 /**
@@ -8,45 +10,69 @@ import org.apache.poi.ss.usermodel.WorkbookFactory
  *
  * Infers schema from the first selected sheet's header row and creates
  * record sources for reading data. When multiple sheets match the selector,
- * a [WorkbookRecordSource] concatenates their rows into a single stream.
- * Uses Apache POI for reading Excel files.
+ * their rows are concatenated into a single stream.
  *
- * @property settings  sheet reading configuration
- * @property selector  sheet selection criteria
+ * XLSX files are streamed with the POI event model ([XlsxRecordSource]): inference
+ * reads the header row, or samples [sampleRows] rows, and stops; reads parse one row
+ * at a time. Legacy binary `.xls` files are loaded with the POI usermodel
+ * ([WorkbookRecordSource]) and sampled the same way.
+ *
+ * @property settings   sheet reading configuration
+ * @property selector   sheet selection criteria
+ * @property sampleRows rows sampled by schema inference of headerless sheets
  */
 class ExcelFormatHandler(
     private val settings: SheetSettings = SheetSettings(),
-    private val selector: SheetSelector = SheetSelector.FIRST
+    private val selector: SheetSelector = SheetSelector.FIRST,
+    private val sampleRows: Int = ExcelSchemaInferer.DEFAULT_SAMPLE_ROWS,
 ) : FormatHandler {
 
     /**
      * Infers the Mill [RecordSchema] from the first selected sheet.
      *
-     * Opens the blob, creates a workbook, selects the first matching sheet,
-     * and infers the schema from its header row or structure.
+     * Opens the blob once, sniffs the workbook format from its leading bytes, selects the
+     * first matching sheet, and infers the schema from its header row or sampled rows.
      */
-    override fun inferSchema(blob: BlobPath, blobSource: BlobSource): RecordSchema {
-        val inputStream = blobSource.openInputStream(blob)
-        return inputStream.use { stream ->
-            val workbook = WorkbookFactory.create(stream)
-            workbook.use { wb ->
-                val sheets = selector.select(wb)
-                if (sheets.isEmpty()) return@use RecordSchema.empty()
-                ExcelSchemaInferer.infer(sheets[0], settings)
+    override fun inferSchema(blob: BlobPath, blobSource: BlobSource): RecordSchema =
+        blobSource.openInputStream(blob).use { raw ->
+            val stream = FileMagic.prepareToCheckMagic(raw)
+            if (XlsxWorkbook.isXlsx(stream)) {
+                inferFromXlsx(XlsxWorkbook.open(blob, stream))
+            } else {
+                inferFromWorkbook(WorkbookFactory.create(stream))
             }
         }
+
+    private fun inferFromXlsx(workbook: XlsxWorkbook): RecordSchema = workbook.use { wb ->
+        val sheet = selector.select(wb.sheetNames).firstOrNull() ?: return@use RecordSchema.empty()
+        wb.openSheet(sheet, settings.evaluateFormulas).use { rows ->
+            ExcelSchemaInferer.infer(rows, settings, sampleRows)
+        }
+    }
+
+    private fun inferFromWorkbook(workbook: Workbook): RecordSchema = workbook.use { wb ->
+        val sheets = selector.select(wb)
+        if (sheets.isEmpty()) return@use RecordSchema.empty()
+        ExcelSchemaInferer.infer(sheets[0], settings, sampleRows)
     }
 
     /**
      * Creates a record source for the given blob.
      *
-     * Opens the workbook and returns a [WorkbookRecordSource] that reads
-     * all selected sheets, concatenating their rows into a single stream.
-     * All selected sheets must share the same column structure as [schema].
+     * Opens the workbook from the stream the format was sniffed from: an XLSX package is
+     * handed to the first iteration of an [XlsxRecordSource], a legacy workbook is loaded into
+     * a [WorkbookRecordSource]. Either reads all selected sheets, concatenating their rows
+     * into a single stream. All selected sheets must share the same column structure as
+     * [schema].
      */
     override fun createRecordSource(blob: BlobPath, blobSource: BlobSource, schema: RecordSchema): RecordSource {
-        val inputStream = blobSource.openInputStream(blob)
-        val workbook = WorkbookFactory.create(inputStream)
+        val workbook = blobSource.openInputStream(blob).use { raw ->
+            val stream = FileMagic.prepareToCheckMagic(raw)
+            if (XlsxWorkbook.isXlsx(stream)) {
+                return XlsxRecordSource(blob, blobSource, schema, settings, selector, XlsxWorkbook.open(blob, stream))
+            }
+            WorkbookFactory.create(stream)
+        }
         val sheets = selector.select(workbook)
         if (sheets.isEmpty()) {
             workbook.close()
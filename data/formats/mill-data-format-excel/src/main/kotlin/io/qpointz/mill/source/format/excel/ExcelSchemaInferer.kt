@@ -12,13 +12,24 @@ import org.apache.poi.ss.usermodel.Sheet
  * Otherwise, names are generated as `col_0`, `col_1`, etc.
  * All columns are typed as nullable [DatabaseType.string] since
  * Excel cells can contain mixed types.
+ *
+ * Headerless sheets are sampled: the column count is the widest of at most
+ * [DEFAULT_SAMPLE_ROWS] rows (or the requested sample size). For streamed sheets
+ * ([SheetRow] iterators) the remaining rows are never parsed.
  */
 object ExcelSchemaInferer {
 
+    /** Default number of data rows sampled from sheets without a header. */
+    const val DEFAULT_SAMPLE_ROWS = 100
+
     /**
      * Infers the schema from the given [sheet] using the provided [settings].
+     *
+     * Follows the same rules as the streamed overload: header names from row `0`, or the
+     * widest of the first [sampleRows] rows starting at [SheetSettings.effectiveStartRow].
      */
-    fun infer(sheet: Sheet, settings: SheetSettings): RecordSchema {
+    fun infer(sheet: Sheet, settings: SheetSettings, sampleRows: Int = DEFAULT_SAMPLE_ROWS): RecordSchema {
+        require(sampleRows > 0) { "sampleRows must be positive, got $sampleRows" }
         if (settings.columns.isNotEmpty()) {
             return fromColumnDefs(settings.columns)
         }
@@ -27,12 +38,52 @@ object ExcelSchemaInferer {
             return fromHeaderRow(sheet)
         }
 
-        // No header, no explicit columns — scan first data row for column count
-        val firstRow = sheet.getRow(settings.effectiveStartRow)
-        if (firstRow == null) return RecordSchema.empty()
+        val widths = sheet.rowIterator().asSequence().map { it.rowNum to maxOf(0, it.lastCellNum.toInt()) }
+        return fromSampledWidths(widths, settings, sampleRows)
+    }
 
-        val colCount = firstRow.lastCellNum.toInt()
-        val fields = (0 until colCount).map { idx ->
+    /**
+     * Infers the schema from the leading [rows] of a streamed sheet using the provided
+     * [settings].
+     *
+     * With a header the column names come from row `0`; without one, the column count is
+     * the widest of the first [sampleRows] rows starting at [SheetSettings.effectiveStartRow].
+     * Reading stops as soon as the schema is known.
+     */
+    fun infer(rows: Iterator<SheetRow>, settings: SheetSettings, sampleRows: Int = DEFAULT_SAMPLE_ROWS): RecordSchema {
+        require(sampleRows > 0) { "sampleRows must be positive, got $sampleRows" }
+        if (settings.columns.isNotEmpty()) {
+            return fromColumnDefs(settings.columns)
+        }
+
+        if (settings.hasHeader && rows.hasNext()) {
+            val header = rows.next()
+            if (header.index != 0) return RecordSchema.empty()
+            val fields = header.values.indices.map { idx ->
+                val name = header[idx]?.toString()?.trim() ?: "col_$idx"
+                SchemaField(name, idx, DatabaseType.string(true, -1))
+            }
+            return RecordSchema(fields)
+        }
+
+        val widths = rows.asSequence().map { it.index to it.values.size }
+        return fromSampledWidths(widths, settings, sampleRows)
+    }
+
+    // widths are (row index, cell count) pairs in row order; only the sampled rows are consumed
+    private fun fromSampledWidths(
+        widths: Sequence<Pair<Int, Int>>,
+        settings: SheetSettings,
+        sampleRows: Int,
+    ): RecordSchema {
+        val sampled = widths
+            .filter { (index, _) -> index >= settings.effectiveStartRow }
+            .take(sampleRows)
+            .map { (_, width) -> width }
+            .toList()
+        if (sampled.isEmpty()) return RecordSchema.empty()
+
+        val fields = (0 until sampled.max()).map { idx ->
             SchemaField("col_$idx", idx, DatabaseType.string(true, -1))
         }
         return RecordSchema(fields)
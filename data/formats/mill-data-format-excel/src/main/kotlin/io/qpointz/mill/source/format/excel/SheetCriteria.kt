@@ -6,20 +6,27 @@ import org.apache.poi.ss.usermodel.Sheet
  * Criteria for selecting sheets from a workbook.
  *
  * Implementations match against sheet properties (name, index)
- * to decide which sheets to include or exclude.
+ * to decide which sheets to include or exclude, so that the same criteria
+ * apply to loaded POI workbooks and to streamed XLSX files.
  */
 sealed interface SheetCriteria {
 
+    /**
+     * Tests whether the sheet called [name] at zero-based [index] matches this criteria.
+     */
+    fun matches(name: String, index: Int): Boolean
+
     /**
      * Tests whether the given [sheet] matches this criteria.
      */
-    fun matches(sheet: Sheet): Boolean
+    fun matches(sheet: Sheet): Boolean =
+        matches(sheet.sheetName, sheet.workbook.getSheetIndex(sheet))
 
     /**
      * Matches any sheet.
      */
     data object AnySheet : SheetCriteria {
-        override fun matches(sheet: Sheet): Boolean = true
+        override fun matches(name: String, index: Int): Boolean = true
     }
 
     /**
@@ -32,8 +39,8 @@ sealed interface SheetCriteria {
         val name: String,
         val ignoreCase: Boolean = true
     ) : SheetCriteria {
-        override fun matches(sheet: Sheet): Boolean =
-            sheet.sheetName.equals(name, ignoreCase)
+        override fun matches(name: String, index: Int): Boolean =
+            name.equals(this.name, ignoreCase)
     }
 
     /**
@@ -42,10 +49,7 @@ sealed interface SheetCriteria {
      * @property index the sheet index to match
      */
     data class ByIndex(val index: Int) : SheetCriteria {
-        override fun matches(sheet: Sheet): Boolean {
-            val workbook = sheet.workbook
-            return workbook.getSheetIndex(sheet) == index
-        }
+        override fun matches(name: String, index: Int): Boolean = index == this.index
     }
 
     /**
@@ -56,7 +60,7 @@ sealed interface SheetCriteria {
     data class ByPattern(val pattern: Regex) : SheetCriteria {
         constructor(pattern: String) : this(Regex(pattern))
 
-        override fun matches(sheet: Sheet): Boolean =
-            pattern.matches(sheet.sheetName)
+        override fun matches(name: String, index: Int): Boolean =
+            pattern.matches(name)
     }
 }
@@ -84,13 +84,8 @@ class SheetRecordSource(
                 if (DateUtil.isCellDateFormatted(effectiveCell)) {
                     effectiveCell.localDateTimeCellValue
                 } else {
-                    val numericValue = effectiveCell.numericCellValue
                     // Return as Long if the value is a whole number
-                    if (numericValue == numericValue.toLong().toDouble()) {
-                        numericValue.toLong()
-                    } else {
-                        numericValue
-                    }
+                    wholeOrDouble(effectiveCell.numericCellValue)
                 }
             }
             CellType.BOOLEAN -> effectiveCell.booleanCellValue
@@ -29,6 +29,19 @@ data class SheetSelector(
         }
     }
 
+    /**
+     * Returns the zero-based indices of the [sheetNames] (in workbook order) that match
+     * the selection criteria.
+     */
+    fun select(sheetNames: List<String>): List<Int> {
+        return sheetNames.indices.filter { idx ->
+            val name = sheetNames[idx]
+            val included = include.isEmpty() || include.any { it.matches(name, idx) }
+            val excluded = exclude.any { it.matches(name, idx) }
+            included && !excluded
+        }
+    }
+
     companion object {
         /** Selects all sheets. */
         val ALL = SheetSelector()
@@ -0,0 +1,129 @@
+package io.qpointz.mill.source.format.excel
+
+import io.qpointz.mill.source.BlobPath
+import io.qpointz.mill.source.BlobSource
+import io.qpointz.mill.source.CloseableRecordIterator
+import io.qpointz.mill.source.FlowRecordSource
+import io.qpointz.mill.source.Record
+import io.qpointz.mill.source.RecordSchema
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Streaming record source over the selected sheets of an XLSX blob.
+ *
+ * The streaming counterpart of [WorkbookRecordSource]: every iteration opens the blob as an
+ * [XlsxWorkbook] and parses the selected sheets row by row, so heap use is bounded by the
+ * shared strings table rather than by the size of the sheets. Rows follow
+ * [SheetRecordSource] semantics: reading starts at [SheetSettings.effectiveStartRow], rows
+ * missing from the sheet yield all-null records, and blank strings become `null` when
+ * [SheetSettings.blankAsNull] is set.
+ *
+ * Iterators are [CloseableRecordIterator]s and release the workbook when exhausted or closed.
+ * A workbook already opened by the caller is handed to the first iteration, so the blob is
+ * not downloaded twice.
+ *
+ * @property blob       the XLSX blob to read
+ * @property blobSource the source providing I/O access to the blob
+ * @property schema     the shared schema for all selected sheets
+ * @property settings   sheet reading configuration
+ * @property selector   sheet selection criteria
+ * @param opened        workbook of [blob] read by the first iteration, or `null`
+ */
+class XlsxRecordSource internal constructor(
+    private val blob: BlobPath,
+    private val blobSource: BlobSource,
+    override val schema: RecordSchema,
+    private val settings: SheetSettings,
+    private val selector: SheetSelector,
+    opened: XlsxWorkbook?,
+) : FlowRecordSource {
+
+    constructor(
+        blob: BlobPath,
+        blobSource: BlobSource,
+        schema: RecordSchema,
+        settings: SheetSettings = SheetSettings(),
+        selector: SheetSelector = SheetSelector.ALL,
+    ) : this(blob, blobSource, schema, settings, selector, null)
+
+    private val opened = AtomicReference(opened)
+
+    override fun iterator(): Iterator<Record> {
+        val workbook = opened.getAndSet(null) ?: XlsxWorkbook.open(blob, blobSource)
+        return XlsxRecordIterator(workbook, selector.select(workbook.sheetNames))
+    }
+
+    private fun toRecord(row: SheetRow): Record {
+        val values = HashMap<String, Any?>(schema.size * 2)
+        for (field in schema.fields) {
+            val value = row[field.index]
+            values[field.name] = if (settings.blankAsNull && value is String && value.isBlank()) null else value
+        }
+        return Record(values)
+    }
+
+    private inner class XlsxRecordIterator(
+        private val workbook: XlsxWorkbook,
+        sheets: List<Int>,
+    ) : CloseableRecordIterator {
+
+        private val pending = ArrayDeque(sheets)
+        private val nullRecord = Record(schema.fields.associate { it.name to null })
+
+        private var rows: XlsxSheetReader? = null
+        private var lookahead: SheetRow? = null
+        private var nextRow = 0
+        private var closed = false
+
+        override fun hasNext(): Boolean {
+            if (closed) return false
+            while (true) {
+                val current = rows
+                if (current != null) {
+                    if (lookahead == null) lookahead = nextDataRow(current)
+                    if (lookahead != null) return true
+                    current.close()
+                    rows = null
+                }
+                if (pending.isEmpty()) {
+                    close()
+                    return false
+                }
+                rows = workbook.openSheet(pending.removeFirst(), settings.evaluateFormulas)
+                nextRow = settings.effectiveStartRow
+            }
+        }
+
+        override fun next(): Record {
+            if (!hasNext()) throw NoSuchElementException()
+            val row = lookahead!!
+            if (row.index > nextRow) {
+                // row never written in the sheet
+                nextRow++
+                return nullRecord
+            }
+            lookahead = null
+            nextRow = row.index + 1
+            return toRecord(row)
+        }
+
+        private fun nextDataRow(rows: XlsxSheetReader): SheetRow? {
+            while (rows.hasNext()) {
+                val row = rows.next()
+                if (row.index >= nextRow) return row
+            }
+            return null
+        }
+
+        override fun close() {
+            if (closed) return
+            closed = true
+            try {
+                rows?.close()
+            } finally {
+                rows = null
+                workbook.close()
+            }
+        }
+    }
+}
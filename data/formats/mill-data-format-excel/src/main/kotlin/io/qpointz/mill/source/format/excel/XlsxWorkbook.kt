@@ -0,0 +1,356 @@
+package io.qpointz.mill.source.format.excel
+
+import io.qpointz.mill.source.BlobPath
+import io.qpointz.mill.source.BlobSource
+import io.qpointz.mill.source.LocalBlobPath
+import org.apache.poi.openxml4j.opc.OPCPackage
+import org.apache.poi.openxml4j.opc.PackageAccess
+import org.apache.poi.poifs.filesystem.FileMagic
+import org.apache.poi.ss.usermodel.DateUtil
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable
+import org.apache.poi.xssf.eventusermodel.XSSFReader
+import org.apache.poi.xssf.model.StylesTable
+import java.io.InputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.time.LocalDate
+import java.time.LocalDateTime
+import javax.xml.stream.XMLInputFactory
+import javax.xml.stream.XMLStreamConstants
+import javax.xml.stream.XMLStreamReader
+
+/**
+ * One row of a streamed sheet.
+ *
+ * @property index  zero-based row index in the sheet
+ * @property values cell values by zero-based column index; missing cells are `null`.
+ *                  Strings are kept as stored (blank strings included).
+ */
+data class SheetRow(val index: Int, val values: List<Any?>) {
+
+    /** Value of the cell at [column], or `null` when the row has no such cell. */
+    operator fun get(column: Int): Any? = values.getOrNull(column)
+}
+
+/**
+ * Read-only XLSX workbook parsed with the event model instead of the POI DOM.
+ *
+ * Only the shared strings table, the cell styles and the sheet list are loaded when the
+ * workbook is opened; sheets are parsed row by row on demand through [openSheet], so memory
+ * does not grow with the number of rows. The package is read through a zip file: local
+ * blobs are opened in place, other blobs are first copied to a temporary file, deleted on
+ * [close].
+ *
+ * Cells decode to the same types as [SheetRecordSource]: strings, booleans, whole numbers as
+ * [Long], other numbers as [Double], and date-formatted numbers as [LocalDateTime]. Formula
+ * cells yield the result cached by the application that saved the file, or the formula text
+ * when formulas are not evaluated.
+ */
+internal class XlsxWorkbook private constructor(
+    private val pkg: OPCPackage,
+    private val tempFile: Path?,
+) : AutoCloseable {
+
+    private val reader: XSSFReader
+    private val sharedStrings: ReadOnlySharedStringsTable
+    private val styles: StylesTable?
+    private val date1904: Boolean
+
+    /** Sheet names in workbook order. */
+    val sheetNames: List<String>
+
+    init {
+        try {
+            reader = XSSFReader(pkg)
+            sharedStrings = ReadOnlySharedStringsTable(pkg)
+            styles = reader.stylesTable
+            date1904 = reader.workbookData.use(::isDate1904)
+            val names = mutableListOf<String>()
+            val sheets = reader.sheetsData as XSSFReader.SheetIterator
+            while (sheets.hasNext()) {
+                sheets.next().close()
+                names += sheets.sheetName
+            }
+            sheetNames = names
+        } catch (e: Exception) {
+            close()
+            throw e
+        }
+    }
+
+    /**
+     * Opens the sheet at zero-based [index] for row-by-row reading.
+     *
+     * @param evaluateFormulas `true` to read cached formula results, `false` for formula text
+     */
+    fun openSheet(index: Int, evaluateFormulas: Boolean = true): XlsxSheetReader {
+        require(index in sheetNames.indices) { "Sheet index $index out of range 0..${sheetNames.size - 1}" }
+        val sheets = reader.sheetsData
+        var position = 0
+        while (sheets.hasNext()) {
+            val stream = sheets.next()
+            if (position++ == index) {
+                return XlsxSheetReader(stream, XlsxCellDecoder(sharedStrings, styles, date1904, evaluateFormulas))
+            }
+            stream.close()
+        }
+        throw IllegalStateException("Sheet $index not found")
+    }
+
+    override fun close() {
+        try {
+            pkg.revert()
+        } finally {
+            tempFile?.let { Files.deleteIfExists(it) }
+        }
+    }
+
+    companion object {
+
+        /**
+         * `true` when [stream] starts with an OOXML (zip) signature rather than a legacy binary
+         * one. [stream] must support mark/reset (see [FileMagic.prepareToCheckMagic]) and is left
+         * at its start, so the caller can go on reading the workbook from it.
+         */
+        fun isXlsx(stream: InputStream): Boolean = FileMagic.valueOf(stream) == FileMagic.OOXML
+
+        /**
+         * Opens [blob] as an XLSX workbook.
+         */
+        fun open(blob: BlobPath, blobSource: BlobSource): XlsxWorkbook {
+            if (blob is LocalBlobPath) {
+                return openLocal(blob)
+            }
+            return blobSource.openInputStream(blob).use { open(blob, it) }
+        }
+
+        /**
+         * Opens [blob] as an XLSX workbook whose content is already open as [stream]. Local blobs
+         * are read in place; otherwise [stream] is copied to a temporary file. [stream] is not
+         * closed.
+         */
+        fun open(blob: BlobPath, stream: InputStream): XlsxWorkbook {
+            if (blob is LocalBlobPath) {
+                return openLocal(blob)
+            }
+            val temp = Files.createTempFile("mill-excel-", ".xlsx")
+            try {
+                Files.copy(stream, temp, StandardCopyOption.REPLACE_EXISTING)
+                val pkg = OPCPackage.open(temp.toFile(), PackageAccess.READ)
+                return XlsxWorkbook(pkg, temp)
+            } catch (e: Exception) {
+                Files.deleteIfExists(temp)
+                throw e
+            }
+        }
+
+        private fun openLocal(blob: LocalBlobPath): XlsxWorkbook =
+            XlsxWorkbook(OPCPackage.open(blob.absolutePath.toFile(), PackageAccess.READ), null)
+
+        private fun isDate1904(workbookXml: InputStream): Boolean {
+            val xml = XlsxXml.reader(workbookXml)
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() != XMLStreamConstants.START_ELEMENT) continue
+                    when (xml.localName) {
+                        "workbookPr" -> {
+                            val value = xml.getAttributeValue(null, "date1904")
+                            return value == "1" || value.equals("true", ignoreCase = true)
+                        }
+                        "sheets" -> return false
+                    }
+                }
+                return false
+            } finally {
+                xml.close()
+            }
+        }
+    }
+}
+
+/**
+ * Pull parser over one worksheet part, yielding the rows present in the sheet XML.
+ *
+ * Rows absent from the XML (never written) are skipped; callers fill gaps from
+ * [SheetRow.index]. Closes the underlying stream when the sheet data ends or on [close].
+ */
+internal class XlsxSheetReader(
+    private val input: InputStream,
+    private val decoder: XlsxCellDecoder,
+) : Iterator<SheetRow>, AutoCloseable {
+
+    private val xml: XMLStreamReader = try {
+        XlsxXml.reader(input)
+    } catch (e: Exception) {
+        input.close()
+        throw e
+    }
+
+    private var lookahead: SheetRow? = null
+    private var lastRow = -1
+    private var done = false
+
+    override fun hasNext(): Boolean {
+        if (lookahead == null && !done) {
+            lookahead = readRow()
+        }
+        return lookahead != null
+    }
+
+    override fun next(): SheetRow {
+        if (!hasNext()) throw NoSuchElementException()
+        val row = lookahead!!
+        lookahead = null
+        return row
+    }
+
+    private fun readRow(): SheetRow? {
+        while (xml.hasNext()) {
+            when (xml.next()) {
+                XMLStreamConstants.START_ELEMENT -> if (xml.localName == "row") {
+                    val index = xml.getAttributeValue(null, "r")?.toIntOrNull()?.minus(1) ?: (lastRow + 1)
+                    lastRow = index
+                    return SheetRow(index, readCells())
+                }
+                XMLStreamConstants.END_ELEMENT -> if (xml.localName == "sheetData") break
+            }
+        }
+        close()
+        return null
+    }
+
+    private fun readCells(): List<Any?> {
+        val values = ArrayList<Any?>()
+        var column = -1
+        while (xml.hasNext()) {
+            when (xml.next()) {
+                XMLStreamConstants.START_ELEMENT -> if (xml.localName == "c") {
+                    column = xml.getAttributeValue(null, "r")?.let(::columnOf) ?: (column + 1)
+                    val value = readCell()
+                    while (values.size <= column) values.add(null)
+                    values[column] = value
+                }
+                XMLStreamConstants.END_ELEMENT -> if (xml.localName == "row") return values
+            }
+        }
+        return values
+    }
+
+    private fun readCell(): Any? {
+        val type = xml.getAttributeValue(null, "t")
+        val style = xml.getAttributeValue(null, "s")?.toIntOrNull() ?: 0
+        var value: String? = null
+        var formula: String? = null
+        var inline: StringBuilder? = null
+        while (xml.hasNext()) {
+            when (xml.next()) {
+                XMLStreamConstants.START_ELEMENT -> when (xml.localName) {
+                    "v" -> value = xml.elementText
+                    "f" -> formula = xml.elementText
+                    "t" -> (inline ?: StringBuilder().also { inline = it }).append(xml.elementText)
+                    "rPh" -> skipElement()
+                }
+                XMLStreamConstants.END_ELEMENT -> if (xml.localName == "c") break
+            }
+        }
+        return decoder.decode(type, style, value ?: inline?.toString(), formula)
+    }
+
+    /** Skips the current element and its content (e.g. phonetic runs of inline strings). */
+    private fun skipElement() {
+        var depth = 1
+        while (depth > 0 && xml.hasNext()) {
+            when (xml.next()) {
+                XMLStreamConstants.START_ELEMENT -> depth++
+                XMLStreamConstants.END_ELEMENT -> depth--
+            }
+        }
+    }
+
+    override fun close() {
+        if (done) return
+        done = true
+        try {
+            xml.close()
+        } finally {
+            input.close()
+        }
+    }
+
+    private fun columnOf(ref: String): Int {
+        var column = 0
+        for (ch in ref) {
+            if (ch !in 'A'..'Z') break
+            column = column * 26 + (ch - 'A' + 1)
+        }
+        return column - 1
+    }
+}
+
+/**
+ * Decodes raw cell XML (type attribute, style index, value text, formula text) into values.
+ */
+internal class XlsxCellDecoder(
+    private val sharedStrings: ReadOnlySharedStringsTable,
+    private val styles: StylesTable?,
+    private val date1904: Boolean,
+    private val evaluateFormulas: Boolean,
+) {
+
+    private val dateStyles = HashMap<Int, Boolean>()
+
+    fun decode(type: String?, style: Int, value: String?, formula: String?): Any? {
+        if (!evaluateFormulas && !formula.isNullOrEmpty()) return formula
+        if (value == null) return null
+        return when (type) {
+            "s" -> sharedStrings.getItemAt(value.toInt()).string
+            "str", "inlineStr" -> value
+            "b" -> value == "1" || value.equals("true", ignoreCase = true)
+            "e" -> null
+            "d" -> isoDate(value)
+            else -> if (value.isEmpty()) null else number(value.toDouble(), style)
+        }
+    }
+
+    private fun number(value: Double, style: Int): Any {
+        if (isDateStyle(style) && DateUtil.isValidExcelDate(value)) {
+            return DateUtil.getLocalDateTime(value, date1904)
+        }
+        return wholeOrDouble(value)
+    }
+
+    private fun isDateStyle(style: Int): Boolean {
+        val table = styles ?: return false
+        return dateStyles.getOrPut(style) {
+            if (style >= table.numCellStyles) return@getOrPut false
+            val cellStyle = table.getStyleAt(style) ?: return@getOrPut false
+            DateUtil.isADateFormat(cellStyle.dataFormat.toInt(), cellStyle.dataFormatString)
+        }
+    }
+
+    private fun isoDate(value: String): Any =
+        runCatching { LocalDateTime.parse(value) }
+            .recoverCatching { LocalDate.parse(value).atStartOfDay() }
+            .getOrDefault(value)
+}
+
+/**
+ * Returns [value] as a [Long] when it is a whole number, otherwise as is.
+ */
+internal fun wholeOrDouble(value: Double): Any =
+    if (value == value.toLong().toDouble()) value.toLong() else value
+
+/**
+ * Secured StAX factory for OOXML parts: no DTDs, no external entities.
+ */
+internal object XlsxXml {
+
+    private val factory: XMLInputFactory = XMLInputFactory.newFactory().apply {
+        setProperty(XMLInputFactory.SUPPORT_DTD, false)
+        setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false)
+        setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true)
+    }
+
+    fun reader(input: InputStream): XMLStreamReader = factory.createXMLStreamReader(input)
+}
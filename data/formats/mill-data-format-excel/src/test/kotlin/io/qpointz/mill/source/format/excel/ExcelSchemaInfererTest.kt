@@ -1,5 +1,6 @@
 package io.qpointz.mill.source.format.excel
 
+import org.apache.poi.hssf.usermodel.HSSFWorkbook
 import org.apache.poi.xssf.usermodel.XSSFWorkbook
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
@@ -69,4 +70,18 @@ class ExcelSchemaInfererTest {
         assertEquals(0, schema.size)
         workbook.close()
     }
+
+    @Test
+    fun shouldSampleWidestRow_whenNoHeader() {
+        val workbook = HSSFWorkbook()
+        val sheet = workbook.createSheet("Wide")
+        sheet.createRow(0).createCell(0).setCellValue("a")
+        sheet.createRow(1).createCell(2).setCellValue("c")
+        sheet.createRow(3).createCell(5).setCellValue("f")
+
+        assertEquals(3, ExcelSchemaInferer.infer(sheet, SheetSettings(hasHeader = false), sampleRows = 2).size)
+        assertEquals(6, ExcelSchemaInferer.infer(sheet, SheetSettings(hasHeader = false)).size)
+        assertEquals(6, ExcelSchemaInferer.infer(sheet, SheetSettings(hasHeader = false, startRow = 2)).size)
+        workbook.close()
+    }
 }
@@ -0,0 +1,176 @@
+package io.qpointz.mill.source.format.excel
+
+import io.qpointz.mill.source.BlobPath
+import io.qpointz.mill.source.BlobSource
+import io.qpointz.mill.source.CloseableRecordIterator
+import io.qpointz.mill.source.LocalBlobSource
+import io.qpointz.mill.source.Record
+import org.apache.poi.xssf.usermodel.XSSFWorkbook
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.InputStream
+import java.net.URI
+import java.nio.channels.SeekableByteChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.LocalDateTime
+
+class XlsxRecordSourceTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private fun localBlob(filename: String, workbook: org.apache.poi.ss.usermodel.Workbook): Pair<BlobPath, BlobSource> {
+        workbook.use { ExcelTestUtils.writeWorkbook(tempDir, filename, it) }
+        val blobSource = LocalBlobSource(tempDir)
+        return blobSource.listBlobs().first() to blobSource
+    }
+
+    private fun read(blob: BlobPath, blobSource: BlobSource, settings: SheetSettings = SheetSettings(),
+                     selector: SheetSelector = SheetSelector.FIRST): List<Record> {
+        val handler = ExcelFormatHandler(settings, selector)
+        val schema = handler.inferSchema(blob, blobSource)
+        val source = handler.createRecordSource(blob, blobSource, schema)
+        assertTrue(source is XlsxRecordSource)
+        return (source as XlsxRecordSource).toList()
+    }
+
+    @Test
+    fun shouldMatchWorkbookRecordSource() {
+        val (blob, blobSource) = localBlob("test.xlsx", ExcelTestUtils.createTestWorkbook())
+
+        val streamed = read(blob, blobSource)
+
+        val expected = XSSFWorkbook(Files.newInputStream(tempDir.resolve("test.xlsx"))).use { wb ->
+            val schema = ExcelSchemaInferer.infer(wb.getSheetAt(0), SheetSettings())
+            WorkbookRecordSource(wb, schema, SheetSettings(), SheetSelector.FIRST).toList()
+        }
+        assertEquals(expected, streamed)
+        assertEquals(1L, streamed[0]["id"])
+        assertEquals(95.5, streamed[0]["score"])
+        assertEquals(true, streamed[0]["active"])
+        assertNull(streamed[1]["name"])
+    }
+
+    @Test
+    fun shouldReadSelectedSheets_inWorkbookOrder() {
+        val (blob, blobSource) = localBlob("monthly.xlsx", ExcelTestUtils.createMonthlyWorkbook())
+
+        val result = read(blob, blobSource, selector = SheetSelector(
+            include = listOf(SheetCriteria.AnySheet),
+            exclude = listOf(SheetCriteria.ByName("Summary"))
+        ))
+
+        assertEquals(listOf("Jan", "Jan", "Feb", "Feb", "Mar", "Mar"), result.map { it["month"] })
+    }
+
+    @Test
+    fun shouldEmitNullRecords_forMissingRows() {
+        val workbook = XSSFWorkbook()
+        val sheet = workbook.createSheet("Gaps")
+        sheet.createRow(0).createCell(0).setCellValue("value")
+        sheet.createRow(1).createCell(0).setCellValue("a")
+        sheet.createRow(4).createCell(0).setCellValue("b")
+        val (blob, blobSource) = localBlob("gaps.xlsx", workbook)
+
+        val result = read(blob, blobSource)
+
+        assertEquals(listOf("a", null, null, "b"), result.map { it["value"] })
+    }
+
+    @Test
+    fun shouldDecodeDatesAndCachedFormulaResults() {
+        val workbook = XSSFWorkbook()
+        val sheet = workbook.createSheet("Typed")
+        val header = sheet.createRow(0)
+        header.createCell(0).setCellValue("day")
+        header.createCell(1).setCellValue("total")
+        val dateStyle = workbook.createCellStyle().apply {
+            dataFormat = workbook.creationHelper.createDataFormat().getFormat("yyyy-mm-dd")
+        }
+        val row = sheet.createRow(1)
+        row.createCell(0).apply {
+            setCellValue(LocalDateTime.of(2024, 3, 15, 0, 0))
+            cellStyle = dateStyle
+        }
+        row.createCell(1).cellFormula = "2+3"
+        workbook.creationHelper.createFormulaEvaluator().evaluateAll()
+        val (blob, blobSource) = localBlob("typed.xlsx", workbook)
+
+        val evaluated = read(blob, blobSource)
+        assertEquals(LocalDateTime.of(2024, 3, 15, 0, 0), evaluated[0]["day"])
+        assertEquals(5L, evaluated[0]["total"])
+
+        val formulas = read(blob, blobSource, SheetSettings(evaluateFormulas = false))
+        assertEquals("2+3", formulas[0]["total"])
+    }
+
+    @Test
+    fun shouldSampleRows_whenInferringWithoutHeader() {
+        val workbook = XSSFWorkbook()
+        val sheet = workbook.createSheet("Wide")
+        sheet.createRow(0).createCell(0).setCellValue("a")
+        sheet.createRow(1).createCell(2).setCellValue("c")
+        sheet.createRow(2).createCell(5).setCellValue("f")
+        val (blob, blobSource) = localBlob("wide.xlsx", workbook)
+
+        val sampled = ExcelFormatHandler(SheetSettings(hasHeader = false), sampleRows = 2).inferSchema(blob, blobSource)
+        val full = ExcelFormatHandler(SheetSettings(hasHeader = false)).inferSchema(blob, blobSource)
+
+        assertEquals(3, sampled.size)
+        assertEquals(6, full.size)
+    }
+
+    @Test
+    fun shouldReadRemoteBlobs_throughTemporaryCopy() {
+        val (local, localSource) = localBlob("test.xlsx", ExcelTestUtils.createTestWorkbook())
+        val remote = object : BlobPath {
+            override val uri: URI = URI.create("s3://bucket/test.xlsx")
+        }
+        var opened = 0
+        val remoteSource = object : BlobSource {
+            override fun listBlobs(): Sequence<BlobPath> = sequenceOf(remote)
+            override fun openInputStream(path: BlobPath): InputStream {
+                opened++
+                return localSource.openInputStream(local)
+            }
+            override fun openSeekableChannel(path: BlobPath): SeekableByteChannel = localSource.openSeekableChannel(local)
+            override fun close() {}
+        }
+        val tempFiles = { Files.list(Path.of(System.getProperty("java.io.tmpdir"))).use { s -> s.filter { it.fileName.toString().startsWith("mill-excel-") }.count() } }
+        val before = tempFiles()
+
+        val result = read(remote, remoteSource)
+
+        assertEquals(3, result.size)
+        assertEquals("Charlie", result[2]["name"])
+        assertEquals(before, tempFiles())
+        // once to infer the schema, once to create the source and read it
+        assertEquals(2, opened)
+    }
+
+    @Test
+    fun shouldReleaseWorkbook_whenClosedEarly() {
+        val (blob, blobSource) = localBlob("monthly.xlsx", ExcelTestUtils.createMonthlyWorkbook())
+        val handler = ExcelFormatHandler(selector = SheetSelector.ALL)
+        val schema = handler.inferSchema(blob, blobSource)
+        val iterator = handler.createRecordSource(blob, blobSource, schema).let { (it as XlsxRecordSource).iterator() }
+
+        assertTrue(iterator.hasNext())
+        iterator.next()
+        (iterator as CloseableRecordIterator).close()
+
+        assertFalse(iterator.hasNext())
+    }
+
+    @Test
+    fun shouldReopenBlob_forLaterIterations() {
+        val (blob, blobSource) = localBlob("test.xlsx", ExcelTestUtils.createTestWorkbook())
+        val handler = ExcelFormatHandler()
+        val source = handler.createRecordSource(blob, blobSource, handler.inferSchema(blob, blobSource)) as XlsxRecordSource
+
+        assertEquals(source.toList(), source.toList())
+        assertEquals(3, source.toList().size)
+    }
+}
@@ -8,9 +8,10 @@ import org.apache.parquet.hadoop.ParquetFileReader
 /**
  * [FormatHandler] for Apache Parquet files.
  *
- * Infers schema from the Parquet file footer and creates row-oriented
- * [ParquetRecordSource] instances for reading data. Uses [BlobInputFile]
- * to read from any storage backend without Hadoop dependencies.
+ * Infers schema from the Parquet file footer and creates [ParquetRecordSource]
+ * instances that read column chunks natively on both the row and the columnar
+ * path. Uses [BlobInputFile] to read from any storage backend without Hadoop
+ * dependencies.
  */
 class ParquetFormatHandler : FormatHandler, RecordStatisticReader {
 
@@ -31,7 +32,7 @@ class ParquetFormatHandler : FormatHandler, RecordStatisticReader {
     /**
      * Creates a [ParquetRecordSource] for the given blob.
      *
-     * The returned source reads Parquet data row-by-row via the Avro reader,
+     * The returned source is both a [FlowRecordSource] and a [FlowVectorSource],
      * using [BlobInputFile] for storage-agnostic access.
      */
     override fun createRecordSource(blob: BlobPath, blobSource: BlobSource, schema: RecordSchema): RecordSource {
@@ -0,0 +1,131 @@
+package io.qpointz.mill.source.format.parquet
+
+import io.qpointz.mill.source.CompareOp
+import io.qpointz.mill.source.ScanPredicate
+import org.apache.parquet.filter2.predicate.FilterApi
+import org.apache.parquet.filter2.predicate.FilterPredicate
+import org.apache.parquet.filter2.predicate.Operators
+import org.apache.parquet.io.api.Binary
+import org.apache.parquet.schema.LogicalTypeAnnotation
+import org.apache.parquet.schema.MessageType
+import org.apache.parquet.schema.PrimitiveType
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName
+
+/**
+ * Converts Mill [ScanPredicate]s into a Parquet [FilterPredicate] used for row-group
+ * (statistics, dictionary, bloom filter) and page (column index) pruning.
+ *
+ * Conversion is conservative: a conjunct is dropped whenever its literal cannot be
+ * represented exactly in the column's physical type or Parquet ordering could differ from
+ * SQL ordering (timestamps, floats, string ranges with non-BMP characters). Dropping a
+ * conjunct only means less pruning; rows are still filtered by the query engine.
+ */
+internal object ParquetPredicateConverter {
+
+    /**
+     * Returns the conjunction of all convertible [predicates], or `null` if none converts.
+     */
+    fun convert(predicates: List<ScanPredicate>, fileSchema: MessageType): FilterPredicate? =
+        predicates
+            .mapNotNull { convert(it, fileSchema) }
+            .reduceOrNull { left, right -> FilterApi.and(left, right) }
+
+    /**
+     * Names of the file columns referenced by convertible [predicates].
+     */
+    fun referencedColumns(predicates: List<ScanPredicate>, fileSchema: MessageType): Set<String> =
+        predicates
+            .filter { convert(it, fileSchema) != null }
+            .mapTo(mutableSetOf()) { it.column }
+
+    private fun convert(predicate: ScanPredicate, fileSchema: MessageType): FilterPredicate? {
+        if (!fileSchema.containsField(predicate.column)) return null
+        val field = fileSchema.getType(predicate.column)
+        if (!field.isPrimitive) return null
+        val type = field.asPrimitiveType()
+        val name = predicate.column
+
+        return when (kindOf(type) ?: return null) {
+            Kind.INT32 -> ordered(predicate, FilterApi.intColumn(name)) { value, _ ->
+                (value as? Long)?.takeIf { it in Int.MIN_VALUE..Int.MAX_VALUE }?.toInt()
+            }
+            Kind.INT64 -> ordered(predicate, FilterApi.longColumn(name)) { value, _ -> value as? Long }
+            Kind.DOUBLE -> ordered(predicate, FilterApi.doubleColumn(name)) { value, _ ->
+                when (value) {
+                    is Double -> value.takeUnless { it.isNaN() }
+                    is Long -> value.toDouble().takeIf { it.toLong() == value }
+                    else -> null
+                }
+            }
+            Kind.STRING -> ordered(predicate, FilterApi.binaryColumn(name)) { value, equality ->
+                val text = value as? String
+                // Parquet compares UTF-8 bytes, Java compares UTF-16 units: both orders agree
+                // unless surrogates or characters above them are involved.
+                if (text == null || (!equality && text.any { it >= '\uD800' })) null else Binary.fromString(text)
+            }
+            Kind.BOOLEAN -> equality(predicate, FilterApi.booleanColumn(name)) { value -> value as? Boolean }
+        }
+    }
+
+    private fun <T : Comparable<T>, C> ordered(
+        predicate: ScanPredicate,
+        column: C,
+        literal: (Any, Boolean) -> T?,
+    ): FilterPredicate? where C : Operators.Column<T>, C : Operators.SupportsLtGt {
+        if (predicate !is ScanPredicate.Compare) return equality(predicate, column) { literal(it, true) }
+        val equality = predicate.op == CompareOp.EQ || predicate.op == CompareOp.NE
+        val value = literal(predicate.value, equality) ?: return null
+        return when (predicate.op) {
+            CompareOp.EQ -> FilterApi.eq(column, value)
+            CompareOp.NE -> FilterApi.notEq(column, value)
+            CompareOp.LT -> FilterApi.lt(column, value)
+            CompareOp.LE -> FilterApi.ltEq(column, value)
+            CompareOp.GT -> FilterApi.gt(column, value)
+            CompareOp.GE -> FilterApi.gtEq(column, value)
+        }
+    }
+
+    private fun <T : Comparable<T>, C> equality(
+        predicate: ScanPredicate,
+        column: C,
+        literal: (Any) -> T?,
+    ): FilterPredicate? where C : Operators.Column<T>, C : Operators.SupportsEqNotEq = when (predicate) {
+        is ScanPredicate.IsNull -> FilterApi.eq(column, null)
+        is ScanPredicate.IsNotNull -> FilterApi.notEq(column, null)
+        is ScanPredicate.Compare -> when (predicate.op) {
+            CompareOp.EQ -> literal(predicate.value)?.let { FilterApi.eq(column, it) }
+            CompareOp.NE -> literal(predicate.value)?.let { FilterApi.notEq(column, it) }
+            else -> null
+        }
+        is ScanPredicate.In -> {
+            val values = predicate.values.map { literal(it) }
+            if (values.isEmpty() || values.any { it == null }) null
+            else FilterApi.`in`(column, values.filterNotNullTo(mutableSetOf()))
+        }
+    }
+
+    private enum class Kind { INT32, INT64, DOUBLE, STRING, BOOLEAN }
+
+    private fun kindOf(type: PrimitiveType): Kind? {
+        val logical = type.logicalTypeAnnotation
+        return when (type.primitiveTypeName) {
+            PrimitiveTypeName.INT32 -> when (logical) {
+                null, is LogicalTypeAnnotation.IntLogicalTypeAnnotation,
+                is LogicalTypeAnnotation.DateLogicalTypeAnnotation -> Kind.INT32
+                else -> null
+            }
+            PrimitiveTypeName.INT64 -> when (logical) {
+                null, is LogicalTypeAnnotation.IntLogicalTypeAnnotation -> Kind.INT64
+                else -> null
+            }
+            PrimitiveTypeName.DOUBLE -> Kind.DOUBLE
+            PrimitiveTypeName.BOOLEAN -> Kind.BOOLEAN
+            PrimitiveTypeName.BINARY -> when (logical) {
+                is LogicalTypeAnnotation.StringLogicalTypeAnnotation,
+                is LogicalTypeAnnotation.EnumLogicalTypeAnnotation -> Kind.STRING
+                else -> null
+            }
+            else -> null
+        }
+    }
+}
@@ -1,59 +1,141 @@
 package io.qpointz.mill.source.format.parquet
 
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.proto.VectorBlockSchema
+import io.qpointz.mill.source.CloseableRecordIterator
 import io.qpointz.mill.source.FlowRecordSource
+import io.qpointz.mill.source.FlowVectorSource
 import io.qpointz.mill.source.Record
+import io.qpointz.mill.source.RecordScanSpec
 import io.qpointz.mill.source.RecordSchema
-import io.qpointz.mill.source.format.avro.AvroRecordSource
-import org.apache.avro.generic.GenericRecord
-import org.apache.parquet.avro.AvroParquetReader
+import io.qpointz.mill.source.ScanMetrics
+import io.qpointz.mill.source.ScanPredicate
+import io.qpointz.mill.source.ScanPushdownSource
+import io.qpointz.mill.vectors.VectorBlockIterator
 import org.apache.parquet.io.InputFile
 
 /**
- * Row-oriented record source that reads a single Parquet file.
+ * Record source that reads a single Parquet file natively, column chunk by column chunk.
  *
- * Uses the Avro-based Parquet reader (`parquet-avro`) to read Parquet files
- * as [GenericRecord] instances, then converts them to Mill [Record]s.
+ * Both access modes are native:
+ * - [vectorBlocks] decodes column chunks straight into [VectorBlock] vectors;
+ * - [iterator] reads the same typed column batches and exposes them row by row.
+ *
+ * Only the columns of [schema] are read from the file; use [project] to narrow a source
+ * to the columns a query references. Field indices of the original schema are preserved,
+ * so projected vectors keep their table-level `fieldIdx`.
+ *
+ * As a [ScanPushdownSource] it prunes row groups and pages that cannot match the scan's
+ * [ScanPredicate]s, using column statistics, dictionaries, bloom filters and column indexes
+ * when the file has them. Pruning is coarse-grained: surviving rows are not filtered.
  *
  * Accepts a Parquet [InputFile] so that reading works with any storage
  * backend (local filesystem, ADLS, S3, etc.) via [BlobInputFile].
  *
- * @property inputFile the Parquet file to read
- * @property schema    the Mill schema describing the expected fields
+ * @property inputFile  the Parquet file to read
+ * @property schema     the Mill schema describing the fields to read
+ * @property predicates conjunctive pruning hints
+ * @property metrics    counters skipped row groups and rows are reported to
  */
 class ParquetRecordSource(
     private val inputFile: InputFile,
-    override val schema: RecordSchema
-) : FlowRecordSource {
-
-    override fun iterator(): Iterator<Record> {
-        val reader = AvroParquetReader.builder<GenericRecord>(inputFile).build()
-
-        return object : Iterator<Record> {
-            private var next: GenericRecord? = reader.read()
-
-            override fun hasNext(): Boolean {
-                if (next == null) {
-                    reader.close()
-                }
-                return next != null
-            }
-
-            override fun next(): Record {
-                val current = next ?: run {
-                    reader.close()
-                    throw NoSuchElementException()
-                }
-                val record = toRecord(current)
-                next = reader.read()
-                return record
-            }
-        }
+    override val schema: RecordSchema,
+    private val predicates: List<ScanPredicate> = emptyList(),
+    private val metrics: ScanMetrics? = null,
+) : FlowRecordSource, FlowVectorSource, ScanPushdownSource {
+
+    /**
+     * Returns a source reading only [columns] (in schema order). Unknown names are ignored.
+     */
+    fun project(columns: Set<String>): ParquetRecordSource =
+        ParquetRecordSource(inputFile, schema.project(columns), predicates, metrics)
+
+    override fun pushdown(spec: RecordScanSpec, metrics: ScanMetrics): ParquetRecordSource {
+        return ParquetRecordSource(inputFile, schema.project(spec.columns), predicates + spec.predicates, metrics)
+    }
+
+    override fun iterator(): Iterator<Record> =
+        ParquetRecordIterator(reader(RECORD_BATCH_SIZE), schema)
+
+    override fun vectorBlocks(batchSize: Int): VectorBlockIterator =
+        ParquetVectorBlockIterator(reader(batchSize), schema.toVectorBlockSchema())
+
+    private fun reader(batchSize: Int) =
+        ParquetColumnBatchReader(inputFile, schema, batchSize, predicates, metrics)
+
+    companion object {
+        /** Rows decoded per column batch on the row-oriented path. */
+        const val RECORD_BATCH_SIZE = 1024
+    }
+}
+
+/**
+ * Row view over [ParquetColumnBatchReader] batches.
+ */
+private class ParquetRecordIterator(
+    private val reader: ParquetColumnBatchReader,
+    schema: RecordSchema,
+) : CloseableRecordIterator {
+
+    private val fieldNames = schema.fieldNames
+
+    private var row = 0
+
+    private var closed = false
+
+    override fun hasNext(): Boolean {
+        if (closed) return false
+        if (row < reader.rows) return true
+        row = 0
+        return reader.readBatch() > 0
     }
 
-    private fun toRecord(avroRecord: GenericRecord): Record {
-        val values = schema.fields.associate { field ->
-            field.name to AvroRecordSource.convertValue(avroRecord.get(field.name))
+    override fun next(): Record {
+        if (!hasNext()) throw NoSuchElementException()
+        val values = HashMap<String, Any?>(fieldNames.size * 2)
+        for (idx in fieldNames.indices) {
+            values[fieldNames[idx]] = reader.value(idx, row)
         }
+        row++
         return Record(values)
     }
+
+    override fun close() {
+        closed = true
+        reader.close()
+    }
+}
+
+/**
+ * Columnar iterator producing one [VectorBlock] per [ParquetColumnBatchReader] batch.
+ */
+private class ParquetVectorBlockIterator(
+    private val reader: ParquetColumnBatchReader,
+    private val vbSchema: VectorBlockSchema,
+) : VectorBlockIterator, AutoCloseable {
+
+    private var pending = false
+
+    override fun schema(): VectorBlockSchema = vbSchema
+
+    override fun hasNext(): Boolean {
+        if (!pending) {
+            pending = reader.readBatch() > 0
+        }
+        return pending
+    }
+
+    override fun next(): VectorBlock {
+        if (!hasNext()) throw NoSuchElementException()
+        pending = false
+        return reader.toVectorBlock(vbSchema)
+    }
+
+    override fun remove() {
+        throw UnsupportedOperationException("remove() is not supported")
+    }
+
+    override fun close() {
+        reader.close()
+    }
 }
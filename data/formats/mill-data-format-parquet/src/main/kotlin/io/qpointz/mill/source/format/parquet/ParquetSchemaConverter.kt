@@ -12,7 +12,8 @@ import org.apache.parquet.schema.Type
  * Converts a Parquet [MessageType] schema to a Mill [RecordSchema].
  *
  * Supports Parquet primitive types and common logical type annotations.
- * Nullability is derived from the Parquet repetition level (OPTIONAL vs REQUIRED).
+ * Nullability is derived from the Parquet repetition level (OPTIONAL vs REQUIRED); REPEATED
+ * columns hold lists rather than one value per row and are rejected like nested types.
  *
  * Type mapping:
  *
@@ -45,8 +46,11 @@ object ParquetSchemaConverter {
         require(field.isPrimitive) {
             "Nested/group types are not supported: ${field.name}"
         }
+        require(!field.isRepetition(Type.Repetition.REPEATED)) {
+            "Repeated types are not supported: ${field.name}"
+        }
         val primitive = field.asPrimitiveType()
-        val nullable = primitive.repetition != Type.Repetition.REQUIRED
+        val nullable = primitive.repetition == Type.Repetition.OPTIONAL
         return convertPrimitive(primitive, nullable)
     }
 
@@ -0,0 +1,146 @@
+package io.qpointz.mill.source.format.parquet
+
+import io.qpointz.mill.source.*
+import io.qpointz.mill.types.sql.DatabaseType
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Path
+
+class ParquetRecordSourceTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private fun createSource(): ParquetRecordSource {
+        ParquetTestUtils.writeParquetFile(tempDir, "test.parquet", ParquetTestUtils.createTestRecords())
+        return createSource("test.parquet")
+    }
+
+    private fun createSource(fileName: String): ParquetRecordSource {
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first { it.uri.path.endsWith(fileName) }
+        val handler = ParquetFormatHandler()
+        val schema = handler.inferSchema(blob, blobSource)
+        return handler.createRecordSource(blob, blobSource, schema) as ParquetRecordSource
+    }
+
+    @Test
+    fun shouldReadVectorBlocksNatively() {
+        val source = createSource()
+
+        val blocks = source.vectorBlocks(2).asSequence().toList()
+
+        assertEquals(listOf(2, 1), blocks.map { it.vectorSize })
+        val first = blocks[0]
+        assertEquals(listOf(0, 1, 2, 3), first.vectorsList.map { it.fieldIdx })
+        assertEquals(listOf(1L, 2L), first.getVectors(0).i64Vector.valuesList)
+        assertEquals(listOf("Alice", ""), first.getVectors(1).stringVector.valuesList)
+        assertEquals(listOf(false, true), first.getVectors(1).nulls.nullsList)
+        assertFalse(first.getVectors(0).hasNulls())
+        assertEquals(listOf(95.5, 82.0), first.getVectors(2).fp64Vector.valuesList)
+        assertEquals(listOf(true, false), first.getVectors(3).boolVector.valuesList)
+        assertEquals(listOf("Charlie"), blocks[1].getVectors(1).stringVector.valuesList)
+    }
+
+    @Test
+    fun shouldMatchRowPathOnColumnarPath() {
+        val source = createSource()
+
+        val rows = source.toList()
+        val bridged = source.asRecordSource().toList()
+
+        assertEquals(rows, bridged)
+    }
+
+    @Test
+    fun shouldReadOnlyProjectedColumns() {
+        val source = createSource().project(setOf("score", "id"))
+
+        assertEquals(listOf("id", "score"), source.schema.fieldNames)
+        val block = source.vectorBlocks().next()
+        assertEquals(listOf(0, 2), block.vectorsList.map { it.fieldIdx })
+        assertEquals(listOf(95.5, 82.0, 77.3), block.getVectors(1).fp64Vector.valuesList)
+
+        val first = source.first()
+        assertEquals(mapOf("id" to 1L, "score" to 95.5), first.values)
+    }
+
+    @Test
+    fun shouldReadMissingColumnsAsNull() {
+        val source = createSource()
+        val extended = RecordSchema(source.schema.fields + SchemaField("extra", 4, DatabaseType.string(true, -1)))
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first { it.uri.path.endsWith(".parquet") }
+        val withExtra = ParquetRecordSource(BlobInputFile(blob, blobSource), extended)
+
+        val rows = withExtra.toList()
+        assertEquals(3, rows.size)
+        assertTrue(rows.all { it["extra"] == null })
+        val block = withExtra.vectorBlocks().next()
+        assertEquals(listOf(true, true, true), block.getVectors(4).nulls.nullsList)
+    }
+
+    @Test
+    fun shouldCloseRecordIteratorEarly() {
+        val source = createSource()
+        val iterator = source.iterator() as CloseableRecordIterator
+
+        assertTrue(iterator.hasNext())
+        iterator.next()
+        iterator.close()
+
+        assertFalse(iterator.hasNext())
+    }
+
+    @Test
+    fun shouldSkipRowGroupsByPredicate() {
+        ParquetTestUtils.writeParquetFile(tempDir, "seq.parquet", ParquetTestUtils.createSequentialRecords(1000), 1L)
+        val source = createSource("seq.parquet")
+        val metrics = ScanMetrics()
+        val spec = RecordScanSpec(predicates = listOf(ScanPredicate.Compare("id", CompareOp.GE, 950L)))
+
+        val ids = source.pushdown(spec, metrics).map { it["id"] as Long }
+
+        assertTrue(ids.containsAll((950L..1000L).toList()))
+        assertTrue(ids.size < 1000)
+        val snapshot = metrics.snapshot()
+        assertEquals(1, snapshot.sources)
+        assertTrue(snapshot.rowGroups > 1)
+        assertTrue(snapshot.rowGroupsSkipped > 0)
+        assertTrue(snapshot.bytesSkipped > 0)
+    }
+
+    @Test
+    fun shouldPruneOnColumnsOutsideProjection() {
+        ParquetTestUtils.writeParquetFile(tempDir, "seq.parquet", ParquetTestUtils.createSequentialRecords(1000), 1L)
+        val source = createSource("seq.parquet")
+        val metrics = ScanMetrics()
+        val spec = RecordScanSpec(
+            columns = setOf("name"),
+            predicates = listOf(ScanPredicate.In("id", listOf(5L, 6L))),
+        )
+
+        val pushed = source.pushdown(spec, metrics)
+        val names = pushed.vectorBlocks().asSequence()
+            .flatMap { it.getVectors(0).stringVector.valuesList }
+            .toList()
+
+        assertEquals(listOf("name"), pushed.schema.fieldNames)
+        assertTrue(names.containsAll(listOf("name-5", "name-6")))
+        assertTrue(metrics.snapshot().rowGroupsSkipped > 0)
+    }
+
+    @Test
+    fun shouldIgnoreUnconvertiblePredicates() {
+        val source = createSource()
+        val metrics = ScanMetrics()
+        val spec = RecordScanSpec(predicates = listOf(
+            ScanPredicate.Compare("missing", CompareOp.EQ, 1L),
+            ScanPredicate.Compare("name", CompareOp.EQ, 1L),
+        ))
+
+        assertEquals(3, source.pushdown(spec, metrics).count())
+        assertEquals(0, metrics.snapshot().rowGroupsSkipped)
+    }
+}
@@ -133,6 +133,15 @@ class ParquetSchemaConverterTest {
         assertEquals(16, mill.fields[0].type.precision)
     }
 
+    @Test
+    fun shouldRejectRepeatedField() {
+        val schema = messageType(
+            Types.repeated(PrimitiveType.PrimitiveTypeName.INT32).named("tags")
+        )
+        val ex = assertThrows<IllegalArgumentException> { ParquetSchemaConverter.convert(schema) }
+        assertTrue(ex.message!!.contains("tags"))
+    }
+
     // --- helpers ---
 
     private fun primitiveField(name: String, type: PrimitiveType.PrimitiveTypeName): Type {
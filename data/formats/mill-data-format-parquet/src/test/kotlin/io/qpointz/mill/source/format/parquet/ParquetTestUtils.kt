@@ -8,6 +8,7 @@ import org.apache.avro.generic.GenericData
 import org.apache.avro.generic.GenericRecord
 import org.apache.parquet.avro.AvroParquetWriter
 import org.apache.parquet.conf.PlainParquetConfiguration
+import org.apache.parquet.hadoop.ParquetWriter
 import org.apache.parquet.hadoop.metadata.CompressionCodecName
 import java.nio.file.Path
 
@@ -53,11 +54,32 @@ object ParquetTestUtils {
         )
     }
 
+    /**
+     * Creates [count] sequential records (`id` 1..count) for multi-row-group files.
+     */
+    fun createSequentialRecords(count: Int): List<GenericRecord> =
+        (1..count).map { i ->
+            GenericData.Record(TEST_AVRO_SCHEMA).apply {
+                put("id", i.toLong())
+                put("name", "name-$i")
+                put("score", i.toDouble())
+                put("active", i % 2 == 0)
+            }
+        }
+
     /**
      * Writes a Parquet file using [BlobOutputFile] and [LocalBlobSink].
      * No Hadoop dependency required.
+     *
+     * A tiny [rowGroupSize] makes the writer flush a row group at every size check
+     * (about every 100 rows), producing files with many row groups.
      */
-    fun writeParquetFile(dir: Path, filename: String, records: List<GenericRecord>): Path {
+    fun writeParquetFile(
+        dir: Path,
+        filename: String,
+        records: List<GenericRecord>,
+        rowGroupSize: Long = ParquetWriter.DEFAULT_BLOCK_SIZE.toLong(),
+    ): Path {
         val filePath = dir.resolve(filename)
         val blobSink = LocalBlobSink(dir)
         val blobPath = LocalBlobPath.of(dir, filePath)
@@ -68,6 +90,7 @@ object ParquetTestUtils {
             .withDataModel(GenericData.get())
             .withSchema(TEST_AVRO_SCHEMA)
             .withCompressionCodec(CompressionCodecName.SNAPPY)
+            .withRowGroupSize(rowGroupSize)
             .build()
 
         for (record in records) {
@@ -18,6 +18,7 @@ import io.qpointz.mill.source.descriptor.FormatDescriptor
  *   hasHeader: true
  *   skipEmptyLines: true
  *   nullValue: ""
+ *   splitSize: 134217728   # read files over 128 MiB as concurrent line-aligned splits
  * ```
  */
 @JsonTypeName("csv")
@@ -52,7 +53,10 @@ data class CsvFormatDescriptor(
     @JsonProperty("lineSeparatorDetectionEnabled") val lineSeparatorDetectionEnabled: Boolean? = null,
     @JsonProperty("delimiterDetectionEnabled") val delimiterDetectionEnabled: Boolean? = null,
     @JsonProperty("quoteDetectionEnabled") val quoteDetectionEnabled: Boolean? = null,
-    @JsonProperty("commentCollectionEnabled") val commentCollectionEnabled: Boolean? = null
+    @JsonProperty("commentCollectionEnabled") val commentCollectionEnabled: Boolean? = null,
+    // Split reading
+    @JsonProperty("splitSize") val splitSize: Long? = null,
+    @JsonProperty("multilineValues") val multilineValues: Boolean = false
 ) : FormatDescriptor {
 
     /**
@@ -89,7 +93,9 @@ data class CsvFormatDescriptor(
         lineSeparatorDetectionEnabled = lineSeparatorDetectionEnabled,
         delimiterDetectionEnabled = delimiterDetectionEnabled,
         quoteDetectionEnabled = quoteDetectionEnabled,
-        commentCollectionEnabled = commentCollectionEnabled
+        commentCollectionEnabled = commentCollectionEnabled,
+        splitSize = splitSize,
+        multilineValues = multilineValues
     )
 }
 
@@ -66,6 +66,35 @@ class CsvFormatHandler(
         )
     }
 
+    /**
+     * Creates the sources reading the given blob.
+     *
+     * With [CsvSettings.splitSize] set and splittable settings ([CsvSettings.isSplittable]),
+     * a larger blob is cut into [TextSplit]s read through [BlobSource.openSeekableChannel];
+     * only the first split skips the header row. Otherwise the blob is read by one source.
+     * Splits fail on quoted values spanning lines, which [CsvSettings.multilineValues] declares.
+     */
+    override fun createRecordSources(blob: BlobPath, blobSource: BlobSource, schema: RecordSchema): List<RecordSource> {
+        val splitSize = settings.splitSize
+        if (splitSize == null || !settings.isSplittable) {
+            return listOf(createRecordSource(blob, blobSource, schema))
+        }
+        val splits = TextSplits.plan(blob, blobSource, splitSize)
+        if (splits.size <= 1) {
+            return listOf(createRecordSource(blob, blobSource, schema))
+        }
+        return splits.map { split ->
+            CsvRecordSource(
+                inputStreamSupplier = { TextSplits.open(blob, blobSource, split, settings.lineQuoting) },
+                schema = schema,
+                settings = settings.copy(hasHeader = settings.hasHeader && split.start == 0L)
+            )
+        }
+    }
+
+    /** Line counting reads the whole blob. */
+    override val readsMetadataOnly: Boolean get() = false
+
     override fun readRecordStatistic(blob: BlobPath, blobSource: BlobSource): RecordStatistic =
         TextLineRecordStatisticReader.readRecordStatistic(
             blob = blob,
@@ -1,30 +1,42 @@
 package io.qpointz.mill.source.format.text
 
+import com.univocity.parsers.common.CommonParserSettings
 import com.univocity.parsers.csv.CsvParser
 import io.qpointz.mill.source.CloseableRecordIterator
 import io.qpointz.mill.source.FlowRecordSource
+import io.qpointz.mill.source.FlowVectorSource
 import io.qpointz.mill.source.Record
+import io.qpointz.mill.source.RecordScanSpec
 import io.qpointz.mill.source.RecordSchema
+import io.qpointz.mill.source.ScanMetrics
+import io.qpointz.mill.source.ScanPushdownSource
+import io.qpointz.mill.vectors.VectorBlockIterator
 import java.io.InputStream
 import java.io.InputStreamReader
 
 /**
- * Row-oriented record source that reads a single CSV file using
+ * Record source that reads a single CSV file using
  * [Univocity Parsers](https://github.com/uniVocity/univocity-parsers).
  *
- * All values are read as strings — no type coercion is applied during parsing.
+ * Records carry all values as strings — no type coercion is applied on the row path.
  * The input stream is consumed lazily during iteration and closed when
  * the iterator is exhausted.
  *
+ * Rows are produced as [Record]s by [iterator] or, natively, as typed vector blocks by
+ * [vectorBlocks]: the columnar path parses each field straight into a vector builder of
+ * its [schema] type (see [TextVectorBlockIterator]) without building records.
+ *
  * @property inputStream the CSV file input stream
  * @property schema      the Mill schema describing the expected fields
  * @property settings    CSV parsing configuration
+ * @property projected   whether [schema] is a projection; only its columns are then parsed
  */
 class CsvRecordSource(
     private val inputStreamSupplier: () -> InputStream,
     override val schema: RecordSchema,
-    private val settings: CsvSettings = CsvSettings()
-) : FlowRecordSource {
+    private val settings: CsvSettings = CsvSettings(),
+    private val projected: Boolean = false,
+) : FlowRecordSource, FlowVectorSource, ScanPushdownSource {
 
     constructor(
         inputStream: InputStream,
@@ -32,8 +44,27 @@ class CsvRecordSource(
         settings: CsvSettings = CsvSettings()
     ) : this({ inputStream }, schema, settings)
 
-    override fun iterator(): Iterator<Record> {
+    /**
+     * Returns a source parsing only the columns of [spec]; predicates are not evaluated.
+     */
+    override fun pushdown(spec: RecordScanSpec, metrics: ScanMetrics): CsvRecordSource {
+        if (spec.columns == null) return this
+        return CsvRecordSource(inputStreamSupplier, schema.project(spec.columns), settings, true)
+    }
+
+    override fun iterator(): Iterator<Record> =
+        CsvRecordIterator(openParser(), schema)
+
+    override fun vectorBlocks(batchSize: Int): VectorBlockIterator {
+        require(batchSize > 0) { "batchSize must be positive, got $batchSize" }
+        return TextVectorBlockIterator(openParser(), schema, batchSize)
+    }
+
+    private fun openParser(): CsvParser {
         val parserSettings = settings.toParserSettings()
+        if (projected) {
+            parserSettings.selectColumns(schema)
+        }
         val parser = CsvParser(parserSettings)
         val reader = InputStreamReader(inputStreamSupplier(), Charsets.UTF_8)
         parser.beginParsing(reader)
@@ -43,7 +74,7 @@ class CsvRecordSource(
             parser.parseNext()
         }
 
-        return CsvRecordIterator(parser, schema)
+        return parser
     }
 }
 
@@ -92,3 +123,12 @@ internal fun toRecord(row: Array<String?>, schema: RecordSchema): Record {
     }
     return Record(values)
 }
+
+/**
+ * Restricts parsing to the columns of a projected [schema]. Unselected positions stay in
+ * parsed rows as `null`, so [toRecord] keeps addressing values by field index.
+ */
+internal fun CommonParserSettings<*>.selectColumns(schema: RecordSchema) {
+    selectIndexes(*schema.fields.map { it.index }.toTypedArray())
+    isColumnReorderingEnabled = false
+}
@@ -45,6 +45,13 @@ import com.univocity.parsers.csv.UnescapedQuoteHandling
  * @property delimiterDetectionEnabled    auto-detect delimiter character
  * @property quoteDetectionEnabled        auto-detect quote character
  * @property commentCollectionEnabled     collect comment lines
+ *
+ * ## Split reading
+ * @property splitSize       read blobs larger than this many bytes as line-aligned splits
+ *                           that a parallel table scan reads concurrently (`null` disables)
+ * @property multilineValues quoted values may contain line breaks; such files are never split.
+ *                           Splits of other files fail on a line ending inside a quoted value
+ *                           instead of reading misaligned rows (see [LineQuoting])
  */
 data class CsvSettings(
     // Format
@@ -77,9 +84,46 @@ data class CsvSettings(
     val lineSeparatorDetectionEnabled: Boolean? = null,
     val delimiterDetectionEnabled: Boolean? = null,
     val quoteDetectionEnabled: Boolean? = null,
-    val commentCollectionEnabled: Boolean? = null
+    val commentCollectionEnabled: Boolean? = null,
+    // Split reading
+    val splitSize: Long? = null,
+    val multilineValues: Boolean = false
 ) {
 
+    init {
+        require(splitSize == null || splitSize > 0) { "splitSize must be positive, got $splitSize" }
+    }
+
+    /**
+     * `true` when files may be cut into [TextSplit]s: line breaks are `\n`-terminated and
+     * never inside values, and no setting depends on reading a file from its first row.
+     * Explicitly enabled detection of delimiters, quotes or line separators samples the start
+     * of the file and therefore disables splitting, as do non-ASCII quote, escape or comment
+     * characters, whose quote parity cannot be checked byte by byte.
+     */
+    val isSplittable: Boolean
+        get() = !multilineValues &&
+            (lineSeparator == null || lineSeparator.endsWith("\n")) &&
+            numberOfRecordsToRead == null && numberOfRowsToSkip == null &&
+            delimiterDetectionEnabled != true && quoteDetectionEnabled != true &&
+            lineSeparatorDetectionEnabled != true &&
+            listOfNotNull(quote, quoteEscape, comment).all { it.code < 0x80 }
+
+    /**
+     * Quoting that splits check line by line, with the Univocity defaults (`"` doubled to
+     * escape it, `#` comments) for unset characters.
+     */
+    internal val lineQuoting: LineQuoting
+        get() {
+            val quoteChar = quote ?: '"'
+            val escapeChar = quoteEscape ?: '"'
+            return LineQuoting(
+                quote = quoteChar.code.toByte(),
+                escape = if (escapeChar == quoteChar) null else escapeChar.code.toByte(),
+                comment = (comment ?: '#').code.toByte(),
+            )
+        }
+
     /**
      * Applies format-level settings to a [CsvFormat].
      */
@@ -42,6 +42,9 @@ class FwfFormatHandler(
         )
     }
 
+    /** Line counting reads the whole blob. */
+    override val readsMetadataOnly: Boolean get() = false
+
     override fun readRecordStatistic(blob: BlobPath, blobSource: BlobSource): RecordStatistic =
         TextLineRecordStatisticReader.readRecordStatistic(
             blob = blob,
@@ -12,7 +12,9 @@ import java.io.InputStreamReader
  * Counts physical lines using the configured [lineSeparator] from the format descriptor
  * (default `\n`). When [hasHeader] is true, one line is subtracted for the header row.
  *
- * This is approximate: quoted fields containing line breaks are not handled.
+ * This is approximate: quoted fields containing line breaks are not handled. It reads the
+ * whole blob, so handlers report [io.qpointz.mill.source.statistics.RecordStatisticReader.readsMetadataOnly]
+ * as `false` and stored statistics take precedence where configured.
  */
 internal object TextLineRecordStatisticReader {
 
@@ -0,0 +1,200 @@
+package io.qpointz.mill.source.format.text
+
+import io.qpointz.mill.source.BlobPath
+import io.qpointz.mill.source.BlobSource
+import java.io.IOException
+import java.io.InputStream
+import java.nio.ByteBuffer
+import java.nio.channels.SeekableByteChannel
+
+/**
+ * Byte range `[start, end)` of a line-oriented blob.
+ *
+ * A split owns every line *starting* inside its range; the last owned line is read to its
+ * end even when that lies past [end], and a line cut by [start] belongs to the previous
+ * split. Adjacent splits therefore read every line exactly once.
+ *
+ * @property start offset of the first byte of the range
+ * @property end   offset one past the last byte of the range
+ */
+data class TextSplit(val start: Long, val end: Long) {
+    init {
+        require(start >= 0) { "start must be >= 0, got $start" }
+        require(end > start) { "end ($end) must be > start ($start)" }
+    }
+}
+
+/**
+ * Planning and reading of [TextSplit]s.
+ */
+internal object TextSplits {
+
+    /**
+     * Cuts [blob] into splits of [splitSize] bytes. Returns a single split when the blob is
+     * not larger than [splitSize] and no split for an empty blob.
+     */
+    fun plan(blob: BlobPath, blobSource: BlobSource, splitSize: Long): List<TextSplit> {
+        require(splitSize > 0) { "splitSize must be positive, got $splitSize" }
+        val length = blobSource.openSeekableChannel(blob).use { it.size() }
+        return (0L until length step splitSize).map { TextSplit(it, minOf(length, it + splitSize)) }
+    }
+
+    /**
+     * Opens the lines of [split] as a stream positioned on its first line. With [quoting], the
+     * stream fails on a line ending inside a quoted value (see [LineQuoting]).
+     */
+    fun open(blob: BlobPath, blobSource: BlobSource, split: TextSplit, quoting: LineQuoting? = null): InputStream =
+        LineRangeInputStream(blobSource.openSeekableChannel(blob), split, quoting)
+}
+
+/**
+ * Quote characters of delimited lines, used to check that no quoted value spans lines.
+ *
+ * A split starts on the first line break inside its range, which is only a record boundary
+ * when line breaks never occur inside quoted values. That cannot be decided at the boundary
+ * itself, so every split tracks quote parity over the lines it owns instead: the split owning
+ * the line where such a value starts always starts on a true record boundary, sees the line
+ * end with an open quote and fails, rather than splits silently reading misaligned rows.
+ *
+ * @property quote   quote character
+ * @property escape  character escaping the next one inside values; `null` when quotes are
+ *                   escaped by doubling them, which keeps the parity unchanged
+ * @property comment character starting a comment line, whose quotes are ignored
+ */
+internal data class LineQuoting(val quote: Byte, val escape: Byte?, val comment: Byte?)
+
+/**
+ * Stream over the lines owned by a [TextSplit], read through a seekable channel.
+ *
+ * Lines are delimited by `\n` (so `\r\n` works too); the byte never occurs inside UTF-8
+ * multi-byte sequences, so splits can be resynchronized without decoding. With [quoting],
+ * reading fails on an owned line that ends inside a quoted value. The channel is closed with
+ * the stream.
+ */
+internal class LineRangeInputStream(
+    private val channel: SeekableByteChannel,
+    private val split: TextSplit,
+    private val quoting: LineQuoting? = null,
+    bufferSize: Int = DEFAULT_BUFFER_SIZE,
+) : InputStream() {
+
+    private val buffer: ByteBuffer = ByteBuffer.allocate(bufferSize).flip()
+
+    // reused by the single-byte read()
+    private val single = ByteArray(1)
+
+    /** Offset of the next byte handed out. */
+    private var position = maxOf(split.start - 1, 0L)
+
+    private var done = false
+
+    // quote parity of the line being handed out, tracked with [quoting]
+    private var lineStart = true
+    private var commentLine = false
+    private var quoted = false
+    private var escaped = false
+
+    init {
+        try {
+            channel.position(position)
+            if (split.start > 0) {
+                // skip the tail of the line owned by the previous split
+                skipLine()
+            }
+            if (position >= split.end) {
+                done = true
+            }
+        } catch (e: Exception) {
+            channel.close()
+            throw e
+        }
+    }
+
+    override fun read(): Int =
+        if (read(single, 0, 1) < 0) -1 else single[0].toInt() and 0xff
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (done) return -1
+        if (len == 0) return 0
+        if (!buffer.hasRemaining() && !fill()) {
+            done = true
+            return -1
+        }
+        var n = minOf(len, buffer.remaining())
+        // the newline ending the owned lines is the first one at or after end - 1
+        val boundary = split.end - 1
+        if (position + n > boundary) {
+            val from = maxOf(0L, boundary - position).toInt()
+            for (i in from until n) {
+                if (buffer.get(buffer.position() + i) == NEWLINE) {
+                    n = i + 1
+                    done = true
+                    break
+                }
+            }
+        }
+        buffer.get(b, off, n)
+        if (quoting != null) {
+            checkQuoting(quoting, b, off, n)
+        }
+        position += n
+        return n
+    }
+
+    override fun close() {
+        done = true
+        channel.close()
+    }
+
+    private fun skipLine() {
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                done = true
+                return
+            }
+            position++
+            if (buffer.get() == NEWLINE) return
+        }
+    }
+
+    private fun checkQuoting(quoting: LineQuoting, b: ByteArray, off: Int, len: Int) {
+        for (i in off until off + len) {
+            val c = b[i]
+            if (lineStart) {
+                lineStart = false
+                commentLine = c == quoting.comment
+            }
+            when {
+                c == NEWLINE -> {
+                    if (quoted && !commentLine) {
+                        throw IOException(
+                            "Quoted value spans lines at byte ${position + i - off}; " +
+                                "files with such values must be read with multilineValues set",
+                        )
+                    }
+                    lineStart = true
+                    escaped = false
+                }
+                commentLine -> Unit
+                escaped -> escaped = false
+                c == quoting.escape -> escaped = true
+                c == quoting.quote -> quoted = !quoted
+            }
+        }
+    }
+
+    private fun fill(): Boolean {
+        buffer.clear()
+        var read: Int
+        do {
+            read = channel.read(buffer)
+        } while (read == 0)
+        buffer.flip()
+        return read > 0
+    }
+
+    private companion object {
+        const val DEFAULT_BUFFER_SIZE = 64 * 1024
+        const val NEWLINE = '\n'.code.toByte()
+    }
+}
@@ -0,0 +1,409 @@
+package io.qpointz.mill.source.format.text
+
+import com.google.protobuf.ByteString
+import com.univocity.parsers.common.AbstractParser
+import io.qpointz.mill.proto.LogicalDataType.LogicalDataTypeId
+import io.qpointz.mill.proto.Vector
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.proto.VectorBlockSchema
+import io.qpointz.mill.source.RecordSchema
+import io.qpointz.mill.source.SchemaField
+import io.qpointz.mill.vectors.VectorBlockIterator
+
+/**
+ * Columnar iterator filling [VectorBlock]s straight from the rows of a Univocity [parser].
+ *
+ * Every field of [schema] gets a typed column builder chosen by its logical type, with the
+ * same vector typing as the row-to-vector bridge in source-core. Parsed text is decoded in
+ * place: integral, floating point and boolean fields are parsed without boxing, and values
+ * that do not parse are flagged null. Date and time fields are kept as text, like the
+ * bridge does. Only fields of [schema] are read from parsed rows, by their original index,
+ * so a parser restricted with [selectColumns] never materializes the other columns.
+ *
+ * The parser is stopped when the last row has been consumed or on [close].
+ */
+internal class TextVectorBlockIterator(
+    private val parser: AbstractParser<*>,
+    schema: RecordSchema,
+    private val batchSize: Int,
+) : VectorBlockIterator, AutoCloseable {
+
+    private val vbSchema: VectorBlockSchema = schema.toVectorBlockSchema()
+
+    private val columns: List<TextColumn> = schema.fields.map(TextColumn::of)
+
+    private var nextRow: Array<String?>? = parser.parseNext()
+
+    private var closed = false
+
+    override fun schema(): VectorBlockSchema = vbSchema
+
+    override fun hasNext(): Boolean {
+        if (nextRow == null) {
+            close()
+        }
+        return nextRow != null
+    }
+
+    override fun next(): VectorBlock {
+        if (!hasNext()) throw NoSuchElementException()
+        var size = 0
+        while (size < batchSize) {
+            val row = nextRow ?: break
+            for (column in columns) {
+                val idx = column.field.index
+                column.append(if (idx < row.size) row[idx] else null)
+            }
+            size++
+            nextRow = parser.parseNext()
+        }
+        val block = VectorBlock.newBuilder()
+            .setSchema(vbSchema)
+            .setVectorSize(size)
+        for (column in columns) {
+            block.addVectors(column.build())
+        }
+        return block.build()
+    }
+
+    override fun remove() {
+        throw UnsupportedOperationException("remove() is not supported")
+    }
+
+    override fun close() {
+        if (closed) return
+        closed = true
+        nextRow = null
+        parser.stopParsing()
+    }
+}
+
+/**
+ * Typed builder of one vector, fed with parsed text one row at a time.
+ *
+ * `null` text, and text the column cannot decode, append the type default and are flagged
+ * in the nulls vector, which is only attached when a block has nulls.
+ */
+internal abstract class TextColumn(val field: SchemaField) {
+
+    private var nulls = Vector.NullsVector.newBuilder()
+
+    private var hasNulls = false
+
+    fun append(text: String?) {
+        val isNull = text == null || !appendValue(text)
+        if (isNull) {
+            appendDefault()
+            hasNulls = true
+        }
+        nulls.addNulls(isNull)
+    }
+
+    /**
+     * Builds the vector of the rows appended so far and resets the column for the next block.
+     */
+    fun build(): Vector {
+        val vector = Vector.newBuilder().setFieldIdx(field.index)
+        if (hasNulls) {
+            vector.setNulls(nulls)
+        }
+        setValues(vector)
+        nulls = Vector.NullsVector.newBuilder()
+        hasNulls = false
+        return vector.build()
+    }
+
+    /** Appends the value decoded from [text]; returns `false` without appending when it does not decode. */
+    protected abstract fun appendValue(text: String): Boolean
+
+    protected abstract fun appendDefault()
+
+    /** Moves the appended values into [vector], leaving the column empty. */
+    protected abstract fun setValues(vector: Vector.Builder)
+
+    companion object {
+
+        /**
+         * Returns the column builder for the logical type of [field].
+         */
+        fun of(field: SchemaField): TextColumn = when (field.type.asLogicalDataType().typeId) {
+            LogicalDataTypeId.INT,
+            LogicalDataTypeId.SMALL_INT,
+            LogicalDataTypeId.TINY_INT -> I32Column(field)
+            LogicalDataTypeId.BIG_INT -> I64Column(field)
+            LogicalDataTypeId.FLOAT -> FP32Column(field)
+            LogicalDataTypeId.DOUBLE -> FP64Column(field)
+            LogicalDataTypeId.BOOL -> BoolColumn(field)
+            LogicalDataTypeId.BINARY -> BytesColumn(field)
+            // STRING, and Date, Time, Timestamp, etc. kept as text like the row bridge
+            else -> StringColumn(field)
+        }
+    }
+}
+
+private class StringColumn(field: SchemaField) : TextColumn(field) {
+    private var values = Vector.StringVector.newBuilder()
+    override fun appendValue(text: String): Boolean {
+        values.addValues(text)
+        return true
+    }
+    override fun appendDefault() {
+        values.addValues("")
+    }
+    override fun setValues(vector: Vector.Builder) {
+        vector.setStringVector(values)
+        values = Vector.StringVector.newBuilder()
+    }
+}
+
+private class I32Column(field: SchemaField) : TextColumn(field) {
+    private var values = Vector.I32Vector.newBuilder()
+    override fun appendValue(text: String): Boolean = TextNumbers.parseLong(text) { value ->
+        if (value < Int.MIN_VALUE || value > Int.MAX_VALUE) return false
+        values.addValues(value.toInt())
+    }
+    override fun appendDefault() {
+        values.addValues(0)
+    }
+    override fun setValues(vector: Vector.Builder) {
+        vector.setI32Vector(values)
+        values = Vector.I32Vector.newBuilder()
+    }
+}
+
+private class I64Column(field: SchemaField) : TextColumn(field) {
+    private var values = Vector.I64Vector.newBuilder()
+    override fun appendValue(text: String): Boolean = TextNumbers.parseLong(text) { values.addValues(it) }
+    override fun appendDefault() {
+        values.addValues(0L)
+    }
+    override fun setValues(vector: Vector.Builder) {
+        vector.setI64Vector(values)
+        values = Vector.I64Vector.newBuilder()
+    }
+}
+
+private class FP32Column(field: SchemaField) : TextColumn(field) {
+    private var values = Vector.FP32Vector.newBuilder()
+    override fun appendValue(text: String): Boolean = TextNumbers.parseFloat(text) { values.addValues(it) }
+    override fun appendDefault() {
+        values.addValues(0f)
+    }
+    override fun setValues(vector: Vector.Builder) {
+        vector.setFp32Vector(values)
+        values = Vector.FP32Vector.newBuilder()
+    }
+}
+
+private class FP64Column(field: SchemaField) : TextColumn(field) {
+    private var values = Vector.FP64Vector.newBuilder()
+    override fun appendValue(text: String): Boolean = TextNumbers.parseDouble(text) { values.addValues(it) }
+    override fun appendDefault() {
+        values.addValues(0.0)
+    }
+    override fun setValues(vector: Vector.Builder) {
+        vector.setFp64Vector(values)
+        values = Vector.FP64Vector.newBuilder()
+    }
+}
+
+private class BoolColumn(field: SchemaField) : TextColumn(field) {
+    private var values = Vector.BoolVector.newBuilder()
+    override fun appendValue(text: String): Boolean = TextNumbers.parseBoolean(text) { values.addValues(it) }
+    override fun appendDefault() {
+        values.addValues(false)
+    }
+    override fun setValues(vector: Vector.Builder) {
+        vector.setBoolVector(values)
+        values = Vector.BoolVector.newBuilder()
+    }
+}
+
+private class BytesColumn(field: SchemaField) : TextColumn(field) {
+    private var values = Vector.BytesVector.newBuilder()
+    override fun appendValue(text: String): Boolean {
+        values.addValues(ByteString.copyFromUtf8(text))
+        return true
+    }
+    override fun appendDefault() {
+        values.addValues(ByteString.EMPTY)
+    }
+    override fun setValues(vector: Vector.Builder) {
+        vector.setByteVector(values)
+        values = Vector.BytesVector.newBuilder()
+    }
+}
+
+/**
+ * Number and boolean parsing over [CharSequence]s that neither boxes nor creates substrings.
+ *
+ * Each parser trims surrounding whitespace, hands the decoded value to `onValue` and returns
+ * `true`, or returns `false` when the text is not a valid literal.
+ */
+internal object TextNumbers {
+
+    /** Largest mantissa a double represents exactly (2^53). */
+    const val DOUBLE_EXACT_MANTISSA = 1L shl 53
+
+    /** Largest mantissa a float represents exactly (2^24). */
+    const val FLOAT_EXACT_MANTISSA = 1L shl 24
+
+    /** Powers of ten exactly representable as doubles. */
+    val DOUBLE_POWERS = DoubleArray(23) { Math.pow(10.0, it.toDouble()) }
+
+    /** Powers of ten exactly representable as floats. */
+    val FLOAT_POWERS = FloatArray(11) { Math.pow(10.0, it.toDouble()).toFloat() }
+
+    /**
+     * Parses an optionally signed decimal integer, rejecting values outside the [Long] range.
+     */
+    inline fun parseLong(text: CharSequence, onValue: (Long) -> Unit): Boolean {
+        var start = trimStart(text)
+        val end = trimEnd(text, start)
+        if (start == end) return false
+        val negative = text[start] == '-'
+        if (negative || text[start] == '+') start++
+        if (start == end) return false
+        // accumulate negatively so that Long.MIN_VALUE parses
+        val limit = if (negative) Long.MIN_VALUE else -Long.MAX_VALUE
+        val limitByTen = limit / 10
+        var result = 0L
+        for (i in start until end) {
+            val digit = text[i] - '0'
+            if (digit < 0 || digit > 9 || result < limitByTen) return false
+            result *= 10
+            if (result < limit + digit) return false
+            result -= digit
+        }
+        onValue(if (negative) result else -result)
+        return true
+    }
+
+    /**
+     * Parses a floating point literal. Plain decimals with up to 15 significant digits and
+     * 22 fraction digits are computed exactly from the digits (one correctly rounded
+     * division); anything else falls back to [java.lang.Double.parseDouble].
+     */
+    inline fun parseDouble(text: CharSequence, onValue: (Double) -> Unit): Boolean {
+        val start = trimStart(text)
+        val end = trimEnd(text, start)
+        if (start == end) return false
+        val packed = decimal(text, start, end)
+        if (packed != NOT_SIMPLE) {
+            val mantissa = mantissaOf(packed)
+            val scale = scaleOf(packed)
+            if (mantissa < DOUBLE_EXACT_MANTISSA && scale < DOUBLE_POWERS.size) {
+                val value = mantissa.toDouble() / DOUBLE_POWERS[scale]
+                onValue(if (isNegative(text, start)) -value else value)
+                return true
+            }
+        }
+        val value = try {
+            java.lang.Double.parseDouble(text.subSequence(start, end).toString())
+        } catch (e: NumberFormatException) {
+            return false
+        }
+        onValue(value)
+        return true
+    }
+
+    /**
+     * Parses a floating point literal as a float; see [parseDouble] for the fast path.
+     */
+    inline fun parseFloat(text: CharSequence, onValue: (Float) -> Unit): Boolean {
+        val start = trimStart(text)
+        val end = trimEnd(text, start)
+        if (start == end) return false
+        val packed = decimal(text, start, end)
+        if (packed != NOT_SIMPLE) {
+            val mantissa = mantissaOf(packed)
+            val scale = scaleOf(packed)
+            if (mantissa < FLOAT_EXACT_MANTISSA && scale < FLOAT_POWERS.size) {
+                val value = mantissa.toFloat() / FLOAT_POWERS[scale]
+                onValue(if (isNegative(text, start)) -value else value)
+                return true
+            }
+        }
+        val value = try {
+            java.lang.Float.parseFloat(text.subSequence(start, end).toString())
+        } catch (e: NumberFormatException) {
+            return false
+        }
+        onValue(value)
+        return true
+    }
+
+    /**
+     * Parses `true`/`false` (any case) and `1`/`0`.
+     */
+    inline fun parseBoolean(text: CharSequence, onValue: (Boolean) -> Unit): Boolean {
+        val start = trimStart(text)
+        val end = trimEnd(text, start)
+        val value = when {
+            matches(text, start, end, "true") || matches(text, start, end, "1") -> true
+            matches(text, start, end, "false") || matches(text, start, end, "0") -> false
+            else -> return false
+        }
+        onValue(value)
+        return true
+    }
+
+    /** Marker returned by [decimal] for text outside the plain decimal fast path. */
+    const val NOT_SIMPLE = -1L
+
+    /**
+     * Reads `[sign]digits[.digits]` in `[start, end)` into a packed mantissa (high bits) and
+     * fraction digit count (low 8 bits), or returns [NOT_SIMPLE] for other syntax (exponents,
+     * `NaN`, more than 15 significant digits, ...).
+     */
+    fun decimal(text: CharSequence, start: Int, end: Int): Long {
+        var i = start
+        if (text[i] == '-' || text[i] == '+') i++
+        var mantissa = 0L
+        var significant = 0
+        var scale = -1
+        var hasDigits = false
+        while (i < end) {
+            val ch = text[i++]
+            if (ch == '.' && scale < 0) {
+                scale = 0
+                continue
+            }
+            val digit = ch - '0'
+            if (digit < 0 || digit > 9) return NOT_SIMPLE
+            hasDigits = true
+            if (mantissa != 0L || digit != 0) significant++
+            if (significant > 15) return NOT_SIMPLE
+            mantissa = mantissa * 10 + digit
+            if (scale >= 0 && ++scale > 0xff) return NOT_SIMPLE
+        }
+        if (!hasDigits) return NOT_SIMPLE
+        return (mantissa shl 8) or maxOf(scale, 0).toLong()
+    }
+
+    fun mantissaOf(packed: Long): Long = packed ushr 8
+
+    fun scaleOf(packed: Long): Int = (packed and 0xff).toInt()
+
+    fun isNegative(text: CharSequence, start: Int): Boolean = text[start] == '-'
+
+    fun trimStart(text: CharSequence): Int {
+        var start = 0
+        while (start < text.length && text[start] <= ' ') start++
+        return start
+    }
+
+    fun trimEnd(text: CharSequence, start: Int): Int {
+        var end = text.length
+        while (end > start && text[end - 1] <= ' ') end--
+        return end
+    }
+
+    fun matches(text: CharSequence, start: Int, end: Int, literal: String): Boolean {
+        if (end - start != literal.length) return false
+        for (i in literal.indices) {
+            if (text[start + i].lowercaseChar() != literal[i]) return false
+        }
+        return true
+    }
+}
@@ -40,7 +40,9 @@ data class TsvFormatDescriptor(
     @JsonProperty("numberOfRecordsToRead") val numberOfRecordsToRead: Long? = null,
     @JsonProperty("numberOfRowsToSkip") val numberOfRowsToSkip: Long? = null,
     @JsonProperty("lineSeparatorDetectionEnabled") val lineSeparatorDetectionEnabled: Boolean? = null,
-    @JsonProperty("commentCollectionEnabled") val commentCollectionEnabled: Boolean? = null
+    @JsonProperty("commentCollectionEnabled") val commentCollectionEnabled: Boolean? = null,
+    // Split reading
+    @JsonProperty("splitSize") val splitSize: Long? = null
 ) : FormatDescriptor {
 
     /**
@@ -64,6 +66,7 @@ data class TsvFormatDescriptor(
         numberOfRecordsToRead = numberOfRecordsToRead,
         numberOfRowsToSkip = numberOfRowsToSkip,
         lineSeparatorDetectionEnabled = lineSeparatorDetectionEnabled,
-        commentCollectionEnabled = commentCollectionEnabled
+        commentCollectionEnabled = commentCollectionEnabled,
+        splitSize = splitSize
     )
 }
@@ -65,6 +65,34 @@ class TsvFormatHandler(
         )
     }
 
+    /**
+     * Creates the sources reading the given blob.
+     *
+     * With [TsvSettings.splitSize] set and splittable settings ([TsvSettings.isSplittable]),
+     * a larger blob is cut into [TextSplit]s read through [BlobSource.openSeekableChannel];
+     * only the first split skips the header row. Otherwise the blob is read by one source.
+     */
+    override fun createRecordSources(blob: BlobPath, blobSource: BlobSource, schema: RecordSchema): List<RecordSource> {
+        val splitSize = settings.splitSize
+        if (splitSize == null || !settings.isSplittable) {
+            return listOf(createRecordSource(blob, blobSource, schema))
+        }
+        val splits = TextSplits.plan(blob, blobSource, splitSize)
+        if (splits.size <= 1) {
+            return listOf(createRecordSource(blob, blobSource, schema))
+        }
+        return splits.map { split ->
+            TsvRecordSource(
+                inputStreamSupplier = { TextSplits.open(blob, blobSource, split) },
+                schema = schema,
+                settings = settings.copy(hasHeader = settings.hasHeader && split.start == 0L)
+            )
+        }
+    }
+
+    /** Line counting reads the whole blob. */
+    override val readsMetadataOnly: Boolean get() = false
+
     override fun readRecordStatistic(blob: BlobPath, blobSource: BlobSource): RecordStatistic =
         TextLineRecordStatisticReader.readRecordStatistic(
             blob = blob,
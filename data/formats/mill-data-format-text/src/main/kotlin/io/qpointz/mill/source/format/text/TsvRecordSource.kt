@@ -3,27 +3,38 @@ package io.qpointz.mill.source.format.text
 import com.univocity.parsers.tsv.TsvParser
 import io.qpointz.mill.source.CloseableRecordIterator
 import io.qpointz.mill.source.FlowRecordSource
+import io.qpointz.mill.source.FlowVectorSource
 import io.qpointz.mill.source.Record
+import io.qpointz.mill.source.RecordScanSpec
 import io.qpointz.mill.source.RecordSchema
+import io.qpointz.mill.source.ScanMetrics
+import io.qpointz.mill.source.ScanPushdownSource
+import io.qpointz.mill.vectors.VectorBlockIterator
 import java.io.InputStream
 import java.io.InputStreamReader
 
 /**
- * Row-oriented record source that reads a single TSV file using
+ * Record source that reads a single TSV file using
  * [Univocity Parsers](https://github.com/uniVocity/univocity-parsers).
  *
  * TSV uses escape sequences instead of quoting — this is distinct from
  * CSV with a tab delimiter.
  *
+ * Rows are produced as [Record]s by [iterator] or, natively, as typed vector blocks by
+ * [vectorBlocks]: the columnar path parses each field straight into a vector builder of
+ * its [schema] type (see [TextVectorBlockIterator]) without building records.
+ *
  * @property inputStream the TSV file input stream
  * @property schema      the Mill schema describing the expected fields
  * @property settings    TSV parsing configuration
+ * @property projected   whether [schema] is a projection; only its columns are then parsed
  */
 class TsvRecordSource(
     private val inputStreamSupplier: () -> InputStream,
     override val schema: RecordSchema,
-    private val settings: TsvSettings = TsvSettings()
-) : FlowRecordSource {
+    private val settings: TsvSettings = TsvSettings(),
+    private val projected: Boolean = false,
+) : FlowRecordSource, FlowVectorSource, ScanPushdownSource {
 
     constructor(
         inputStream: InputStream,
@@ -31,8 +42,27 @@ class TsvRecordSource(
         settings: TsvSettings = TsvSettings()
     ) : this({ inputStream }, schema, settings)
 
-    override fun iterator(): Iterator<Record> {
+    /**
+     * Returns a source parsing only the columns of [spec]; predicates are not evaluated.
+     */
+    override fun pushdown(spec: RecordScanSpec, metrics: ScanMetrics): TsvRecordSource {
+        if (spec.columns == null) return this
+        return TsvRecordSource(inputStreamSupplier, schema.project(spec.columns), settings, true)
+    }
+
+    override fun iterator(): Iterator<Record> =
+        TsvRecordIterator(openParser(), schema)
+
+    override fun vectorBlocks(batchSize: Int): VectorBlockIterator {
+        require(batchSize > 0) { "batchSize must be positive, got $batchSize" }
+        return TextVectorBlockIterator(openParser(), schema, batchSize)
+    }
+
+    private fun openParser(): TsvParser {
         val parserSettings = settings.toParserSettings()
+        if (projected) {
+            parserSettings.selectColumns(schema)
+        }
         val parser = TsvParser(parserSettings)
         val reader = InputStreamReader(inputStreamSupplier(), Charsets.UTF_8)
         parser.beginParsing(reader)
@@ -42,7 +72,7 @@ class TsvRecordSource(
             parser.parseNext()
         }
 
-        return TsvRecordIterator(parser, schema)
+        return parser
     }
 }
 
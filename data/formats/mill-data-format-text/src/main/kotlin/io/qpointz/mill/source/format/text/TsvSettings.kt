@@ -32,6 +32,10 @@ import com.univocity.parsers.tsv.TsvWriterSettings
  * @property numberOfRowsToSkip           skip N rows before parsing
  * @property lineSeparatorDetectionEnabled auto-detect line separator
  * @property commentCollectionEnabled     collect comment lines
+ *
+ * ## Split reading
+ * @property splitSize  read blobs larger than this many bytes as line-aligned splits
+ *                      that a parallel table scan reads concurrently (`null` disables)
  */
 data class TsvSettings(
     // Format
@@ -53,9 +57,26 @@ data class TsvSettings(
     val numberOfRecordsToRead: Long? = null,
     val numberOfRowsToSkip: Long? = null,
     val lineSeparatorDetectionEnabled: Boolean? = null,
-    val commentCollectionEnabled: Boolean? = null
+    val commentCollectionEnabled: Boolean? = null,
+    // Split reading
+    val splitSize: Long? = null
 ) {
 
+    init {
+        require(splitSize == null || splitSize > 0) { "splitSize must be positive, got $splitSize" }
+    }
+
+    /**
+     * `true` when files may be cut into [TextSplit]s: line breaks are `\n`-terminated, no
+     * line joining, and no setting depends on reading a file from its first row (such as
+     * line separator detection).
+     */
+    val isSplittable: Boolean
+        get() = lineJoiningEnabled != true &&
+            (lineSeparator == null || lineSeparator.endsWith("\n")) &&
+            numberOfRecordsToRead == null && numberOfRowsToSkip == null &&
+            lineSeparatorDetectionEnabled != true
+
     /**
      * Applies format-level settings to a [TsvFormat].
      */
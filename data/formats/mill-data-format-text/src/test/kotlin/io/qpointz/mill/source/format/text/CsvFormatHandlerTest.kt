@@ -5,6 +5,7 @@ import io.qpointz.mill.source.LocalBlobSource
 import io.qpointz.mill.source.statistics.SourceStatisticWiring
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.io.TempDir
 import java.nio.file.Path
 
@@ -146,4 +147,49 @@ class CsvFormatHandlerTest {
 
         assertEquals(firstPass, secondPass)
     }
+
+    @Test
+    fun shouldReadSplits_likeWholeFile() {
+        val content = "id,name\n" + (1..200).joinToString("\n") { "$it,\"name, $it\"" }
+        CsvTestUtils.writeCsvFile(tempDir, "big.csv", content)
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first()
+        val whole = CsvFormatHandler()
+        val split = CsvFormatHandler(CsvSettings(splitSize = 256))
+        val schema = whole.inferSchema(blob, blobSource)
+
+        val sources = split.createRecordSources(blob, blobSource, schema)
+
+        assertTrue(sources.size > 1)
+        val expected = (whole.createRecordSource(blob, blobSource, schema) as FlowRecordSource).toList()
+        assertEquals(expected, sources.flatMap { (it as FlowRecordSource).toList() })
+        assertEquals(200, expected.size)
+    }
+
+    @Test
+    fun shouldNotSplit_whenValuesSpanLines() {
+        CsvTestUtils.writeCsvFile(tempDir, "test.csv", CsvTestUtils.SIMPLE_CSV)
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first()
+        val handler = CsvFormatHandler(CsvSettings(splitSize = 8, multilineValues = true))
+
+        val sources = handler.createRecordSources(blob, blobSource, handler.inferSchema(blob, blobSource))
+
+        assertEquals(1, sources.size)
+        assertEquals(3, (sources[0] as FlowRecordSource).toList().size)
+    }
+
+    @Test
+    fun shouldFailSplits_whenUndeclaredValuesSpanLines() {
+        val content = "id,name\n" + (1..50).joinToString("\n") { "$it,\"name\n$it\"" }
+        CsvTestUtils.writeCsvFile(tempDir, "big.csv", content)
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first()
+        val handler = CsvFormatHandler(CsvSettings(splitSize = 128))
+
+        val sources = handler.createRecordSources(blob, blobSource, handler.inferSchema(blob, blobSource))
+
+        assertTrue(sources.size > 1)
+        assertThrows<Exception> { sources.forEach { (it as FlowRecordSource).toList() } }
+    }
 }
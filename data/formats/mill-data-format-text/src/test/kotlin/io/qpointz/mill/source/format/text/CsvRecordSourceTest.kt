@@ -1,6 +1,9 @@
 package io.qpointz.mill.source.format.text
 
+import io.qpointz.mill.source.RecordScanSpec
 import io.qpointz.mill.source.RecordSchema
+import io.qpointz.mill.source.ScanMetrics
+import io.qpointz.mill.source.asRecordSource
 import io.qpointz.mill.types.sql.DatabaseType
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
@@ -113,4 +116,72 @@ class CsvRecordSourceTest {
         assertEquals(4, source.schema.size)
         assertEquals(listOf("id", "name", "score", "active"), source.schema.fieldNames)
     }
+
+    @Test
+    fun shouldParseOnlyProjectedColumns() {
+        val schema = stringSchema("id", "name", "score", "active")
+        val source = CsvRecordSource(
+            CsvTestUtils.toInputStream(CsvTestUtils.SIMPLE_CSV),
+            schema
+        ).pushdown(RecordScanSpec(columns = setOf("score", "id")), ScanMetrics())
+
+        assertEquals(listOf("id", "score"), source.schema.fieldNames)
+        val first = source.first()
+        assertEquals(mapOf("id" to "1", "score" to "95.5"), first.values)
+    }
+
+    @Test
+    fun shouldParseTypedVectors() {
+        val schema = RecordSchema.of(
+            "id" to DatabaseType.i64(true),
+            "name" to DatabaseType.string(true, -1),
+            "score" to DatabaseType.fp64(true, -1, -1),
+            "active" to DatabaseType.bool(true)
+        )
+        val source = CsvRecordSource(
+            CsvTestUtils.toInputStream(CsvTestUtils.SIMPLE_CSV),
+            schema
+        )
+
+        val blocks = source.vectorBlocks(2).asSequence().toList()
+
+        assertEquals(listOf(2, 1), blocks.map { it.vectorSize })
+        val first = blocks[0]
+        assertEquals(listOf(1L, 2L), first.getVectors(0).i64Vector.valuesList)
+        assertEquals(listOf("Alice", ""), first.getVectors(1).stringVector.valuesList)
+        assertEquals(listOf(false, true), first.getVectors(1).nulls.nullsList)
+        assertEquals(listOf(95.5, 82.0), first.getVectors(2).fp64Vector.valuesList)
+        assertEquals(listOf(true, false), first.getVectors(3).boolVector.valuesList)
+        assertFalse(first.getVectors(0).hasNulls())
+    }
+
+    @Test
+    fun shouldFlagUnparseableValuesAsNull() {
+        val schema = RecordSchema.of("n" to DatabaseType.i32(true))
+        val source = CsvRecordSource(
+            CsvTestUtils.toInputStream("n\n7\nseven\n99999999999\n"),
+            schema
+        )
+
+        val block = source.vectorBlocks().next()
+
+        assertEquals(listOf(7, 0, 0), block.getVectors(0).i32Vector.valuesList)
+        assertEquals(listOf(false, true, true), block.getVectors(0).nulls.nullsList)
+    }
+
+    @Test
+    fun shouldKeepTableFieldIndices_whenVectorsProjected() {
+        val schema = stringSchema("id", "name", "score", "active")
+        val source = CsvRecordSource(
+            { CsvTestUtils.toInputStream(CsvTestUtils.SIMPLE_CSV) },
+            schema
+        ).pushdown(RecordScanSpec(columns = setOf("score")), ScanMetrics())
+
+        val block = source.vectorBlocks().next()
+
+        assertEquals(1, block.vectorsCount)
+        assertEquals(2, block.getVectors(0).fieldIdx)
+        assertEquals(listOf("95.5", "82.0", "77.3"), block.getVectors(0).stringVector.valuesList)
+        assertEquals(source.toList(), source.asRecordSource().toList())
+    }
 }
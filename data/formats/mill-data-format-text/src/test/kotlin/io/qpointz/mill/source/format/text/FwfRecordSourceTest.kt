@@ -100,4 +100,25 @@ class FwfRecordSourceTest {
         val result = source.toList()
         assertTrue(result.isEmpty())
     }
+
+    @Test
+    fun shouldParsePaddedNumbers_intoTypedVectors() {
+        val typedSchema = RecordSchema.of(
+            "id" to DatabaseType.i32(true),
+            "name" to DatabaseType.string(true, -1),
+            "score" to DatabaseType.fp32(true, -1, -1)
+        )
+        val source = FwfRecordSource(
+            CsvTestUtils.toInputStream(fwfContent),
+            typedSchema,
+            settings.copy(keepPadding = true)
+        )
+
+        val block = source.vectorBlocks().next()
+
+        assertEquals(3, block.vectorSize)
+        assertEquals(listOf(1, 2, 3), block.getVectors(0).i32Vector.valuesList)
+        assertEquals(listOf(95.5f, 82.0f, 77.3f), block.getVectors(2).fp32Vector.valuesList)
+        assertFalse(block.getVectors(2).hasNulls())
+    }
 }
@@ -117,6 +117,24 @@ class SettingsTest {
         assertEquals('\t', settings.delimiter)
     }
 
+    @Test
+    fun csvDescriptor_shouldConvertSplitSettings() {
+        val settings = CsvFormatDescriptor(splitSize = 1024, multilineValues = true).toSettings()
+        assertEquals(1024L, settings.splitSize)
+        assertFalse(settings.isSplittable)
+    }
+
+    @Test
+    fun csvSettings_shouldNotBeSplittable_whenReadingDependsOnFileStart() {
+        assertTrue(CsvSettings(splitSize = 1024).isSplittable)
+        assertFalse(CsvSettings(numberOfRowsToSkip = 2).isSplittable)
+        assertFalse(CsvSettings(delimiterDetectionEnabled = true).isSplittable)
+        assertFalse(CsvSettings(lineSeparatorDetectionEnabled = true).isSplittable)
+        assertFalse(CsvSettings(lineSeparator = "\r").isSplittable)
+        assertTrue(CsvSettings(lineSeparator = "\r\n").isSplittable)
+        assertThrows<IllegalArgumentException> { CsvSettings(splitSize = 0) }
+    }
+
     // ==================== FwfSettings ====================
 
     @Test
@@ -230,4 +248,11 @@ class SettingsTest {
         assertEquals(true, settings.lineJoiningEnabled)
         assertEquals(true, settings.skipEmptyLines)
     }
+
+    @Test
+    fun tsvSettings_shouldNotBeSplittable_whenLinesJoined() {
+        assertTrue(TsvSettings(splitSize = 1024).isSplittable)
+        assertFalse(TsvSettings(splitSize = 1024, lineJoiningEnabled = true).isSplittable)
+        assertFalse(TsvSettings(splitSize = 1024, lineSeparatorDetectionEnabled = true).isSplittable)
+    }
 }
@@ -0,0 +1,78 @@
+package io.qpointz.mill.source.format.text
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+class TextNumbersTest {
+
+    private fun long(text: String): Long? {
+        var result: Long? = null
+        TextNumbers.parseLong(text) { result = it }
+        return result
+    }
+
+    private fun double(text: String): Double? {
+        var result: Double? = null
+        TextNumbers.parseDouble(text) { result = it }
+        return result
+    }
+
+    private fun float(text: String): Float? {
+        var result: Float? = null
+        TextNumbers.parseFloat(text) { result = it }
+        return result
+    }
+
+    private fun bool(text: String): Boolean? {
+        var result: Boolean? = null
+        TextNumbers.parseBoolean(text) { result = it }
+        return result
+    }
+
+    @Test
+    fun shouldParseLongs() {
+        assertEquals(42L, long("42"))
+        assertEquals(-7L, long(" -7 "))
+        assertEquals(5L, long("+5"))
+        assertEquals(Long.MAX_VALUE, long(Long.MAX_VALUE.toString()))
+        assertEquals(Long.MIN_VALUE, long(Long.MIN_VALUE.toString()))
+    }
+
+    @Test
+    fun shouldRejectInvalidLongs() {
+        listOf("", "  ", "-", "+", "1.5", "12a", "9223372036854775808", "-9223372036854775809")
+            .forEach { assertNull(long(it), it) }
+    }
+
+    @Test
+    fun shouldParseDoubles_likeJava() {
+        listOf("95.5", "-0.1", "0.3", "1.", ".25", "123456789012345", "3.141592653589793",
+            "1e10", "-2.5E-3", "NaN", "-Infinity", "0.000000000000000000000001", "12345678901234567890.5")
+            .forEach { assertEquals(java.lang.Double.parseDouble(it), double(it), it) }
+    }
+
+    @Test
+    fun shouldParseFloats_likeJava() {
+        listOf("95.5", "77.3", "-0.1", "16777217", "1e-3", "3.4028235E38")
+            .forEach { assertEquals(java.lang.Float.parseFloat(it), float(it), it) }
+    }
+
+    @Test
+    fun shouldRejectInvalidDoubles() {
+        listOf("", ".", "-", "1.2.3", "abc", "1,5").forEach {
+            assertNull(double(it), it)
+            assertNull(float(it), it)
+        }
+    }
+
+    @Test
+    fun shouldParseBooleans() {
+        assertEquals(true, bool("true"))
+        assertEquals(true, bool(" TRUE "))
+        assertEquals(true, bool("1"))
+        assertEquals(false, bool("False"))
+        assertEquals(false, bool("0"))
+        assertNull(bool("yes"))
+        assertNull(bool(""))
+    }
+}
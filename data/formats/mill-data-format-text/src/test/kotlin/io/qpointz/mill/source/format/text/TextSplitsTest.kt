@@ -0,0 +1,85 @@
+package io.qpointz.mill.source.format.text
+
+import io.qpointz.mill.source.LocalBlobSource
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+
+class TextSplitsTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private fun readSplits(content: String, splitSize: Long, quoting: LineQuoting? = null): List<String> {
+        Files.writeString(tempDir.resolve("data.csv"), content, Charsets.UTF_8)
+        val blobSource = LocalBlobSource(tempDir)
+        val blob = blobSource.listBlobs().first()
+        return TextSplits.plan(blob, blobSource, splitSize).map { split ->
+            TextSplits.open(blob, blobSource, split, quoting).use { String(it.readAllBytes(), Charsets.UTF_8) }
+        }
+    }
+
+    @Test
+    fun shouldCoverEveryLineOnce_forAnySplitSize() {
+        val content = (1..50).joinToString("\n") { "$it,\"name, $it\",\"quoted \"\"$it\"\"\",ünï" } + "\n"
+
+        for (splitSize in listOf(1L, 2L, 7L, 31L, 64L, 1000L, 10_000L)) {
+            val parts = readSplits(content, splitSize)
+            assertEquals(content, parts.joinToString(""), "splitSize=$splitSize")
+            parts.filter { it.isNotEmpty() }.forEach {
+                assertTrue(it.endsWith("\n"), "splitSize=$splitSize part=$it")
+            }
+        }
+    }
+
+    @Test
+    fun shouldKeepLastLine_withoutTrailingNewline() {
+        val content = "a,1\r\nb,2\r\nc,3"
+
+        val parts = readSplits(content, 4)
+
+        assertEquals(content, parts.joinToString(""))
+        assertEquals("c,3", parts.last { it.isNotEmpty() }.lines().last())
+    }
+
+    @Test
+    fun shouldPlanNoSplit_forEmptyBlob() {
+        assertTrue(readSplits("", 16).isEmpty())
+    }
+
+    @Test
+    fun shouldPlanSplitsOfGivenSize() {
+        Files.writeString(tempDir.resolve("data.csv"), "x".repeat(25))
+        val blobSource = LocalBlobSource(tempDir)
+
+        val splits = TextSplits.plan(blobSource.listBlobs().first(), blobSource, 10)
+
+        assertEquals(listOf(TextSplit(0, 10), TextSplit(10, 20), TextSplit(20, 25)), splits)
+    }
+
+    @Test
+    fun shouldPassQuotingCheck_whenQuotedValuesStayOnTheirLine() {
+        val content = "# it's \"odd\n" +
+            (1..50).joinToString("\n") { "$it,\"a \"\"$it\"\"\",\"x\\\"y\",\"\"" } + "\n"
+        val quoting = LineQuoting('"'.code.toByte(), '\\'.code.toByte(), '#'.code.toByte())
+
+        for (splitSize in listOf(1L, 7L, 64L, 10_000L)) {
+            assertEquals(content, readSplits(content, splitSize, quoting).joinToString(""), "splitSize=$splitSize")
+        }
+    }
+
+    @Test
+    fun shouldFail_whenQuotedValueSpansLines() {
+        val content = (1..20).joinToString("\n") { "$it,\"line\nbreak\"" } + "\n"
+        val quoting = LineQuoting('"'.code.toByte(), null, null)
+
+        for (splitSize in listOf(16L, 64L, 10_000L)) {
+            assertThrows<IOException>("splitSize=$splitSize") { readSplits(content, splitSize, quoting) }
+        }
+        assertEquals(content, readSplits(content, 16).joinToString(""))
+    }
+}
@@ -31,6 +31,7 @@ dependencies {
     implementation(libs.boot.starter)
     implementation(libs.boot.starter.security)
     implementation(libs.bundles.jackson)
+    compileOnly(libs.micrometer.core)
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
     annotationProcessor(libs.boot.configuration.processor)
@@ -1,8 +1,11 @@
 package io.qpointz.mill.autoconfigure.data;
 
+import io.qpointz.mill.data.backend.dispatchers.PlanCache;
+import io.qpointz.mill.data.backend.dispatchers.PlanCacheImpl;
 import io.qpointz.mill.sql.v2.dialect.DialectRegistry;
 import io.qpointz.mill.sql.v2.dialect.SqlDialectSpec;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 
@@ -30,4 +33,17 @@ public class SqlAutoConfiguration {
         }
         return spec;
     }
+
+    @Bean
+    @ConditionalOnMissingBean(PlanCache.class)
+    public PlanCache millDataPlanCache() {
+        final SqlProperties.PlanCacheProperties cacheProperties = millDataProperties.getPlanCache();
+        if (!cacheProperties.isEnabled()) {
+            log.info("SQL plan cache disabled");
+            return PlanCache.disabled();
+        }
+        log.info("SQL plan cache enabled (max-size:{}, ttl:{}, cache-rewritten:{})",
+                cacheProperties.getMaxSize(), cacheProperties.getTtl(), cacheProperties.isCacheRewritten());
+        return new PlanCacheImpl(cacheProperties.getMaxSize(), cacheProperties.getTtl(), cacheProperties.isCacheRewritten());
+    }
 }
@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,4 +29,35 @@ public class SqlProperties {
 
     private Map<String, Object> conventions = new HashMap<>();
 
+    /**
+     * SQL-to-Substrait plan cache settings.
+     */
+    private PlanCacheProperties planCache = new PlanCacheProperties();
+
+    @Getter
+    @Setter
+    public static class PlanCacheProperties {
+        /**
+         * Enables caching of parsed and validated plans keyed by normalized SQL and dialect.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of cached plans per cache tier.
+         */
+        private long maxSize = 1000;
+
+        /**
+         * Optional time-to-live of cached plans (for example: 10m). Bounds staleness for
+         * backends whose schema can change without a schema version change.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Additionally caches plans after the plan rewrite chain (row-level security facets),
+         * keyed by principal name and authorities.
+         */
+        private boolean cacheRewritten = false;
+    }
+
 }
@@ -18,9 +18,13 @@ import io.qpointz.mill.data.backend.flow.FlowContextFactory;
 import io.qpointz.mill.data.backend.flow.MultiFileSourceRepository;
 import io.qpointz.mill.data.backend.flow.SourceDefinitionRepository;
 import io.qpointz.mill.data.backend.resource.BackendResourceLoader;
+import io.qpointz.mill.source.statistics.BlobStatisticMaintainer;
+import io.qpointz.mill.source.statistics.BlobStatisticStore;
+import io.qpointz.mill.source.statistics.InMemoryBlobStatisticStore;
 import io.substrait.extension.ExtensionCollector;
 import io.substrait.extension.SimpleExtension;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -48,18 +52,32 @@ public class FlowBackendAutoConfiguration {
         return new MultiFileSourceRepository(backendResourceLoader, sources);
     }
 
+    @Bean
+    @ConditionalOnProperty(prefix = MILL_DATA_BACKEND_CONFIG_KEY + ".flow.statistics", name = "enabled",
+            havingValue = "true", matchIfMissing = true)
+    public BlobStatisticMaintainer flowBlobStatisticMaintainer(
+            ObjectProvider<BlobStatisticStore> statisticStore,
+            FlowBackendProperties flowProperties) {
+        var statistics = flowProperties.getStatistics();
+        var store = statisticStore.getIfAvailable(() -> new InMemoryBlobStatisticStore(statistics.getMaxEntries()));
+        log.info("Flow blob statistics kept in {}", store.getClass().getSimpleName());
+        return new BlobStatisticMaintainer(store, statistics.getThreads(), statistics.getRetryBackoff());
+    }
+
     @Bean
     public CalciteContextFactory flowCalciteContextFactory(
             SourceDefinitionRepository repository,
             CalciteSqlDialectConventions sqlDialectConventions,
             SqlProperties sqlProperties,
-            FlowBackendProperties flowProperties) {
+            FlowBackendProperties flowProperties,
+            ObjectProvider<BlobStatisticMaintainer> statistics) {
         var conventionProps = sqlDialectConventions.asMap(sqlProperties.getConventions());
         var props = new Properties();
         props.putAll(conventionProps);
         var schemaCache = flowProperties.getCache().getSchema();
         var cacheEnabled = schemaCache.isEnabled() || flowProperties.isCacheSchemas();
-        return new FlowContextFactory(repository, props, cacheEnabled, schemaCache.getTtl());
+        return new FlowContextFactory(repository, props, cacheEnabled, schemaCache.getTtl(),
+                statistics.getIfAvailable());
     }
 
     @Bean
@@ -1,5 +1,7 @@
 package io.qpointz.mill.autoconfigure.data.backend.flow;
 
+import io.qpointz.mill.source.statistics.BlobStatisticMaintainer;
+import io.qpointz.mill.source.statistics.InMemoryBlobStatisticStore;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -26,6 +28,11 @@ public class FlowBackendProperties {
      */
     private CacheProperties cache = new CacheProperties();
 
+    /**
+     * Planner statistics settings.
+     */
+    private StatisticsProperties statistics = new StatisticsProperties();
+
     /**
      * Backward-compatible alias for {@code cache.schema.enabled}.
      * Prefer the nested property structure.
@@ -63,6 +70,34 @@ public class FlowBackendProperties {
         private Duration ttl;
     }
 
+    @Getter
+    @Setter
+    public static class StatisticsProperties {
+        /**
+         * Collects row counts, null counts, min/max and distinct-value sketches of flow blobs in
+         * the background and keeps them in the statistic store (persisted when a
+         * {@code BlobStatisticStore} bean is present, otherwise in memory).
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of background threads collecting blob statistics.
+         */
+        private int threads = 1;
+
+        /**
+         * Maximum number of blob statistics kept when no persistent store is present; the least
+         * recently used ones are evicted beyond that.
+         */
+        private int maxEntries = InMemoryBlobStatisticStore.DEFAULT_MAX_ENTRIES;
+
+        /**
+         * Delay before a blob whose statistics could not be collected is retried; doubles with
+         * every further failure, up to an hour.
+         */
+        private Duration retryBackoff = BlobStatisticMaintainer.DEFAULT_RETRY_BACKOFF;
+    }
+
     @Getter
     @Setter
     public static class FacetsCacheProperties {
@@ -13,12 +13,14 @@ import io.qpointz.mill.data.backend.calcite.providers.CalciteSqlProvider;
 import io.qpointz.mill.data.backend.calcite.providers.PlanConverter;
 import io.qpointz.mill.data.backend.dispatchers.SubstraitDispatcher;
 import io.qpointz.mill.data.backend.jdbc.JdbcCalciteConfiguration;
+import io.qpointz.mill.data.backend.jdbc.JdbcPoolConfiguration;
 import io.qpointz.mill.data.backend.jdbc.providers.JdbcCalciteContextFactory;
 import io.qpointz.mill.data.backend.jdbc.providers.JdbcConnectionProvider;
 import io.qpointz.mill.data.backend.jdbc.providers.JdbcContextFactory;
 import io.qpointz.mill.data.backend.jdbc.providers.JdbcExecutionProvider;
 import io.qpointz.mill.data.backend.jdbc.providers.impl.JdbcConnectionCustomizerImpl;
 import io.qpointz.mill.data.backend.jdbc.providers.impl.JdbcContextFactoryImpl;
+import io.qpointz.mill.data.backend.jdbc.providers.impl.PooledJdbcContextFactory;
 import io.substrait.extension.ExtensionCollector;
 import io.substrait.extension.SimpleExtension;
 import lombok.extern.slf4j.Slf4j;
@@ -57,8 +59,25 @@ public class JdbcBackendAutoConfiguration {
     }
 
     @Bean
-    public JdbcContextFactory jdbcContextFactory(JdbcConnectionProvider jdbcConnectionProvider, JdbcCalciteConfiguration jdbcCalciteConfiguration) {
-        return new JdbcContextFactoryImpl(jdbcCalciteConfiguration, jdbcConnectionProvider);
+    public JdbcContextFactory jdbcContextFactory(JdbcConnectionProvider jdbcConnectionProvider,
+                                                 JdbcCalciteConfiguration jdbcCalciteConfiguration,
+                                                 JdbcBackendProperties backendProperties) {
+        val pool = backendProperties.getPool();
+        if (!pool.isEnabled()) {
+            log.info("JDBC connection pooling disabled");
+            return new JdbcContextFactoryImpl(jdbcCalciteConfiguration, jdbcConnectionProvider);
+        }
+        val poolConfiguration = JdbcPoolConfiguration.builder()
+                .minPoolSize(pool.getMinSize())
+                .maxPoolSize(pool.getMaxSize())
+                .connectionTimeout(pool.getConnectionTimeout())
+                .idleTimeout(pool.getIdleTimeout())
+                .maxLifetime(pool.getMaxLifetime())
+                .validationTimeout(pool.getValidationTimeout())
+                .validationQuery(pool.getValidationQuery())
+                .leakDetectionThreshold(pool.getLeakDetectionThreshold())
+                .build();
+        return new PooledJdbcContextFactory(jdbcCalciteConfiguration, poolConfiguration, jdbcConnectionProvider);
     }
 
     @Bean
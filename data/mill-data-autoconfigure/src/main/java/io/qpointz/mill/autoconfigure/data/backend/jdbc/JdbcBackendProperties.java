@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.Name;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static io.qpointz.mill.autoconfigure.data.backend.BackendAutoConfiguration.MILL_DATA_BACKEND_CONFIG_KEY;
@@ -47,4 +48,60 @@ public class JdbcBackendProperties {
     @Getter
     @Setter
     private Boolean multiSchema= false;
+
+    /**
+     * Connection pool settings for query execution connections.
+     */
+    @Getter
+    @Setter
+    private PoolProperties pool = new PoolProperties();
+
+    @Getter
+    @Setter
+    public static class PoolProperties {
+        /**
+         * When {@code false}, every query opens a new connection through the connection provider.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Minimum number of idle connections kept in the pool.
+         */
+        private int minSize = 1;
+
+        /**
+         * Maximum number of connections held by the pool.
+         */
+        private int maxSize = 10;
+
+        /**
+         * Maximum time a query waits for a free connection.
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Idle time after which surplus connections are evicted.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        /**
+         * Maximum lifetime of a pooled connection.
+         */
+        private Duration maxLifetime = Duration.ofMinutes(30);
+
+        /**
+         * Maximum time spent validating a connection before it is handed out.
+         */
+        private Duration validationTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Optional validation query; JDBC4 {@code isValid} is used when not set.
+         */
+        private Optional<String> validationQuery = Optional.empty();
+
+        /**
+         * Borrow time after which a connection leak warning is logged ({@code 0} disables).
+         */
+        private Duration leakDetectionThreshold = Duration.ofMinutes(5);
+    }
 }
@@ -0,0 +1,79 @@
+package io.qpointz.mill.autoconfigure.data.metrics;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.qpointz.mill.autoconfigure.data.SqlAutoConfiguration;
+import io.qpointz.mill.autoconfigure.data.backend.BackendAutoConfiguration;
+import io.qpointz.mill.autoconfigure.data.backend.flow.FlowBackendAutoConfiguration;
+import io.qpointz.mill.autoconfigure.data.backend.jdbc.JdbcBackendAutoConfiguration;
+import io.qpointz.mill.data.backend.dispatchers.PlanCache;
+import io.qpointz.mill.data.backend.dispatchers.ResultResourceManager;
+import io.qpointz.mill.data.backend.flow.SourceDefinitionRepository;
+import io.qpointz.mill.data.backend.jdbc.providers.JdbcContextFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Micrometer binders for data-plane resources. Active when Micrometer is on the classpath (for example
+ * through the actuator starter); Spring Boot binds every {@link MeterBinder} bean to the registries.
+ */
+@AutoConfiguration(after = {SqlAutoConfiguration.class, BackendAutoConfiguration.class, JdbcBackendAutoConfiguration.class,
+        FlowBackendAutoConfiguration.class})
+@ConditionalOnClass(MeterBinder.class)
+public class DataMetricsAutoConfiguration {
+
+    /**
+     * @param manager shared result resource manager from {@code DefaultServiceConfiguration}
+     * @return gauges for open cursors and retained bytes
+     */
+    @Bean
+    @ConditionalOnBean(ResultResourceManager.class)
+    @ConditionalOnMissingBean
+    public ResultResourceMetrics resultResourceMetrics(ResultResourceManager manager) {
+        return new ResultResourceMetrics(manager);
+    }
+
+    /**
+     * @param contextFactory JDBC backend context factory; meters are bound only when it pools connections
+     * @return gauges, counters and wait timer of the JDBC connection pool
+     */
+    @Bean
+    @ConditionalOnBean(JdbcContextFactory.class)
+    @ConditionalOnMissingBean
+    public JdbcPoolMetrics jdbcPoolMetrics(JdbcContextFactory contextFactory) {
+        return new JdbcPoolMetrics(contextFactory);
+    }
+
+    /**
+     * @param planCache SQL plan cache from {@code SqlAutoConfiguration}; meters are bound only when it is enabled
+     * @return hit, miss and eviction counters and size gauges of both plan cache tiers
+     */
+    @Bean
+    @ConditionalOnBean(PlanCache.class)
+    @ConditionalOnMissingBean
+    public PlanCacheMetrics planCacheMetrics(PlanCache planCache) {
+        return new PlanCacheMetrics(planCache);
+    }
+
+    /**
+     * @return pruning counters of flow table scans, bound when the flow backend is configured
+     */
+    @Bean
+    @ConditionalOnBean(SourceDefinitionRepository.class)
+    @ConditionalOnMissingBean
+    public FlowScanMetrics flowScanMetrics() {
+        return new FlowScanMetrics();
+    }
+
+    /**
+     * @return block cache counters of cloud blob sources, bound when the flow backend is configured
+     */
+    @Bean
+    @ConditionalOnBean(SourceDefinitionRepository.class)
+    @ConditionalOnMissingBean
+    public FlowBlobCacheMetrics flowBlobCacheMetrics() {
+        return new FlowBlobCacheMetrics();
+    }
+}
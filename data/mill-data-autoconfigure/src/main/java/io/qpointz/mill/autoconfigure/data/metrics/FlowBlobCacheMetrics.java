@@ -0,0 +1,52 @@
+package io.qpointz.mill.autoconfigure.data.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.qpointz.mill.source.blob.BlobCacheMetrics;
+
+/**
+ * Publishes the block caches of cloud blob sources ({@link BlobCacheMetrics#TOTALS}) as meters: lookup,
+ * request, fetched-bytes, read-ahead and eviction counters and the hit ratio gauge
+ * ({@code mill.blob.cache.*}).
+ */
+public class FlowBlobCacheMetrics implements MeterBinder {
+
+    private final BlobCacheMetrics totals;
+
+    public FlowBlobCacheMetrics() {
+        this(BlobCacheMetrics.TOTALS);
+    }
+
+    public FlowBlobCacheMetrics(BlobCacheMetrics totals) {
+        this.totals = totals;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mill.blob.cache.hits", totals, t -> t.snapshot().getHits())
+                .description("Block lookups served from the cache or an in-flight fetch")
+                .register(registry);
+        FunctionCounter.builder("mill.blob.cache.misses", totals, t -> t.snapshot().getMisses())
+                .description("Block lookups that required a storage request")
+                .register(registry);
+        Gauge.builder("mill.blob.cache.hit.ratio", totals, t -> t.snapshot().getHitRatio())
+                .description("Share of block lookups served without a storage request")
+                .register(registry);
+        FunctionCounter.builder("mill.blob.cache.requests", totals, t -> t.snapshot().getRequests())
+                .description("Ranged requests issued to storage")
+                .register(registry);
+        FunctionCounter.builder("mill.blob.cache.fetched", totals, t -> t.snapshot().getBytesFetched())
+                .description("Bytes downloaded from storage")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        FunctionCounter.builder("mill.blob.cache.prefetched", totals, t -> t.snapshot().getBlocksPrefetched())
+                .description("Blocks fetched by read-ahead")
+                .register(registry);
+        FunctionCounter.builder("mill.blob.cache.evictions", totals, t -> t.snapshot().getEvictions())
+                .description("Blocks evicted to stay within the cache size")
+                .register(registry);
+    }
+}
@@ -0,0 +1,48 @@
+package io.qpointz.mill.autoconfigure.data.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.qpointz.mill.source.ScanMetrics;
+
+/**
+ * Publishes the pruning counters of finished flow table scans ({@link ScanMetrics#TOTALS}) as counters:
+ * files opened and pruned by predicates on their attributes, and Parquet row groups, bytes and rows skipped
+ * by statistics, dictionary, bloom filter and page index filtering ({@code mill.flow.scan.*}).
+ */
+public class FlowScanMetrics implements MeterBinder {
+
+    private final ScanMetrics totals;
+
+    public FlowScanMetrics() {
+        this(ScanMetrics.TOTALS);
+    }
+
+    public FlowScanMetrics(ScanMetrics totals) {
+        this.totals = totals;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mill.flow.scan.sources", totals, t -> t.snapshot().getSources())
+                .description("Files opened by pushed-down scans")
+                .register(registry);
+        FunctionCounter.builder("mill.flow.scan.sources.pruned", totals, t -> t.snapshot().getSourcesPruned())
+                .description("Files skipped without I/O because their attributes cannot match the scan predicates")
+                .register(registry);
+        FunctionCounter.builder("mill.flow.scan.row.groups", totals, t -> t.snapshot().getRowGroups())
+                .description("Parquet row groups of opened files")
+                .register(registry);
+        FunctionCounter.builder("mill.flow.scan.row.groups.skipped", totals, t -> t.snapshot().getRowGroupsSkipped())
+                .description("Parquet row groups skipped because their statistics or filters cannot match")
+                .register(registry);
+        FunctionCounter.builder("mill.flow.scan.bytes.skipped", totals, t -> t.snapshot().getBytesSkipped())
+                .description("Compressed bytes of the skipped row groups")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        FunctionCounter.builder("mill.flow.scan.rows.skipped", totals, t -> t.snapshot().getRowsSkipped())
+                .description("Rows of read row groups skipped by page index filtering")
+                .register(registry);
+    }
+}
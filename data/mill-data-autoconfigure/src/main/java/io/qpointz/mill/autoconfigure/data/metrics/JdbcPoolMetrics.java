@@ -0,0 +1,64 @@
+package io.qpointz.mill.autoconfigure.data.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.qpointz.mill.data.backend.jdbc.providers.JdbcContextFactory;
+import io.qpointz.mill.data.backend.jdbc.providers.impl.PooledJdbcContextFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes {@link PooledJdbcContextFactory#getStatistics()} as meters: connection gauges
+ * ({@code mill.jdbc.pool.connections.*}, {@code mill.jdbc.pool.pending}), borrow counters and the borrow
+ * wait timer ({@code mill.jdbc.pool.wait}, {@code mill.jdbc.pool.wait.max}). Binds nothing when pooling is
+ * disabled.
+ */
+public class JdbcPoolMetrics implements MeterBinder {
+
+    private final JdbcContextFactory contextFactory;
+
+    public JdbcPoolMetrics(JdbcContextFactory contextFactory) {
+        this.contextFactory = contextFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(contextFactory instanceof PooledJdbcContextFactory pool)) {
+            return;
+        }
+        Gauge.builder("mill.jdbc.pool.connections.active", pool, p -> p.getStatistics().activeConnections())
+                .description("Connections borrowed by running queries")
+                .baseUnit(BaseUnits.CONNECTIONS)
+                .register(registry);
+        Gauge.builder("mill.jdbc.pool.connections.idle", pool, p -> p.getStatistics().idleConnections())
+                .description("Connections waiting in the pool")
+                .baseUnit(BaseUnits.CONNECTIONS)
+                .register(registry);
+        Gauge.builder("mill.jdbc.pool.connections.total", pool, p -> p.getStatistics().totalConnections())
+                .description("Connections held by the pool")
+                .baseUnit(BaseUnits.CONNECTIONS)
+                .register(registry);
+        Gauge.builder("mill.jdbc.pool.pending", pool, p -> p.getStatistics().threadsAwaitingConnection())
+                .description("Callers blocked waiting for a connection")
+                .baseUnit(BaseUnits.THREADS)
+                .register(registry);
+        FunctionCounter.builder("mill.jdbc.pool.borrow.timeouts", pool, p -> p.getStatistics().borrowTimeouts())
+                .description("Borrow attempts that failed because the pool was exhausted")
+                .register(registry);
+        FunctionTimer.builder("mill.jdbc.pool.wait", pool,
+                        p -> p.getStatistics().borrowCount(),
+                        p -> p.getStatistics().totalWait().toNanos(),
+                        TimeUnit.NANOSECONDS)
+                .description("Time callers spent waiting for a connection")
+                .register(registry);
+        TimeGauge.builder("mill.jdbc.pool.wait.max", pool, TimeUnit.NANOSECONDS,
+                        p -> p.getStatistics().maxWait().toNanos())
+                .description("Longest single wait for a connection")
+                .register(registry);
+    }
+}
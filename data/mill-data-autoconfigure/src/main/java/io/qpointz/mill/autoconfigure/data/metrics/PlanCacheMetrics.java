@@ -0,0 +1,51 @@
+package io.qpointz.mill.autoconfigure.data.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.qpointz.mill.data.backend.dispatchers.PlanCache;
+
+import java.util.function.Function;
+
+/**
+ * Publishes {@link PlanCache#parsedStatistics()} and {@link PlanCache#rewrittenStatistics()} as meters:
+ * hit, miss and eviction counters and the entry gauge ({@code mill.sql.plan.cache.*}, tagged {@code tier}
+ * {@code parsed} or {@code rewritten}). Binds nothing when the plan cache is disabled.
+ */
+public class PlanCacheMetrics implements MeterBinder {
+
+    private final PlanCache planCache;
+
+    public PlanCacheMetrics(PlanCache planCache) {
+        this.planCache = planCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (planCache == PlanCache.disabled()) {
+            return;
+        }
+        bindTier(registry, "parsed", PlanCache::parsedStatistics);
+        bindTier(registry, "rewritten", PlanCache::rewrittenStatistics);
+    }
+
+    private void bindTier(MeterRegistry registry, String tier, Function<PlanCache, PlanCache.Statistics> statistics) {
+        FunctionCounter.builder("mill.sql.plan.cache.hits", planCache, c -> statistics.apply(c).hits())
+                .description("Plan lookups served from the cache")
+                .tag("tier", tier)
+                .register(registry);
+        FunctionCounter.builder("mill.sql.plan.cache.misses", planCache, c -> statistics.apply(c).misses())
+                .description("Plan lookups that had to plan the statement")
+                .tag("tier", tier)
+                .register(registry);
+        FunctionCounter.builder("mill.sql.plan.cache.evictions", planCache, c -> statistics.apply(c).evictions())
+                .description("Plans evicted by size or expiry")
+                .tag("tier", tier)
+                .register(registry);
+        Gauge.builder("mill.sql.plan.cache.size", planCache, c -> statistics.apply(c).size())
+                .description("Plans held in the cache")
+                .tag("tier", tier)
+                .register(registry);
+    }
+}
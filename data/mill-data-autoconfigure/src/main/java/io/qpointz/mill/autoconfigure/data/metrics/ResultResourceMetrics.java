@@ -0,0 +1,53 @@
+package io.qpointz.mill.autoconfigure.data.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.qpointz.mill.data.backend.dispatchers.ResultResourceManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes {@link ResultResourceManager} usage as gauges: open cursors and retained bytes across all
+ * tenants ({@code mill.results.*}) and per tenant ({@code mill.results.tenant.*}, tagged {@code tenant}).
+ * Tenant gauges are registered the first time a tenant is admitted.
+ */
+public class ResultResourceMetrics implements MeterBinder {
+
+    private final ResultResourceManager manager;
+
+    private final Set<String> boundTenants = ConcurrentHashMap.newKeySet();
+
+    public ResultResourceMetrics(ResultResourceManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mill.results.open.cursors", manager, m -> m.usage().openCursors())
+                .description("Open paged-result cursors")
+                .register(registry);
+        Gauge.builder("mill.results.retained.bytes", manager, m -> m.usage().retainedBytes())
+                .description("Estimated bytes retained by paged results")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        manager.addAdmissionListener(tenant -> bindTenant(registry, tenant));
+    }
+
+    private void bindTenant(MeterRegistry registry, String tenant) {
+        if (!boundTenants.add(tenant)) {
+            return;
+        }
+        Gauge.builder("mill.results.tenant.open.cursors", manager, m -> m.usage(tenant).openCursors())
+                .description("Open paged-result cursors of one tenant")
+                .tag("tenant", tenant)
+                .register(registry);
+        Gauge.builder("mill.results.tenant.retained.bytes", manager, m -> m.usage(tenant).retainedBytes())
+                .description("Estimated bytes retained by paged results of one tenant")
+                .tag("tenant", tenant)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+}
@@ -2,6 +2,9 @@ package io.qpointz.mill.autoconfigure.data.query;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
 import java.time.Duration;
 
 /**
@@ -34,6 +37,11 @@ public class MillDataQueryProperties {
 
     private Duration sessionExpireAfterAccess = Duration.ofMinutes(30);
 
+    /**
+     * Spill of session results to local disk ({@code mill.data.query.spill.*}).
+     */
+    private Spill spill = new Spill();
+
     /**
      * @return whether the query-result engine beans are registered
      */
@@ -117,4 +125,125 @@ public class MillDataQueryProperties {
     public void setSessionExpireAfterAccess(Duration sessionExpireAfterAccess) {
         this.sessionExpireAfterAccess = sessionExpireAfterAccess;
     }
+
+    /**
+     * @return spill settings ({@code mill.data.query.spill.*})
+     */
+    public Spill getSpill() {
+        return spill;
+    }
+
+    /**
+     * @param spill spill settings
+     */
+    public void setSpill(Spill spill) {
+        this.spill = spill;
+    }
+
+    /**
+     * Bindings for {@code mill.data.query.spill.*}: sessions spool every block read to memory-mapped segment
+     * files and serve any page from there, so backward paging never re-executes SQL.
+     */
+    public static class Spill {
+
+        private boolean enabled = true;
+
+        /**
+         * Parent directory for segment files; each service writes to its own subdirectory, deleted on shutdown.
+         * Unset uses {@code java.io.tmpdir}.
+         */
+        private Path directory;
+
+        private DataSize maxDiskSize = DataSize.ofGigabytes(1);
+
+        private DataSize memoryBudget = DataSize.ofMegabytes(64);
+
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        private Duration admissionTimeout = Duration.ofSeconds(10);
+
+        /**
+         * @return whether session results are spilled to disk
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * @param enabled whether session results are spilled to disk
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * @return parent directory for segment files, or {@code null} for a temp directory
+         */
+        public Path getDirectory() {
+            return directory;
+        }
+
+        /**
+         * @param directory parent directory for segment files
+         */
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * @return cap on spilled bytes across all sessions; least recently used spools are dropped beyond it
+         */
+        public DataSize getMaxDiskSize() {
+            return maxDiskSize;
+        }
+
+        /**
+         * @param maxDiskSize cap on spilled bytes across all sessions
+         */
+        public void setMaxDiskSize(DataSize maxDiskSize) {
+            this.maxDiskSize = maxDiskSize;
+        }
+
+        /**
+         * @return heap budget for decoded blocks across all sessions
+         */
+        public DataSize getMemoryBudget() {
+            return memoryBudget;
+        }
+
+        /**
+         * @param memoryBudget heap budget for decoded blocks across all sessions
+         */
+        public void setMemoryBudget(DataSize memoryBudget) {
+            this.memoryBudget = memoryBudget;
+        }
+
+        /**
+         * @return target size of one segment file
+         */
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        /**
+         * @param segmentSize target size of one segment file
+         */
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        /**
+         * @return how long a scan waits for disk while every evictable spool is being paged
+         */
+        public Duration getAdmissionTimeout() {
+            return admissionTimeout;
+        }
+
+        /**
+         * @param admissionTimeout how long a scan waits for disk while every evictable spool is being paged
+         */
+        public void setAdmissionTimeout(Duration admissionTimeout) {
+            this.admissionTimeout = admissionTimeout;
+        }
+    }
 }
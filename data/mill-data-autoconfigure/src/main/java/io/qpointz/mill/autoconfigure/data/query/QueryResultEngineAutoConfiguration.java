@@ -2,10 +2,13 @@ package io.qpointz.mill.autoconfigure.data.query;
 
 import io.qpointz.mill.autoconfigure.data.backend.BackendAutoConfiguration;
 import io.qpointz.mill.data.backend.dispatchers.DataOperationDispatcher;
+import io.qpointz.mill.data.backend.dispatchers.ResultResourceManager;
 import io.qpointz.mill.data.query.engine.DefaultQueryResultExecutionService;
 import io.qpointz.mill.data.query.engine.QueryResultEngineSettings;
 import io.qpointz.mill.data.query.engine.QueryResultExecutionService;
+import io.qpointz.mill.data.query.engine.QueryResultSpillSettings;
 import io.qpointz.mill.data.query.engine.marshal.ResultMarshallerRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -39,6 +42,7 @@ public class QueryResultEngineAutoConfiguration {
      * @param dispatcher data-plane dispatcher from {@code DefaultServiceConfiguration}
      * @param registry marshaller registry
      * @param props engine tuning from {@code mill.data.query.*}
+     * @param resources shared result caps from {@code DefaultServiceConfiguration}; unbounded when absent
      * @return default query-result session engine
      */
     @Bean
@@ -46,13 +50,28 @@ public class QueryResultEngineAutoConfiguration {
     public QueryResultExecutionService queryResultExecutionService(
             DataOperationDispatcher dispatcher,
             ResultMarshallerRegistry registry,
-            MillDataQueryProperties props) {
+            MillDataQueryProperties props,
+            ObjectProvider<ResultResourceManager> resources) {
         QueryResultEngineSettings settings = new QueryResultEngineSettings(
                 props.getMaxMaterializedRows(),
                 props.getMaxCachedPages(),
                 props.getSessionExpireAfterAccess(),
                 props.getDefaultFetchSize(),
-                props.getMaxPageSize());
-        return new DefaultQueryResultExecutionService(dispatcher, registry, settings);
+                props.getMaxPageSize(),
+                spillSettings(props.getSpill()));
+        return new DefaultQueryResultExecutionService(dispatcher, registry, settings,
+                resources.getIfAvailable(ResultResourceManager::unbounded));
+    }
+
+    private static QueryResultSpillSettings spillSettings(MillDataQueryProperties.Spill spill) {
+        if (!spill.isEnabled()) {
+            return null;
+        }
+        return new QueryResultSpillSettings(
+                spill.getDirectory(),
+                spill.getMaxDiskSize().toBytes(),
+                spill.getMemoryBudget().toBytes(),
+                Math.toIntExact(spill.getSegmentSize().toBytes()),
+                spill.getAdmissionTimeout());
     }
 }
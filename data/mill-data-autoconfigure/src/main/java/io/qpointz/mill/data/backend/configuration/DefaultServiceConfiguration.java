@@ -6,6 +6,7 @@ import io.qpointz.mill.sql.v2.dialect.DialectRegistry;
 import io.qpointz.mill.security.SecurityProvider;
 import io.substrait.extension.SimpleExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
@@ -14,6 +15,7 @@ import java.util.List;
 import java.util.Locale;
 
 @Configuration
+@EnableConfigurationProperties(ResultResourceProperties.class)
 public class DefaultServiceConfiguration {
 
     @Bean
@@ -26,8 +28,20 @@ public class DefaultServiceConfiguration {
 
 
     @Bean
-    public ResultAllocator resultAllocator() {
-        return new ResultAllocatorImpl();
+    public ResultResourceManager resultResourceManager(ResultResourceProperties properties) {
+        return new ResultResourceManager(new ResultResourceManager.Limits(
+                properties.getMaxOpenCursors(),
+                properties.getMaxOpenCursorsPerTenant(),
+                properties.getMaxRetainedSize().toBytes(),
+                properties.getMaxRetainedSizePerTenant().toBytes(),
+                properties.getCursorWeight().toBytes(),
+                properties.getAdmissionTimeout()));
+    }
+
+    @Bean
+    public ResultAllocator resultAllocator(ResultResourceManager resultResourceManager,
+                                           SecurityDispatcher securityDispatcher) {
+        return new ResultAllocatorImpl(resultResourceManager, securityDispatcher::principalName);
     }
 
     @Bean
@@ -44,6 +58,7 @@ public class DefaultServiceConfiguration {
     public DataOperationDispatcher dataOperationDispatcher(@Autowired(required = false) SqlProvider sqlProvider,
                                                            @Autowired ExecutionProvider executionProvider,
                                                            @Autowired(required = false) PlanRewriteChain planRewriteChain,
+                                                           @Autowired(required = false) PlanCache planCache,
                                                            @Autowired Environment environment,
                                                            SchemaProvider schemaProvider,
                                                            SecurityDispatcher securityDispatcher,
@@ -52,7 +67,7 @@ public class DefaultServiceConfiguration {
         final String configuredDialect = configuredDefaultDialect(environment);
         return new DataOperationDispatcherImpl(schemaProvider, executionProvider, sqlProvider,
                 securityDispatcher, planRewriteChain, substraitDispatcher, resultAllocator,
-                DialectRegistry.fromClasspathDefaults(), configuredDialect);
+                DialectRegistry.fromClasspathDefaults(), configuredDialect, planCache);
     }
 
     @Bean
@@ -0,0 +1,48 @@
+package io.qpointz.mill.data.backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Caps on live paged-query results ({@code mill.data.results.*}), shared by gRPC/HTTP paging ids and
+ * query-result sessions. A zero value disables the cap.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mill.data.results")
+public class ResultResourceProperties {
+
+    /**
+     * Maximum open result cursors across all tenants.
+     */
+    private int maxOpenCursors = 256;
+
+    /**
+     * Maximum open result cursors of one tenant (principal).
+     */
+    private int maxOpenCursorsPerTenant = 32;
+
+    /**
+     * Maximum weighted bytes retained by results across all tenants.
+     */
+    private DataSize maxRetainedSize = DataSize.ofMegabytes(512);
+
+    /**
+     * Maximum weighted bytes retained by the results of one tenant.
+     */
+    private DataSize maxRetainedSizePerTenant = DataSize.ofMegabytes(128);
+
+    /**
+     * Bytes an open cursor weighs on top of its retained blocks (upstream fetch buffers, statement state).
+     */
+    private DataSize cursorWeight = DataSize.ofMegabytes(1);
+
+    /**
+     * How long a new query waits for capacity before it is rejected; zero rejects immediately.
+     */
+    private Duration admissionTimeout = Duration.ZERO;
+}
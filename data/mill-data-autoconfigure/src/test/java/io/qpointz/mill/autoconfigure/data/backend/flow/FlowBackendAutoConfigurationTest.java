@@ -14,6 +14,8 @@ import io.qpointz.mill.data.backend.dispatchers.SubstraitDispatcher;
 import io.qpointz.mill.data.backend.flow.FlowContextFactory;
 import io.qpointz.mill.data.backend.flow.FlowDescriptorMetadataSource;
 import io.qpointz.mill.data.backend.flow.SourceDefinitionRepository;
+import io.qpointz.mill.source.statistics.BlobStatisticMaintainer;
+import io.qpointz.mill.source.statistics.InMemoryBlobStatisticStore;
 import io.substrait.extension.ExtensionCollector;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -141,6 +143,27 @@ class FlowBackendAutoConfigurationTest extends BaseDataAutoconfigurationTest {
         });
     }
 
+    // -- BlobStatisticMaintainer bean --
+
+    @Test
+    void shouldProvideStatisticMaintainer_withInMemoryStoreByDefault() {
+        contextRunner().run(context -> {
+            assertThat(context).hasSingleBean(BlobStatisticMaintainer.class);
+            assertThat(context.getBean(BlobStatisticMaintainer.class).getStore())
+                    .isInstanceOf(InMemoryBlobStatisticStore.class);
+        });
+    }
+
+    @Test
+    void shouldNotProvideStatisticMaintainer_whenDisabled() {
+        contextRunner()
+                .withPropertyValues("mill.data.backend.flow.statistics.enabled:false")
+                .run(context -> {
+                    assertThat(context).doesNotHaveBean(BlobStatisticMaintainer.class);
+                    assertThat(context).hasSingleBean(CalciteContextFactory.class);
+                });
+    }
+
     // -- ExtensionCollector bean --
 
     @Test
@@ -0,0 +1,222 @@
+package io.qpointz.mill.autoconfigure.data.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qpointz.mill.data.backend.dispatchers.PlanCache;
+import io.qpointz.mill.data.backend.dispatchers.ResultResourceManager;
+import io.qpointz.mill.data.backend.flow.SourceDefinitionRepository;
+import io.qpointz.mill.data.backend.jdbc.providers.JdbcContextFactory;
+import io.qpointz.mill.data.backend.jdbc.providers.JdbcPoolStatistics;
+import io.qpointz.mill.data.backend.jdbc.providers.impl.PooledJdbcContextFactory;
+import io.qpointz.mill.source.ScanMetrics;
+import io.qpointz.mill.source.blob.BlobBlockCache;
+import io.qpointz.mill.source.blob.BlobRangeReader;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DataMetricsAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataMetricsAutoConfiguration.class));
+
+    @Test
+    void registersResultResourceMetricsForManager() {
+        contextRunner.withBean(ResultResourceManager.class, ResultResourceManager::unbounded)
+                .run(context -> assertThat(context).hasSingleBean(ResultResourceMetrics.class));
+    }
+
+    @Test
+    void skipsResultResourceMetricsWithoutManager() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(ResultResourceMetrics.class));
+    }
+
+    @Test
+    void gaugesTrackTotalAndTenantUsage() {
+        ResultResourceManager manager = ResultResourceManager.unbounded();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new ResultResourceMetrics(manager).bindTo(registry);
+
+        ResultResourceManager.Lease lease = manager.admit("alice");
+        lease.retain(42);
+
+        assertThat(registry.get("mill.results.open.cursors").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("mill.results.retained.bytes").gauge().value()).isEqualTo(42);
+        assertThat(registry.get("mill.results.tenant.retained.bytes").tag("tenant", "alice").gauge().value())
+                .isEqualTo(42);
+
+        lease.close();
+        assertThat(registry.get("mill.results.tenant.open.cursors").tag("tenant", "alice").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void registersJdbcPoolMetricsForContextFactory() {
+        contextRunner.withBean(JdbcContextFactory.class, () -> mock(JdbcContextFactory.class))
+                .run(context -> assertThat(context).hasSingleBean(JdbcPoolMetrics.class));
+    }
+
+    @Test
+    void jdbcPoolMetricsBindNothingWithoutPool() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new JdbcPoolMetrics(mock(JdbcContextFactory.class)).bindTo(registry);
+
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    @Test
+    void jdbcPoolMetricsTrackPoolStatistics() {
+        PooledJdbcContextFactory pool = mock(PooledJdbcContextFactory.class);
+        when(pool.getStatistics()).thenReturn(new JdbcPoolStatistics(2, 3, 5, 1, 10, 4,
+                Duration.ofMillis(500), Duration.ofMillis(200)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new JdbcPoolMetrics(pool).bindTo(registry);
+
+        assertThat(registry.get("mill.jdbc.pool.connections.active").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("mill.jdbc.pool.connections.idle").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("mill.jdbc.pool.connections.total").gauge().value()).isEqualTo(5);
+        assertThat(registry.get("mill.jdbc.pool.pending").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("mill.jdbc.pool.borrow.timeouts").functionCounter().count()).isEqualTo(4);
+        assertThat(registry.get("mill.jdbc.pool.wait").functionTimer().count()).isEqualTo(10);
+        assertThat(registry.get("mill.jdbc.pool.wait").functionTimer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(500);
+        assertThat(registry.get("mill.jdbc.pool.wait.max").timeGauge().value(TimeUnit.MILLISECONDS))
+                .isEqualTo(200);
+    }
+
+    @Test
+    void registersPlanCacheMetricsForPlanCache() {
+        contextRunner.withBean(PlanCache.class, PlanCache::disabled)
+                .run(context -> assertThat(context).hasSingleBean(PlanCacheMetrics.class));
+    }
+
+    @Test
+    void planCacheMetricsBindNothingWhenDisabled() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new PlanCacheMetrics(PlanCache.disabled()).bindTo(registry);
+
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    @Test
+    void planCacheMetricsTrackBothTiers() {
+        PlanCache planCache = mock(PlanCache.class);
+        when(planCache.parsedStatistics()).thenReturn(new PlanCache.Statistics(7, 3, 1, 5));
+        when(planCache.rewrittenStatistics()).thenReturn(new PlanCache.Statistics(2, 4, 0, 3));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new PlanCacheMetrics(planCache).bindTo(registry);
+
+        assertThat(registry.get("mill.sql.plan.cache.hits").tag("tier", "parsed").functionCounter().count())
+                .isEqualTo(7);
+        assertThat(registry.get("mill.sql.plan.cache.misses").tag("tier", "parsed").functionCounter().count())
+                .isEqualTo(3);
+        assertThat(registry.get("mill.sql.plan.cache.evictions").tag("tier", "parsed").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("mill.sql.plan.cache.size").tag("tier", "rewritten").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("mill.sql.plan.cache.hits").tag("tier", "rewritten").functionCounter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void registersFlowScanMetricsForFlowBackend() {
+        contextRunner.withBean(SourceDefinitionRepository.class, () -> mock(SourceDefinitionRepository.class))
+                .run(context -> assertThat(context)
+                        .hasSingleBean(FlowScanMetrics.class)
+                        .hasSingleBean(FlowBlobCacheMetrics.class));
+    }
+
+    @Test
+    void skipsFlowMetricsWithoutFlowBackend() {
+        contextRunner.run(context -> assertThat(context)
+                .doesNotHaveBean(FlowScanMetrics.class)
+                .doesNotHaveBean(FlowBlobCacheMetrics.class));
+    }
+
+    @Test
+    void flowScanMetricsTrackFinishedScans() {
+        ScanMetrics totals = new ScanMetrics();
+        ScanMetrics scan = new ScanMetrics();
+        scan.sourceOpened();
+        scan.sourcePruned();
+        scan.sourcePruned();
+        scan.rowGroups(5, 3, 1024);
+        scan.rowsSkipped(10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new FlowScanMetrics(totals).bindTo(registry);
+
+        totals.add(scan.snapshot());
+        totals.add(scan.snapshot());
+
+        assertThat(registry.get("mill.flow.scan.sources").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("mill.flow.scan.sources.pruned").functionCounter().count()).isEqualTo(4);
+        assertThat(registry.get("mill.flow.scan.row.groups").functionCounter().count()).isEqualTo(10);
+        assertThat(registry.get("mill.flow.scan.row.groups.skipped").functionCounter().count()).isEqualTo(6);
+        assertThat(registry.get("mill.flow.scan.bytes.skipped").functionCounter().count()).isEqualTo(2048);
+        assertThat(registry.get("mill.flow.scan.rows.skipped").functionCounter().count()).isEqualTo(20);
+    }
+
+    @Test
+    void flowBlobCacheMetricsTrackHitRatioAndFetchedBytes() throws Exception {
+        try (BlobBlockCache cache = new BlobBlockCache(100, 10_000, 0, 100)) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            new FlowBlobCacheMetrics(cache.getMetrics()).bindTo(registry);
+
+            readFirstBytes(cache);
+            readFirstBytes(cache);
+
+            assertThat(registry.get("mill.blob.cache.hits").functionCounter().count()).isEqualTo(1);
+            assertThat(registry.get("mill.blob.cache.misses").functionCounter().count()).isEqualTo(1);
+            assertThat(registry.get("mill.blob.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+            assertThat(registry.get("mill.blob.cache.requests").functionCounter().count()).isEqualTo(1);
+            assertThat(registry.get("mill.blob.cache.fetched").functionCounter().count()).isEqualTo(100);
+        }
+    }
+
+    private static void readFirstBytes(BlobBlockCache cache) throws Exception {
+        try (SeekableByteChannel channel = cache.open(new InMemoryRangeReader(new byte[500]))) {
+            channel.read(ByteBuffer.allocate(10));
+        }
+    }
+
+    private static final class InMemoryRangeReader implements BlobRangeReader {
+
+        private final byte[] data;
+
+        private InMemoryRangeReader(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public String getKey() {
+            return "mem://blob";
+        }
+
+        @Override
+        public String getVersion() {
+            return "etag-1";
+        }
+
+        @Override
+        public long size() {
+            return data.length;
+        }
+
+        @Override
+        public byte[] read(long offset, int length) {
+            return Arrays.copyOfRange(data, (int) offset, (int) offset + length);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -18,6 +18,19 @@ public final class PlanRewriteChain {
     @Getter
     private final List<PlanRewriter> rewriters;
 
+    /**
+     * @return combined {@link PlanRewriter#version()} of all rewriters
+     */
+    public long version() {
+        long version = 0L;
+        if (this.rewriters != null) {
+            for (val rewriter : this.rewriters) {
+                version = 31 * version + rewriter.version();
+            }
+        }
+        return version;
+    }
+
     public Plan rewrite(Plan plan, PlanRewriteContext rewriteContext) {
         if (this.getRewriters()==null || this.getRewriters().isEmpty()) {
             return plan;
@@ -4,4 +4,14 @@ import io.substrait.plan.Plan;
 
 public interface PlanRewriter {
     Plan rewritePlan(Plan plan, PlanRewriteContext context);
+
+    /**
+     * Version of the inputs the rewrite depends on besides the plan and the principal, such as
+     * the policy repository content. Cached rewritten plans are keyed by it.
+     *
+     * @return current version; constant for rewriters without such inputs
+     */
+    default long version() {
+        return 0L;
+    }
 }
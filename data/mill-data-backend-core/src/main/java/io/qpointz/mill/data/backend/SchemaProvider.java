@@ -13,6 +13,17 @@ public interface SchemaProvider {
 
     boolean isSchemaExists(String schemaName);
 
+    /**
+     * Version of the catalog content. Providers whose schemas can change at runtime should return a
+     * new value after each change so derived caches (for example
+     * {@link io.qpointz.mill.data.backend.dispatchers.PlanCache}) drop stale entries.
+     *
+     * @return catalog version; constant for providers with static catalogs
+     */
+    default long getSchemaVersion() {
+        return 0L;
+    }
+
     /**
      * Resolves a single physical table in {@code schemaName} without forcing callers to enumerate
      * unrelated tables. Implementations that can resolve one Calcite/JDBC table cheaply should override
@@ -10,6 +10,7 @@ import io.substrait.plan.Plan;
 import lombok.val;
 
 import java.io.IOException;
+import java.util.List;
 
 public class DataOperationDispatcherImpl implements DataOperationDispatcher {
     private static final String DIALECT_SCHEMA_VERSION = "v1";
@@ -30,6 +31,7 @@ public class DataOperationDispatcherImpl implements DataOperationDispatcher {
     private final ResultAllocator resultAllocator;
     private final DialectRegistry dialectRegistry;
     private final String defaultDialectId;
+    private final PlanCache planCache;
 
     public DataOperationDispatcherImpl(SchemaProvider schemaProvider,
                                        ExecutionProvider executionProvider,
@@ -58,6 +60,28 @@ public class DataOperationDispatcherImpl implements DataOperationDispatcher {
                                        ResultAllocator resultAllocator,
                                        DialectRegistry dialectRegistry,
                                        String defaultDialectId) {
+        this(schemaProvider,
+                executionProvider,
+                sqlProvider,
+                securityDispatcher,
+                planRewriteChain,
+                substrait,
+                resultAllocator,
+                dialectRegistry,
+                defaultDialectId,
+                PlanCache.disabled());
+    }
+
+    public DataOperationDispatcherImpl(SchemaProvider schemaProvider,
+                                       ExecutionProvider executionProvider,
+                                       SqlProvider sqlProvider,
+                                       SecurityDispatcher securityDispatcher,
+                                       PlanRewriteChain planRewriteChain,
+                                       SubstraitDispatcher substrait,
+                                       ResultAllocator resultAllocator,
+                                       DialectRegistry dialectRegistry,
+                                       String defaultDialectId,
+                                       PlanCache planCache) {
         this.schemaProvider = schemaProvider;
         this.executionProvider = executionProvider;
         this.sqlProvider = sqlProvider;
@@ -67,6 +91,9 @@ public class DataOperationDispatcherImpl implements DataOperationDispatcher {
         this.resultAllocator = resultAllocator;
         this.dialectRegistry = dialectRegistry;
         this.defaultDialectId = defaultDialectId;
+        this.planCache = planCache == null
+                ? PlanCache.disabled()
+                : planCache;
 
         if (this.dialectRegistry == null || this.dialectRegistry.size() == 0) {
             throw new IllegalStateException("Dialect registry is empty. Expected at least one configured dialect.");
@@ -164,12 +191,18 @@ public class DataOperationDispatcherImpl implements DataOperationDispatcher {
     }
 
     public SqlProvider.PlanParseResult parseSqlResult(ParseSqlRequest parseSqlRequest) {
+        return this.parseSqlResult(parseSqlRequest, this.schemaProvider.getSchemaVersion());
+    }
+
+    private SqlProvider.PlanParseResult parseSqlResult(ParseSqlRequest parseSqlRequest, long schemaVersion) {
         if (!this.supportsSql()) {
             return SqlProvider.PlanParseResult.fail(Status.UNIMPLEMENTED
                     .augmentDescription("SQL not supported")
                     .asRuntimeException());
         }
-        val parseResult = this.sqlProvider.parseSql(parseSqlRequest.getStatement().getSql());
+        val sql = parseSqlRequest.getStatement().getSql();
+        val parseResult = this.planCache.parsed(this.planCacheKey(sql, schemaVersion),
+                () -> this.sqlProvider.parseSql(sql));
         if (parseResult.isSuccess()) {
             return parseResult;
         }
@@ -183,13 +216,25 @@ public class DataOperationDispatcherImpl implements DataOperationDispatcher {
 
     @Override
     public QueryResultResponse submitQuery(QueryRequest queryRequest) {
-        val iterator = this.execute(queryRequest);
-        val allocationResult = this.resultAllocator.allocate(iterator);
+        // admit first so a submission beyond the result caps never opens an upstream cursor
+        val lease = this.resultAllocator.admit();
+        final VectorBlockIterator iterator;
+        try {
+            iterator = this.execute(queryRequest);
+        } catch (RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+        val allocationResult = this.resultAllocator.allocate(lease, iterator);
         return fetchResult(QueryResultRequest.newBuilder()
                 .setPagingId(allocationResult.pagingId())
                 .build());
     }
 
+    private PlanCache.Key planCacheKey(String sql, long schemaVersion) {
+        return new PlanCache.Key(PlanCache.normalizeSql(sql), this.defaultDialectId, schemaVersion, List.of());
+    }
+
     @Override
     public VectorBlockIterator execute(QueryRequest request) {
         Plan plan;
@@ -198,11 +243,18 @@ public class DataOperationDispatcherImpl implements DataOperationDispatcher {
                     .setStatement(request.getStatement())
                     .build();
 
-            val parseResult = this.parseSqlResult(parseQueryRequest);
+            // read once so both tiers are keyed by the same catalog version
+            val schemaVersion = this.schemaProvider.getSchemaVersion();
+            val parseResult = this.parseSqlResult(parseQueryRequest, schemaVersion);
             if (!parseResult.isSuccess()) {
                 throw parseResult.getException();
             }
-            plan = parseResult.getPlan();
+            val rewriteKey = this.planCacheKey(request.getStatement().getSql(), schemaVersion)
+                    .forPrincipal(this.securityDispatcher.principalName(), this.securityDispatcher.authorities(),
+                            this.hasPlanRewritesChain() ? this.planRewriteChain.version() : 0L);
+            val rewrittenPlan = this.planCache.rewritten(rewriteKey,
+                    () -> this.rewritePlan(parseResult.getPlan()));
+            return this.executionProvider.execute(rewrittenPlan, request.getConfig());
         } else {
             try {
                 plan = this.substraitDispatcher.protoToPlan(request.getPlan());
@@ -236,6 +288,13 @@ public class DataOperationDispatcherImpl implements DataOperationDispatcher {
         return this.planRewriteChain.rewrite(originalPlan, rewriteContext);
     }
 
+    /**
+     * Plan cache used for SQL statements.
+     */
+    public PlanCache getPlanCache() {
+        return this.planCache;
+    }
+
     public QueryResultResponse fetchResult(QueryResultRequest request) {
         val key = request.getPagingId();
         val fetchResult = this.resultAllocator.nextBlock(key);
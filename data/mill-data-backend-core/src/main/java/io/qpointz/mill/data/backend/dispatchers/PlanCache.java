@@ -0,0 +1,193 @@
+package io.qpointz.mill.data.backend.dispatchers;
+
+import io.qpointz.mill.data.backend.SqlProvider;
+import io.substrait.plan.Plan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Caches SQL-to-Substrait planning results for {@link DataOperationDispatcherImpl}.
+ *
+ * <p>Two tiers are kept: parsed (validated) plans keyed by normalized SQL and dialect, and
+ * optionally plans after {@link io.qpointz.mill.data.backend.PlanRewriteChain} keyed additionally
+ * by the principal inputs and the {@link io.qpointz.mill.data.backend.PlanRewriteChain#version()
+ * policy version} the rewriters depend on. Both tiers are invalidated when the
+ * {@link io.qpointz.mill.data.backend.SchemaProvider#getSchemaVersion() schema version} changes.</p>
+ */
+public interface PlanCache {
+
+    /**
+     * Cache key.
+     *
+     * @param sql           normalized SQL text, see {@link PlanCache#normalizeSql(String)}
+     * @param dialectId     dialect the statement is parsed with
+     * @param schemaVersion schema version observed when the key was built
+     * @param principal     principal-relevant rewrite inputs; empty for the parsed tier
+     * @param policyVersion version of the rewrite inputs (policies); {@code 0} for the parsed tier
+     */
+    record Key(String sql, String dialectId, long schemaVersion, List<String> principal, long policyVersion) {
+
+        public Key(String sql, String dialectId, long schemaVersion, List<String> principal) {
+            this(sql, dialectId, schemaVersion, principal, 0L);
+        }
+
+        /**
+         * @return rewritten-tier key for the principal, keeping this key's policy version
+         */
+        public Key forPrincipal(String principalName, Iterable<String> authorities) {
+            return forPrincipal(principalName, authorities, policyVersion);
+        }
+
+        /**
+         * @param policyVersion {@link io.qpointz.mill.data.backend.PlanRewriteChain#version()} at rewrite time
+         * @return rewritten-tier key for the principal and policy version
+         */
+        public Key forPrincipal(String principalName, Iterable<String> authorities, long policyVersion) {
+            final var inputs = new ArrayList<String>();
+            inputs.add(principalName == null ? "" : principalName);
+            final var sorted = new TreeSet<String>();
+            if (authorities != null) {
+                authorities.forEach(sorted::add);
+            }
+            inputs.addAll(sorted);
+            return new Key(sql, dialectId, schemaVersion, List.copyOf(inputs), policyVersion);
+        }
+
+    }
+
+    record Statistics(long hits, long misses, long evictions, long size) {
+
+        public double hitRatio() {
+            final long requests = hits + misses;
+            return requests == 0 ? 0d : (double) hits / requests;
+        }
+
+    }
+
+    /**
+     * Returns cached parse result for {@code key} or computes it with {@code loader}.
+     * Failed parse results are returned but never cached.
+     */
+    SqlProvider.PlanParseResult parsed(Key key, Supplier<SqlProvider.PlanParseResult> loader);
+
+    /**
+     * Returns cached rewritten plan for {@code key} or computes it with {@code loader}.
+     * Implementations that do not cache rewritten plans always call {@code loader}.
+     */
+    Plan rewritten(Key key, Supplier<Plan> loader);
+
+    /**
+     * Drops all cached plans, e.g. after policy or schema changes.
+     */
+    void invalidateAll();
+
+    Statistics parsedStatistics();
+
+    Statistics rewrittenStatistics();
+
+    /**
+     * Normalizes SQL text for use as a cache key: trims, drops trailing semicolons and collapses
+     * whitespace runs outside of string literals and quoted identifiers into a single space.
+     * {@code --} line comments are dropped up to their terminating newline (which still separates
+     * tokens), so collapsing cannot pull following text into the comment; block comments are kept
+     * verbatim since they may carry hints. Letter case is preserved because identifier case can be
+     * significant.
+     */
+    static String normalizeSql(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        final var sb = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            if (quote != 0) {
+                sb.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            final char next = i + 1 < sql.length() ? sql.charAt(i + 1) : 0;
+            if (c == '-' && next == '-') {
+                while (i + 1 < sql.length() && sql.charAt(i + 1) != '\n' && sql.charAt(i + 1) != '\r') {
+                    i++;
+                }
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '/' && next == '*') {
+                final int close = sql.indexOf("*/", i + 2);
+                final int end = close < 0 ? sql.length() : close + 2;
+                sb.append(sql, i, end);
+                i = end - 1;
+                continue;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            }
+            sb.append(c);
+        }
+        int end = sb.length();
+        while (end > 0 && (sb.charAt(end - 1) == ';' || sb.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+
+    /**
+     * Cache which never retains anything.
+     */
+    static PlanCache disabled() {
+        return DisabledPlanCache.INSTANCE;
+    }
+
+    final class DisabledPlanCache implements PlanCache {
+
+        private static final DisabledPlanCache INSTANCE = new DisabledPlanCache();
+
+        private static final Statistics EMPTY = new Statistics(0, 0, 0, 0);
+
+        private DisabledPlanCache() {
+        }
+
+        @Override
+        public SqlProvider.PlanParseResult parsed(Key key, Supplier<SqlProvider.PlanParseResult> loader) {
+            return loader.get();
+        }
+
+        @Override
+        public Plan rewritten(Key key, Supplier<Plan> loader) {
+            return loader.get();
+        }
+
+        @Override
+        public void invalidateAll() {
+            //nothing cached
+        }
+
+        @Override
+        public Statistics parsedStatistics() {
+            return EMPTY;
+        }
+
+        @Override
+        public Statistics rewrittenStatistics() {
+            return EMPTY;
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package io.qpointz.mill.data.backend.dispatchers;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.qpointz.mill.data.backend.SqlProvider;
+import io.substrait.plan.Plan;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, LRU {@link PlanCache}. Substrait {@link Plan} instances are immutable and are shared
+ * between concurrent queries.
+ */
+@Slf4j
+public class PlanCacheImpl implements PlanCache {
+
+    private final Cache<Key, SqlProvider.PlanParseResult> parsedPlans;
+
+    private final Cache<Key, Plan> rewrittenPlans;
+
+    @Getter
+    private final boolean cacheRewritten;
+
+    private final AtomicLong schemaVersion = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param maximumSize    maximum number of entries per tier
+     * @param ttl            optional expiry after write; {@code null} keeps entries until evicted
+     * @param cacheRewritten whether plans after the rewrite chain are cached as well. Enable only
+     *                       when rewriters depend on nothing but the principal, authorities and
+     *                       their {@link io.qpointz.mill.data.backend.PlanRewriter#version() version}
+     *                       (other input changes must call {@link #invalidateAll()})
+     */
+    public PlanCacheImpl(long maximumSize, Duration ttl, boolean cacheRewritten) {
+        this.parsedPlans = createCache(maximumSize, ttl);
+        this.rewrittenPlans = createCache(maximumSize, ttl);
+        this.cacheRewritten = cacheRewritten;
+    }
+
+    private static <V> Cache<Key, V> createCache(long maximumSize, Duration ttl) {
+        val builder = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
+            builder.expireAfterWrite(ttl);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public SqlProvider.PlanParseResult parsed(Key key, Supplier<SqlProvider.PlanParseResult> loader) {
+        checkSchemaVersion(key);
+        val cached = this.parsedPlans.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        val result = loader.get();
+        if (result.isSuccess()) {
+            this.parsedPlans.put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public Plan rewritten(Key key, Supplier<Plan> loader) {
+        if (!this.cacheRewritten) {
+            return loader.get();
+        }
+        checkSchemaVersion(key);
+        try {
+            return this.rewrittenPlans.get(key, loader::get);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Plan rewrite failed", e.getCause());
+        }
+    }
+
+    private void checkSchemaVersion(Key key) {
+        val observed = this.schemaVersion.getAndSet(key.schemaVersion());
+        if (observed != Long.MIN_VALUE && observed != key.schemaVersion()) {
+            log.info("Schema version changed ({} -> {}). Invalidating plan cache", observed, key.schemaVersion());
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        this.parsedPlans.invalidateAll();
+        this.rewrittenPlans.invalidateAll();
+    }
+
+    @Override
+    public Statistics parsedStatistics() {
+        return toStatistics(this.parsedPlans);
+    }
+
+    @Override
+    public Statistics rewrittenStatistics() {
+        return toStatistics(this.rewrittenPlans);
+    }
+
+    private static Statistics toStatistics(Cache<Key, ?> cache) {
+        final CacheStats stats = cache.stats();
+        return new Statistics(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.size());
+    }
+}
@@ -10,6 +10,23 @@ public interface ResultAllocator {
     record FetchResult(String requestPagingId, String nextPagingId, boolean exists, VectorBlock block) {}
 
 
+    /**
+     * Admits a result of the calling tenant before its query executes, so a rejected submission never
+     * opens an upstream cursor. The lease is returned in use and cannot be evicted until it is passed to
+     * {@link #allocate(ResultResourceManager.Lease, VectorBlockIterator)}; close it if the query fails.
+     *
+     * @throws io.grpc.StatusRuntimeException {@code RESOURCE_EXHAUSTED} when no capacity becomes available
+     */
+    ResultResourceManager.Lease admit();
+
+    /**
+     * Keeps {@code iterator} under a lease obtained from {@link #admit()}.
+     */
+    AllocationResult allocate(ResultResourceManager.Lease lease, VectorBlockIterator iterator);
+
+    /**
+     * Admits and keeps an iterator that is already open, closing it when the admission is rejected.
+     */
     AllocationResult allocate(VectorBlockIterator iterator);
 
     FetchResult nextBlock(String pagingId);
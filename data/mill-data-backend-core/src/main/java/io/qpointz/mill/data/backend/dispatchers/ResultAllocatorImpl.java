@@ -2,6 +2,8 @@ package io.qpointz.mill.data.backend.dispatchers;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import io.grpc.Status;
 import io.qpointz.mill.vectors.VectorBlockIterator;
 import lombok.Getter;
 import lombok.val;
@@ -9,20 +11,57 @@ import lombok.val;
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+/**
+ * Keeps the iterators of paged {@code SubmitQuery} results between {@code FetchQueryResult} calls.
+ *
+ * <p>Each iterator is held through a {@link ResultResourceManager.Lease}: its cursor and the size of the
+ * last block count against the manager caps, and it is closed as soon as it is exhausted, expires or is
+ * evicted by the manager. Fetching an evicted paging id fails with {@code ABORTED}; submissions beyond the
+ * caps fail with {@code RESOURCE_EXHAUSTED}. Callers that {@link #admit()} before executing the query are
+ * rejected before any upstream cursor is opened.
+ */
 public class ResultAllocatorImpl implements ResultAllocator {
 
+    @Getter
+    private final ResultResourceManager resources;
+
+    private final Supplier<String> tenant;
+
     @Getter(lazy = true)
-    private final Cache<String, VectorBlockIterator> submitCache = createCache();
+    private final Cache<String, ResultResourceManager.Lease> submitCache = createCache();
+
+    private final SecureRandom random = new SecureRandom();
+
+    public ResultAllocatorImpl() {
+        this(ResultResourceManager.unbounded(), () -> null);
+    }
+
+    /**
+     * @param resources shared result resource manager
+     * @param tenant    supplies the tenant of the calling request, usually the principal name
+     */
+    public ResultAllocatorImpl(ResultResourceManager resources, Supplier<String> tenant) {
+        this.resources = resources;
+        this.tenant = tenant;
+    }
 
-    private Cache<String, VectorBlockIterator> createCache() {
+    private Cache<String, ResultResourceManager.Lease> createCache() {
         return CacheBuilder.newBuilder()
                 .expireAfterAccess(10, TimeUnit.MINUTES)
+                .removalListener(this::onRemoval)
                 .build();
     }
 
+    private void onRemoval(RemovalNotification<String, ResultResourceManager.Lease> notification) {
+        // explicit removals hand the lease over to the next paging id
+        if (notification.wasEvicted() && notification.getValue() != null) {
+            notification.getValue().close();
+        }
+    }
+
     private String newKey() {
-        val random = new SecureRandom();
         val bytes = new byte[32];
         random.nextBytes(bytes);
         return new String(Base64.getEncoder().encode(bytes));
@@ -30,37 +69,102 @@ public class ResultAllocatorImpl implements ResultAllocator {
 
 
     @Override
-    public AllocationResult allocate(VectorBlockIterator iterator) {
+    public ResultResourceManager.Lease admit() {
+        final ResultResourceManager.Lease lease;
+        try {
+            lease = this.resources.admit(this.tenant.get());
+        } catch (ResultResourcesExhaustedException e) {
+            throw Status.RESOURCE_EXHAUSTED
+                    .augmentDescription(e.getMessage())
+                    .asRuntimeException();
+        }
+        // pinned until allocate, so the manager cannot evict it while the query executes
+        if (!lease.acquire()) {
+            throw Status.RESOURCE_EXHAUSTED
+                    .augmentDescription("Result was evicted before its query started to free resources")
+                    .asRuntimeException();
+        }
+        return lease;
+    }
+
+    @Override
+    public AllocationResult allocate(ResultResourceManager.Lease lease, VectorBlockIterator iterator) {
+        val cache = this.getSubmitCache();
+        cache.cleanUp();
+        lease.attach(iterator);
+        lease.release();
         val key = newKey();
-        this.getSubmitCache().put(key, iterator);
+        cache.put(key, lease);
         return new AllocationResult(key);
     }
 
+    @Override
+    public AllocationResult allocate(VectorBlockIterator iterator) {
+        final ResultResourceManager.Lease lease;
+        try {
+            lease = this.admit();
+        } catch (RuntimeException e) {
+            closeQuietly(iterator);
+            throw e;
+        }
+        return this.allocate(lease, iterator);
+    }
+
 
     @Override
     public FetchResult nextBlock(String pagingId) {
         val cache = this.getSubmitCache();
-        VectorBlockIterator iter;
+        ResultResourceManager.Lease lease;
         synchronized (cache) {
-            iter = cache.getIfPresent(pagingId);
-            if (iter == null) {
+            lease = cache.getIfPresent(pagingId);
+            if (lease == null) {
                 return new FetchResult(pagingId, null, false, null);
             }
             cache.invalidate(pagingId);
         }
 
-        if (!iter.hasNext()) {
+        if (!lease.acquire()) {
+            if (lease.isEvicted()) {
+                throw Status.ABORTED
+                        .augmentDescription("Result of paging id was evicted to free resources; resubmit the query")
+                        .asRuntimeException();
+            }
             return new FetchResult(pagingId, null, false, null);
         }
 
-        val nextKey = newKey();
-        val vector = iter.next();
+        try {
+            val iter = lease.getIterator();
+            if (iter == null || !iter.hasNext()) {
+                lease.close();
+                return new FetchResult(pagingId, null, false, null);
+            }
+
+            val nextKey = newKey();
+            val vector = iter.next();
+
+            if (vector.getVectorSize() == 0) {
+                lease.close();
+                return new FetchResult(pagingId, null, true, vector);
+            }
 
-        if (vector.getVectorSize() == 0) {
-            return new FetchResult(pagingId, null, true, vector);
+            lease.retain(vector.getSerializedSize());
+            cache.put(nextKey, lease);
+            return new FetchResult(pagingId, nextKey, true, vector);
+        } catch (RuntimeException e) {
+            lease.close();
+            throw e;
+        } finally {
+            lease.release();
         }
+    }
 
-        cache.put(nextKey, iter);
-        return new FetchResult(pagingId, nextKey, true, vector);
+    private static void closeQuietly(VectorBlockIterator iterator) {
+        if (iterator instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+                // rejected before any row was read
+            }
+        }
     }
 }
@@ -0,0 +1,414 @@
+package io.qpointz.mill.data.backend.dispatchers;
+
+import io.qpointz.mill.vectors.VectorBlockIterator;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Accounts the live result iterators of paged queries (open cursors and estimated retained bytes),
+ * globally and per tenant, so abandoned results cannot hold upstream cursors and heap until their
+ * time-based expiry.
+ *
+ * <p>Every cached iterator is held through a {@link Lease}. Each lease weighs
+ * {@link Limits#cursorWeightBytes()} plus its retained bytes; when a cap is exceeded, idle leases are
+ * evicted least recently used first and their iterators closed right away. A new lease that cannot be
+ * made to fit waits up to {@link Limits#admissionTimeout()} for capacity and is then rejected with
+ * {@link ResultResourcesExhaustedException}. Leases in use (see {@link Lease#acquire()}) are never evicted.
+ *
+ * <p>Shared by {@link ResultAllocatorImpl} and the query-result session engine.
+ */
+@Slf4j
+public class ResultResourceManager {
+
+    /**
+     * Caps enforced by the manager; {@code 0} disables a cap.
+     *
+     * @param maxOpenCursors            open iterators across all tenants
+     * @param maxOpenCursorsPerTenant   open iterators of one tenant
+     * @param maxRetainedBytes          weighted bytes across all tenants
+     * @param maxRetainedBytesPerTenant weighted bytes of one tenant
+     * @param cursorWeightBytes         bytes an open cursor counts for on top of its retained bytes
+     * @param admissionTimeout          how long a new lease waits for capacity before it is rejected
+     */
+    public record Limits(int maxOpenCursors,
+                         int maxOpenCursorsPerTenant,
+                         long maxRetainedBytes,
+                         long maxRetainedBytesPerTenant,
+                         long cursorWeightBytes,
+                         Duration admissionTimeout) {
+
+        /** No caps: leases only close iterators deterministically. */
+        public static final Limits UNBOUNDED = new Limits(0, 0, 0, 0, 0, Duration.ZERO);
+    }
+
+    /**
+     * Point-in-time usage, for gauges.
+     *
+     * @param openCursors   open iterators
+     * @param retainedBytes estimated bytes retained by the iterators, without cursor weight
+     */
+    public record Usage(int openCursors, long retainedBytes) {
+
+        private static final Usage NONE = new Usage(0, 0);
+    }
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final Limits limits;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    /** Open leases, least recently used first. */
+    private final LinkedHashSet<Lease> leases = new LinkedHashSet<>();
+
+    private final Map<String, Usage> tenants = new HashMap<>();
+
+    private Usage total = Usage.NONE;
+
+    private final List<Consumer<String>> admissionListeners = new CopyOnWriteArrayList<>();
+
+    public ResultResourceManager(Limits limits) {
+        this.limits = limits == null ? Limits.UNBOUNDED : limits;
+    }
+
+    /**
+     * @return manager without caps
+     */
+    public static ResultResourceManager unbounded() {
+        return new ResultResourceManager(Limits.UNBOUNDED);
+    }
+
+    public Limits getLimits() {
+        return this.limits;
+    }
+
+    /**
+     * @return usage across all tenants
+     */
+    public Usage usage() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param tenant tenant or principal name
+     * @return usage of one tenant
+     */
+    public Usage usage(String tenant) {
+        lock.lock();
+        try {
+            return tenants.getOrDefault(tenantKey(tenant), Usage.NONE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers a listener called with the tenant key of every admitted result (outside the manager lock),
+     * and right away with each tenant currently holding results; used to register per-tenant gauges.
+     *
+     * @param listener tenant key consumer
+     */
+    public void addAdmissionListener(Consumer<String> listener) {
+        admissionListeners.add(listener);
+        List<String> current;
+        lock.lock();
+        try {
+            current = List.copyOf(tenants.keySet());
+        } finally {
+            lock.unlock();
+        }
+        current.forEach(listener);
+    }
+
+    /**
+     * Admits a new result for {@code tenant}, evicting idle leases or waiting for capacity as needed.
+     * Admit before executing so rejected submissions never open an upstream cursor.
+     *
+     * @param tenant tenant or principal name; {@code null} counts as anonymous
+     * @return open lease without an iterator yet
+     * @throws ResultResourcesExhaustedException when no capacity becomes available in time
+     */
+    public Lease admit(String tenant) {
+        val key = tenantKey(tenant);
+        val evicted = new ArrayList<Lease>();
+        Lease lease = null;
+        lock.lock();
+        try {
+            long waitNanos = limits.admissionTimeout() == null ? 0 : limits.admissionTimeout().toNanos();
+            while (true) {
+                evictUntil(key, 1, 0, null, evicted);
+                if (fits(key, 1, 0)) {
+                    lease = new Lease(this, key);
+                    leases.add(lease);
+                    account(key, 1, 0);
+                    break;
+                }
+                if (waitNanos <= 0) {
+                    break;
+                }
+                waitNanos = released.awaitNanos(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+            closeAll(evicted);
+        }
+        if (lease == null) {
+            throw new ResultResourcesExhaustedException(String.format(
+                    "Result capacity exhausted for tenant '%s' (open cursors: %d, retained bytes: %d)",
+                    key, usage(key).openCursors(), usage(key).retainedBytes()));
+        }
+        for (val listener : admissionListeners) {
+            listener.accept(key);
+        }
+        return lease;
+    }
+
+    private void retain(Lease lease, long bytes) {
+        val evicted = new ArrayList<Lease>();
+        lock.lock();
+        try {
+            if (lease.closed) {
+                return;
+            }
+            val delta = bytes - lease.retainedBytes;
+            lease.retainedBytes = bytes;
+            account(lease.tenant, 0, delta);
+            if (delta > 0) {
+                evictUntil(lease.tenant, 0, 0, lease, evicted);
+            }
+        } finally {
+            lock.unlock();
+            closeAll(evicted);
+        }
+    }
+
+    private boolean acquire(Lease lease) {
+        lock.lock();
+        try {
+            if (lease.closed) {
+                return false;
+            }
+            lease.inUse++;
+            leases.remove(lease);
+            leases.add(lease);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseUse(Lease lease) {
+        lock.lock();
+        try {
+            lease.inUse = Math.max(0, lease.inUse - 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void close(Lease lease) {
+        lock.lock();
+        try {
+            if (lease.closed) {
+                return;
+            }
+            detach(lease, false);
+        } finally {
+            lock.unlock();
+        }
+        lease.closeIterator();
+    }
+
+    private void detach(Lease lease, boolean evicted) {
+        lease.closed = true;
+        lease.evicted = evicted;
+        leases.remove(lease);
+        account(lease.tenant, -1, -lease.retainedBytes);
+        released.signalAll();
+    }
+
+    /**
+     * Evicts idle leases (other than {@code keep}) until {@code cursors} more cursors and {@code bytes}
+     * more bytes fit; tenant caps evict the same tenant's leases first.
+     */
+    private void evictUntil(String tenant, int cursors, long bytes, Lease keep, List<Lease> evicted) {
+        while (!fits(tenant, cursors, bytes)) {
+            val tenantOver = !fitsTenant(tenant, cursors, bytes);
+            Lease victim = null;
+            for (val candidate : leases) {
+                if (candidate != keep && candidate.inUse == 0
+                        && (!tenantOver || candidate.tenant.equals(tenant))) {
+                    victim = candidate;
+                    break;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            log.debug("Evicting result of tenant '{}' ({} bytes) to admit tenant '{}'",
+                    victim.tenant, victim.retainedBytes, tenant);
+            detach(victim, true);
+            evicted.add(victim);
+        }
+    }
+
+    private boolean fits(String tenant, int cursors, long bytes) {
+        return fitsTenant(tenant, cursors, bytes)
+                && within(limits.maxOpenCursors(), total.openCursors() + cursors)
+                && within(limits.maxRetainedBytes(), weight(total, cursors, bytes));
+    }
+
+    private boolean fitsTenant(String tenant, int cursors, long bytes) {
+        val usage = tenants.getOrDefault(tenant, Usage.NONE);
+        return within(limits.maxOpenCursorsPerTenant(), usage.openCursors() + cursors)
+                && within(limits.maxRetainedBytesPerTenant(), weight(usage, cursors, bytes));
+    }
+
+    private long weight(Usage usage, int cursors, long bytes) {
+        return usage.retainedBytes() + bytes + (usage.openCursors() + (long) cursors) * limits.cursorWeightBytes();
+    }
+
+    private static boolean within(long cap, long value) {
+        return cap <= 0 || value <= cap;
+    }
+
+    private void account(String tenant, int cursors, long bytes) {
+        total = new Usage(total.openCursors() + cursors, total.retainedBytes() + bytes);
+        val usage = tenants.getOrDefault(tenant, Usage.NONE);
+        val updated = new Usage(usage.openCursors() + cursors, usage.retainedBytes() + bytes);
+        if (updated.openCursors() <= 0 && updated.retainedBytes() <= 0) {
+            tenants.remove(tenant);
+        } else {
+            tenants.put(tenant, updated);
+        }
+    }
+
+    private static void closeAll(List<Lease> evicted) {
+        for (val lease : evicted) {
+            lease.closeIterator();
+        }
+    }
+
+    private static String tenantKey(String tenant) {
+        return tenant == null || tenant.isBlank() ? ANONYMOUS : tenant;
+    }
+
+    /**
+     * One admitted result. Closing the lease closes its iterator when the iterator is
+     * {@link AutoCloseable}; the manager does so itself when it evicts the lease.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final ResultResourceManager manager;
+
+        private final String tenant;
+
+        private volatile VectorBlockIterator iterator;
+
+        private long retainedBytes;
+
+        private int inUse;
+
+        private volatile boolean closed;
+
+        private volatile boolean evicted;
+
+        private Lease(ResultResourceManager manager, String tenant) {
+            this.manager = manager;
+            this.tenant = tenant;
+        }
+
+        public String getTenant() {
+            return this.tenant;
+        }
+
+        /**
+         * @return attached iterator, or {@code null} once the lease is closed
+         */
+        public VectorBlockIterator getIterator() {
+            return this.iterator;
+        }
+
+        /**
+         * Binds the iterator closed with this lease; closes it immediately when the lease was evicted meanwhile.
+         */
+        public void attach(VectorBlockIterator iterator) {
+            this.iterator = iterator;
+            if (this.closed) {
+                closeIterator();
+            }
+        }
+
+        /**
+         * Updates the estimated bytes retained for this result, evicting other idle leases if a byte cap
+         * is exceeded.
+         */
+        public void retain(long bytes) {
+            manager.retain(this, Math.max(0, bytes));
+        }
+
+        /**
+         * Marks the lease in use (and most recently used) so it cannot be evicted until {@link #release()}.
+         *
+         * @return {@code false} when the lease is already closed or evicted
+         */
+        public boolean acquire() {
+            return manager.acquire(this);
+        }
+
+        /**
+         * Ends a use started by {@link #acquire()}.
+         */
+        public void release() {
+            manager.releaseUse(this);
+        }
+
+        public boolean isClosed() {
+            return this.closed;
+        }
+
+        /**
+         * @return {@code true} when the manager closed the lease to make room for others
+         */
+        public boolean isEvicted() {
+            return this.evicted;
+        }
+
+        @Override
+        public void close() {
+            manager.close(this);
+        }
+
+        private void closeIterator() {
+            val current = this.iterator;
+            this.iterator = null;
+            if (current instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close result iterator", e);
+                }
+            }
+        }
+    }
+}
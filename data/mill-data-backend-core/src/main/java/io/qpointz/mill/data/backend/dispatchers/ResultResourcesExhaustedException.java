@@ -0,0 +1,12 @@
+package io.qpointz.mill.data.backend.dispatchers;
+
+/**
+ * Thrown by {@link ResultResourceManager#admit(String)} when a new result cannot be admitted within the
+ * configured caps.
+ */
+public class ResultResourcesExhaustedException extends RuntimeException {
+
+    public ResultResourcesExhaustedException(String message) {
+        super(message);
+    }
+}
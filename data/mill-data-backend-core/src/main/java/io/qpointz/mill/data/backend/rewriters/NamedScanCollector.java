@@ -0,0 +1,34 @@
+package io.qpointz.mill.data.backend.rewriters;
+
+import io.qpointz.mill.MillException;
+import io.substrait.relation.NamedScan;
+import io.substrait.relation.Rel;
+import io.substrait.relation.RelCopyOnWriteVisitor;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Collects the qualified names of all {@link NamedScan}s of a relation tree without
+ * changing it.
+ */
+class NamedScanCollector extends RelCopyOnWriteVisitor<MillException> {
+
+    private final Set<List<String>> tables = new LinkedHashSet<>();
+
+    static Set<List<String>> collect(Iterable<Rel> inputs) throws MillException {
+        final var collector = new NamedScanCollector();
+        for (final var input : inputs) {
+            input.accept(collector);
+        }
+        return collector.tables;
+    }
+
+    @Override
+    public Optional<Rel> visit(NamedScan namedScan) throws MillException {
+        this.tables.add(namedScan.getNames());
+        return Optional.empty();
+    }
+}
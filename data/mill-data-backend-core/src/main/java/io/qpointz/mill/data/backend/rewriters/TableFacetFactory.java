@@ -1,5 +1,37 @@
 package io.qpointz.mill.data.backend.rewriters;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
 public interface TableFacetFactory {
     TableFacetsCollection facets();
+
+    /**
+     * Version of the policies facets are derived from, see {@link io.qpointz.mill.data.backend.PlanRewriter#version()}.
+     *
+     * @return current version; constant for factories with static policies
+     */
+    default long version() {
+        return 0L;
+    }
+
+    /**
+     * Facets of the given tables only. Factories that compute facets per table should
+     * override this so that a query does not pay for tables it does not reference.
+     *
+     * @param tables qualified table names referenced by a plan
+     * @return facets of those of {@code tables} that have one
+     */
+    default TableFacetsCollection facets(Collection<List<String>> tables) {
+        final var all = facets();
+        final var selected = new HashMap<List<String>, TableFacet>();
+        for (final var table : tables) {
+            final var facet = all.get(table);
+            if (facet != null) {
+                selected.put(table, facet);
+            }
+        }
+        return new TableFacetsCollection(selected);
+    }
 }
@@ -1,5 +1,9 @@
 package io.qpointz.mill.data.backend.rewriters;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.qpointz.mill.security.authorization.policy.PolicyEvaluationKey;
 import io.qpointz.mill.security.authorization.policy.PolicyEvaluator;
 import io.qpointz.mill.security.authorization.policy.actions.ExpressionFilterAction;
 import io.qpointz.mill.data.backend.SchemaProvider;
@@ -13,65 +17,145 @@ import io.substrait.type.TypeCreator;
 import lombok.val;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 import java.util.stream.StreamSupport;
 
 import static io.qpointz.mill.security.authorization.policy.ActionVerb.ALLOW;
 import static io.qpointz.mill.security.authorization.policy.ActionVerb.DENY;
 
+/**
+ * Builds row-level security facets from {@link ExpressionFilterAction} policies.
+ *
+ * <p>Facets are computed per table on demand and cached per
+ * {@link PolicyEvaluationKey} — repository version plus the policies selected for the
+ * current principal — and {@link SchemaProvider#getSchemaVersion() schema version}, so
+ * principals sharing a policy selection share facets. Parsed filter expressions are cached
+ * per action and schema version. Both caches are bounded, load each key at most once
+ * concurrently without blocking other keys, and are dropped when the repository or schema
+ * version changes. Facets of evaluators without a key are never cached.
+ */
 public class TableFacetFactoryImpl implements TableFacetFactory {
 
+    /** Default upper bound of cached facets (table × policy selection). */
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
     private final PolicyEvaluator policyEvaluator;
     private final SchemaProvider schemaProvider;
     private final SecurityDispatcher securityDispatcher;
     private final SqlProvider sqlProvider;
     private final SubstraitDispatcher substraitDispatcher;
 
+    private record FacetKey(PolicyEvaluationKey evaluation, long schemaVersion, List<String> table) {
+    }
+
+    private record ExpressionKey(ExpressionFilterAction action, long schemaVersion) {
+    }
+
+    private record Versions(long policyVersion, long schemaVersion) {
+    }
+
+    private final Cache<FacetKey, TableFacet> facetCache;
+    private final Cache<ExpressionKey, Expression> expressionCache;
+    private final AtomicReference<Versions> cachedVersions = new AtomicReference<>();
+
     public TableFacetFactoryImpl(PolicyEvaluator policyEvaluator,
                              SecurityDispatcher securityDispatcher,
                              SchemaProvider schemaProvider,
                              SqlProvider sqlProvider,
                              SubstraitDispatcher substraitDispatcher) {
+        this(policyEvaluator, securityDispatcher, schemaProvider, sqlProvider, substraitDispatcher, DEFAULT_CACHE_SIZE);
+    }
+
+    public TableFacetFactoryImpl(PolicyEvaluator policyEvaluator,
+                             SecurityDispatcher securityDispatcher,
+                             SchemaProvider schemaProvider,
+                             SqlProvider sqlProvider,
+                             SubstraitDispatcher substraitDispatcher,
+                             int cacheSize) {
         this.policyEvaluator = policyEvaluator;
         this.securityDispatcher = securityDispatcher;
         this.schemaProvider = schemaProvider;
         this.sqlProvider = sqlProvider;
         this.substraitDispatcher = substraitDispatcher;
+        this.facetCache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+        this.expressionCache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
 
+    /**
+     * @return policy repository version of the current evaluation, or {@code 0} without an evaluation key
+     */
+    @Override
+    public long version() {
+        return this.policyEvaluator.evaluationKey().map(PolicyEvaluationKey::version).orElse(0L);
     }
 
     public TableFacetsCollection facets() {
+        val tables = StreamSupport.stream(this.schemaProvider.getSchemaNames().spliterator(), false)
+                .flatMap(schemaName -> this.schemaProvider.getSchema(schemaName).getTablesList().stream()
+                        .map(z -> List.of(schemaName, z.getName())))
+                .toList();
+        return facets(tables);
+    }
+
+    @Override
+    public TableFacetsCollection facets(Collection<List<String>> tables) {
+        val evaluationKey = this.policyEvaluator.evaluationKey();
+        val schemaVersion = this.schemaProvider.getSchemaVersion();
+        invalidateOnVersionChange(new Versions(
+                evaluationKey.map(PolicyEvaluationKey::version).orElse(Long.MIN_VALUE), schemaVersion));
         val facets = new HashMap<List<String>, TableFacet>();
-        StreamSupport.stream(this.schemaProvider.getSchemaNames().spliterator(), false)
-                .map(k-> getFacets(k))
-                .forEach(facets::putAll);
+        for (val table : tables) {
+            val facet = evaluationKey.isPresent()
+                    ? load(this.facetCache, new FacetKey(evaluationKey.get(), schemaVersion, table),
+                            k -> getFacet(k.table(), schemaVersion))
+                    : getFacet(table, schemaVersion);
+            facets.put(table, facet);
+        }
         return new TableFacetsCollection(facets);
     }
 
-    private Map<List<String>, TableFacet> getFacets(String schemaName) {
-        return this.schemaProvider.getSchema(schemaName).getTablesList().stream()
-                .map(z-> List.of(schemaName, z.getName()))
-                .collect(Collectors.toMap(z -> z , o-> getFacet(o)));
+    private void invalidateOnVersionChange(Versions versions) {
+        val previous = this.cachedVersions.getAndSet(versions);
+        if (previous != null && !previous.equals(versions)) {
+            this.facetCache.invalidateAll();
+            this.expressionCache.invalidateAll();
+        }
+    }
+
+    private static <K, V> V load(Cache<K, V> cache, K key, Function<K, V> loader) {
+        try {
+            return cache.get(key, () -> loader.apply(key));
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Table facet computation failed", e.getCause());
+        }
     }
 
     static final TypeCreator R = TypeCreator.of(false);
     static final TypeCreator N = TypeCreator.of(true);
 
-    private TableFacet getFacet(List<String> subject) {
+    private TableFacet getFacet(List<String> subject, long schemaVersion) {
         Expression allowExpression = null;
         val allExpressions = new ArrayList<Expression>();
 
         val allowFilter = policyEvaluator.actionsBy(ExpressionFilterAction.class, ALLOW, subject);
         if (!allowFilter.isEmpty()) {
-            allowExpression = buildAllowExpression(allowFilter, SubstraitBuilder::or);
+            allowExpression = buildAllowExpression(allowFilter, schemaVersion, SubstraitBuilder::or);
             allExpressions.add(allowExpression);
         }
 
         val tableFacetBuilder = TableFacet.builder()
                 .attributeFacet(null);
 
-        val denyExpressions = buildExpressions(new ArrayList(policyEvaluator.actionsBy(ExpressionFilterAction.class, DENY, subject)));
+        val denyExpressions = buildExpressions(
+                new ArrayList(policyEvaluator.actionsBy(ExpressionFilterAction.class, DENY, subject)), schemaVersion);
         if (!denyExpressions.isEmpty()) {
             allExpressions.addAll(denyExpressions);
         }
@@ -97,27 +181,26 @@ public class TableFacetFactoryImpl implements TableFacetFactory {
                 .build();
     }
 
-    private Expression buildAllowExpression(Collection<ExpressionFilterAction> allowFilter, BiFunction<SubstraitBuilder, Expression[], Expression> combine) {
-        final var exps = buildExpressions(allowFilter);
+    private Expression buildAllowExpression(Collection<ExpressionFilterAction> allowFilter, long schemaVersion,
+                                            BiFunction<SubstraitBuilder, Expression[], Expression> combine) {
+        final var exps = buildExpressions(allowFilter, schemaVersion);
         val expsA = new Expression[] {};
         exps.toArray(expsA);
         return combine.apply(this.substraitDispatcher.newSubstraitBuilder(), expsA);
     }
 
-    private List<Expression> buildExpressions(Collection<ExpressionFilterAction> allowFilter) {
-        val parsed = allowFilter.stream()
-                .map(k-> this.sqlProvider.parseSqlExpression(k.getTableName(), k.getExpression()))
+    private List<Expression> buildExpressions(Collection<ExpressionFilterAction> allowFilter, long schemaVersion) {
+        return allowFilter.stream()
+                .map(k -> load(this.expressionCache, new ExpressionKey(k, schemaVersion), e -> parseExpression(e.action())))
                 .toList();
-        val anyException = parsed.stream()
-                .filter(k-> !k.isSuccess()).findAny();
+    }
 
-        if (anyException.isPresent()) {
-            throw new RuntimeException(anyException.get().exception());
+    private Expression parseExpression(ExpressionFilterAction action) {
+        val parsed = this.sqlProvider.parseSqlExpression(action.getTableName(), action.getExpression());
+        if (!parsed.isSuccess()) {
+            throw new RuntimeException(parsed.exception());
         }
-
-        return parsed.stream()
-                .map(SqlProvider.ExpressionParseResult::expression)
-                .toList();
+        return parsed.expression();
     }
 
 
@@ -1,5 +1,6 @@
 package io.qpointz.mill.data.backend.rewriters;
 
+import io.qpointz.mill.MillException;
 import io.qpointz.mill.data.backend.PlanRewriter;
 import io.qpointz.mill.data.backend.PlanRewriteContext;
 import io.qpointz.mill.data.backend.dispatchers.SubstraitDispatcher;
@@ -8,6 +9,9 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.val;
 
+import java.util.List;
+import java.util.Set;
+
 public class TableFacetPlanRewriter implements PlanRewriter {
 
     @Getter(AccessLevel.PROTECTED)
@@ -21,12 +25,23 @@ public class TableFacetPlanRewriter implements PlanRewriter {
         this.substraitDispatcher = substraitDispatcher;
     }
 
+    @Override
+    public long version() {
+        return this.facetsFactory.version();
+    }
+
     @Override
     public Plan rewritePlan(Plan plan, PlanRewriteContext context) {
         val planBuilder = io.substrait.plan.ImmutablePlan.builder();
         val roots = plan.getRoots();
+        final Set<List<String>> tables;
+        try {
+            tables = NamedScanCollector.collect(roots.stream().map(Plan.Root::getInput).toList());
+        } catch (MillException e) {
+            throw new RuntimeException(e);
+        }
         val facetVisitor = TableFacetVisitor.builder()
-                .facets(this.facetsFactory.facets())
+                .facets(this.facetsFactory.facets(tables))
                 .extensionCollection(this.substraitDispatcher.getExtensionCollection())
                 .build();
 
@@ -0,0 +1,136 @@
+package io.qpointz.mill.data.backend.dispatchers;
+
+import io.qpointz.mill.data.backend.SqlProvider;
+import io.substrait.plan.ImmutablePlan;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanCacheImplTest {
+
+    private static PlanCache.Key key(String sql, long schemaVersion) {
+        return new PlanCache.Key(PlanCache.normalizeSql(sql), "CALCITE", schemaVersion, List.of());
+    }
+
+    private static SqlProvider.PlanParseResult success() {
+        return SqlProvider.PlanParseResult.success(ImmutablePlan.builder().build());
+    }
+
+    @Test
+    void normalizesWhitespaceOutsideLiterals() {
+        assertEquals("SELECT * FROM `t` WHERE a = 'x  y'",
+                PlanCache.normalizeSql("  SELECT *\n\tFROM   `t`  WHERE a = 'x  y' ; "));
+        assertEquals("SELECT \"A  B\" FROM t",
+                PlanCache.normalizeSql("SELECT \"A  B\"   FROM t"));
+    }
+
+    @Test
+    void keepsLineCommentsFromSwallowingFollowingText() {
+        assertEquals("SELECT a , b FROM t", PlanCache.normalizeSql("SELECT a -- c\n, b FROM t"));
+        assertEquals("SELECT a", PlanCache.normalizeSql("SELECT a -- c , b FROM t"));
+        assertNotEquals(PlanCache.normalizeSql("SELECT a -- c\n, b FROM t"),
+                PlanCache.normalizeSql("SELECT a -- c , b FROM t"));
+        assertEquals("SELECT '--x' FROM t", PlanCache.normalizeSql("SELECT '--x'  FROM t"));
+        assertEquals("SELECT /*+ hint  a */ x FROM t", PlanCache.normalizeSql("SELECT /*+ hint  a */  x FROM t"));
+    }
+
+    @Test
+    void cachesSuccessfulParse() {
+        val cache = new PlanCacheImpl(10, null, false);
+        val calls = new AtomicInteger();
+
+        val first = cache.parsed(key("SELECT 1", 0), () -> { calls.incrementAndGet(); return success(); });
+        val second = cache.parsed(key(" SELECT   1 ", 0), () -> { calls.incrementAndGet(); return success(); });
+
+        assertEquals(1, calls.get());
+        assertSame(first, second);
+        assertEquals(1, cache.parsedStatistics().hits());
+        assertEquals(1, cache.parsedStatistics().misses());
+    }
+
+    @Test
+    void doesNotCacheFailedParse() {
+        val cache = new PlanCacheImpl(10, null, false);
+        val calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            val result = cache.parsed(key("SELEC 1", 0), () -> {
+                calls.incrementAndGet();
+                return SqlProvider.PlanParseResult.fail("syntax");
+            });
+            assertFalse(result.isSuccess());
+        }
+
+        assertEquals(3, calls.get());
+        assertEquals(0, cache.parsedStatistics().size());
+    }
+
+    @Test
+    void invalidatesOnSchemaVersionChange() {
+        val cache = new PlanCacheImpl(10, null, false);
+        cache.parsed(key("SELECT 1", 0), PlanCacheImplTest::success);
+        cache.parsed(key("SELECT 2", 0), PlanCacheImplTest::success);
+        assertEquals(2, cache.parsedStatistics().size());
+
+        cache.parsed(key("SELECT 1", 1), PlanCacheImplTest::success);
+
+        assertEquals(1, cache.parsedStatistics().size());
+    }
+
+    @Test
+    void evictsWhenBounded() {
+        val cache = new PlanCacheImpl(2, Duration.ofMinutes(1), false);
+        for (int i = 0; i < 10; i++) {
+            cache.parsed(key("SELECT " + i, 0), PlanCacheImplTest::success);
+        }
+
+        assertTrue(cache.parsedStatistics().size() <= 2);
+        assertTrue(cache.parsedStatistics().evictions() >= 8);
+    }
+
+    @Test
+    void rewrittenCachedPerPrincipal() {
+        val cache = new PlanCacheImpl(10, null, true);
+        val calls = new AtomicInteger();
+        val base = key("SELECT 1", 0);
+
+        cache.rewritten(base.forPrincipal("alice", List.of("b", "a")), () -> { calls.incrementAndGet(); return ImmutablePlan.builder().build(); });
+        cache.rewritten(base.forPrincipal("alice", List.of("a", "b")), () -> { calls.incrementAndGet(); return ImmutablePlan.builder().build(); });
+        cache.rewritten(base.forPrincipal("bob", List.of("a", "b")), () -> { calls.incrementAndGet(); return ImmutablePlan.builder().build(); });
+
+        assertEquals(2, calls.get());
+        assertEquals(1, cache.rewrittenStatistics().hits());
+    }
+
+    @Test
+    void rewrittenCachedPerPolicyVersion() {
+        val cache = new PlanCacheImpl(10, null, true);
+        val calls = new AtomicInteger();
+        val base = key("SELECT 1", 0);
+
+        cache.rewritten(base.forPrincipal("alice", List.of(), 1), () -> { calls.incrementAndGet(); return ImmutablePlan.builder().build(); });
+        cache.rewritten(base.forPrincipal("alice", List.of(), 2), () -> { calls.incrementAndGet(); return ImmutablePlan.builder().build(); });
+        cache.rewritten(base.forPrincipal("alice", List.of(), 2), () -> { calls.incrementAndGet(); return ImmutablePlan.builder().build(); });
+
+        assertEquals(2, calls.get());
+        assertEquals(1, cache.rewrittenStatistics().hits());
+    }
+
+    @Test
+    void rewrittenNotCachedUnlessEnabled() {
+        val cache = new PlanCacheImpl(10, null, false);
+        val calls = new AtomicInteger();
+        val principalKey = key("SELECT 1", 0).forPrincipal("alice", List.of());
+
+        cache.rewritten(principalKey, () -> { calls.incrementAndGet(); return ImmutablePlan.builder().build(); });
+        cache.rewritten(principalKey, () -> { calls.incrementAndGet(); return ImmutablePlan.builder().build(); });
+
+        assertEquals(2, calls.get());
+    }
+
+}
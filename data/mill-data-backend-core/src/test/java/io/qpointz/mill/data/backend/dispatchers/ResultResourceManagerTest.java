@@ -0,0 +1,171 @@
+package io.qpointz.mill.data.backend.dispatchers;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.qpointz.mill.proto.VectorBlock;
+import io.qpointz.mill.proto.VectorBlockSchema;
+import io.qpointz.mill.vectors.VectorBlockIterator;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultResourceManagerTest {
+
+    private static ResultResourceManager.Limits cursors(int global, int perTenant) {
+        return new ResultResourceManager.Limits(global, perTenant, 0, 0, 0, Duration.ZERO);
+    }
+
+    private static final class TrackedIterator implements VectorBlockIterator, AutoCloseable {
+
+        private final Iterator<VectorBlock> blocks;
+
+        private boolean closed;
+
+        private TrackedIterator(VectorBlock... blocks) {
+            this.blocks = List.of(blocks).iterator();
+        }
+
+        @Override
+        public VectorBlockSchema schema() {
+            return VectorBlockSchema.getDefaultInstance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return blocks.hasNext();
+        }
+
+        @Override
+        public VectorBlock next() {
+            return blocks.next();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static ResultResourceManager.Lease admit(ResultResourceManager manager, String tenant, TrackedIterator iterator) {
+        val lease = manager.admit(tenant);
+        lease.attach(iterator);
+        return lease;
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedIdleLeaseAndClosesItsIterator() {
+        val manager = new ResultResourceManager(cursors(2, 0));
+        val first = new TrackedIterator();
+        val second = new TrackedIterator();
+        val firstLease = admit(manager, "alice", first);
+        val secondLease = admit(manager, "alice", second);
+        assertTrue(firstLease.acquire());
+        firstLease.release();
+
+        admit(manager, "alice", new TrackedIterator());
+
+        assertTrue(secondLease.isEvicted());
+        assertTrue(second.closed);
+        assertFalse(firstLease.isClosed());
+        assertFalse(first.closed);
+        assertEquals(2, manager.usage().openCursors());
+    }
+
+    @Test
+    void rejectsWhenOnlyLeasesInUseRemain() {
+        val manager = new ResultResourceManager(cursors(1, 0));
+        val lease = admit(manager, "alice", new TrackedIterator());
+        assertTrue(lease.acquire());
+
+        assertThrows(ResultResourcesExhaustedException.class, () -> manager.admit("bob"));
+        assertFalse(lease.isClosed());
+    }
+
+    @Test
+    void tenantCapEvictsOnlyThatTenant() {
+        val manager = new ResultResourceManager(cursors(0, 1));
+        val alice = admit(manager, "alice", new TrackedIterator());
+        val bob = admit(manager, "bob", new TrackedIterator());
+
+        admit(manager, "alice", new TrackedIterator());
+
+        assertTrue(alice.isEvicted());
+        assertFalse(bob.isClosed());
+        assertEquals(1, manager.usage("alice").openCursors());
+        assertEquals(1, manager.usage("bob").openCursors());
+    }
+
+    @Test
+    void evictsByWeightedRetainedBytes() {
+        val manager = new ResultResourceManager(new ResultResourceManager.Limits(0, 0, 100, 0, 10, Duration.ZERO));
+        val first = admit(manager, "alice", new TrackedIterator());
+        first.retain(50);
+        val second = admit(manager, "alice", new TrackedIterator());
+
+        second.retain(50);
+
+        assertTrue(first.isEvicted());
+        assertEquals(new ResultResourceManager.Usage(1, 50), manager.usage());
+    }
+
+    @Test
+    void queuesAdmissionUntilCapacityIsReleased() throws InterruptedException {
+        val manager = new ResultResourceManager(new ResultResourceManager.Limits(1, 0, 0, 0, 0, Duration.ofSeconds(5)));
+        val busy = admit(manager, "alice", new TrackedIterator());
+        assertTrue(busy.acquire());
+        val closer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            busy.close();
+        });
+        closer.start();
+
+        val admitted = manager.admit("bob");
+
+        closer.join();
+        assertFalse(admitted.isClosed());
+        assertEquals(0, manager.usage("alice").openCursors());
+    }
+
+    @Test
+    void allocatorClosesExhaustedIteratorsAndFailsEvictedPagingIds() {
+        val manager = new ResultResourceManager(cursors(1, 0));
+        val allocator = new ResultAllocatorImpl(manager, () -> "alice");
+        val block = VectorBlock.newBuilder().setVectorSize(1).build();
+        val exhausted = new TrackedIterator(block);
+
+        val pagingId = allocator.allocate(exhausted).pagingId();
+        val fetched = allocator.nextBlock(pagingId);
+        assertTrue(fetched.exists());
+        assertFalse(allocator.nextBlock(fetched.nextPagingId()).exists());
+        assertTrue(exhausted.closed);
+        assertEquals(0, manager.usage().openCursors());
+
+        val evicted = allocator.allocate(new TrackedIterator(block)).pagingId();
+        allocator.allocate(new TrackedIterator(block));
+        val ex = assertThrows(StatusRuntimeException.class, () -> allocator.nextBlock(evicted));
+        assertEquals(Status.Code.ABORTED, ex.getStatus().getCode());
+    }
+
+    @Test
+    void allocatorPinsAdmittedResultsUntilTheirIteratorIsAllocated() {
+        val manager = new ResultResourceManager(cursors(1, 0));
+        val allocator = new ResultAllocatorImpl(manager, () -> "alice");
+        val block = VectorBlock.newBuilder().setVectorSize(1).build();
+
+        val executing = allocator.admit();
+        val ex = assertThrows(StatusRuntimeException.class, allocator::admit);
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, ex.getStatus().getCode());
+
+        val pagingId = allocator.allocate(executing, new TrackedIterator(block)).pagingId();
+        assertTrue(allocator.nextBlock(pagingId).exists());
+    }
+}
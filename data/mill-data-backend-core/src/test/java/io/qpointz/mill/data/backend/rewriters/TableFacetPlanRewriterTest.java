@@ -12,6 +12,9 @@ import org.junit.jupiter.api.Test;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -56,6 +59,34 @@ class TableFacetPlanRewriterTest {
         });
     }
 
+    @Test
+    void requestsFacetsOfReferencedTablesOnly() {
+        runner.run(ctx -> {
+            try {
+                val substrait = new SubstraitDispatcher(io.substrait.extension.SimpleExtension.loadDefaults());
+                val requested = new ArrayList<List<String>>();
+                val facets = new TableFacetFactory() {
+                    @Override
+                    public TableFacetsCollection facets() {
+                        throw new AssertionError("full facet collection must not be built");
+                    }
+
+                    @Override
+                    public TableFacetsCollection facets(Collection<List<String>> tables) {
+                        requested.addAll(tables);
+                        return new TableFacetsCollection(new HashMap<>());
+                    }
+                };
+
+                val rewriter = new TableFacetPlanRewriter(facets, substrait);
+                rewriter.rewritePlan(loadTestPlan("trivial"), null);
+                assertEquals(List.of(List.of("cmart", "CLIENT")), requested);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
     @Test
     void parseLogical() {
         runner.run(ctx -> {
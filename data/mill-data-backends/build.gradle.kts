@@ -18,6 +18,7 @@ dependencies {
     api(project(":core:mill-sql"))
     implementation(project(":data:mill-data-metadata"))
     implementation(libs.caffeine)
+    implementation(libs.hikaricp)
     implementation(libs.calcite.core)
     implementation(libs.calcite.csv)
     implementation(libs.calcite.file)
@@ -4,4 +4,14 @@ public interface CalciteContextFactory {
 
     CalciteContext createContext() throws Exception;
 
+    /**
+     * Version of the catalog the created contexts expose, see
+     * {@link io.qpointz.mill.data.backend.SchemaProvider#getSchemaVersion()}.
+     *
+     * @return catalog version; constant for factories with static catalogs
+     */
+    default long getSchemaVersion() {
+        return 0L;
+    }
+
 }
@@ -28,6 +28,11 @@ public class CalciteSchemaProvider implements SchemaProvider {
         this.typeProtoConverter = new TypeProtoConverter(extensionCollector);
     }
 
+    @Override
+    public long getSchemaVersion() {
+        return this.ctxFactory.getSchemaVersion();
+    }
+
     @Override
     public Set<String> getSchemaNames() {
         try (
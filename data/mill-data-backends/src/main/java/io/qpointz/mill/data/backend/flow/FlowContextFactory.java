@@ -4,16 +4,28 @@ import io.qpointz.mill.data.backend.calcite.CalciteConnectionContextBase;
 import io.qpointz.mill.data.backend.calcite.CalciteContext;
 import io.qpointz.mill.data.backend.calcite.CalciteContextFactory;
 import io.qpointz.mill.source.calcite.SourceSchemaManager;
+import io.qpointz.mill.source.factory.SourceMaterializer;
+import io.qpointz.mill.source.statistics.BlobStatisticMaintainer;
 import lombok.Getter;
 import org.apache.calcite.jdbc.CalciteConnection;
 
 import java.time.Duration;
 import java.sql.DriverManager;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * {@link CalciteContextFactory} that populates the Calcite root schema with
  * {@code FlowSchema} instances materialised from a {@link SourceDefinitionRepository}.
+ *
+ * <p>The cached schema manager refreshes the listings of sources that configure
+ * {@code refresh}; per-context managers list their sources once. With a cached manager,
+ * {@link #getSchemaVersion()} changes whenever it is replaced or one of its sources is
+ * refreshed with changes.
+ *
+ * <p>When a {@link BlobStatisticMaintainer} is given, planner statistics of all schema
+ * managers are served from its store and collected in the background; the maintainer is
+ * owned by the caller.
  */
 public class FlowContextFactory implements CalciteContextFactory, AutoCloseable {
 
@@ -26,16 +38,20 @@ public class FlowContextFactory implements CalciteContextFactory, AutoCloseable
     private final boolean cacheSchemasEnabled;
     @Getter
     private final Duration cacheSchemasTtl;
+    private final BlobStatisticMaintainer statistics;
     private final Object cacheLock = new Object();
+    private final AtomicLong generations = new AtomicLong();
     private volatile CachedSchemaEntry cachedSchemaEntry;
 
     private static class CachedSchemaEntry {
         private final SourceSchemaManager schemaManager;
         private final long createdAtNanos;
+        private final long generation;
 
-        private CachedSchemaEntry(SourceSchemaManager schemaManager, long createdAtNanos) {
+        private CachedSchemaEntry(SourceSchemaManager schemaManager, long createdAtNanos, long generation) {
             this.schemaManager = schemaManager;
             this.createdAtNanos = createdAtNanos;
+            this.generation = generation;
         }
     }
 
@@ -55,16 +71,39 @@ public class FlowContextFactory implements CalciteContextFactory, AutoCloseable
             Properties connectionProperties,
             boolean cacheSchemasEnabled,
             Duration cacheSchemasTtl) {
+        this(repository, connectionProperties, cacheSchemasEnabled, cacheSchemasTtl, null);
+    }
+
+    public FlowContextFactory(
+            SourceDefinitionRepository repository,
+            Properties connectionProperties,
+            boolean cacheSchemasEnabled,
+            Duration cacheSchemasTtl,
+            BlobStatisticMaintainer statistics) {
         this.repository = repository;
         this.connectionProperties = connectionProperties;
         this.cacheSchemasEnabled = cacheSchemasEnabled;
         this.cacheSchemasTtl = cacheSchemasTtl;
+        this.statistics = statistics;
     }
 
     @Override
     public CalciteContext createContext() throws Exception {
         var schemaManager = cacheSchemasEnabled ? getOrRefreshCachedSchemaManager() : null;
-        return new FlowConnectionContext(repository, connectionProperties, schemaManager);
+        return new FlowConnectionContext(this, schemaManager);
+    }
+
+    /**
+     * Combines the generation of the cached schema manager with its own version; {@code 0}
+     * without schema caching, where every context lists its sources anew.
+     */
+    @Override
+    public long getSchemaVersion() {
+        var entry = cachedSchemaEntry;
+        if (entry == null) {
+            return 0L;
+        }
+        return (entry.generation << 32) + entry.schemaManager.getVersion();
     }
 
     @Override
@@ -89,8 +128,8 @@ public class FlowContextFactory implements CalciteContextFactory, AutoCloseable
             if (existing != null && !isExpired(existing, now)) {
                 return existing.schemaManager;
             }
-            var fresh = createSchemaManager(repository);
-            cachedSchemaEntry = new CachedSchemaEntry(fresh, now);
+            var fresh = createSchemaManager(true);
+            cachedSchemaEntry = new CachedSchemaEntry(fresh, now, generations.incrementAndGet());
             if (existing != null) {
                 try {
                     existing.schemaManager.close();
@@ -112,8 +151,9 @@ public class FlowContextFactory implements CalciteContextFactory, AutoCloseable
         return nowNanos - entry.createdAtNanos >= cacheSchemasTtl.toNanos();
     }
 
-    private static SourceSchemaManager createSchemaManager(SourceDefinitionRepository repository) {
-        var schemaManager = new SourceSchemaManager();
+    private SourceSchemaManager createSchemaManager(boolean autoRefresh) {
+        var materializer = new SourceMaterializer(Thread.currentThread().getContextClassLoader(), statistics);
+        var schemaManager = new SourceSchemaManager(materializer, autoRefresh);
         for (var descriptor : repository.getSourceDefinitions()) {
             schemaManager.add(descriptor);
         }
@@ -128,19 +168,18 @@ public class FlowContextFactory implements CalciteContextFactory, AutoCloseable
         private final boolean ownsSchemaManager;
 
         FlowConnectionContext(
-                SourceDefinitionRepository repository,
-                Properties props,
+                FlowContextFactory factory,
                 SourceSchemaManager cachedSchemaManager) throws Exception {
             Class.forName("org.apache.calcite.jdbc.Driver");
             this.calciteConnection = DriverManager
-                    .getConnection("jdbc:calcite:", props)
+                    .getConnection("jdbc:calcite:", factory.connectionProperties)
                     .unwrap(CalciteConnection.class);
 
             if (cachedSchemaManager != null) {
                 this.schemaManager = cachedSchemaManager;
                 this.ownsSchemaManager = false;
             } else {
-                this.schemaManager = createSchemaManager(repository);
+                this.schemaManager = factory.createSchemaManager(false);
                 this.ownsSchemaManager = true;
             }
             schemaManager.registerAll(getRootSchema());
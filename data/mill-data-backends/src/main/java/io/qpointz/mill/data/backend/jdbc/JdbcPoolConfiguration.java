@@ -0,0 +1,92 @@
+package io.qpointz.mill.data.backend.jdbc;
+
+import lombok.*;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Connection pool settings for the JDBC backend.
+ *
+ * <p>Applied by {@link io.qpointz.mill.data.backend.jdbc.providers.impl.PooledJdbcContextFactory}
+ * on top of the connection settings held by {@link JdbcCalciteConfiguration}.</p>
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class JdbcPoolConfiguration {
+
+    /**
+     * Minimum number of idle connections kept in the pool.
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private int minPoolSize = 1;
+
+    /**
+     * Maximum number of connections (idle and in use) held by the pool.
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private int maxPoolSize = 10;
+
+    /**
+     * Maximum time a caller waits for a connection before the query fails.
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private Duration connectionTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Idle time after which connections above {@link #minPoolSize} are evicted.
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Maximum lifetime of a pooled connection; {@link Duration#ZERO} means no limit.
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private Duration maxLifetime = Duration.ofMinutes(30);
+
+    /**
+     * Maximum time spent validating a connection before it is handed out.
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private Duration validationTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Optional validation query. When empty, {@link java.sql.Connection#isValid(int)} is used.
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private Optional<String> validationQuery = Optional.empty();
+
+    /**
+     * Time a connection may stay borrowed before a leak warning is logged;
+     * {@link Duration#ZERO} disables leak detection.
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private Duration leakDetectionThreshold = Duration.ofMinutes(5);
+
+    /**
+     * Name of the pool, used in logs and JMX object names.
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private String poolName = "mill-jdbc-backend";
+
+}
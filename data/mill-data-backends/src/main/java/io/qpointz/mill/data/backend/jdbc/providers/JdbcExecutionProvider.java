@@ -8,10 +8,15 @@ import io.qpointz.mill.vectors.VectorBlockIterator;
 import io.qpointz.mill.vectors.sql.ResultSetVectorBlockIterator;
 import io.substrait.plan.Plan;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
+@Slf4j
 @AllArgsConstructor
 public class JdbcExecutionProvider implements ExecutionProvider {
 
@@ -23,15 +28,43 @@ public class JdbcExecutionProvider implements ExecutionProvider {
 
     @Override
     public VectorBlockIterator execute(Plan plan, QueryExecutionConfig config) {
+        val statement = planConverter.toSql(plan);
+        val ctx = ctxFactory.createContext();
+        Connection con = null;
+        Statement stmt = null;
+        ResultSet rs = null;
         try {
-            val statement = planConverter.toSql(plan);
-            val ctx = ctxFactory.createContext();
-            val con = ctx.getConnection();
-            val stmt = con.createStatement();
-            val rs = stmt.executeQuery(statement.sql());
-            return new ResultSetVectorBlockIterator(rs, config.getFetchSize(), statement.names());
+            con = ctx.getConnection();
+            stmt = con.createStatement();
+            rs = stmt.executeQuery(statement.sql());
+            final ResultSet resultSet = rs;
+            final Statement jdbcStatement = stmt;
+            final Connection connection = con;
+            return new ResultSetVectorBlockIterator(rs, config.getFetchSize(), statement.names(),
+                    () -> closeQuietly(resultSet, jdbcStatement, connection));
         } catch (SQLException e) {
+            closeQuietly(rs, stmt, con);
             throw new MillRuntimeException("Jdbc Executor failed execution:", e);
+        } catch (RuntimeException e) {
+            closeQuietly(rs, stmt, con);
+            throw e;
+        }
+    }
+
+    /**
+     * Closes result set, statement and connection in that order. For pooled
+     * contexts closing the connection returns it to the pool.
+     */
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (val resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                log.warn("Failed to close JDBC resource", e);
+            }
         }
     }
 
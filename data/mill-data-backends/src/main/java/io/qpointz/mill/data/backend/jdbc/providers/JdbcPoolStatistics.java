@@ -0,0 +1,35 @@
+package io.qpointz.mill.data.backend.jdbc.providers;
+
+import java.time.Duration;
+
+/**
+ * Point-in-time snapshot of JDBC connection pool usage.
+ *
+ * @param activeConnections         connections currently borrowed by running queries
+ * @param idleConnections           connections waiting in the pool
+ * @param totalConnections          all connections held by the pool
+ * @param threadsAwaitingConnection callers blocked waiting for a connection
+ * @param borrowCount               connections handed out since the pool started
+ * @param borrowTimeouts            borrow attempts that failed because the pool was exhausted
+ * @param totalWait                 cumulative time callers spent waiting for a connection
+ * @param maxWait                   longest single wait for a connection
+ */
+public record JdbcPoolStatistics(int activeConnections,
+                                 int idleConnections,
+                                 int totalConnections,
+                                 int threadsAwaitingConnection,
+                                 long borrowCount,
+                                 long borrowTimeouts,
+                                 Duration totalWait,
+                                 Duration maxWait) {
+
+    /**
+     * Average wait per borrowed connection.
+     */
+    public Duration averageWait() {
+        return borrowCount == 0
+                ? Duration.ZERO
+                : totalWait.dividedBy(borrowCount);
+    }
+
+}
@@ -0,0 +1,179 @@
+package io.qpointz.mill.data.backend.jdbc.providers.impl;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.qpointz.mill.MillRuntimeException;
+import io.qpointz.mill.data.backend.jdbc.JdbcCalciteConfiguration;
+import io.qpointz.mill.data.backend.jdbc.JdbcPoolConfiguration;
+import io.qpointz.mill.data.backend.jdbc.providers.JdbcConnectionProvider;
+import io.qpointz.mill.data.backend.jdbc.providers.JdbcContext;
+import io.qpointz.mill.data.backend.jdbc.providers.JdbcContextFactory;
+import io.qpointz.mill.data.backend.jdbc.providers.JdbcPoolStatistics;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * {@link JdbcContextFactory} backed by a bounded connection pool.
+ *
+ * <p>Physical connections are still opened through {@link JdbcConnectionProvider#createConnection}
+ * so provider customizations keep applying; the pool adds min/max sizing, validation,
+ * idle eviction and leak detection on top. Connections returned by
+ * {@link JdbcContext#getConnection()} go back to the pool when closed.</p>
+ */
+@Slf4j
+public class PooledJdbcContextFactory implements JdbcContextFactory, AutoCloseable {
+
+    private final HikariDataSource dataSource;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public PooledJdbcContextFactory(JdbcCalciteConfiguration config,
+                                    JdbcPoolConfiguration poolConfig,
+                                    JdbcConnectionProvider jdbcConnectionProvider) {
+        val hikari = new HikariConfig();
+        hikari.setPoolName(poolConfig.getPoolName());
+        hikari.setDataSource(new ConnectionProviderDataSource(config, jdbcConnectionProvider));
+        hikari.setMinimumIdle(poolConfig.getMinPoolSize());
+        hikari.setMaximumPoolSize(Math.max(poolConfig.getMaxPoolSize(), poolConfig.getMinPoolSize()));
+        hikari.setConnectionTimeout(poolConfig.getConnectionTimeout().toMillis());
+        hikari.setIdleTimeout(poolConfig.getIdleTimeout().toMillis());
+        hikari.setMaxLifetime(poolConfig.getMaxLifetime().toMillis());
+        hikari.setValidationTimeout(poolConfig.getValidationTimeout().toMillis());
+        poolConfig.getValidationQuery().ifPresent(hikari::setConnectionTestQuery);
+        hikari.setLeakDetectionThreshold(poolConfig.getLeakDetectionThreshold().toMillis());
+        //do not fail startup when upstream database is not reachable yet
+        hikari.setInitializationFailTimeout(-1);
+        log.info("Creating JDBC connection pool '{}' (min:{}, max:{}) for {}",
+                poolConfig.getPoolName(), hikari.getMinimumIdle(), hikari.getMaximumPoolSize(), config.getUrl());
+        this.dataSource = new HikariDataSource(hikari);
+    }
+
+    @Override
+    public JdbcContext createContext() {
+        return this::borrowConnection;
+    }
+
+    private Connection borrowConnection() {
+        val started = System.nanoTime();
+        try {
+            val connection = dataSource.getConnection();
+            val waited = System.nanoTime() - started;
+            borrowCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            return connection;
+        } catch (SQLException e) {
+            borrowTimeouts.incrementAndGet();
+            throw new MillRuntimeException("Failed to obtain pooled JDBC connection", e);
+        }
+    }
+
+    /**
+     * Returns current pool usage and cumulative wait metrics.
+     */
+    public JdbcPoolStatistics getStatistics() {
+        val pool = dataSource.getHikariPoolMXBean();
+        return new JdbcPoolStatistics(
+                pool == null ? 0 : pool.getActiveConnections(),
+                pool == null ? 0 : pool.getIdleConnections(),
+                pool == null ? 0 : pool.getTotalConnections(),
+                pool == null ? 0 : pool.getThreadsAwaitingConnection(),
+                borrowCount.get(),
+                borrowTimeouts.get(),
+                Duration.ofNanos(totalWaitNanos.get()),
+                Duration.ofNanos(maxWaitNanos.get()));
+    }
+
+    @Override
+    public void close() {
+        log.info("Closing JDBC connection pool '{}'", dataSource.getPoolName());
+        dataSource.close();
+    }
+
+    /**
+     * Adapts {@link JdbcConnectionProvider} to {@link DataSource} so the pool opens
+     * physical connections the same way the non-pooled factory does.
+     */
+    private static final class ConnectionProviderDataSource implements DataSource {
+
+        private final JdbcCalciteConfiguration config;
+
+        private final JdbcConnectionProvider provider;
+
+        private PrintWriter logWriter;
+
+        private int loginTimeout;
+
+        private ConnectionProviderDataSource(JdbcCalciteConfiguration config, JdbcConnectionProvider provider) {
+            this.config = config;
+            this.provider = provider;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return getConnection(config.getUser().orElse(""), config.getPassword().orElse(""));
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            try {
+                return provider.createConnection(config.getDriver(), config.getUrl(), username, password);
+            } catch (MillRuntimeException e) {
+                throw new SQLException("Failed to create JDBC connection", e);
+            }
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return logWriter;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+            this.logWriter = out;
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+            this.loginTimeout = seconds;
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return loginTimeout;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            throw new SQLException("Not a wrapper for " + iface.getName());
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface.isInstance(this);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.qpointz.mill.data.backend.jdbc.providers;
+
+import io.qpointz.mill.MillRuntimeException;
+import io.qpointz.mill.data.backend.calcite.providers.PlanConverter;
+import io.qpointz.mill.data.backend.jdbc.JdbcCalciteConfiguration;
+import io.qpointz.mill.data.backend.jdbc.JdbcPoolConfiguration;
+import io.qpointz.mill.data.backend.jdbc.providers.impl.JdbcConnectionCustomizerImpl;
+import io.qpointz.mill.data.backend.jdbc.providers.impl.PooledJdbcContextFactory;
+import io.qpointz.mill.proto.QueryExecutionConfig;
+import io.substrait.plan.ImmutablePlan;
+import io.substrait.plan.Plan;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PooledJdbcContextFactoryTest {
+
+    private PooledJdbcContextFactory factory;
+
+    private JdbcExecutionProvider executionProvider;
+
+    @BeforeEach
+    void setUp() {
+        val config = JdbcCalciteConfiguration.builder()
+                .url("jdbc:h2:mem:pooled-ctx;DB_CLOSE_DELAY=-1")
+                .driver("org.h2.Driver")
+                .build();
+        val poolConfig = JdbcPoolConfiguration.builder()
+                .minPoolSize(1)
+                .maxPoolSize(2)
+                .connectionTimeout(Duration.ofMillis(500))
+                .leakDetectionThreshold(Duration.ZERO)
+                .build();
+        factory = new PooledJdbcContextFactory(config, poolConfig, new JdbcConnectionCustomizerImpl());
+
+        val planConverter = mock(PlanConverter.class);
+        val sql = new PlanConverter.ConvertedPlanSql("SELECT X FROM SYSTEM_RANGE(1, 25)", List.of());
+        when(planConverter.toSql(any(Plan.class))).thenReturn(sql);
+        executionProvider = new JdbcExecutionProvider(planConverter, factory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        factory.close();
+    }
+
+    private QueryExecutionConfig fetchSize(int size) {
+        return QueryExecutionConfig.newBuilder().setFetchSize(size).build();
+    }
+
+    @Test
+    void returnsConnectionWhenIteratorDrained() {
+        val iter = executionProvider.execute(ImmutablePlan.builder().build(), fetchSize(10));
+        assertEquals(1, factory.getStatistics().activeConnections());
+
+        var rows = 0;
+        while (iter.hasNext()) {
+            rows += iter.next().getVectorSize();
+        }
+
+        assertEquals(25, rows);
+        assertEquals(0, factory.getStatistics().activeConnections());
+    }
+
+    @Test
+    void returnsConnectionWhenIteratorClosed() throws Exception {
+        val iter = executionProvider.execute(ImmutablePlan.builder().build(), fetchSize(5));
+        assertTrue(iter.hasNext());
+        iter.next();
+
+        ((AutoCloseable) iter).close();
+
+        assertEquals(0, factory.getStatistics().activeConnections());
+        assertFalse(iter.hasNext());
+    }
+
+    @Test
+    void reusesPooledConnections() {
+        for (int i = 0; i < 10; i++) {
+            val iter = executionProvider.execute(ImmutablePlan.builder().build(), fetchSize(100));
+            while (iter.hasNext()) {
+                iter.next();
+            }
+        }
+
+        val stats = factory.getStatistics();
+        assertEquals(10, stats.borrowCount());
+        assertTrue(stats.totalConnections() <= 2);
+    }
+
+    @Test
+    void failsWhenPoolExhausted() {
+        val first = executionProvider.execute(ImmutablePlan.builder().build(), fetchSize(5));
+        val second = executionProvider.execute(ImmutablePlan.builder().build(), fetchSize(5));
+        assertNotNull(first);
+        assertNotNull(second);
+
+        assertThrows(MillRuntimeException.class,
+                () -> executionProvider.execute(ImmutablePlan.builder().build(), fetchSize(5)));
+        assertEquals(1, factory.getStatistics().borrowTimeouts());
+    }
+
+}
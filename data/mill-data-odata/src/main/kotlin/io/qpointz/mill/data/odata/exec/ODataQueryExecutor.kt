@@ -2,9 +2,13 @@ package io.qpointz.mill.data.odata.exec
 
 import com.sdl.odata.api.processor.query.QueryOperation
 import io.qpointz.mill.data.backend.calcite.RelPlanDispatcherBridge
+import io.qpointz.mill.data.odata.plan.ODataApply
+import io.qpointz.mill.data.odata.plan.ODataPageRequest
+import io.qpointz.mill.data.odata.plan.ODataPagedPlan
 import io.qpointz.mill.data.odata.plan.ODataRelComposer
 import io.qpointz.mill.data.odata.read.ODataEntityReader
 import io.qpointz.mill.proto.QueryExecutionConfig
+import io.qpointz.mill.sql.RecordReaders
 import io.qpointz.mill.vectors.VectorBlockIterator
 
 /**
@@ -35,6 +39,52 @@ class ODataQueryExecutor @JvmOverloads constructor(
         return bridge.execute(relRoot, executionConfig)
     }
 
+    /**
+     * Executes one server-driven page; the rows are streamed by
+     * {@link io.qpointz.mill.data.odata.render.ODataJsonFeedSerializer#writeFeed}.
+     *
+     * @param operation RWS query operation tree
+     * @param schemaName physical schema from the OData service root
+     * @param page page size and optional skip token
+     * @param apply optional {@code $apply} aggregation
+     * @return page plan layout and its streaming vector blocks
+     */
+    @JvmOverloads
+    fun executePage(
+        operation: QueryOperation,
+        schemaName: String,
+        page: ODataPageRequest,
+        apply: ODataApply? = null,
+    ): ODataFeedPage {
+        val plan = relComposer.composePage(operation, schemaName, page, apply)
+        val executionConfig = QueryExecutionConfig.newBuilder()
+            .setFetchSize(minOf(defaultFetchSize, plan.pageSize + 1))
+            .build()
+        return ODataFeedPage(plan, bridge.execute(plan.root, executionConfig))
+    }
+
+    /**
+     * Counts the collection on the backend for {@code $count}.
+     *
+     * @param operation RWS query operation tree
+     * @param schemaName physical schema from the OData service root
+     * @param apply optional {@code $apply} aggregation whose groups are counted
+     * @return number of entities (or groups) matching the request, ignoring paging
+     */
+    @JvmOverloads
+    fun executeCount(operation: QueryOperation, schemaName: String, apply: ODataApply? = null): Long {
+        val iterator = bridge.execute(
+            relComposer.composeCount(operation, schemaName, apply),
+            QueryExecutionConfig.newBuilder().setFetchSize(1).build(),
+        )
+        val reader = RecordReaders.recordReader(iterator)
+        try {
+            return if (reader.next() && !reader.isNull(0)) reader.getLong(0) else 0L
+        } finally {
+            reader.close()
+        }
+    }
+
     /**
      * @param operation RWS query operation tree
      * @param schemaName physical schema from the OData service root
@@ -50,3 +100,14 @@ class ODataQueryExecutor @JvmOverloads constructor(
         return entityReader.readAll(iterator, maxRows)
     }
 }
+
+/**
+ * One executed page: the plan's result layout and the dispatcher blocks to stream.
+ *
+ * @property plan page plan
+ * @property iterator streaming vector blocks of the page
+ */
+data class ODataFeedPage(
+    val plan: ODataPagedPlan,
+    val iterator: VectorBlockIterator,
+)
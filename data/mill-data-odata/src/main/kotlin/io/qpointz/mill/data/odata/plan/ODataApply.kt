@@ -0,0 +1,157 @@
+package io.qpointz.mill.data.odata.plan
+
+import io.qpointz.mill.data.odata.expr.ODataExpressionException
+
+/**
+ * Parsed {@code $apply} (OData Data Aggregation) transformation pushed down as one Calcite aggregate.
+ *
+ * <p>Supported forms: {@code aggregate(...)}, {@code groupby((p1,p2))} and
+ * {@code groupby((p1,p2),aggregate(...))}; each aggregate expression is {@code prop with method as Alias}
+ * (methods {@code sum}, {@code min}, {@code max}, {@code average}, {@code countdistinct}) or
+ * {@code $count as Alias}. Result rows hold the group-by properties followed by the aliases.
+ *
+ * @property groupBy group-by property names
+ * @property aggregates aggregate expressions
+ */
+data class ODataApply(
+    val groupBy: List<String> = emptyList(),
+    val aggregates: List<Aggregate> = emptyList(),
+) {
+
+    /** Result property names: group-by properties, then aggregate aliases. */
+    val outputNames: List<String> get() = groupBy + aggregates.map { it.alias }
+
+    /**
+     * @property property aggregated property, or null for {@code $count}
+     * @property method aggregation method
+     * @property alias result property name
+     */
+    data class Aggregate(
+        val property: String?,
+        val method: Method,
+        val alias: String,
+    )
+
+    enum class Method(val keyword: String) {
+        COUNT("\$count"),
+        SUM("sum"),
+        MIN("min"),
+        MAX("max"),
+        AVERAGE("average"),
+        COUNT_DISTINCT("countdistinct"),
+    }
+
+    companion object {
+        private val IDENTIFIER = Regex("[A-Za-z_][A-Za-z0-9_]*")
+        private val AGGREGATE_EXPRESSION = Regex("""^(\S+)\s+with\s+(\S+)\s+as\s+(\S+)$""")
+        private val COUNT_EXPRESSION = Regex("""^\${'$'}count\s+as\s+(\S+)$""")
+
+        /**
+         * @param apply value of {@code $apply}
+         * @return parsed transformation
+         * @throws ODataExpressionException when the transformation is malformed or not supported
+         */
+        @JvmStatic
+        fun parse(apply: String): ODataApply {
+            val text = apply.trim()
+            if (splitTopLevel(text, '/').size > 1) {
+                throw ODataExpressionException("Unsupported \$apply transformation sequence: $text")
+            }
+            val (name, arguments) = call(text)
+            return when (name) {
+                "aggregate" -> ODataApply(aggregates = aggregates(arguments))
+                "groupby" -> groupBy(arguments)
+                else -> throw ODataExpressionException("Unsupported \$apply transformation: $name")
+            }
+        }
+
+        private fun groupBy(arguments: String): ODataApply {
+            val parts = splitTopLevel(arguments)
+            if (parts.isEmpty() || parts.size > 2) {
+                throw ODataExpressionException("Invalid \$apply groupby: groupby($arguments)")
+            }
+            val properties = parts[0].trim()
+            if (!properties.startsWith('(') || !properties.endsWith(')')) {
+                throw ODataExpressionException("Invalid \$apply groupby properties: $properties")
+            }
+            val groupBy = splitTopLevel(properties.substring(1, properties.length - 1)).map { identifier(it) }
+            if (groupBy.isEmpty()) {
+                throw ODataExpressionException("\$apply groupby needs at least one property")
+            }
+            val aggregates = parts.getOrNull(1)?.let { nested ->
+                val (name, nestedArguments) = call(nested.trim())
+                if (name != "aggregate") {
+                    throw ODataExpressionException("Unsupported \$apply groupby transformation: $name")
+                }
+                aggregates(nestedArguments)
+            } ?: emptyList()
+            return ODataApply(groupBy, aggregates)
+        }
+
+        private fun aggregates(arguments: String): List<Aggregate> {
+            val aggregates = splitTopLevel(arguments).map { expression -> aggregate(expression.trim()) }
+            if (aggregates.isEmpty()) {
+                throw ODataExpressionException("\$apply aggregate needs at least one expression")
+            }
+            return aggregates
+        }
+
+        private fun aggregate(expression: String): Aggregate {
+            COUNT_EXPRESSION.matchEntire(expression)?.let { match ->
+                return Aggregate(null, Method.COUNT, identifier(match.groupValues[1]))
+            }
+            val match = AGGREGATE_EXPRESSION.matchEntire(expression)
+                ?: throw ODataExpressionException("Invalid \$apply aggregate expression: $expression")
+            val method = Method.entries.firstOrNull { it != Method.COUNT && it.keyword == match.groupValues[2] }
+                ?: throw ODataExpressionException("Unsupported \$apply aggregation method: ${match.groupValues[2]}")
+            return Aggregate(identifier(match.groupValues[1]), method, identifier(match.groupValues[3]))
+        }
+
+        /** Splits {@code name(arguments)} into its name and arguments. */
+        private fun call(text: String): Pair<String, String> {
+            val open = text.indexOf('(')
+            if (open <= 0 || closingParenthesis(text, open) != text.length - 1) {
+                throw ODataExpressionException("Invalid \$apply transformation: $text")
+            }
+            return text.substring(0, open).trim() to text.substring(open + 1, text.length - 1)
+        }
+
+        private fun closingParenthesis(text: String, open: Int): Int {
+            var depth = 0
+            for (i in open until text.length) {
+                when (text[i]) {
+                    '(' -> depth++
+                    ')' -> if (--depth == 0) return i
+                }
+            }
+            return -1
+        }
+
+        private fun identifier(text: String): String {
+            val name = text.trim()
+            if (!IDENTIFIER.matches(name)) {
+                throw ODataExpressionException("Invalid \$apply property or alias: $name")
+            }
+            return name
+        }
+
+        /** Splits on [separator] outside parentheses. */
+        private fun splitTopLevel(text: String, separator: Char = ','): List<String> {
+            val parts = mutableListOf<String>()
+            var depth = 0
+            var start = 0
+            text.forEachIndexed { i, c ->
+                when {
+                    c == '(' -> depth++
+                    c == ')' -> depth--
+                    c == separator && depth == 0 -> {
+                        parts += text.substring(start, i)
+                        start = i + 1
+                    }
+                }
+            }
+            parts += text.substring(start)
+            return parts.filter { it.isNotBlank() }
+        }
+    }
+}
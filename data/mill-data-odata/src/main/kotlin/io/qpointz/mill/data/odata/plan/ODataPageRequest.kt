@@ -0,0 +1,90 @@
+package io.qpointz.mill.data.odata.plan
+
+import org.apache.calcite.rel.RelRoot
+
+/**
+ * Server-driven paging request for one entity-set read.
+ *
+ * @property pageSize maximum entities written before {@code @odata.nextLink}
+ * @property skipToken position after the previous page, or null for the first page
+ */
+data class ODataPageRequest(
+    val pageSize: Int,
+    val skipToken: ODataSkipToken? = null,
+) {
+    init {
+        require(pageSize > 0) { "pageSize must be positive" }
+    }
+}
+
+/**
+ * Plan of one page composed by {@link ODataRelComposer#composePage}.
+ *
+ * <p>Result rows hold the {@code visibleColumns} entity properties first, followed by any key columns
+ * the client did not {@code $select}; the serializer writes only the visible ones.
+ *
+ * @property root relational plan root
+ * @property visibleColumns number of leading columns rendered as entity properties
+ * @property keyColumns result column positions forming the keyset, in sort order
+ * @property pageSize entities rendered in this page
+ * @property hasNextProbe whether the plan fetches one extra row to detect a next page
+ * @property top remaining {@code $top} after this page's offset, or null when unbounded
+ * @property skipToken token this page resumes at, or null for the first page
+ * @property offset rows at or after the token's keyset skipped by this page (token offset plus {@code $skip})
+ */
+data class ODataPagedPlan @JvmOverloads constructor(
+    val root: RelRoot,
+    val visibleColumns: Int,
+    val keyColumns: List<Int>,
+    val pageSize: Int,
+    val hasNextProbe: Boolean,
+    val top: Int?,
+    val skipToken: ODataSkipToken? = null,
+    val offset: Int = 0,
+) {
+
+    /**
+     * @return tracker deriving the next page's {@code $skiptoken} from the keysets written for this page
+     */
+    fun nextPageTracker(): ODataNextPageTracker = ODataNextPageTracker(this)
+}
+
+/**
+ * Derives the {@code $skiptoken} of the page following [plan] from the keysets of its written rows.
+ *
+ * <p>When the trailing run of rows sharing the last keyset starts inside the page, every row with that
+ * keyset was written here, so the next page resumes at that keyset and skips the run. Otherwise the run
+ * may reach back before this page, and the next page keeps this page's anchor and skips everything
+ * read from it so far.
+ *
+ * @property plan page being written
+ */
+class ODataNextPageTracker(private val plan: ODataPagedPlan) {
+
+    private var last: List<Any?>? = null
+    private var run = 0
+    private var written = 0
+
+    /**
+     * Records one written row.
+     *
+     * @param keyset values of [ODataPagedPlan.keyColumns] in the row
+     */
+    fun add(keyset: List<Any?>) {
+        run = if (last != null && ODataSkipToken.keysetEquals(last, keyset)) run + 1 else 1
+        last = keyset
+        written++
+    }
+
+    /**
+     * @return token of the next page, or null when no row was written
+     */
+    fun token(): ODataSkipToken? {
+        val keyset = last ?: return null
+        return if (run < written) {
+            ODataSkipToken(keyset, run)
+        } else {
+            ODataSkipToken(plan.skipToken?.values, plan.offset + written)
+        }
+    }
+}
@@ -10,10 +10,23 @@ import io.qpointz.mill.data.odata.expr.ODataExpressionToRex
 import io.qpointz.mill.data.odata.resolve.EdmPropertyResolver
 import io.qpointz.mill.data.backend.calcite.RelBuilderFactory
 import org.apache.calcite.rel.RelRoot
+import org.apache.calcite.avatica.util.ByteString
 import org.apache.calcite.rel.core.JoinRelType
+import org.apache.calcite.rex.RexNode
 import org.apache.calcite.sql.`fun`.SqlStdOperatorTable
+import org.apache.calcite.sql.type.SqlTypeName
+import org.apache.calcite.sql.type.SqlTypeUtil
 import org.apache.calcite.tools.RelBuilder
+import org.apache.calcite.util.DateString
+import org.apache.calcite.util.TimeString
+import org.apache.calcite.util.TimestampString
 import io.qpointz.mill.data.backend.calcite.RelBuilderRoots
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+import java.util.UUID
 
 /**
  * Composes Calcite {@link RelRoot} plans from normalized OData query options.
@@ -37,29 +50,74 @@ class ODataRelComposer @JvmOverloads constructor(
         }
     }
 
-    private fun composeOnBuilder(
+    /**
+     * Composes one page of a server-driven paged read.
+     *
+     * <p>Rows are ordered by the keyset, nulls first: the {@code $orderby} properties followed by a key
+     * known to be unique (the {@code $apply} group-by properties, or the key columns declared by
+     * structural facets). Without such a key the remaining columns are appended to the sort so the order
+     * is deterministic, but stay out of the keyset. The page reads the rows at or after the keyset of
+     * {@link ODataPageRequest#skipToken} and skips the token's offset of them, so rows sharing a keyset
+     * (duplicates included) are neither lost nor repeated; a keyless read without {@code $orderby}
+     * degrades to OFFSET paging. {@code $skip} applies to the rows after the token; one extra row is
+     * fetched to detect whether a next page exists.
+     *
+     * <p>With {@code $apply}, {@code $filter} restricts the input rows, the aggregate is computed by the
+     * backend and {@code $select} / {@code $orderby} refer to the group-by properties and aliases.
+     *
+     * @param operation RWS query operation tree
+     * @param schemaName physical schema from the OData service root
+     * @param page page size and optional skip token
+     * @param apply optional {@code $apply} aggregation
+     * @return page plan and its result layout
+     */
+    @JvmOverloads
+    fun composePage(
+        operation: QueryOperation,
+        schemaName: String,
+        page: ODataPageRequest,
+        apply: ODataApply? = null,
+    ): ODataPagedPlan {
+        return composePage(ODataQueryOptions.from(operation), schemaName, page, apply)
+    }
+
+    internal fun composePage(
         options: ODataQueryOptions,
         schemaName: String,
-        builder: RelBuilder,
-    ): RelRoot {
-        val tableName = options.entitySetName
-        if (propertyResolver.resolveTable(schemaName, tableName) == null) {
-            throw ODataExpressionException("Unknown entity set: $tableName")
+        page: ODataPageRequest,
+        apply: ODataApply?,
+    ): ODataPagedPlan =
+        relBuilderFactory.withRelBuilder { builder ->
+            composePageOnBuilder(options, schemaName, page, apply, builder)
         }
 
-        builder.scan(schemaName, tableName)
-
-        options.expands.forEach { expand ->
-            applyExpand(schemaName, options.entitySetName, expand, builder)
-        }
-        options.expandNavigationNames.forEach { navigationName ->
-            applyExpandNavigation(schemaName, options.entitySetName, navigationName, builder)
+    /**
+     * Composes the {@code $count} of a collection: its filtered (and {@code $apply}-aggregated) rows,
+     * ignoring {@code $top}, {@code $skip} and {@code $orderby}.
+     *
+     * @param operation RWS query operation tree
+     * @param schemaName physical schema from the OData service root
+     * @param apply optional {@code $apply} aggregation whose groups are counted
+     * @return plan returning one {@code BIGINT} row
+     */
+    @JvmOverloads
+    fun composeCount(operation: QueryOperation, schemaName: String, apply: ODataApply? = null): RelRoot {
+        val options = ODataQueryOptions.from(operation)
+        return relBuilderFactory.withRelBuilder { builder ->
+            scanFiltered(options, schemaName, builder)
+            apply?.let { applyAggregation(schemaName, options.entitySetName, it, builder) }
+            builder.aggregate(builder.groupKey(), builder.countStar(COUNT_ALIAS))
+            RelBuilderRoots.toRoot(builder)
         }
+    }
 
-        options.filter?.let { criteria ->
-            val rex = expressionToRex.toRex(schemaName, options.entitySetName, criteria, builder)
-            builder.filter(rex)
-        }
+    private fun composeOnBuilder(
+        options: ODataQueryOptions,
+        schemaName: String,
+        builder: RelBuilder,
+    ): RelRoot {
+        val tableName = options.entitySetName
+        scanFiltered(options, schemaName, builder)
 
         if (options.select.isNotEmpty()) {
             val fields = options.select.map { name ->
@@ -98,6 +156,202 @@ class ODataRelComposer @JvmOverloads constructor(
         return RelBuilderRoots.toRoot(builder)
     }
 
+    private fun composePageOnBuilder(
+        options: ODataQueryOptions,
+        schemaName: String,
+        page: ODataPageRequest,
+        apply: ODataApply?,
+        builder: RelBuilder,
+    ): ODataPagedPlan {
+        val tableName = options.entitySetName
+        scanFiltered(options, schemaName, builder)
+        val aggregatedNames = apply?.let {
+            applyAggregation(schemaName, tableName, it, builder)
+            builder.peek().rowType.fieldNames.toList()
+        }
+        val position = { name: String, option: String ->
+            val index = if (aggregatedNames != null) {
+                aggregatedNames.indexOf(name).takeIf { it >= 0 }
+            } else {
+                propertyResolver.columnIndex(schemaName, tableName, name)
+            }
+            index ?: throw ODataExpressionException("Unknown $option property: $name")
+        }
+
+        val selected = options.select.map { name -> position(name, "select") }
+        val projectedDistinct = options.selectDistinct && selected.isNotEmpty()
+        if (projectedDistinct) {
+            builder.project(selected.map { builder.field(it) })
+        }
+        if (options.selectDistinct) {
+            builder.distinct()
+        }
+        val rowWidth = builder.peek().rowType.fieldCount
+        val visible = if (selected.isEmpty() || projectedDistinct) (0 until rowWidth).toList() else selected
+
+        val ordered = options.orderBy.map { order ->
+            val index = position(order.propertyName, "orderby")
+            val orderPosition = if (projectedDistinct) selected.indexOf(index) else index
+            if (orderPosition < 0) {
+                throw ODataExpressionException("Distinct orderby property must be selected: ${order.propertyName}")
+            }
+            KeyColumn(orderPosition, order.direction is Ascending)
+        }
+        val uniqueKey = when {
+            projectedDistinct -> null
+            apply != null -> apply.groupBy.indices.toList()
+            options.expands.isNotEmpty() || options.expandNavigationNames.isNotEmpty() -> null
+            else -> propertyResolver.uniqueKeyColumns(schemaName, tableName)
+        }
+        val keyset = ordered.distinctBy { it.position } +
+            uniqueKey.orEmpty().filter { position -> ordered.none { it.position == position } }
+                .map { KeyColumn(it, true) }
+        // without a unique key, rows sharing a keyset are told apart by the token offset; the remaining
+        // columns only make their order repeatable
+        val sortOnly = if (uniqueKey == null) {
+            (0 until rowWidth).filter { position -> keyset.none { it.position == position } }
+                .map { KeyColumn(it, true) }
+        } else {
+            emptyList()
+        }
+
+        val token = page.skipToken
+        token?.values?.let { values ->
+            if (values.size != keyset.size) {
+                throw ODataExpressionException("\$skiptoken does not match the requested ordering")
+            }
+            if (keyset.isNotEmpty()) {
+                builder.filter(atOrAfterKeyset(keyset, values, builder))
+            }
+        }
+
+        builder.sort((keyset + sortOnly).map { key ->
+            if (key.ascending) {
+                builder.nullsFirst(builder.field(key.position))
+            } else {
+                builder.nullsLast(builder.desc(builder.field(key.position)))
+            }
+        })
+
+        val top = options.top?.coerceAtMost(maxTop)
+        // a $top within one page needs no probe row and never links further
+        val lastPageRows = top?.takeIf { it <= page.pageSize }
+        val offset = (token?.offset ?: 0) + (options.skip ?: 0)
+        builder.limit(offset, lastPageRows ?: (page.pageSize + 1))
+
+        val output = visible + keyset.map { it.position }.filter { it !in visible }
+        if (output != (0 until rowWidth).toList()) {
+            builder.project(output.map { builder.field(it) })
+        }
+
+        return ODataPagedPlan(
+            root = RelBuilderRoots.toRoot(builder),
+            visibleColumns = visible.size,
+            keyColumns = keyset.map { key -> output.indexOf(key.position) },
+            pageSize = lastPageRows ?: page.pageSize,
+            hasNextProbe = lastPageRows == null,
+            top = top,
+            skipToken = token,
+            offset = offset,
+        )
+    }
+
+    private fun scanFiltered(options: ODataQueryOptions, schemaName: String, builder: RelBuilder) {
+        val tableName = options.entitySetName
+        if (propertyResolver.resolveTable(schemaName, tableName) == null) {
+            throw ODataExpressionException("Unknown entity set: $tableName")
+        }
+
+        builder.scan(schemaName, tableName)
+
+        options.expands.forEach { expand ->
+            applyExpand(schemaName, options.entitySetName, expand, builder)
+        }
+        options.expandNavigationNames.forEach { navigationName ->
+            applyExpandNavigation(schemaName, options.entitySetName, navigationName, builder)
+        }
+
+        options.filter?.let { criteria ->
+            val rex = expressionToRex.toRex(schemaName, options.entitySetName, criteria, builder)
+            builder.filter(rex)
+        }
+    }
+
+    /**
+     * Replaces the row with the {@code $apply} result: group-by columns followed by one column per alias.
+     */
+    private fun applyAggregation(schemaName: String, tableName: String, apply: ODataApply, builder: RelBuilder) {
+        fun field(name: String, option: String): RexNode =
+            builder.field(
+                propertyResolver.columnIndex(schemaName, tableName, name)
+                    ?: throw ODataExpressionException("Unknown \$apply $option property: $name"),
+            )
+
+        val groupKey = builder.groupKey(apply.groupBy.map { name -> field(name, "groupby") })
+        val calls = apply.aggregates.map { aggregate ->
+            aggregateCall(builder, aggregate.method, aggregate.alias, aggregate.property?.let { field(it, "aggregate") })
+        }
+        builder.aggregate(groupKey, calls)
+    }
+
+    /**
+     * Rows at or after [values] in keyset order (nulls sort first, as OData orders them):
+     * {@code k1 > v1 OR (k1 = v1 AND k2 > v2) OR ... OR (k1 = v1 AND ... AND kn = vn)}.
+     */
+    private fun atOrAfterKeyset(keyset: List<KeyColumn>, values: List<Any?>, builder: RelBuilder): RexNode {
+        val terms = mutableListOf<RexNode>()
+        val equalPrefix = mutableListOf<RexNode>()
+        keyset.forEachIndexed { i, key ->
+            val field = builder.field(key.position)
+            val value = values[i]
+            val literal = value?.let { keysetLiteral(it, field, builder) }
+            val after = when {
+                literal == null && key.ascending -> builder.isNotNull(field)
+                literal == null -> null
+                key.ascending -> builder.greaterThan(field, literal)
+                else -> builder.or(builder.lessThan(field, literal), builder.isNull(field))
+            }
+            if (after != null) {
+                terms += builder.and(equalPrefix + after)
+            }
+            equalPrefix += if (literal == null) builder.isNull(field) else builder.equals(field, literal)
+        }
+        terms += builder.and(equalPrefix)
+        return builder.or(terms)
+    }
+
+    private fun keysetLiteral(value: Any, field: RexNode, builder: RelBuilder): RexNode {
+        val rexBuilder = builder.rexBuilder
+        val precision = field.type.precision.takeIf { it >= 0 } ?: DEFAULT_TIME_PRECISION
+        val literal = when (value) {
+            is LocalDate -> rexBuilder.makeDateLiteral(DateString.fromDaysSinceEpoch(value.toEpochDay().toInt()))
+            is LocalDateTime -> rexBuilder.makeTimestampLiteral(timestampString(value, precision), precision)
+            is ZonedDateTime -> rexBuilder.makeTimestampWithLocalTimeZoneLiteral(
+                timestampString(value.withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime(), precision),
+                precision,
+            )
+            is LocalTime -> rexBuilder.makeTimeLiteral(
+                TimeString(value.hour, value.minute, value.second).withNanos(value.nano).round(precision),
+                precision,
+            )
+            is ByteArray -> rexBuilder.makeBinaryLiteral(ByteString(value))
+            is UUID -> builder.literal(value.toString())
+            else -> builder.literal(value)
+        }
+        return if (literal.type == field.type) {
+            literal
+        } else {
+            rexBuilder.makeCast(field.type, literal, true, true)
+        }
+    }
+
+    private fun timestampString(value: LocalDateTime, precision: Int): TimestampString =
+        TimestampString(value.year, value.monthValue, value.dayOfMonth, value.hour, value.minute, value.second)
+            .withNanos(value.nano)
+            .round(precision)
+
+    private data class KeyColumn(val position: Int, val ascending: Boolean)
+
     private fun applyExpandNavigation(
         schemaName: String,
         entitySetName: String,
@@ -157,5 +411,33 @@ class ODataRelComposer @JvmOverloads constructor(
 
     companion object {
         const val DEFAULT_MAX_TOP: Int = 10_000
+        private const val DEFAULT_TIME_PRECISION = 3
+        private const val COUNT_ALIAS = "count"
+
+        /**
+         * One {@code $apply} aggregate over [operand]. {@code average} of integer columns is computed
+         * in DOUBLE: SQL AVG keeps the operand type and would truncate the mean.
+         */
+        internal fun aggregateCall(
+            builder: RelBuilder,
+            method: ODataApply.Method,
+            alias: String,
+            operand: RexNode?,
+        ): RelBuilder.AggCall =
+            when (method) {
+                ODataApply.Method.COUNT -> builder.countStar(alias)
+                ODataApply.Method.SUM -> builder.sum(false, alias, operand!!)
+                ODataApply.Method.MIN -> builder.min(alias, operand!!)
+                ODataApply.Method.MAX -> builder.max(alias, operand!!)
+                ODataApply.Method.AVERAGE -> {
+                    val averaged = if (SqlTypeUtil.isIntType(operand!!.type)) {
+                        builder.cast(operand, SqlTypeName.DOUBLE)
+                    } else {
+                        operand
+                    }
+                    builder.avg(false, alias, averaged)
+                }
+                ODataApply.Method.COUNT_DISTINCT -> builder.count(true, alias, operand!!)
+            }
     }
 }
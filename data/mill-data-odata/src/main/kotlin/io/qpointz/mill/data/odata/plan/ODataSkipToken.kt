@@ -0,0 +1,125 @@
+package io.qpointz.mill.data.odata.plan
+
+import io.qpointz.mill.data.odata.expr.ODataExpressionException
+import tools.jackson.databind.json.JsonMapper
+import java.math.BigDecimal
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.ZonedDateTime
+import java.util.Base64
+import java.util.UUID
+
+/**
+ * Opaque {@code $skiptoken} locating the next page of a paged read: the keyset (ordered-key values) of
+ * a row already sent, and how many rows at or after that keyset were already sent.
+ *
+ * <p>The next page reads the rows at or after [values] in keyset order and skips [offset] of them, so
+ * rows sharing a keyset (duplicates of keyless tables) are neither lost nor repeated across pages.
+ * Values are encoded with a type tag so the next page compares them against the key columns without
+ * losing precision (dates, timestamps, decimals).
+ *
+ * @property values keyset to resume at, or null to count [offset] from the first row
+ * @property offset rows at or after [values] that were already sent
+ */
+class ODataSkipToken @JvmOverloads constructor(
+    val values: List<Any?>?,
+    val offset: Int = 0,
+) {
+
+    init {
+        require(offset >= 0) { "offset must not be negative" }
+    }
+
+    /**
+     * @return URL-safe token for {@code @odata.nextLink}
+     */
+    fun encode(): String {
+        val tagged = mapOf(KEYSET to values?.map { value -> tag(value) }, OFFSET to offset)
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(tagged))
+    }
+
+    override fun equals(other: Any?): Boolean =
+        other is ODataSkipToken && other.offset == offset && keysetEquals(other.values, values)
+
+    override fun hashCode(): Int = 31 * (values?.size ?: -1) + offset
+
+    override fun toString(): String = "ODataSkipToken(values=$values, offset=$offset)"
+
+    companion object {
+        private val MAPPER: JsonMapper = JsonMapper.builder().build()
+        private const val KEYSET = "k"
+        private const val OFFSET = "o"
+
+        /**
+         * Keyset equality as the page boundary sees it: binary values compare by content.
+         */
+        @JvmStatic
+        fun keysetEquals(left: List<Any?>?, right: List<Any?>?): Boolean {
+            if (left == null || right == null) {
+                return left == null && right == null
+            }
+            return left.size == right.size && left.indices.all { i ->
+                val a = left[i]
+                val b = right[i]
+                if (a is ByteArray && b is ByteArray) a.contentEquals(b) else a == b
+            }
+        }
+
+        /**
+         * @param token value of {@code $skiptoken}
+         * @return decoded keyset and offset
+         * @throws ODataExpressionException when the token is malformed
+         */
+        @JvmStatic
+        fun decode(token: String): ODataSkipToken {
+            return try {
+                val tagged = MAPPER.readValue(Base64.getUrlDecoder().decode(token), Map::class.java)
+                val values = (tagged[KEYSET] as List<*>?)?.map { entry -> untag(entry as List<*>) }
+                ODataSkipToken(values, (tagged[OFFSET] as Number?)?.toInt() ?: 0)
+            } catch (ex: RuntimeException) {
+                throw ODataExpressionException("Invalid \$skiptoken: ${ex.message}")
+            }
+        }
+
+        private fun tag(value: Any?): List<String?> =
+            when (value) {
+                null -> listOf(null)
+                is String -> listOf("s", value)
+                is Int, is Long, is Short, is Byte -> listOf("l", value.toString())
+                is Double, is Float -> listOf("d", value.toString())
+                is BigDecimal -> listOf("n", value.toPlainString())
+                is Boolean -> listOf("b", value.toString())
+                is LocalDate -> listOf("D", value.toString())
+                is java.sql.Date -> listOf("D", value.toLocalDate().toString())
+                is LocalDateTime -> listOf("T", value.toString())
+                is java.sql.Timestamp -> listOf("T", value.toLocalDateTime().toString())
+                is ZonedDateTime -> listOf("Z", value.toString())
+                is LocalTime -> listOf("t", value.toString())
+                is UUID -> listOf("u", value.toString())
+                is ByteArray -> listOf("x", Base64.getEncoder().encodeToString(value))
+                else -> throw ODataExpressionException(
+                    "Unsupported keyset value type: ${value::class.java.simpleName}",
+                )
+            }
+
+        private fun untag(entry: List<*>): Any? {
+            val tag = entry[0] as String? ?: return null
+            val text = entry[1] as String
+            return when (tag) {
+                "s" -> text
+                "l" -> text.toLong()
+                "d" -> text.toDouble()
+                "n" -> BigDecimal(text)
+                "b" -> text.toBooleanStrict()
+                "D" -> LocalDate.parse(text)
+                "T" -> LocalDateTime.parse(text)
+                "Z" -> ZonedDateTime.parse(text)
+                "t" -> LocalTime.parse(text)
+                "u" -> UUID.fromString(text)
+                "x" -> Base64.getDecoder().decode(text)
+                else -> throw IllegalArgumentException("Unknown keyset value tag: $tag")
+            }
+        }
+    }
+}
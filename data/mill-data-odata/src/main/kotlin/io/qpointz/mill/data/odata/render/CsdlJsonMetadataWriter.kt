@@ -0,0 +1,320 @@
+package io.qpointz.mill.data.odata.render
+
+import org.w3c.dom.Element
+import org.xml.sax.InputSource
+import tools.jackson.databind.json.JsonMapper
+import java.io.StringReader
+import java.math.BigDecimal
+import javax.xml.XMLConstants
+import javax.xml.parsers.DocumentBuilderFactory
+
+/**
+ * Converts a CSDL XML {@code $metadata} document into its CSDL JSON representation.
+ *
+ * <p>RWS 2.16 only writes CSDL XML; Mill renders the XML (including facet annotations from
+ * {@link CsdlMetadataAnnotationEnhancer}) and derives the JSON document from it, so both formats describe
+ * the same model. Covers the constructs Mill EDMs use: entity, complex, enum and type-definition types,
+ * properties, navigation properties, entity containers, functions, actions and annotations.
+ */
+object CsdlJsonMetadataWriter {
+
+    private const val DEFAULT_TYPE = "Edm.String"
+
+    private val CONSTANT_ATTRIBUTES = listOf(
+        "String", "Bool", "Int", "Float", "Decimal", "Date", "DateTimeOffset", "TimeOfDay", "Duration",
+        "Guid", "Binary", "EnumMember", "Path", "PropertyPath", "NavigationPropertyPath", "AnnotationPath",
+    )
+
+    private val mapper: JsonMapper = JsonMapper.builder().build()
+
+    private val documentBuilderFactory: DocumentBuilderFactory = DocumentBuilderFactory.newInstance().apply {
+        isNamespaceAware = true
+        setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true)
+        setFeature("http://apache.org/xml/features/disallow-doctype-decl", true)
+    }
+
+    /**
+     * @param metadataXml CSDL XML {@code $metadata} document
+     * @return equivalent CSDL JSON document
+     */
+    fun write(metadataXml: String): String {
+        val root = documentBuilderFactory.newDocumentBuilder()
+            .parse(InputSource(StringReader(metadataXml)))
+            .documentElement
+        val document = linkedMapOf<String, Any?>("\$Version" to (root.attr("Version") ?: "4.0"))
+        val schemas = root.children("DataServices").flatMap { it.children("Schema") }
+        schemas.firstNotNullOfOrNull { schema ->
+            schema.children("EntityContainer").firstOrNull()?.let { "${schema.attr("Namespace")}.${it.attr("Name")}" }
+        }?.let { document["\$EntityContainer"] = it }
+        val references = root.children("Reference")
+        if (references.isNotEmpty()) {
+            document["\$Reference"] = references.associate { reference ->
+                reference.attr("Uri") to linkedMapOf<String, Any?>(
+                    "\$Include" to reference.children("Include").map { include ->
+                        linkedMapOf<String, Any?>().apply {
+                            put("\$Namespace", include.attr("Namespace"))
+                            include.attr("Alias")?.let { put("\$Alias", it) }
+                        }
+                    },
+                )
+            }
+        }
+        schemas.forEach { schema -> document[schema.attr("Namespace")!!] = schema(schema) }
+        return mapper.writeValueAsString(document)
+    }
+
+    private fun schema(schema: Element): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>()
+        schema.attr("Alias")?.let { members["\$Alias"] = it }
+        schema.children().forEach { child ->
+            val name = child.attr("Name")
+            when (child.localName) {
+                "EntityType", "ComplexType" -> members[name!!] = structuredType(child)
+                "EnumType" -> members[name!!] = enumType(child)
+                "TypeDefinition" -> members[name!!] = typeDefinition(child)
+                "Term" -> members[name!!] = term(child)
+                "EntityContainer" -> members[name!!] = entityContainer(child)
+                "Function", "Action" -> {
+                    @Suppress("UNCHECKED_CAST")
+                    val overloads = members.getOrPut(name!!) { mutableListOf<Any?>() } as MutableList<Any?>
+                    overloads += operation(child)
+                }
+                "Annotations" -> {
+                    @Suppress("UNCHECKED_CAST")
+                    val targets = members.getOrPut("\$Annotations") { linkedMapOf<String, Any?>() }
+                        as MutableMap<String, Any?>
+                    targets[child.attr("Target")!!] = annotations(child, linkedMapOf())
+                }
+                "Annotation" -> annotation(child, members)
+            }
+        }
+        return members
+    }
+
+    private fun structuredType(type: Element): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>("\$Kind" to type.localName)
+        type.attr("BaseType")?.let { members["\$BaseType"] = it }
+        type.flag("Abstract")?.let { members["\$Abstract"] = it }
+        type.flag("OpenType")?.let { members["\$OpenType"] = it }
+        type.flag("HasStream")?.let { members["\$HasStream"] = it }
+        type.children("Key").firstOrNull()?.let { key ->
+            members["\$Key"] = key.children("PropertyRef").map { ref ->
+                ref.attr("Alias")?.let { alias -> mapOf(alias to ref.attr("Name")) } ?: ref.attr("Name")
+            }
+        }
+        type.children().forEach { child ->
+            when (child.localName) {
+                "Property" -> members[child.attr("Name")!!] = property(child)
+                "NavigationProperty" -> members[child.attr("Name")!!] = navigationProperty(child)
+                "Annotation" -> annotation(child, members)
+            }
+        }
+        return members
+    }
+
+    private fun property(property: Element): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>()
+        typed(property, members)
+        facets(property, members)
+        property.attr("DefaultValue")?.let { members["\$DefaultValue"] = it }
+        return annotations(property, members)
+    }
+
+    private fun navigationProperty(navigation: Element): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>("\$Kind" to "NavigationProperty")
+        typed(navigation, members)
+        navigation.attr("Partner")?.let { members["\$Partner"] = it }
+        navigation.flag("ContainsTarget")?.let { members["\$ContainsTarget"] = it }
+        val constraints = navigation.children("ReferentialConstraint")
+        if (constraints.isNotEmpty()) {
+            members["\$ReferentialConstraint"] =
+                constraints.associate { it.attr("Property") to it.attr("ReferencedProperty") }
+        }
+        navigation.children("OnDelete").firstOrNull()?.let { members["\$OnDelete"] = it.attr("Action") }
+        return annotations(navigation, members)
+    }
+
+    private fun enumType(type: Element): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>("\$Kind" to "EnumType")
+        type.attr("UnderlyingType")?.let { members["\$UnderlyingType"] = it }
+        type.flag("IsFlags")?.let { members["\$IsFlags"] = it }
+        var next = 0L
+        type.children("Member").forEach { member ->
+            val value = member.attr("Value")?.toLong() ?: next
+            members[member.attr("Name")!!] = value
+            next = value + 1
+        }
+        return annotations(type, members)
+    }
+
+    private fun typeDefinition(type: Element): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>("\$Kind" to "TypeDefinition")
+        members["\$UnderlyingType"] = type.attr("UnderlyingType")
+        facets(type, members)
+        return annotations(type, members)
+    }
+
+    private fun term(term: Element): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>("\$Kind" to "Term")
+        typed(term, members)
+        facets(term, members)
+        term.attr("AppliesTo")?.let { members["\$AppliesTo"] = it.split(' ').filter(String::isNotEmpty) }
+        term.attr("DefaultValue")?.let { members["\$DefaultValue"] = it }
+        return annotations(term, members)
+    }
+
+    private fun entityContainer(container: Element): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>("\$Kind" to "EntityContainer")
+        container.attr("Extends")?.let { members["\$Extends"] = it }
+        container.children().forEach { child ->
+            val name = child.attr("Name")
+            when (child.localName) {
+                "EntitySet" -> members[name!!] = entitySet(child, collection = true)
+                "Singleton" -> members[name!!] = entitySet(child, collection = false)
+                "FunctionImport" -> members[name!!] = operationImport(child, "\$Function", child.attr("Function"))
+                "ActionImport" -> members[name!!] = operationImport(child, "\$Action", child.attr("Action"))
+                "Annotation" -> annotation(child, members)
+            }
+        }
+        return members
+    }
+
+    private fun entitySet(set: Element, collection: Boolean): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>()
+        if (collection) {
+            members["\$Collection"] = true
+        }
+        members["\$Type"] = set.attr(if (collection) "EntityType" else "Type")
+        set.flag("IncludeInServiceDocument")?.takeIf { !it }?.let { members["\$IncludeInServiceDocument"] = false }
+        val bindings = set.children("NavigationPropertyBinding")
+        if (bindings.isNotEmpty()) {
+            members["\$NavigationPropertyBinding"] = bindings.associate { it.attr("Path") to it.attr("Target") }
+        }
+        return annotations(set, members)
+    }
+
+    private fun operationImport(element: Element, kindMember: String, operation: String?): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>(kindMember to operation)
+        element.attr("EntitySet")?.let { members["\$EntitySet"] = it }
+        element.flag("IncludeInServiceDocument")?.takeIf { it }?.let { members["\$IncludeInServiceDocument"] = true }
+        return annotations(element, members)
+    }
+
+    private fun operation(operation: Element): Map<String, Any?> {
+        val members = linkedMapOf<String, Any?>("\$Kind" to operation.localName)
+        operation.flag("IsBound")?.takeIf { it }?.let { members["\$IsBound"] = true }
+        operation.flag("IsComposable")?.takeIf { it }?.let { members["\$IsComposable"] = true }
+        operation.attr("EntitySetPath")?.let { members["\$EntitySetPath"] = it }
+        val parameters = operation.children("Parameter")
+        if (parameters.isNotEmpty()) {
+            members["\$Parameter"] = parameters.map { parameter ->
+                val parameterMembers = linkedMapOf<String, Any?>("\$Name" to parameter.attr("Name"))
+                typed(parameter, parameterMembers)
+                facets(parameter, parameterMembers)
+                annotations(parameter, parameterMembers)
+            }
+        }
+        operation.children("ReturnType").firstOrNull()?.let { returnType ->
+            val returnMembers = linkedMapOf<String, Any?>()
+            typed(returnType, returnMembers)
+            facets(returnType, returnMembers)
+            members["\$ReturnType"] = returnMembers
+        }
+        return annotations(operation, members)
+    }
+
+    /**
+     * Writes {@code $Type}, {@code $Collection} and {@code $Nullable}. CSDL XML defaults {@code Nullable}
+     * to true while CSDL JSON defaults it to false, so a nullable element states it explicitly.
+     */
+    private fun typed(element: Element, members: MutableMap<String, Any?>) {
+        val type = element.attr("Type") ?: DEFAULT_TYPE
+        val collection = type.startsWith("Collection(") && type.endsWith(")")
+        val elementType = if (collection) type.substring("Collection(".length, type.length - 1) else type
+        if (collection) {
+            members["\$Collection"] = true
+        }
+        if (elementType != DEFAULT_TYPE) {
+            members["\$Type"] = elementType
+        }
+        val nullable = element.flag("Nullable") ?: !collection
+        if (nullable) {
+            members["\$Nullable"] = true
+        }
+    }
+
+    private fun facets(element: Element, members: MutableMap<String, Any?>) {
+        element.attr("MaxLength")?.toLongOrNull()?.let { members["\$MaxLength"] = it }
+        element.attr("Precision")?.toLongOrNull()?.let { members["\$Precision"] = it }
+        element.attr("Scale")?.let { members["\$Scale"] = it.toLongOrNull() ?: it }
+        element.attr("SRID")?.let { members["\$SRID"] = it.toLongOrNull() ?: it }
+        element.flag("Unicode")?.takeIf { !it }?.let { members["\$Unicode"] = false }
+    }
+
+    private fun annotations(element: Element, members: MutableMap<String, Any?>): MutableMap<String, Any?> {
+        element.children("Annotation").forEach { annotation(it, members) }
+        return members
+    }
+
+    private fun annotation(annotation: Element, members: MutableMap<String, Any?>) {
+        val qualifier = annotation.attr("Qualifier")?.let { "#$it" } ?: ""
+        val name = "@${annotation.attr("Term")}$qualifier"
+        members[name] = expressionValue(annotation) ?: true
+        annotation.children("Annotation").forEach { nested ->
+            val nestedQualifier = nested.attr("Qualifier")?.let { "#$it" } ?: ""
+            members["$name@${nested.attr("Term")}$nestedQualifier"] = expressionValue(nested) ?: true
+        }
+    }
+
+    /**
+     * @return value of the constant-expression attribute or child expression element of [element],
+     *         or null when it has none
+     */
+    private fun expressionValue(element: Element): Any? {
+        CONSTANT_ATTRIBUTES.firstOrNull { element.hasAttribute(it) }
+            ?.let { return constant(it, element.getAttribute(it)) }
+        return element.children().firstOrNull { it.localName != "Annotation" }?.let { expression(it) }
+    }
+
+    private fun expression(element: Element): Any? =
+        when (element.localName) {
+            "Collection" -> element.children().filter { it.localName != "Annotation" }.map { expression(it) }
+            "Record" -> {
+                val record = linkedMapOf<String, Any?>()
+                element.attr("Type")?.let { record["@type"] = "#$it" }
+                element.children().forEach { child ->
+                    when (child.localName) {
+                        "PropertyValue" -> record[child.attr("Property")!!] = expressionValue(child)
+                        "Annotation" -> annotation(child, record)
+                    }
+                }
+                record
+            }
+            "Null" -> null
+            else -> constant(element.localName, element.textContent.trim())
+        }
+
+    private fun constant(kind: String, text: String): Any? =
+        when (kind) {
+            "Bool" -> text.toBooleanStrict()
+            "Int" -> text.toLong()
+            "Float", "Decimal" -> BigDecimal(text)
+            "Path" -> mapOf("\$Path" to text)
+            "PropertyPath" -> mapOf("\$PropertyPath" to text)
+            "NavigationPropertyPath" -> mapOf("\$NavigationPropertyPath" to text)
+            "AnnotationPath" -> mapOf("\$AnnotationPath" to text)
+            else -> text
+        }
+
+    private fun Element.attr(name: String): String? = if (hasAttribute(name)) getAttribute(name) else null
+
+    private fun Element.flag(name: String): Boolean? = attr(name)?.toBooleanStrict()
+
+    private fun Element.children(localName: String? = null): List<Element> {
+        val nodes = childNodes
+        return (0 until nodes.length)
+            .map { nodes.item(it) }
+            .filterIsInstance<Element>()
+            .filter { localName == null || it.localName == localName }
+    }
+}
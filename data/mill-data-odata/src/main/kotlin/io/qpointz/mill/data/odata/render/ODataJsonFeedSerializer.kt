@@ -1,6 +1,12 @@
 package io.qpointz.mill.data.odata.render
 
+import io.qpointz.mill.data.odata.exec.ODataFeedPage
+import io.qpointz.mill.data.odata.plan.ODataSkipToken
+import io.qpointz.mill.sql.RecordReaders
+import tools.jackson.core.JsonGenerator
 import tools.jackson.databind.json.JsonMapper
+import java.io.OutputStream
+import java.math.BigDecimal
 import java.sql.Date
 import java.time.LocalDate
 import java.time.ZoneOffset
@@ -9,7 +15,8 @@ import java.time.ZoneOffset
  * Serializes query row maps as an OData v4 JSON feed for RWS [com.sdl.odata.api.processor.query.QueryResult] RAW_JSON rendering.
  *
  * <p>RWS JSON renderers resolve entity types from Java classes; Mill returns {@code Map} rows from the
- * dispatcher, so the feed is pre-serialized and passed through as raw JSON.
+ * dispatcher, so the feed is pre-serialized and passed through as raw JSON. Paged reads bypass RWS
+ * rendering and are streamed to the response by {@link #writeFeed}.
  */
 class ODataJsonFeedSerializer @JvmOverloads constructor(
     private val mapper: JsonMapper = JsonMapper.builder().findAndAddModules().build(),
@@ -34,6 +41,85 @@ class ODataJsonFeedSerializer @JvmOverloads constructor(
         return mapper.writeValueAsString(payload)
     }
 
+    /**
+     * Streams one page as an OData JSON feed straight from the page's vector blocks, without
+     * materializing rows. Writes at most {@link ODataPagedPlan#pageSize} entities; when the plan's probe
+     * row shows more entities follow, appends {@code @odata.nextLink} built from the keysets of the written
+     * entities (see {@link io.qpointz.mill.data.odata.plan.ODataNextPageTracker}).
+     *
+     * @param page executed page
+     * @param entitySetName OData entity set name
+     * @param serviceRoot absolute OData service root ending in {@code /odata/{schema}.svc}
+     * @param out response stream; closed when the feed is complete
+     * @param count optional {@code @odata.count} written before the entities
+     * @param nextLink builds the next-page URL from the skip token and the number of entities written
+     * @return number of entities written
+     */
+    @JvmOverloads
+    fun writeFeed(
+        page: ODataFeedPage,
+        entitySetName: String,
+        serviceRoot: String,
+        out: OutputStream,
+        count: Long? = null,
+        nextLink: ((ODataSkipToken, Int) -> String)? = null,
+    ): Int {
+        val plan = page.plan
+        val normalizedRoot = serviceRoot.trimEnd('/')
+        var written = 0
+        mapper.createGenerator(out).use { gen ->
+            gen.writeStartObject()
+            gen.writeStringProperty("@odata.context", "$normalizedRoot/\$metadata#$entitySetName")
+            count?.let { gen.writeNumberProperty("@odata.count", it) }
+            gen.writeName("value")
+            gen.writeStartArray()
+            val tracker = plan.nextPageTracker()
+            var hasNext = false
+            val reader = RecordReaders.recordReader(page.iterator)
+            try {
+                while (reader.next()) {
+                    if (written == plan.pageSize) {
+                        hasNext = plan.hasNextProbe
+                        break
+                    }
+                    gen.writeStartObject()
+                    for (col in 0 until plan.visibleColumns) {
+                        gen.writeName(reader.getColumnMetadata(col).name)
+                        writeValue(gen, if (reader.isNull(col)) null else reader.getObject(col))
+                    }
+                    gen.writeEndObject()
+                    tracker.add(plan.keyColumns.map { col -> if (reader.isNull(col)) null else reader.getObject(col) })
+                    written++
+                }
+            } finally {
+                reader.close()
+                (page.iterator as? AutoCloseable)?.close()
+            }
+            gen.writeEndArray()
+            val token = tracker.token()
+            if (hasNext && nextLink != null && token != null) {
+                gen.writeStringProperty("@odata.nextLink", nextLink(token, written))
+            }
+            gen.writeEndObject()
+        }
+        return written
+    }
+
+    private fun writeValue(gen: JsonGenerator, value: Any?) {
+        when (val json = toODataJsonValue(value)) {
+            null -> gen.writeNull()
+            is String -> gen.writeString(json)
+            is Int -> gen.writeNumber(json)
+            is Long -> gen.writeNumber(json)
+            is Short -> gen.writeNumber(json)
+            is Double -> gen.writeNumber(json)
+            is Float -> gen.writeNumber(json)
+            is BigDecimal -> gen.writeNumber(json)
+            is Boolean -> gen.writeBoolean(json)
+            else -> gen.writePOJO(json)
+        }
+    }
+
     /**
      * SQL {@code DATE} values are exposed as {@code Edm.DateTimeOffset} for BI clients; serialize at UTC midnight.
      */
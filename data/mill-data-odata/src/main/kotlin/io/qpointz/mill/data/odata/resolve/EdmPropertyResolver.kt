@@ -57,6 +57,31 @@ class EdmPropertyResolver @JvmOverloads constructor(
         ?.firstOrNull { it.columnName.equals(propertyName, ignoreCase = false) }
         ?.fieldIndex
 
+    /**
+     * @param schemaName physical schema name
+     * @param tableName OData entity set name (physical table)
+     * @param context metadata scope
+     * @return zero-based indexes of the columns structural facets declare a unique, non-null key (the
+     *         primary key columns, else the first unique non-nullable column), or null when none is declared
+     */
+    fun uniqueKeyColumns(
+        schemaName: String,
+        tableName: String,
+        context: MetadataContext = MetadataContext.global(),
+    ): List<Int>? {
+        val columns = resolveTable(schemaName, tableName, context)?.columns ?: return null
+        val primaryKey = columns.filter { it.facets.structural?.isPrimaryKey == true }
+        if (primaryKey.isNotEmpty()) {
+            return primaryKey.map { it.fieldIndex }
+        }
+        return columns
+            .firstOrNull { column ->
+                val structural = column.facets.structural
+                structural?.isUnique == true && structural.nullable == false
+            }
+            ?.let { listOf(it.fieldIndex) }
+    }
+
     /**
      * @param schemaName physical schema name
      * @param entitySetName source entity set (physical table)
@@ -0,0 +1,51 @@
+package io.qpointz.mill.data.odata.plan
+
+import io.qpointz.mill.data.odata.expr.ODataExpressionException
+import io.qpointz.mill.data.odata.plan.ODataApply.Aggregate
+import io.qpointz.mill.data.odata.plan.ODataApply.Method
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+
+class ODataApplyTest {
+
+    @Test
+    fun shouldParseGroupByWithNestedAggregate() {
+        val apply = ODataApply.parse("groupby((country, state),aggregate(population with sum as Total, \$count as Cities))")
+
+        assertThat(apply.groupBy).containsExactly("country", "state")
+        assertThat(apply.aggregates).containsExactly(
+            Aggregate("population", Method.SUM, "Total"),
+            Aggregate(null, Method.COUNT, "Cities"),
+        )
+        assertThat(apply.outputNames).containsExactly("country", "state", "Total", "Cities")
+    }
+
+    @Test
+    fun shouldParseAggregateWithoutGroups() {
+        val apply = ODataApply.parse("aggregate(id with countdistinct as Ids,population with average as Mean)")
+
+        assertThat(apply.groupBy).isEmpty()
+        assertThat(apply.aggregates.map { it.method }).containsExactly(Method.COUNT_DISTINCT, Method.AVERAGE)
+    }
+
+    @Test
+    fun shouldParsePlainGroupBy() {
+        assertThat(ODataApply.parse("groupby((country))")).isEqualTo(ODataApply(listOf("country")))
+    }
+
+    @Test
+    fun shouldRejectUnsupportedTransformations() {
+        listOf(
+            "filter(id eq 1)",
+            "groupby((country))/aggregate(\$count as N)",
+            "aggregate(population with median as M)",
+            "groupby((Country/Name))",
+            "aggregate(population with sum)",
+        ).forEach { apply ->
+            assertThatThrownBy { ODataApply.parse(apply) }
+                .`as`(apply)
+                .isInstanceOf(ODataExpressionException::class.java)
+        }
+    }
+}
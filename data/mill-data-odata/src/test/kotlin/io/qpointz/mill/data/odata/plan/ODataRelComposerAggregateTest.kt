@@ -0,0 +1,39 @@
+package io.qpointz.mill.data.odata.plan
+
+import org.apache.calcite.sql.type.SqlTypeName
+import org.apache.calcite.tools.Frameworks
+import org.apache.calcite.tools.RelBuilder
+import org.apache.calcite.tools.RelRunners
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+
+class ODataRelComposerAggregateTest {
+
+    private val builder = RelBuilder.create(
+        Frameworks.newConfigBuilder().defaultSchema(Frameworks.createRootSchema(true)).build(),
+    )
+
+    @Test
+    fun shouldAverageIntegerColumnWithoutTruncation() {
+        builder.values(arrayOf("population"), 1, 2)
+        val call = ODataRelComposer.aggregateCall(builder, ODataApply.Method.AVERAGE, "Mean", builder.field(0))
+        val rel = builder.aggregate(builder.groupKey(), call).build()
+
+        assertThat(rel.rowType.fieldList.single().type.sqlTypeName).isEqualTo(SqlTypeName.DOUBLE)
+        RelRunners.run(rel).use { statement ->
+            statement.executeQuery().use { rs ->
+                assertThat(rs.next()).isTrue()
+                assertThat(rs.getDouble("Mean")).isEqualTo(1.5)
+            }
+        }
+    }
+
+    @Test
+    fun shouldKeepApproximateOperandOfAverage() {
+        builder.values(arrayOf("ratio"), 0.5, 1.0)
+        val call = ODataRelComposer.aggregateCall(builder, ODataApply.Method.AVERAGE, "Mean", builder.field(0))
+        val rel = builder.aggregate(builder.groupKey(), call).build()
+
+        assertThat(rel.rowType.fieldList.single().type.sqlTypeName).isEqualTo(SqlTypeName.DOUBLE)
+    }
+}
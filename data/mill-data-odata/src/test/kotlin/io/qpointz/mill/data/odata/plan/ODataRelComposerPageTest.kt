@@ -0,0 +1,217 @@
+package io.qpointz.mill.data.odata.plan
+
+import com.sdl.odata.api.processor.query.Ascending
+import com.sdl.odata.api.processor.query.OrderByProperty
+import io.qpointz.mill.data.backend.calcite.RelBuilderFactory
+import io.qpointz.mill.data.odata.expr.ODataExpressionException
+import io.qpointz.mill.data.odata.expr.ODataExpressionToRex
+import io.qpointz.mill.data.odata.resolve.EdmPropertyResolver
+import io.qpointz.mill.data.schema.SchemaColumnWithFacets
+import io.qpointz.mill.data.schema.SchemaFacetService
+import io.qpointz.mill.data.schema.SchemaFacets
+import io.qpointz.mill.data.schema.SchemaTableWithFacets
+import io.qpointz.mill.data.schema.facet.StructuralFacet
+import io.qpointz.mill.metadata.service.MetadataContext
+import io.qpointz.mill.proto.DataType
+import io.qpointz.mill.proto.Table
+import org.apache.calcite.adapter.java.ReflectiveSchema
+import org.apache.calcite.rel.RelNode
+import org.apache.calcite.tools.Frameworks
+import org.apache.calcite.tools.RelBuilder
+import org.apache.calcite.tools.RelRunners
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.whenever
+import java.util.function.Function
+
+class ODataRelComposerPageTest {
+
+    class City(@JvmField val id: Int, @JvmField val city: String?, @JvmField val population: Int)
+
+    class Visit(@JvmField val city: String?, @JvmField val population: Int)
+
+    class Store(@JvmField val cities: Array<City>, @JvmField val visits: Array<Visit>)
+
+    private val store = Store(
+        cities = arrayOf(
+            City(1, "Bern", 10), City(2, "Oslo", 20), City(3, "Bern", 10), City(4, null, 5), City(5, "Oslo", 20),
+            City(6, "Bern", 10), City(7, "Rome", 30), City(8, null, 5), City(9, "Bern", 10),
+        ),
+        visits = arrayOf(
+            Visit("Bern", 10), Visit(null, 5), Visit("Oslo", 20), Visit("Bern", 10),
+            Visit("Rome", 30), Visit(null, 5), Visit("Bern", 10), Visit("Oslo", 20),
+        ),
+    )
+
+    private val config = Frameworks.newConfigBuilder()
+        .defaultSchema(Frameworks.createRootSchema(true).also { it.add(SCHEMA, ReflectiveSchema(store)) })
+        .build()
+
+    private val relBuilderFactory = object : RelBuilderFactory {
+        override fun <T> withRelBuilder(action: Function<RelBuilder, T>): T = action.apply(RelBuilder.create(config))
+    }
+
+    private val schemaFacetService = mock<SchemaFacetService>().also { service ->
+        whenever(service.getTable(SCHEMA, "cities", MetadataContext.global())).thenReturn(
+            table("cities", column("id", 0, StructuralFacet(isPrimaryKey = true)), column("city", 1), column("population", 2)),
+        )
+        whenever(service.getTable(SCHEMA, "visits", MetadataContext.global())).thenReturn(
+            table("visits", column("city", 0), column("population", 1)),
+        )
+    }
+
+    private val resolver = EdmPropertyResolver(schemaFacetService)
+
+    private val composer = ODataRelComposer(relBuilderFactory, resolver, ODataExpressionToRex(resolver))
+
+    @Test
+    fun shouldNotLoseDuplicateRows_whenTheyStraddlePages() {
+        val options = ODataQueryOptions("visits", orderBy = listOf(orderBy("city", ascending = true)))
+
+        val paged = readPages(options, pageSize = 2)
+
+        assertThat(paged.rows).isEqualTo(readAll(options))
+        assertThat(paged.rows).containsExactlyInAnyOrderElementsOf(store.visits.map { listOf(it.city, it.population) })
+        assertThat(paged.pages).isEqualTo(4)
+    }
+
+    @Test
+    fun shouldPageDescendingKeysWithNullsLast() {
+        val options = ODataQueryOptions("cities", orderBy = listOf(orderBy("city", ascending = false)))
+
+        val paged = readPages(options, pageSize = 3)
+
+        assertThat(paged.rows).isEqualTo(readAll(options))
+        assertThat(paged.rows.map { it[1] }).containsExactly(
+            "Rome", "Oslo", "Oslo", "Bern", "Bern", "Bern", "Bern", null, null,
+        )
+    }
+
+    @Test
+    fun shouldCountFromFirstRow_whenKeylessReadIsUnordered() {
+        val paged = readPages(ODataQueryOptions("visits"), pageSize = 3)
+
+        assertThat(paged.rows).containsExactlyInAnyOrderElementsOf(store.visits.map { listOf(it.city, it.population) })
+        assertThat(paged.tokens).containsExactly(ODataSkipToken(null, 3), ODataSkipToken(null, 6))
+    }
+
+    @Test
+    fun shouldKeepTokenToDeclaredKey() {
+        val paged = readPages(ODataQueryOptions("cities"), pageSize = 4)
+
+        assertThat(paged.rows.map { it[0] }).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9)
+        assertThat(paged.tokens).containsExactly(ODataSkipToken(listOf(4L), 1), ODataSkipToken(listOf(8L), 1))
+    }
+
+    @Test
+    fun shouldCarrySkipAndTopAcrossPages() {
+        val ordered = ODataQueryOptions("visits", orderBy = listOf(orderBy("city", ascending = true)))
+
+        val paged = readPages(ordered.copy(skip = 1, top = 5), pageSize = 2)
+
+        assertThat(paged.rows).isEqualTo(readAll(ordered).subList(1, 6))
+    }
+
+    @Test
+    fun shouldPageDistinctSelection() {
+        val options = ODataQueryOptions(
+            "visits",
+            select = listOf("city"),
+            orderBy = listOf(orderBy("city", ascending = true)),
+            selectDistinct = true,
+        )
+
+        val paged = readPages(options, pageSize = 1)
+
+        assertThat(paged.rows).containsExactly(listOf(null), listOf("Bern"), listOf("Oslo"), listOf("Rome"))
+    }
+
+    @Test
+    fun shouldPageApplyGroups() {
+        val apply = ODataApply(
+            groupBy = listOf("city"),
+            aggregates = listOf(ODataApply.Aggregate(null, ODataApply.Method.COUNT, "n")),
+        )
+
+        val paged = readPages(ODataQueryOptions("visits"), pageSize = 3, apply = apply)
+
+        assertThat(paged.rows).containsExactly(listOf(null, 2L), listOf("Bern", 3L), listOf("Oslo", 2L), listOf("Rome", 1L))
+        assertThat(paged.tokens).containsExactly(ODataSkipToken(listOf("Oslo"), 1))
+    }
+
+    @Test
+    fun shouldRejectTokenOfDifferentOrdering() {
+        val page = ODataPageRequest(2, ODataSkipToken(listOf("Bern", 10L)))
+
+        assertThatThrownBy { composer.composePage(ODataQueryOptions("cities"), SCHEMA, page, null) }
+            .isInstanceOf(ODataExpressionException::class.java)
+            .hasMessageContaining("\$skiptoken")
+    }
+
+    private data class Pages(val rows: List<List<Any?>>, val tokens: List<ODataSkipToken>, val pages: Int)
+
+    /**
+     * Follows next links as a client would: {@code $skip} is consumed by the first page and {@code $top}
+     * is reduced by the entities already returned.
+     */
+    private fun readPages(options: ODataQueryOptions, pageSize: Int, apply: ODataApply? = null): Pages {
+        val rows = mutableListOf<List<Any?>>()
+        val tokens = mutableListOf<ODataSkipToken>()
+        var current = options
+        var token: ODataSkipToken? = null
+        var pages = 0
+        do {
+            val plan = composer.composePage(current, SCHEMA, ODataPageRequest(pageSize, token), apply)
+            val result = run(plan.root.rel)
+            val page = result.take(plan.pageSize)
+            val tracker = plan.nextPageTracker()
+            page.forEach { row ->
+                rows += row.take(plan.visibleColumns)
+                tracker.add(plan.keyColumns.map { row[it] })
+            }
+            pages++
+            token = if (plan.hasNextProbe && result.size > plan.pageSize) {
+                ODataSkipToken.decode(tracker.token()!!.encode()).also { tokens += it }
+            } else {
+                null
+            }
+            current = current.copy(skip = null, top = plan.top?.let { it - page.size })
+        } while (token != null)
+        return Pages(rows, tokens, pages)
+    }
+
+    private fun readAll(options: ODataQueryOptions): List<List<Any?>> = readPages(options, pageSize = 1_000).rows
+
+    private fun run(rel: RelNode): List<List<Any?>> =
+        RelRunners.run(rel).use { statement ->
+            statement.executeQuery().use { rs ->
+                val width = rs.metaData.columnCount
+                generateSequence { if (rs.next()) (1..width).map { rs.getObject(it) } else null }.toList()
+            }
+        }
+
+    private fun orderBy(property: String, ascending: Boolean): OrderByProperty {
+        val order = mock<OrderByProperty>(defaultAnswer = Mockito.RETURNS_MOCKS)
+        whenever(order.propertyName).thenReturn(property)
+        if (ascending) {
+            whenever(order.direction).thenReturn(mock<Ascending>())
+        }
+        return order
+    }
+
+    private fun table(name: String, vararg columns: SchemaColumnWithFacets): SchemaTableWithFacets =
+        SchemaTableWithFacets(SCHEMA, name, Table.TableTypeId.TABLE, columns.toList(), null, SchemaFacets.EMPTY)
+
+    private fun column(name: String, index: Int, structural: StructuralFacet? = null): SchemaColumnWithFacets =
+        SchemaColumnWithFacets(
+            SCHEMA, "", name, index, DataType.getDefaultInstance(), null,
+            structural?.let { SchemaFacets(setOf(it)) } ?: SchemaFacets.EMPTY,
+        )
+
+    private companion object {
+        private const val SCHEMA = "s"
+    }
+}
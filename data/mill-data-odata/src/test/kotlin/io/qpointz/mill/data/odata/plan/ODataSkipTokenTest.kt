@@ -0,0 +1,56 @@
+package io.qpointz.mill.data.odata.plan
+
+import io.qpointz.mill.data.odata.expr.ODataExpressionException
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import java.math.BigDecimal
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+class ODataSkipTokenTest {
+
+    @Test
+    fun shouldRoundTripTypedKeysetValues() {
+        val token = ODataSkipToken(
+            listOf("Zürich & co", 42, null, BigDecimal("12.50"), LocalDate.of(2024, 2, 29), LocalDateTime.of(2024, 1, 1, 8, 30)),
+        )
+
+        val decoded = ODataSkipToken.decode(token.encode())
+
+        assertThat(decoded.values).containsExactly(
+            "Zürich & co",
+            42L,
+            null,
+            BigDecimal("12.50"),
+            LocalDate.of(2024, 2, 29),
+            LocalDateTime.of(2024, 1, 1, 8, 30),
+        )
+    }
+
+    @Test
+    fun shouldRoundTripOffsetWithoutKeyset() {
+        val decoded = ODataSkipToken.decode(ODataSkipToken(null, 40).encode())
+
+        assertThat(decoded.values).isNull()
+        assertThat(decoded.offset).isEqualTo(40)
+    }
+
+    @Test
+    fun shouldCompareBinaryKeysetsByContent() {
+        assertThat(ODataSkipToken(listOf(byteArrayOf(1, 2)), 3)).isEqualTo(ODataSkipToken(listOf(byteArrayOf(1, 2)), 3))
+        assertThat(ODataSkipToken(listOf("a"), 1)).isNotEqualTo(ODataSkipToken(listOf("a"), 2))
+    }
+
+    @Test
+    fun shouldEncodeUrlSafeTokens() {
+        assertThat(ODataSkipToken(listOf("a/b+c?d")).encode()).matches("[A-Za-z0-9_-]+")
+    }
+
+    @Test
+    fun shouldRejectMalformedTokens() {
+        assertThatThrownBy { ODataSkipToken.decode("not a token") }
+            .isInstanceOf(ODataExpressionException::class.java)
+            .hasMessageContaining("\$skiptoken")
+    }
+}
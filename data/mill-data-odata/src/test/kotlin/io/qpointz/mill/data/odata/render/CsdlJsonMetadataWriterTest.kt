@@ -0,0 +1,81 @@
+package io.qpointz.mill.data.odata.render
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import tools.jackson.databind.json.JsonMapper
+
+class CsdlJsonMetadataWriterTest {
+
+    private val mapper = JsonMapper.builder().build()
+
+    private val metadataXml = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <edmx:Edmx Version="4.0" xmlns:edmx="http://docs.oasis-open.org/odata/ns/edmx">
+          <edmx:Reference Uri="https://oasis-tcs.github.io/odata-vocabularies/vocabularies/Org.OData.Core.V1.xml">
+            <edmx:Include Namespace="Org.OData.Core.V1" Alias="Core"/>
+          </edmx:Reference>
+          <edmx:DataServices>
+            <Schema Namespace="Mill.skymill" xmlns="http://docs.oasis-open.org/odata/ns/edm">
+              <EntityType Name="cities">
+                <Key>
+                  <PropertyRef Name="id"/>
+                </Key>
+                <Annotation Term="Core.Description" String="Airport cities."/>
+                <Property Name="id" Type="Edm.Int64" Nullable="false"/>
+                <Property Name="city" Type="Edm.String" Nullable="true">
+                  <Annotation Term="Core.Description" String="City name."/>
+                </Property>
+                <Property Name="tags" Type="Collection(Edm.String)"/>
+                <NavigationProperty Name="segments" Type="Collection(Mill.skymill.segments)"/>
+              </EntityType>
+              <EntityContainer Name="skymill">
+                <EntitySet Name="cities" EntityType="Mill.skymill.cities">
+                  <NavigationPropertyBinding Path="segments" Target="segments"/>
+                </EntitySet>
+              </EntityContainer>
+            </Schema>
+          </edmx:DataServices>
+        </edmx:Edmx>
+    """.trimIndent()
+
+    @Test
+    fun shouldWriteDocumentHeaderAndReferences() {
+        val json = mapper.readTree(CsdlJsonMetadataWriter.write(metadataXml))
+
+        assertThat(json.get("\$Version").asText()).isEqualTo("4.0")
+        assertThat(json.get("\$EntityContainer").asText()).isEqualTo("Mill.skymill.skymill")
+        val include = json.get("\$Reference")
+            .get("https://oasis-tcs.github.io/odata-vocabularies/vocabularies/Org.OData.Core.V1.xml")
+            .get("\$Include").get(0)
+        assertThat(include.get("\$Namespace").asText()).isEqualTo("Org.OData.Core.V1")
+        assertThat(include.get("\$Alias").asText()).isEqualTo("Core")
+    }
+
+    @Test
+    fun shouldWriteEntityTypeWithJsonDefaults() {
+        val cities = mapper.readTree(CsdlJsonMetadataWriter.write(metadataXml)).get("Mill.skymill").get("cities")
+
+        assertThat(cities.get("\$Kind").asText()).isEqualTo("EntityType")
+        assertThat(cities.get("\$Key").get(0).asText()).isEqualTo("id")
+        assertThat(cities.get("@Core.Description").asText()).isEqualTo("Airport cities.")
+        assertThat(cities.get("id").get("\$Type").asText()).isEqualTo("Edm.Int64")
+        assertThat(cities.get("id").has("\$Nullable")).isFalse()
+        assertThat(cities.get("city").has("\$Type")).isFalse()
+        assertThat(cities.get("city").get("\$Nullable").asBoolean()).isTrue()
+        assertThat(cities.get("city").get("@Core.Description").asText()).isEqualTo("City name.")
+        assertThat(cities.get("tags").get("\$Collection").asBoolean()).isTrue()
+        assertThat(cities.get("segments").get("\$Kind").asText()).isEqualTo("NavigationProperty")
+        assertThat(cities.get("segments").get("\$Type").asText()).isEqualTo("Mill.skymill.segments")
+    }
+
+    @Test
+    fun shouldWriteEntityContainer() {
+        val container = mapper.readTree(CsdlJsonMetadataWriter.write(metadataXml)).get("Mill.skymill").get("skymill")
+
+        assertThat(container.get("\$Kind").asText()).isEqualTo("EntityContainer")
+        val cities = container.get("cities")
+        assertThat(cities.get("\$Collection").asBoolean()).isTrue()
+        assertThat(cities.get("\$Type").asText()).isEqualTo("Mill.skymill.cities")
+        assertThat(cities.get("\$NavigationPropertyBinding").get("segments").asText()).isEqualTo("segments")
+    }
+}
@@ -1,7 +1,20 @@
 package io.qpointz.mill.data.odata.render
 
+import io.qpointz.mill.data.odata.exec.ODataFeedPage
+import io.qpointz.mill.data.odata.plan.ODataPagedPlan
+import io.qpointz.mill.data.odata.plan.ODataSkipToken
+import io.qpointz.mill.proto.DataType
+import io.qpointz.mill.proto.Field
+import io.qpointz.mill.proto.LogicalDataType
+import io.qpointz.mill.proto.Vector
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.proto.VectorBlockSchema
+import io.qpointz.mill.vectors.VectorBlockIterator
+import org.apache.calcite.rel.RelRoot
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
+import org.mockito.Mockito.mock
+import java.io.ByteArrayOutputStream
 
 class ODataJsonFeedSerializerTest {
     private val serializer = ODataJsonFeedSerializer()
@@ -18,4 +31,105 @@ class ODataJsonFeedSerializerTest {
         assertThat(json).contains("\"value\"")
         assertThat(json).contains("Paris")
     }
+
+    @Test
+    fun shouldStreamPageAndLinkNextPageAfterLastKey() {
+        val out = ByteArrayOutputStream()
+        var linkedToken: ODataSkipToken? = null
+
+        val written = serializer.writeFeed(
+            page(pageSize = 2, hasNextProbe = true, "Paris" to "1", "Bern" to "2", "Oslo" to "3"),
+            "cities",
+            "http://localhost/services/odata/skymill.svc/",
+            out,
+        ) { token, rows ->
+            linkedToken = token
+            "next?rows=$rows"
+        }
+
+        val json = out.toString(Charsets.UTF_8)
+        assertThat(written).isEqualTo(2)
+        assertThat(json).startsWith("{\"@odata.context\":\"http://localhost/services/odata/skymill.svc/\$metadata#cities\"")
+        assertThat(json).contains("{\"city\":\"Paris\"}", "{\"city\":\"Bern\"}")
+        assertThat(json).doesNotContain("Oslo", "\"id\"")
+        assertThat(json).endsWith("\"@odata.nextLink\":\"next?rows=2\"}")
+        assertThat(linkedToken).isEqualTo(ODataSkipToken(listOf("2"), 1))
+    }
+
+    @Test
+    fun shouldOmitNextLink_whenPageIsLast() {
+        val out = ByteArrayOutputStream()
+
+        val written = serializer.writeFeed(
+            page(pageSize = 2, hasNextProbe = true, "Paris" to "1"),
+            "cities",
+            "http://localhost/services/odata/skymill.svc",
+            out,
+        ) { _, _ -> error("no next page") }
+
+        assertThat(written).isEqualTo(1)
+        assertThat(out.toString(Charsets.UTF_8)).doesNotContain("@odata.nextLink")
+    }
+
+    @Test
+    fun shouldWriteInlineCountBeforeEntities() {
+        val out = ByteArrayOutputStream()
+
+        serializer.writeFeed(
+            page(pageSize = 1, hasNextProbe = false, "Paris" to "1"),
+            "cities",
+            "http://localhost/services/odata/skymill.svc",
+            out,
+            count = 42,
+        )
+
+        assertThat(out.toString(Charsets.UTF_8)).contains("\"@odata.count\":42,\"value\":[{\"city\":\"Paris\"}]")
+    }
+
+    private fun page(pageSize: Int, hasNextProbe: Boolean, vararg rows: Pair<String, String>): ODataFeedPage {
+        val plan = ODataPagedPlan(
+            root = mock(RelRoot::class.java),
+            visibleColumns = 1,
+            keyColumns = listOf(1),
+            pageSize = pageSize,
+            hasNextProbe = hasNextProbe,
+            top = null,
+        )
+        val block = VectorBlock.newBuilder()
+            .setSchema(VectorBlockSchema.newBuilder().addFields(stringField("city", 0)).addFields(stringField("id", 1)))
+            .setVectorSize(rows.size)
+            .addVectors(stringVector(0, rows.map { it.first }))
+            .addVectors(stringVector(1, rows.map { it.second }))
+            .build()
+        return ODataFeedPage(plan, iteratorOf(block))
+    }
+
+    private fun stringField(name: String, index: Int): Field =
+        Field.newBuilder()
+            .setName(name)
+            .setFieldIdx(index)
+            .setType(
+                DataType.newBuilder()
+                    .setType(LogicalDataType.newBuilder().setTypeId(LogicalDataType.LogicalDataTypeId.STRING))
+                    .setNullability(DataType.Nullability.NULL),
+            )
+            .build()
+
+    private fun stringVector(index: Int, values: List<String>): Vector =
+        Vector.newBuilder()
+            .setFieldIdx(index)
+            .setNulls(Vector.NullsVector.newBuilder().addAllNulls(values.map { false }))
+            .setStringVector(Vector.StringVector.newBuilder().addAllValues(values))
+            .build()
+
+    private fun iteratorOf(vararg blocks: VectorBlock): VectorBlockIterator =
+        object : VectorBlockIterator {
+            private val delegate = blocks.toList().iterator()
+
+            override fun hasNext(): Boolean = delegate.hasNext()
+
+            override fun next(): VectorBlock = delegate.next()
+
+            override fun schema(): VectorBlockSchema? = blocks.firstOrNull()?.schema
+        }
 }
@@ -2,10 +2,14 @@ package io.qpointz.mill.data.query.engine
 
 import com.github.benmanes.caffeine.cache.Caffeine
 import io.qpointz.mill.data.backend.dispatchers.DataOperationDispatcher
+import io.qpointz.mill.data.backend.dispatchers.ResultResourceManager
+import io.qpointz.mill.data.backend.dispatchers.ResultResourcesExhaustedException
+import io.qpointz.mill.data.query.engine.marshal.ResultMarshaller
 import io.qpointz.mill.data.query.engine.marshal.ResultMarshallerRegistry
 import io.qpointz.mill.proto.QueryExecutionConfig
 import io.qpointz.mill.proto.QueryRequest
 import io.qpointz.mill.proto.SQLStatement
+import io.qpointz.mill.proto.Vector
 import io.qpointz.mill.proto.VectorBlock
 import io.qpointz.mill.proto.VectorBlockSchema
 import io.qpointz.mill.vectors.VectorBlockIterator
@@ -26,17 +30,31 @@ import kotlin.math.min
  * the same SQL is executed again and rows are read until the requested page plus up to `M - 1` following
  * pages are cached (for forward continuation), then the same low-edge trim is applied.
  *
+ * With [QueryResultEngineSettings.spill] set, every block read is also spooled to a memory-mapped segment file
+ * and pages are served from the spool by row offset, so backward paging and page-size changes never re-query.
+ * The spill area is capped globally; a session whose spool was evicted to admit others re-executes on its
+ * next [getPage].
+ *
+ * Every scan is admitted through [resources] before `execute` and holds a lease on it until the scan is
+ * exhausted, replaced or the session ends, so its iterator is closed deterministically. The in-memory window counts as
+ * the lease's retained bytes; a lease evicted to admit other results makes the session re-execute on its next
+ * [getPage], and a scan that cannot be admitted fails with [ResultResourcesExhaustedException]. With a spool, an
+ * evicted lease only ends the iterator: spooled rows are still served, and the scan is re-executed and skipped to
+ * the first unread row once a page reads past them.
+ *
  * [SessionMetadata.totalResult] stays `null` until the iterator for the current scan is exhausted.
  *
  * @param dispatcher data-plane dispatcher used for `execute`.
  * @param marshallerRegistry marshaller lookup for `getPage`.
  * @param settings engine tuning (typically bound from `mill.data.query.*`).
+ * @param resources result resource manager shared with other paged-result holders.
  */
-class DefaultQueryResultExecutionService(
+class DefaultQueryResultExecutionService @JvmOverloads constructor(
     private val dispatcher: DataOperationDispatcher,
     private val marshallerRegistry: ResultMarshallerRegistry,
     private val settings: QueryResultEngineSettings,
-) : QueryResultExecutionService {
+    private val resources: ResultResourceManager = ResultResourceManager.unbounded(),
+) : QueryResultExecutionService, AutoCloseable {
 
     private class Session(
         val tenant: String,
@@ -57,10 +75,21 @@ class DefaultQueryResultExecutionService(
         @Volatile var cachePageSize: Int? = null,
         /** Schema for the current scan (iterator or first block); kept for empty pages. */
         @Volatile var scanSchema: VectorBlockSchema? = null,
+        /** Spool of the current scan when spilling is enabled; replaces [blocks]. */
+        @Volatile var spool: ResultSpool? = null,
+        /** Resource lease of the current scan; held in use while the session lock is held for paging. */
+        @Volatile var lease: ResultResourceManager.Lease? = null,
     )
 
+    private val spill = settings.spill?.let { ResultSpillManager(it) }
+
     private val cache = Caffeine.newBuilder()
         .expireAfterAccess(settings.sessionExpireAfterAccess)
+        .executor(Runnable::run)
+        .removalListener<String, Session> { _, session, _ ->
+            session?.lease?.close()
+            session?.spool?.close()
+        }
         .build<String, Session>()
 
     override fun create(
@@ -77,6 +106,7 @@ class DefaultQueryResultExecutionService(
             iterator = null,
         )
         openIterator(session, sql)
+        session.lease?.release()
         val id = UUID.randomUUID().toString()
         cache.put(id, session)
         val meta = toMetadata(id, session)
@@ -106,6 +136,7 @@ class DefaultQueryResultExecutionService(
             }
             session.cachePageSize = null
             openIterator(session, sql)
+            session.lease?.release()
             session.epoch += 1
             return ReplaceSessionResult(epoch = session.epoch)
         } finally {
@@ -142,10 +173,17 @@ class DefaultQueryResultExecutionService(
             if (clientEpoch != null && clientEpoch != session.epoch) {
                 throw QueryEpochConflictException(executionId, clientEpoch, session.epoch)
             }
+            val lease = session.lease
+            if (!session.exhausted && lease != null && !lease.acquire()) {
+                if (session.spool?.evicted == false) detachScan(session) else openIterator(session, session.sql)
+            }
             val fmt = (formatId ?: session.defaultFormat ?: QueryFormats.ROWS_OBJECTS).lowercase()
             val marshaller = marshallerRegistry.byFormatId(fmt)
                 ?: throw IllegalArgumentException("Unknown format: $fmt")
             val ps = normalizePageSize(pageSize)
+            if (spill != null) {
+                return spooledPage(session, pageIndex, ps, marshaller)
+            }
             bindOrResetCachePageSize(session, ps)
             val m = settings.maxCachedPages.coerceAtLeast(1)
             val globalStart = pageIndex * ps
@@ -205,6 +243,10 @@ class DefaultQueryResultExecutionService(
                 body = baos.toByteArray(),
             )
         } finally {
+            session.lease?.let {
+                it.retain(session.blocks.sumOf { block -> block.serializedSize.toLong() })
+                it.release()
+            }
             session.lock.writeLock().unlock()
         }
     }
@@ -220,6 +262,80 @@ class DefaultQueryResultExecutionService(
         cache.invalidate(executionId)
     }
 
+    /**
+     * Drops all sessions and deletes spilled results.
+     */
+    override fun close() {
+        cache.invalidateAll()
+        cache.cleanUp()
+        spill?.close()
+    }
+
+    /**
+     * Serves a page from the session spool, reading ahead only as far as the page (plus one block to
+     * answer `hasNext`, unless the scan is detached); re-executes when the spool was evicted.
+     */
+    private fun spooledPage(session: Session, pageIndex: Int, ps: Int, marshaller: ResultMarshaller): PagedQueryPayload {
+        repeat(2) {
+            val spool = session.spool
+            if (spool != null) {
+                val page = spool.pinned {
+                    if (spool.evicted) null else readSpooledPage(session, spool, pageIndex, ps, marshaller)
+                }
+                if (page != null) {
+                    return page
+                }
+            }
+            openIterator(session, session.sql)
+        }
+        throw QuerySqlExecutionException("Result spool was evicted while paging")
+    }
+
+    private fun readSpooledPage(
+        session: Session,
+        spool: ResultSpool,
+        pageIndex: Int,
+        ps: Int,
+        marshaller: ResultMarshaller,
+    ): PagedQueryPayload {
+        val globalStart = pageIndex * ps
+        val pageEnd = globalStart + ps
+        // the probe past the page end is not worth resuming a detached scan for
+        while (!session.exhausted &&
+            (session.rowsFetchedExclusive < pageEnd || (session.rowsFetchedExclusive == pageEnd && session.iterator != null))
+        ) {
+            if (!pullNextBlock(session)) {
+                break
+            }
+        }
+        if (globalStart >= session.rowsFetchedExclusive) {
+            return emptyPage(
+                session.epoch,
+                pageIndex,
+                ps,
+                if (session.exhausted) session.rowsFetchedExclusive else null,
+                columnSchemaForSession(session),
+            )
+        }
+        val rowCount = min(ps, session.rowsFetchedExclusive - globalStart)
+        val (blocks, offset) = spool.read(globalStart, rowCount)
+        val baos = ByteArrayOutputStream()
+        marshaller.writePage(blocks, offset, rowCount, baos)
+        val globalEnd = globalStart + rowCount
+        return PagedQueryPayload(
+            epoch = session.epoch,
+            pageIndex = pageIndex,
+            pageSize = ps,
+            rowCount = rowCount,
+            totalResult = if (session.exhausted) session.rowsFetchedExclusive else null,
+            hasPrevious = pageIndex > 0,
+            hasNext = globalEnd < session.rowsFetchedExclusive || (session.iterator?.hasNext() ?: !session.exhausted),
+            contentType = marshaller.contentType,
+            columnSchema = columnSchemaForSession(session),
+            body = baos.toByteArray(),
+        )
+    }
+
     private fun emptyPage(
         epoch: Int,
         pageIndex: Int,
@@ -286,24 +402,86 @@ class DefaultQueryResultExecutionService(
             )
             .build()
 
+    /**
+     * Starts a new scan of [sql]; the new lease is left in use and released by the caller.
+     */
     private fun openIterator(session: Session, sql: String) {
+        session.lease?.close()
+        session.lease = null
+        session.spool?.close()
+        session.spool = null
         session.blocks.clear()
         session.bufferStartRow = 0
         session.physicalLeadSkipRows = 0
         session.rowsFetchedExclusive = 0
         session.exhausted = false
         session.iterator = null
+        val it = executeScan(session, sql)
+        session.scanSchema = it.schema()
+        session.spool = spill?.open()
+        if (!it.hasNext()) {
+            finishScan(session)
+        }
+    }
+
+    /**
+     * Admits and executes [sql] as the session's scan; the new lease is left in use and released by the caller.
+     */
+    private fun executeScan(session: Session, sql: String): VectorBlockIterator {
+        val lease = resources.admit(session.tenant)
+        lease.acquire()
         val it = try {
             dispatcher.execute(buildRequest(sql))
         } catch (ex: Exception) {
+            lease.close()
             throw QuerySqlExecutionException(ex.message ?: "execute failed", ex)
         }
+        lease.attach(it)
+        session.lease = lease
         session.iterator = it
-        session.scanSchema = it.schema()
-        if (!it.hasNext()) {
-            session.iterator = null
-            session.exhausted = true
+        return it
+    }
+
+    /**
+     * Drops the iterator of a scan whose lease was evicted and keeps its spooled rows; the scan resumes on
+     * the next read past them (see [resumeScan]).
+     */
+    private fun detachScan(session: Session) {
+        session.lease?.close()
+        session.lease = null
+        session.iterator = null
+    }
+
+    /**
+     * Re-executes a detached scan and skips the [Session.rowsFetchedExclusive] rows already read.
+     *
+     * @return first unread rows (the tail of a block straddling the rows already read), or `null` when the
+     *   result no longer reaches past them
+     */
+    private fun resumeScan(session: Session): VectorBlock? {
+        val it = executeScan(session, session.sql)
+        var skip = session.rowsFetchedExclusive
+        while (it.hasNext()) {
+            val block = it.next()
+            if (block.vectorSize <= skip) {
+                skip -= block.vectorSize
+            } else {
+                return if (skip == 0) block else dropLeadingRows(block, skip)
+            }
         }
+        finishScan(session)
+        return null
+    }
+
+    /**
+     * Marks the current scan exhausted and closes its lease: nothing is left to read from the iterator,
+     * and the retained rows are served without re-executing.
+     */
+    private fun finishScan(session: Session) {
+        session.iterator = null
+        session.exhausted = true
+        session.lease?.close()
+        session.lease = null
     }
 
     private fun rowsInBuffer(session: Session): Int =
@@ -397,21 +575,79 @@ class DefaultQueryResultExecutionService(
     }
 
     private fun pullNextBlock(session: Session): Boolean {
-        val it = session.iterator ?: return false
-        if (!it.hasNext()) {
-            session.iterator = null
-            session.exhausted = true
+        if (session.exhausted) {
             return false
         }
-        val block = it.next()
+        val block = nextScanBlock(session) ?: return false
         val add = block.vectorSize
         if (session.rowsFetchedExclusive + add > settings.maxMaterializedRows) {
             throw QuerySqlExecutionException(
                 "Result exceeds maxMaterializedRows=${settings.maxMaterializedRows}",
             )
         }
-        session.blocks.add(block)
+        val spool = session.spool
+        if (spool == null) {
+            session.blocks.add(block)
+        } else if (!spool.append(block)) {
+            throw QuerySqlExecutionException(
+                "Result exceeds spill capacity maxDiskBytes=${settings.spill?.maxDiskBytes}",
+            )
+        }
         session.rowsFetchedExclusive += add
         return true
     }
+
+    private fun nextScanBlock(session: Session): VectorBlock? {
+        val it = session.iterator ?: return resumeScan(session)
+        if (!it.hasNext()) {
+            finishScan(session)
+            return null
+        }
+        return it.next()
+    }
+
+    /**
+     * Copy of [block] without its first [rows] rows.
+     */
+    private fun dropLeadingRows(block: VectorBlock, rows: Int): VectorBlock {
+        val builder = block.toBuilder().setVectorSize(block.vectorSize - rows)
+        for (vector in builder.vectorsBuilderList) {
+            if (vector.hasNulls()) {
+                val nulls = vector.nulls.nullsList.drop(rows)
+                vector.nullsBuilder.clearNulls().addAllNulls(nulls)
+            }
+            when (vector.valuesCase) {
+                Vector.ValuesCase.STRINGVECTOR -> vector.stringVectorBuilder.let {
+                    val values = it.valuesList.drop(rows)
+                    it.clearValues().addAllValues(values)
+                }
+                Vector.ValuesCase.I32VECTOR -> vector.i32VectorBuilder.let {
+                    val values = it.valuesList.drop(rows)
+                    it.clearValues().addAllValues(values)
+                }
+                Vector.ValuesCase.I64VECTOR -> vector.i64VectorBuilder.let {
+                    val values = it.valuesList.drop(rows)
+                    it.clearValues().addAllValues(values)
+                }
+                Vector.ValuesCase.FP64VECTOR -> vector.fp64VectorBuilder.let {
+                    val values = it.valuesList.drop(rows)
+                    it.clearValues().addAllValues(values)
+                }
+                Vector.ValuesCase.FP32VECTOR -> vector.fp32VectorBuilder.let {
+                    val values = it.valuesList.drop(rows)
+                    it.clearValues().addAllValues(values)
+                }
+                Vector.ValuesCase.BOOLVECTOR -> vector.boolVectorBuilder.let {
+                    val values = it.valuesList.drop(rows)
+                    it.clearValues().addAllValues(values)
+                }
+                Vector.ValuesCase.BYTEVECTOR -> vector.byteVectorBuilder.let {
+                    val values = it.valuesList.drop(rows)
+                    it.clearValues().addAllValues(values)
+                }
+                Vector.ValuesCase.VALUES_NOT_SET, null -> Unit
+            }
+        }
+        return builder.build()
+    }
 }
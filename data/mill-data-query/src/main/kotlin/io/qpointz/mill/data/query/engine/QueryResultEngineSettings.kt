@@ -1,5 +1,6 @@
 package io.qpointz.mill.data.query.engine
 
+import java.nio.file.Path
 import java.time.Duration
 
 /**
@@ -13,11 +14,42 @@ import java.time.Duration
  * @property sessionExpireAfterAccess Idle eviction for the session cache.
  * @property defaultFetchSize Initial `QueryExecutionConfig.fetchSize` for dispatcher `execute`.
  * @property maxPageSize Upper bound for presentation `pageSize` accepted by the service.
+ * @property spill When set, sessions spool every block read to local disk and serve any page from there,
+ * so backward paging never re-executes SQL; `null` keeps the in-memory **M**-page window only.
  */
-data class QueryResultEngineSettings(
+data class QueryResultEngineSettings @JvmOverloads constructor(
     val maxMaterializedRows: Int = 100_000,
     val maxCachedPages: Int = 16,
     val sessionExpireAfterAccess: Duration = Duration.ofMinutes(30),
     val defaultFetchSize: Int = 1024,
     val maxPageSize: Int = 10_000,
+    val spill: QueryResultSpillSettings? = null,
 )
+
+/**
+ * Spill area shared by all sessions of one [DefaultQueryResultExecutionService].
+ *
+ * @property directory Parent directory for segment files; each service writes to its own subdirectory,
+ * deleted when the service closes. `null` uses the system temp directory.
+ * @property maxDiskBytes Cap on spilled bytes across all sessions. Spools of the least recently used sessions
+ * are dropped to admit new blocks; such sessions re-execute on their next page request.
+ * @property memoryBudgetBytes Serialized size of decoded blocks kept on heap across all sessions; colder
+ * blocks are dropped and re-read from their segment file.
+ * @property segmentBytes Target size of one memory-mapped segment file.
+ * @property admissionTimeout How long a block waits for disk while every spool that could be dropped is being
+ * paged; the scan fails after that.
+ */
+data class QueryResultSpillSettings @JvmOverloads constructor(
+    val directory: Path? = null,
+    val maxDiskBytes: Long = 1L shl 30,
+    val memoryBudgetBytes: Long = 64L shl 20,
+    val segmentBytes: Int = 64 shl 20,
+    val admissionTimeout: Duration = Duration.ofSeconds(10),
+) {
+    init {
+        require(maxDiskBytes > 0) { "maxDiskBytes must be > 0" }
+        require(memoryBudgetBytes >= 0) { "memoryBudgetBytes must be >= 0" }
+        require(segmentBytes > 0) { "segmentBytes must be > 0" }
+        require(!admissionTimeout.isNegative) { "admissionTimeout must be >= 0" }
+    }
+}
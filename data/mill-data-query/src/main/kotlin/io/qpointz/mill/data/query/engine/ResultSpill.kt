@@ -0,0 +1,383 @@
+package io.qpointz.mill.data.query.engine
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.qpointz.mill.proto.VectorBlock
+import org.slf4j.LoggerFactory
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+import kotlin.math.min
+
+/**
+ * Disk area shared by the [ResultSpool]s of one service, enforcing [QueryResultSpillSettings.maxDiskBytes]
+ * and [QueryResultSpillSettings.memoryBudgetBytes] across all sessions.
+ *
+ * Disk admission evicts whole spools, least recently used first; decoded blocks live in one weighted
+ * cache so hot pages of any session stay on heap while cold ones fall back to their mapped segment.
+ */
+internal class ResultSpillManager(private val settings: QueryResultSpillSettings) : AutoCloseable {
+
+    // private per instance, so services sharing settings.directory never reuse each other's segment names
+    private val directory: Path = settings.directory
+        ?.let { Files.createTempDirectory(Files.createDirectories(it), SPILL_DIRECTORY_PREFIX) }
+        ?: Files.createTempDirectory(SPILL_DIRECTORY_PREFIX)
+
+    private val ids = AtomicLong()
+
+    private val spools = ConcurrentHashMap<Long, ResultSpool>()
+
+    private val usedBytes = AtomicLong()
+
+    private val admission = ReentrantLock()
+
+    private val spaceFreed = admission.newCondition()
+
+    internal val blocks: Cache<BlockKey, VectorBlock> = Caffeine.newBuilder()
+        .maximumWeight(settings.memoryBudgetBytes)
+        .weigher<BlockKey, VectorBlock> { _, block -> block.serializedSize }
+        .build()
+
+    internal data class BlockKey(val spool: Long, val block: Int)
+
+    /** Spilled bytes across all open spools. */
+    val diskBytes: Long get() = usedBytes.get()
+
+    /** Number of open spools. */
+    val openSpools: Int get() = spools.size
+
+    /**
+     * Opens an empty spool for one scan.
+     */
+    fun open(): ResultSpool {
+        val id = ids.incrementAndGet()
+        return ResultSpool(this, id, directory, settings.segmentBytes).also { spools[id] = it }
+    }
+
+    /**
+     * Reserves [bytes] of disk for [requester], evicting the least recently used other spools when the
+     * cap would be exceeded. Returns `false` when the requester's spool cannot fit under the cap even alone.
+     *
+     * Spools being paged cannot be evicted; while every candidate is pinned the call waits for one to be
+     * released or unpinned, up to [QueryResultSpillSettings.admissionTimeout].
+     *
+     * @throws QuerySqlExecutionException when no space could be freed within the admission timeout
+     */
+    fun reserve(requester: ResultSpool, bytes: Long): Boolean {
+        if (requester.spilledBytes + bytes > settings.maxDiskBytes) return false
+        val deadline = System.nanoTime() + settings.admissionTimeout.toNanos()
+        while (true) {
+            if (tryReserve(bytes) || evictFor(requester, bytes)) return true
+            val remaining = deadline - System.nanoTime()
+            if (remaining <= 0) {
+                throw QuerySqlExecutionException(
+                    "Spill area is full and no idle result could be evicted within ${settings.admissionTimeout}",
+                )
+            }
+            admission.withLock { spaceFreed.awaitNanos(min(remaining, ADMISSION_RETRY_NANOS)) }
+        }
+    }
+
+    private fun evictFor(requester: ResultSpool, bytes: Long): Boolean {
+        val victims = spools.values
+            .filter { it !== requester && !it.evicted }
+            .sortedBy { it.lastAccessNanos }
+        for (victim in victims) {
+            if (victim.evict()) {
+                log.debug("Evicted result spool {} to admit {} bytes", victim.id, bytes)
+                if (tryReserve(bytes)) return true
+            }
+        }
+        return false
+    }
+
+    /** Wakes reservations waiting for a pinned spool; called when a spool is unpinned or released. */
+    fun unpinned() {
+        admission.withLock { spaceFreed.signalAll() }
+    }
+
+    /** Returns a reservation that was not written because its spool was evicted meanwhile. */
+    fun unreserve(bytes: Long) {
+        usedBytes.addAndGet(-bytes)
+        unpinned()
+    }
+
+    private fun tryReserve(bytes: Long): Boolean {
+        while (true) {
+            val used = usedBytes.get()
+            if (used + bytes > settings.maxDiskBytes) return false
+            if (usedBytes.compareAndSet(used, used + bytes)) return true
+        }
+    }
+
+    /** Called by a spool once its segment files are gone. */
+    fun released(spool: ResultSpool, bytes: Long) {
+        spools.remove(spool.id)
+        usedBytes.addAndGet(-bytes)
+        blocks.asMap().keys.removeIf { it.spool == spool.id }
+        unpinned()
+    }
+
+    override fun close() {
+        spools.values.toList().forEach { it.close() }
+        blocks.invalidateAll()
+        try {
+            Files.walk(directory).use { paths ->
+                paths.sorted(reverseOrder()).forEach { Files.deleteIfExists(it) }
+            }
+        } catch (ex: IOException) {
+            log.warn("Cannot delete spill directory {}", directory, ex)
+        }
+    }
+
+    private companion object {
+        // re-check interval while waiting, in case a spool was unpinned before the wait began
+        private val ADMISSION_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(50)
+        private const val SPILL_DIRECTORY_PREFIX = "mill-query-spill-"
+        private val log = LoggerFactory.getLogger(ResultSpillManager::class.java)
+    }
+}
+
+/**
+ * Append-only spool of one scan: blocks are written to memory-mapped segment files as they are read and
+ * indexed by their first row, so any row range is served by random access.
+ *
+ * Guarded by its own lock, which is never held while waiting for disk space; another session's
+ * [ResultSpillManager.reserve] may [evict] it while it is not [pinned]. Once [evicted] the spool holds no
+ * rows and the owning session must re-execute.
+ */
+internal class ResultSpool(
+    private val manager: ResultSpillManager,
+    val id: Long,
+    private val directory: Path,
+    private val segmentBytes: Int,
+) : AutoCloseable {
+
+    private val lock = ReentrantLock()
+
+    private val segments = mutableListOf<Segment>()
+
+    // row-offset index: one entry per appended block
+    private var firstRows = IntArray(INITIAL_INDEX_SIZE)
+    private var segmentIndexes = IntArray(INITIAL_INDEX_SIZE)
+    private var offsets = IntArray(INITIAL_INDEX_SIZE)
+    private var lengths = IntArray(INITIAL_INDEX_SIZE)
+    private var blockCount = 0
+
+    // guarded by lock
+    private var pins = 0
+    private var closing = false
+
+    /** Bytes spilled by this spool. */
+    @Volatile
+    var spilledBytes: Long = 0L
+        private set
+
+    /** Rows appended so far. */
+    var rowCount: Int = 0
+        private set
+
+    @Volatile
+    var evicted: Boolean = false
+        private set
+
+    @Volatile
+    var lastAccessNanos: Long = System.nanoTime()
+        private set
+
+    /**
+     * Appends [block]; returns `false` when the spill area cannot admit it.
+     *
+     * Space is reserved before the spool is locked, so reads and evictions of this spool are not held up
+     * while the reservation waits for other spools to be unpinned.
+     */
+    fun append(block: VectorBlock): Boolean {
+        check(!evicted) { "Result spool $id was evicted" }
+        touch()
+        val bytes = block.toByteArray()
+        if (!manager.reserve(this, bytes.size.toLong())) {
+            return false
+        }
+        lock.withLock {
+            if (evicted) {
+                manager.unreserve(bytes.size.toLong())
+                throw IllegalStateException("Result spool $id was evicted")
+            }
+            write(block, bytes)
+        }
+        return true
+    }
+
+    private fun write(block: VectorBlock, bytes: ByteArray) {
+        var segment = segments.lastOrNull()
+        if (segment == null || (segment.size > 0 && segment.size.toLong() + bytes.size > segmentBytes)) {
+            segment = Segment(directory.resolve("spool-$id-${segments.size}.seg"))
+            segments += segment
+        }
+        val offset = segment.write(bytes)
+        ensureIndexCapacity()
+        firstRows[blockCount] = rowCount
+        segmentIndexes[blockCount] = segments.size - 1
+        offsets[blockCount] = offset
+        lengths[blockCount] = bytes.size
+        manager.blocks.put(ResultSpillManager.BlockKey(id, blockCount), block)
+        blockCount++
+        rowCount += block.vectorSize
+        spilledBytes += bytes.size
+    }
+
+    /**
+     * Returns the blocks covering `[fromRow, fromRow + rows)` and the offset of [fromRow] in the first one.
+     */
+    fun read(fromRow: Int, rows: Int): Pair<List<VectorBlock>, Int> = lock.withLock {
+        check(!evicted) { "Result spool $id was evicted" }
+        require(fromRow in 0 until rowCount) { "Row $fromRow is not spooled (rows=$rowCount)" }
+        touch()
+        var index = blockAt(fromRow)
+        val offset = fromRow - firstRows[index]
+        val result = mutableListOf<VectorBlock>()
+        var covered = -offset
+        while (covered < rows && index < blockCount) {
+            val block = block(index++)
+            result += block
+            covered += block.vectorSize
+        }
+        result to offset
+    }
+
+    /**
+     * Runs [action] with the spool protected from eviction by other sessions; a [close] meanwhile takes
+     * effect once the last pin is released.
+     */
+    fun <T> pinned(action: () -> T): T {
+        lock.withLock { pins++ }
+        try {
+            return action()
+        } finally {
+            lock.withLock {
+                pins--
+                if (pins == 0 && closing && !evicted) release()
+            }
+            manager.unpinned()
+        }
+    }
+
+    /**
+     * Drops the spool if it is not in use; returns `true` when evicted.
+     */
+    fun evict(): Boolean {
+        if (!lock.tryLock()) return false
+        try {
+            if (evicted || pins > 0) return false
+            release()
+            return true
+        } finally {
+            lock.unlock()
+        }
+    }
+
+    override fun close() {
+        lock.withLock {
+            closing = true
+            if (pins == 0 && !evicted) release()
+        }
+    }
+
+    private fun release() {
+        evicted = true
+        segments.forEach { it.close() }
+        segments.clear()
+        blockCount = 0
+        rowCount = 0
+        manager.released(this, spilledBytes)
+        spilledBytes = 0
+    }
+
+    private fun touch() {
+        lastAccessNanos = System.nanoTime()
+    }
+
+    private fun block(index: Int): VectorBlock =
+        manager.blocks.get(ResultSpillManager.BlockKey(id, index)) {
+            val mapped = segments[segmentIndexes[index]].mapped(offsets[index] + lengths[index])
+            VectorBlock.parseFrom(mapped.slice(offsets[index], lengths[index]))
+        }
+
+    /** Index of the block containing [row]. */
+    private fun blockAt(row: Int): Int {
+        var low = 0
+        var high = blockCount - 1
+        while (low < high) {
+            val mid = (low + high + 1) ushr 1
+            if (firstRows[mid] <= row) low = mid else high = mid - 1
+        }
+        return low
+    }
+
+    private fun ensureIndexCapacity() {
+        if (blockCount < firstRows.size) return
+        val size = firstRows.size * 2
+        firstRows = firstRows.copyOf(size)
+        segmentIndexes = segmentIndexes.copyOf(size)
+        offsets = offsets.copyOf(size)
+        lengths = lengths.copyOf(size)
+    }
+
+    private class Segment(private val path: Path) {
+
+        private val channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+        )
+
+        private var mapping: MappedByteBuffer? = null
+
+        var size: Int = 0
+            private set
+
+        /** Appends [bytes] and returns their offset. */
+        fun write(bytes: ByteArray): Int {
+            val offset = size
+            val buffer = ByteBuffer.wrap(bytes)
+            var position = offset.toLong()
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position)
+            }
+            size = position.toInt()
+            return offset
+        }
+
+        /** Read-only mapping covering at least `[0, end)`; remapped as the segment grows. */
+        fun mapped(end: Int): MappedByteBuffer {
+            val current = mapping
+            if (current != null && current.capacity() >= end) return current
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size.toLong()).also { mapping = it }
+        }
+
+        fun close() {
+            mapping = null
+            try {
+                channel.close()
+                Files.deleteIfExists(path)
+            } catch (ex: IOException) {
+                log.warn("Cannot delete spill segment {}", path, ex)
+            }
+        }
+    }
+
+    private companion object {
+        private const val INITIAL_INDEX_SIZE = 64
+        private val log = LoggerFactory.getLogger(ResultSpool::class.java)
+    }
+}
@@ -1,6 +1,7 @@
 package io.qpointz.mill.data.query.engine
 
 import io.qpointz.mill.data.backend.dispatchers.DataOperationDispatcher
+import io.qpointz.mill.data.backend.dispatchers.ResultResourceManager
 import io.qpointz.mill.data.query.engine.marshal.ResultMarshallerRegistry
 import io.qpointz.mill.proto.DataType
 import io.qpointz.mill.proto.Field
@@ -13,14 +14,22 @@ import io.qpointz.mill.vectors.VectorBlockIterator
 import org.assertj.core.api.Assertions.assertThat
 import org.assertj.core.api.Assertions.assertThatThrownBy
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
 import org.mockito.ArgumentMatchers.any
 import org.mockito.Mockito.mock
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
 import org.mockito.Mockito.`when`
+import java.nio.file.Path
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+import kotlin.io.path.listDirectoryEntries
 
 /**
- * Unit tests for [DefaultQueryResultExecutionService] (page-window cache, tenant, epoch, paging, re-scan).
+ * Unit tests for [DefaultQueryResultExecutionService] (page-window cache, spill, tenant, epoch, paging, re-scan).
  */
 class DefaultQueryResultExecutionServiceTest {
 
@@ -207,4 +216,235 @@ class DefaultQueryResultExecutionServiceTest {
         svc.getPage(ctx, created.executionId, 0, 2, QueryFormats.ROWS_OBJECTS, null)
         verify(dispatcher, times(2)).execute(any())
     }
+
+    private fun spillSettings(directory: Path, maxDiskBytes: Long = 1L shl 20) =
+        defaultSettings(maxCachedPages = 1).copy(
+            spill = QueryResultSpillSettings(
+                directory = directory,
+                maxDiskBytes = maxDiskBytes,
+                memoryBudgetBytes = 0,
+                segmentBytes = 256,
+            ),
+        )
+
+    private fun pairBlocks(count: Int): Array<VectorBlock> =
+        Array(count) { stringBlock(listOf("r${2 * it}", "r${2 * it + 1}")) }
+
+    @Test
+    fun `should serve backward pages from spill without rescan`(@TempDir dir: Path) {
+        val dispatcher = mock(DataOperationDispatcher::class.java)
+        `when`(dispatcher.execute(any())).thenReturn(iteratorOf(*pairBlocks(10)))
+        DefaultQueryResultExecutionService(dispatcher, ResultMarshallerRegistry.load(), spillSettings(dir)).use { svc ->
+            val ctx = CallerContext("alice")
+            val created = svc.create(ctx, "select 1", QueryFormats.ROWS_OBJECTS, false, 3)
+            svc.getPage(ctx, created.executionId, 6, 3, QueryFormats.ROWS_OBJECTS, null)
+            val p1 = svc.getPage(ctx, created.executionId, 1, 3, QueryFormats.ROWS_OBJECTS, null)
+            assertThat(p1.rowCount).isEqualTo(3)
+            assertThat(String(p1.body)).contains("r3", "r4", "r5").doesNotContain("r2", "r6")
+            assertThat(p1.hasNext).isTrue()
+            val last = svc.getPage(ctx, created.executionId, 3, 5, QueryFormats.ROWS_OBJECTS, null)
+            assertThat(String(last.body)).contains("r15", "r19")
+            assertThat(last.hasNext).isFalse()
+            assertThat(last.totalResult).isEqualTo(20)
+            verify(dispatcher, times(1)).execute(any())
+        }
+        assertThat(dir.listDirectoryEntries()).isEmpty()
+    }
+
+    @Test
+    fun `should keep spools of services sharing a spill directory apart`(@TempDir dir: Path) {
+        val dispatcher = mock(DataOperationDispatcher::class.java)
+        `when`(dispatcher.execute(any())).thenAnswer { iteratorOf(*pairBlocks(4)) }
+        val ctx = CallerContext("alice")
+        DefaultQueryResultExecutionService(dispatcher, ResultMarshallerRegistry.load(), spillSettings(dir)).use { first ->
+            DefaultQueryResultExecutionService(dispatcher, ResultMarshallerRegistry.load(), spillSettings(dir)).use { second ->
+                val a = first.create(ctx, "select 1", null, false, 2)
+                val b = second.create(ctx, "select 1", null, false, 2)
+                assertThat(first.getPage(ctx, a.executionId, 1, 2, null, null).rowCount).isEqualTo(2)
+                assertThat(second.getPage(ctx, b.executionId, 1, 2, null, null).rowCount).isEqualTo(2)
+                assertThat(dir.listDirectoryEntries()).hasSize(2)
+            }
+            assertThat(dir.listDirectoryEntries()).hasSize(1)
+        }
+        assertThat(dir.listDirectoryEntries()).isEmpty()
+    }
+
+    @Test
+    fun `should evict least recently used spool and rescan it on next page`(@TempDir dir: Path) {
+        val dispatcher = mock(DataOperationDispatcher::class.java)
+        `when`(dispatcher.execute(any())).thenAnswer { iteratorOf(*pairBlocks(4)) }
+        val blockBytes = pairBlocks(4).maxOf { it.serializedSize }.toLong()
+        val settings = spillSettings(dir, maxDiskBytes = 3 * blockBytes)
+        DefaultQueryResultExecutionService(dispatcher, ResultMarshallerRegistry.load(), settings).use { svc ->
+            val ctx = CallerContext("alice")
+            val first = svc.create(ctx, "select 1", null, true, 2)
+            val second = svc.create(ctx, "select 2", null, true, 2)
+            verify(dispatcher, times(2)).execute(any())
+            val again = svc.getPage(ctx, first.executionId, 0, 2, null, null)
+            assertThat(String(again.body)).contains("r0", "r1")
+            verify(dispatcher, times(3)).execute(any())
+            assertThat(svc.getPage(ctx, second.executionId, 0, 2, null, null).rowCount).isEqualTo(2)
+        }
+    }
+
+    @Test
+    fun `should fail when a single result exceeds spill capacity`(@TempDir dir: Path) {
+        val dispatcher = mock(DataOperationDispatcher::class.java)
+        `when`(dispatcher.execute(any())).thenReturn(iteratorOf(*pairBlocks(4)))
+        DefaultQueryResultExecutionService(dispatcher, ResultMarshallerRegistry.load(), spillSettings(dir, 1)).use { svc ->
+            val ctx = CallerContext("alice")
+            val created = svc.create(ctx, "select 1", null, false, 2)
+            assertThatThrownBy {
+                svc.getPage(ctx, created.executionId, 0, 2, null, null)
+            }.isInstanceOf(QuerySqlExecutionException::class.java)
+        }
+    }
+
+    @Test
+    fun `should wait for a pinned spool instead of failing admission`(@TempDir dir: Path) {
+        val blocks = pairBlocks(2)
+        val settings = QueryResultSpillSettings(dir, blocks.maxOf { it.serializedSize }.toLong(), 0, 256)
+        ResultSpillManager(settings).use { manager ->
+            val busy = manager.open()
+            assertThat(busy.append(blocks[0])).isTrue()
+            val paging = CountDownLatch(1)
+            val unpin = CountDownLatch(1)
+            val pager = thread { busy.pinned { paging.countDown(); unpin.await() } }
+            paging.await()
+
+            val waiting = CompletableFuture.supplyAsync { manager.open().append(blocks[1]) }
+            Thread.sleep(100)
+            assertThat(waiting).isNotDone()
+            unpin.countDown()
+
+            assertThat(waiting.get(5, TimeUnit.SECONDS)).isTrue()
+            assertThat(busy.evicted).isTrue()
+            pager.join()
+        }
+    }
+
+    @Test
+    fun `should keep a spool readable while its append waits for space`(@TempDir dir: Path) {
+        val blocks = pairBlocks(3)
+        val settings = QueryResultSpillSettings(dir, 2 * blocks.maxOf { it.serializedSize }.toLong(), 0, 256)
+        ResultSpillManager(settings).use { manager ->
+            val appending = manager.open()
+            assertThat(appending.append(blocks[0])).isTrue()
+            val busy = manager.open()
+            assertThat(busy.append(blocks[1])).isTrue()
+            val unpin = CountDownLatch(1)
+            val busyPinned = CountDownLatch(1)
+            val pager = thread { busy.pinned { busyPinned.countDown(); unpin.await() } }
+            busyPinned.await()
+
+            val waiting = CompletableFuture.supplyAsync { appending.pinned { appending.append(blocks[2]) } }
+            Thread.sleep(100)
+            assertThat(waiting).isNotDone()
+            val read = CompletableFuture.supplyAsync { appending.read(0, 2).first.size }
+            assertThat(read.get(1, TimeUnit.SECONDS)).isEqualTo(1)
+            unpin.countDown()
+
+            assertThat(waiting.get(5, TimeUnit.SECONDS)).isTrue()
+            assertThat(appending.rowCount).isEqualTo(4)
+            pager.join()
+        }
+    }
+
+    @Test
+    fun `should fail admission when spools stay pinned past the timeout`(@TempDir dir: Path) {
+        val blocks = pairBlocks(2)
+        val settings = QueryResultSpillSettings(
+            dir, blocks.maxOf { it.serializedSize }.toLong(), 0, 256, Duration.ofMillis(50),
+        )
+        ResultSpillManager(settings).use { manager ->
+            val busy = manager.open()
+            assertThat(busy.append(blocks[0])).isTrue()
+            busy.pinned {
+                val failed = CompletableFuture.supplyAsync { manager.open().append(blocks[1]) }
+                assertThatThrownBy { failed.get(5, TimeUnit.SECONDS) }
+                    .hasCauseInstanceOf(QuerySqlExecutionException::class.java)
+            }
+            assertThat(busy.evicted).isFalse()
+        }
+    }
+
+    @Test
+    fun `should rescan session whose lease was evicted over tenant cap`() {
+        val dispatcher = mock(DataOperationDispatcher::class.java)
+        `when`(dispatcher.execute(any())).thenAnswer { iteratorOf(*pairBlocks(2)) }
+        val resources = ResultResourceManager(ResultResourceManager.Limits(0, 2, 0, 0, 0, java.time.Duration.ZERO))
+        val svc = DefaultQueryResultExecutionService(
+            dispatcher,
+            ResultMarshallerRegistry.load(),
+            defaultSettings(maxCachedPages = 1),
+            resources,
+        )
+        val alice = CallerContext("alice")
+        val first = svc.create(alice, "select 1", null, true, 2)
+        svc.create(alice, "select 2", null, true, 2)
+        svc.create(alice, "select 3", null, true, 2)
+        assertThat(resources.usage("alice").openCursors()).isEqualTo(2)
+
+        val page = svc.getPage(alice, first.executionId, 0, 2, null, null)
+        assertThat(String(page.body)).contains("r0", "r1")
+        verify(dispatcher, times(4)).execute(any())
+
+        svc.delete(alice, first.executionId)
+        assertThat(resources.usage("alice").openCursors()).isEqualTo(1)
+    }
+
+    @Test
+    fun `should serve spooled rows after lease eviction and resume past them`(@TempDir dir: Path) {
+        val dispatcher = mock(DataOperationDispatcher::class.java)
+        `when`(dispatcher.execute(any())).thenReturn(
+            iteratorOf(*pairBlocks(4)),
+            iteratorOf(*pairBlocks(1)),
+            iteratorOf(
+                stringBlock(listOf("r0", "r1", "r2")),
+                stringBlock(listOf("r3", "r4", "r5")),
+                stringBlock(listOf("r6", "r7")),
+            ),
+        )
+        val resources = ResultResourceManager(ResultResourceManager.Limits(0, 1, 0, 0, 0, Duration.ZERO))
+        DefaultQueryResultExecutionService(dispatcher, ResultMarshallerRegistry.load(), spillSettings(dir), resources).use { svc ->
+            val alice = CallerContext("alice")
+            val first = svc.create(alice, "select 1", null, true, 2)
+            svc.create(alice, "select 2", null, false, 2)
+
+            val spooled = svc.getPage(alice, first.executionId, 1, 2, null, null)
+            assertThat(String(spooled.body)).contains("r2", "r3")
+            verify(dispatcher, times(2)).execute(any())
+
+            val resumed = svc.getPage(alice, first.executionId, 2, 2, null, null)
+            assertThat(String(resumed.body)).contains("r4", "r5").doesNotContain("r3", "r6")
+            verify(dispatcher, times(3)).execute(any())
+
+            val last = svc.getPage(alice, first.executionId, 3, 2, null, null)
+            assertThat(String(last.body)).contains("r6", "r7")
+            assertThat(last.hasNext).isFalse()
+            assertThat(last.totalResult).isEqualTo(8)
+            assertThat(String(svc.getPage(alice, first.executionId, 0, 2, null, null).body)).contains("r0", "r1")
+            verify(dispatcher, times(3)).execute(any())
+        }
+    }
+
+    @Test
+    fun `should close lease of exhausted scan and page it without rescan`() {
+        val dispatcher = mock(DataOperationDispatcher::class.java)
+        `when`(dispatcher.execute(any())).thenAnswer { iteratorOf(*pairBlocks(2)) }
+        val resources = ResultResourceManager(ResultResourceManager.Limits(0, 1, 0, 0, 0, java.time.Duration.ZERO))
+        val svc = DefaultQueryResultExecutionService(dispatcher, ResultMarshallerRegistry.load(), defaultSettings(), resources)
+        val alice = CallerContext("alice")
+        val first = svc.create(alice, "select 1", null, true, 2)
+        assertThat(first.firstPage!!.totalResult).isEqualTo(4)
+        assertThat(resources.usage("alice").openCursors()).isZero()
+
+        svc.create(alice, "select 2", null, true, 2)
+        val page = svc.getPage(alice, first.executionId, 1, 2, null, null)
+
+        assertThat(String(page.body)).contains("r2", "r3")
+        assertThat(page.hasNext).isFalse()
+        verify(dispatcher, times(2)).execute(any())
+        assertThat(resources.usage("alice").openCursors()).isZero()
+    }
 }
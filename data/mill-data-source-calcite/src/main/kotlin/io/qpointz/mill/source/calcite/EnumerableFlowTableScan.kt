@@ -0,0 +1,97 @@
+package io.qpointz.mill.source.calcite
+
+import io.qpointz.mill.source.RecordScanSpec
+import org.apache.calcite.DataContext
+import org.apache.calcite.adapter.enumerable.EnumerableConvention
+import org.apache.calcite.adapter.enumerable.EnumerableRel
+import org.apache.calcite.adapter.enumerable.EnumerableRelImplementor
+import org.apache.calcite.adapter.enumerable.JavaRowFormat
+import org.apache.calcite.adapter.enumerable.PhysTypeImpl
+import org.apache.calcite.linq4j.tree.Blocks
+import org.apache.calcite.linq4j.tree.Expressions
+import org.apache.calcite.linq4j.tree.Types
+import org.apache.calcite.plan.RelOptCluster
+import org.apache.calcite.plan.RelOptCost
+import org.apache.calcite.plan.RelOptPlanner
+import org.apache.calcite.plan.RelOptTable
+import org.apache.calcite.plan.RelTraitSet
+import org.apache.calcite.rel.RelNode
+import org.apache.calcite.rel.RelWriter
+import org.apache.calcite.rel.core.TableScan
+import org.apache.calcite.rel.hint.RelHint
+import org.apache.calcite.rel.metadata.RelMetadataQuery
+import org.apache.calcite.rel.type.RelDataType
+
+/**
+ * Physical enumerable scan of a [FlowTable] with a pushed [RecordScanSpec].
+ *
+ * [org.apache.calcite.adapter.enumerable.EnumerableTableScan] can only call
+ * [FlowTable.scan] without arguments, so scans carrying a spec are implemented here: the
+ * generated code calls [FlowTable.scan] with the spec stashed in the execution context.
+ * Rows are `Object[]` holding the spec's columns (all columns when it has none) in table order.
+ *
+ * @property scanSpec spec passed to [FlowTable.scan] at execution time
+ */
+class EnumerableFlowTableScan(
+    cluster: RelOptCluster,
+    traitSet: RelTraitSet,
+    hints: List<RelHint>,
+    table: RelOptTable,
+    val scanSpec: RecordScanSpec,
+) : TableScan(cluster, traitSet, hints, table), EnumerableRel {
+
+    override fun copy(traitSet: RelTraitSet, inputs: List<RelNode>): RelNode {
+        require(inputs.isEmpty()) { "EnumerableFlowTableScan must have no inputs" }
+        return EnumerableFlowTableScan(cluster, traitSet, hints, table, scanSpec)
+    }
+
+    override fun deriveRowType(): RelDataType =
+        FlowTableScan.projectRowType(table.rowType, scanSpec, cluster.typeFactory)
+
+    override fun explainTerms(pw: RelWriter): RelWriter =
+        FlowTableScan.explainSpec(super.explainTerms(pw), scanSpec)
+
+    override fun estimateRowCount(mq: RelMetadataQuery): Double {
+        val flowTable = table.unwrap(FlowTable::class.java) ?: return super.estimateRowCount(mq)
+        val rowCount = FlowTableStatistics.toCalciteStatistic(
+            flowTable.sourceTable().statisticProviders(),
+        ).rowCount
+        return rowCount ?: super.estimateRowCount(mq)
+    }
+
+    override fun computeSelfCost(planner: RelOptPlanner, mq: RelMetadataQuery): RelOptCost? =
+        super.computeSelfCost(planner, mq)?.multiplyBy(FlowTableScan.costFactor(table, scanSpec))
+
+    override fun implement(implementor: EnumerableRelImplementor, pref: EnumerableRel.Prefer): EnumerableRel.Result {
+        // optimize=false keeps Object[] rows even for single-column tables
+        val physType = PhysTypeImpl.of(implementor.typeFactory, getRowType(), JavaRowFormat.ARRAY, false)
+        val flowTable = table.getExpression(FlowTable::class.java)
+            ?: throw IllegalStateException("Table ${table.qualifiedName} has no expression")
+        val scan = Expressions.call(
+            flowTable,
+            SCAN_METHOD,
+            implementor.rootExpression,
+            implementor.stash(scanSpec, RecordScanSpec::class.java),
+        )
+        return implementor.result(physType, Blocks.toBlock(scan))
+    }
+
+    companion object {
+        private val SCAN_METHOD = Types.lookupMethod(
+            FlowTable::class.java, "scan", DataContext::class.java, RecordScanSpec::class.java,
+        )
+
+        /**
+         * Creates the enumerable counterpart of a logical [scan].
+         */
+        @JvmStatic
+        fun create(scan: FlowTableScan): EnumerableFlowTableScan =
+            EnumerableFlowTableScan(
+                scan.cluster,
+                scan.traitSet.replace(EnumerableConvention.INSTANCE),
+                scan.hints,
+                scan.table,
+                scan.scanSpec,
+            )
+    }
+}
@@ -0,0 +1,202 @@
+package io.qpointz.mill.source.calcite
+
+import io.qpointz.mill.source.CompareOp
+import io.qpointz.mill.source.ScanPredicate
+import io.qpointz.mill.source.statistics.ColumnStatistic
+import org.apache.calcite.plan.RelOptCluster
+import org.apache.calcite.plan.RelOptUtil
+import org.apache.calcite.rel.metadata.BuiltInMetadata
+import org.apache.calcite.rel.metadata.ChainedRelMetadataProvider
+import org.apache.calcite.rel.metadata.DefaultRelMetadataProvider
+import org.apache.calcite.rel.metadata.MetadataDef
+import org.apache.calcite.rel.metadata.MetadataHandler
+import org.apache.calcite.rel.metadata.ReflectiveRelMetadataProvider
+import org.apache.calcite.rel.metadata.RelMdUtil
+import org.apache.calcite.rel.metadata.RelMetadataProvider
+import org.apache.calcite.rel.metadata.RelMetadataQuery
+import org.apache.calcite.rex.RexNode
+import org.apache.calcite.rex.RexUtil
+import org.apache.calcite.util.ImmutableBitSet
+import org.apache.calcite.util.NumberUtil
+import java.util.Collections
+import java.util.WeakHashMap
+
+/**
+ * Planner metadata of [FlowTableScan] derived from stored column statistics.
+ *
+ * Calcite's [org.apache.calcite.schema.Statistic] has no per-column values, so null counts,
+ * min/max and NDV estimates reach the planner through metadata handlers instead: filter
+ * selectivity (and so the row estimates of filtered join inputs) and distinct row counts of
+ * column groups. Conjuncts or columns without statistics fall back to Calcite's defaults.
+ */
+internal object FlowRelMetadata {
+
+    /** Flow handlers; chained in front of the cluster's provider by [install]. */
+    val SOURCE: RelMetadataProvider = ChainedRelMetadataProvider.of(
+        listOf(
+            ReflectiveRelMetadataProvider.reflectiveSource(
+                FlowRelMdSelectivity(), BuiltInMetadata.Selectivity.Handler::class.java,
+            ),
+            ReflectiveRelMetadataProvider.reflectiveSource(
+                FlowRelMdDistinctRowCount(), BuiltInMetadata.DistinctRowCount.Handler::class.java,
+            ),
+        ),
+    )
+
+    private val installed: MutableSet<RelOptCluster> = Collections.synchronizedSet(
+        Collections.newSetFromMap(WeakHashMap()),
+    )
+
+    /**
+     * Chains [SOURCE] in front of the metadata provider of [cluster], once per cluster.
+     */
+    fun install(cluster: RelOptCluster) {
+        if (!installed.add(cluster)) {
+            return
+        }
+        val current = cluster.metadataProvider ?: DefaultRelMetadataProvider.INSTANCE
+        cluster.setMetadataProvider(ChainedRelMetadataProvider.of(listOf(SOURCE, current)))
+        cluster.invalidateMetadataQuery()
+    }
+
+    /**
+     * Column statistics of the table scanned by [scan] by scan field index, or null while unknown.
+     */
+    internal fun estimator(scan: FlowTableScan): ColumnStatisticEstimator? {
+        val providers = scan.table.unwrap(FlowTable::class.java)?.sourceTable()?.statisticProviders()
+            ?: return null
+        val rowCount = FlowTableStatistics.toCalciteStatistic(providers).rowCount ?: return null
+        val columns = FlowTableStatistics.columnStatistics(providers) ?: return null
+        return ColumnStatisticEstimator(rowCount, scan.rowType.fieldList.map { columns[it.name] })
+    }
+}
+
+/**
+ * Selectivity of predicates over a [FlowTableScan].
+ */
+class FlowRelMdSelectivity : MetadataHandler<BuiltInMetadata.Selectivity> {
+
+    @Deprecated("Required by MetadataHandler")
+    override fun getDef(): MetadataDef<BuiltInMetadata.Selectivity> = BuiltInMetadata.Selectivity.DEF
+
+    /**
+     * Multiplies per-conjunct estimates from column statistics; conjuncts that are not
+     * `column op literal`, `column IS [NOT] NULL` or `IN` lists use Calcite's guesses.
+     */
+    fun getSelectivity(scan: FlowTableScan, mq: RelMetadataQuery, predicate: RexNode?): Double? {
+        val estimator = FlowRelMetadata.estimator(scan) ?: return RelMdUtil.guessSelectivity(predicate)
+        if (predicate == null || predicate.isAlwaysTrue) {
+            return 1.0
+        }
+        val rexBuilder = scan.cluster.rexBuilder
+        val expanded = RexUtil.expandSearch(rexBuilder, null, predicate)
+        return RelOptUtil.conjunctions(expanded)
+            .map { conjunct ->
+                FlowScanPredicates.translate(rexBuilder, conjunct, scan.rowType).singleOrNull()
+                    ?.let { estimator.selectivity(scan.rowType.fieldNames.indexOf(it.column), it) }
+                    ?: RelMdUtil.guessSelectivity(conjunct)
+            }
+            .fold(1.0, Double::times)
+    }
+}
+
+/**
+ * Distinct row counts of column groups of a [FlowTableScan].
+ */
+class FlowRelMdDistinctRowCount : MetadataHandler<BuiltInMetadata.DistinctRowCount> {
+
+    @Deprecated("Required by MetadataHandler")
+    override fun getDef(): MetadataDef<BuiltInMetadata.DistinctRowCount> = BuiltInMetadata.DistinctRowCount.DEF
+
+    /**
+     * Combines the NDV estimates of [groupKey]'s columns (a null counts as one value), capped
+     * at the row count and reduced to the rows selected by [predicate]. Without statistics for
+     * every column, only groups proven unique by table keys are estimated, as Calcite does.
+     */
+    fun getDistinctRowCount(
+        scan: FlowTableScan,
+        mq: RelMetadataQuery,
+        groupKey: ImmutableBitSet,
+        predicate: RexNode?,
+    ): Double? {
+        val rowCount = mq.getRowCount(scan)
+        val distinct = FlowRelMetadata.estimator(scan)?.distinctCount(groupKey)
+        if (distinct == null) {
+            return if (RelMdUtil.areColumnsDefinitelyUnique(mq, scan, groupKey)) {
+                NumberUtil.multiply(rowCount, mq.getSelectivity(scan, predicate))
+            } else {
+                null
+            }
+        }
+        val domain = minOf(distinct, rowCount)
+        if (predicate == null || predicate.isAlwaysTrue) {
+            return domain
+        }
+        return RelMdUtil.numDistinctVals(domain, rowCount * (mq.getSelectivity(scan, predicate) ?: 1.0))
+    }
+}
+
+/**
+ * Estimates from the [ColumnStatistic]s of a table with [rowCount] rows.
+ *
+ * @param rowCount row count the statistics were collected over
+ * @param columns  statistics by scan field index; null for columns without statistics
+ */
+internal class ColumnStatisticEstimator(
+    private val rowCount: Double,
+    private val columns: List<ColumnStatistic?>,
+) {
+
+    /**
+     * Fraction of rows matching [predicate] on field [index], or null when unknown.
+     */
+    fun selectivity(index: Int, predicate: ScanPredicate): Double? {
+        val column = columns.getOrNull(index) ?: return null
+        if (rowCount <= 0.0) {
+            return null
+        }
+        val nulls = (column.nullCount / rowCount).coerceIn(0.0, 1.0)
+        val nonNull = 1.0 - nulls
+        val distinct = column.distinctCount?.takeIf { it > 0 }?.toDouble()
+        return when (predicate) {
+            is ScanPredicate.IsNull -> nulls
+            is ScanPredicate.IsNotNull -> nonNull
+            is ScanPredicate.In -> distinct?.let { nonNull * minOf(1.0, predicate.values.size / it) }
+            is ScanPredicate.Compare -> when (predicate.op) {
+                CompareOp.EQ -> distinct?.let { nonNull / it }
+                CompareOp.NE -> distinct?.let { nonNull * (1.0 - 1.0 / it) }
+                else -> rangeFraction(column, predicate.op, predicate.value)?.let { nonNull * it }
+            }
+        }
+    }
+
+    /**
+     * Product of the NDVs of [fields], each counting a null as one more value, or null when a
+     * field has no NDV estimate.
+     */
+    fun distinctCount(fields: ImmutableBitSet): Double? {
+        var product = 1.0
+        for (index in fields) {
+            val column = columns.getOrNull(index) ?: return null
+            val distinct = column.distinctCount ?: return null
+            product *= distinct + if (column.nullCount > 0) 1 else 0
+        }
+        return product
+    }
+
+    // linear interpolation between min and max; only numeric (and epoch-day) bounds are ordered here
+    private fun rangeFraction(column: ColumnStatistic, op: CompareOp, value: Any): Double? {
+        val min = (column.min as? Number)?.toDouble() ?: return null
+        val max = (column.max as? Number)?.toDouble() ?: return null
+        val literal = (value as? Number)?.toDouble() ?: return null
+        if (max <= min) {
+            return null
+        }
+        val below = ((literal - min) / (max - min)).coerceIn(0.0, 1.0)
+        return when (op) {
+            CompareOp.LT, CompareOp.LE -> below
+            CompareOp.GT, CompareOp.GE -> 1.0 - below
+            else -> null
+        }
+    }
+}
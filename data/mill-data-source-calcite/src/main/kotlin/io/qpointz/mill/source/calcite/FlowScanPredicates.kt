@@ -0,0 +1,121 @@
+package io.qpointz.mill.source.calcite
+
+import io.qpointz.mill.source.CompareOp
+import io.qpointz.mill.source.ScanPredicate
+import org.apache.calcite.plan.RelOptUtil
+import org.apache.calcite.rel.type.RelDataType
+import org.apache.calcite.rex.RexBuilder
+import org.apache.calcite.rex.RexCall
+import org.apache.calcite.rex.RexInputRef
+import org.apache.calcite.rex.RexLiteral
+import org.apache.calcite.rex.RexNode
+import org.apache.calcite.rex.RexUtil
+import org.apache.calcite.sql.SqlKind
+import org.apache.calcite.sql.type.SqlTypeName
+import java.math.BigDecimal
+
+/**
+ * Translates a Calcite filter condition into Mill [ScanPredicate] hints for [FlowTableScan].
+ *
+ * Only conjuncts of the shape `column op literal`, `column IS [NOT] NULL` and
+ * `column = l1 OR column = l2 ...` (including `SEARCH` / `IN` lists) on plain integer,
+ * `DOUBLE`, `VARCHAR`, `BOOLEAN` and `DATE` columns are translated; everything else is
+ * left to the [org.apache.calcite.rel.core.Filter], which always stays above the scan.
+ */
+object FlowScanPredicates {
+
+    /**
+     * Returns the translatable conjuncts of [condition].
+     *
+     * @param rexBuilder builder used to expand `SEARCH` calls
+     * @param condition filter condition over [rowType]
+     * @param rowType row type of the scanned table
+     */
+    @JvmStatic
+    fun translate(rexBuilder: RexBuilder, condition: RexNode, rowType: RelDataType): List<ScanPredicate> {
+        val expanded = RexUtil.expandSearch(rexBuilder, null, condition)
+        return RelOptUtil.conjunctions(expanded).mapNotNull { translateConjunct(it, rowType) }
+    }
+
+    private fun translateConjunct(node: RexNode, rowType: RelDataType): ScanPredicate? {
+        if (node !is RexCall) return null
+        return when (node.kind) {
+            SqlKind.EQUALS, SqlKind.NOT_EQUALS,
+            SqlKind.LESS_THAN, SqlKind.LESS_THAN_OR_EQUAL,
+            SqlKind.GREATER_THAN, SqlKind.GREATER_THAN_OR_EQUAL -> comparison(node, rowType)
+            SqlKind.IS_NULL -> columnName(node.operands[0], rowType)?.let { ScanPredicate.IsNull(it) }
+            SqlKind.IS_NOT_NULL -> columnName(node.operands[0], rowType)?.let { ScanPredicate.IsNotNull(it) }
+            SqlKind.OR -> inList(node, rowType)
+            else -> null
+        }
+    }
+
+    private fun comparison(call: RexCall, rowType: RelDataType): ScanPredicate.Compare? {
+        val op = COMPARE_OPS[call.kind] ?: return null
+        val (left, right) = call.operands
+        return when {
+            left is RexInputRef && right is RexLiteral -> compare(left, op, right, rowType)
+            left is RexLiteral && right is RexInputRef -> compare(right, op.flip(), left, rowType)
+            else -> null
+        }
+    }
+
+    private fun compare(ref: RexInputRef, op: CompareOp, literal: RexLiteral, rowType: RelDataType): ScanPredicate.Compare? {
+        val column = columnName(ref, rowType) ?: return null
+        val value = literalValue(literal, ref.type) ?: return null
+        return ScanPredicate.Compare(column, op, value)
+    }
+
+    private fun inList(call: RexCall, rowType: RelDataType): ScanPredicate.In? {
+        var ref: RexInputRef? = null
+        val values = mutableListOf<Any>()
+        for (disjunct in RelOptUtil.disjunctions(call)) {
+            val equals = comparison(disjunct as? RexCall ?: return null, rowType) ?: return null
+            if (disjunct.kind != SqlKind.EQUALS) return null
+            val operandRef = disjunct.operands.first { it is RexInputRef } as RexInputRef
+            if (ref != null && ref.index != operandRef.index) return null
+            ref = operandRef
+            values += equals.value
+        }
+        val column = ref?.let { columnName(it, rowType) } ?: return null
+        return ScanPredicate.In(column, values)
+    }
+
+    private fun columnName(node: RexNode, rowType: RelDataType): String? {
+        if (node !is RexInputRef || literalKind(node.type) == null) return null
+        return rowType.fieldList[node.index].name
+    }
+
+    private fun literalValue(literal: RexLiteral, columnType: RelDataType): Any? {
+        if (literal.isNull) return null
+        return when (literalKind(columnType)) {
+            LiteralKind.INTEGRAL -> literal.getValueAs(BigDecimal::class.java)
+                ?.let { runCatching { it.longValueExact() }.getOrNull() }
+            LiteralKind.DOUBLE -> literal.getValueAs(Double::class.javaObjectType)
+            LiteralKind.STRING -> literal.getValueAs(String::class.java)
+            LiteralKind.BOOLEAN -> literal.getValueAs(Boolean::class.javaObjectType)
+            LiteralKind.DATE -> literal.getValueAs(Int::class.javaObjectType)?.toLong()
+            null -> null
+        }?.takeIf { literal.type.sqlTypeName.family == columnType.sqlTypeName.family }
+    }
+
+    private enum class LiteralKind { INTEGRAL, DOUBLE, STRING, BOOLEAN, DATE }
+
+    private fun literalKind(type: RelDataType): LiteralKind? = when (type.sqlTypeName) {
+        SqlTypeName.TINYINT, SqlTypeName.SMALLINT, SqlTypeName.INTEGER, SqlTypeName.BIGINT -> LiteralKind.INTEGRAL
+        SqlTypeName.DOUBLE -> LiteralKind.DOUBLE
+        SqlTypeName.VARCHAR -> LiteralKind.STRING
+        SqlTypeName.BOOLEAN -> LiteralKind.BOOLEAN
+        SqlTypeName.DATE -> LiteralKind.DATE
+        else -> null
+    }
+
+    private val COMPARE_OPS = mapOf(
+        SqlKind.EQUALS to CompareOp.EQ,
+        SqlKind.NOT_EQUALS to CompareOp.NE,
+        SqlKind.LESS_THAN to CompareOp.LT,
+        SqlKind.LESS_THAN_OR_EQUAL to CompareOp.LE,
+        SqlKind.GREATER_THAN to CompareOp.GT,
+        SqlKind.GREATER_THAN_OR_EQUAL to CompareOp.GE,
+    )
+}
@@ -12,10 +12,13 @@ import org.apache.calcite.schema.impl.AbstractSchema
  *
  * **One resolved source = one Calcite schema.**
  *
+ * The resolved source can be [swap]ped when its listing is refreshed; queries planned
+ * before the swap keep reading the tables they resolved.
+ *
  * @property resolvedSource the resolved source whose tables form this schema
  */
 class FlowSchema(
-    private val resolvedSource: ResolvedSource
+    @Volatile private var resolvedSource: ResolvedSource
 ) : AbstractSchema() {
 
     override fun getTableMap(): Map<String, Table> {
@@ -37,4 +40,11 @@ class FlowSchema(
      * Useful for diagnostics or programmatic access.
      */
     fun resolvedSource(): ResolvedSource = resolvedSource
+
+    /**
+     * Atomically replaces the tables of this schema with those of [refreshed].
+     */
+    fun swap(refreshed: ResolvedSource) {
+        resolvedSource = refreshed
+    }
 }
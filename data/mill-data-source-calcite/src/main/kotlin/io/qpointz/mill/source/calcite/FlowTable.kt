@@ -1,5 +1,6 @@
 package io.qpointz.mill.source.calcite
 
+import io.qpointz.mill.source.RecordScanSpec
 import io.qpointz.mill.source.SourceTable
 import org.apache.calcite.DataContext
 import org.apache.calcite.linq4j.Enumerable
@@ -24,7 +25,8 @@ import org.apache.calcite.schema.impl.AbstractTable
  *   after [FlowTableScan] is converted to [org.apache.calcite.adapter.enumerable.EnumerableTableScan].
  *
  * Filter and project pushdown are **not** on this class; they attach to [FlowTableScan]
- * via planner rules.
+ * via planner rules, and [EnumerableFlowTableScan] passes the resulting [RecordScanSpec]
+ * to [scan] with a spec argument.
  *
  * @property sourceTable underlying Mill source (possibly multi-file)
  */
@@ -78,4 +80,14 @@ class FlowTable(
      */
     override fun scan(root: DataContext): Enumerable<Array<Any?>> =
         SourceTableScan(sourceTable).scan()
+
+    /**
+     * Row-oriented scan with a pushed [RecordScanSpec], called from code generated by
+     * [EnumerableFlowTableScan].
+     *
+     * @param root Calcite execution context
+     * @param spec projected columns and predicate hints pushed by planner rules
+     */
+    fun scan(root: DataContext, spec: RecordScanSpec): Enumerable<Array<Any?>> =
+        SourceTableScan(sourceTable).scan(spec)
 }
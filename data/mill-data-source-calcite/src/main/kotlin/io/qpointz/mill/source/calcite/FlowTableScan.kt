@@ -1,14 +1,19 @@
 package io.qpointz.mill.source.calcite
 
+import io.qpointz.mill.source.RecordScanSpec
 import org.apache.calcite.plan.Convention
 import org.apache.calcite.plan.RelOptCluster
+import org.apache.calcite.plan.RelOptCost
 import org.apache.calcite.plan.RelOptPlanner
 import org.apache.calcite.plan.RelOptTable
 import org.apache.calcite.plan.RelTraitSet
 import org.apache.calcite.rel.RelNode
+import org.apache.calcite.rel.RelWriter
 import org.apache.calcite.rel.core.TableScan
 import org.apache.calcite.rel.hint.RelHint
 import org.apache.calcite.rel.metadata.RelMetadataQuery
+import org.apache.calcite.rel.type.RelDataType
+import org.apache.calcite.rel.type.RelDataTypeFactory
 
 /**
  * Logical table-scan [RelNode] for Mill Flow tables.
@@ -17,34 +22,58 @@ import org.apache.calcite.rel.metadata.RelMetadataQuery
  * [Convention.NONE]; enumerable conversion rules later call [copy] with
  * [org.apache.calcite.adapter.enumerable.EnumerableConvention].
  *
- * Optional pushed filter and project field indices may be added on this node later.
+ * [FlowFilterPushdownRule] attaches predicate hints as [scanSpec]; the filter itself stays
+ * above the scan because sources only use the hints to skip data. [FlowProjectPushdownRule]
+ * narrows the scan to the referenced columns: the row type then only holds
+ * [RecordScanSpec.columns], in table order.
  *
  * @param cluster planner cluster shared by the surrounding [RelNode] tree
  * @param traitSet traits for this scan (logical: [Convention.NONE])
  * @param hints table hints from the active [RelOptTable.ToRelContext]
  * @param table Calcite table handle wrapping the [FlowTable] being scanned
+ * @property scanSpec pushed columns and predicate hints (full scan by default)
  */
 class FlowTableScan(
     cluster: RelOptCluster,
     traitSet: RelTraitSet,
     hints: List<RelHint>,
     table: RelOptTable,
+    val scanSpec: RecordScanSpec = RecordScanSpec.FULL,
 ) : TableScan(cluster, traitSet, hints, table) {
 
     /**
      * Clones this scan when the planner changes traits (e.g. NONE → ENUMERABLE).
      *
-     * Table scans have no inputs; only [traitSet] may change. Pushdown rules
-     * will extend this to copy additional pushed state on new instances.
+     * Table scans have no inputs; only [traitSet] may change. The pushed [scanSpec]
+     * is carried over.
      *
      * @param traitSet new trait set assigned by the planner or a converter rule
      * @param inputs child nodes (must be empty for a scan)
      */
     override fun copy(traitSet: RelTraitSet, inputs: List<RelNode>): RelNode {
         require(inputs.isEmpty()) { "FlowTableScan must have no inputs" }
-        return FlowTableScan(cluster, traitSet, hints, table)
+        return FlowTableScan(cluster, traitSet, hints, table, scanSpec)
     }
 
+    /**
+     * Returns a copy of this scan carrying [spec].
+     */
+    fun withScanSpec(spec: RecordScanSpec): FlowTableScan =
+        FlowTableScan(cluster, traitSet, hints, table, spec)
+
+    override fun deriveRowType(): RelDataType =
+        projectRowType(table.rowType, scanSpec, cluster.typeFactory)
+
+    override fun explainTerms(pw: RelWriter): RelWriter =
+        explainSpec(super.explainTerms(pw), scanSpec)
+
+    /**
+     * Discounts scans with pushed columns or predicates so that the planner prefers them over
+     * the equivalent full scan; row estimates are unchanged since the filter stays above.
+     */
+    override fun computeSelfCost(planner: RelOptPlanner, mq: RelMetadataQuery): RelOptCost? =
+        super.computeSelfCost(planner, mq)?.multiplyBy(costFactor(table, scanSpec))
+
     /**
      * Row estimate for join costing and hash build-side selection (WI-315).
      *
@@ -62,8 +91,36 @@ class FlowTableScan(
     }
 
     companion object {
+        /** Cost factor of a scan with pushed predicates relative to a full scan. */
+        const val PUSHDOWN_COST_FACTOR = 0.9
+
+        /**
+         * Row type of a scan over [tableRowType] reading [spec]'s columns, in table order.
+         */
+        @JvmStatic
+        fun projectRowType(tableRowType: RelDataType, spec: RecordScanSpec, typeFactory: RelDataTypeFactory): RelDataType {
+            val columns = spec.columns ?: return tableRowType
+            return typeFactory.createStructType(tableRowType.fieldList.filter { it.name in columns })
+        }
+
+        /**
+         * Relative cost of reading [spec] from [table]: proportional to the projected column
+         * count, discounted by [PUSHDOWN_COST_FACTOR] when predicates are pushed.
+         */
+        @JvmStatic
+        fun costFactor(table: RelOptTable, spec: RecordScanSpec): Double {
+            val total = table.rowType.fieldCount
+            val read = spec.columns?.size ?: total
+            val columnFactor = (read + 2.0) / (total + 2.0)
+            return if (spec.predicates.isEmpty()) columnFactor else columnFactor * PUSHDOWN_COST_FACTOR
+        }
+
+        internal fun explainSpec(pw: RelWriter, spec: RecordScanSpec): RelWriter =
+            pw.itemIf("columns", spec.columns, spec.columns != null)
+                .itemIf("predicates", spec.predicates, spec.predicates.isNotEmpty())
+
         /**
-         * Factory used from [FlowTable.toRel].
+         * Factory used from [FlowTable.toRel]; installs [FlowRelMetadata] on the cluster.
          *
          * @param context planner to-rel context supplying cluster and table hints
          * @param relOptTable table being scanned
@@ -71,6 +128,7 @@ class FlowTableScan(
         @JvmStatic
         fun create(context: RelOptTable.ToRelContext, relOptTable: RelOptTable): FlowTableScan {
             val cluster = context.cluster
+            FlowRelMetadata.install(cluster)
             return FlowTableScan(
                 cluster,
                 cluster.traitSetOf(Convention.NONE),
@@ -83,8 +141,11 @@ class FlowTableScan(
     /**
      * Registers planner rules the first time this [RelNode] class is seen.
      *
+     * [FlowFilterPushdownRule] and [FlowProjectPushdownRule] attach filter predicates and
+     * referenced columns to the scan, and
      * [FlowTableScanToEnumerableRule] bridges logical scans to
-     * [org.apache.calcite.adapter.enumerable.EnumerableTableScan]. [FlowEnumerableRuleSets]
+     * [org.apache.calcite.adapter.enumerable.EnumerableTableScan] (or [EnumerableFlowTableScan]
+     * when columns or predicates were pushed). [FlowEnumerableRuleSets]
      * supplies the remaining enumerable physical rules (hash join, filter, project, etc.) with
      * merge join excluded for unsorted file scans.
      *
@@ -93,6 +154,9 @@ class FlowTableScan(
      * [FlowRelPlannerRules.registerRulesFromRelTree] to apply the same rules.
      */
     override fun register(planner: RelOptPlanner) {
+        planner.addRule(FlowFilterPushdownRule.INSTANCE)
+        planner.addRule(FlowProjectPushdownRule.PROJECT_SCAN)
+        planner.addRule(FlowProjectPushdownRule.PROJECT_FILTER_SCAN)
         planner.addRule(FlowTableScanToEnumerableRule.INSTANCE)
         FlowEnumerableRuleSets.register(planner)
     }
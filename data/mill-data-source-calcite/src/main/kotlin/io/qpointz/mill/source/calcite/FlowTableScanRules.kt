@@ -3,8 +3,18 @@ package io.qpointz.mill.source.calcite
 import org.apache.calcite.adapter.enumerable.EnumerableConvention
 import org.apache.calcite.adapter.enumerable.EnumerableTableScan
 import org.apache.calcite.plan.Convention
+import org.apache.calcite.plan.RelOptRule
+import org.apache.calcite.plan.RelOptRuleCall
+import org.apache.calcite.plan.RelOptRuleOperand
+import org.apache.calcite.plan.RelOptUtil
 import org.apache.calcite.rel.RelNode
 import org.apache.calcite.rel.convert.ConverterRule
+import org.apache.calcite.rel.logical.LogicalFilter
+import org.apache.calcite.rel.logical.LogicalProject
+import org.apache.calcite.rex.RexInputRef
+import org.apache.calcite.rex.RexNode
+import org.apache.calcite.rex.RexShuttle
+import org.apache.calcite.util.ImmutableBitSet
 
 class FlowTableScanToEnumerableRule private constructor(
     config:Config
@@ -13,6 +23,9 @@ class FlowTableScanToEnumerableRule private constructor(
     override fun convert(rel: RelNode?): RelNode? {
         val scan = rel as FlowTableScan
         val table = scan.table
+        if (!scan.scanSpec.isFullScan) {
+            return EnumerableFlowTableScan.create(scan)
+        }
         return if (EnumerableTableScan.canHandle(table)) EnumerableTableScan.create(scan.cluster, table) else null
     }
 
@@ -32,4 +45,95 @@ class FlowTableScanToEnumerableRule private constructor(
 
     }
 
-}
\ No newline at end of file
+}
+
+/**
+ * Pushes the translatable part of a [LogicalFilter] condition into the [FlowTableScan] below it.
+ *
+ * The filter is kept: pushed [io.qpointz.mill.source.ScanPredicate]s are hints that let sources
+ * skip row groups, pages or files, not exact row filters. The rule fires once per scan; scans
+ * that already carry predicates are left alone.
+ */
+@Suppress("DEPRECATION")
+class FlowFilterPushdownRule private constructor() : RelOptRule(
+    operand(LogicalFilter::class.java, operand(FlowTableScan::class.java, none())),
+    "FlowFilterPushdownRule",
+) {
+
+    override fun onMatch(call: RelOptRuleCall) {
+        val filter = call.rel<LogicalFilter>(0)
+        val scan = call.rel<FlowTableScan>(1)
+        if (scan.scanSpec.predicates.isNotEmpty()) return
+
+        val predicates = FlowScanPredicates.translate(filter.cluster.rexBuilder, filter.condition, scan.rowType)
+        if (predicates.isEmpty()) return
+
+        val pushed = scan.withScanSpec(scan.scanSpec.copy(predicates = predicates))
+        call.transformTo(filter.copy(filter.traitSet, pushed, filter.condition))
+    }
+
+    companion object {
+        @JvmField
+        val INSTANCE = FlowFilterPushdownRule()
+    }
+}
+
+/**
+ * Narrows a [FlowTableScan] to the columns referenced by the [LogicalProject] above it
+ * (and by an intermediate [LogicalFilter]), so that sources read and materialize only those.
+ *
+ * The projected scan exposes the referenced columns in table order; input references of the
+ * project and filter are renumbered accordingly. When nothing is referenced (e.g. `COUNT(*)`)
+ * the first column is kept so that rows are still produced.
+ */
+@Suppress("DEPRECATION")
+class FlowProjectPushdownRule private constructor(
+    operand: RelOptRuleOperand,
+    description: String,
+) : RelOptRule(operand, description) {
+
+    override fun onMatch(call: RelOptRuleCall) {
+        val project = call.rel<LogicalProject>(0)
+        val filter = if (call.rels.size == 3) call.rel<LogicalFilter>(1) else null
+        val scan = call.rel<FlowTableScan>(call.rels.size - 1)
+        if (scan.scanSpec.columns != null) return
+
+        val fieldCount = scan.rowType.fieldCount
+        val used = RelOptUtil.InputFinder.bits(project.projects, filter?.condition)
+            .let { if (it.isEmpty) ImmutableBitSet.of(0) else it }
+        if (used.cardinality() >= fieldCount) return
+
+        val names = scan.rowType.fieldNames
+        val positions = IntArray(fieldCount) { -1 }
+        used.forEachIndexed { position, index -> positions[index] = position }
+        val renumber = object : RexShuttle() {
+            override fun visitInputRef(inputRef: RexInputRef): RexNode =
+                RexInputRef(positions[inputRef.index], inputRef.type)
+        }
+
+        var input: RelNode = scan.withScanSpec(scan.scanSpec.copy(columns = used.mapTo(LinkedHashSet()) { names[it] }))
+        if (filter != null) {
+            input = filter.copy(filter.traitSet, input, filter.condition.accept(renumber))
+        }
+        call.transformTo(project.copy(project.traitSet, input, project.projects.map { it.accept(renumber) }, project.rowType))
+    }
+
+    companion object {
+        /** `Project(FlowTableScan)`. */
+        @JvmField
+        val PROJECT_SCAN = FlowProjectPushdownRule(
+            operand(LogicalProject::class.java, operand(FlowTableScan::class.java, none())),
+            "FlowProjectPushdownRule:project",
+        )
+
+        /** `Project(Filter(FlowTableScan))`. */
+        @JvmField
+        val PROJECT_FILTER_SCAN = FlowProjectPushdownRule(
+            operand(
+                LogicalProject::class.java,
+                operand(LogicalFilter::class.java, operand(FlowTableScan::class.java, none())),
+            ),
+            "FlowProjectPushdownRule:project_filter",
+        )
+    }
+}
@@ -1,5 +1,6 @@
 package io.qpointz.mill.source.calcite
 
+import io.qpointz.mill.source.statistics.ColumnStatistic
 import io.qpointz.mill.source.statistics.SourceTableStatisticProviders
 import org.apache.calcite.schema.Statistic
 import org.apache.calcite.schema.Statistics
@@ -12,6 +13,12 @@ internal object FlowTableStatistics {
 
     /**
      * Builds Calcite statistics from wired slice providers on a [io.qpointz.mill.source.SourceTable].
+     *
+     * Row counts come from format metadata or from stored blob statistics; the latter stay
+     * [Statistics.UNKNOWN] until background collection has covered every blob of the table and
+     * are picked up by later planning. Column statistics are not mapped here: Calcite's
+     * [Statistic] carries no per-column values, and sketch-based NDVs cannot prove the
+     * uniqueness keys imply. [FlowRelMetadata] feeds them to the planner instead.
      */
     fun toCalciteStatistic(providers: SourceTableStatisticProviders): Statistic {
         val rowCount = providers.recordStatistic()
@@ -26,4 +33,12 @@ internal object FlowTableStatistics {
 
         return Statistics.of(rowCount.toDouble(), keys)
     }
+
+    /**
+     * Column statistics by column name from wired slice providers, or null while unknown.
+     */
+    fun columnStatistics(providers: SourceTableStatisticProviders): Map<String, ColumnStatistic>? =
+        providers.columnStatistic()
+            .map { it.columnStatistics() }
+            .orElse(null)
 }
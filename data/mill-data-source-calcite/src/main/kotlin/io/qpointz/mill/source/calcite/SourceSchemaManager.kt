@@ -1,11 +1,22 @@
 package io.qpointz.mill.source.calcite
 
+import io.qpointz.mill.source.BlobListing
+import io.qpointz.mill.source.BlobPath
+import io.qpointz.mill.source.LocalBlobSource
+import io.qpointz.mill.source.LocalBlobWatcher
+import io.qpointz.mill.source.RefreshOptions
 import io.qpointz.mill.source.ResolvedSource
 import io.qpointz.mill.source.SourceResolver
 import io.qpointz.mill.source.descriptor.SourceDescriptor
+import io.qpointz.mill.source.factory.MaterializedSource
 import io.qpointz.mill.source.factory.SourceMaterializer
 import org.apache.calcite.schema.SchemaPlus
+import org.slf4j.LoggerFactory
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
 
 /**
  * Manages multiple named [FlowSchema] instances and their lifecycle.
@@ -16,6 +27,13 @@ import java.util.concurrent.ConcurrentHashMap
  *
  * Thread-safe: internal state is protected by a [ConcurrentHashMap].
  *
+ * With [autoRefresh] enabled, sources whose descriptor configures `refresh` are re-listed
+ * on their interval and, for local storage with `watch`, on file-system events. Each
+ * refresh rebuilds only the tables whose blobs changed and [FlowSchema.swap]s them in;
+ * queries already planned keep their tables. A configured snapshot file stores the last
+ * listing so that a restart resolves from it and re-lists in the background. [refresh]
+ * triggers a re-listing on demand.
+ *
  * ```kotlin
  * val manager = SourceSchemaManager()
  * manager.add(airlineDescriptor)
@@ -30,17 +48,44 @@ import java.util.concurrent.ConcurrentHashMap
  * ```
  *
  * @param materializer the materializer used to create runtime components from descriptors
+ * @param autoRefresh  keep listings of sources with a `refresh` configuration current
  */
-class SourceSchemaManager(
-    private val materializer: SourceMaterializer = SourceMaterializer()
+class SourceSchemaManager @JvmOverloads constructor(
+    private val materializer: SourceMaterializer = SourceMaterializer(),
+    private val autoRefresh: Boolean = false
 ) : AutoCloseable {
 
     private val schemas = ConcurrentHashMap<String, ManagedEntry>()
 
-    private data class ManagedEntry(
-        val schema: FlowSchema,
-        val resolvedSource: ResolvedSource
-    )
+    private val versionCounter = AtomicLong()
+
+    /**
+     * Catalog version: increases whenever a schema is added, replaced or removed, or a
+     * refresh swaps in changed tables, so plan and facet caches can drop stale entries.
+     */
+    val version: Long get() = versionCounter.get()
+
+    private val schedulerDelegate = lazy<ScheduledExecutorService> {
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("mill-source-refresh").daemon(true).factory()
+        )
+    }
+    private val scheduler by schedulerDelegate
+
+    private class ManagedEntry(val schema: FlowSchema) {
+        /** Serializes refreshes of this entry. */
+        val refreshLock = Any()
+
+        /** Scheduled refreshes and watchers, closed with the entry. */
+        val triggers = mutableListOf<AutoCloseable>()
+
+        val resolvedSource: ResolvedSource get() = schema.resolvedSource()
+
+        fun close() {
+            triggers.forEach { closeQuietly(it) }
+            closeQuietly(resolvedSource)
+        }
+    }
 
     /**
      * Creates and registers a [FlowSchema] from a [SourceDescriptor].
@@ -49,14 +94,113 @@ class SourceSchemaManager(
      * If a schema with that name already exists, it is replaced and the
      * previous resolved source is closed.
      *
+     * With [autoRefresh] and a `refresh` configuration, the source is resolved from its
+     * snapshot file when one exists, and refreshing starts.
+     *
      * @param descriptor the source descriptor
      * @return the created [FlowSchema]
      */
     fun add(descriptor: SourceDescriptor): FlowSchema {
         val materialized = materializer.materialize(descriptor)
-        val tables = SourceResolver.resolve(materialized)
-        val resolved = ResolvedSource(materialized, tables)
-        return add(descriptor.name, resolved)
+        val options = materialized.refresh
+        val refreshing = autoRefresh && options.isEnabled
+        val restored = if (refreshing) {
+            options.snapshotFile?.let { BlobListing.load(it, materialized.blobSource) }
+        } else {
+            null
+        }
+        val fromSnapshot = restored?.let { resolveRestored(descriptor.name, materialized, it) }
+        val resolved = fromSnapshot
+            ?: SourceResolver.resolveSource(materialized, SourceResolver.listBlobs(materialized))
+        if (refreshing && fromSnapshot == null) {
+            saveSnapshot(descriptor.name, resolved)
+        }
+        val schema = add(descriptor.name, resolved)
+        if (refreshing) {
+            startRefresh(descriptor.name, options, fromSnapshot != null)
+        }
+        return schema
+    }
+
+    /**
+     * Resolves from a persisted listing; `null` when it is too stale to resolve (e.g. it
+     * names deleted blobs), so that the caller lists the storage instead.
+     */
+    private fun resolveRestored(name: String, materialized: MaterializedSource, blobs: List<BlobPath>): ResolvedSource? =
+        try {
+            SourceResolver.resolveSource(materialized, blobs)
+        } catch (e: Exception) {
+            log.info("Listing snapshot of source '{}' is stale; listing the storage", name, e)
+            null
+        }
+
+    /**
+     * Re-lists the storage of schema [name] and swaps in the tables whose blobs changed.
+     *
+     * @param name the schema name
+     * @return `true` if the listing or the version of a listed blob changed, `false` if
+     *         nothing changed or no schema with that name exists
+     */
+    fun refresh(name: String): Boolean {
+        val entry = schemas[name] ?: return false
+        synchronized(entry.refreshLock) {
+            val current = entry.resolvedSource
+            val blobs = SourceResolver.listBlobs(current.materialized)
+            val versions = BlobListing.versions(current.materialized.blobSource, blobs)
+            val changes = BlobListing.diff(current.blobs, blobs, current.versions, versions)
+            if (changes.isEmpty) {
+                return false
+            }
+            val refreshed = SourceResolver.refresh(current, blobs, versions)
+            entry.schema.swap(refreshed)
+            versionCounter.incrementAndGet()
+            log.info("Source '{}' refreshed: {} blob(s) added, {} removed, {} changed, {} table(s)",
+                name, changes.added.size, changes.removed.size, changes.changed.size, refreshed.tables.size)
+            saveSnapshot(name, refreshed)
+            return true
+        }
+    }
+
+    private fun refreshQuietly(name: String) {
+        try {
+            refresh(name)
+        } catch (e: Exception) {
+            log.warn("Refreshing source '{}' failed; keeping its current tables", name, e)
+        }
+    }
+
+    private fun startRefresh(name: String, options: RefreshOptions, restored: Boolean) {
+        val entry = schemas[name] ?: return
+        val interval = options.interval
+        if (interval != null) {
+            val task = scheduler.scheduleWithFixedDelay(
+                { refreshQuietly(name) }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS
+            )
+            entry.triggers += AutoCloseable { task.cancel(false) }
+        }
+        if (options.watch) {
+            val blobSource = entry.resolvedSource.materialized.blobSource
+            if (blobSource is LocalBlobSource) {
+                entry.triggers += LocalBlobWatcher(blobSource.rootPath) {
+                    scheduler.execute { refreshQuietly(name) }
+                }
+            } else {
+                log.warn("Source '{}': 'watch' requires local storage; only the refresh interval applies", name)
+            }
+        }
+        if (restored) {
+            // the snapshot may be stale; catch up in the background
+            scheduler.execute { refreshQuietly(name) }
+        }
+    }
+
+    private fun saveSnapshot(name: String, resolved: ResolvedSource) {
+        val file = resolved.materialized.refresh.snapshotFile ?: return
+        try {
+            BlobListing.save(file, resolved.blobs)
+        } catch (e: Exception) {
+            log.warn("Cannot save the listing of source '{}' to {}", name, file, e)
+        }
     }
 
     /**
@@ -71,15 +215,10 @@ class SourceSchemaManager(
      */
     fun add(name: String, resolvedSource: ResolvedSource): FlowSchema {
         val schema = FlowSchema(resolvedSource)
-        val entry = ManagedEntry(schema, resolvedSource)
+        val entry = ManagedEntry(schema)
         val previous = schemas.put(name, entry)
-        if (previous != null) {
-            try {
-                previous.resolvedSource.close()
-            } catch (_: Exception) {
-                // ignore close failures on replaced entry
-            }
-        }
+        versionCounter.incrementAndGet()
+        previous?.close()
         return schema
     }
 
@@ -93,11 +232,8 @@ class SourceSchemaManager(
      */
     fun remove(name: String): Boolean {
         val entry = schemas.remove(name) ?: return false
-        try {
-            entry.resolvedSource.close()
-        } catch (_: Exception) {
-            // ignore close failures
-        }
+        versionCounter.incrementAndGet()
+        entry.close()
         return true
     }
 
@@ -135,14 +271,26 @@ class SourceSchemaManager(
     }
 
     /**
-     * Closes all managed resolved sources and clears the manager.
+     * Stops refreshing, closes all managed resolved sources and clears the manager.
      */
     override fun close() {
         val entries = schemas.values.toList()
         schemas.clear()
+        entries.forEach { entry -> entry.triggers.forEach { closeQuietly(it) } }
+        if (schedulerDelegate.isInitialized()) {
+            scheduler.shutdownNow()
+        }
         for (entry in entries) {
+            closeQuietly(entry.resolvedSource)
+        }
+    }
+
+    private companion object {
+        private val log = LoggerFactory.getLogger(SourceSchemaManager::class.java)
+
+        private fun closeQuietly(closeable: AutoCloseable) {
             try {
-                entry.resolvedSource.close()
+                closeable.close()
             } catch (_: Exception) {
                 // ignore close failures
             }
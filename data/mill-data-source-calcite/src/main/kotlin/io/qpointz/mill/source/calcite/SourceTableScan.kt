@@ -1,16 +1,19 @@
 package io.qpointz.mill.source.calcite
 
+import io.qpointz.mill.source.RecordScanSpec
+import io.qpointz.mill.source.ScanMetrics
 import io.qpointz.mill.source.SourceTable
 import org.apache.calcite.linq4j.AbstractEnumerable
 import org.apache.calcite.linq4j.Enumerable
 import org.apache.calcite.linq4j.Enumerator
+import org.slf4j.LoggerFactory
 
 /**
  * Mill-native row iterator that materializes [io.qpointz.mill.source.Record]s as Calcite `Object[]` rows.
  *
  * Shared by [FlowTable.scan]. Each output row follows
- * [io.qpointz.mill.source.RecordSchema] field order. Optional column projection
- * may be added before record materialization.
+ * [io.qpointz.mill.source.RecordSchema] field order, restricted to the projected columns
+ * of a [RecordScanSpec] when one is given.
  *
  * @property sourceTable Mill table whose [SourceTable.records] are iterated
  */
@@ -24,12 +27,22 @@ class SourceTableScan(
      * Closes the underlying record iterator when enumeration completes or when
      * the [Enumerator] is closed and the iterator implements [AutoCloseable].
      */
-    fun scan(): Enumerable<Array<Any?>> {
-        val schema = sourceTable.schema
-        val fieldNames = schema.fieldNames
+    fun scan(): Enumerable<Array<Any?>> = scan(RecordScanSpec.FULL)
+
+    /**
+     * Returns an [Enumerable] of rows read with [spec] pushed to the source table.
+     *
+     * Rows hold the spec's columns in schema order (all columns when it has none). Pruning
+     * counters of each enumeration are added to [ScanMetrics.TOTALS] when it is closed.
+     *
+     * @param spec projected columns and predicate hints for [SourceTable.records]
+     */
+    fun scan(spec: RecordScanSpec): Enumerable<Array<Any?>> {
+        val fieldNames = sourceTable.schema.project(spec.columns).fieldNames
         return object : AbstractEnumerable<Array<Any?>>() {
             override fun enumerator(): Enumerator<Array<Any?>> {
-                val records = sourceTable.records().iterator()
+                val metrics = if (spec.isFullScan) null else ScanMetrics()
+                val records = (if (metrics == null) sourceTable.records() else sourceTable.records(spec, metrics)).iterator()
 
                 return object : Enumerator<Array<Any?>> {
                     private var current: Array<Any?> = emptyArray()
@@ -58,9 +71,18 @@ class SourceTableScan(
                         if (records is AutoCloseable) {
                             records.close()
                         }
+                        if (metrics != null) {
+                            val snapshot = metrics.snapshot()
+                            ScanMetrics.TOTALS.add(snapshot)
+                            log.debug("Scan with {} finished: {}", spec.predicates, snapshot)
+                        }
                     }
                 }
             }
         }
     }
+
+    private companion object {
+        private val log = LoggerFactory.getLogger(SourceTableScan::class.java)
+    }
 }
@@ -1,5 +1,11 @@
 package io.qpointz.mill.source.calcite
 
+import io.qpointz.mill.source.CompareOp
+import io.qpointz.mill.source.Record
+import io.qpointz.mill.source.RecordScanSpec
+import io.qpointz.mill.source.ScanMetrics
+import io.qpointz.mill.source.ScanPredicate
+import io.qpointz.mill.source.SourceTable
 import io.qpointz.mill.test.data.calcite.RelOptTestSupport
 import org.apache.calcite.jdbc.CalciteConnection
 import org.apache.calcite.plan.Convention
@@ -24,8 +30,8 @@ import org.junit.jupiter.api.Test
  * Planner contract tests for [FlowTableScan].
  *
  * Covers logical [FlowTableScan] (`Convention.NONE`), enumerable conversion to
- * [EnumerableTableScan], and the current filter placement above the scan (before
- * filter/project pushdown lands).
+ * [EnumerableTableScan] for full scans and to [EnumerableFlowTableScan] once filter
+ * predicates or projected columns are pushed (the filter itself stays above the scan).
  *
  * Use quoted identifiers in SQL (`"users"`, `"id"`) — Calcite folds unquoted names to uppercase.
  */
@@ -101,11 +107,11 @@ class FlowTableScanPlannerTest {
 
   @Test
   fun shouldConvertToEnumerableTableScan_whenPreparedForExecution() {
-    val logical = planSql(SELECT_ID_FROM_USERS)
+    val logical = planSql(SELECT_ALL_FROM_USERS)
     RelOptTestSupport.logPlan("shouldConvertToEnumerableTableScan_whenPreparedForExecution (logical)", logical)
     connection.unwrap(RelRunner::class.java).prepareStatement(logical).close()
 
-    val explain = explainPlanFor(SELECT_ID_FROM_USERS)
+    val explain = explainPlanFor(SELECT_ALL_FROM_USERS)
     RelOptTestSupport.logExplain("shouldConvertToEnumerableTableScan_whenPreparedForExecution", explain)
     assertTrue(
       explain.contains("EnumerableTableScan"),
@@ -117,6 +123,103 @@ class FlowTableScanPlannerTest {
     )
   }
 
+  @Test
+  fun shouldPushFilterPredicatesIntoScan_whenExecuted() {
+    val specs = mutableListOf<RecordScanSpec>()
+    reopenWith(recordingSourceTable(specs))
+
+    val explain = explainPlanFor(SELECT_NAME_WHERE_ID_RANGE)
+    RelOptTestSupport.logExplain("shouldPushFilterPredicatesIntoScan_whenExecuted", explain)
+    assertTrue(explain.contains("EnumerableFlowTableScan"), explain)
+    assertTrue(explain.contains("EnumerableFilter") || explain.contains("EnumerableCalc"), explain)
+
+    val names = connection.createStatement().use { statement ->
+      statement.executeQuery(SELECT_NAME_WHERE_ID_RANGE).use { rs ->
+        buildList { while (rs.next()) add(rs.getString(1)) }
+      }
+    }
+
+    assertEquals(listOf("Bob", "Carol"), names.sorted())
+    assertEquals(
+      setOf(
+        ScanPredicate.Compare("id", CompareOp.GE, 2L),
+        ScanPredicate.IsNotNull("name"),
+      ),
+      specs.single().predicates.toSet(),
+    )
+    assertEquals(setOf("id", "name"), specs.single().columns)
+  }
+
+  @Test
+  fun shouldPushProjectedColumnsIntoScan_whenExecuted() {
+    val specs = mutableListOf<RecordScanSpec>()
+    reopenWith(recordingSourceTable(specs))
+
+    val sql = """SELECT "active", "name" FROM "users""""
+    val explain = explainPlanFor(sql)
+    RelOptTestSupport.logExplain("shouldPushProjectedColumnsIntoScan_whenExecuted", explain)
+    assertTrue(explain.contains("EnumerableFlowTableScan"), explain)
+
+    val rows = connection.createStatement().use { statement ->
+      statement.executeQuery(sql).use { rs ->
+        buildList { while (rs.next()) add(rs.getString(2) to rs.getBoolean(1)) }
+      }
+    }
+
+    assertEquals(listOf("Alice" to true, "Bob" to false, "Carol" to true), rows.sortedBy { it.first })
+    assertEquals(RecordScanSpec(columns = setOf("name", "active")), specs.single())
+  }
+
+  @Test
+  fun shouldKeepOneColumn_whenNoColumnReferenced() {
+    val specs = mutableListOf<RecordScanSpec>()
+    reopenWith(recordingSourceTable(specs))
+
+    val count = connection.createStatement().use { statement ->
+      statement.executeQuery("""SELECT COUNT(*) FROM "users"""").use { rs ->
+        rs.next()
+        rs.getLong(1)
+      }
+    }
+
+    assertEquals(3L, count)
+    assertEquals(1, specs.size)
+    assertEquals(setOf("id"), specs.single().columns)
+  }
+
+  @Test
+  fun shouldPushOnlyColumns_whenFilterNotTranslatable() {
+    val specs = mutableListOf<RecordScanSpec>()
+    reopenWith(recordingSourceTable(specs))
+
+    val sql = """SELECT "name" FROM "users" WHERE "id" + 1 = 3"""
+    val names = connection.createStatement().use { statement ->
+      statement.executeQuery(sql).use { rs ->
+        buildList { while (rs.next()) add(rs.getString(1)) }
+      }
+    }
+
+    assertEquals(listOf("Bob"), names)
+    assertEquals(RecordScanSpec(columns = setOf("id", "name")), specs.single())
+  }
+
+  private fun reopenWith(table: SourceTable) {
+    connection.close()
+    val opened = FlowCalciteTestFixtures.openCalciteConnection(tables = mapOf("users" to table))
+    connection = opened.first
+    rootSchema = opened.second
+  }
+
+  private fun recordingSourceTable(specs: MutableList<RecordScanSpec>): SourceTable {
+    val delegate = FlowCalciteTestFixtures.inMemorySourceTable()
+    return object : SourceTable by delegate {
+      override fun records(spec: RecordScanSpec, metrics: ScanMetrics): Iterable<Record> {
+        specs += spec
+        return delegate.records()
+      }
+    }
+  }
+
   private fun frameworkConfig() =
     FlowCalciteTestFixtures.frameworkConfig(rootSchema)
 
@@ -147,7 +250,10 @@ class FlowTableScanPlannerTest {
 
   companion object {
     private const val SELECT_ID_FROM_USERS = """SELECT "id" FROM "users""""
+    private const val SELECT_ALL_FROM_USERS = """SELECT * FROM "users""""
     private const val SELECT_NAME_WHERE_ID =
       """SELECT "name" FROM "users" WHERE "id" = 2"""
+    private const val SELECT_NAME_WHERE_ID_RANGE =
+      """SELECT "name" FROM "users" WHERE "id" >= 2 AND "name" IS NOT NULL"""
   }
 }
@@ -2,8 +2,12 @@ package io.qpointz.mill.source.calcite
 
 import io.qpointz.mill.source.Record
 import io.qpointz.mill.source.RecordSchema
+import io.qpointz.mill.source.ScanPredicate
 import io.qpointz.mill.source.SourceResolver
 import io.qpointz.mill.source.SourceTable
+import io.qpointz.mill.source.statistics.ColumnStatistic
+import io.qpointz.mill.source.statistics.ColumnStatisticProvider
+import io.qpointz.mill.source.statistics.HyperLogLog
 import io.qpointz.mill.source.statistics.RecordStatistic
 import io.qpointz.mill.source.statistics.RecordStatisticProvider
 import io.qpointz.mill.source.statistics.SourceTableStatisticProviders
@@ -12,6 +16,7 @@ import io.qpointz.mill.test.data.skymill.SkymillDataset
 import io.qpointz.mill.test.data.skymill.SkymillTestFixtures
 import io.qpointz.mill.types.sql.DatabaseType
 import io.qpointz.mill.vectors.VectorBlockIterator
+import org.apache.calcite.rel.logical.LogicalFilter
 import org.apache.calcite.schema.Statistics
 import org.apache.calcite.tools.Frameworks
 import org.apache.calcite.util.ImmutableBitSet
@@ -67,6 +72,49 @@ class FlowTableStatisticsTest {
         }
     }
 
+    @Test
+    fun shouldEstimateFilterRows_fromColumnStatistics() {
+        val (connection, rootSchema) = FlowCalciteTestFixtures.openCalciteConnection(
+            tables = mapOf("users" to statisticTable()),
+        )
+        connection.use {
+            val planner = Frameworks.getPlanner(FlowCalciteTestFixtures.frameworkConfig(rootSchema))
+            val rel = planner.rel(
+                planner.validate(planner.parse("SELECT * FROM `users` WHERE `id` < 26 AND `name` IS NULL")),
+            ).rel
+
+            val filter = RelOptTestSupport.findNodes(rel, LogicalFilter::class.java).single()
+            val mq = filter.cluster.metadataQuery
+            assertEquals(0.2525 * 0.2, mq.getSelectivity(filter.input, filter.condition)!!, 0.001)
+            assertEquals(5.05, mq.getRowCount(filter), 0.1)
+        }
+    }
+
+    @Test
+    fun shouldEstimateDistinctRowCount_fromColumnStatistics() {
+        val (connection, rootSchema) = FlowCalciteTestFixtures.openCalciteConnection(
+            tables = mapOf("users" to statisticTable()),
+        )
+        connection.use {
+            val planner = Frameworks.getPlanner(FlowCalciteTestFixtures.frameworkConfig(rootSchema))
+            val rel = planner.rel(planner.validate(planner.parse("SELECT `id`, `name` FROM `users`"))).rel
+
+            val scan = RelOptTestSupport.findNodes(rel, FlowTableScan::class.java).single()
+            val mq = scan.cluster.metadataQuery
+            assertEquals(100.0, mq.getDistinctRowCount(scan, ImmutableBitSet.of(0), null)!!, 2.0)
+            assertEquals(41.0, mq.getDistinctRowCount(scan, ImmutableBitSet.of(1), null)!!, 2.0)
+            assertEquals(100.0, mq.getDistinctRowCount(scan, ImmutableBitSet.of(0, 1), null)!!, 0.0)
+        }
+    }
+
+    @Test
+    fun shouldFallBackToGuesses_whenColumnStatisticsUnknown() {
+        val estimator = ColumnStatisticEstimator(100.0, listOf(null))
+
+        assertEquals(null, estimator.selectivity(0, ScanPredicate.IsNull("id")))
+        assertEquals(null, estimator.distinctCount(ImmutableBitSet.of(0)))
+    }
+
     @Test
     fun shouldMatchSkymillParquetRowCounts_whenMaterialized() {
         val resolved = SourceResolver.resolveDescriptor(SkymillTestFixtures.descriptorFor(SkymillDataset.PARQUET))
@@ -127,6 +175,35 @@ class FlowTableStatisticsTest {
         assertEquals(expected.toDouble(), rowCount!!, 0.0, "row count for $tableName")
     }
 
+    /**
+     * 100 users: {@code id} 1..100 without nulls, {@code name} with 40 distinct values and 20 nulls.
+     */
+    private fun statisticTable(): SourceTable = stubSourceTable(
+        schema = RecordSchema.of(
+            "id" to DatabaseType.i32(false),
+            "name" to DatabaseType.string(true, 100),
+        ),
+        providers = SourceTableStatisticProviders.of(
+            record = RecordStatisticProvider { RecordStatistic(estimatedRowCount = 100L) },
+            column = ColumnStatisticProvider {
+                mapOf(
+                    "id" to ColumnStatistic(
+                        nullCount = 0,
+                        min = 1L,
+                        max = 100L,
+                        distinct = HyperLogLog().apply { (1L..100L).forEach { add(it) } },
+                    ),
+                    "name" to ColumnStatistic(
+                        nullCount = 20,
+                        min = "a",
+                        max = "z",
+                        distinct = HyperLogLog().apply { (1..40).forEach { add("name-$it") } },
+                    ),
+                )
+            },
+        ),
+    )
+
     private fun stubSourceTable(
         schema: RecordSchema = RecordSchema.of("id" to DatabaseType.i32(false)),
         providers: SourceTableStatisticProviders = SourceTableStatisticProviders.none(),
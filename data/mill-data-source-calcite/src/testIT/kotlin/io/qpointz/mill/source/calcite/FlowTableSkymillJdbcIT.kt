@@ -31,12 +31,12 @@ class FlowTableSkymillJdbcIT {
 
     @Test
     @Timeout(value = 120, unit = TimeUnit.SECONDS)
-    fun shouldShowEnumerableTableScan_whenExplainJdbcPlanForSimpleSelect() {
+    fun shouldShowEnumerableFlowTableScan_whenExplainJdbcPlanForSimpleSelect() {
         SkymillJdbcTestFixtures.openSession(SkymillDataset.CSV).use { session ->
             val explain = session.explainJdbcPlan(SkymillJdbcTestFixtures.selectBookingsCountSql())
             assertTrue(
-                explain.contains("EnumerableTableScan"),
-                "expected EnumerableTableScan in JDBC explain:\n$explain",
+                explain.contains("EnumerableFlowTableScan"),
+                "expected projected EnumerableFlowTableScan in JDBC explain:\n$explain",
             )
         }
     }
@@ -7,6 +7,10 @@ package io.qpointz.mill.source
  * The [extraValues] are computed once per blob (from [TableAttributeExtractor.extract])
  * and merged into each record.
  *
+ * As a [ScanPushdownSource] it prunes itself: predicates on attribute columns are evaluated
+ * against [extraValues], and a blob that cannot match is replaced by an empty source without
+ * opening the delegate. Remaining columns and predicates are pushed to the delegate.
+ *
  * @property delegate    the underlying record source
  * @property extraValues attribute name -> value map to inject
  * @property schema      the augmented schema (base fields + attribute fields)
@@ -15,12 +19,12 @@ class AttributeEnrichingRecordSource(
     private val delegate: RecordSource,
     private val extraValues: Map<String, Any?>,
     override val schema: RecordSchema
-) : FlowRecordSource {
+) : FlowRecordSource, ScanPushdownSource {
 
     override fun iterator(): Iterator<Record> {
         val baseIterator = when (delegate) {
             is FlowRecordSource -> delegate.iterator()
-            is FlowVectorSource -> vectorSourceToRecordIterator(delegate)
+            is FlowVectorSource -> vectorSourceToRecords(delegate).iterator()
             else -> emptyList<Record>().iterator()
         }
 
@@ -32,43 +36,28 @@ class AttributeEnrichingRecordSource(
             }
         }
     }
-}
 
-/**
- * Bridges a [FlowVectorSource] to a record [Iterator] for use in enrichment.
- */
-private fun vectorSourceToRecordIterator(source: FlowVectorSource): Iterator<Record> {
-    val fieldNames = source.schema.fieldNames
-    val blocks = source.vectorBlocks()
-    return object : Iterator<Record> {
-        private var currentBlock: io.qpointz.mill.proto.VectorBlock? = null
-        private var rowIdx = 0
-        private var blockSize = 0
+    /**
+     * `false` when a predicate on an attribute column is known to fail for [extraValues];
+     * predicates on other columns, or that cannot be evaluated, keep the source.
+     */
+    fun mayMatch(predicates: List<ScanPredicate>): Boolean =
+        predicates.none { it.column in extraValues && it.matches(extraValues[it.column]) == false }
 
-        override fun hasNext(): Boolean {
-            if (currentBlock != null && rowIdx < blockSize) return true
-            if (!blocks.hasNext()) return false
-            currentBlock = blocks.next()
-            blockSize = currentBlock!!.vectorSize
-            rowIdx = 0
-            return blockSize > 0
+    override fun pushdown(spec: RecordScanSpec, metrics: ScanMetrics): RecordSource {
+        val projected = schema.project(spec.columns)
+        if (!mayMatch(spec.predicates)) {
+            metrics.sourcePruned()
+            return InMemoryRecordSource.empty(projected)
         }
-
-        override fun next(): Record {
-            if (!hasNext()) throw NoSuchElementException()
-            val block = currentBlock!!
-            val values = mutableMapOf<String, Any?>()
-            for (vector in block.vectorsList) {
-                val fieldIdx = vector.fieldIdx
-                if (fieldIdx >= fieldNames.size) continue
-                val name = fieldNames[fieldIdx]
-                val isNull = vector.hasNulls() &&
-                    vector.nulls.nullsList.size > rowIdx &&
-                    vector.nulls.nullsList[rowIdx]
-                values[name] = if (isNull) null else extractVectorValue(vector, rowIdx)
-            }
-            rowIdx++
-            return Record(values)
+        if (delegate !is ScanPushdownSource) {
+            return AttributeEnrichingRecordSource(delegate, extraValues, projected)
+        }
+        val baseColumns = spec.columns?.let { columns ->
+            // keep one delegate column so that rows are still counted
+            (columns - extraValues.keys).ifEmpty { setOfNotNull(delegate.schema.fields.firstOrNull()?.name) }
         }
+        val baseSpec = RecordScanSpec(baseColumns, spec.predicates.filterNot { it.column in extraValues })
+        return AttributeEnrichingRecordSource(delegate.pushdown(baseSpec, metrics), extraValues, projected)
     }
 }
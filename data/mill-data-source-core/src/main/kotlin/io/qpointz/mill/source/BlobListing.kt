@@ -0,0 +1,137 @@
+package io.qpointz.mill.source
+
+import java.io.IOException
+import java.net.URI
+import java.nio.file.AtomicMoveNotSupportedException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+
+/**
+ * Difference between two listings of a [BlobSource].
+ *
+ * Blobs are compared by [BlobPath] equality and, for blobs in both listings, by their
+ * [BlobSource.versionOf] tokens, so files rewritten in place are reported as [changed].
+ *
+ * @property added   blobs only in the current listing
+ * @property removed blobs only in the previous listing
+ * @property changed blobs in both listings whose version differs
+ */
+data class BlobChanges(
+    val added: Set<BlobPath>,
+    val removed: Set<BlobPath>,
+    val changed: Set<BlobPath> = emptySet(),
+) {
+    /** `true` when both listings hold the same blobs in the same versions. */
+    val isEmpty: Boolean get() = added.isEmpty() && removed.isEmpty() && changed.isEmpty()
+}
+
+/**
+ * Listing helpers: prefix-scoped concurrent listings, diffs and persisted snapshots.
+ */
+object BlobListing {
+
+    private const val SNAPSHOT_HEADER = "# mill blob listing v1"
+
+    /**
+     * Lists [blobSource], or only the keys under [prefixes] when given, with at most
+     * [concurrency] prefix listings in flight. Blobs matched by overlapping prefixes are
+     * returned once.
+     */
+    fun list(blobSource: BlobSource, prefixes: List<String> = emptyList(), concurrency: Int = 1): List<BlobPath> {
+        require(concurrency >= 1) { "Listing concurrency must be at least 1: $concurrency" }
+        val distinct = prefixes.distinct()
+        if (distinct.isEmpty()) return blobSource.listBlobs().toList()
+        if (concurrency == 1 || distinct.size == 1) {
+            return distinct.flatMap { blobSource.listBlobs(it).toList() }.distinct()
+        }
+        val executor = Executors.newFixedThreadPool(
+            minOf(concurrency, distinct.size),
+            Thread.ofPlatform().name("mill-listing-", 0).daemon(true).factory()
+        )
+        try {
+            val listings = distinct.map { prefix -> executor.submit(Callable { blobSource.listBlobs(prefix).toList() }) }
+            return listings.flatMap { listing ->
+                try {
+                    listing.get()
+                } catch (e: ExecutionException) {
+                    throw e.cause ?: e
+                }
+            }.distinct()
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    /**
+     * Returns the [BlobSource.versionOf] token of each of [blobs]; blobs that vanished or
+     * cannot be inspected map to `null`.
+     */
+    fun versions(blobSource: BlobSource, blobs: Collection<BlobPath>): Map<BlobPath, String?> =
+        blobs.associateWith { blob ->
+            try {
+                blobSource.versionOf(blob)
+            } catch (_: IOException) {
+                null
+            }
+        }
+
+    /**
+     * Compares two listings and, with [previousVersions] and [currentVersions] from
+     * [versions], the content versions of the blobs in both.
+     */
+    fun diff(
+        previous: Collection<BlobPath>,
+        current: Collection<BlobPath>,
+        previousVersions: Map<BlobPath, String?> = emptyMap(),
+        currentVersions: Map<BlobPath, String?> = emptyMap(),
+    ): BlobChanges {
+        val before = previous.toSet()
+        val after = current.toSet()
+        val changed = after.filterTo(mutableSetOf()) { blob ->
+            blob in before && previousVersions[blob] != currentVersions[blob]
+        }
+        return BlobChanges(added = after - before, removed = before - after, changed = changed)
+    }
+
+    /**
+     * Persists the URIs of [blobs] to [file], replacing it atomically where supported.
+     */
+    fun save(file: Path, blobs: Collection<BlobPath>) {
+        val target = file.toAbsolutePath()
+        Files.createDirectories(target.parent)
+        val temp = Files.createTempFile(target.parent, target.fileName.toString(), ".tmp")
+        try {
+            Files.write(temp, listOf(SNAPSHOT_HEADER) + blobs.map { it.uri.toString() })
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+            } catch (_: AtomicMoveNotSupportedException) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING)
+            }
+        } finally {
+            Files.deleteIfExists(temp)
+        }
+    }
+
+    /**
+     * Restores a listing saved by [save], recreating handles with [BlobSource.blobOf].
+     *
+     * @return the blobs, or `null` when [file] is missing, unreadable or holds blobs that
+     *         [blobSource] cannot recreate
+     */
+    fun load(file: Path, blobSource: BlobSource): List<BlobPath>? {
+        if (!Files.isRegularFile(file)) return null
+        val lines = try {
+            Files.readAllLines(file)
+        } catch (_: IOException) {
+            return null
+        }
+        if (lines.firstOrNull() != SNAPSHOT_HEADER) return null
+        return lines.drop(1)
+            .filter { it.isNotBlank() }
+            .map { line -> runCatching { blobSource.blobOf(URI.create(line)) }.getOrNull() ?: return null }
+    }
+}
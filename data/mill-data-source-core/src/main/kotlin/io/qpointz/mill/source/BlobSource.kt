@@ -2,6 +2,7 @@ package io.qpointz.mill.source
 
 import java.io.Closeable
 import java.io.InputStream
+import java.net.URI
 import java.nio.channels.SeekableByteChannel
 
 /**
@@ -26,6 +27,38 @@ interface BlobSource : Closeable {
      */
     fun listBlobs(): Sequence<BlobPath>
 
+    /**
+     * Discovers the blobs whose key, relative to this source, starts with [prefix].
+     *
+     * Lets large stores be listed in several narrower, concurrent requests. The default
+     * supports only the empty prefix.
+     *
+     * @param prefix key prefix relative to the source root, `/`-separated
+     * @return a [Sequence] of [BlobPath] handles, lazily evaluated
+     */
+    fun listBlobs(prefix: String): Sequence<BlobPath> {
+        if (prefix.isEmpty()) return listBlobs()
+        throw UnsupportedOperationException("${this::class.java.simpleName} does not support prefix listings")
+    }
+
+    /**
+     * Recreates the handle of a blob of this source from its [BlobPath.uri], without
+     * contacting the store (used to restore persisted listings).
+     *
+     * @return the handle, or `null` when [uri] does not belong to this source or handles
+     *         cannot be recreated
+     */
+    fun blobOf(uri: URI): BlobPath? = null
+
+    /**
+     * Returns a token that changes whenever the content of [path] changes, such as its
+     * size and modification time or its ETag.
+     *
+     * Keys persisted per-blob data like statistics. The default returns `null`: versions are
+     * unknown and such data is not persisted.
+     */
+    fun versionOf(path: BlobPath): String? = null
+
     /**
      * Opens a streaming read channel for the given [path].
      *
@@ -32,4 +32,19 @@ interface FormatHandler {
      * @return a record source for the blob
      */
     fun createRecordSource(blob: BlobPath, blobSource: BlobSource, schema: RecordSchema): RecordSource
+
+    /**
+     * Creates the [RecordSource]s that together read the given blob.
+     *
+     * Formats able to cut a large blob into independent parts return one source per part,
+     * in blob order, so that a parallel [MultiFileSourceTable] scan reads them concurrently.
+     * By default the blob is read by the single source of [createRecordSource].
+     *
+     * @param blob       the blob to read
+     * @param blobSource the source providing I/O access to the blob
+     * @param schema     the schema to use (typically from [inferSchema])
+     * @return record sources covering the blob, in blob order
+     */
+    fun createRecordSources(blob: BlobPath, blobSource: BlobSource, schema: RecordSchema): List<RecordSource> =
+        listOf(createRecordSource(blob, blobSource, schema))
 }
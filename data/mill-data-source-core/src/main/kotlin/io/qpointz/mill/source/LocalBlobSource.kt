@@ -6,6 +6,7 @@ import java.nio.channels.SeekableByteChannel
 import java.nio.file.Files
 import java.nio.file.Path
 import java.nio.file.StandardOpenOption
+import java.nio.file.attribute.BasicFileAttributes
 
 /**
  * A [BlobPath] pointing to a file on the local filesystem.
@@ -61,6 +62,36 @@ class LocalBlobSource(val rootPath: Path) : BlobSource {
             .asSequence()
     }
 
+    /**
+     * Walks only the deepest directory covered by [prefix].
+     */
+    override fun listBlobs(prefix: String): Sequence<BlobPath> {
+        if (prefix.isEmpty()) return listBlobs()
+        val directory = normalizedRoot.resolve(prefix.substringBeforeLast('/', "")).normalize()
+        if (!directory.startsWith(normalizedRoot) || !Files.isDirectory(directory)) return emptySequence()
+        return Files.walk(directory)
+            .filter { Files.isRegularFile(it) }
+            .map { path -> LocalBlobPath.of(normalizedRoot, path) }
+            .filter { it.relativePath.joinToString("/").startsWith(prefix) }
+            .map { it as BlobPath }
+            .iterator()
+            .asSequence()
+    }
+
+    override fun blobOf(uri: URI): BlobPath? {
+        if (uri.scheme != "file") return null
+        val path = Path.of(uri).toAbsolutePath().normalize()
+        return if (path.startsWith(normalizedRoot)) LocalBlobPath.of(normalizedRoot, path) else null
+    }
+
+    /**
+     * Combines the size and modification time of the file.
+     */
+    override fun versionOf(path: BlobPath): String? {
+        val attributes = Files.readAttributes(resolveLocalPath(path), BasicFileAttributes::class.java)
+        return "${attributes.size()}-${attributes.lastModifiedTime().toMillis()}"
+    }
+
     override fun openInputStream(path: BlobPath): InputStream {
         val localPath = resolveLocalPath(path)
         return Files.newInputStream(localPath, StandardOpenOption.READ)
@@ -0,0 +1,102 @@
+package io.qpointz.mill.source
+
+import org.slf4j.LoggerFactory
+import java.nio.file.ClosedWatchServiceException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardWatchEventKinds.ENTRY_CREATE
+import java.nio.file.StandardWatchEventKinds.ENTRY_DELETE
+import java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY
+import java.nio.file.WatchKey
+import java.nio.file.WatchService
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+/**
+ * Watches the directory tree under [root] and calls [onChange] after files are created,
+ * deleted or modified.
+ *
+ * Events are collapsed: [onChange] runs once no further event arrived for [quietPeriod],
+ * so a batch of uploads causes a single notification. Directories created later are
+ * watched as well. Runs on a daemon thread until [close]d.
+ *
+ * @property root        directory to watch
+ * @property quietPeriod time without events before [onChange] is called
+ * @property onChange    callback, invoked on the watcher thread
+ */
+class LocalBlobWatcher(
+    private val root: Path,
+    private val quietPeriod: Duration = DEFAULT_QUIET_PERIOD,
+    private val onChange: () -> Unit,
+) : AutoCloseable {
+
+    private val service: WatchService = root.fileSystem.newWatchService()
+
+    private val thread: Thread
+
+    init {
+        try {
+            register(root)
+        } catch (e: Exception) {
+            service.close()
+            throw e
+        }
+        thread = Thread.ofPlatform().name("mill-blob-watch").daemon(true).start(::run)
+    }
+
+    private fun run() {
+        try {
+            while (true) {
+                handle(service.take())
+                while (true) {
+                    handle(service.poll(quietPeriod.toMillis(), TimeUnit.MILLISECONDS) ?: break)
+                }
+                try {
+                    onChange()
+                } catch (e: Exception) {
+                    log.warn("Change handler for {} failed", root, e)
+                }
+            }
+        } catch (_: InterruptedException) {
+            // closed
+        } catch (_: ClosedWatchServiceException) {
+            // closed
+        }
+    }
+
+    private fun handle(key: WatchKey) {
+        val directory = key.watchable() as Path
+        for (event in key.pollEvents()) {
+            if (event.kind() != ENTRY_CREATE) continue
+            val child = directory.resolve(event.context() as Path)
+            if (Files.isDirectory(child)) {
+                try {
+                    register(child)
+                } catch (e: Exception) {
+                    log.warn("Cannot watch {}", child, e)
+                }
+            }
+        }
+        key.reset()
+    }
+
+    private fun register(directory: Path) {
+        Files.walk(directory).use { paths ->
+            paths.filter { Files.isDirectory(it) }
+                .forEach { it.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY) }
+        }
+    }
+
+    override fun close() {
+        service.close()
+        thread.interrupt()
+    }
+
+    companion object {
+        private val log = LoggerFactory.getLogger(LocalBlobWatcher::class.java)
+
+        /** Default quiet period before a change is reported. */
+        @JvmField
+        val DEFAULT_QUIET_PERIOD: Duration = Duration.ofMillis(500)
+    }
+}
@@ -18,25 +18,92 @@ import io.qpointz.mill.vectors.VectorBlockIterator
  *
  * When modes are mixed, bridging is deferred to 1.6 (record-vector bridges).
  *
+ * With a parallel [scanOptions] several sources are read concurrently and merged through
+ * a bounded queue (see [ScanOptions]); the returned iterators then hold worker threads and
+ * should be closed when abandoned early.
+ *
+ * A [ScanPartition] bound to the thread opening a scan narrows it to the partition's share
+ * of [sources], chosen by [sourceKeys] when they are known.
+ *
  * @property schema  the schema for this table (all sources must share it)
  * @property sources the underlying per-file record sources
+ * @property sourceKeys stable identity of each source (blob URI and ordinal), or `null` to
+ *   partition by position
  * @property statisticProviders wired slice providers for planner statistics
+ * @property scanOptions how sources are read (sequentially by default)
  */
 class MultiFileSourceTable(
     override val schema: RecordSchema,
     private val sources: List<RecordSource>,
     private val statisticProviders: SourceTableStatisticProviders = SourceTableStatisticProviders.none(),
+    val scanOptions: ScanOptions = ScanOptions.SEQUENTIAL,
+    private val sourceKeys: List<String>? = null,
 ) : SourceTable {
 
+    init {
+        require(sourceKeys == null || sourceKeys.size == sources.size) {
+            "Expected ${sources.size} source keys, got ${sourceKeys?.size}"
+        }
+    }
+
     override fun statisticProviders(): SourceTableStatisticProviders = statisticProviders
 
-    override fun records(): Iterable<Record> {
-        return Iterable { ConcatenatingRecordIterator(sources) }
+    override fun records(): Iterable<Record> = recordsOf(sources)
+
+    override fun vectorBlocks(batchSize: Int): VectorBlockIterator =
+        vectorBlocksOf(schema.toVectorBlockSchema(), sources, batchSize)
+
+    private fun recordsOf(all: List<RecordSource>): Iterable<Record> = Iterable {
+        val sources = partitionOf(all)
+        if (scanOptions.isParallel && sources.size > 1) {
+            ParallelRecordIterator(sources, scanOptions)
+        } else {
+            ConcatenatingRecordIterator(sources)
+        }
+    }
+
+    private fun vectorBlocksOf(vbSchema: VectorBlockSchema, all: List<RecordSource>, batchSize: Int): VectorBlockIterator {
+        val sources = partitionOf(all)
+        return if (scanOptions.isParallel && sources.size > 1) {
+            ParallelVectorBlockIterator(vbSchema, sources, batchSize, scanOptions)
+        } else {
+            ConcatenatingVectorBlockIterator(vbSchema, sources, batchSize)
+        }
+    }
+
+    private fun partitionOf(sources: List<RecordSource>): List<RecordSource> =
+        ScanPartition.current()?.select(sources, sourceKeys) ?: sources
+
+    /**
+     * Row access with [spec] pushed to every [ScanPushdownSource].
+     */
+    override fun records(spec: RecordScanSpec, metrics: ScanMetrics): Iterable<Record> {
+        if (spec.isFullScan) return records()
+        return recordsOf(pushdown(spec, metrics))
+    }
+
+    /**
+     * Columnar access with [spec] pushed to every [ScanPushdownSource].
+     */
+    override fun vectorBlocks(batchSize: Int, spec: RecordScanSpec, metrics: ScanMetrics): VectorBlockIterator {
+        if (spec.isFullScan) return vectorBlocks(batchSize)
+        val projected = schema.project(spec.columns)
+        return vectorBlocksOf(projected.toVectorBlockSchema(), pushdown(spec, metrics), batchSize)
     }
 
-    override fun vectorBlocks(batchSize: Int): VectorBlockIterator {
-        val vbSchema = schema.toVectorBlockSchema()
-        return ConcatenatingVectorBlockIterator(vbSchema, sources, batchSize)
+    /**
+     * Pushes [spec] to every source. Sources that cannot narrow themselves are wrapped in a
+     * projected view so that all sources of the scan expose the same columns.
+     */
+    private fun pushdown(spec: RecordScanSpec, metrics: ScanMetrics): List<RecordSource> {
+        val projected = schema.project(spec.columns)
+        return sources.map { source ->
+            when {
+                source is ScanPushdownSource -> source.pushdown(spec, metrics)
+                spec.columns == null -> source
+                else -> projectedView(source, projected)
+            }
+        }
     }
 
     companion object {
@@ -91,13 +158,7 @@ internal class ConcatenatingRecordIterator(
         closeCurrentIterator()
     }
 
-    private fun nextRecordIterator(source: RecordSource): Iterator<Record> {
-        return when (source) {
-            is FlowRecordSource -> source.iterator()
-            is FlowVectorSource -> vectorSourceToRecords(source).iterator()
-            else -> emptySequence<Record>().iterator()
-        }
-    }
+    private fun nextRecordIterator(source: RecordSource): Iterator<Record> = openRecords(source)
 
     private fun closeCurrentIterator() {
         val iterator = currentIterator
@@ -114,16 +175,15 @@ internal class ConcatenatingRecordIterator(
  */
 internal fun vectorSourceToRecords(source: FlowVectorSource): Sequence<Record> {
     return sequence {
-        val fieldNames = source.schema.fieldNames
+        // vectors carry table-level field indices, which differ from positions in projected schemas
+        val fieldNames = source.schema.fields.associate { it.index to it.name }
         val iter = source.vectorBlocks()
         while (iter.hasNext()) {
             val block = iter.next()
             for (rowIdx in 0 until block.vectorSize) {
                 val values = mutableMapOf<String, Any?>()
                 for (vector in block.vectorsList) {
-                    val fieldIdx = vector.fieldIdx
-                    if (fieldIdx >= fieldNames.size) continue
-                    val name = fieldNames[fieldIdx]
+                    val name = fieldNames[vector.fieldIdx] ?: continue
                     val isNull = vector.hasNulls() && vector.nulls.nullsList.size > rowIdx && vector.nulls.nullsList[rowIdx]
                     values[name] = if (isNull) null else extractVectorValue(vector, rowIdx)
                 }
@@ -133,6 +193,42 @@ internal fun vectorSourceToRecords(source: FlowVectorSource): Sequence<Record> {
     }
 }
 
+/**
+ * Narrows [source], which cannot project itself, to [projected] fields.
+ *
+ * Row sources keep producing full records (extra values are ignored by consumers and by the
+ * record-to-vector bridge); vector sources drop the vectors of unprojected fields.
+ */
+internal fun projectedView(source: RecordSource, projected: RecordSchema): RecordSource {
+    val indices = projected.fields.mapTo(HashSet()) { it.index }
+    return when (source) {
+        is FlowRecordSource -> object : FlowRecordSource {
+            override val schema: RecordSchema = projected
+            override fun iterator(): Iterator<Record> = source.iterator()
+        }
+        is FlowVectorSource -> object : FlowVectorSource {
+            override val schema: RecordSchema = projected
+            override fun vectorBlocks(batchSize: Int): VectorBlockIterator {
+                val blocks = source.vectorBlocks(batchSize)
+                val vbSchema = projected.toVectorBlockSchema()
+                return object : VectorBlockIterator {
+                    override fun schema(): VectorBlockSchema = vbSchema
+                    override fun hasNext(): Boolean = blocks.hasNext()
+                    override fun next(): VectorBlock {
+                        val block = blocks.next()
+                        return block.toBuilder()
+                            .setSchema(vbSchema)
+                            .clearVectors()
+                            .addAllVectors(block.vectorsList.filter { it.fieldIdx in indices })
+                            .build()
+                    }
+                }
+            }
+        }
+        else -> source
+    }
+}
+
 /**
  * Extracts a single value from a protobuf [io.qpointz.mill.proto.Vector] at [rowIdx].
  */
@@ -181,12 +277,29 @@ internal class ConcatenatingVectorBlockIterator(
         throw UnsupportedOperationException("remove() is not supported")
     }
 
-    private fun nextVectorIterator(source: RecordSource): VectorBlockIterator {
-        return when (source) {
-            is FlowVectorSource -> source.vectorBlocks(batchSize)
-            is FlowRecordSource -> recordSourceToVectorIterator(source, vbSchema, batchSize)
-            else -> emptyVectorBlockIterator(vbSchema)
-        }
+    private fun nextVectorIterator(source: RecordSource): VectorBlockIterator =
+        openVectorBlocks(source, vbSchema, batchSize)
+}
+
+/**
+ * Opens the native row iterator of [source], bridging columnar sources.
+ */
+internal fun openRecords(source: RecordSource): Iterator<Record> {
+    return when (source) {
+        is FlowRecordSource -> source.iterator()
+        is FlowVectorSource -> vectorSourceToRecords(source).iterator()
+        else -> emptySequence<Record>().iterator()
+    }
+}
+
+/**
+ * Opens the native columnar iterator of [source], bridging row sources into [vbSchema] blocks.
+ */
+internal fun openVectorBlocks(source: RecordSource, vbSchema: VectorBlockSchema, batchSize: Int): VectorBlockIterator {
+    return when (source) {
+        is FlowVectorSource -> source.vectorBlocks(batchSize)
+        is FlowRecordSource -> recordSourceToVectorIterator(source, vbSchema, batchSize)
+        else -> emptyVectorBlockIterator(vbSchema)
     }
 }
 
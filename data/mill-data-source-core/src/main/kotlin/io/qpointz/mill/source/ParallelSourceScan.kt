@@ -0,0 +1,221 @@
+package io.qpointz.mill.source
+
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.proto.VectorBlockSchema
+import io.qpointz.mill.vectors.VectorBlockIterator
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Reads several [RecordSource]s concurrently and merges their output into one iterator.
+ *
+ * At most [ScanOptions.parallelism] workers claim sources in list order and push what
+ * [open] produces into bounded queues; a full queue blocks its worker until the consumer
+ * catches up. Unordered scans share one queue of [ScanOptions.bufferSize] entries. Ordered
+ * scans give every source its own queue (the buffer split across the active workers) and
+ * drain them in source order, so output matches a sequential scan.
+ *
+ * Workers start on the first [hasNext]. [close] stops them and closes the per-source
+ * iterators; a failure in any source is rethrown to the consumer.
+ *
+ * @param T element type pushed through the queues (vector blocks, record batches)
+ */
+internal class ParallelSourceScan<T : Any>(
+    private val sources: List<RecordSource>,
+    private val options: ScanOptions,
+    private val open: (RecordSource) -> Iterator<T>,
+) : Iterator<T>, AutoCloseable {
+
+    private sealed interface Entry<out T> {
+        class Item<T>(val value: T) : Entry<T>
+        data object End : Entry<Nothing>
+        class Failure(val error: Throwable) : Entry<Nothing>
+    }
+
+    private val shared: BlockingQueue<Entry<T>>? =
+        if (options.ordered) null else LinkedBlockingQueue(options.bufferSize)
+
+    private val perSource: Array<BlockingQueue<Entry<T>>>? =
+        if (options.ordered) {
+            val capacity = maxOf(1, options.bufferSize / minOf(options.parallelism, maxOf(1, sources.size)))
+            Array(sources.size) { LinkedBlockingQueue(capacity) }
+        } else {
+            null
+        }
+
+    private val nextSource = AtomicInteger()
+
+    private var executor: ExecutorService? = null
+
+    private var pending: T? = null
+
+    private var finishedSources = 0
+
+    @Volatile
+    private var closed = false
+
+    override fun hasNext(): Boolean {
+        if (pending != null) return true
+        if (closed || finishedSources >= sources.size) return false
+        start()
+        while (finishedSources < sources.size) {
+            val entry = try {
+                queueFor(if (perSource != null) finishedSources else -1).take()
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+                close()
+                throw IllegalStateException("Interrupted while waiting for source data", e)
+            }
+            when (entry) {
+                is Entry.Item -> {
+                    pending = entry.value
+                    return true
+                }
+                Entry.End -> finishedSources++
+                is Entry.Failure -> {
+                    close()
+                    val error = entry.error
+                    throw error as? RuntimeException ?: IllegalStateException("Source scan failed", error)
+                }
+            }
+        }
+        close()
+        return false
+    }
+
+    override fun next(): T {
+        if (!hasNext()) throw NoSuchElementException()
+        val value = pending!!
+        pending = null
+        return value
+    }
+
+    override fun close() {
+        if (closed) return
+        closed = true
+        executor?.shutdownNow()
+        executor = null
+        shared?.clear()
+        perSource?.forEach { it.clear() }
+    }
+
+    private fun start() {
+        if (executor != null) return
+        val workers = minOf(options.parallelism, sources.size)
+        val pool = if (options.virtualThreads) {
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mill-scan-", 0).factory())
+        } else {
+            Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("mill-scan-", 0).daemon(true).factory())
+        }
+        executor = pool
+        repeat(workers) { pool.execute(::work) }
+    }
+
+    private fun queueFor(sourceIndex: Int): BlockingQueue<Entry<T>> =
+        perSource?.get(sourceIndex) ?: shared!!
+
+    private fun work() {
+        while (!closed) {
+            val index = nextSource.getAndIncrement()
+            if (index >= sources.size) return
+            val queue = queueFor(index)
+            var iterator: Iterator<T>? = null
+            try {
+                iterator = open(sources[index])
+                while (!closed && iterator.hasNext()) {
+                    queue.put(Entry.Item(iterator.next()))
+                }
+                queue.put(Entry.End)
+            } catch (e: InterruptedException) {
+                return
+            } catch (e: Throwable) {
+                if (!closed) {
+                    runCatching { queue.put(Entry.Failure(e)) }
+                }
+                return
+            } finally {
+                if (iterator is AutoCloseable) {
+                    runCatching { iterator.close() }
+                }
+            }
+        }
+    }
+}
+
+/**
+ * Parallel columnar scan over [sources] with the table-level [vbSchema].
+ */
+internal class ParallelVectorBlockIterator(
+    private val vbSchema: VectorBlockSchema,
+    sources: List<RecordSource>,
+    batchSize: Int,
+    options: ScanOptions,
+) : VectorBlockIterator, AutoCloseable {
+
+    private val scan = ParallelSourceScan(sources, options) { source ->
+        openVectorBlocks(source, vbSchema, batchSize)
+    }
+
+    override fun schema(): VectorBlockSchema = vbSchema
+
+    override fun hasNext(): Boolean = scan.hasNext()
+
+    override fun next(): VectorBlock = scan.next()
+
+    override fun remove() {
+        throw UnsupportedOperationException("remove() is not supported")
+    }
+
+    override fun close() {
+        scan.close()
+    }
+}
+
+/**
+ * Parallel row scan over [sources]; records cross threads in batches of [RECORD_BATCH_SIZE].
+ */
+internal class ParallelRecordIterator(
+    sources: List<RecordSource>,
+    options: ScanOptions,
+) : CloseableRecordIterator {
+
+    private val scan = ParallelSourceScan(sources, options) { source ->
+        val records = openRecords(source)
+        val batches = records.asSequence().chunked(RECORD_BATCH_SIZE).iterator()
+        if (records is AutoCloseable) CloseableIterator(batches, records) else batches
+    }
+
+    private var batch: Iterator<Record> = emptyList<Record>().iterator()
+
+    override fun hasNext(): Boolean {
+        while (!batch.hasNext()) {
+            if (!scan.hasNext()) return false
+            batch = scan.next().iterator()
+        }
+        return true
+    }
+
+    override fun next(): Record {
+        if (!hasNext()) throw NoSuchElementException()
+        return batch.next()
+    }
+
+    override fun close() {
+        batch = emptyList<Record>().iterator()
+        scan.close()
+    }
+
+    private class CloseableIterator<T>(
+        private val delegate: Iterator<T>,
+        private val resource: AutoCloseable,
+    ) : Iterator<T> by delegate, AutoCloseable {
+        override fun close() = resource.close()
+    }
+
+    companion object {
+        const val RECORD_BATCH_SIZE = 256
+    }
+}
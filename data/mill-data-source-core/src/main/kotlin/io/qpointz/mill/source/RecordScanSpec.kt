@@ -1,4 +1,25 @@
 package io.qpointz.mill.source
 
-data class RecordScanSpec(val columns: Set<String>) {
-}
\ No newline at end of file
+/**
+ * Describes what a single scan needs from a [SourceTable].
+ *
+ * Sources that implement [ScanPushdownSource] use the spec to read less data; others ignore it
+ * and return every column and row.
+ *
+ * @property columns    names of the columns the scan reads; `null` reads all columns
+ * @property predicates conjunctive [ScanPredicate] hints for skipping data
+ */
+data class RecordScanSpec(
+    val columns: Set<String>? = null,
+    val predicates: List<ScanPredicate> = emptyList(),
+) {
+
+    /** `true` when the spec neither projects nor filters. */
+    val isFullScan: Boolean get() = columns == null && predicates.isEmpty()
+
+    companion object {
+        /** Spec reading all columns and rows. */
+        @JvmField
+        val FULL = RecordScanSpec()
+    }
+}
@@ -58,6 +58,13 @@ data class RecordSchema(val fields: List<SchemaField>) {
      */
     val fieldNames: List<String> get() = fields.map { it.name }
 
+    /**
+     * Returns the fields named in [columns], in schema order and with their original
+     * indices; `null` returns this schema. Unknown names are ignored.
+     */
+    fun project(columns: Set<String>?): RecordSchema =
+        if (columns == null) this else RecordSchema(fields.filter { it.name in columns })
+
     /**
      * Converts this schema to a protobuf [VectorBlockSchema] message.
      */
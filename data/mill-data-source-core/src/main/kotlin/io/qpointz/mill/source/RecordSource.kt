@@ -49,3 +49,22 @@ interface FlowVectorSource : RecordSource {
      */
     fun vectorBlocks(batchSize: Int = 1024): VectorBlockIterator
 }
+
+/**
+ * A [RecordSource] able to narrow what it reads for a scan.
+ *
+ * [SourceTable] implementations call [pushdown] with the scan's [RecordScanSpec] before
+ * iterating; the returned source may read fewer columns (its [schema] then only holds the
+ * projected fields, with their original indices) and may skip data that cannot match the
+ * spec's predicates.
+ */
+interface ScanPushdownSource : RecordSource {
+
+    /**
+     * Returns a source reading only what [spec] needs.
+     *
+     * @param spec    columns and predicate hints of the scan
+     * @param metrics counters the returned source reports skipped data to
+     */
+    fun pushdown(spec: RecordScanSpec, metrics: ScanMetrics): RecordSource
+}
@@ -0,0 +1,43 @@
+package io.qpointz.mill.source
+
+import java.nio.file.Path
+import java.time.Duration
+
+/**
+ * Runtime options controlling how the blob listing of a source is kept current.
+ *
+ * Without [interval] or [watch] a source is listed once, when it is resolved. Otherwise
+ * the owner of the resolved source re-lists it periodically or on file-system events and
+ * swaps in the tables whose blobs changed.
+ *
+ * @property interval           delay between re-listings; `null` disables polling
+ * @property watch              re-list on file-system events (local storage only)
+ * @property prefixes           key prefixes listed instead of the whole source; empty lists all
+ * @property listingConcurrency maximum number of [prefixes] listed concurrently
+ * @property snapshotFile       file persisting the last listing, used for fast startup
+ */
+data class RefreshOptions(
+    val interval: Duration? = null,
+    val watch: Boolean = false,
+    val prefixes: List<String> = emptyList(),
+    val listingConcurrency: Int = DEFAULT_LISTING_CONCURRENCY,
+    val snapshotFile: Path? = null,
+) {
+
+    init {
+        require(interval == null || interval.isPositive) { "Refresh interval must be positive: $interval" }
+        require(listingConcurrency >= 1) { "Listing concurrency must be at least 1: $listingConcurrency" }
+    }
+
+    /** `true` when the listing is refreshed after resolution. */
+    val isEnabled: Boolean get() = interval != null || watch
+
+    companion object {
+        /** Default number of prefixes listed concurrently. */
+        const val DEFAULT_LISTING_CONCURRENCY = 4
+
+        /** Lists the whole source once. */
+        @JvmField
+        val NONE = RefreshOptions()
+    }
+}
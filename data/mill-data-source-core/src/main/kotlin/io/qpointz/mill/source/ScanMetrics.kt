@@ -0,0 +1,90 @@
+package io.qpointz.mill.source
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counters of a single table scan, filled by [ScanPushdownSource]s while reading.
+ *
+ * Thread-safe; one instance is shared by all sources of a scan. Finished scans [add] their
+ * counters to [TOTALS], which is published as meters.
+ */
+class ScanMetrics {
+
+    private val sources = AtomicLong()
+    private val sourcesPruned = AtomicLong()
+    private val rowGroups = AtomicLong()
+    private val rowGroupsSkipped = AtomicLong()
+    private val bytesSkipped = AtomicLong()
+    private val rowsSkipped = AtomicLong()
+
+    /** Records one source (file) opened by the scan. */
+    fun sourceOpened() {
+        sources.incrementAndGet()
+    }
+
+    /** Records one source (file) dropped without I/O because its attributes cannot match. */
+    fun sourcePruned() {
+        sourcesPruned.incrementAndGet()
+    }
+
+    /**
+     * Records row groups of a source.
+     *
+     * @param total        row groups in the source
+     * @param skipped      row groups skipped without reading
+     * @param skippedBytes compressed bytes of the skipped row groups
+     */
+    fun rowGroups(total: Long, skipped: Long, skippedBytes: Long) {
+        rowGroups.addAndGet(total)
+        rowGroupsSkipped.addAndGet(skipped)
+        bytesSkipped.addAndGet(skippedBytes)
+    }
+
+    /** Records rows skipped inside read row groups (e.g. by page indexes). */
+    fun rowsSkipped(count: Long) {
+        rowsSkipped.addAndGet(count)
+    }
+
+    /** Adds the counters of [snapshot], e.g. of a finished scan to [TOTALS]. */
+    fun add(snapshot: Snapshot) {
+        sources.addAndGet(snapshot.sources)
+        sourcesPruned.addAndGet(snapshot.sourcesPruned)
+        rowGroups.addAndGet(snapshot.rowGroups)
+        rowGroupsSkipped.addAndGet(snapshot.rowGroupsSkipped)
+        bytesSkipped.addAndGet(snapshot.bytesSkipped)
+        rowsSkipped.addAndGet(snapshot.rowsSkipped)
+    }
+
+    /** Immutable snapshot of the current counters. */
+    fun snapshot(): Snapshot = Snapshot(
+        sources = sources.get(),
+        sourcesPruned = sourcesPruned.get(),
+        rowGroups = rowGroups.get(),
+        rowGroupsSkipped = rowGroupsSkipped.get(),
+        bytesSkipped = bytesSkipped.get(),
+        rowsSkipped = rowsSkipped.get(),
+    )
+
+    /**
+     * @property sources          sources opened
+     * @property sourcesPruned    sources dropped by predicates on their attributes
+     * @property rowGroups        row groups seen
+     * @property rowGroupsSkipped row groups skipped by predicates
+     * @property bytesSkipped     compressed bytes not read because of skipped row groups
+     * @property rowsSkipped      rows skipped within read row groups
+     */
+    data class Snapshot(
+        val sources: Long,
+        val sourcesPruned: Long,
+        val rowGroups: Long,
+        val rowGroupsSkipped: Long,
+        val bytesSkipped: Long,
+        val rowsSkipped: Long,
+    )
+
+    companion object {
+        /** Counters of every finished scan of the process. */
+        @JvmField
+        val TOTALS = ScanMetrics()
+    }
+}
@@ -0,0 +1,39 @@
+package io.qpointz.mill.source
+
+/**
+ * Runtime options controlling how a [MultiFileSourceTable] reads its sources.
+ *
+ * With [parallelism] `1` sources are read one after another on the calling thread. Higher
+ * values read up to [parallelism] sources concurrently and merge their output into a single
+ * iterator through a queue bounded by [bufferSize] entries (vector blocks or record batches),
+ * so readers pause when the consumer falls behind.
+ *
+ * @property parallelism    maximum number of sources read concurrently
+ * @property ordered        emit output in source order (otherwise in arrival order)
+ * @property bufferSize     maximum number of queued blocks / record batches per scan
+ * @property virtualThreads read on virtual threads; `false` uses platform daemon threads
+ */
+data class ScanOptions(
+    val parallelism: Int = 1,
+    val ordered: Boolean = false,
+    val bufferSize: Int = DEFAULT_BUFFER_SIZE,
+    val virtualThreads: Boolean = true,
+) {
+
+    init {
+        require(parallelism >= 1) { "Scan parallelism must be at least 1: $parallelism" }
+        require(bufferSize >= 1) { "Scan buffer size must be at least 1: $bufferSize" }
+    }
+
+    /** `true` when sources are read concurrently. */
+    val isParallel: Boolean get() = parallelism > 1
+
+    companion object {
+        /** Default number of queued blocks / record batches. */
+        const val DEFAULT_BUFFER_SIZE = 16
+
+        /** Reads sources one after another. */
+        @JvmField
+        val SEQUENTIAL = ScanOptions()
+    }
+}
@@ -0,0 +1,80 @@
+package io.qpointz.mill.source
+
+import java.util.zip.CRC32
+
+/**
+ * One of [count] disjoint shares of the sources of a [MultiFileSourceTable].
+ *
+ * A partition is bound to the scanning thread with [withPartition]; tables opened on that
+ * thread read only the sources assigned to [index], so executing the same scan once per
+ * partition reads every source exactly once. Sources with a stable identity (blob URI) are
+ * assigned by a hash of it, so partitions stay disjoint even when the table's source list
+ * is reordered or changes between tickets; sources without one fall back to their position
+ * `i % count == index`.
+ *
+ * Backends that do not read through [MultiFileSourceTable] ignore the partition; callers
+ * check [applied] after the scan has started to detect that and avoid duplicate rows.
+ *
+ * @property index zero-based partition index, less than [count]
+ * @property count total number of partitions
+ */
+class ScanPartition(val index: Int, val count: Int) {
+
+    init {
+        require(count >= 1) { "Partition count must be at least 1: $count" }
+        require(index in 0 until count) { "Partition index $index out of range 0..${count - 1}" }
+    }
+
+    /** `true` once a table has narrowed its sources to this partition. */
+    @Volatile
+    var applied: Boolean = false
+        private set
+
+    /**
+     * Returns the share of [sources] belonging to this partition and marks it [applied].
+     *
+     * @param keys stable identities of [sources], position by position, or `null` to select by position
+     */
+    fun <T> select(sources: List<T>, keys: List<String>? = null): List<T> {
+        applied = true
+        if (count == 1) return sources
+        if (keys != null) {
+            require(keys.size == sources.size) { "Expected ${sources.size} source keys, got ${keys.size}" }
+            return sources.filterIndexed { i, _ -> owns(keys[i]) }
+        }
+        return sources.filterIndexed { i, _ -> i % count == index }
+    }
+
+    /** `true` when the source identified by [key] belongs to this partition. */
+    fun owns(key: String): Boolean {
+        val crc = CRC32()
+        crc.update(key.toByteArray(Charsets.UTF_8))
+        return Math.floorMod(crc.value, count.toLong()) == index.toLong()
+    }
+
+    override fun toString(): String = "ScanPartition($index/$count)"
+
+    companion object {
+
+        private val CURRENT = ThreadLocal<ScanPartition?>()
+
+        /** Partition bound to the calling thread, or `null` for full scans. */
+        @JvmStatic
+        fun current(): ScanPartition? = CURRENT.get()
+
+        /**
+         * Runs [block] with [partition] bound to the calling thread, restoring the previous
+         * binding afterwards.
+         */
+        @JvmStatic
+        fun <T> withPartition(partition: ScanPartition?, block: () -> T): T {
+            val previous = CURRENT.get()
+            CURRENT.set(partition)
+            try {
+                return block()
+            } finally {
+                if (previous == null) CURRENT.remove() else CURRENT.set(previous)
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.qpointz.mill.source
+
+import java.time.LocalDate
+
+/**
+ * Comparison operator of a [ScanPredicate.Compare].
+ */
+enum class CompareOp {
+    EQ, NE, LT, LE, GT, GE;
+
+    /**
+     * Operator with operands swapped (`literal op column` → `column op' literal`).
+     */
+    fun flip(): CompareOp = when (this) {
+        EQ -> EQ
+        NE -> NE
+        LT -> GT
+        LE -> GE
+        GT -> LT
+        GE -> LE
+    }
+
+    /**
+     * `true` when a [Comparable.compareTo] result of `column` against the literal satisfies
+     * this operator.
+     */
+    fun test(comparison: Int): Boolean = when (this) {
+        EQ -> comparison == 0
+        NE -> comparison != 0
+        LT -> comparison < 0
+        LE -> comparison <= 0
+        GT -> comparison > 0
+        GE -> comparison >= 0
+    }
+}
+
+/**
+ * Simple column predicate pushed from the query plan to record sources.
+ *
+ * Predicates in a [RecordScanSpec] are conjunctive. They are **hints**: a source may use them to
+ * skip data it can prove does not match (e.g. Parquet row groups by min/max statistics) but is not
+ * required to filter rows exactly, so the query engine keeps evaluating the original condition.
+ *
+ * Literal values are normalized to [Long] (integral numbers and dates as epoch days),
+ * [Double], [String] or [Boolean].
+ */
+sealed interface ScanPredicate {
+
+    /** Name of the column the predicate applies to. */
+    val column: String
+
+    /**
+     * `column op value`.
+     */
+    data class Compare(override val column: String, val op: CompareOp, val value: Any) : ScanPredicate
+
+    /**
+     * `column IN (values)`.
+     */
+    data class In(override val column: String, val values: List<Any>) : ScanPredicate
+
+    /**
+     * `column IS NULL`.
+     */
+    data class IsNull(override val column: String) : ScanPredicate
+
+    /**
+     * `column IS NOT NULL`.
+     */
+    data class IsNotNull(override val column: String) : ScanPredicate
+}
+
+/**
+ * Evaluates this predicate against [value], the one value its column holds for a whole source
+ * (e.g. a table attribute extracted from the blob path).
+ *
+ * Values are normalized like literals: integral numbers to [Long], [LocalDate] to epoch days.
+ * Comparisons with a `null` value are `false`, as in SQL.
+ *
+ * @return whether the predicate holds, or `null` when [value] cannot be compared with the
+ *         literal (unsupported or mismatched types) and the source must be kept
+ */
+fun ScanPredicate.matches(value: Any?): Boolean? = when (this) {
+    is ScanPredicate.IsNull -> value == null
+    is ScanPredicate.IsNotNull -> value != null
+    is ScanPredicate.Compare -> if (value == null) false else compareToLiteral(value, this.value)?.let(op::test)
+    is ScanPredicate.In -> if (value == null) {
+        false
+    } else {
+        val comparisons = values.map { compareToLiteral(value, it) }
+        when {
+            comparisons.any { it == 0 } -> true
+            comparisons.any { it == null } -> null
+            else -> false
+        }
+    }
+}
+
+private fun compareToLiteral(value: Any, literal: Any): Int? {
+    val normalized = when (value) {
+        is Int, is Short, is Byte -> (value as Number).toLong()
+        is Long, is Double, is String, is Boolean -> value
+        is LocalDate -> value.toEpochDay()
+        // floats do not round-trip through double literals exactly
+        else -> return null
+    }
+    return when {
+        normalized is Long && literal is Long -> normalized.compareTo(literal)
+        normalized is Number && literal is Number -> normalized.toDouble().compareTo(literal.toDouble())
+        normalized is String && literal is String -> normalized.compareTo(literal)
+        normalized is Boolean && literal is Boolean -> normalized.compareTo(literal)
+        else -> null
+    }
+}
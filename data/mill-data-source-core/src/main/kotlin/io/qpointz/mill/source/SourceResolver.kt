@@ -12,14 +12,74 @@ import io.qpointz.mill.source.statistics.SourceStatisticWiring
  * Resolves a [MaterializedSource] into a map of logical table names to
  * [SourceTable] instances, applying multi-reader conflict resolution
  * and attribute enrichment.
+ *
+ * Resolution is split into planning — mapping listed blobs to tables ([TablePlan]s) — and
+ * building the tables, so that [refresh] can rebuild only the tables whose blobs changed.
  */
 object SourceResolver {
 
-    fun resolve(source: MaterializedSource): Map<String, SourceTable> {
-        val blobSource = source.blobSource
-        val conflicts = source.conflicts
+    fun resolve(source: MaterializedSource): Map<String, SourceTable> = resolve(source, listBlobs(source))
+
+    /**
+     * Resolves [source] from an already listed set of [blobs].
+     */
+    fun resolve(source: MaterializedSource, blobs: List<BlobPath>): Map<String, SourceTable> =
+        plan(source, blobs).mapValues { (_, plan) -> buildTable(source, plan) }
 
-        val allBlobs = blobSource.listBlobs().toList()
+    /**
+     * Resolves [source] into a [ResolvedSource] that remembers its listing and the blob
+     * [versions], for later [refresh].
+     */
+    fun resolveSource(
+        source: MaterializedSource,
+        blobs: List<BlobPath> = listBlobs(source),
+        versions: Map<BlobPath, String?> = BlobListing.versions(source.blobSource, blobs),
+    ): ResolvedSource {
+        val plans = plan(source, blobs)
+        val tables = plans.mapValues { (_, plan) -> buildTable(source, plan) }
+        return ResolvedSource(source, tables, blobs, plans, versions)
+    }
+
+    /**
+     * Re-resolves [resolved] against a new listing of its storage.
+     *
+     * Tables whose readers, blobs and blob [versions] are unchanged keep their [SourceTable]
+     * instance; new and changed tables (including those with a blob rewritten in place) are
+     * built anew and tables without blobs disappear. [resolved] is left untouched, so scans
+     * already running on its tables are not affected.
+     */
+    fun refresh(
+        resolved: ResolvedSource,
+        blobs: List<BlobPath>,
+        versions: Map<BlobPath, String?> = BlobListing.versions(resolved.materialized.blobSource, blobs),
+    ): ResolvedSource {
+        val source = resolved.materialized
+        val rewritten = BlobListing.diff(resolved.blobs, blobs, resolved.versions, versions).changed
+        val plans = plan(source, blobs)
+        val tables = plans.mapValues { (name, plan) ->
+            val previousTable = resolved.tables[name]
+            if (previousTable != null && resolved.plans[name]?.sameBlobs(plan) == true &&
+                plan.parts.none { (_, planBlobs) -> planBlobs.any { it in rewritten } }
+            ) {
+                previousTable
+            } else {
+                buildTable(source, plan)
+            }
+        }
+        return ResolvedSource(source, tables, blobs, plans, versions)
+    }
+
+    /**
+     * Lists the blobs of [source], scoped to its [RefreshOptions.prefixes] when configured.
+     */
+    fun listBlobs(source: MaterializedSource): List<BlobPath> =
+        BlobListing.list(source.blobSource, source.refresh.prefixes, source.refresh.listingConcurrency)
+
+    /**
+     * Maps [allBlobs] to tables, applying labels and conflict resolution.
+     */
+    private fun plan(source: MaterializedSource, allBlobs: List<BlobPath>): Map<String, TablePlan> {
+        val conflicts = source.conflicts
 
         data class ReaderTableEntry(
             val rawTableName: String,
@@ -105,43 +165,58 @@ object SourceResolver {
             }
         }
 
-        // Build SourceTable for each resolved table, with attribute enrichment
-        return resolvedTables.mapValues { (_, readerBlobPairs) ->
-            val firstReader = readerBlobPairs.first().first
-            val firstBlobs = readerBlobPairs.first().second
-            val baseSchema = firstReader.formatHandler.inferSchema(firstBlobs.first(), blobSource)
-
-            // Augment schema with attribute fields (from first reader that has them)
-            val extractor = readerBlobPairs.firstNotNullOfOrNull { it.first.attributeExtractor }
-            val schema = if (extractor != null) {
-                val extraFields = extractor.schemaFields(baseSchema.size)
-                RecordSchema(baseSchema.fields + extraFields)
-            } else {
-                baseSchema
-            }
+        return resolvedTables.mapValues { (_, readerBlobPairs) -> TablePlan(readerBlobPairs) }
+    }
 
-            val sources = readerBlobPairs.flatMap { (reader, blobs) ->
-                blobs.map { blob ->
-                    val baseSource = reader.formatHandler.createRecordSource(blob, blobSource, baseSchema)
-                    if (reader.attributeExtractor != null) {
-                        val attrValues = reader.attributeExtractor.extract(blob)
-                        AttributeEnrichingRecordSource(baseSource, attrValues, schema)
-                    } else {
-                        baseSource
-                    }
+    /**
+     * Builds the [SourceTable] of [plan], with attribute enrichment.
+     */
+    private fun buildTable(source: MaterializedSource, plan: TablePlan): SourceTable {
+        val blobSource = source.blobSource
+        val readerBlobPairs = plan.parts
+        val firstReader = readerBlobPairs.first().first
+        val firstBlobs = readerBlobPairs.first().second
+        val baseSchema = firstReader.formatHandler.inferSchema(firstBlobs.first(), blobSource)
+
+        // Augment schema with attribute fields (from first reader that has them)
+        val extractor = readerBlobPairs.firstNotNullOfOrNull { it.first.attributeExtractor }
+        val schema = if (extractor != null) {
+            val extraFields = extractor.schemaFields(baseSchema.size)
+            RecordSchema(baseSchema.fields + extraFields)
+        } else {
+            baseSchema
+        }
+
+        val sourcesByBlob = readerBlobPairs.flatMap { (reader, blobs) ->
+            blobs.map { blob ->
+                val baseSources = reader.formatHandler.createRecordSources(blob, blobSource, baseSchema)
+                blob to if (reader.attributeExtractor != null) {
+                    val attrValues = reader.attributeExtractor.extract(blob)
+                    baseSources.map { AttributeEnrichingRecordSource(it, attrValues, schema) }
+                } else {
+                    baseSources
                 }
             }
+        }
+        val sources = sourcesByBlob.flatMap { it.second }
+        val sourceKeys = sourcesByBlob.flatMap { (blob, blobSources) ->
+            blobSources.indices.map { i -> "${blob.uri}#$i" }
+        }
 
-            val statisticProviders = SourceStatisticWiring.forTable(
-                schema = schema,
-                blobSource = blobSource,
-                readerBlobPairs = readerBlobPairs.map { (reader, blobs) ->
-                    reader.formatHandler to blobs
-                },
-            )
+        val statisticProviders = SourceStatisticWiring.forTable(
+            schema = schema,
+            blobSource = blobSource,
+            readerBlobPairs = readerBlobPairs.map { (reader, blobs) ->
+                reader.formatHandler to blobs
+            },
+            maintainer = source.statistics,
+            blobRecordSources = sourcesByBlob.toMap(),
+        )
 
-            MultiFileSourceTable(schema, sources, statisticProviders)
-        }
+        // Union tables read with the most parallel options among their readers
+        val scanOptions = readerBlobPairs.map { it.first.scanOptions }.maxBy { it.parallelism }
+
+        return MultiFileSourceTable(schema, sources, statisticProviders, scanOptions, sourceKeys)
     }
 
     fun resolveDescriptor(
@@ -149,21 +224,46 @@ object SourceResolver {
         materializer: SourceMaterializer = SourceMaterializer()
     ): ResolvedSource {
         val materialized = materializer.materialize(descriptor)
-        val tables = resolve(materialized)
-        return ResolvedSource(materialized, tables)
+        return resolveSource(materialized)
     }
 
     private fun applyLabel(tableName: String, label: String?): String =
         if (label != null) "${tableName}_${label}" else tableName
 }
 
+/**
+ * Readers and blobs one resolved table is built from.
+ *
+ * @property parts blobs of the table per contributing reader
+ */
+data class TablePlan(
+    val parts: List<Pair<MaterializedReader, List<BlobPath>>>
+) {
+
+    /**
+     * `true` when [other] reads the same blobs with the same readers, in any blob order.
+     */
+    fun sameBlobs(other: TablePlan): Boolean =
+        parts.size == other.parts.size &&
+            parts.zip(other.parts).all { (mine, theirs) ->
+                mine.first === theirs.first && mine.second.toSet() == theirs.second.toSet()
+            }
+}
+
 /**
  * Holds a fully resolved source: the materialized runtime components
  * and the discovered tables.
+ *
+ * @property blobs the listing the tables were resolved from (empty when not recorded)
+ * @property plans the [TablePlan] of each table, used by [SourceResolver.refresh]
+ * @property versions [BlobSource.versionOf] tokens of [blobs] at resolution time
  */
 data class ResolvedSource(
     val materialized: MaterializedSource,
-    val tables: Map<String, SourceTable>
+    val tables: Map<String, SourceTable>,
+    val blobs: List<BlobPath> = emptyList(),
+    val plans: Map<String, TablePlan> = emptyMap(),
+    val versions: Map<BlobPath, String?> = emptyMap()
 ) : AutoCloseable {
 
     val name: String get() = materialized.name
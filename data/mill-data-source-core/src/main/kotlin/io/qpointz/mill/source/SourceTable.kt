@@ -31,6 +31,18 @@ interface SourceTable {
      */
     fun records(): Iterable<Record>
 
+    /**
+     * Row-oriented access for a single scan described by [spec].
+     *
+     * Implementations may hand the spec to [ScanPushdownSource]s to skip columns and data;
+     * the default ignores it and returns [records]. Records always hold the spec's columns
+     * but may hold others too, and may include rows not matching its predicates.
+     *
+     * @param spec    projected columns and predicate hints
+     * @param metrics counters of skipped data for this scan
+     */
+    fun records(spec: RecordScanSpec, metrics: ScanMetrics = ScanMetrics()): Iterable<Record> = records()
+
     /**
      * Columnar access: returns all data from all underlying files
      * as a concatenated [VectorBlockIterator].
@@ -39,6 +51,19 @@ interface SourceTable {
      */
     fun vectorBlocks(batchSize: Int = 1024): VectorBlockIterator
 
+    /**
+     * Columnar access for a single scan described by [spec].
+     *
+     * Implementations return vectors of the spec's columns only, keeping table-level
+     * field indices. The default ignores the spec and returns [vectorBlocks].
+     *
+     * @param batchSize number of rows per vector block
+     * @param spec      projected columns and predicate hints
+     * @param metrics   counters of skipped data for this scan
+     */
+    fun vectorBlocks(batchSize: Int, spec: RecordScanSpec, metrics: ScanMetrics = ScanMetrics()): VectorBlockIterator =
+        vectorBlocks(batchSize)
+
     /**
      * Returns a mill-core [io.qpointz.mill.sql.RecordReader] wrapping
      * the columnar path for integration with the mill query engine.
@@ -0,0 +1,271 @@
+package io.qpointz.mill.source.blob
+
+import org.slf4j.LoggerFactory
+import java.nio.channels.SeekableByteChannel
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Shared LRU cache of fixed-size blob blocks behind [CachingSeekableByteChannel]s.
+ *
+ * Channels read whole [blockSize] blocks instead of the caller's buffer size: missing
+ * adjacent blocks are fetched with one ranged request of at most [maxRequestBytes], and
+ * sequential reads schedule [readAheadBlocks] further blocks on background virtual
+ * threads. Concurrent lookups of a block that is being fetched wait for that fetch
+ * instead of issuing their own.
+ *
+ * Blocks are keyed by blob key and [BlobRangeReader.version] (ETag), so footers and
+ * metadata read once — e.g. during schema inference — are served from memory to every
+ * later channel on the same blob version. Blobs without a version are cached only for
+ * the lifetime of their channel.
+ *
+ * One cache is typically owned by a [io.qpointz.mill.source.BlobSource] and closed with it.
+ *
+ * @property blockSize       size of a cached block in bytes
+ * @property maxBytes        upper bound of cached bytes before least recently used blocks are evicted
+ * @property readAheadBlocks blocks prefetched after a sequential read; `0` disables read-ahead
+ * @property maxRequestBytes upper bound of a single coalesced ranged request
+ */
+class BlobBlockCache(
+    val blockSize: Int = DEFAULT_BLOCK_SIZE,
+    val maxBytes: Long = DEFAULT_MAX_BYTES,
+    val readAheadBlocks: Int = DEFAULT_READ_AHEAD_BLOCKS,
+    val maxRequestBytes: Int = DEFAULT_MAX_REQUEST_BYTES,
+) : AutoCloseable {
+
+    init {
+        require(blockSize > 0) { "Block size must be positive: $blockSize" }
+        require(maxBytes >= blockSize) { "Cache size must hold at least one block: $maxBytes" }
+        require(readAheadBlocks >= 0) { "Read-ahead blocks must not be negative: $readAheadBlocks" }
+        require(maxRequestBytes >= blockSize) { "Request size must hold at least one block: $maxRequestBytes" }
+    }
+
+    /** Counters of all channels opened through this cache. */
+    val metrics = BlobCacheMetrics()
+
+    private data class BlockKey(val scope: String, val index: Long)
+
+    private val lock = Any()
+
+    private val lru = LinkedHashMap<BlockKey, ByteArray>(16, 0.75f, true)
+
+    private var cachedBytes = 0L
+
+    private val inFlight = ConcurrentHashMap<BlockKey, CompletableFuture<ByteArray>>()
+
+    private val unversioned = AtomicLong()
+
+    private val prefetcher: ExecutorService =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mill-blob-prefetch-", 0).factory())
+
+    @Volatile
+    private var closed = false
+
+    /**
+     * Opens a caching channel over [reader]; closing the channel closes the reader.
+     */
+    fun open(reader: BlobRangeReader): SeekableByteChannel = CachingSeekableByteChannel(reader, this)
+
+    /** Number of bytes currently cached. */
+    val size: Long
+        get() = synchronized(lock) { cachedBytes }
+
+    /**
+     * Stops read-ahead and drops all cached blocks.
+     */
+    override fun close() {
+        closed = true
+        prefetcher.shutdownNow()
+        synchronized(lock) {
+            lru.clear()
+            cachedBytes = 0
+        }
+    }
+
+    internal fun scopeOf(reader: BlobRangeReader): Scope {
+        val version = reader.version
+        return if (version != null) {
+            Scope("${reader.key}@$version", shared = true)
+        } else {
+            Scope("${reader.key}#${unversioned.incrementAndGet()}", shared = false)
+        }
+    }
+
+    /**
+     * Drops blocks of a channel-private scope.
+     */
+    internal fun release(scope: Scope) {
+        if (scope.shared) return
+        synchronized(lock) {
+            val iterator = lru.entries.iterator()
+            while (iterator.hasNext()) {
+                val entry = iterator.next()
+                if (entry.key.scope == scope.id) {
+                    cachedBytes -= entry.value.size
+                    iterator.remove()
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns blocks [first]..[last] of the blob, fetching the missing ones.
+     */
+    internal fun blocks(scope: Scope, reader: BlobRangeReader, first: Long, last: Long): List<ByteArray> {
+        val result = arrayOfNulls<ByteArray>((last - first + 1).toInt())
+        val pending = mutableMapOf<Long, CompletableFuture<ByteArray>>()
+        val claimed = sortedMapOf<Long, CompletableFuture<ByteArray>>()
+        for (index in first..last) {
+            val key = BlockKey(scope.id, index)
+            val cached = synchronized(lock) { lru[key] }
+            if (cached != null) {
+                metrics.hit()
+                result[(index - first).toInt()] = cached
+                continue
+            }
+            val future = CompletableFuture<ByteArray>()
+            val existing = inFlight.putIfAbsent(key, future)
+            if (existing != null) {
+                metrics.hit()
+                pending[index] = existing
+            } else {
+                claimed[index] = future
+            }
+        }
+        if (claimed.isNotEmpty()) {
+            metrics.miss(claimed.size)
+            fetch(scope, reader, claimed)
+        }
+        for ((index, future) in claimed + pending) {
+            result[(index - first).toInt()] = try {
+                future.join()
+            } catch (e: CompletionException) {
+                if (index in claimed) throw e.cause ?: e
+                // a failed read-ahead is retried by the reader that needs the block
+                fetchUncached(reader, index)
+            }
+        }
+        return result.map { it!! }
+    }
+
+    /**
+     * Schedules a background fetch of blocks [first]..[last] that are neither cached nor in flight.
+     */
+    internal fun prefetch(scope: Scope, reader: BlobRangeReader, first: Long, last: Long) {
+        if (closed) return
+        val claimed = sortedMapOf<Long, CompletableFuture<ByteArray>>()
+        for (index in first..last) {
+            val key = BlockKey(scope.id, index)
+            if (synchronized(lock) { lru.containsKey(key) }) continue
+            val future = CompletableFuture<ByteArray>()
+            if (inFlight.putIfAbsent(key, future) == null) {
+                claimed[index] = future
+            }
+        }
+        if (claimed.isEmpty()) return
+        metrics.prefetched(claimed.size)
+        try {
+            prefetcher.execute {
+                try {
+                    fetch(scope, reader, claimed)
+                } catch (e: Exception) {
+                    log.debug("Read-ahead of {} failed", reader.key, e)
+                }
+            }
+        } catch (e: Exception) {
+            // executor shut down concurrently
+            abandon(scope, claimed, e)
+        }
+    }
+
+    private fun fetch(scope: Scope, reader: BlobRangeReader, claimed: Map<Long, CompletableFuture<ByteArray>>) {
+        try {
+            for (run in runs(claimed.keys.toList())) {
+                val offset = run.first() * blockSize
+                val end = minOf((run.last() + 1) * blockSize, reader.size())
+                val bytes = reader.read(offset, (end - offset).toInt())
+                metrics.fetched(bytes.size)
+                for (index in run) {
+                    val from = ((index - run.first()) * blockSize).toInt()
+                    val block = bytes.copyOfRange(from, minOf(from + blockSize, bytes.size))
+                    put(BlockKey(scope.id, index), block)
+                    claimed.getValue(index).complete(block)
+                    inFlight.remove(BlockKey(scope.id, index))
+                }
+            }
+        } catch (e: Exception) {
+            abandon(scope, claimed, e)
+            throw e
+        }
+    }
+
+    private fun abandon(scope: Scope, claimed: Map<Long, CompletableFuture<ByteArray>>, error: Exception) {
+        for ((index, future) in claimed) {
+            if (future.completeExceptionally(error)) {
+                inFlight.remove(BlockKey(scope.id, index), future)
+            }
+        }
+    }
+
+    private fun fetchUncached(reader: BlobRangeReader, index: Long): ByteArray {
+        val offset = index * blockSize
+        val length = minOf(blockSize.toLong(), reader.size() - offset).toInt()
+        return reader.read(offset, length).also { metrics.fetched(it.size) }
+    }
+
+    /** Splits sorted block indexes into contiguous runs of at most [maxRequestBytes]. */
+    private fun runs(indexes: List<Long>): List<List<Long>> {
+        val maxBlocks = maxRequestBytes / blockSize
+        val runs = mutableListOf<MutableList<Long>>()
+        for (index in indexes) {
+            val current = runs.lastOrNull()
+            if (current != null && current.last() == index - 1 && current.size < maxBlocks) {
+                current += index
+            } else {
+                runs += mutableListOf(index)
+            }
+        }
+        return runs
+    }
+
+    private fun put(key: BlockKey, block: ByteArray) {
+        if (closed) return
+        synchronized(lock) {
+            lru.put(key, block)?.let { cachedBytes -= it.size }
+            cachedBytes += block.size
+            val iterator = lru.entries.iterator()
+            while (cachedBytes > maxBytes && iterator.hasNext()) {
+                val eldest = iterator.next()
+                if (eldest.key == key) continue
+                cachedBytes -= eldest.value.size
+                iterator.remove()
+                metrics.evicted()
+            }
+        }
+    }
+
+    /**
+     * Cache identity of one blob version; [shared] scopes outlive their channel.
+     */
+    internal data class Scope(val id: String, val shared: Boolean)
+
+    companion object {
+        private val log = LoggerFactory.getLogger(BlobBlockCache::class.java)
+
+        /** Default block size (1 MB). */
+        const val DEFAULT_BLOCK_SIZE: Int = 1024 * 1024
+
+        /** Default cache size (64 MB). */
+        const val DEFAULT_MAX_BYTES: Long = 64L * 1024 * 1024
+
+        /** Default number of read-ahead blocks. */
+        const val DEFAULT_READ_AHEAD_BLOCKS: Int = 2
+
+        /** Default upper bound of a coalesced request (8 MB). */
+        const val DEFAULT_MAX_REQUEST_BYTES: Int = 8 * 1024 * 1024
+    }
+}
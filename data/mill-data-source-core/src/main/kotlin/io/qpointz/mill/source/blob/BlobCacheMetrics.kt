@@ -0,0 +1,84 @@
+package io.qpointz.mill.source.blob
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counters of a [BlobBlockCache], shared by all channels opened through it.
+ *
+ * Thread-safe. Every increment is also added to [parent], by default [TOTALS], which sums
+ * the caches of the process and is published as meters.
+ *
+ * @param parent counters every increment is propagated to; `null` for none
+ */
+class BlobCacheMetrics(private val parent: BlobCacheMetrics? = TOTALS) {
+
+    private val hits = AtomicLong()
+    private val misses = AtomicLong()
+    private val requests = AtomicLong()
+    private val bytesFetched = AtomicLong()
+    private val blocksPrefetched = AtomicLong()
+    private val evictions = AtomicLong()
+
+    internal fun hit() {
+        hits.incrementAndGet()
+        parent?.hit()
+    }
+
+    internal fun miss(count: Int) {
+        misses.addAndGet(count.toLong())
+        parent?.miss(count)
+    }
+
+    internal fun fetched(bytes: Int) {
+        requests.incrementAndGet()
+        bytesFetched.addAndGet(bytes.toLong())
+        parent?.fetched(bytes)
+    }
+
+    internal fun prefetched(blocks: Int) {
+        blocksPrefetched.addAndGet(blocks.toLong())
+        parent?.prefetched(blocks)
+    }
+
+    internal fun evicted() {
+        evictions.incrementAndGet()
+        parent?.evicted()
+    }
+
+    /** Immutable snapshot of the current counters. */
+    fun snapshot(): Snapshot = Snapshot(
+        hits = hits.get(),
+        misses = misses.get(),
+        requests = requests.get(),
+        bytesFetched = bytesFetched.get(),
+        blocksPrefetched = blocksPrefetched.get(),
+        evictions = evictions.get(),
+    )
+
+    /**
+     * @property hits             block lookups served from the cache or an in-flight fetch
+     * @property misses           block lookups that required a storage request
+     * @property requests         ranged requests issued to storage
+     * @property bytesFetched     bytes downloaded from storage
+     * @property blocksPrefetched blocks fetched by read-ahead
+     * @property evictions        blocks evicted to stay within the cache size
+     */
+    data class Snapshot(
+        val hits: Long,
+        val misses: Long,
+        val requests: Long,
+        val bytesFetched: Long,
+        val blocksPrefetched: Long,
+        val evictions: Long,
+    ) {
+        /** Share of block lookups served without a storage request, `0.0` before any lookup. */
+        val hitRatio: Double
+            get() = if (hits + misses == 0L) 0.0 else hits.toDouble() / (hits + misses)
+    }
+
+    companion object {
+        /** Counters of every block cache of the process. */
+        @JvmField
+        val TOTALS = BlobCacheMetrics(null)
+    }
+}
@@ -0,0 +1,44 @@
+package io.qpointz.mill.source.blob
+
+import java.io.Closeable
+
+/**
+ * Ranged read access to a single remote blob, the storage-specific part of a
+ * [CachingSeekableByteChannel].
+ *
+ * Implementations issue one storage request per [read] call; batching, caching and
+ * read-ahead are done by [BlobBlockCache].
+ *
+ * @see BlobBlockCache
+ */
+interface BlobRangeReader : Closeable {
+
+    /** Stable identity of the blob (typically its URI). */
+    val key: String
+
+    /**
+     * Version of the blob content (ETag or generation), or `null` when unknown.
+     *
+     * Blocks are only shared between channels when a version is available, so a
+     * rewritten blob never serves stale cached bytes.
+     */
+    val version: String?
+
+    /** Blob size in bytes. */
+    fun size(): Long
+
+    /**
+     * Reads exactly [length] bytes starting at [offset].
+     *
+     * Callers never request bytes beyond [size].
+     *
+     * @param offset zero-based start offset
+     * @param length number of bytes to read
+     * @return the requested bytes
+     */
+    fun read(offset: Long, length: Int): ByteArray
+
+    /** Releases resources held by the reader; the default does nothing. */
+    override fun close() {
+    }
+}
@@ -0,0 +1,157 @@
+package io.qpointz.mill.source.blob
+
+import java.nio.ByteBuffer
+import java.nio.channels.ClosedChannelException
+import java.nio.channels.NonWritableChannelException
+import java.nio.channels.SeekableByteChannel
+
+/**
+ * A read-only [SeekableByteChannel] over a [BlobRangeReader] that reads through a
+ * [BlobBlockCache].
+ *
+ * Each [read] is served from whole cached blocks; missing blocks are fetched with as
+ * few ranged requests as possible. A read that starts where the previous one ended
+ * counts as sequential and schedules read-ahead of the following blocks.
+ *
+ * This channel is **not writable** — [write] and [truncate] throw
+ * [NonWritableChannelException]. Closing it closes the [reader].
+ *
+ * @param reader storage access for the blob
+ * @param cache  block cache shared with other channels
+ */
+class CachingSeekableByteChannel internal constructor(
+    private val reader: BlobRangeReader,
+    private val cache: BlobBlockCache,
+) : SeekableByteChannel {
+
+    private val scope = cache.scopeOf(reader)
+
+    @Volatile
+    private var open = true
+
+    @Volatile
+    private var pos: Long = 0
+
+    private var lastReadEnd: Long = -1
+
+    private val cachedSize: Long by lazy { reader.size() }
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffer.
+     *
+     * Fills [dst] up to its remaining capacity or the end of the blob.
+     *
+     * @param dst the buffer into which bytes are to be transferred
+     * @return the number of bytes read, or `-1` if the position is at or past end-of-file
+     * @throws ClosedChannelException if the channel has been closed
+     */
+    override fun read(dst: ByteBuffer): Int {
+        ensureOpen()
+        val totalSize = size()
+        if (pos >= totalSize) return -1
+        val length = minOf(dst.remaining().toLong(), totalSize - pos).toInt()
+        if (length == 0) return 0
+
+        val blockSize = cache.blockSize
+        val first = pos / blockSize
+        val last = (pos + length - 1) / blockSize
+        val blocks = cache.blocks(scope, reader, first, last)
+
+        var copied = 0
+        for ((i, block) in blocks.withIndex()) {
+            val blockStart = (first + i) * blockSize
+            val from = maxOf(0L, pos + copied - blockStart).toInt()
+            val count = minOf(block.size - from, length - copied)
+            dst.put(block, from, count)
+            copied += count
+        }
+
+        val sequential = pos == lastReadEnd
+        pos += copied
+        lastReadEnd = pos
+        if (sequential && cache.readAheadBlocks > 0) {
+            val lastBlock = (totalSize - 1) / blockSize
+            val next = last + 1
+            if (next <= lastBlock) {
+                cache.prefetch(scope, reader, next, minOf(lastBlock, last + cache.readAheadBlocks))
+            }
+        }
+        return copied
+    }
+
+    /**
+     * Not supported — this channel is read-only.
+     *
+     * @throws NonWritableChannelException always
+     */
+    override fun write(src: ByteBuffer): Int {
+        throw NonWritableChannelException()
+    }
+
+    /**
+     * Returns the current byte position in this channel.
+     *
+     * @return the current position
+     * @throws ClosedChannelException if the channel has been closed
+     */
+    override fun position(): Long {
+        ensureOpen()
+        return pos
+    }
+
+    /**
+     * Sets the channel's position.
+     *
+     * @param newPosition the new position (non-negative)
+     * @return this channel
+     * @throws ClosedChannelException if the channel has been closed
+     * @throws IllegalArgumentException if [newPosition] is negative
+     */
+    override fun position(newPosition: Long): SeekableByteChannel {
+        ensureOpen()
+        require(newPosition >= 0) { "Position must be non-negative: $newPosition" }
+        pos = newPosition
+        return this
+    }
+
+    /**
+     * Returns the size of the blob in bytes, cached after the first call.
+     *
+     * @return blob size in bytes
+     * @throws ClosedChannelException if the channel has been closed
+     */
+    override fun size(): Long {
+        ensureOpen()
+        return cachedSize
+    }
+
+    /**
+     * Not supported — this channel is read-only.
+     *
+     * @throws NonWritableChannelException always
+     */
+    override fun truncate(size: Long): SeekableByteChannel {
+        throw NonWritableChannelException()
+    }
+
+    /**
+     * Tells whether this channel is open.
+     *
+     * @return `true` if the channel has not been closed
+     */
+    override fun isOpen(): Boolean = open
+
+    /**
+     * Closes this channel and its reader. Blocks of a versioned blob stay in the cache.
+     */
+    override fun close() {
+        if (!open) return
+        open = false
+        cache.release(scope)
+        reader.close()
+    }
+
+    private fun ensureOpen() {
+        if (!open) throw ClosedChannelException()
+    }
+}
@@ -30,6 +30,8 @@ import io.qpointz.mill.source.verify.*
  *     format:
  *       delimiter: ","
  *   - type: parquet
+ * refresh:
+ *   interval: PT5M
  * ```
  *
  * @property name      logical name of the source (becomes the schema name)
@@ -37,6 +39,7 @@ import io.qpointz.mill.source.verify.*
  * @property table     shared default table config (mapping + attributes)
  * @property conflicts conflict resolution strategy (default: reject)
  * @property readers   one or more reader configurations
+ * @property refresh   how the blob listing is kept current (listed once when absent)
  */
 @JsonDeserialize(using = SourceDescriptorDeserializer::class)
 data class SourceDescriptor(
@@ -44,7 +47,8 @@ data class SourceDescriptor(
     val storage: StorageDescriptor,
     val table: TableDescriptor? = null,
     val conflicts: ConflictResolution = ConflictResolution.DEFAULT,
-    val readers: List<ReaderDescriptor>
+    val readers: List<ReaderDescriptor>,
+    val refresh: SourceRefreshDescriptor? = null
 ) : Verifiable {
 
     init {
@@ -102,6 +106,10 @@ data class SourceDescriptor(
             report += reader.verify()
         }
 
+        if (refresh != null) {
+            report += refresh.verify()
+        }
+
         return report
     }
 }
@@ -144,12 +152,19 @@ class SourceDescriptorDeserializer : ValueDeserializer<SourceDescriptor>() {
             }
         }
 
+        val refresh = if (node.has("refresh")) {
+            deserializeChild<SourceRefreshDescriptor>(node.get("refresh"), ctxt)
+        } else {
+            null
+        }
+
         return SourceDescriptor(
             name = name,
             storage = storage,
             table = table,
             conflicts = conflicts,
-            readers = readers
+            readers = readers,
+            refresh = refresh
         )
     }
 
@@ -0,0 +1,62 @@
+package io.qpointz.mill.source.descriptor
+
+import io.qpointz.mill.source.RefreshOptions
+import io.qpointz.mill.source.verify.*
+import java.nio.file.Path
+import java.time.Duration
+
+/**
+ * Controls how the blob listing of a source is kept current after startup.
+ *
+ * YAML example:
+ * ```yaml
+ * refresh:
+ *   interval: PT5M              # re-list every 5 minutes (ISO-8601 duration)
+ *   watch: true                 # local storage: re-list on file-system events
+ *   prefixes: [sales/, returns/]
+ *   listingConcurrency: 4       # prefixes listed concurrently
+ *   snapshotFile: /var/lib/mill/warehouse.listing
+ * ```
+ *
+ * @property interval           delay between re-listings; unset disables polling
+ * @property watch              re-list on file-system events (local storage only)
+ * @property prefixes           key prefixes, relative to the storage root, listed instead of everything
+ * @property listingConcurrency maximum number of prefixes listed concurrently
+ * @property snapshotFile       file persisting the last listing, read on startup
+ */
+data class SourceRefreshDescriptor(
+    val interval: Duration? = null,
+    val watch: Boolean = false,
+    val prefixes: List<String> = emptyList(),
+    val listingConcurrency: Int = RefreshOptions.DEFAULT_LISTING_CONCURRENCY,
+    val snapshotFile: String? = null,
+) : Verifiable {
+
+    /**
+     * Converts this descriptor to runtime [RefreshOptions].
+     */
+    fun toRefreshOptions(): RefreshOptions = RefreshOptions(
+        interval = interval,
+        watch = watch,
+        prefixes = prefixes,
+        listingConcurrency = listingConcurrency,
+        snapshotFile = snapshotFile?.let { Path.of(it) },
+    )
+
+    override fun verify(): VerificationReport {
+        val issues = mutableListOf<VerificationIssue>()
+        if (interval != null && !interval.isPositive) {
+            issues += VerificationIssue(Severity.ERROR, Phase.DESCRIPTOR,
+                "Source refresh 'interval' must be positive, got $interval")
+        }
+        if (listingConcurrency < 1) {
+            issues += VerificationIssue(Severity.ERROR, Phase.DESCRIPTOR,
+                "Source refresh 'listingConcurrency' must be at least 1, got $listingConcurrency")
+        }
+        if (snapshotFile != null && interval == null && !watch) {
+            issues += VerificationIssue(Severity.WARNING, Phase.DESCRIPTOR,
+                "Source refresh 'snapshotFile' is only used when 'interval' or 'watch' is set")
+        }
+        return VerificationReport(issues)
+    }
+}
@@ -19,14 +19,18 @@ import io.qpointz.mill.source.verify.*
  *     - name: pipeline
  *       source: constant
  *       value: "raw-ingest"
+ *   scan:
+ *     parallelism: 4
  * ```
  *
  * @property mapping    table mapping strategy (how blobs become tables)
  * @property attributes extra columns extracted from blob paths or constants
+ * @property scan       how the table's files are read (sequential by default)
  */
 data class TableDescriptor(
     val mapping: TableMappingDescriptor? = null,
-    val attributes: List<TableAttributeDescriptor> = emptyList()
+    val attributes: List<TableAttributeDescriptor> = emptyList(),
+    val scan: TableScanDescriptor = TableScanDescriptor()
 ) : Verifiable {
 
     override fun verify(): VerificationReport {
@@ -45,6 +49,8 @@ data class TableDescriptor(
             report += attr.verify()
         }
 
+        report += scan.verify()
+
         // Check for duplicate attribute names
         val duplicates = attributes.groupBy { it.name }.filter { it.value.size > 1 }.keys
         for (dup in duplicates) {
@@ -0,0 +1,53 @@
+package io.qpointz.mill.source.descriptor
+
+import io.qpointz.mill.source.ScanOptions
+import io.qpointz.mill.source.verify.*
+
+/**
+ * Controls how the files of a table are read at query time.
+ *
+ * YAML example:
+ * ```yaml
+ * table:
+ *   scan:
+ *     parallelism: 8      # files read concurrently (1 = sequential)
+ *     ordered: false      # true keeps file order in the output
+ *     bufferSize: 16      # queued blocks between readers and the consumer
+ *     virtualThreads: true
+ * ```
+ *
+ * @property parallelism    maximum number of files read concurrently
+ * @property ordered        emit data in file order instead of arrival order
+ * @property bufferSize     maximum number of queued vector blocks / record batches
+ * @property virtualThreads read on virtual threads instead of platform threads
+ */
+data class TableScanDescriptor(
+    val parallelism: Int = 1,
+    val ordered: Boolean = false,
+    val bufferSize: Int = ScanOptions.DEFAULT_BUFFER_SIZE,
+    val virtualThreads: Boolean = true,
+) : Verifiable {
+
+    /**
+     * Converts this descriptor to runtime [ScanOptions].
+     */
+    fun toScanOptions(): ScanOptions = ScanOptions(
+        parallelism = parallelism,
+        ordered = ordered,
+        bufferSize = bufferSize,
+        virtualThreads = virtualThreads,
+    )
+
+    override fun verify(): VerificationReport {
+        val issues = mutableListOf<VerificationIssue>()
+        if (parallelism < 1) {
+            issues += VerificationIssue(Severity.ERROR, Phase.DESCRIPTOR,
+                "Table scan 'parallelism' must be at least 1, got $parallelism")
+        }
+        if (bufferSize < 1) {
+            issues += VerificationIssue(Severity.ERROR, Phase.DESCRIPTOR,
+                "Table scan 'bufferSize' must be at least 1, got $bufferSize")
+        }
+        return VerificationReport(issues)
+    }
+}
@@ -2,6 +2,7 @@ package io.qpointz.mill.source.factory
 
 import io.qpointz.mill.source.*
 import io.qpointz.mill.source.descriptor.*
+import io.qpointz.mill.source.statistics.BlobStatisticMaintainer
 import io.qpointz.mill.source.verify.*
 import java.util.ServiceLoader
 
@@ -12,9 +13,12 @@ import java.util.ServiceLoader
  * descriptor type. Third-party modules contribute factories via SPI.
  *
  * @param classLoader optional class loader for SPI discovery
+ * @param statistics  statistic store and background collector shared by the materialized
+ *                    sources, or `null` to keep planner statistics unpersisted
  */
-class SourceMaterializer(
-    private val classLoader: ClassLoader = Thread.currentThread().contextClassLoader
+class SourceMaterializer @JvmOverloads constructor(
+    private val classLoader: ClassLoader = Thread.currentThread().contextClassLoader,
+    private val statistics: BlobStatisticMaintainer? = null
 ) {
 
     private val storageFactories: Map<Class<out StorageDescriptor>, StorageFactory> by lazy {
@@ -94,7 +98,8 @@ class SourceMaterializer(
             label = reader.label,
             formatHandler = createFormatHandler(reader.format),
             tableMapper = createTableMapper(mappingDescriptor),
-            attributeExtractor = attributeExtractor
+            attributeExtractor = attributeExtractor,
+            scanOptions = effectiveTable.scan.toScanOptions()
         )
     }
 
@@ -110,20 +115,24 @@ class SourceMaterializer(
             name = descriptor.name,
             blobSource = blobSource,
             readers = readers,
-            conflicts = descriptor.conflicts
+            conflicts = descriptor.conflicts,
+            refresh = descriptor.refresh?.toRefreshOptions() ?: RefreshOptions.NONE,
+            statistics = statistics
         )
     }
 }
 
 /**
- * A materialized reader: format handler + table mapper + optional attribute extractor.
+ * A materialized reader: format handler + table mapper + optional attribute extractor,
+ * plus the [ScanOptions] of the tables it produces.
  */
 data class MaterializedReader(
     val type: String,
     val label: String?,
     val formatHandler: FormatHandler,
     val tableMapper: BlobToTableMapper,
-    val attributeExtractor: TableAttributeExtractor? = null
+    val attributeExtractor: TableAttributeExtractor? = null,
+    val scanOptions: ScanOptions = ScanOptions.SEQUENTIAL
 ) {
 
     /**
@@ -203,11 +212,21 @@ data class MaterializedSource(
     val name: String,
     val blobSource: BlobSource,
     val readers: List<MaterializedReader>,
-    val conflicts: ConflictResolution
+    val conflicts: ConflictResolution,
+    val refresh: RefreshOptions = RefreshOptions.NONE,
+    val statistics: BlobStatisticMaintainer? = null
 ) : AutoCloseable, Verifiable {
 
+    /**
+     * Closes the format handlers that hold resources (such as off-heap allocators) and the
+     * blob source; the shared [statistics] maintainer is owned by its creator.
+     */
     override fun close() {
-        blobSource.close()
+        try {
+            readers.forEach { (it.formatHandler as? AutoCloseable)?.close() }
+        } finally {
+            blobSource.close()
+        }
     }
 
     override fun verify(): VerificationReport {
@@ -0,0 +1,94 @@
+package io.qpointz.mill.source.statistics
+
+import java.time.LocalDate
+
+/**
+ * Column slice of a [BlobStatistic].
+ *
+ * [min] and [max] hold `Long`, `Double`, `String` or `Boolean` values: integral numbers are
+ * widened to `Long`, floats to `Double` and dates are stored as epoch days, as in
+ * [io.qpointz.mill.source.ScanPredicate] literals. They are null when the column has no
+ * non-null values or holds values without a stable order (timestamps, binary).
+ *
+ * @property nullCount number of null values
+ * @property min       smallest non-null value, see above
+ * @property max       largest non-null value, see above
+ * @property distinct  NDV sketch of the non-null values, or null when not collected
+ */
+data class ColumnStatistic(
+    val nullCount: Long,
+    val min: Any? = null,
+    val max: Any? = null,
+    val distinct: HyperLogLog? = null,
+) {
+
+    /** Estimated number of distinct non-null values, or null when no sketch was collected. */
+    val distinctCount: Long? get() = distinct?.estimate()
+
+    /**
+     * Combines the statistics of two disjoint sets of rows of the same column.
+     */
+    fun merge(other: ColumnStatistic): ColumnStatistic = ColumnStatistic(
+        nullCount = nullCount + other.nullCount,
+        min = bound(min, other.min) { it < 0 },
+        max = bound(max, other.max) { it > 0 },
+        distinct = if (distinct != null && other.distinct != null) distinct.merge(other.distinct) else null,
+    )
+
+    companion object {
+
+        /**
+         * Maps [value] to its [min]/[max] representation, or null when it has no stable order.
+         */
+        fun orderedValue(value: Any): Any? = when (value) {
+            is Long, is Double, is String, is Boolean -> value
+            is Int, is Short, is Byte -> (value as Number).toLong()
+            is Float -> value.toDouble()
+            is LocalDate -> value.toEpochDay()
+            else -> null
+        }
+
+        /**
+         * Compares two ordered values, or returns null when their types differ.
+         */
+        internal fun compare(left: Any, right: Any): Int? = when {
+            left is Long && right is Long -> left.compareTo(right)
+            left is Number && right is Number -> left.toDouble().compareTo(right.toDouble())
+            left is String && right is String -> left.compareTo(right)
+            left is Boolean && right is Boolean -> left.compareTo(right)
+            else -> null
+        }
+
+        private fun bound(left: Any?, right: Any?, prefer: (Int) -> Boolean): Any? {
+            if (left == null) return right
+            if (right == null) return left
+            val comparison = compare(left, right) ?: return null
+            return if (prefer(comparison)) left else right
+        }
+    }
+}
+
+/**
+ * Statistics of the rows of one blob, or of a whole table once merged.
+ *
+ * Collected by [BlobStatisticCollector] and kept in a [BlobStatisticStore].
+ *
+ * @property rowCount number of rows
+ * @property columns  column statistics by column name
+ */
+data class BlobStatistic(
+    val rowCount: Long,
+    val columns: Map<String, ColumnStatistic>,
+) {
+
+    /**
+     * Combines the statistics of two blobs of the same table. Columns present on one side
+     * only are dropped, since their values on the other side are unknown.
+     */
+    fun merge(other: BlobStatistic): BlobStatistic = BlobStatistic(
+        rowCount = rowCount + other.rowCount,
+        columns = columns.keys.intersect(other.columns.keys).associateWith {
+            columns.getValue(it).merge(other.columns.getValue(it))
+        },
+    )
+}
@@ -0,0 +1,81 @@
+package io.qpointz.mill.source.statistics
+
+import io.qpointz.mill.source.RecordSchema
+import io.qpointz.mill.source.RecordSource
+import io.qpointz.mill.source.openRecords
+
+/**
+ * Computes a [BlobStatistic] by scanning the records of one blob.
+ */
+object BlobStatisticCollector {
+
+    /**
+     * Scans [sources] — the record sources of one blob, such as its line-range splits — and
+     * collects row count, null counts, min/max and NDV sketches of every [schema] column.
+     */
+    fun collect(schema: RecordSchema, sources: List<RecordSource>): BlobStatistic {
+        val columns = schema.fieldNames.map(::ColumnAccumulator)
+        var rowCount = 0L
+        for (source in sources) {
+            val records = openRecords(source)
+            try {
+                while (records.hasNext()) {
+                    val record = records.next()
+                    rowCount++
+                    for (column in columns) {
+                        column.add(record[column.name])
+                    }
+                }
+            } finally {
+                (records as? AutoCloseable)?.close()
+            }
+        }
+        return BlobStatistic(rowCount, columns.associate { it.name to it.toStatistic() })
+    }
+
+    private class ColumnAccumulator(val name: String) {
+        private var nullCount = 0L
+        private var min: Any? = null
+        private var max: Any? = null
+        private var ordered = true
+        private val distinct = HyperLogLog()
+
+        fun add(value: Any?) {
+            if (value == null) {
+                nullCount++
+                return
+            }
+            distinct.add(value)
+            if (ordered) {
+                track(ColumnStatistic.orderedValue(value))
+            }
+        }
+
+        private fun track(value: Any?) {
+            val currentMin = min
+            val currentMax = max
+            if (value == null) {
+                ordered = false
+            } else if (currentMin == null || currentMax == null) {
+                min = value
+                max = value
+            } else {
+                val toMin = ColumnStatistic.compare(value, currentMin)
+                val toMax = ColumnStatistic.compare(value, currentMax)
+                if (toMin == null || toMax == null) {
+                    ordered = false
+                } else {
+                    if (toMin < 0) min = value
+                    if (toMax > 0) max = value
+                }
+            }
+        }
+
+        fun toStatistic(): ColumnStatistic = ColumnStatistic(
+            nullCount = nullCount,
+            min = if (ordered) min else null,
+            max = if (ordered) max else null,
+            distinct = distinct,
+        )
+    }
+}
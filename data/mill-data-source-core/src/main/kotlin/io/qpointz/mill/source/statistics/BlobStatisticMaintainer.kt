@@ -0,0 +1,124 @@
+package io.qpointz.mill.source.statistics
+
+import org.slf4j.LoggerFactory
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Serves [BlobStatistic]s from a [BlobStatisticStore] and collects missing ones in the
+ * background.
+ *
+ * Lookups never scan data: a blob version without a stored statistic is queued for
+ * collection on one of [threads] daemon threads and reported as unknown until the result
+ * is saved. Since store keys carry the blob version, only new and changed blobs are ever
+ * collected; a failed collection is retried on a later lookup once its backoff has elapsed,
+ * starting at [retryBackoff] and doubling per failure up to an hour.
+ *
+ * Shared by all sources of a schema manager; [close] stops pending collections.
+ *
+ * @property store        where statistics are kept
+ * @param    threads      number of background collection threads
+ * @property retryBackoff delay before the first retry of a failed collection
+ */
+class BlobStatisticMaintainer @JvmOverloads constructor(
+    val store: BlobStatisticStore = InMemoryBlobStatisticStore(),
+    threads: Int = 1,
+    val retryBackoff: Duration = DEFAULT_RETRY_BACKOFF,
+) : AutoCloseable {
+
+    private val executor: ExecutorService
+
+    private val pending = ConcurrentHashMap.newKeySet<BlobStatisticKey>()
+
+    private val failures = ConcurrentHashMap<BlobStatisticKey, Failure>()
+
+    private val finished = AtomicLong()
+
+    private class Failure(val attempts: Int, val retryAtNanos: Long)
+
+    init {
+        require(threads >= 1) { "Statistic collection needs at least one thread: $threads" }
+        require(retryBackoff > Duration.ZERO) { "Statistic retry backoff must be positive: $retryBackoff" }
+        executor = Executors.newFixedThreadPool(
+            threads,
+            Thread.ofPlatform().name("mill-statistics-", 0).daemon(true).factory()
+        )
+    }
+
+    /**
+     * Returns the stored statistics of [blobs], scheduling [collect] for every blob whose
+     * statistic is missing.
+     *
+     * @param blobs   keys of the blobs to look up
+     * @param collect computes the statistic of one blob; runs on a background thread
+     */
+    fun statistics(
+        blobs: Collection<BlobStatisticKey>,
+        collect: (BlobStatisticKey) -> BlobStatistic,
+    ): Map<BlobStatisticKey, BlobStatistic> {
+        if (blobs.isEmpty()) return emptyMap()
+        val found = store.findAll(blobs)
+        for (key in blobs) {
+            if (key !in found) {
+                schedule(key, collect)
+            }
+        }
+        return found
+    }
+
+    /** `true` while a collection is queued or running. */
+    val isCollecting: Boolean get() = pending.isNotEmpty()
+
+    /** Number of collections finished so far, successfully or not; lookups may change only when it does. */
+    val generation: Long get() = finished.get()
+
+    private fun schedule(key: BlobStatisticKey, collect: (BlobStatisticKey) -> BlobStatistic) {
+        val failure = failures[key]
+        if (failure != null && System.nanoTime() - failure.retryAtNanos < 0) return
+        if (!pending.add(key)) return
+        try {
+            executor.execute {
+                try {
+                    if (store.find(key) == null) {
+                        store.save(key, collect(key))
+                    }
+                    failures -= key
+                } catch (e: Exception) {
+                    val attempts = (failures[key]?.attempts ?: 0) + 1
+                    val backoff = backoff(attempts)
+                    failures[key] = Failure(attempts, System.nanoTime() + backoff.toNanos())
+                    log.warn("Cannot collect statistics of {} (attempt {}), retrying after {}", key.uri, attempts, backoff, e)
+                } finally {
+                    finished.incrementAndGet()
+                    pending -= key
+                }
+            }
+        } catch (_: RejectedExecutionException) {
+            pending -= key
+        }
+    }
+
+    private fun backoff(attempts: Int): Duration {
+        val limit = maxOf(retryBackoff, MAX_RETRY_BACKOFF)
+        val doublings = minOf(attempts - 1, MAX_DOUBLINGS)
+        return minOf(retryBackoff.multipliedBy(1L shl doublings), limit)
+    }
+
+    override fun close() {
+        executor.shutdownNow()
+    }
+
+    companion object {
+        /** Default delay before the first retry of a failed collection. */
+        @JvmField
+        val DEFAULT_RETRY_BACKOFF: Duration = Duration.ofSeconds(30)
+
+        private val MAX_RETRY_BACKOFF: Duration = Duration.ofHours(1)
+        private const val MAX_DOUBLINGS = 20
+        private val log = LoggerFactory.getLogger(BlobStatisticMaintainer::class.java)
+    }
+}
@@ -0,0 +1,79 @@
+package io.qpointz.mill.source.statistics
+
+/**
+ * Identifies the [BlobStatistic] of one version of a blob, read with one schema.
+ *
+ * @property uri         blob URI
+ * @property fingerprint fingerprint of the schema the blob is read with; tables reading the
+ *                       same blob with different schemas keep separate statistics
+ * @property version     blob content version (size and modification time, ETag)
+ */
+data class BlobStatisticKey(
+    val uri: String,
+    val fingerprint: String,
+    val version: String,
+)
+
+/**
+ * Port for storing [BlobStatistic]s across restarts.
+ *
+ * A store keeps at most one entry per blob URI and schema fingerprint: saving a new version
+ * replaces the old one, and lookups of any other version miss.
+ */
+interface BlobStatisticStore {
+
+    /**
+     * Returns the statistic stored for [key], or null when none is stored for that version.
+     */
+    fun find(key: BlobStatisticKey): BlobStatistic?
+
+    /**
+     * Returns the stored statistics of [keys]; keys without one are absent from the result.
+     */
+    fun findAll(keys: Collection<BlobStatisticKey>): Map<BlobStatisticKey, BlobStatistic> =
+        keys.mapNotNull { key -> find(key)?.let { key to it } }.toMap()
+
+    /**
+     * Stores [statistic] for [key], replacing the statistic of any other version of the blob
+     * read with the same schema.
+     */
+    fun save(key: BlobStatisticKey, statistic: BlobStatistic)
+}
+
+/**
+ * [BlobStatisticStore] held in memory; statistics are lost on restart.
+ *
+ * Holds at most [maxEntries] statistics and evicts the least recently used one beyond that,
+ * so long-running servers over ever-growing sources do not accumulate statistics of blobs
+ * that are no longer read.
+ *
+ * @param maxEntries maximum number of stored statistics
+ */
+class InMemoryBlobStatisticStore @JvmOverloads constructor(
+    private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+) : BlobStatisticStore {
+
+    init {
+        require(maxEntries > 0) { "maxEntries must be positive: $maxEntries" }
+    }
+
+    private val entries = object : LinkedHashMap<Pair<String, String>, Pair<String, BlobStatistic>>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Pair<String, String>, Pair<String, BlobStatistic>>) =
+            size > maxEntries
+    }
+
+    override fun find(key: BlobStatisticKey): BlobStatistic? = synchronized(entries) {
+        entries[key.uri to key.fingerprint]?.takeIf { it.first == key.version }?.second
+    }
+
+    override fun save(key: BlobStatisticKey, statistic: BlobStatistic) {
+        synchronized(entries) {
+            entries[key.uri to key.fingerprint] = key.version to statistic
+        }
+    }
+
+    companion object {
+        /** Default bound of [InMemoryBlobStatisticStore]. */
+        const val DEFAULT_MAX_ENTRIES = 10_000
+    }
+}
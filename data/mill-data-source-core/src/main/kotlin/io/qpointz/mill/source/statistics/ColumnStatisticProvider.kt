@@ -0,0 +1,12 @@
+package io.qpointz.mill.source.statistics
+
+/**
+ * Supplies [ColumnStatistic]s for a logical table.
+ */
+fun interface ColumnStatisticProvider {
+
+    /**
+     * Returns the column statistics by column name, or null while they are unknown.
+     */
+    fun columnStatistics(): Map<String, ColumnStatistic>?
+}
@@ -0,0 +1,162 @@
+package io.qpointz.mill.source.statistics
+
+import java.nio.ByteBuffer
+import kotlin.math.ln
+import kotlin.math.roundToLong
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values (NDV) of a column.
+ *
+ * Uses `2^precision` one-byte registers over a 64-bit hash; the relative standard error
+ * is about `1.04 / sqrt(2^precision)` (1.6% at the default precision). Sketches of the
+ * same precision are mergeable, so per-blob sketches combine into table-level NDVs.
+ *
+ * Not thread-safe while values are being added.
+ *
+ * @property precision number of index bits, in `4..16`
+ */
+class HyperLogLog private constructor(private val registers: ByteArray) {
+
+    constructor(precision: Int = DEFAULT_PRECISION) : this(ByteArray(1 shl checkPrecision(precision)))
+
+    val precision: Int = Integer.numberOfTrailingZeros(registers.size)
+
+    /**
+     * Adds a non-null [value].
+     */
+    fun add(value: Any) = addHash(hash(value))
+
+    /**
+     * Adds a value by its 64-bit [hash].
+     */
+    fun addHash(hash: Long) {
+        val index = (hash ushr (64 - precision)).toInt()
+        // the marker bit caps the rank at 65 - precision when the remaining bits are all zero
+        val rank = (java.lang.Long.numberOfLeadingZeros((hash shl precision) or (1L shl (precision - 1))) + 1).toByte()
+        if (rank > registers[index]) {
+            registers[index] = rank
+        }
+    }
+
+    /**
+     * Estimated number of distinct values added.
+     */
+    fun estimate(): Long {
+        val m = registers.size.toDouble()
+        var sum = 0.0
+        var zeros = 0
+        for (register in registers) {
+            sum += 1.0 / (1L shl register.toInt())
+            if (register.toInt() == 0) zeros++
+        }
+        val raw = alpha(registers.size) * m * m / sum
+        // linear counting is more accurate for small cardinalities
+        val estimate = if (raw <= 2.5 * m && zeros > 0) m * ln(m / zeros) else raw
+        return estimate.roundToLong()
+    }
+
+    /**
+     * Returns a new sketch counting the values of this sketch and [other].
+     */
+    fun merge(other: HyperLogLog): HyperLogLog {
+        require(other.precision == precision) {
+            "Cannot merge sketches of precision $precision and ${other.precision}"
+        }
+        return HyperLogLog(ByteArray(registers.size) { maxOf(registers[it], other.registers[it]) })
+    }
+
+    /**
+     * Serializes the sketch, storing only the non-empty registers of sparse sketches.
+     */
+    fun toByteArray(): ByteArray {
+        val used = registers.count { it.toInt() != 0 }
+        if (used * SPARSE_ENTRY_BYTES >= registers.size) {
+            return ByteBuffer.allocate(1 + registers.size)
+                .put(precision.toByte())
+                .put(registers)
+                .array()
+        }
+        val buffer = ByteBuffer.allocate(1 + 2 + used * SPARSE_ENTRY_BYTES)
+            .put((precision or SPARSE_FLAG).toByte())
+            .putShort(used.toShort())
+        registers.forEachIndexed { index, register ->
+            if (register.toInt() != 0) {
+                buffer.putShort(index.toShort()).put(register)
+            }
+        }
+        return buffer.array()
+    }
+
+    override fun equals(other: Any?): Boolean =
+        other is HyperLogLog && registers.contentEquals(other.registers)
+
+    override fun hashCode(): Int = registers.contentHashCode()
+
+    override fun toString(): String = "HyperLogLog(precision=$precision, estimate=${estimate()})"
+
+    companion object {
+
+        /** Default precision: 2048 registers. */
+        const val DEFAULT_PRECISION = 11
+
+        private const val SPARSE_FLAG = 0x80
+        private const val SPARSE_ENTRY_BYTES = 3
+
+        /**
+         * Restores a sketch written by [toByteArray].
+         */
+        fun fromByteArray(bytes: ByteArray): HyperLogLog {
+            val buffer = ByteBuffer.wrap(bytes)
+            val header = buffer.get().toInt() and 0xff
+            val registers = ByteArray(1 shl checkPrecision(header and SPARSE_FLAG.inv()))
+            if (header and SPARSE_FLAG == 0) {
+                buffer.get(registers)
+            } else {
+                repeat(buffer.getShort().toInt() and 0xffff) {
+                    registers[buffer.getShort().toInt() and 0xffff] = buffer.get()
+                }
+            }
+            return HyperLogLog(registers)
+        }
+
+        /**
+         * 64-bit hash of [value]; integral numbers hash alike regardless of their boxed type.
+         */
+        fun hash(value: Any): Long = when (value) {
+            is Long, is Int, is Short, is Byte -> mix((value as Number).toLong())
+            is Double, is Float -> mix(java.lang.Double.doubleToLongBits((value as Number).toDouble()))
+            is Boolean -> mix(if (value) 1L else 0L)
+            is String -> mix(fnv(value.length) { value[it].code })
+            is ByteArray -> mix(fnv(value.size) { value[it].toInt() })
+            else -> hash(value.toString())
+        }
+
+        private inline fun fnv(length: Int, unit: (Int) -> Int): Long {
+            var h = -0x340d631b7bdddcdbL
+            for (i in 0 until length) {
+                h = (h xor unit(i).toLong()) * 0x100000001b3L
+            }
+            return h
+        }
+
+        /** SplitMix64 finalizer; spreads every input bit over the whole hash. */
+        private fun mix(value: Long): Long {
+            var z = value + -0x61c8864680b583ebL
+            z = (z xor (z ushr 30)) * -0x40a7b892e31b1a47L
+            z = (z xor (z ushr 27)) * -0x6b2fb644ecceee15L
+            return z xor (z ushr 31)
+        }
+
+        private fun alpha(m: Int): Double = when (m) {
+            16 -> 0.673
+            32 -> 0.697
+            64 -> 0.709
+            else -> 0.7213 / (1 + 1.079 / m)
+        }
+
+        private fun checkPrecision(precision: Int): Int {
+            require(precision in 4..16) { "precision must be in 4..16, got $precision" }
+            return precision
+        }
+    }
+}
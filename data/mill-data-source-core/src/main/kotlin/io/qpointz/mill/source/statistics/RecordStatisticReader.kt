@@ -17,4 +17,10 @@ fun interface RecordStatisticReader {
      * @param blobSource storage access for the blob
      */
     fun readRecordStatistic(blob: BlobPath, blobSource: BlobSource): RecordStatistic?
+
+    /**
+     * `true` when [readRecordStatistic] reads metadata only; `false` when it scans the blob
+     * and should be replaced by stored statistics where available.
+     */
+    val readsMetadataOnly: Boolean get() = true
 }
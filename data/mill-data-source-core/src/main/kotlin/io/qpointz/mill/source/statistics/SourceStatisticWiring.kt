@@ -4,9 +4,10 @@ import io.qpointz.mill.source.BlobPath
 import io.qpointz.mill.source.BlobSource
 import io.qpointz.mill.source.FormatHandler
 import io.qpointz.mill.source.RecordSchema
+import io.qpointz.mill.source.RecordSource
 
 /**
- * Wires statistic providers for a resolved logical table without reading blob metadata.
+ * Wires statistic providers for a resolved logical table without reading blob data.
  */
 object SourceStatisticWiring {
 
@@ -27,27 +28,43 @@ object SourceStatisticWiring {
      *
      * Record statistics are wired only when **every** blob has a stats-capable handler.
      * Key statistics are wired when the schema contains an `id` column.
+     *
+     * With a [maintainer], and when every blob has a [BlobSource.versionOf], column
+     * statistics are served from its store and collected in the background by scanning
+     * [blobRecordSources]; the stored row counts then replace record statistics that
+     * would scan the blobs, and cover formats without a [RecordStatisticReader].
      */
     fun forTable(
         schema: RecordSchema,
         blobSource: BlobSource,
         readerBlobPairs: List<Pair<FormatHandler, List<BlobPath>>>,
+        maintainer: BlobStatisticMaintainer? = null,
+        blobRecordSources: Map<BlobPath, List<RecordSource>> = emptyMap(),
     ): SourceTableStatisticProviders {
         val blobEntries = readerBlobPairs.flatMap { (handler, blobs) ->
             blobs.map { handler to it }
         }
-        val record = wireRecordProvider(blobEntries, blobSource)
+        val stored = maintainer?.let {
+            wireStoredProvider(schema, blobSource, blobEntries.map { (_, blob) -> blob }, it, blobRecordSources)
+        }
+        val record = wireRecordProvider(blobEntries, blobSource, stored)
         val key = wireKeyProvider(schema)
-        return SourceTableStatisticProviders.of(record = record, key = key)
+        return SourceTableStatisticProviders.of(record = record, key = key, column = stored)
     }
 
     private fun wireRecordProvider(
         blobEntries: List<Pair<FormatHandler, BlobPath>>,
         blobSource: BlobSource,
+        stored: StoredTableStatisticProvider?,
     ): RecordStatisticProvider? {
         if (blobEntries.isEmpty()) {
             return null
         }
+        if (stored != null && blobEntries.any { (handler, _) ->
+                (handler as? RecordStatisticReader)?.readsMetadataOnly != true
+            }) {
+            return stored
+        }
         val leaves = blobEntries.map { (handler, blob) ->
             recordStatisticProviderForBlob(handler, blob, blobSource)
         }
@@ -57,6 +74,38 @@ object SourceStatisticWiring {
         return RecordStatisticAggregator(leaves.filterNotNull())
     }
 
+    private fun wireStoredProvider(
+        schema: RecordSchema,
+        blobSource: BlobSource,
+        blobs: List<BlobPath>,
+        maintainer: BlobStatisticMaintainer,
+        blobRecordSources: Map<BlobPath, List<RecordSource>>,
+    ): StoredTableStatisticProvider? {
+        if (blobs.isEmpty()) {
+            return null
+        }
+        val fingerprint = schemaFingerprint(schema)
+        val blobsByKey = blobs.associateBy { blob ->
+            val version = blobVersion(blobSource, blob) ?: return null
+            BlobStatisticKey(blob.uri.toString(), fingerprint, version)
+        }
+        return StoredTableStatisticProvider(maintainer, blobsByKey.keys.toList()) { key ->
+            BlobStatisticCollector.collect(schema, blobRecordSources[blobsByKey.getValue(key)].orEmpty())
+        }
+    }
+
+    private fun blobVersion(blobSource: BlobSource, blob: BlobPath): String? = try {
+        blobSource.versionOf(blob)
+    } catch (_: Exception) {
+        null
+    }
+
+    /**
+     * Statistics depend on how a blob is read, so their keys change with the table schema.
+     */
+    private fun schemaFingerprint(schema: RecordSchema): String =
+        Integer.toHexString(schema.fields.joinToString("|") { "${it.name}:${it.type.asDataType()}" }.hashCode())
+
     private fun wireKeyProvider(schema: RecordSchema): KeyStatisticProvider? {
         if (schema.field("id") == null) {
             return null
@@ -10,6 +10,7 @@ import java.util.Optional
 class SourceTableStatisticProviders private constructor(
     private val record: RecordStatisticProvider?,
     private val key: KeyStatisticProvider?,
+    private val column: ColumnStatisticProvider?,
 ) {
 
     /** Present when record statistics are supported for this table. */
@@ -18,6 +19,9 @@ class SourceTableStatisticProviders private constructor(
     /** Present when key statistics are supported for this table. */
     fun keyStatistic(): Optional<KeyStatisticProvider> = Optional.ofNullable(key)
 
+    /** Present when column statistics are supported for this table. */
+    fun columnStatistic(): Optional<ColumnStatisticProvider> = Optional.ofNullable(column)
+
     companion object {
 
         /** Empty holder — no statistic slices wired. */
@@ -28,10 +32,12 @@ class SourceTableStatisticProviders private constructor(
          *
          * @param record record-count provider, or null when not supported
          * @param key key provider, or null when not supported
+         * @param column column statistics provider, or null when not supported
          */
         fun of(
             record: RecordStatisticProvider? = null,
             key: KeyStatisticProvider? = null,
-        ): SourceTableStatisticProviders = SourceTableStatisticProviders(record, key)
+            column: ColumnStatisticProvider? = null,
+        ): SourceTableStatisticProviders = SourceTableStatisticProviders(record, key, column)
     }
 }
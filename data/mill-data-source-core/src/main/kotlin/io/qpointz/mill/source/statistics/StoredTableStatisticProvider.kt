@@ -0,0 +1,83 @@
+package io.qpointz.mill.source.statistics
+
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.math.roundToLong
+
+/**
+ * Table-level statistics merged from the stored [BlobStatistic]s of the table's blobs.
+ *
+ * Each lookup fetches only the blobs still missing (scheduling their background collection),
+ * and the merged result is memoized once every blob's statistic is stored. Until then the
+ * statistics of the blobs stored so far are extrapolated to the whole table, and that
+ * incomplete result is reused between lookups until the [maintainer] finishes a collection or
+ * its retry backoff elapses, so planning does not query the store on every call.
+ *
+ * @param maintainer store access and background collection
+ * @param blobs      key of every blob of the table
+ * @param collect    computes the statistic of one blob by scanning it
+ */
+internal class StoredTableStatisticProvider(
+    private val maintainer: BlobStatisticMaintainer,
+    blobs: List<BlobStatisticKey>,
+    private val collect: (BlobStatisticKey) -> BlobStatistic,
+) : RecordStatisticProvider, ColumnStatisticProvider {
+
+    private val blobs = blobs.distinct()
+
+    private val found = ConcurrentHashMap<BlobStatisticKey, BlobStatistic>()
+
+    @Volatile
+    private var merged: BlobStatistic? = null
+
+    @Volatile
+    private var incomplete: Incomplete? = null
+
+    private class Incomplete(val statistic: BlobStatistic?, val generation: Long, val checkedAtNanos: Long)
+
+    override fun recordStatistic(): RecordStatistic? =
+        tableStatistic()?.let { RecordStatistic(estimatedRowCount = it.rowCount) }
+
+    override fun columnStatistics(): Map<String, ColumnStatistic>? = tableStatistic()?.columns
+
+    fun tableStatistic(): BlobStatistic? {
+        merged?.let { return it }
+        incomplete?.let {
+            if (it.generation == maintainer.generation &&
+                System.nanoTime() - it.checkedAtNanos < maintainer.retryBackoff.toNanos()
+            ) {
+                return it.statistic
+            }
+        }
+        val generation = maintainer.generation
+        val missing = blobs.filter { it !in found }
+        found.putAll(maintainer.statistics(missing, collect))
+        if (found.size < blobs.size) {
+            return extrapolate(blobs.mapNotNull { found[it] }).also {
+                incomplete = Incomplete(it, generation, System.nanoTime())
+            }
+        }
+        return blobs.map { found.getValue(it) }.reduce(BlobStatistic::merge).also {
+            merged = it
+            incomplete = null
+            found.clear()
+        }
+    }
+
+    /**
+     * Scales the counts of the stored blobs to the number of blobs in the table. Bounds are
+     * dropped, since blobs not yet collected may hold values outside them.
+     */
+    private fun extrapolate(stored: List<BlobStatistic>): BlobStatistic? {
+        if (stored.isEmpty()) {
+            return null
+        }
+        val sample = stored.reduce(BlobStatistic::merge)
+        val scale = blobs.size.toDouble() / stored.size
+        return BlobStatistic(
+            rowCount = (sample.rowCount * scale).roundToLong(),
+            columns = sample.columns.mapValues { (_, column) ->
+                ColumnStatistic(nullCount = (column.nullCount * scale).roundToLong(), distinct = column.distinct)
+            },
+        )
+    }
+}
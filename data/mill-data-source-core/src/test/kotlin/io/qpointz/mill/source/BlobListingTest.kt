@@ -0,0 +1,86 @@
+package io.qpointz.mill.source
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+
+class BlobListingTest {
+
+    @TempDir
+    lateinit var root: Path
+
+    private fun touch(vararg names: String) {
+        for (name in names) {
+            val file = root.resolve(name)
+            Files.createDirectories(file.parent)
+            Files.writeString(file, name)
+        }
+    }
+
+    private fun names(blobs: Collection<BlobPath>): Set<String> =
+        blobs.map { (it as LocalBlobPath).relativePath.joinToString("/") }.toSet()
+
+    @Test
+    fun shouldListOnlyPrefixes_concurrently() {
+        touch("sales/2024/a.csv", "sales/2025/b.csv", "returns/c.csv", "other/d.csv")
+        val source = LocalBlobSource(root)
+
+        val blobs = BlobListing.list(source, listOf("sales/", "returns/", "sales/2024/"), concurrency = 2)
+
+        assertEquals(setOf("sales/2024/a.csv", "sales/2025/b.csv", "returns/c.csv"), names(blobs))
+        assertEquals(3, blobs.size)
+        assertEquals(setOf("sales/2025/b.csv"), names(source.listBlobs("sales/2025").toList()))
+        assertTrue(source.listBlobs("missing/").none())
+    }
+
+    @Test
+    fun shouldDiffListings() {
+        touch("a.csv", "b.csv")
+        val source = LocalBlobSource(root)
+        val before = BlobListing.list(source)
+        Files.delete(root.resolve("a.csv"))
+        touch("c.csv")
+
+        val changes = BlobListing.diff(before, BlobListing.list(source))
+
+        assertEquals(setOf("c.csv"), names(changes.added))
+        assertEquals(setOf("a.csv"), names(changes.removed))
+        assertTrue(BlobListing.diff(before, before).isEmpty)
+    }
+
+    @Test
+    fun shouldReportBlobRewrittenInPlace_asChanged() {
+        touch("a.csv", "b.csv")
+        val source = LocalBlobSource(root)
+        val before = BlobListing.list(source)
+        val beforeVersions = BlobListing.versions(source, before)
+        Files.writeString(root.resolve("a.csv"), "rewritten in place")
+
+        val after = BlobListing.list(source)
+        val changes = BlobListing.diff(before, after, beforeVersions, BlobListing.versions(source, after))
+
+        assertEquals(setOf("a.csv"), names(changes.changed))
+        assertTrue(changes.added.isEmpty() && changes.removed.isEmpty())
+        assertFalse(changes.isEmpty)
+        assertTrue(BlobListing.diff(before, after).isEmpty)
+    }
+
+    @Test
+    fun shouldRestoreSavedListing() {
+        touch("x/a.csv", "b.csv")
+        val source = LocalBlobSource(root)
+        val blobs = BlobListing.list(source)
+        val file = root.resolve("state/listing.txt")
+
+        BlobListing.save(file, blobs)
+
+        assertEquals(blobs.toSet(), BlobListing.load(file, source)!!.toSet())
+        assertNull(BlobListing.load(root.resolve("state/missing.txt"), source))
+        val foreign = object : BlobSource by source {
+            override fun blobOf(uri: java.net.URI): BlobPath? = null
+        }
+        assertNull(BlobListing.load(file, foreign))
+    }
+}
@@ -150,4 +150,122 @@ class MultiFileSourceTableTest {
         assertEquals(1, blocks[0].vectorSize)
         assertEquals(1, blocks[1].vectorSize)
     }
+
+    private fun manySources(count: Int, rowsPerSource: Int): List<RecordSource> =
+        (0 until count).map { sourceIdx ->
+            makeSource(*Array(rowsPerSource) { row ->
+                Record.of("id" to sourceIdx * rowsPerSource + row, "name" to "s$sourceIdx")
+            })
+        }
+
+    @Test
+    fun shouldReadAllRecords_whenScanningInParallel() {
+        val table = MultiFileSourceTable(schema, manySources(20, 50), scanOptions = ScanOptions(parallelism = 4, bufferSize = 2))
+
+        val ids = table.records().map { it["id"] as Int }
+
+        assertEquals((0 until 1000).toList(), ids.sorted())
+    }
+
+    @Test
+    fun shouldKeepSourceOrder_whenOrderedParallelScan() {
+        val options = ScanOptions(parallelism = 4, ordered = true, bufferSize = 4)
+        val table = MultiFileSourceTable(schema, manySources(20, 300), scanOptions = options)
+
+        assertEquals((0 until 6000).toList(), table.records().map { it["id"] as Int })
+        val vectorRows = table.vectorBlocks(100).asSequence()
+            .flatMap { it.getVectors(0).i32Vector.valuesList }
+            .toList()
+        assertEquals((0 until 6000).toList(), vectorRows)
+    }
+
+    @Test
+    fun shouldPropagateSourceFailure_whenScanningInParallel() {
+        val failing = object : FlowRecordSource {
+            override val schema: RecordSchema = this@MultiFileSourceTableTest.schema
+            override fun iterator(): Iterator<Record> = throw IllegalStateException("broken file")
+        }
+        val sources = manySources(3, 10) + failing
+        val table = MultiFileSourceTable(schema, sources, scanOptions = ScanOptions(parallelism = 2, ordered = true))
+
+        val error = assertThrows(IllegalStateException::class.java) { table.records().toList() }
+        assertEquals("broken file", error.message)
+    }
+
+    @Test
+    fun shouldStopWorkers_whenParallelIteratorClosedEarly() {
+        val table = MultiFileSourceTable(schema, manySources(10, 1000), scanOptions = ScanOptions(parallelism = 3, bufferSize = 1))
+        val iterator = table.records().iterator() as CloseableRecordIterator
+
+        assertTrue(iterator.hasNext())
+        iterator.next()
+        iterator.close()
+
+        assertFalse(iterator.hasNext())
+    }
+
+    @Test
+    fun shouldReadDisjointShares_whenScanPartitionBound() {
+        val table = MultiFileSourceTable(schema, manySources(7, 10))
+
+        val shares = (0 until 3).map { idx ->
+            val partition = ScanPartition(idx, 3)
+            val ids = ScanPartition.withPartition(partition) { table.records().map { it["id"] as Int } }
+            assertTrue(partition.applied)
+            ids
+        }
+
+        assertEquals(listOf(30, 20, 20), shares.map { it.size })
+        assertEquals((0 until 70).toList(), shares.flatten().sorted())
+        val vectorRows = ScanPartition.withPartition(ScanPartition(1, 3)) {
+            table.vectorBlocks(100).asSequence().sumOf { it.vectorSize }
+        }
+        assertEquals(20, vectorRows)
+        assertNull(ScanPartition.current())
+        assertEquals(70, table.records().count())
+    }
+
+    @Test
+    fun shouldKeepKeyedShares_whenSourceListReordered() {
+        val sources = manySources(7, 10)
+        val keys = sources.indices.map { "file:///data/part-$it.csv#0" }
+        fun shares(table: MultiFileSourceTable) = (0 until 3).map { idx ->
+            ScanPartition.withPartition(ScanPartition(idx, 3)) { table.records().map { it["id"] as Int }.toSet() }
+        }
+
+        val original = shares(MultiFileSourceTable(schema, sources, sourceKeys = keys))
+        val reordered = shares(MultiFileSourceTable(schema, sources.reversed(), sourceKeys = keys.reversed()))
+
+        assertEquals(original, reordered)
+        assertEquals((0 until 70).toList(), original.flatten().sorted())
+    }
+
+    @Test
+    fun shouldPruneSources_whenAttributePredicatesFail() {
+        val enriched = RecordSchema.of(
+            "id" to DatabaseType.i32(false),
+            "name" to DatabaseType.string(true, -1),
+            "year" to DatabaseType.i32(true)
+        )
+        val unreadable = object : FlowRecordSource {
+            override val schema: RecordSchema = this@MultiFileSourceTableTest.schema
+            override fun iterator(): Iterator<Record> = error("pruned source opened")
+        }
+        val table = MultiFileSourceTable(enriched, listOf(
+            AttributeEnrichingRecordSource(unreadable, mapOf("year" to 2023), enriched),
+            AttributeEnrichingRecordSource(makeSource(Record.of("id" to 1, "name" to "Alice")), mapOf("year" to 2024), enriched),
+            AttributeEnrichingRecordSource(unreadable, mapOf("year" to null), enriched),
+        ))
+        val metrics = ScanMetrics()
+        val spec = RecordScanSpec(
+            columns = setOf("name", "year"),
+            predicates = listOf(ScanPredicate.Compare("year", CompareOp.GE, 2024L))
+        )
+
+        val records = table.records(spec, metrics).toList()
+
+        assertEquals(listOf("Alice"), records.map { it["name"] })
+        assertEquals(2024, records[0]["year"])
+        assertEquals(2L, metrics.snapshot().sourcesPruned)
+    }
 }
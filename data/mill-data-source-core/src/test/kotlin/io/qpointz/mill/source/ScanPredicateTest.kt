@@ -0,0 +1,33 @@
+package io.qpointz.mill.source
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.time.LocalDate
+
+class ScanPredicateTest {
+
+    @Test
+    fun shouldMatchNormalizedValues() {
+        assertEquals(true, ScanPredicate.Compare("y", CompareOp.EQ, 2024L).matches(2024))
+        assertEquals(false, ScanPredicate.Compare("y", CompareOp.LT, 2024L).matches(2024L))
+        assertEquals(true, ScanPredicate.Compare("y", CompareOp.GT, 1.5).matches(2))
+        assertEquals(true, ScanPredicate.Compare("d", CompareOp.GE, LocalDate.of(2024, 1, 1).toEpochDay())
+            .matches(LocalDate.of(2024, 3, 1)))
+        assertEquals(false, ScanPredicate.In("r", listOf("eu", "us")).matches("apac"))
+        assertEquals(true, ScanPredicate.In("r", listOf("eu", "us")).matches("us"))
+    }
+
+    @Test
+    fun shouldFollowSqlNulls() {
+        assertEquals(false, ScanPredicate.Compare("y", CompareOp.NE, 2024L).matches(null))
+        assertEquals(true, ScanPredicate.IsNull("y").matches(null))
+        assertEquals(false, ScanPredicate.IsNotNull("y").matches(null))
+    }
+
+    @Test
+    fun shouldBeUndecided_whenTypesDiffer() {
+        assertNull(ScanPredicate.Compare("y", CompareOp.EQ, "2024").matches(2024))
+        assertNull(ScanPredicate.Compare("y", CompareOp.EQ, 1.5).matches(1.5f))
+        assertNull(ScanPredicate.In("y", listOf(1L, "x")).matches(2))
+    }
+}
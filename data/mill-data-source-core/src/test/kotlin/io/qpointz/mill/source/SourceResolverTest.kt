@@ -551,4 +551,47 @@ class SourceResolverTest {
             materialized.close()
         }
     }
+
+    // ------------------------------------------------------------------
+    // Incremental refresh
+    // ------------------------------------------------------------------
+
+    @Nested
+    inner class RefreshTests {
+
+        @Test
+        fun shouldRebuildOnlyChangedTables() {
+            val root = java.nio.file.Files.createTempDirectory("refresh-source-test")
+            try {
+                java.nio.file.Files.writeString(root.resolve("cities.csv"), "")
+                java.nio.file.Files.writeString(root.resolve("flights.csv"), "")
+                val descriptor = SourceDescriptor(
+                    name = "refresh",
+                    storage = LocalStorageDescriptor(rootPath = root.toString()),
+                    readers = listOf(
+                        ReaderDescriptor(
+                            type = "stub",
+                            format = StubFormatDescriptor(),
+                            table = regexTable(".*?(?<table>[a-z]+)[0-9]*\\.csv$")
+                        )
+                    )
+                )
+                SourceResolver.resolveDescriptor(descriptor, materializer).use { resolved ->
+                    java.nio.file.Files.writeString(root.resolve("flights2.csv"), "")
+                    java.nio.file.Files.writeString(root.resolve("segments.csv"), "")
+
+                    val refreshed = SourceResolver.refresh(resolved, SourceResolver.listBlobs(resolved.materialized))
+
+                    assertEquals(setOf("cities", "flights", "segments"), refreshed.tableNames)
+                    assertSame(resolved["cities"], refreshed["cities"])
+                    assertNotSame(resolved["flights"], refreshed["flights"])
+                    assertEquals(2, refreshed["flights"]!!.records().count())
+                    assertEquals(1, resolved["flights"]!!.records().count())
+                    assertEquals(4, refreshed.blobs.size)
+                }
+            } finally {
+                root.toFile().deleteRecursively()
+            }
+        }
+    }
 }
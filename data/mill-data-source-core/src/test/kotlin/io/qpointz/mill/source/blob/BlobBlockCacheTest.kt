@@ -0,0 +1,191 @@
+package io.qpointz.mill.source.blob
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.nio.ByteBuffer
+import java.nio.channels.ClosedChannelException
+import java.util.Collections
+
+class BlobBlockCacheTest {
+
+    private class RecordingReader(
+        private val data: ByteArray,
+        override val version: String? = "etag-1",
+        override val key: String = "mem://blob",
+    ) : BlobRangeReader {
+        val requests: MutableList<Pair<Long, Int>> = Collections.synchronizedList(mutableListOf())
+
+        override fun size(): Long = data.size.toLong()
+
+        override fun read(offset: Long, length: Int): ByteArray {
+            requests += offset to length
+            return data.copyOfRange(offset.toInt(), offset.toInt() + length)
+        }
+    }
+
+    private val data = ByteArray(1000) { (it % 251).toByte() }
+
+    private fun readAt(cache: BlobBlockCache, reader: BlobRangeReader, position: Long, length: Int): ByteArray =
+        cache.open(reader).use { ch ->
+            ch.position(position)
+            val buf = ByteBuffer.allocate(length)
+            while (buf.hasRemaining() && ch.read(buf) > 0) {
+                // fill
+            }
+            buf.array().copyOf(buf.position())
+        }
+
+    @Test
+    fun shouldReadBytesAcrossBlockBoundaries() {
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000, readAheadBlocks = 0).use { cache ->
+            val reader = RecordingReader(data)
+            val bytes = readAt(cache, reader, 150, 300)
+            assertArrayEquals(data.copyOfRange(150, 450), bytes)
+        }
+    }
+
+    @Test
+    fun shouldCoalesceMissingBlocksIntoOneRequest() {
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000, readAheadBlocks = 0).use { cache ->
+            val reader = RecordingReader(data)
+            readAt(cache, reader, 150, 300)
+            assertEquals(listOf(100L to 400), reader.requests)
+        }
+    }
+
+    @Test
+    fun shouldSplitRequestsAtMaxRequestBytes() {
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000, readAheadBlocks = 0, maxRequestBytes = 200).use { cache ->
+            val reader = RecordingReader(data)
+            readAt(cache, reader, 0, 500)
+            assertEquals(listOf(0L to 200, 200L to 200, 400L to 100), reader.requests)
+        }
+    }
+
+    @Test
+    fun shouldServeSameVersionFromCache_acrossChannels() {
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000, readAheadBlocks = 0).use { cache ->
+            val reader = RecordingReader(data)
+            readAt(cache, reader, 992, 8)
+            readAt(cache, reader, 992, 8)
+
+            assertEquals(1, reader.requests.size)
+            val metrics = cache.metrics.snapshot()
+            assertEquals(1, metrics.hits)
+            assertEquals(1, metrics.misses)
+            assertEquals(0.5, metrics.hitRatio)
+            assertEquals(100, metrics.bytesFetched)
+        }
+    }
+
+    @Test
+    fun shouldAddCountersToProcessTotals() {
+        val before = BlobCacheMetrics.TOTALS.snapshot()
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000, readAheadBlocks = 0).use { cache ->
+            val reader = RecordingReader(data)
+            readAt(cache, reader, 992, 8)
+            readAt(cache, reader, 992, 8)
+        }
+
+        // other tests may add to the totals concurrently
+        val after = BlobCacheMetrics.TOTALS.snapshot()
+        assertTrue(after.hits - before.hits >= 1)
+        assertTrue(after.misses - before.misses >= 1)
+        assertTrue(after.bytesFetched - before.bytesFetched >= 100)
+    }
+
+    @Test
+    fun shouldNotShareBlocks_whenVersionChanges() {
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000, readAheadBlocks = 0).use { cache ->
+            val v1 = RecordingReader(data, version = "etag-1")
+            val v2 = RecordingReader(data.reversedArray(), version = "etag-2")
+            readAt(cache, v1, 0, 10)
+            val bytes = readAt(cache, v2, 0, 10)
+
+            assertEquals(1, v2.requests.size)
+            assertArrayEquals(data.reversedArray().copyOf(10), bytes)
+        }
+    }
+
+    @Test
+    fun shouldDropUnversionedBlocks_whenChannelClosed() {
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000, readAheadBlocks = 0).use { cache ->
+            val reader = RecordingReader(data, version = null)
+            readAt(cache, reader, 0, 10)
+            readAt(cache, reader, 0, 10)
+
+            assertEquals(2, reader.requests.size)
+            assertEquals(0, cache.size)
+        }
+    }
+
+    @Test
+    fun shouldEvictLeastRecentlyUsedBlocks() {
+        BlobBlockCache(blockSize = 100, maxBytes = 300, readAheadBlocks = 0).use { cache ->
+            val reader = RecordingReader(data)
+            readAt(cache, reader, 0, 500)
+
+            assertEquals(300, cache.size)
+            assertEquals(2, cache.metrics.snapshot().evictions)
+            readAt(cache, reader, 400, 100)
+            assertEquals(1, reader.requests.size)
+        }
+    }
+
+    @Test
+    fun shouldPrefetchFollowingBlocks_whenReadingSequentially() {
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000, readAheadBlocks = 2).use { cache ->
+            val reader = RecordingReader(data.copyOf(400))
+            cache.open(reader).use { ch ->
+                ch.read(ByteBuffer.allocate(100))
+                ch.read(ByteBuffer.allocate(100))
+                val buf = ByteBuffer.allocate(200)
+                while (buf.hasRemaining()) ch.read(buf)
+                assertArrayEquals(data.copyOfRange(200, 400), buf.array())
+            }
+
+            val metrics = cache.metrics.snapshot()
+            assertEquals(2, metrics.blocksPrefetched)
+            assertEquals(listOf(0L to 100, 100L to 100, 200L to 200), reader.requests)
+        }
+    }
+
+    @Test
+    fun shouldReturnEndOfStream_pastBlobSize() {
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000).use { cache ->
+            cache.open(RecordingReader(data)).use { ch ->
+                ch.position(1000)
+                assertEquals(-1, ch.read(ByteBuffer.allocate(10)))
+            }
+        }
+    }
+
+    @Test
+    fun shouldRejectReads_whenChannelClosed() {
+        BlobBlockCache().use { cache ->
+            val ch = cache.open(RecordingReader(data))
+            ch.close()
+            assertThrows<ClosedChannelException> { ch.read(ByteBuffer.allocate(1)) }
+        }
+    }
+
+    @Test
+    fun shouldPropagateReaderFailure_andRetryOnNextRead() {
+        BlobBlockCache(blockSize = 100, maxBytes = 10_000, readAheadBlocks = 0).use { cache ->
+            var fail = true
+            val reader = object : BlobRangeReader {
+                override val key = "mem://flaky"
+                override val version = "etag"
+                override fun size(): Long = data.size.toLong()
+                override fun read(offset: Long, length: Int): ByteArray {
+                    if (fail) throw IllegalStateException("unavailable")
+                    return data.copyOfRange(offset.toInt(), offset.toInt() + length)
+                }
+            }
+            assertThrows<IllegalStateException> { readAt(cache, reader, 0, 10) }
+            fail = false
+            assertArrayEquals(data.copyOf(10), readAt(cache, reader, 0, 10))
+        }
+    }
+}
@@ -291,6 +291,45 @@ class DescriptorSerializationTest {
         }
     }
 
+    @Nested
+    inner class TableScanDescriptorTests {
+
+        @Test
+        fun shouldDeserializeScanOptions() {
+            val yaml = """
+                mapping:
+                  type: directory
+                  depth: 1
+                scan:
+                  parallelism: 8
+                  ordered: true
+            """.trimIndent()
+            val table = yamlMapper.readValue(yaml, TableDescriptor::class.java)
+            assertEquals(8, table.scan.parallelism)
+            assertTrue(table.scan.ordered)
+            assertEquals(TableScanDescriptor().bufferSize, table.scan.bufferSize)
+            assertTrue(table.scan.toScanOptions().isParallel)
+        }
+
+        @Test
+        fun shouldDefaultToSequentialScan() {
+            val yaml = """
+                mapping:
+                  type: directory
+                  depth: 1
+            """.trimIndent()
+            val table = yamlMapper.readValue(yaml, TableDescriptor::class.java)
+            assertEquals(TableScanDescriptor(), table.scan)
+            assertFalse(table.scan.toScanOptions().isParallel)
+        }
+
+        @Test
+        fun shouldRejectNonPositiveParallelism() {
+            val report = TableScanDescriptor(parallelism = 0).verify()
+            assertFalse(report.isValid)
+        }
+    }
+
     // ------------------------------------------------------------------
     // SourceDescriptor (multi-reader with table: {mapping})
     // ------------------------------------------------------------------
@@ -406,6 +445,34 @@ class DescriptorSerializationTest {
             assertEquals("source_id", desc.table!!.attributes[0].name)
         }
 
+        @Test
+        fun shouldDeserializeRefreshSettings() {
+            val yaml = """
+                name: live
+                storage:
+                  type: local
+                  rootPath: /data
+                table:
+                  mapping:
+                    type: directory
+                readers:
+                  - type: stub
+                refresh:
+                  interval: PT5M
+                  watch: true
+                  prefixes: [sales/, returns/]
+                  listingConcurrency: 2
+                  snapshotFile: /tmp/live.listing
+            """.trimIndent()
+            val desc = yamlMapper.readValue(yaml, SourceDescriptor::class.java)
+            val options = desc.refresh!!.toRefreshOptions()
+            assertEquals(java.time.Duration.ofMinutes(5), options.interval)
+            assertTrue(options.watch)
+            assertEquals(listOf("sales/", "returns/"), options.prefixes)
+            assertEquals(2, options.listingConcurrency)
+            assertEquals(java.nio.file.Path.of("/tmp/live.listing"), options.snapshotFile)
+        }
+
         @Test
         fun shouldDeserializeSourceWithGlobMapping() {
             val yaml = """
@@ -281,5 +281,33 @@ class SourceMaterializerTest {
                 assertNotNull(materialized.blobSource)
             }
         }
+
+        @Test
+        fun shouldCloseCloseableFormatHandlers() {
+            val descriptor = SourceDescriptor(
+                name = "closeable-handler",
+                storage = LocalStorageDescriptor(rootPath = csvRoot.toString()),
+                readers = listOf(
+                    ReaderDescriptor(
+                        type = "stub",
+                        format = StubFormatDescriptor(),
+                        table = TableDescriptor(
+                            mapping = DirectoryTableMappingDescriptor(depth = 1)
+                        )
+                    )
+                )
+            )
+            var closed = false
+            val handler = object : FormatHandler by StubFormatHandler(), AutoCloseable {
+                override fun close() {
+                    closed = true
+                }
+            }
+            val materialized = materializer.materialize(descriptor)
+
+            materialized.copy(readers = materialized.readers.map { it.copy(formatHandler = handler) }).close()
+
+            assertTrue(closed)
+        }
     }
 }
@@ -0,0 +1,360 @@
+package io.qpointz.mill.source.statistics
+
+import io.qpointz.mill.source.BlobPath
+import io.qpointz.mill.source.BlobSource
+import io.qpointz.mill.source.FormatHandler
+import io.qpointz.mill.source.InMemoryRecordSource
+import io.qpointz.mill.source.Record
+import io.qpointz.mill.source.RecordSchema
+import io.qpointz.mill.source.RecordSource
+import io.qpointz.mill.types.sql.DatabaseType
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import java.net.URI
+import java.time.Duration
+import java.time.LocalDate
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.math.abs
+
+class HyperLogLogTest {
+
+    @Test
+    fun shouldEstimateDistinctValues_withinErrorBounds() {
+        val sketch = HyperLogLog()
+        repeat(3) { (0 until 100_000).forEach { sketch.add("value-$it") } }
+
+        assertTrue(abs(sketch.estimate() - 100_000) < 5_000, "estimate ${sketch.estimate()}")
+    }
+
+    @Test
+    fun shouldCountSmallCardinalitiesExactly() {
+        val sketch = HyperLogLog()
+        listOf(1, 2L, 3.toShort(), 2, 1L).forEach { sketch.add(it) }
+
+        assertEquals(3L, sketch.estimate())
+    }
+
+    @Test
+    fun shouldMergeSketches_likeUnion() {
+        val left = HyperLogLog().apply { (0L until 30_000L).forEach { add(it) } }
+        val right = HyperLogLog().apply { (20_000L until 50_000L).forEach { add(it) } }
+
+        val merged = left.merge(right)
+
+        assertTrue(abs(merged.estimate() - 50_000) < 2_500, "estimate ${merged.estimate()}")
+    }
+
+    @Test
+    fun shouldRoundTripBytes_denseAndSparse() {
+        val sparse = HyperLogLog().apply { (0L until 10L).forEach { add(it) } }
+        val dense = HyperLogLog().apply { (0L until 10_000L).forEach { add(it) } }
+
+        assertEquals(sparse, HyperLogLog.fromByteArray(sparse.toByteArray()))
+        assertEquals(dense, HyperLogLog.fromByteArray(dense.toByteArray()))
+        assertTrue(sparse.toByteArray().size < dense.toByteArray().size)
+    }
+}
+
+class BlobStatisticCollectorTest {
+
+    private val schema = RecordSchema.of(
+        "id" to DatabaseType.i32(false),
+        "city" to DatabaseType.string(true, 100),
+        "day" to DatabaseType.date(true),
+    )
+
+    @Test
+    fun shouldCollectColumnStatistics_acrossSources() {
+        val first = InMemoryRecordSource.of(
+            schema,
+            Record.of("id" to 3, "city" to "Bern", "day" to LocalDate.of(2024, 1, 2)),
+            Record.of("id" to 1, "city" to null, "day" to null),
+        )
+        val second = InMemoryRecordSource.of(
+            schema,
+            Record.of("id" to 2, "city" to "Zug", "day" to LocalDate.of(2024, 1, 1)),
+        )
+
+        val statistic = BlobStatisticCollector.collect(schema, listOf(first, second))
+
+        assertEquals(3L, statistic.rowCount)
+        val id = statistic.columns.getValue("id")
+        assertEquals(0L, id.nullCount)
+        assertEquals(1L, id.min)
+        assertEquals(3L, id.max)
+        assertEquals(3L, id.distinctCount)
+        val city = statistic.columns.getValue("city")
+        assertEquals(1L, city.nullCount)
+        assertEquals("Bern", city.min)
+        assertEquals("Zug", city.max)
+        assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), statistic.columns.getValue("day").min)
+    }
+
+    @Test
+    fun shouldMergeBlobStatistics() {
+        val left = BlobStatistic(2, mapOf("id" to ColumnStatistic(1, 5L, 9L, HyperLogLog().apply { add(5L) })))
+        val right = BlobStatistic(3, mapOf("id" to ColumnStatistic(0, 1L, 7L, HyperLogLog().apply { add(1L) })))
+
+        val merged = left.merge(right)
+
+        assertEquals(5L, merged.rowCount)
+        assertEquals(ColumnStatistic(1, 1L, 9L, HyperLogLog().apply { add(5L); add(1L) }), merged.columns["id"])
+    }
+}
+
+class BlobStatisticMaintainerTest {
+
+    private val schema = RecordSchema.of("id" to DatabaseType.i32(false))
+
+    @Test
+    fun shouldCollectInBackground_andServeStoredStatistics() {
+        BlobStatisticMaintainer().use { maintainer ->
+            val blob = blobPath("/data/a.csv")
+            val providers = wire(maintainer, blob, versionedBlobSource { "v1" })
+
+            assertNull(providers.recordStatistic().get().recordStatistic())
+            awaitCollected(maintainer)
+
+            assertEquals(2L, providers.recordStatistic().get().recordStatistic()?.estimatedRowCount)
+            assertEquals(2L, providers.columnStatistic().get().columnStatistics()?.getValue("id")?.max)
+        }
+    }
+
+    @Test
+    fun shouldCollectOnlyChangedBlobs() {
+        val collections = AtomicInteger(0)
+        val delegate = InMemoryBlobStatisticStore()
+        val store = object : BlobStatisticStore by delegate {
+            override fun save(key: BlobStatisticKey, statistic: BlobStatistic) {
+                collections.incrementAndGet()
+                delegate.save(key, statistic)
+            }
+        }
+        var version = "v1"
+        BlobStatisticMaintainer(store).use { maintainer ->
+            val blob = blobPath("/data/a.csv")
+            val blobSource = versionedBlobSource { version }
+
+            wire(maintainer, blob, blobSource).recordStatistic().get().recordStatistic()
+            awaitCollected(maintainer)
+            assertEquals(2L, wire(maintainer, blob, blobSource).recordStatistic().get().recordStatistic()?.estimatedRowCount)
+            assertEquals(1, collections.get())
+
+            version = "v2"
+            assertNull(wire(maintainer, blob, blobSource).recordStatistic().get().recordStatistic())
+            awaitCollected(maintainer)
+            assertEquals(2, collections.get())
+        }
+    }
+
+    @Test
+    fun shouldPreferMetadataReader_forRowCounts() {
+        BlobStatisticMaintainer().use { maintainer ->
+            val providers = SourceStatisticWiring.forTable(
+                schema = schema,
+                blobSource = versionedBlobSource { "v1" },
+                readerBlobPairs = listOf(MetadataReader() to listOf(blobPath("/data/a.parquet"))),
+                maintainer = maintainer,
+            )
+
+            assertEquals(7L, providers.recordStatistic().get().recordStatistic()?.estimatedRowCount)
+            assertTrue(providers.columnStatistic().isPresent)
+        }
+    }
+
+    @Test
+    fun shouldNotWireStoredStatistics_whenBlobsUnversioned() {
+        BlobStatisticMaintainer().use { maintainer ->
+            val providers = wire(maintainer, blobPath("/data/a.csv"), versionedBlobSource { null })
+
+            assertTrue(providers.recordStatistic().isEmpty)
+            assertTrue(providers.columnStatistic().isEmpty)
+        }
+    }
+
+    @Test
+    fun shouldMemoizeTableStatistic_onceComplete() {
+        val lookups = AtomicInteger(0)
+        val store = InMemoryBlobStatisticStore()
+        val key = BlobStatisticKey("file:///data/a.csv", "f1", "v1")
+        store.save(key, BlobStatistic(4, emptyMap()))
+        val counting = object : BlobStatisticStore by store {
+            override fun findAll(keys: Collection<BlobStatisticKey>): Map<BlobStatisticKey, BlobStatistic> {
+                lookups.incrementAndGet()
+                return store.findAll(keys)
+            }
+        }
+        BlobStatisticMaintainer(counting).use { maintainer ->
+            val provider = StoredTableStatisticProvider(maintainer, listOf(key)) { error("not collected") }
+
+            val first = provider.tableStatistic()
+            val second = provider.tableStatistic()
+
+            assertSame(first, second)
+            assertEquals(1, lookups.get())
+        }
+    }
+
+    @Test
+    fun shouldExtrapolateStoredBlobs_untilEveryBlobIsCollected() {
+        val store = InMemoryBlobStatisticStore()
+        val a = BlobStatisticKey("file:///data/a.csv", "f1", "v1")
+        val b = BlobStatisticKey("file:///data/b.csv", "f1", "v1")
+        store.save(a, BlobStatistic(4, mapOf("id" to ColumnStatistic(1, 1L, 9L))))
+        val collecting = CountDownLatch(1)
+        BlobStatisticMaintainer(store).use { maintainer ->
+            val provider = StoredTableStatisticProvider(maintainer, listOf(a, b)) {
+                collecting.await()
+                BlobStatistic(2, mapOf("id" to ColumnStatistic(0, 20L, 30L)))
+            }
+
+            val partial = provider.tableStatistic()
+            assertEquals(8L, partial?.rowCount)
+            assertEquals(ColumnStatistic(2), partial?.columns?.get("id"))
+
+            collecting.countDown()
+            awaitCollected(maintainer)
+
+            val complete = provider.tableStatistic()
+            assertEquals(6L, complete?.rowCount)
+            assertEquals(ColumnStatistic(1, 1L, 30L), complete?.columns?.get("id"))
+        }
+    }
+
+    @Test
+    fun shouldReuseIncompleteStatistic_untilCollectionFinishes() {
+        val lookups = AtomicInteger(0)
+        val attempts = AtomicInteger(0)
+        val store = InMemoryBlobStatisticStore()
+        val counting = object : BlobStatisticStore by store {
+            override fun findAll(keys: Collection<BlobStatisticKey>): Map<BlobStatisticKey, BlobStatistic> {
+                lookups.incrementAndGet()
+                return store.findAll(keys)
+            }
+        }
+        val key = BlobStatisticKey("file:///data/a.csv", "f1", "v1")
+        BlobStatisticMaintainer(counting, retryBackoff = Duration.ofHours(1)).use { maintainer ->
+            val provider = StoredTableStatisticProvider(maintainer, listOf(key)) {
+                attempts.incrementAndGet()
+                error("unreadable")
+            }
+
+            assertNull(provider.tableStatistic())
+            awaitCollected(maintainer)
+            assertNull(provider.tableStatistic())
+            assertNull(provider.tableStatistic())
+
+            assertEquals(2, lookups.get())
+            assertEquals(1, attempts.get())
+        }
+    }
+
+    @Test
+    fun shouldRetryFailedCollection_afterBackoff() {
+        val attempts = AtomicInteger(0)
+        val key = BlobStatisticKey("file:///data/a.csv", "f1", "v1")
+        BlobStatisticMaintainer(retryBackoff = Duration.ofMillis(50)).use { maintainer ->
+            val provider = StoredTableStatisticProvider(maintainer, listOf(key)) {
+                check(attempts.incrementAndGet() > 1) { "transient failure" }
+                BlobStatistic(3, emptyMap())
+            }
+
+            assertNull(provider.tableStatistic())
+            awaitCollected(maintainer)
+            Thread.sleep(100)
+            assertNull(provider.tableStatistic())
+            awaitCollected(maintainer)
+
+            assertEquals(3L, provider.tableStatistic()?.rowCount)
+            assertEquals(2, attempts.get())
+        }
+    }
+
+    @Test
+    fun shouldKeepStatisticsPerSchema_whenBlobReadWithDifferentSchemas() {
+        val store = InMemoryBlobStatisticStore()
+        val narrow = BlobStatisticKey("file:///data/a.csv", "f1", "v1")
+        val wide = BlobStatisticKey("file:///data/a.csv", "f2", "v1")
+
+        store.save(narrow, BlobStatistic(4, emptyMap()))
+        store.save(wide, BlobStatistic(5, emptyMap()))
+
+        assertEquals(4L, store.find(narrow)?.rowCount)
+        assertEquals(5L, store.find(wide)?.rowCount)
+
+        store.save(narrow.copy(version = "v2"), BlobStatistic(6, emptyMap()))
+        assertNull(store.find(narrow))
+        assertEquals(6L, store.find(narrow.copy(version = "v2"))?.rowCount)
+    }
+
+    @Test
+    fun shouldEvictLeastRecentlyUsed_whenInMemoryStoreFull() {
+        val store = InMemoryBlobStatisticStore(maxEntries = 2)
+        val a = BlobStatisticKey("file:///data/a.csv", "f1", "v1")
+        val b = BlobStatisticKey("file:///data/b.csv", "f1", "v1")
+        val c = BlobStatisticKey("file:///data/c.csv", "f1", "v1")
+        store.save(a, BlobStatistic(1, emptyMap()))
+        store.save(b, BlobStatistic(2, emptyMap()))
+        store.find(a)
+
+        store.save(c, BlobStatistic(3, emptyMap()))
+
+        assertEquals(1L, store.find(a)?.rowCount)
+        assertNull(store.find(b))
+        assertEquals(3L, store.find(c)?.rowCount)
+    }
+
+    private fun wire(maintainer: BlobStatisticMaintainer, blob: BlobPath, blobSource: BlobSource): SourceTableStatisticProviders =
+        SourceStatisticWiring.forTable(
+            schema = schema,
+            blobSource = blobSource,
+            readerBlobPairs = listOf(PlainHandler() to listOf(blob)),
+            maintainer = maintainer,
+            blobRecordSources = mapOf(
+                blob to listOf<RecordSource>(
+                    InMemoryRecordSource.of(schema, Record.of("id" to 1), Record.of("id" to 2)),
+                ),
+            ),
+        )
+
+    private fun awaitCollected(maintainer: BlobStatisticMaintainer) {
+        val deadline = System.currentTimeMillis() + 5_000
+        while (maintainer.isCollecting && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+    }
+
+    private fun blobPath(uriPath: String): BlobPath = object : BlobPath {
+        override val uri: URI = URI.create("file://$uriPath")
+    }
+
+    private fun versionedBlobSource(version: () -> String?): BlobSource = object : BlobSource {
+        override fun listBlobs(): Sequence<BlobPath> = emptySequence()
+        override fun versionOf(path: BlobPath): String? = version()
+        override fun openInputStream(path: BlobPath): java.io.InputStream {
+            throw UnsupportedOperationException("not used in statistic tests")
+        }
+        override fun openSeekableChannel(path: BlobPath): java.nio.channels.SeekableByteChannel {
+            throw UnsupportedOperationException("not used in statistic tests")
+        }
+        override fun close() {}
+    }
+
+    private open class PlainHandler : FormatHandler {
+        override fun inferSchema(blob: BlobPath, blobSource: BlobSource): RecordSchema =
+            RecordSchema.of("id" to DatabaseType.i32(false))
+
+        override fun createRecordSource(blob: BlobPath, blobSource: BlobSource, schema: RecordSchema): RecordSource {
+            throw UnsupportedOperationException("not used in statistic tests")
+        }
+    }
+
+    private class MetadataReader : PlainHandler(), RecordStatisticReader {
+        override fun readRecordStatistic(blob: BlobPath, blobSource: BlobSource): RecordStatistic =
+            RecordStatistic(estimatedRowCount = 7L)
+    }
+}
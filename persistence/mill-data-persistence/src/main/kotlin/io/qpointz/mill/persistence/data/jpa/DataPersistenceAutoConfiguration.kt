@@ -0,0 +1,43 @@
+package io.qpointz.mill.persistence.data.jpa
+
+import io.qpointz.mill.persistence.data.jpa.adapters.JpaBlobStatisticStore
+import io.qpointz.mill.persistence.data.jpa.repositories.BlobStatisticJpaRepository
+import io.qpointz.mill.source.statistics.BlobStatisticStore
+import io.qpointz.mill.utils.JsonUtils
+import org.springframework.boot.autoconfigure.AutoConfiguration
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.hibernate.autoconfigure.HibernateJpaAutoConfiguration
+import org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration
+import org.springframework.boot.persistence.autoconfigure.EntityScan
+import org.springframework.context.annotation.Bean
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories
+
+/**
+ * Registers the blob statistic JPA entity, repository, and {@link BlobStatisticStore}, so that
+ * flow backend planner statistics survive restarts.
+ *
+ * Like {@code AnalysisPersistenceAutoConfiguration}, declares repository discovery here rather
+ * than relying on a global persistence package scan.
+ */
+@AutoConfiguration(
+    after = [
+        DataSourceAutoConfiguration::class,
+        HibernateJpaAutoConfiguration::class,
+    ],
+)
+@ConditionalOnClass(BlobStatisticJpaRepository::class)
+@EntityScan(basePackages = ["io.qpointz.mill.persistence.data.jpa.entities"])
+@EnableJpaRepositories(basePackages = ["io.qpointz.mill.persistence.data.jpa.repositories"])
+class DataPersistenceAutoConfiguration {
+
+    /**
+     * @param repository Spring Data repository for blob statistics
+     * @return statistic store port backed by JPA
+     */
+    @Bean
+    @ConditionalOnMissingBean(BlobStatisticStore::class)
+    fun blobStatisticStore(
+        repository: BlobStatisticJpaRepository,
+    ): BlobStatisticStore = JpaBlobStatisticStore(repository, JsonUtils.defaultJsonMapper())
+}
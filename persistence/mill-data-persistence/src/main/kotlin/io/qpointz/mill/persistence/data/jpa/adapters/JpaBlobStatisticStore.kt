@@ -0,0 +1,97 @@
+package io.qpointz.mill.persistence.data.jpa.adapters
+
+import io.qpointz.mill.persistence.data.jpa.entities.BlobStatisticEntity
+import io.qpointz.mill.persistence.data.jpa.entities.BlobStatisticEntityKey
+import io.qpointz.mill.persistence.data.jpa.repositories.BlobStatisticJpaRepository
+import io.qpointz.mill.source.statistics.BlobStatistic
+import io.qpointz.mill.source.statistics.BlobStatisticKey
+import io.qpointz.mill.source.statistics.BlobStatisticStore
+import io.qpointz.mill.source.statistics.ColumnStatistic
+import io.qpointz.mill.source.statistics.HyperLogLog
+import tools.jackson.databind.json.JsonMapper
+import tools.jackson.module.kotlin.readValue
+import java.time.Instant
+import java.util.Base64
+
+/**
+ * JPA-backed {@link BlobStatisticStore} adapter.
+ *
+ * Keeps one row per blob URI and schema fingerprint; saving a new version overwrites the row. Column statistics are
+ * stored as JSON with NDV sketches Base64-encoded.
+ *
+ * @param repository Spring Data repository for {@code flow_blob_statistic}
+ * @param jsonMapper JSON mapper for the {@code columns_json} column
+ */
+open class JpaBlobStatisticStore(
+    private val repository: BlobStatisticJpaRepository,
+    private val jsonMapper: JsonMapper,
+) : BlobStatisticStore {
+
+    override fun find(key: BlobStatisticKey): BlobStatistic? =
+        repository.findById(key.entityKey()).orElse(null)
+            ?.takeIf { it.blobVersion == key.version }
+            ?.toDomain()
+
+    override fun findAll(keys: Collection<BlobStatisticKey>): Map<BlobStatisticKey, BlobStatistic> {
+        val versions = keys.associate { it.entityKey() to it.version }
+        return repository.findAllById(versions.keys)
+            .filter { versions[it.id] == it.blobVersion }
+            .associate { BlobStatisticKey(it.id.blobUri, it.id.schemaFingerprint, it.blobVersion) to it.toDomain() }
+    }
+
+    override fun save(key: BlobStatisticKey, statistic: BlobStatistic) {
+        val columnsJson = jsonMapper.writeValueAsString(statistic.columns.mapValues { (_, column) -> column.toRow() })
+        val entity = repository.findById(key.entityKey()).orElse(null)
+        val persisted = if (entity == null) {
+            BlobStatisticEntity(
+                id = key.entityKey(),
+                blobVersion = key.version,
+                rowCount = statistic.rowCount,
+                columnsJson = columnsJson,
+                collectedAt = Instant.now(),
+            )
+        } else {
+            entity.apply {
+                blobVersion = key.version
+                rowCount = statistic.rowCount
+                this.columnsJson = columnsJson
+                collectedAt = Instant.now()
+            }
+        }
+        repository.save(persisted)
+    }
+
+    private fun BlobStatisticKey.entityKey(): BlobStatisticEntityKey = BlobStatisticEntityKey(uri, fingerprint)
+
+    private fun BlobStatisticEntity.toDomain(): BlobStatistic = BlobStatistic(
+        rowCount = rowCount,
+        columns = jsonMapper.readValue<Map<String, ColumnRow>>(columnsJson)
+            .mapValues { (_, row) -> row.toDomain() },
+    )
+
+    private fun ColumnStatistic.toRow(): ColumnRow = ColumnRow(
+        nullCount = nullCount,
+        min = min,
+        max = max,
+        distinct = distinct?.let { Base64.getEncoder().encodeToString(it.toByteArray()) },
+    )
+
+    /**
+     * JSON shape of one column in {@code columns_json}.
+     */
+    internal data class ColumnRow(
+        val nullCount: Long,
+        val min: Any? = null,
+        val max: Any? = null,
+        val distinct: String? = null,
+    ) {
+
+        // JSON numbers read back as the narrowest type; restore the ColumnStatistic representation
+        fun toDomain(): ColumnStatistic = ColumnStatistic(
+            nullCount = nullCount,
+            min = min?.let { ColumnStatistic.orderedValue(it) },
+            max = max?.let { ColumnStatistic.orderedValue(it) },
+            distinct = distinct?.let { HyperLogLog.fromByteArray(Base64.getDecoder().decode(it)) },
+        )
+    }
+}
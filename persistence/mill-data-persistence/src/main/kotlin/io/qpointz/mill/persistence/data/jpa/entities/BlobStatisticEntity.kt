@@ -0,0 +1,48 @@
+package io.qpointz.mill.persistence.data.jpa.entities
+
+import jakarta.persistence.Column
+import jakarta.persistence.Embeddable
+import jakarta.persistence.EmbeddedId
+import jakarta.persistence.Entity
+import jakarta.persistence.Table
+import java.io.Serializable
+import java.time.Instant
+
+/**
+ * Embeddable composite primary key for [BlobStatisticEntity].
+ *
+ * @property blobUri URI of the blob
+ * @property schemaFingerprint fingerprint of the schema the blob is read with
+ */
+@Embeddable
+data class BlobStatisticEntityKey(
+    @Column(name = "blob_uri", nullable = false, length = 2048)
+    val blobUri: String = "",
+
+    @Column(name = "schema_fingerprint", nullable = false, length = 64)
+    val schemaFingerprint: String = "",
+) : Serializable
+
+/**
+ * JPA row for {@code flow_blob_statistic}: the statistics of the current version of one blob,
+ * read with one schema.
+ */
+@Entity
+@Table(name = "flow_blob_statistic")
+class BlobStatisticEntity(
+    @EmbeddedId
+    val id: BlobStatisticEntityKey,
+
+    @Column(name = "blob_version", nullable = false, length = 512)
+    var blobVersion: String,
+
+    @Column(name = "row_count", nullable = false)
+    var rowCount: Long,
+
+    /** JSON object of column statistics by column name. */
+    @Column(name = "columns_json", nullable = false, columnDefinition = "TEXT")
+    var columnsJson: String,
+
+    @Column(name = "collected_at", nullable = false)
+    var collectedAt: Instant,
+)
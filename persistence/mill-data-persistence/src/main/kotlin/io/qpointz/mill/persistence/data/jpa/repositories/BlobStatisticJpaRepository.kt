@@ -0,0 +1,10 @@
+package io.qpointz.mill.persistence.data.jpa.repositories
+
+import io.qpointz.mill.persistence.data.jpa.entities.BlobStatisticEntity
+import io.qpointz.mill.persistence.data.jpa.entities.BlobStatisticEntityKey
+import org.springframework.data.jpa.repository.JpaRepository
+
+/**
+ * Spring Data access for {@link BlobStatisticEntity}, keyed by blob URI and schema fingerprint.
+ */
+interface BlobStatisticJpaRepository : JpaRepository<BlobStatisticEntity, BlobStatisticEntityKey>
@@ -0,0 +1,67 @@
+package io.qpointz.mill.persistence.data.jpa
+
+import io.qpointz.mill.persistence.data.jpa.adapters.JpaBlobStatisticStore
+import io.qpointz.mill.persistence.data.jpa.repositories.BlobStatisticJpaRepository
+import io.qpointz.mill.source.statistics.BlobStatistic
+import io.qpointz.mill.source.statistics.BlobStatisticKey
+import io.qpointz.mill.source.statistics.ColumnStatistic
+import io.qpointz.mill.source.statistics.HyperLogLog
+import io.qpointz.mill.utils.JsonUtils
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+
+@SpringBootTest
+class JpaBlobStatisticStoreIT {
+
+    @Autowired
+    lateinit var repository: BlobStatisticJpaRepository
+
+    private val store by lazy { JpaBlobStatisticStore(repository, JsonUtils.defaultJsonMapper()) }
+
+    @Test
+    fun shouldRoundTripStatistic_whenSaved() {
+        val key = BlobStatisticKey("file:///data/orders.csv", "abc", "100-1700000000000")
+        val sketch = HyperLogLog().apply { (1..50).forEach { add(it.toLong()) } }
+        val statistic = BlobStatistic(
+            rowCount = 52,
+            columns = mapOf(
+                "id" to ColumnStatistic(nullCount = 2, min = 1L, max = 50L, distinct = sketch),
+                "price" to ColumnStatistic(nullCount = 0, min = 1.0, max = 9.5),
+                "name" to ColumnStatistic(nullCount = 52),
+            ),
+        )
+
+        store.save(key, statistic)
+
+        assertThat(store.find(key)).isEqualTo(statistic)
+        assertThat(store.findAll(listOf(key, BlobStatisticKey("file:///data/missing.csv", "abc", "1")))).containsOnlyKeys(key)
+    }
+
+    @Test
+    fun shouldMiss_whenBlobVersionChanged() {
+        val old = BlobStatisticKey("file:///data/events.csv", "f1", "v1")
+        val new = BlobStatisticKey("file:///data/events.csv", "f1", "v2")
+        store.save(old, BlobStatistic(10, emptyMap()))
+
+        assertThat(store.find(new)).isNull()
+
+        store.save(new, BlobStatistic(20, emptyMap()))
+        assertThat(store.find(old)).isNull()
+        assertThat(store.find(new)?.rowCount).isEqualTo(20L)
+    }
+
+    @Test
+    fun shouldKeepStatisticsPerSchema_whenBlobReadWithDifferentSchemas() {
+        val narrow = BlobStatisticKey("file:///data/shared.csv", "f1", "v1")
+        val wide = BlobStatisticKey("file:///data/shared.csv", "f2", "v1")
+
+        store.save(narrow, BlobStatistic(10, emptyMap()))
+        store.save(wide, BlobStatistic(11, emptyMap()))
+
+        assertThat(store.find(narrow)?.rowCount).isEqualTo(10L)
+        assertThat(store.find(wide)?.rowCount).isEqualTo(11L)
+        assertThat(store.findAll(listOf(narrow, wide))).containsOnlyKeys(narrow, wide)
+    }
+}
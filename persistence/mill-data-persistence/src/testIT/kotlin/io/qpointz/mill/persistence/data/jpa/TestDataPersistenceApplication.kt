@@ -0,0 +1,11 @@
+package io.qpointz.mill.persistence.data.jpa
+
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.boot.persistence.autoconfigure.EntityScan
+
+// @EnableJpaRepositories is intentionally absent — [DataPersistenceAutoConfiguration] supplies
+// repository scanning for production (mill-service); in this slice test, Boot also scans from the
+// @SpringBootApplication package below.
+@SpringBootApplication
+@EntityScan(basePackages = ["io.qpointz.mill.persistence.data.jpa.entities"])
+class TestDataPersistenceApplication
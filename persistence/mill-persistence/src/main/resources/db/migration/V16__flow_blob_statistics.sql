@@ -0,0 +1,11 @@
+-- Flow source planner statistics: one row per blob and schema, replaced when the blob version changes.
+
+CREATE TABLE flow_blob_statistic (
+    blob_uri            VARCHAR(2048) NOT NULL,
+    schema_fingerprint  VARCHAR(64)   NOT NULL,
+    blob_version        VARCHAR(512)  NOT NULL,
+    row_count           BIGINT        NOT NULL,
+    columns_json        TEXT          NOT NULL,
+    collected_at        TIMESTAMP     NOT NULL,
+    PRIMARY KEY (blob_uri, schema_fingerprint)
+);
@@ -0,0 +1,20 @@
+package io.qpointz.mill.security.authorization.policy;
+
+import java.util.Set;
+
+/**
+ * Identifies everything {@link PolicyEvaluator#actionsBy} depends on in the current context:
+ * the repository content version and the policies selected for each verb. Principals with
+ * equal keys get equal actions, so results derived from them can be shared.
+ *
+ * @param version        {@link PolicyRepository#version()} the selection was made against
+ * @param allowPolicies  policies selected for {@link ActionVerb#ALLOW}
+ * @param denyPolicies   policies selected for {@link ActionVerb#DENY}
+ */
+public record PolicyEvaluationKey(long version, Set<String> allowPolicies, Set<String> denyPolicies) {
+
+    public PolicyEvaluationKey {
+        allowPolicies = Set.copyOf(allowPolicies);
+        denyPolicies = Set.copyOf(denyPolicies);
+    }
+}
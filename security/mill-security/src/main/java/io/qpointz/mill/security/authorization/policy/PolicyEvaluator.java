@@ -2,10 +2,20 @@ package io.qpointz.mill.security.authorization.policy;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 
 public interface PolicyEvaluator {
 
     <T extends Action> Collection<T> actionsBy(Class<T> collectionClass, ActionVerb verb,  List<String> subject);
 
-}
\ No newline at end of file
+    /**
+     * Key of the current evaluation context, used to cache results of {@link #actionsBy}
+     * per principal policy selection.
+     *
+     * @return the key, or empty when results must not be cached
+     */
+    default Optional<PolicyEvaluationKey> evaluationKey() {
+        return Optional.empty();
+    }
+
+}
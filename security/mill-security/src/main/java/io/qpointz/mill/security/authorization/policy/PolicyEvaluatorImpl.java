@@ -5,12 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.val;
 
-import java.security.Policy;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import static io.qpointz.mill.security.authorization.policy.ActionVerb.ALLOW;
 import static io.qpointz.mill.security.authorization.policy.ActionVerb.DENY;
@@ -54,17 +53,22 @@ public class PolicyEvaluatorImpl implements PolicyEvaluator {
 
     @Override
     public <T extends Action> Collection<T> actionsBy(Class<T> collectionClass, ActionVerb verb, List<String> subject) {
-        val allPolicies = this.repository.actions().stream()
-                .map(k-> k.getPolicy())
-                .collect(Collectors.toSet());
+        final Set<String> selectedPolicies = this.policySelector.selectPolicies(verb, this.repository.policies());
 
-        final Set<String> selectedPolicies = this.policySelector.selectPolicies(verb, allPolicies);
-
-        return this.actionsOf(collectionClass,
-                pol -> pol.getVerb() == verb && selectedPolicies.contains(pol.getPolicy()),
-                act -> act.subject().equals(subject));
+        return this.repository.actionsBySubject(subject).stream()
+                .filter(pol -> pol.getVerb() == verb && selectedPolicies.contains(pol.getPolicy()))
+                .filter(action -> collectionClass.isAssignableFrom(action.getAction().getClass()))
+                .map(k -> collectionClass.cast(k.getAction()))
+                .toList();
     }
 
-
+    @Override
+    public Optional<PolicyEvaluationKey> evaluationKey() {
+        val allPolicies = this.repository.policies();
+        return Optional.of(new PolicyEvaluationKey(
+                this.repository.version(),
+                this.policySelector.selectPolicies(ALLOW, allPolicies),
+                this.policySelector.selectPolicies(DENY, allPolicies)));
+    }
 
 }
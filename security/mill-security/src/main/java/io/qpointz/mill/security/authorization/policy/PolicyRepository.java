@@ -1,9 +1,44 @@
 package io.qpointz.mill.security.authorization.policy;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface PolicyRepository {
 
     Collection<PolicyAction> actions();
 
-}
\ No newline at end of file
+    /**
+     * Returns actions whose subject equals {@code subject}.
+     * Repositories holding many actions should override this with an indexed lookup.
+     *
+     * @param subject qualified subject, e.g. table name parts
+     * @return matching actions of all policies and verbs
+     */
+    default Collection<PolicyAction> actionsBySubject(List<String> subject) {
+        return actions().stream()
+                .filter(k -> k.getAction().subject().equals(subject))
+                .toList();
+    }
+
+    /**
+     * @return names of all policies referenced by the repository actions
+     */
+    default Set<String> policies() {
+        return actions().stream()
+                .map(PolicyAction::getPolicy)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Version of the repository content. Must change whenever the actions change, so that
+     * results derived from them can be cached per version. Immutable repositories return {@code 0}.
+     *
+     * @return content version
+     */
+    default long version() {
+        return 0L;
+    }
+
+}
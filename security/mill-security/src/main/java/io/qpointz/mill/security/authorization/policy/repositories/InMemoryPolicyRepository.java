@@ -2,19 +2,36 @@ package io.qpointz.mill.security.authorization.policy.repositories;
 
 import io.qpointz.mill.security.authorization.policy.PolicyAction;
 import io.qpointz.mill.security.authorization.policy.PolicyRepository;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
-@AllArgsConstructor
-@Builder
 public final class InMemoryPolicyRepository implements PolicyRepository {
 
     @Getter
     @Accessors(fluent = true)
     private final Collection<PolicyAction> actions;
 
+    private final PolicyActionIndex index;
+
+    @Builder
+    public InMemoryPolicyRepository(Collection<PolicyAction> actions) {
+        this.actions = actions;
+        this.index = PolicyActionIndex.of(actions);
+    }
+
+    @Override
+    public Collection<PolicyAction> actionsBySubject(List<String> subject) {
+        return this.index.bySubject(subject);
+    }
+
+    @Override
+    public Set<String> policies() {
+        return this.index.policies();
+    }
+
 }
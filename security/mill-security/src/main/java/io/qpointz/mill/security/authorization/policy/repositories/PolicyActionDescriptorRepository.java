@@ -4,23 +4,70 @@ import io.qpointz.mill.security.authorization.policy.PolicyAction;
 import io.qpointz.mill.security.authorization.policy.PolicyActionDescriptor;
 import io.qpointz.mill.security.authorization.policy.PolicyRepository;
 import io.qpointz.mill.security.authorization.policy.actions.ExpressionFilterAction;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
 import lombok.val;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
-@AllArgsConstructor
+/**
+ * {@link PolicyRepository} built from {@link PolicyActionDescriptor}s.
+ *
+ * <p>Descriptors are converted and indexed once; {@link #setDescriptors(Collection)} replaces
+ * them (e.g. after policies were imported or edited) and bumps {@link #version()}.
+ */
 public class PolicyActionDescriptorRepository implements PolicyRepository {
 
-    @Getter
-    Collection<PolicyActionDescriptor> descriptors;
+    private record State(Collection<PolicyActionDescriptor> descriptors,
+                         List<PolicyAction> actions,
+                         PolicyActionIndex index,
+                         long version) {
+    }
+
+    private volatile State state;
+
+    public PolicyActionDescriptorRepository(Collection<PolicyActionDescriptor> descriptors) {
+        this.state = build(descriptors, 0L);
+    }
+
+    public Collection<PolicyActionDescriptor> getDescriptors() {
+        return this.state.descriptors();
+    }
+
+    /**
+     * Replaces all descriptors and invalidates results cached for the previous version.
+     *
+     * @param descriptors new policy action descriptors
+     */
+    public synchronized void setDescriptors(Collection<PolicyActionDescriptor> descriptors) {
+        this.state = build(descriptors, this.state.version() + 1);
+    }
 
     @Override
     public Collection<PolicyAction> actions() {
-        return descriptors.stream()
+        return this.state.actions();
+    }
+
+    @Override
+    public Collection<PolicyAction> actionsBySubject(List<String> subject) {
+        return this.state.index().bySubject(subject);
+    }
+
+    @Override
+    public Set<String> policies() {
+        return this.state.index().policies();
+    }
+
+    @Override
+    public long version() {
+        return this.state.version();
+    }
+
+    private State build(Collection<PolicyActionDescriptor> descriptors, long version) {
+        val actions = descriptors.stream()
                 .map(this::fromDescriptor)
                 .toList();
+        return new State(descriptors, actions, PolicyActionIndex.of(actions), version);
     }
 
     private PolicyAction fromDescriptor(PolicyActionDescriptor k) {
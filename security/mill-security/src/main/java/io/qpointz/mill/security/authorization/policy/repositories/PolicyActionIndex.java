@@ -0,0 +1,49 @@
+package io.qpointz.mill.security.authorization.policy.repositories;
+
+import io.qpointz.mill.security.authorization.policy.PolicyAction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable lookup structure over a fixed collection of {@link PolicyAction}s:
+ * actions grouped by subject and the set of referenced policy names.
+ */
+final class PolicyActionIndex {
+
+    private final Map<List<String>, List<PolicyAction>> bySubject;
+
+    private final Set<String> policies;
+
+    private PolicyActionIndex(Map<List<String>, List<PolicyAction>> bySubject, Set<String> policies) {
+        this.bySubject = bySubject;
+        this.policies = policies;
+    }
+
+    static PolicyActionIndex of(Collection<PolicyAction> actions) {
+        final var grouped = new HashMap<List<String>, List<PolicyAction>>();
+        for (final var action : actions) {
+            grouped.computeIfAbsent(List.copyOf(action.getAction().subject()), k -> new ArrayList<>())
+                    .add(action);
+        }
+        final var bySubject = grouped.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> List.copyOf(e.getValue())));
+        final var policies = actions.stream()
+                .map(PolicyAction::getPolicy)
+                .collect(Collectors.toUnmodifiableSet());
+        return new PolicyActionIndex(bySubject, policies);
+    }
+
+    List<PolicyAction> bySubject(List<String> subject) {
+        return this.bySubject.getOrDefault(subject, List.of());
+    }
+
+    Set<String> policies() {
+        return this.policies;
+    }
+}
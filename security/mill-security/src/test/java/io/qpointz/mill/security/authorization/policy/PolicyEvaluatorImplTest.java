@@ -1,17 +1,20 @@
 package io.qpointz.mill.security.authorization.policy;
 
 import io.qpointz.mill.security.authorization.policy.repositories.InMemoryPolicyRepository;
+import io.qpointz.mill.security.authorization.policy.repositories.PolicyActionDescriptorRepository;
 import lombok.Getter;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static io.qpointz.mill.security.authorization.policy.ActionVerb.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -89,4 +92,39 @@ class PolicyEvaluatorImplTest {
         assertEquals(List.of(new Action2(List.of("a","b","c"))), pols);
     }
 
-}
\ No newline at end of file
+    @Test
+    void actionsByVerbUseSubjectIndex() {
+        val polSelector = mock(PolicySelector.class);
+        when(polSelector.selectPolicies(any(),anySet())).thenAnswer(r-> Set.of("POL2", "POL3"));
+        val eval = new PolicyEvaluatorImpl(simpleRepo(), polSelector);
+        val actions = eval.actionsBy(Action1.class, DENY, List.of("a","b","c"));
+        assertEquals(2, actions.size());
+        assertTrue(eval.actionsBy(Action1.class, DENY, List.of("x","y","z")).isEmpty());
+    }
+
+    @Test
+    void evaluationKeyFollowsSelectedPolicies() {
+        val polSelector = mock(PolicySelector.class);
+        when(polSelector.selectPolicies(eq(ALLOW),anySet())).thenAnswer(r-> Set.of("POL1"));
+        when(polSelector.selectPolicies(eq(DENY),anySet())).thenAnswer(r-> Set.of("POL2", "POL3"));
+        val eval = new PolicyEvaluatorImpl(simpleRepo(), polSelector);
+        val key = eval.evaluationKey().orElseThrow();
+        assertEquals(new PolicyEvaluationKey(0L, Set.of("POL1"), Set.of("POL2", "POL3")), key);
+        assertEquals(key, eval.evaluationKey().orElseThrow());
+    }
+
+    @Test
+    void descriptorRepositoryVersionChangesOnUpdate() {
+        val descriptor = new PolicyActionDescriptor("POL1", ALLOW, "rel-filter",
+                Map.of("name", "cmart.CLIENT", "expression", "ID > 0"));
+        val repo = new PolicyActionDescriptorRepository(List.of(descriptor));
+        assertEquals(0L, repo.version());
+        assertEquals(1, repo.actionsBySubject(List.of("cmart", "CLIENT")).size());
+
+        repo.setDescriptors(List.of());
+        assertEquals(1L, repo.version());
+        assertTrue(repo.actionsBySubject(List.of("cmart", "CLIENT")).isEmpty());
+        assertTrue(repo.policies().isEmpty());
+    }
+
+}
@@ -0,0 +1,68 @@
+plugins {
+    `java-library`
+    kotlin("jvm")
+    alias(libs.plugins.spring.dependency.management)
+    alias(libs.plugins.kotlin.spring)
+    id("io.qpointz.plugins.mill")
+    id("org.jetbrains.dokka")
+    id("org.jetbrains.dokka-javadoc")
+}
+
+mill {
+    description = "Arrow Flight data plane — bulk query results as Arrow record batches"
+    publishArtifacts = true
+}
+
+dependencies {
+    implementation(project(":core:mill-spring-support"))
+    implementation(project(":data:mill-data-backends"))
+    implementation(project(":data:mill-data-autoconfigure"))
+    implementation(project(":data:mill-data-source-core"))
+    implementation(project(":data:formats:mill-data-format-arrow"))
+    implementation(kotlin("reflect"))
+    api(libs.apache.arrow.flight.core)
+    implementation(libs.apache.arrow.vector)
+    implementation(libs.apache.arrow.memory.netty)
+    api(libs.boot.starter.security)
+    api(libs.boot.starter.security.oauth2.resource.server)
+    implementation(libs.boot.starter)
+    compileOnly(libs.lombok)
+    annotationProcessor(libs.lombok)
+    annotationProcessor(libs.boot.configuration.processor)
+}
+
+testing {
+    suites {
+        configureEach {
+            if (this is JvmTestSuite) {
+                useJUnitJupiter(libs.versions.junit.get())
+                targets.configureEach {
+                    testTask.configure {
+                        jvmArgs(
+                            "--add-opens=java.base/java.nio=ALL-UNNAMED",
+                            "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"
+                        )
+                        systemProperty("arrow.enable_unsafe_memory_access", "true")
+                        systemProperty("io.netty.tryReflectionSetAccessible", "true")
+                    }
+                }
+
+                dependencies {
+                    implementation(project())
+                    implementation(project(":data:mill-data-backends"))
+                    implementation(project(":data:mill-data-source-core"))
+                    implementation(project(":data:formats:mill-data-format-arrow"))
+                    implementation(libs.apache.arrow.vector)
+                    implementation(libs.boot.starter.test)
+                    implementation(libs.mockito.core)
+                    implementation(libs.mockito.junit.jupiter)
+                    implementation(libs.mockito.kotlin)
+                }
+            }
+        }
+    }
+}
+
+repositories {
+    mavenCentral()
+}
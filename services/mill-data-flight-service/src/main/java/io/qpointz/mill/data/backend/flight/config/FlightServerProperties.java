@@ -0,0 +1,108 @@
+package io.qpointz.mill.data.backend.flight.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bindings for {@code mill.data.services.flight.*} for the Arrow Flight server and related discovery fields.
+ *
+ * <p>Properties {@link #host} and {@link #port} control the listen socket; {@link #externalHost} is optional
+ * metadata for clients (resolved via {@code mill.application.hosts.externals} when a provider is present)
+ * and does not change the bind address.
+ */
+@ConfigurationProperties(prefix = "mill.data.services.flight")
+public class FlightServerProperties {
+
+    /**
+     * TCP port the Flight server listens on. Use {@code 0} to choose a free ephemeral port (e.g. tests).
+     */
+    private int port = 8815;
+
+    /**
+     * Bind address (hostname or IP). Defaults to all interfaces.
+     */
+    private String host = "0.0.0.0";
+
+    /**
+     * Hostname or logical name for discovery only when the service is fronted by a proxy, mesh, or DNS alias
+     * ({@code mill.data.services.flight.external-host} in YAML). Does not affect the bind address ({@link #host})
+     * or listen {@link #port}.
+     */
+    private String externalHost = "";
+
+    /**
+     * Number of endpoints {@code GetFlightInfo} returns for queries that only filter and project a single table
+     * scan. Each endpoint reads a disjoint share of the table's files; {@code 1} disables partitioning.
+     */
+    private int partitions = 4;
+
+    /**
+     * Upper bound, in bytes, of off-heap memory held by record batches of all open streams.
+     */
+    private long memoryLimit = 1L << 30;
+
+    /**
+     * How long a stream waits for a client that stopped reading before it fails with {@code TIMED_OUT}.
+     */
+    private int streamTimeoutSeconds = 300;
+
+    /**
+     * Grace period when shutting down the server during Spring context stop.
+     */
+    private int shutdownGraceSeconds = 5;
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public String getExternalHost() {
+        return externalHost;
+    }
+
+    public void setExternalHost(String externalHost) {
+        this.externalHost = externalHost != null ? externalHost : "";
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    public void setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
+    public int getStreamTimeoutSeconds() {
+        return streamTimeoutSeconds;
+    }
+
+    public void setStreamTimeoutSeconds(int streamTimeoutSeconds) {
+        this.streamTimeoutSeconds = streamTimeoutSeconds;
+    }
+
+    public int getShutdownGraceSeconds() {
+        return shutdownGraceSeconds;
+    }
+
+    public void setShutdownGraceSeconds(int shutdownGraceSeconds) {
+        this.shutdownGraceSeconds = shutdownGraceSeconds;
+    }
+}
@@ -0,0 +1,93 @@
+package io.qpointz.mill.data.backend.flight.config;
+
+import io.qpointz.mill.annotations.service.ConditionalOnService;
+import io.qpointz.mill.data.backend.ServiceHandler;
+import io.qpointz.mill.data.backend.flight.FlightAuthenticationMiddleware;
+import io.qpointz.mill.data.backend.flight.FlightServerLifecycle;
+import io.qpointz.mill.data.backend.flight.MillFlightProducer;
+import io.qpointz.mill.security.SecurityContextSecurityProvider;
+import io.qpointz.mill.security.SecurityProvider;
+import org.apache.arrow.flight.FlightServer;
+import org.apache.arrow.flight.Location;
+import org.apache.arrow.memory.RootAllocator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wires the Arrow Flight server, its producer, and {@link SmartLifecycle} adapter for the data-plane Flight
+ * transport when {@code mill.data.services.flight} is enabled.
+ */
+@Configuration
+@ConditionalOnService(value = "flight", group = "data")
+@EnableConfigurationProperties(FlightServerProperties.class)
+public class MillFlightConfiguration {
+
+    /**
+     * Same {@link SecurityProvider} contract as the gRPC module, for deployments exposing Flight only.
+     *
+     * @return security provider backed by the Spring {@link org.springframework.security.core.context.SecurityContextHolder}
+     */
+    @Bean
+    @ConditionalOnMissingBean(SecurityProvider.class)
+    public SecurityProvider securityProvider() {
+        return new SecurityContextSecurityProvider();
+    }
+
+    /**
+     * Flight producer executing queries through the shared {@link ServiceHandler} stack.
+     *
+     * @param serviceHandler data and security dispatchers
+     * @param properties     memory limit, partition count, and stream timeout
+     * @return producer owning the root allocator of all streams
+     */
+    @Bean(destroyMethod = "close")
+    public MillFlightProducer millFlightProducer(ServiceHandler serviceHandler, FlightServerProperties properties) {
+        return new MillFlightProducer(
+                serviceHandler,
+                new RootAllocator(properties.getMemoryLimit()),
+                Math.max(1, properties.getPartitions()),
+                TimeUnit.SECONDS.toMillis(properties.getStreamTimeoutSeconds())
+        );
+    }
+
+    /**
+     * Arrow {@link FlightServer} (not started until {@link FlightServerLifecycle} runs).
+     *
+     * @param producer       Flight producer
+     * @param properties     bind address and port
+     * @param authentication present when Mill security is enabled
+     * @return configured server instance
+     */
+    @Bean
+    public FlightServer flightServer(
+            MillFlightProducer producer,
+            FlightServerProperties properties,
+            ObjectProvider<FlightAuthenticationMiddleware.Factory> authentication
+    ) {
+        FlightServer.Builder builder = FlightServer.builder(
+                producer.getAllocator(),
+                Location.forGrpcInsecure(properties.getHost(), properties.getPort()),
+                producer
+        );
+        authentication.ifAvailable(factory -> builder.middleware(FlightAuthenticationMiddleware.KEY, factory));
+        return builder.build();
+    }
+
+    /**
+     * Starts and stops the Flight server with the Spring application context.
+     *
+     * @param server     Flight server bean
+     * @param properties bind address and shutdown grace from {@link FlightServerProperties}
+     * @return Spring lifecycle adapter
+     */
+    @Bean
+    public SmartLifecycle flightServerLifecycle(FlightServer server, FlightServerProperties properties) {
+        return new FlightServerLifecycle(server, properties);
+    }
+}
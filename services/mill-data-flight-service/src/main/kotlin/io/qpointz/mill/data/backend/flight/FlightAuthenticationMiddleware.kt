@@ -0,0 +1,118 @@
+package io.qpointz.mill.data.backend.flight
+
+import io.qpointz.mill.annotations.security.ConditionalOnSecurity
+import io.qpointz.mill.annotations.service.ConditionalOnService
+import io.qpointz.mill.security.authentication.AuthenticationMethods
+import io.qpointz.mill.security.authentication.AuthenticationType
+import org.apache.arrow.flight.CallHeaders
+import org.apache.arrow.flight.CallInfo
+import org.apache.arrow.flight.CallStatus
+import org.apache.arrow.flight.FlightServerMiddleware
+import org.apache.arrow.flight.RequestContext
+import org.slf4j.LoggerFactory
+import org.springframework.security.authentication.AuthenticationManager
+import org.springframework.security.authentication.BadCredentialsException
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.Authentication
+import org.springframework.security.core.AuthenticationException
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken
+import org.springframework.stereotype.Component
+import java.nio.charset.StandardCharsets
+import java.util.Base64
+
+/**
+ * Holds the Spring [Authentication] of one Flight call.
+ *
+ * Flight producers run on server executor threads, so the authentication is carried by the
+ * call and installed in the security context by [MillFlightProducer] for the duration of
+ * each operation.
+ *
+ * @property authentication authenticated principal of the call
+ */
+class FlightAuthenticationMiddleware(val authentication: Authentication) : FlightServerMiddleware {
+
+    override fun onBeforeSendingHeaders(outgoingHeaders: CallHeaders) {
+    }
+
+    override fun onCallCompleted(status: CallStatus) {
+    }
+
+    override fun onCallErrored(err: Throwable) {
+    }
+
+    /**
+     * Authenticates inbound Flight calls from the `authorization` header, accepting the same
+     * Basic / Bearer credentials as the gRPC data plane.
+     */
+    @Component
+    @ConditionalOnSecurity
+    @ConditionalOnService(value = "flight", group = "data")
+    class Factory(
+        private val authenticationMethods: AuthenticationMethods,
+        private val authenticationManager: AuthenticationManager,
+    ) : FlightServerMiddleware.Factory<FlightAuthenticationMiddleware> {
+
+        private val log = LoggerFactory.getLogger(javaClass)
+
+        override fun onCallStarted(
+            info: CallInfo,
+            incomingHeaders: CallHeaders,
+            context: RequestContext,
+        ): FlightAuthenticationMiddleware {
+            val token = try {
+                extractAuthentication(incomingHeaders.get(AUTHORIZATION_HEADER))
+            } catch (e: BadCredentialsException) {
+                log.debug("Malformed credentials on Flight call: {}", e.message)
+                throw CallStatus.UNAUTHENTICATED.withDescription(e.message).withCause(e).toRuntimeException()
+            } ?: throw CallStatus.UNAUTHENTICATED.withDescription("Missing or unsupported Authorization").toRuntimeException()
+
+            val authenticated = try {
+                authenticationManager.authenticate(token)
+            } catch (e: AuthenticationException) {
+                log.debug("Authentication failed: {}", e.message)
+                throw CallStatus.UNAUTHENTICATED.withDescription(e.message).withCause(e).toRuntimeException()
+            }
+            return FlightAuthenticationMiddleware(authenticated)
+        }
+
+        private fun extractAuthentication(rawHeader: String?): Authentication? {
+            if (rawHeader.isNullOrBlank()) {
+                return null
+            }
+            val types = authenticationMethods.authenticationTypes
+            if (rawHeader.startsWith("Basic ", ignoreCase = true) && types.contains(AuthenticationType.BASIC)) {
+                return parseBasic(rawHeader)
+            }
+            if (rawHeader.startsWith("Bearer ", ignoreCase = true) && types.contains(AuthenticationType.OAUTH2)) {
+                val token = rawHeader.substring(7).trim()
+                if (token.isEmpty()) {
+                    return null
+                }
+                return BearerTokenAuthenticationToken(token)
+            }
+            return null
+        }
+
+        private fun parseBasic(header: String): UsernamePasswordAuthenticationToken {
+            val decoded = try {
+                String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8)
+            } catch (e: IllegalArgumentException) {
+                throw BadCredentialsException("Malformed Basic authentication token")
+            }
+            val delim = decoded.indexOf(':')
+            if (delim < 0) {
+                throw BadCredentialsException("Malformed Basic authentication token")
+            }
+            return UsernamePasswordAuthenticationToken(decoded.substring(0, delim), decoded.substring(delim + 1))
+        }
+    }
+
+    companion object {
+        /** Middleware key the producer reads the call's authentication from. */
+        @JvmField
+        val KEY: FlightServerMiddleware.Key<FlightAuthenticationMiddleware> =
+            FlightServerMiddleware.Key.of("mill-authentication")
+
+        private const val AUTHORIZATION_HEADER = "authorization"
+    }
+}
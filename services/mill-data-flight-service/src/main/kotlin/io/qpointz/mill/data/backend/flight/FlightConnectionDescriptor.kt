@@ -0,0 +1,45 @@
+package io.qpointz.mill.data.backend.flight
+
+import io.qpointz.mill.annotations.service.ConditionalOnService
+import io.qpointz.mill.data.backend.flight.config.FlightServerProperties
+import io.qpointz.mill.service.descriptors.Descriptor
+import io.qpointz.mill.service.descriptors.DescriptorTypes
+import io.qpointz.mill.service.providers.ExternalHostLookup
+import io.qpointz.mill.service.providers.ExternalHostsProvider
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Component
+
+/**
+ * Connection hints for the Arrow Flight data plane: scheme, host, and port for clients.
+ *
+ * Resolves [FlightServerProperties.externalHost] against [ExternalHostsProvider.getExternals] on each access
+ * (supports `@request.*` placeholders in config); otherwise falls back to localhost and configured listen port.
+ * The scheme is always Flight's `grpc+tcp`: external hosts contribute host and port only.
+ *
+ * @param serverProperties Flight server and `external-host` bindings
+ * @param externalHosts optional map of named external addresses from `mill.application.hosts.externals`
+ */
+@Component
+@ConditionalOnService(value = "flight", group = "data")
+class FlightConnectionDescriptor(
+    private val serverProperties: FlightServerProperties,
+    @Autowired(required = false) private val externalHosts: ExternalHostsProvider?,
+) : Descriptor {
+
+    private val hostRef: String = serverProperties.externalHost
+
+    /** Client port (from externals map when resolved, otherwise configured listen port). */
+    val port: Int
+        get() = resolvedExternal()?.port ?: serverProperties.port
+
+    /** Client hostname for Flight connections. */
+    val host: String
+        get() = resolvedExternal()?.host ?: "localhost"
+
+    /** Flight location scheme. */
+    val scheme: String = "grpc+tcp"
+
+    private fun resolvedExternal() = ExternalHostLookup.resolve(externalHosts, hostRef)
+
+    override fun getTypeName(): String = DescriptorTypes.CONNECTIONS_TYPE_NAME
+}
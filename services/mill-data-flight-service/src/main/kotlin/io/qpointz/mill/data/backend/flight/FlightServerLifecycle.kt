@@ -0,0 +1,55 @@
+package io.qpointz.mill.data.backend.flight
+
+import io.qpointz.mill.data.backend.flight.config.FlightServerProperties
+import org.apache.arrow.flight.FlightServer
+import org.slf4j.LoggerFactory
+import org.springframework.context.SmartLifecycle
+import java.util.concurrent.TimeUnit
+
+/**
+ * Starts and stops the Arrow [FlightServer] together with the Spring application context.
+ *
+ * Uses only bind address and shutdown grace from [FlightServerProperties].
+ * `external-host` is discovery metadata only and is not read here.
+ *
+ * @param server     Flight server bean (not started until [start])
+ * @param properties bind address and shutdown grace period
+ */
+class FlightServerLifecycle(
+    private val server: FlightServer,
+    private val properties: FlightServerProperties,
+) : SmartLifecycle {
+
+    private val log = LoggerFactory.getLogger(javaClass)
+
+    @Volatile
+    private var running = false
+
+    override fun start() {
+        server.start()
+        running = true
+        log.info("Arrow Flight server listening on {}:{}", properties.host, server.port)
+    }
+
+    override fun stop() {
+        stop { }
+    }
+
+    override fun stop(callback: Runnable) {
+        Thread {
+            try {
+                server.shutdown()
+                if (!server.awaitTermination(properties.shutdownGraceSeconds.toLong(), TimeUnit.SECONDS)) {
+                    server.close()
+                }
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+            } finally {
+                running = false
+                callback.run()
+            }
+        }.start()
+    }
+
+    override fun isRunning(): Boolean = running
+}
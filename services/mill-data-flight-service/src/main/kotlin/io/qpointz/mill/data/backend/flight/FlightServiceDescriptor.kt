@@ -0,0 +1,24 @@
+package io.qpointz.mill.data.backend.flight
+
+import io.qpointz.mill.annotations.service.ConditionalOnService
+import io.qpointz.mill.service.descriptors.Descriptor
+import io.qpointz.mill.service.descriptors.DescriptorTypes
+import org.springframework.stereotype.Component
+
+/**
+ * Advertises the Arrow Flight data-plane service in the well-known discovery map under
+ * {@link DescriptorTypes#SERVICE_TYPE_NAME}. Connection endpoints are published separately by
+ * {@link FlightConnectionDescriptor} (including {@code mill.data.services.flight.external-host} resolution).
+ */
+@Component
+@ConditionalOnService(value = "flight", group = "data")
+class FlightServiceDescriptor : Descriptor {
+
+    /**
+     * @return {@link DescriptorTypes#SERVICE_TYPE_NAME}
+     */
+    override fun getTypeName(): String = DescriptorTypes.SERVICE_TYPE_NAME
+
+    /** Stable logical name for this data-plane Flight surface in discovery JSON. */
+    val name: String = "data-flight"
+}
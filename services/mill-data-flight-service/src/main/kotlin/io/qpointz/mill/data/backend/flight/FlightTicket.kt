@@ -0,0 +1,104 @@
+package io.qpointz.mill.data.backend.flight
+
+import com.google.protobuf.InvalidProtocolBufferException
+import io.qpointz.mill.proto.QueryRequest
+import io.qpointz.mill.proto.SQLStatement
+import io.qpointz.mill.source.ScanPartition
+import org.apache.arrow.flight.Ticket
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+
+/**
+ * Opaque Flight ticket naming one endpoint of a query.
+ *
+ * Tickets are bound to the principal that called `GetFlightInfo`; `DoGet` rejects tickets
+ * presented by anyone else. A ticket of a partitioned query reads the [partitionIndex]-th of
+ * [partitionCount] shares of the scanned table (see [ScanPartition]).
+ *
+ * @property principal      principal name the ticket was issued to (empty when anonymous)
+ * @property partitionIndex zero-based endpoint index
+ * @property partitionCount number of endpoints of the query
+ * @property request        query to execute
+ */
+data class FlightTicket(
+    val principal: String,
+    val partitionIndex: Int,
+    val partitionCount: Int,
+    val request: QueryRequest,
+) {
+
+    init {
+        require(partitionCount >= 1 && partitionIndex in 0 until partitionCount) {
+            "Invalid ticket partition $partitionIndex/$partitionCount"
+        }
+    }
+
+    /**
+     * Scan partition to bind while executing this ticket, or `null` for unpartitioned queries.
+     */
+    fun scanPartition(): ScanPartition? =
+        if (partitionCount > 1) ScanPartition(partitionIndex, partitionCount) else null
+
+    /** Encodes this ticket as a Flight [Ticket]. */
+    fun toTicket(): Ticket {
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { out ->
+            out.writeByte(VERSION)
+            out.writeUTF(principal)
+            out.writeInt(partitionIndex)
+            out.writeInt(partitionCount)
+            request.writeTo(out)
+        }
+        return Ticket(bytes.toByteArray())
+    }
+
+    companion object {
+
+        private const val VERSION = 1
+
+        /**
+         * Decodes a ticket issued by [toTicket].
+         *
+         * @throws IllegalArgumentException when [bytes] is not a Mill Flight ticket
+         */
+        @JvmStatic
+        fun decode(bytes: ByteArray): FlightTicket {
+            try {
+                DataInputStream(bytes.inputStream()).use { input ->
+                    val version = input.readUnsignedByte()
+                    require(version == VERSION) { "Unsupported ticket version $version" }
+                    val principal = input.readUTF()
+                    val index = input.readInt()
+                    val count = input.readInt()
+                    return FlightTicket(principal, index, count, QueryRequest.parseFrom(input))
+                }
+            } catch (e: IOException) {
+                throw IllegalArgumentException("Malformed Flight ticket", e)
+            }
+        }
+
+        /**
+         * Reads a Flight command: a serialized [QueryRequest] carrying a plan or statement, or
+         * otherwise UTF-8 SQL text.
+         *
+         * @throws IllegalArgumentException when the command is empty
+         */
+        @JvmStatic
+        fun commandToRequest(command: ByteArray): QueryRequest {
+            require(command.isNotEmpty()) { "Flight command is empty" }
+            val request = try {
+                QueryRequest.parseFrom(command)
+            } catch (e: InvalidProtocolBufferException) {
+                null
+            }
+            if (request != null && request.queryCase != QueryRequest.QueryCase.QUERY_NOT_SET) {
+                return request
+            }
+            return QueryRequest.newBuilder()
+                .setStatement(SQLStatement.newBuilder().setSql(String(command, Charsets.UTF_8)))
+                .build()
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package io.qpointz.mill.data.backend.flight
+
+import com.google.protobuf.Message
+import io.grpc.StatusException
+import io.grpc.StatusRuntimeException
+import io.qpointz.mill.data.backend.ServiceHandler
+import io.qpointz.mill.data.backend.dispatchers.DataOperationDispatcher
+import io.qpointz.mill.data.backend.dispatchers.SecurityDispatcher
+import io.qpointz.mill.proto.ParseSqlRequest
+import io.qpointz.mill.proto.QueryRequest
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.source.ScanPartition
+import io.qpointz.mill.source.format.arrow.export.ArrowVectorBlockEncoder
+import io.qpointz.mill.vectors.VectorBlockIterator
+import io.substrait.proto.Expression
+import io.substrait.proto.Plan
+import io.substrait.proto.Rel
+import org.apache.arrow.flight.BackpressureStrategy
+import org.apache.arrow.flight.CallStatus
+import org.apache.arrow.flight.FlightDescriptor
+import org.apache.arrow.flight.FlightEndpoint
+import org.apache.arrow.flight.FlightInfo
+import org.apache.arrow.flight.FlightRuntimeException
+import org.apache.arrow.flight.FlightProducer.CallContext
+import org.apache.arrow.flight.FlightProducer.ServerStreamListener
+import org.apache.arrow.flight.NoOpFlightProducer
+import org.apache.arrow.flight.Ticket
+import org.apache.arrow.flight.grpc.StatusUtils
+import org.apache.arrow.memory.BufferAllocator
+import org.apache.arrow.vector.types.pojo.Schema
+import org.slf4j.LoggerFactory
+import org.springframework.security.core.context.SecurityContextHolder
+
+/**
+ * Arrow Flight producer serving query results of the shared [ServiceHandler] stack.
+ *
+ * - `GetFlightInfo` accepts a command holding a serialized [QueryRequest] or SQL text and
+ *   returns its endpoints. Queries whose plan only filters and projects one table scan are
+ *   split into [partitions] endpoints, each reading a disjoint share of the table's files;
+ *   all other queries get a single endpoint. Endpoints carry no location: clients fetch
+ *   them from this server, in parallel when there are several.
+ * - `DoGet` executes the ticket's query through [DataOperationDispatcher.execute] and
+ *   encodes each result block column by column into a reused Arrow record batch, sending
+ *   the next batch only when the client is ready for it.
+ *
+ * The schema of `GetFlightInfo` is empty; the stream schema is authoritative.
+ *
+ * @param serviceHandler      data and security dispatchers
+ * @param allocator           root allocator of all streams; closed with the producer
+ * @param partitions          endpoints issued for partitionable queries
+ * @param streamTimeoutMillis how long a stream waits for a client that stopped reading
+ */
+class MillFlightProducer(
+    serviceHandler: ServiceHandler,
+    val allocator: BufferAllocator,
+    private val partitions: Int,
+    private val streamTimeoutMillis: Long,
+) : NoOpFlightProducer(), AutoCloseable {
+
+    private val log = LoggerFactory.getLogger(javaClass)
+
+    private val dataOpDispatcher: DataOperationDispatcher = serviceHandler.data()
+
+    private val securityDispatcher: SecurityDispatcher = serviceHandler.security()
+
+    override fun getFlightInfo(context: CallContext, descriptor: FlightDescriptor): FlightInfo =
+        authenticated(context) {
+            if (!descriptor.isCommand) {
+                throw CallStatus.INVALID_ARGUMENT
+                    .withDescription("Only command descriptors are supported").toRuntimeException()
+            }
+            val request = FlightTicket.commandToRequest(descriptor.command)
+            val count = if (partitions > 1 && isPartitionable(planOf(request))) partitions else 1
+            val principal = securityDispatcher.principalName() ?: ""
+            val endpoints = (0 until count).map { idx ->
+                FlightEndpoint(FlightTicket(principal, idx, count, request).toTicket())
+            }
+            FlightInfo(EMPTY_SCHEMA, descriptor, endpoints, -1, -1)
+        }
+
+    override fun getStream(context: CallContext, ticket: Ticket, listener: ServerStreamListener) {
+        try {
+            authenticated(context) {
+                val flightTicket = FlightTicket.decode(ticket.bytes)
+                if (flightTicket.principal != (securityDispatcher.principalName() ?: "")) {
+                    throw CallStatus.UNAUTHORIZED
+                        .withDescription("Ticket was issued to another principal").toRuntimeException()
+                }
+                val partition = flightTicket.scanPartition()
+                ScanPartition.withPartition(partition) {
+                    stream(dataOpDispatcher.execute(flightTicket.request), partition, listener)
+                }
+            }
+        } catch (e: Exception) {
+            log.debug("Flight stream failed", e)
+            listener.error(toFlightException(e))
+        }
+    }
+
+    private fun stream(iterator: VectorBlockIterator, partition: ScanPartition?, listener: ServerStreamListener) {
+        try {
+            var block = nextNonEmpty(iterator)
+            if (partition != null && partition.index > 0 && !partition.applied) {
+                // the backend did not split the scan: the first endpoint returns every row
+                block = null
+            }
+            ArrowVectorBlockEncoder(iterator.schema(), block, allocator).use { encoder ->
+                val backpressure = BackpressureStrategy.CallbackBackpressureStrategy()
+                backpressure.register(listener)
+                listener.start(encoder.root)
+                while (block != null) {
+                    encoder.encode(block)
+                    when (backpressure.waitForListener(streamTimeoutMillis)) {
+                        BackpressureStrategy.WaitResult.READY -> listener.putNext()
+                        BackpressureStrategy.WaitResult.CANCELLED -> return
+                        BackpressureStrategy.WaitResult.TIMEOUT -> throw CallStatus.TIMED_OUT
+                            .withDescription("Client did not read the stream in time").toRuntimeException()
+                        else -> throw CallStatus.INTERNAL
+                            .withDescription("Stream is no longer writable").toRuntimeException()
+                    }
+                    block = nextNonEmpty(iterator)
+                }
+                listener.completed()
+            }
+        } finally {
+            (iterator as? AutoCloseable)?.close()
+        }
+    }
+
+    private fun nextNonEmpty(iterator: VectorBlockIterator): VectorBlock? {
+        while (iterator.hasNext()) {
+            val block = iterator.next()
+            if (block.vectorSize > 0) return block
+        }
+        return null
+    }
+
+    private fun planOf(request: QueryRequest): Plan? = when {
+        request.hasPlan() -> request.plan
+        request.hasStatement() -> dataOpDispatcher.parseSql(
+            ParseSqlRequest.newBuilder().setStatement(request.statement).build()
+        ).takeIf { it.hasPlan() }?.plan
+        else -> null
+    }
+
+    /**
+     * Runs [block] with the call's authentication installed in the security context.
+     */
+    private fun <T> authenticated(context: CallContext, block: () -> T): T {
+        val authentication = context.getMiddleware(FlightAuthenticationMiddleware.KEY)?.authentication
+            ?: return block()
+        val securityContext = SecurityContextHolder.getContext()
+        val previous = securityContext.authentication
+        securityContext.authentication = authentication
+        try {
+            return block()
+        } finally {
+            if (previous == null) SecurityContextHolder.clearContext() else securityContext.authentication = previous
+        }
+    }
+
+    override fun close() {
+        allocator.close()
+    }
+
+    companion object {
+
+        private val EMPTY_SCHEMA = Schema(emptyList())
+
+        /**
+         * `true` when [plan] is a single table scan under filters and projections only, so
+         * that the union of its results over disjoint shares of the table's files equals the
+         * result over the whole table. Expressions that reach other relations (subqueries,
+         * outer references) disqualify the plan: each partition would evaluate them against
+         * its own share only.
+         */
+        @JvmStatic
+        fun isPartitionable(plan: Plan?): Boolean {
+            if (plan == null || plan.relationsCount != 1) return false
+            val relation = plan.getRelations(0)
+            var rel: Rel = when {
+                relation.hasRoot() -> relation.root.input
+                relation.hasRel() -> relation.rel
+                else -> return false
+            }
+            while (true) {
+                rel = when (rel.relTypeCase) {
+                    Rel.RelTypeCase.FILTER -> {
+                        if (referencesRelations(rel.filter.condition)) return false
+                        rel.filter.input
+                    }
+                    Rel.RelTypeCase.PROJECT -> {
+                        if (rel.project.expressionsList.any(::referencesRelations)) return false
+                        rel.project.input
+                    }
+                    Rel.RelTypeCase.READ -> return rel.read.hasNamedTable() && !referencesRelations(rel.read)
+                    else -> return false
+                }
+            }
+        }
+
+        /**
+         * `true` when [message] nests a relation, a subquery or an outer field reference.
+         */
+        private fun referencesRelations(message: Message): Boolean =
+            when (message) {
+                is Rel, is Expression.Subquery -> true
+                is Expression.FieldReference -> message.hasOuterReference() || fieldsReferenceRelations(message)
+                else -> fieldsReferenceRelations(message)
+            }
+
+        private fun fieldsReferenceRelations(message: Message): Boolean =
+            message.allFields.values.any(::referencesRelationsIn)
+
+        private fun referencesRelationsIn(value: Any?): Boolean =
+            when (value) {
+                is Message -> referencesRelations(value)
+                is List<*> -> value.any(::referencesRelationsIn)
+                else -> false
+            }
+
+        /**
+         * Maps [e] to a Flight error, keeping statuses raised by Flight or gRPC anywhere in the
+         * causal chain and reporting malformed input as `INVALID_ARGUMENT`.
+         */
+        private fun toFlightException(e: Throwable): FlightRuntimeException {
+            var current: Throwable? = e
+            val seen = HashSet<Throwable>()
+            while (current != null && seen.add(current)) {
+                when (current) {
+                    is FlightRuntimeException -> return current
+                    is StatusRuntimeException, is StatusException -> return StatusUtils.fromThrowable(current).toRuntimeException()
+                }
+                current = current.cause
+            }
+            return when (e) {
+                is IllegalArgumentException -> CallStatus.INVALID_ARGUMENT.withDescription(e.message).withCause(e)
+                else -> CallStatus.UNKNOWN.withDescription(e.message ?: "Unknown failure").withCause(e)
+            }.toRuntimeException()
+        }
+    }
+}
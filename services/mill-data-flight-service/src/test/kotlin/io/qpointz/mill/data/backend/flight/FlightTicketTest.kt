@@ -0,0 +1,55 @@
+package io.qpointz.mill.data.backend.flight
+
+import io.qpointz.mill.proto.QueryExecutionConfig
+import io.qpointz.mill.proto.QueryRequest
+import io.qpointz.mill.proto.SQLStatement
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+/**
+ * Unit tests for [FlightTicket] encoding and command parsing.
+ */
+class FlightTicketTest {
+
+    private val request = QueryRequest.newBuilder()
+        .setConfig(QueryExecutionConfig.newBuilder().setFetchSize(500))
+        .setStatement(SQLStatement.newBuilder().setSql("SELECT 1"))
+        .build()
+
+    @Test
+    fun shouldRoundTrip_whenEncoded() {
+        val ticket = FlightTicket("alice", 2, 4, request)
+
+        val decoded = FlightTicket.decode(ticket.toTicket().bytes)
+
+        assertEquals(ticket, decoded)
+        assertEquals(2, decoded.scanPartition()!!.index)
+        assertEquals(4, decoded.scanPartition()!!.count)
+    }
+
+    @Test
+    fun shouldHaveNoScanPartition_whenSingleEndpoint() {
+        assertNull(FlightTicket("", 0, 1, request).scanPartition())
+    }
+
+    @Test
+    fun shouldRejectMalformedTickets() {
+        assertThrows<IllegalArgumentException> { FlightTicket.decode(byteArrayOf()) }
+        assertThrows<IllegalArgumentException> { FlightTicket.decode(byteArrayOf(9, 0, 0)) }
+        assertThrows<IllegalArgumentException> { FlightTicket("alice", 3, 3, request) }
+    }
+
+    @Test
+    fun shouldReadQueryRequestCommand() {
+        assertEquals(request, FlightTicket.commandToRequest(request.toByteArray()))
+    }
+
+    @Test
+    fun shouldReadSqlCommand() {
+        val parsed = FlightTicket.commandToRequest("SELECT * FROM cities".toByteArray())
+
+        assertEquals("SELECT * FROM cities", parsed.statement.sql)
+    }
+}
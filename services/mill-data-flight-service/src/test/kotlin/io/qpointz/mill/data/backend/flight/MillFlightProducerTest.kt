@@ -0,0 +1,242 @@
+package io.qpointz.mill.data.backend.flight
+
+import io.qpointz.mill.data.backend.ServiceHandler
+import io.qpointz.mill.data.backend.dispatchers.DataOperationDispatcher
+import io.qpointz.mill.data.backend.dispatchers.SecurityDispatcher
+import io.qpointz.mill.proto.DataType
+import io.qpointz.mill.proto.Field
+import io.qpointz.mill.proto.LogicalDataType
+import io.qpointz.mill.proto.LogicalDataType.LogicalDataTypeId
+import io.qpointz.mill.proto.ParseSqlResponse
+import io.qpointz.mill.proto.QueryRequest
+import io.qpointz.mill.proto.Vector
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.proto.VectorBlockSchema
+import io.qpointz.mill.source.ScanPartition
+import io.qpointz.mill.vectors.VectorBlockIterator
+import io.substrait.proto.AggregateRel
+import io.substrait.proto.Expression
+import io.substrait.proto.FilterRel
+import io.substrait.proto.Plan
+import io.substrait.proto.PlanRel
+import io.substrait.proto.ProjectRel
+import io.substrait.proto.ReadRel
+import io.substrait.proto.Rel
+import io.substrait.proto.RelRoot
+import org.apache.arrow.flight.CallStatus
+import org.apache.arrow.flight.FlightDescriptor
+import org.apache.arrow.flight.FlightProducer.CallContext
+import org.apache.arrow.flight.FlightProducer.ServerStreamListener
+import org.apache.arrow.flight.FlightRuntimeException
+import org.apache.arrow.memory.RootAllocator
+import org.apache.arrow.vector.IntVector
+import org.apache.arrow.vector.VectorSchemaRoot
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.kotlin.any
+import org.mockito.kotlin.argumentCaptor
+import org.mockito.kotlin.doAnswer
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
+import org.mockito.kotlin.verify
+import org.mockito.kotlin.whenever
+
+/**
+ * Unit tests for [MillFlightProducer] endpoint planning, ticket checks and batch streaming.
+ */
+class MillFlightProducerTest {
+
+    private val dispatcher = mock<DataOperationDispatcher>()
+
+    private val security = mock<SecurityDispatcher>()
+
+    private val context = mock<CallContext>()
+
+    private lateinit var producer: MillFlightProducer
+
+    private val schema = VectorBlockSchema.newBuilder()
+        .addFields(
+            Field.newBuilder()
+                .setName("id")
+                .setFieldIdx(0)
+                .setType(
+                    DataType.newBuilder()
+                        .setType(LogicalDataType.newBuilder().setTypeId(LogicalDataTypeId.INT))
+                        .setNullability(DataType.Nullability.NOT_NULL)
+                )
+        )
+        .build()
+
+    @BeforeEach
+    fun setup() {
+        val serviceHandler = mock<ServiceHandler>()
+        whenever(serviceHandler.data()).thenReturn(dispatcher)
+        whenever(serviceHandler.security()).thenReturn(security)
+        whenever(security.principalName()).thenReturn("alice")
+        producer = MillFlightProducer(serviceHandler, RootAllocator(Long.MAX_VALUE), 3, 1_000)
+    }
+
+    @AfterEach
+    fun tearDown() {
+        producer.close()
+    }
+
+    private fun rel(builder: (Rel.Builder) -> Unit): Rel = Rel.newBuilder().also(builder).build()
+
+    private val read = rel { it.setRead(ReadRel.newBuilder().setNamedTable(ReadRel.NamedTable.newBuilder().addNames("t"))) }
+
+    private fun plan(input: Rel): Plan = Plan.newBuilder()
+        .addRelations(PlanRel.newBuilder().setRoot(RelRoot.newBuilder().setInput(input)))
+        .build()
+
+    private fun scanPlan(): Plan = plan(
+        rel { it.setProject(ProjectRel.newBuilder().setInput(rel { f -> f.setFilter(FilterRel.newBuilder().setInput(read)) })) }
+    )
+
+    private fun blocks(vararg ids: List<Int>): VectorBlockIterator {
+        val iterator = ids.map { values ->
+            VectorBlock.newBuilder()
+                .setSchema(schema)
+                .setVectorSize(values.size)
+                .addVectors(Vector.newBuilder().setFieldIdx(0).setI32Vector(Vector.I32Vector.newBuilder().addAllValues(values)))
+                .build()
+        }.iterator()
+        return object : VectorBlockIterator {
+            override fun schema(): VectorBlockSchema = schema
+            override fun hasNext(): Boolean = iterator.hasNext()
+            override fun next(): VectorBlock = iterator.next()
+        }
+    }
+
+    private fun endpointsOf(command: ByteArray) =
+        producer.getFlightInfo(context, FlightDescriptor.command(command)).endpoints
+
+    /**
+     * Streams [ticket] into a ready listener and returns the ids of every batch sent.
+     */
+    private fun streamIds(ticket: FlightTicket, listener: ServerStreamListener = mock()): List<List<Int>> {
+        whenever(listener.isReady).thenReturn(true)
+        val batches = mutableListOf<List<Int>>()
+        var root: VectorSchemaRoot? = null
+        doAnswer { root = it.getArgument(0); null }.whenever(listener).start(any<VectorSchemaRoot>())
+        doAnswer {
+            val ids = root!!.getVector("id") as IntVector
+            batches += (0 until root!!.rowCount).map(ids::get)
+            null
+        }.whenever(listener).putNext()
+
+        producer.getStream(context, ticket.toTicket(), listener)
+        return batches
+    }
+
+    @Test
+    fun shouldIssuePartitionedEndpoints_whenPlanOnlyFiltersAndProjectsScan() {
+        val request = QueryRequest.newBuilder().setPlan(scanPlan()).build()
+
+        val tickets = endpointsOf(request.toByteArray()).map { FlightTicket.decode(it.ticket.bytes) }
+
+        assertEquals(listOf(0, 1, 2), tickets.map { it.partitionIndex })
+        assertTrue(tickets.all { it.partitionCount == 3 && it.principal == "alice" && it.request == request })
+    }
+
+    @Test
+    fun shouldIssueSingleEndpoint_whenPlanAggregates() {
+        val aggregate = plan(rel { it.setAggregate(AggregateRel.newBuilder().setInput(read)) })
+
+        val endpoints = endpointsOf(QueryRequest.newBuilder().setPlan(aggregate).build().toByteArray())
+
+        assertEquals(1, endpoints.size)
+        assertNull(FlightTicket.decode(endpoints[0].ticket.bytes).scanPartition())
+    }
+
+    @Test
+    fun shouldIssueSingleEndpoint_whenFilterHasSubquery() {
+        val exists = Expression.newBuilder()
+            .setSubquery(
+                Expression.Subquery.newBuilder()
+                    .setSetPredicate(
+                        Expression.Subquery.SetPredicate.newBuilder()
+                            .setPredicateOp(Expression.Subquery.SetPredicate.PredicateOp.PREDICATE_OP_EXISTS)
+                            .setTuples(read)
+                    )
+            )
+        val filtered = plan(rel { it.setFilter(FilterRel.newBuilder().setInput(read).setCondition(exists)) })
+
+        val endpoints = endpointsOf(QueryRequest.newBuilder().setPlan(filtered).build().toByteArray())
+
+        assertEquals(1, endpoints.size)
+        assertNull(FlightTicket.decode(endpoints[0].ticket.bytes).scanPartition())
+    }
+
+    @Test
+    fun shouldParseSqlCommand_whenPlanningEndpoints() {
+        whenever(dispatcher.parseSql(any())).thenReturn(ParseSqlResponse.newBuilder().setPlan(scanPlan()).build())
+
+        val tickets = endpointsOf("SELECT * FROM t WHERE id > 1".toByteArray())
+            .map { FlightTicket.decode(it.ticket.bytes) }
+
+        assertEquals(3, tickets.size)
+        assertEquals("SELECT * FROM t WHERE id > 1", tickets[0].request.statement.sql)
+    }
+
+    @Test
+    fun shouldStreamOneBatchPerBlock() {
+        whenever(dispatcher.execute(any())).thenReturn(blocks(listOf(1, 2), emptyList(), listOf(3)))
+        val listener = mock<ServerStreamListener>()
+
+        val batches = streamIds(FlightTicket("alice", 0, 1, QueryRequest.getDefaultInstance()), listener)
+
+        assertEquals(listOf(listOf(1, 2), listOf(3)), batches)
+        verify(listener).completed()
+        assertEquals(0L, producer.allocator.allocatedMemory)
+    }
+
+    @Test
+    fun shouldReadPartitionShare_whenBackendAppliesScanPartition() {
+        whenever(dispatcher.execute(any())).thenAnswer {
+            val files = ScanPartition.current()!!.select(listOf(10, 11, 12, 13, 14))
+            blocks(files)
+        }
+
+        val shares = (0 until 3).map { streamIds(FlightTicket("alice", it, 3, QueryRequest.getDefaultInstance())).flatten() }
+
+        assertEquals(listOf(listOf(10, 13), listOf(11, 14), listOf(12)), shares)
+        assertNull(ScanPartition.current())
+    }
+
+    @Test
+    fun shouldReturnAllRowsFromFirstEndpointOnly_whenBackendIgnoresScanPartition() {
+        whenever(dispatcher.execute(any())).thenAnswer { blocks(listOf(1, 2, 3)) }
+
+        val shares = (0 until 3).map { streamIds(FlightTicket("alice", it, 3, QueryRequest.getDefaultInstance())).flatten() }
+
+        assertEquals(listOf(listOf(1, 2, 3), emptyList(), emptyList()), shares)
+    }
+
+    @Test
+    fun shouldRejectTicket_whenIssuedToAnotherPrincipal() {
+        val listener = mock<ServerStreamListener>()
+
+        producer.getStream(context, FlightTicket("bob", 0, 1, QueryRequest.getDefaultInstance()).toTicket(), listener)
+
+        val error = argumentCaptor<Throwable>()
+        verify(listener).error(error.capture())
+        assertEquals(CallStatus.UNAUTHORIZED.code(), (error.firstValue as FlightRuntimeException).status().code())
+        verify(dispatcher, never()).execute(any())
+    }
+
+    @Test
+    fun shouldReportInvalidArgument_whenTicketMalformed() {
+        val listener = mock<ServerStreamListener>()
+
+        producer.getStream(context, org.apache.arrow.flight.Ticket(byteArrayOf(42)), listener)
+
+        val error = argumentCaptor<Throwable>()
+        verify(listener).error(error.capture())
+        assertEquals(CallStatus.INVALID_ARGUMENT.code(), (error.firstValue as FlightRuntimeException).status().code())
+    }
+}
@@ -30,6 +30,7 @@ dependencies {
     implementation(libs.boot.starter)
     implementation(libs.jackson.dataformat.yaml)
     api(libs.googleapigrpc.proto.common.protos)
+    compileOnly(libs.micrometer.core)
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
     annotationProcessor(libs.boot.configuration.processor)
@@ -60,6 +61,7 @@ testing {
                     implementation(libs.mockito.core)
                     implementation(libs.mockito.junit.jupiter)
                     implementation(libs.mockito.kotlin)
+                    implementation(libs.micrometer.core)
                     implementation(libs.grpc.testing)
                     implementation(libs.h2.database)
                     compileOnly(libs.lombok)
@@ -44,6 +44,17 @@ public class GrpcServerProperties {
      */
     private int shutdownGraceSeconds = 5;
 
+    /**
+     * When {@code true}, query result blocks are produced on virtual threads (one per stream). When
+     * {@code false}, a bounded pool of {@link #streamThreads} platform threads is used.
+     */
+    private boolean streamVirtualThreads = true;
+
+    /**
+     * Size of the bounded result-production pool used when {@link #streamVirtualThreads} is disabled.
+     */
+    private int streamThreads = 16;
+
     public int getPort() {
         return port;
     }
@@ -83,4 +94,20 @@ public class GrpcServerProperties {
     public void setShutdownGraceSeconds(int shutdownGraceSeconds) {
         this.shutdownGraceSeconds = shutdownGraceSeconds;
     }
+
+    public boolean isStreamVirtualThreads() {
+        return streamVirtualThreads;
+    }
+
+    public void setStreamVirtualThreads(boolean streamVirtualThreads) {
+        this.streamVirtualThreads = streamVirtualThreads;
+    }
+
+    public int getStreamThreads() {
+        return streamThreads;
+    }
+
+    public void setStreamThreads(int streamThreads) {
+        this.streamThreads = streamThreads;
+    }
 }
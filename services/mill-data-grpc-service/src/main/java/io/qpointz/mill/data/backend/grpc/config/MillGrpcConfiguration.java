@@ -8,12 +8,15 @@ import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
 import io.qpointz.mill.annotations.service.ConditionalOnService;
 import io.qpointz.mill.data.backend.grpc.GrpcExceptionInterceptor;
+import io.qpointz.mill.data.backend.grpc.GrpcResultStreamer;
 import io.qpointz.mill.data.backend.grpc.GrpcSecurityInterceptor;
 import io.qpointz.mill.data.backend.grpc.GrpcServerLifecycle;
+import io.qpointz.mill.data.backend.grpc.GrpcStreamMetrics;
 import io.qpointz.mill.data.backend.grpc.MillGrpcService;
 import io.qpointz.mill.security.SecurityContextSecurityProvider;
 import io.qpointz.mill.security.SecurityProvider;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -25,6 +28,8 @@ import org.springframework.util.StringUtils;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Wires the grpc-java Netty (or in-process) server, interceptors, and {@link SmartLifecycle} adapter for the
@@ -46,6 +51,39 @@ public class MillGrpcConfiguration {
         return new SecurityContextSecurityProvider();
     }
 
+    /**
+     * Flow-controlled result streaming for {@code ExecQuery}; blocks are produced off the gRPC event threads.
+     *
+     * @param properties executor selection ({@code stream-virtual-threads}, {@code stream-threads})
+     * @return streamer shut down with the application context
+     */
+    @Bean(destroyMethod = "close")
+    public GrpcResultStreamer grpcResultStreamer(GrpcServerProperties properties) {
+        final ExecutorService executor = properties.isStreamVirtualThreads()
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mill-grpc-stream-", 0).factory())
+                : Executors.newFixedThreadPool(Math.max(1, properties.getStreamThreads()),
+                        Thread.ofPlatform().name("mill-grpc-stream-", 0).daemon(true).factory());
+        return new GrpcResultStreamer(executor);
+    }
+
+    /**
+     * Micrometer binding of the result streamer; Micrometer is optional on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    static class GrpcStreamMetricsConfiguration {
+
+        /**
+         * @param streamer result streamer of this service
+         * @return gauges and counters of result streams
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public GrpcStreamMetrics grpcStreamMetrics(GrpcResultStreamer streamer) {
+            return new GrpcStreamMetrics(streamer);
+        }
+    }
+
     /**
      * Native gRPC {@link Server} (not started until {@link GrpcServerLifecycle} runs).
      *
@@ -0,0 +1,228 @@
+package io.qpointz.mill.data.backend.grpc
+
+import io.grpc.Status
+import io.grpc.StatusException
+import io.grpc.StatusRuntimeException
+import io.grpc.stub.ServerCallStreamObserver
+import io.qpointz.mill.proto.QueryResultResponse
+import io.qpointz.mill.vectors.VectorBlockIterator
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Snapshot of a single result stream.
+ *
+ * @property streamId          server-local stream identifier
+ * @property blocksSent        vector blocks handed to the transport
+ * @property bytesSent         serialized bytes handed to the transport
+ * @property maxBlockBytes     largest single block; upper bound of bytes buffered past the transport
+ *                             readiness threshold, since a block is only produced when the call is ready
+ * @property readinessStalls   times production paused because the client was not ready
+ */
+data class GrpcStreamStatistics(
+    val streamId: Long,
+    val blocksSent: Long,
+    val bytesSent: Long,
+    val maxBlockBytes: Long,
+    val readinessStalls: Long,
+)
+
+/**
+ * Totals of a [GrpcResultStreamer] since it was created.
+ *
+ * @property activeStreams     streams that are still producing
+ * @property streamsStarted    streams started
+ * @property blocksSent        vector blocks handed to the transport by all streams
+ * @property bytesSent         serialized bytes handed to the transport by all streams
+ * @property readinessStalls   times production paused because a client was not ready
+ * @property bufferedBytesBound sum of [GrpcStreamStatistics.maxBlockBytes] over active streams; upper
+ *                             bound of bytes buffered past the transport readiness threshold
+ */
+data class GrpcStreamerStatistics(
+    val activeStreams: Int,
+    val streamsStarted: Long,
+    val blocksSent: Long,
+    val bytesSent: Long,
+    val readinessStalls: Long,
+    val bufferedBytesBound: Long,
+)
+
+/**
+ * Streams a [VectorBlockIterator] to a gRPC server call honoring transport flow control.
+ *
+ * The next block is produced only while [ServerCallStreamObserver.isReady] is `true`; when the
+ * client falls behind, production pauses until the transport signals readiness again. Blocks are
+ * produced on [executor] rather than on gRPC event threads. On cancellation production stops and
+ * the iterator is closed when it implements [AutoCloseable].
+ *
+ * @param executor executor running block production; owned (and shut down on [close]) when it is
+ *                 an [ExecutorService]
+ */
+class GrpcResultStreamer(
+    private val executor: Executor,
+) : AutoCloseable {
+
+    private val log = LoggerFactory.getLogger(javaClass)
+
+    private val streamIds = AtomicLong()
+
+    private val active = ConcurrentHashMap<Long, ResultStream>()
+
+    private val totalBlocksSent = AtomicLong()
+    private val totalBytesSent = AtomicLong()
+    private val totalReadinessStalls = AtomicLong()
+
+    /**
+     * Starts streaming [iterator] into [observer]. Must be called from the gRPC call handler
+     * thread because readiness and cancel handlers can only be registered there.
+     */
+    fun stream(iterator: VectorBlockIterator, observer: ServerCallStreamObserver<QueryResultResponse>) {
+        val stream = ResultStream(streamIds.incrementAndGet(), iterator, observer)
+        active[stream.id] = stream
+        observer.setOnCancelHandler(stream::cancel)
+        observer.setOnReadyHandler(stream::schedule)
+        stream.schedule()
+    }
+
+    /**
+     * Statistics for streams that are still producing.
+     */
+    fun activeStreams(): List<GrpcStreamStatistics> = active.values.map { it.statistics() }
+
+    /**
+     * Totals across finished and active streams.
+     */
+    fun statistics(): GrpcStreamerStatistics {
+        val streams = activeStreams()
+        return GrpcStreamerStatistics(
+            activeStreams = streams.size,
+            streamsStarted = streamIds.get(),
+            blocksSent = totalBlocksSent.get(),
+            bytesSent = totalBytesSent.get(),
+            readinessStalls = totalReadinessStalls.get(),
+            bufferedBytesBound = streams.sumOf { it.maxBlockBytes },
+        )
+    }
+
+    override fun close() {
+        active.values.forEach { it.cancel() }
+        if (executor is ExecutorService) {
+            executor.shutdown()
+        }
+    }
+
+    private inner class ResultStream(
+        val id: Long,
+        private val iterator: VectorBlockIterator,
+        private val observer: ServerCallStreamObserver<QueryResultResponse>,
+    ) {
+        private val wip = AtomicInteger()
+
+        @Volatile
+        private var cancelled = false
+
+        private var done = false
+
+        private val blocksSent = AtomicLong()
+        private val bytesSent = AtomicLong()
+        private val maxBlockBytes = AtomicLong()
+        private val readinessStalls = AtomicLong()
+
+        fun cancel() {
+            cancelled = true
+            schedule()
+        }
+
+        /**
+         * Serializes drain passes: a new pass is submitted only when none is running, and a
+         * running pass loops again if readiness or cancellation changed meanwhile.
+         */
+        fun schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(::drain)
+            }
+        }
+
+        private fun drain() {
+            var missed = 1
+            while (true) {
+                drainReady()
+                missed = wip.addAndGet(-missed)
+                if (missed == 0) {
+                    return
+                }
+            }
+        }
+
+        private fun drainReady() {
+            if (done) {
+                return
+            }
+            try {
+                while (!cancelled) {
+                    if (!observer.isReady) {
+                        readinessStalls.incrementAndGet()
+                        totalReadinessStalls.incrementAndGet()
+                        return
+                    }
+                    if (!iterator.hasNext()) {
+                        finish()
+                        observer.onCompleted()
+                        return
+                    }
+                    val block = iterator.next()
+                    val size = block.serializedSize.toLong()
+                    observer.onNext(QueryResultResponse.newBuilder().setVector(block).build())
+                    blocksSent.incrementAndGet()
+                    bytesSent.addAndGet(size)
+                    totalBlocksSent.incrementAndGet()
+                    totalBytesSent.addAndGet(size)
+                    maxBlockBytes.accumulateAndGet(size) { a, b -> maxOf(a, b) }
+                }
+                log.debug("Result stream {} cancelled after {} blocks", id, blocksSent.get())
+                finish()
+            } catch (t: Throwable) {
+                finish()
+                if (!cancelled) {
+                    observer.onError(toStatus(t))
+                }
+            }
+        }
+
+        private fun finish() {
+            done = true
+            active.remove(id)
+            if (iterator is AutoCloseable) {
+                runCatching { iterator.close() }
+                    .onFailure { log.warn("Failed to close result iterator of stream {}", id, it) }
+            }
+        }
+
+        private fun toStatus(t: Throwable): Throwable {
+            var current: Throwable? = t
+            while (current != null) {
+                if (current is StatusRuntimeException || current is StatusException) {
+                    return current
+                }
+                current = current.cause
+            }
+            log.debug("Mapping result stream failure to gRPC status", t)
+            return Status.UNKNOWN
+                .withDescription(t.message ?: "Unknown failure")
+                .withCause(t)
+                .asRuntimeException()
+        }
+
+        fun statistics(): GrpcStreamStatistics = GrpcStreamStatistics(
+            streamId = id,
+            blocksSent = blocksSent.get(),
+            bytesSent = bytesSent.get(),
+            maxBlockBytes = maxBlockBytes.get(),
+            readinessStalls = readinessStalls.get(),
+        )
+    }
+}
@@ -0,0 +1,42 @@
+package io.qpointz.mill.data.backend.grpc
+
+import io.micrometer.core.instrument.FunctionCounter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.binder.BaseUnits
+import io.micrometer.core.instrument.binder.MeterBinder
+
+/**
+ * Publishes [GrpcResultStreamer.statistics] as meters: active streams and their buffered-bytes
+ * bound as gauges, started streams, sent blocks and bytes and readiness stalls as counters
+ * (`mill.grpc.streams.*`).
+ *
+ * @param streamer result streamer of the data-plane gRPC service
+ */
+class GrpcStreamMetrics(
+    private val streamer: GrpcResultStreamer,
+) : MeterBinder {
+
+    override fun bindTo(registry: MeterRegistry) {
+        Gauge.builder("mill.grpc.streams.active", streamer) { it.statistics().activeStreams.toDouble() }
+            .description("Result streams still producing")
+            .register(registry)
+        Gauge.builder("mill.grpc.streams.buffered.bytes", streamer) { it.statistics().bufferedBytesBound.toDouble() }
+            .description("Upper bound of result bytes buffered past the transport readiness threshold")
+            .baseUnit(BaseUnits.BYTES)
+            .register(registry)
+        FunctionCounter.builder("mill.grpc.streams.started", streamer) { it.statistics().streamsStarted.toDouble() }
+            .description("Result streams started")
+            .register(registry)
+        FunctionCounter.builder("mill.grpc.streams.blocks", streamer) { it.statistics().blocksSent.toDouble() }
+            .description("Vector blocks handed to the transport")
+            .register(registry)
+        FunctionCounter.builder("mill.grpc.streams.bytes", streamer) { it.statistics().bytesSent.toDouble() }
+            .description("Serialized result bytes handed to the transport")
+            .baseUnit(BaseUnits.BYTES)
+            .register(registry)
+        FunctionCounter.builder("mill.grpc.streams.stalls", streamer) { it.statistics().readinessStalls.toDouble() }
+            .description("Times result production paused because the client was not ready")
+            .register(registry)
+    }
+}
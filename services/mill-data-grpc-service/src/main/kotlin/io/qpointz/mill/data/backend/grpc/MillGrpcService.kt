@@ -20,19 +20,29 @@ import io.qpointz.mill.proto.QueryRequest
 import io.qpointz.mill.proto.QueryResultResponse
 import io.qpointz.mill.vectors.VectorBlockIterator
 import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Component
 import java.util.function.Function
 import java.util.function.Supplier
 
 /**
  * gRPC data-plane service (Substrait / SQL) backed by the shared [ServiceHandler] stack.
+ *
+ * Query results are streamed through [GrpcResultStreamer], which produces blocks only while the
+ * client is ready to receive them.
  */
 @Component
 @ConditionalOnService(value = "grpc", group = "data")
-class MillGrpcService(
+class MillGrpcService @Autowired constructor(
     serviceHandler: ServiceHandler,
+    private val resultStreamer: GrpcResultStreamer,
 ) : DataConnectServiceGrpc.DataConnectServiceImplBase() {
 
+    /**
+     * Creates the service with block production on the calling thread (tests and embedded use).
+     */
+    constructor(serviceHandler: ServiceHandler) : this(serviceHandler, GrpcResultStreamer(Runnable::run))
+
     private val log = LoggerFactory.getLogger(javaClass)
 
     private val dataOpDispatcher: DataOperationDispatcher = serviceHandler.data()
@@ -88,13 +98,6 @@ class MillGrpcService(
         responseObserver: StreamObserver<QueryResultResponse>,
     ) {
         val callObserver = responseObserver as ServerCallStreamObserver<QueryResultResponse>
-        while (iterator.hasNext()) {
-            val vectorBlock = iterator.next()
-            val resp = QueryResultResponse.newBuilder()
-                .setVector(vectorBlock)
-                .build()
-            callObserver.onNext(resp)
-        }
-        callObserver.onCompleted()
+        resultStreamer.stream(iterator, callObserver)
     }
 }
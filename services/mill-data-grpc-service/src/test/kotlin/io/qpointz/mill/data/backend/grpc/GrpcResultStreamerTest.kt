@@ -0,0 +1,130 @@
+package io.qpointz.mill.data.backend.grpc
+
+import io.grpc.Status
+import io.grpc.StatusRuntimeException
+import io.grpc.stub.ServerCallStreamObserver
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.qpointz.mill.proto.QueryResultResponse
+import io.qpointz.mill.proto.VectorBlock
+import io.qpointz.mill.proto.VectorBlockSchema
+import io.qpointz.mill.vectors.VectorBlockIterator
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.mockito.kotlin.any
+import org.mockito.kotlin.argumentCaptor
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+import org.mockito.kotlin.whenever
+
+/**
+ * Unit tests for [GrpcResultStreamer] readiness gating, cancellation and error mapping.
+ */
+class GrpcResultStreamerTest {
+
+    private val streamer = GrpcResultStreamer(Runnable::run)
+
+    @Test
+    fun shouldPauseUntilReady_whenClientIsSlow() {
+        val iterator = CountingIterator(3)
+        val observer = mock<ServerCallStreamObserver<QueryResultResponse>>()
+        whenever(observer.isReady).thenReturn(true, false)
+
+        streamer.stream(iterator, observer)
+
+        verify(observer, times(1)).onNext(any())
+        assertEquals(1, iterator.produced)
+        assertEquals(1, streamer.activeStreams().single().readinessStalls)
+
+        val onReady = argumentCaptor<Runnable>()
+        verify(observer).setOnReadyHandler(onReady.capture())
+        whenever(observer.isReady).thenReturn(true)
+        onReady.firstValue.run()
+
+        verify(observer, times(3)).onNext(any())
+        verify(observer).onCompleted()
+        assertTrue(iterator.closed)
+        assertTrue(streamer.activeStreams().isEmpty())
+    }
+
+    @Test
+    fun shouldStopAndCloseIterator_whenCancelled() {
+        val iterator = CountingIterator(100)
+        val observer = mock<ServerCallStreamObserver<QueryResultResponse>>()
+        whenever(observer.isReady).thenReturn(false)
+
+        streamer.stream(iterator, observer)
+
+        val onCancel = argumentCaptor<Runnable>()
+        verify(observer).setOnCancelHandler(onCancel.capture())
+        onCancel.firstValue.run()
+
+        assertEquals(0, iterator.produced)
+        assertTrue(iterator.closed)
+        verify(observer, never()).onCompleted()
+        verify(observer, never()).onError(any())
+        assertTrue(streamer.activeStreams().isEmpty())
+    }
+
+    @Test
+    fun shouldReportStatus_whenIteratorFails() {
+        val iterator = mock<VectorBlockIterator>()
+        whenever(iterator.hasNext()).thenThrow(IllegalStateException("boom"))
+        val observer = mock<ServerCallStreamObserver<QueryResultResponse>>()
+        whenever(observer.isReady).thenReturn(true)
+
+        streamer.stream(iterator, observer)
+
+        val error = argumentCaptor<Throwable>()
+        verify(observer).onError(error.capture())
+        val status = (error.firstValue as StatusRuntimeException).status
+        assertEquals(Status.Code.UNKNOWN, status.code)
+        assertEquals("boom", status.description)
+    }
+
+    @Test
+    fun shouldPublishStreamerTotals_asMeters() {
+        val registry = SimpleMeterRegistry()
+        GrpcStreamMetrics(streamer).bindTo(registry)
+        val observer = mock<ServerCallStreamObserver<QueryResultResponse>>()
+        whenever(observer.isReady).thenReturn(true, false)
+
+        streamer.stream(CountingIterator(3), observer)
+
+        assertEquals(1.0, registry.get("mill.grpc.streams.active").gauge().value())
+        assertEquals(1.0, registry.get("mill.grpc.streams.stalls").functionCounter().count())
+        assertTrue(registry.get("mill.grpc.streams.buffered.bytes").gauge().value() > 0.0)
+
+        val onReady = argumentCaptor<Runnable>()
+        verify(observer).setOnReadyHandler(onReady.capture())
+        whenever(observer.isReady).thenReturn(true)
+        onReady.firstValue.run()
+
+        val totals = streamer.statistics()
+        assertEquals(0.0, registry.get("mill.grpc.streams.active").gauge().value())
+        assertEquals(0.0, registry.get("mill.grpc.streams.buffered.bytes").gauge().value())
+        assertEquals(1.0, registry.get("mill.grpc.streams.started").functionCounter().count())
+        assertEquals(3.0, registry.get("mill.grpc.streams.blocks").functionCounter().count())
+        assertEquals(totals.bytesSent.toDouble(), registry.get("mill.grpc.streams.bytes").functionCounter().count())
+    }
+
+    private class CountingIterator(private val blocks: Int) : VectorBlockIterator, AutoCloseable {
+        var produced = 0
+        var closed = false
+
+        override fun schema(): VectorBlockSchema = VectorBlockSchema.getDefaultInstance()
+
+        override fun hasNext(): Boolean = produced < blocks
+
+        override fun next(): VectorBlock {
+            produced++
+            return VectorBlock.newBuilder().setVectorSize(produced).build()
+        }
+
+        override fun close() {
+            closed = true
+        }
+    }
+}
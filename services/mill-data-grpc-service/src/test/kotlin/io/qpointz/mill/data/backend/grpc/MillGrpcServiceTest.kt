@@ -24,7 +24,9 @@ import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
 import org.mockito.Mock
 import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.kotlin.any
 import org.mockito.kotlin.argThat
+import org.mockito.kotlin.atLeastOnce
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyNoMoreInteractions
@@ -137,10 +139,12 @@ class MillGrpcServiceTest {
         whenever(dispatcher.execute(request)).thenReturn(iterator)
 
         val observer = mock<ServerCallStreamObserver<QueryResultResponse>>()
+        whenever(observer.isReady).thenReturn(true)
 
         service.execQuery(request, observer)
 
         verify(dispatcher).execute(request)
+        verifyFlowControlHandlers(observer)
         verify(observer).onNext(
             argThat { r: QueryResultResponse ->
                 r.hasVector() && r.vector == block1
@@ -162,13 +166,21 @@ class MillGrpcServiceTest {
         whenever(iterator.hasNext()).thenReturn(false)
         whenever(dispatcher.execute(request)).thenReturn(iterator)
         val observer = mock<ServerCallStreamObserver<QueryResultResponse>>()
+        whenever(observer.isReady).thenReturn(true)
 
         service.execQuery(request, observer)
 
         verify(dispatcher).execute(request)
+        verifyFlowControlHandlers(observer)
         verify(observer).onCompleted()
         verifyNoMoreInteractions(observer)
     }
 
+    private fun verifyFlowControlHandlers(observer: ServerCallStreamObserver<QueryResultResponse>) {
+        verify(observer).setOnCancelHandler(any())
+        verify(observer).setOnReadyHandler(any())
+        verify(observer, atLeastOnce()).isReady
+    }
+
     private fun stmt(sql: String): SQLStatement = SQLStatement.newBuilder().setSql(sql).build()
 }
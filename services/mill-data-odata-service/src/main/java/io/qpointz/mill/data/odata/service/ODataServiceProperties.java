@@ -26,6 +26,9 @@ public class ODataServiceProperties {
     /** Maximum {@code $top} accepted on entity reads. */
     private int maxTop = 10_000;
 
+    /** Entities per page of a streamed collection read before {@code @odata.nextLink}. */
+    private int maxPageSize = 5_000;
+
     /** OData metadata caching (Caffeine). */
     private CacheProperties cache = new CacheProperties();
 
@@ -85,6 +88,21 @@ public class ODataServiceProperties {
         this.maxTop = maxTop;
     }
 
+    /**
+     * @return entities per page of a streamed collection read
+     */
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    /**
+     * @param maxPageSize entities per page of a streamed collection read; clients may request fewer
+     *                    with {@code Prefer: odata.maxpagesize}
+     */
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
     /**
      * @return OData metadata cache settings
      */
@@ -136,6 +154,12 @@ public class ODataServiceProperties {
          */
         private Duration ttl;
 
+        /**
+         * Optional interval after which a cached EDM is rebuilt in the background on its next read,
+         * while the current one keeps being served. Defaults to 80% of {@code ttl}.
+         */
+        private Duration refreshAfter;
+
         /**
          * @return whether EDM and table facet caching is active
          */
@@ -163,5 +187,19 @@ public class ODataServiceProperties {
         public void setTtl(Duration ttl) {
             this.ttl = ttl;
         }
+
+        /**
+         * @return optional background refresh interval
+         */
+        public Duration getRefreshAfter() {
+            return refreshAfter;
+        }
+
+        /**
+         * @param refreshAfter optional background refresh interval
+         */
+        public void setRefreshAfter(Duration refreshAfter) {
+            this.refreshAfter = refreshAfter;
+        }
     }
 }
\ No newline at end of file
@@ -17,16 +17,26 @@ import com.sdl.odata.api.service.ODataResponse
 import com.sdl.odata.renderer.json.JsonRenderer
 import io.qpointz.mill.data.backend.SchemaProvider
 import io.qpointz.mill.data.odata.expr.ODataFilterDateLiteralRewriter
+import io.qpointz.mill.data.odata.render.ODataJsonFeedSerializer
+import io.qpointz.mill.data.odata.service.ODataServiceProperties
+import io.qpointz.mill.data.odata.service.datasource.ODataFeedExchange
 import io.qpointz.mill.data.odata.service.edm.ODataEdmRegistryCache
 import jakarta.servlet.http.HttpServletRequest
 import jakarta.servlet.http.HttpServletResponse
 import java.io.ByteArrayOutputStream
 import java.io.IOException
+import java.net.URLDecoder
 import java.net.URLEncoder
 import java.nio.charset.StandardCharsets
 
 /**
  * Synchronous OData request handler that mirrors the RWS parse → process → render pipeline without Pekko.
+ *
+ * <p>Entity-set reads are paged: at most {@code max-page-size} entities (or fewer, per
+ * {@code Prefer: odata.maxpagesize}) are streamed straight to the response, followed by an
+ * {@code @odata.nextLink} whose {@code $skiptoken} resumes after the last entity sent. {@code $count}
+ * (inline or {@code /$count}) and {@code $apply} aggregates are computed by the backend. Responses that
+ * carry an {@code ETag} (the pre-rendered {@code $metadata}) honour {@code If-None-Match} with a 304.
  */
 class MillODataSyncService(
     private val edmRegistryCache: ODataEdmRegistryCache,
@@ -34,8 +44,11 @@ class MillODataSyncService(
     private val oDataParser: ODataParser,
     private val queryProcessor: ODataQueryProcessor,
     private val rendererFactory: RendererFactory,
+    private val serviceProperties: ODataServiceProperties = ODataServiceProperties(),
 ) {
 
+    private val feedSerializer = ODataJsonFeedSerializer()
+
     /**
      * Handles an inbound servlet request and writes the OData response.
      *
@@ -50,14 +63,36 @@ class MillODataSyncService(
             return
         }
 
-        val oDataRequest = buildODataRequest(request)
+        val requestUrl = requestUrl(request)
+        val oDataRequest = buildODataRequest(request, requestUrl)
         val edm = edmRegistryCache.registryFor(schema).entityDataModel
         val requestUri = ODataFilterDateLiteralRewriter.rewriteRequestUri(oDataRequest.uri)
         try {
             val uri = oDataParser.parseUri(requestUri, edm)
             val context = ODataRequestContext(oDataRequest, uri, edm)
-            val processorResult = queryProcessor.query(context, null)
+            val preferredPageSize = preferredMaxPageSize(request)
+            val exchange = ODataFeedExchange(
+                pageSize(preferredPageSize),
+                request.getParameter(SKIP_TOKEN)?.takeIf { it.isNotEmpty() },
+                countRequest(request),
+                request.getParameter(APPLY)?.takeIf { it.isNotBlank() },
+            )
+            val processorResult = ODataFeedExchange.open(exchange) { queryProcessor.query(context, null) }
+            val countValue = exchange.countValue
+            if (countValue != null) {
+                writeCount(countValue, response)
+                return
+            }
+            val feed = exchange.feed
+            if (feed != null) {
+                writeFeed(feed, exchange.pageSize, preferredPageSize != null, requestUrl, response)
+                return
+            }
             val oDataResponse = render(context, processorResult)
+            if (isNotModified(request, oDataResponse)) {
+                writeNotModified(oDataResponse, response)
+                return
+            }
             writeServletResponse(oDataResponse, response)
         } catch (ex: ODataException) {
             val uri = try {
@@ -81,6 +116,87 @@ class MillODataSyncService(
     private fun isValidSchemaName(schema: String): Boolean =
         schema.isNotBlank() && !schema.contains('/') && !schema.contains("..")
 
+    private fun pageSize(preferred: Int?): Int {
+        val max = serviceProperties.maxPageSize.coerceAtLeast(1)
+        return preferred?.coerceIn(1, max) ?: max
+    }
+
+    /**
+     * @return {@code odata.maxpagesize} from the {@code Prefer} headers, if requested
+     */
+    private fun preferredMaxPageSize(request: HttpServletRequest): Int? =
+        request.getHeaders(PREFER_HEADER).asIterator().asSequence()
+            .flatMap { it.split(',').asSequence() }
+            .map { it.trim() }
+            .firstOrNull { it.startsWith(MAX_PAGE_SIZE_PREFERENCE, ignoreCase = true) }
+            ?.substringAfter('=')
+            ?.trim()
+            ?.toIntOrNull()
+
+    private fun countRequest(request: HttpServletRequest): ODataFeedExchange.Count =
+        when {
+            isCountPath(request.requestURI) -> ODataFeedExchange.Count.VALUE
+            request.getParameter(COUNT).equals("true", ignoreCase = true) -> ODataFeedExchange.Count.INLINE
+            else -> ODataFeedExchange.Count.NONE
+        }
+
+    private fun isCountPath(path: String): Boolean =
+        COUNT_SEGMENTS.any { path.endsWith(it, ignoreCase = true) }
+
+    @Throws(IOException::class)
+    private fun writeCount(count: Long, response: HttpServletResponse) {
+        response.status = HttpServletResponse.SC_OK
+        response.setHeader("Content-Type", "text/plain;charset=UTF-8")
+        response.setHeader("OData-Version", "4.0")
+        response.outputStream.use { it.write(count.toString().toByteArray(StandardCharsets.UTF_8)) }
+    }
+
+    @Throws(IOException::class)
+    private fun writeFeed(
+        feed: ODataFeedExchange.PendingFeed,
+        pageSize: Int,
+        preferenceApplied: Boolean,
+        requestUri: String,
+        response: HttpServletResponse,
+    ) {
+        response.status = HttpServletResponse.SC_OK
+        response.setHeader("Content-Type", "application/json;odata.metadata=minimal;charset=UTF-8")
+        response.setHeader("OData-Version", "4.0")
+        if (preferenceApplied) {
+            response.setHeader("Preference-Applied", "$MAX_PAGE_SIZE_PREFERENCE=$pageSize")
+        }
+        val top = feed.page.plan.top
+        feedSerializer.writeFeed(
+            feed.page,
+            feed.contextName,
+            feed.serviceRoot,
+            response.outputStream,
+            feed.count,
+        ) { token, written ->
+            nextLink(requestUri, token.encode(), top?.let { it - written })
+        }
+    }
+
+    /**
+     * @return whether the client's {@code If-None-Match} already names the rendered response's {@code ETag}
+     *         (weak comparison, as RFC 9110 requires for {@code If-None-Match})
+     */
+    private fun isNotModified(request: HttpServletRequest, oDataResponse: ODataResponse): Boolean {
+        val etag = oDataResponse.headers[ETAG_HEADER] ?: return false
+        if (oDataResponse.status != ODataResponse.Status.OK) {
+            return false
+        }
+        return request.getHeaders(IF_NONE_MATCH_HEADER).asIterator().asSequence()
+            .flatMap { it.split(',').asSequence() }
+            .map { it.trim().removePrefix("W/") }
+            .any { it == "*" || it == etag.removePrefix("W/") }
+    }
+
+    private fun writeNotModified(oDataResponse: ODataResponse, response: HttpServletResponse) {
+        response.status = HttpServletResponse.SC_NOT_MODIFIED
+        NOT_MODIFIED_HEADERS.forEach { name -> oDataResponse.headers[name]?.let { response.setHeader(name, it) } }
+    }
+
     private fun render(context: ODataRequestContext, processorResult: ProcessorResult): ODataResponse {
         val queryResult = processorResult.queryResult
             ?: throw ODataServerException(
@@ -117,10 +233,10 @@ class MillODataSyncService(
             ?.first
     }
 
-    @Throws(IOException::class)
-    private fun buildODataRequest(request: HttpServletRequest): ODataRequest {
-        val builder = ODataRequest.Builder()
-            .setMethod(ODataRequest.Method.valueOf(request.method))
+    /**
+     * @return absolute URL of the inbound request, including its query string
+     */
+    private fun requestUrl(request: HttpServletRequest): String {
         val url = StringBuilder()
             .append(request.scheme)
             .append("://")
@@ -136,7 +252,28 @@ class MillODataSyncService(
         if (!queryString.isNullOrEmpty()) {
             url.append('?').append(queryString)
         }
-        builder.setUri(url.toString())
+        return url.toString()
+    }
+
+    /**
+     * Builds the RWS request for [requestUrl] without the options Mill resolves itself
+     * (see {@link ODataFeedExchange}): {@code $skiptoken}, {@code $count}, {@code $apply} and a trailing
+     * {@code /$count} segment.
+     */
+    @Throws(IOException::class)
+    private fun buildODataRequest(request: HttpServletRequest, requestUrl: String): ODataRequest {
+        val builder = ODataRequest.Builder()
+            .setMethod(ODataRequest.Method.valueOf(request.method))
+        var path = requestUrl.substringBefore('?')
+        COUNT_SEGMENTS.firstOrNull { path.endsWith(it, ignoreCase = true) }?.let { segment ->
+            path = path.substring(0, path.length - segment.length)
+        }
+        val queryString = requestUrl.substringAfter('?', "")
+            .split('&')
+            .filter { it.isNotEmpty() }
+            .filterNot { URLDecoder.decode(it.substringBefore('='), StandardCharsets.UTF_8) in MILL_OPTIONS }
+            .joinToString("&")
+        builder.setUri(if (queryString.isEmpty()) path else "$path?$queryString")
         request.headerNames.asIterator().forEachRemaining { name ->
             builder.setHeader(name, request.getHeader(name))
         }
@@ -195,12 +332,44 @@ class MillODataSyncService(
         }
     }
 
-    private fun encodeQueryComponent(value: String): String =
-        URLEncoder.encode(value, StandardCharsets.UTF_8)
-
-    private companion object {
+    internal companion object {
         private const val BUFFER_SIZE = 1024
         private const val HTTP_PORT = 80
         private const val HTTPS_PORT = 443
+        private const val SKIP = "\$skip"
+        private const val TOP = "\$top"
+        private const val SKIP_TOKEN = "\$skiptoken"
+        private const val COUNT = "\$count"
+        private const val APPLY = "\$apply"
+        private val MILL_OPTIONS = setOf(SKIP_TOKEN, COUNT, APPLY)
+        private val COUNT_SEGMENTS = listOf("/\$count", "/%24count")
+        private const val PREFER_HEADER = "Prefer"
+        private const val MAX_PAGE_SIZE_PREFERENCE = "odata.maxpagesize"
+        private const val ETAG_HEADER = "ETag"
+        private const val IF_NONE_MATCH_HEADER = "If-None-Match"
+        private val NOT_MODIFIED_HEADERS = listOf(ETAG_HEADER, "Vary", "OData-Version")
+
+        /**
+         * Next-page URL: the request URL with {@code $skip} consumed, {@code $top} reduced by the entities
+         * already returned and the new {@code $skiptoken}. {@code $count} is dropped so follow-up pages do not
+         * recount the collection.
+         */
+        internal fun nextLink(requestUri: String, skipToken: String, remainingTop: Int?): String {
+            val path = requestUri.substringBefore('?')
+            val retained = requestUri.substringAfter('?', "")
+                .split('&')
+                .filter { it.isNotEmpty() }
+                .filterNot { parameter ->
+                    val name = URLDecoder.decode(parameter.substringBefore('='), StandardCharsets.UTF_8)
+                    name == SKIP || name == TOP || name == SKIP_TOKEN || name == COUNT
+                }
+            val parameters = retained +
+                listOfNotNull(remainingTop?.let { "${encodeQueryComponent(TOP)}=$it" }) +
+                "${encodeQueryComponent(SKIP_TOKEN)}=${encodeQueryComponent(skipToken)}"
+            return "$path?${parameters.joinToString("&")}"
+        }
+
+        private fun encodeQueryComponent(value: String): String =
+            URLEncoder.encode(value, StandardCharsets.UTF_8)
     }
 }
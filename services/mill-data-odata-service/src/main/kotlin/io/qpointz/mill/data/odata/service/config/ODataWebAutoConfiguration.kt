@@ -10,7 +10,9 @@ import io.qpointz.mill.data.odata.service.ODataServiceProperties
 import io.qpointz.mill.data.odata.service.datasource.MillODataDataSourceProvider
 import io.qpointz.mill.data.odata.resolve.EdmPropertyResolver
 import io.qpointz.mill.data.odata.service.edm.ODataEdmCache
+import io.qpointz.mill.data.odata.service.edm.ODataEdmCacheInvalidator
 import io.qpointz.mill.data.odata.service.edm.ODataEdmRegistryCache
+import io.qpointz.mill.data.odata.service.render.ODataMetadataDocumentCache
 import io.qpointz.mill.data.schema.SchemaFacetService
 import io.qpointz.mill.service.providers.ExternalHostsProvider
 import org.springframework.beans.factory.annotation.Autowired
@@ -52,12 +54,29 @@ class ODataWebAutoConfiguration {
     @ConditionalOnMissingBean
     fun oDataEdmCache(serviceProperties: ODataServiceProperties): ODataEdmCache {
         val edm = serviceProperties.cache.getEdm()
-        return ODataEdmCache(edm.isEnabled, edm.getTtl())
+        return ODataEdmCache(edm.isEnabled, edm.getTtl(), edm.getRefreshAfter())
     }
 
+    /**
+     * @param edmCache Caffeine-backed EDM cache
+     * @return metadata change observer that drops cached EDMs on facet and entity edits
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    fun oDataEdmCacheInvalidator(edmCache: ODataEdmCache): ODataEdmCacheInvalidator =
+        ODataEdmCacheInvalidator(edmCache)
+
+    /**
+     * @return pre-rendered, ETag-tagged {@code $metadata} documents per EDM
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    fun oDataMetadataDocumentCache(): ODataMetadataDocumentCache = ODataMetadataDocumentCache()
+
     /**
      * @param factory Mill schema-backed EDM builder
      * @param edmCache Caffeine-backed EDM cache
+     * @param documents {@code $metadata} documents rendered when an EDM is built
      * @return lazy per-schema EDM registry cache
      */
     @Bean
@@ -65,8 +84,9 @@ class ODataWebAutoConfiguration {
     fun oDataEdmRegistryCache(
         factory: EntityDataModelFactory,
         edmCache: ODataEdmCache,
+        documents: ODataMetadataDocumentCache,
     ): ODataEdmRegistryCache =
-        ODataEdmRegistryCache(factory, edmCache)
+        ODataEdmRegistryCache(factory, edmCache, documents)
 
     /**
      * @param edmRegistryCache per-schema EDM registry and annotation provider
@@ -110,6 +130,7 @@ class ODataWebAutoConfiguration {
      * @param oDataParser RWS URI parser
      * @param queryProcessor RWS query processor
      * @param rendererFactory RWS response renderer factory
+     * @param serviceProperties OData service limits
      * @return synchronous OData request handler
      */
     @Bean
@@ -120,6 +141,7 @@ class ODataWebAutoConfiguration {
         oDataParser: com.sdl.odata.api.parser.ODataParser,
         queryProcessor: com.sdl.odata.api.processor.ODataQueryProcessor,
         rendererFactory: com.sdl.odata.api.renderer.RendererFactory,
+        serviceProperties: ODataServiceProperties,
     ): MillODataSyncService =
         MillODataSyncService(
             edmRegistryCache,
@@ -127,6 +149,7 @@ class ODataWebAutoConfiguration {
             oDataParser,
             queryProcessor,
             rendererFactory,
+            serviceProperties,
         )
 
     // Controller is registered via ODataMvcAutoConfiguration component scan.
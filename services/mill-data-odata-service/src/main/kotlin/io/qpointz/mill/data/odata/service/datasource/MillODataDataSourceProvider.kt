@@ -17,11 +17,18 @@ import com.sdl.odata.api.parser.ODataUri
 import io.qpointz.mill.data.odata.edm.EntitySetNaming
 import io.qpointz.mill.data.odata.exec.ODataQueryExecutor
 import io.qpointz.mill.data.odata.expr.ODataExpressionException
+import io.qpointz.mill.data.odata.plan.ODataApply
+import io.qpointz.mill.data.odata.plan.ODataPageRequest
+import io.qpointz.mill.data.odata.plan.ODataSkipToken
 import io.qpointz.mill.data.odata.render.ODataJsonFeedSerializer
 import io.qpointz.mill.data.odata.service.ODataServiceProperties
 
 /**
  * RWS {@link DataSourceProvider} that pushes OData reads to {@link ODataQueryExecutor}.
+ *
+ * <p>Collection reads served through {@link ODataFeedExchange} are paged and streamed, with {@code $count}
+ * and {@code $apply} computed by the backend; other reads are materialized (capped at {@code max-top}) and
+ * rendered by RWS.
  */
 class MillODataDataSourceProvider(
     private val queryExecutor: ODataQueryExecutor,
@@ -53,6 +60,34 @@ class MillODataDataSourceProvider(
         }
         val schemaName = EntitySetNaming.extractSchemaFromServiceRoot(requestContext.uri.serviceRoot())
             ?: return null
+        val exchange = ODataFeedExchange.current()
+        if (exchange != null && expectedODataEntityType.isCollection) {
+            return QueryOperationStrategy {
+                try {
+                    val apply = exchange.apply?.let(ODataApply::parse)
+                    if (exchange.count == ODataFeedExchange.Count.VALUE) {
+                        exchange.countValue = queryExecutor.executeCount(operation, schemaName, apply)
+                        return@QueryOperationStrategy QueryResult.from(STREAMED_FEED)
+                    }
+                    val count = if (exchange.count == ODataFeedExchange.Count.INLINE) {
+                        queryExecutor.executeCount(operation, schemaName, apply)
+                    } else {
+                        null
+                    }
+                    val page = ODataPageRequest(exchange.pageSize, exchange.skipToken?.let(ODataSkipToken::decode))
+                    exchange.feed = ODataFeedExchange.PendingFeed(
+                        queryExecutor.executePage(operation, schemaName, page, apply),
+                        contextName(operation.entitySetName(), apply),
+                        requestContext.uri.serviceRoot(),
+                        count,
+                    )
+                    // placeholder; the sync service streams the parked page instead of rendering this
+                    QueryResult.from(STREAMED_FEED)
+                } catch (ex: ODataExpressionException) {
+                    throw ODataBadRequestException(ex.message ?: "Invalid OData query", ex)
+                }
+            }
+        }
         return QueryOperationStrategy {
             try {
                 val maxRows = serviceProperties.getMaxTop().coerceAtLeast(1)
@@ -69,6 +104,9 @@ class MillODataDataSourceProvider(
         }
     }
 
+    private fun contextName(entitySetName: String, apply: ODataApply?): String =
+        apply?.let { "$entitySetName(${it.outputNames.joinToString(",")})" } ?: entitySetName
+
     private fun entityTypeName(operation: QueryOperation, edm: EntityDataModel): String? {
         val setName = operation.entitySetName()
         val entitySet = edm.entityContainer.getEntitySet(setName)
@@ -78,6 +116,10 @@ class MillODataDataSourceProvider(
         return edm.entityContainer.getSingleton(setName)?.typeName
     }
 
+    private companion object {
+        private const val STREAMED_FEED = "{}"
+    }
+
     /**
      * Read-only Mill data source; mutations are not supported in v1.
      */
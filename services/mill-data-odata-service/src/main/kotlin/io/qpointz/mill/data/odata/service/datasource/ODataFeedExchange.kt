@@ -0,0 +1,79 @@
+package io.qpointz.mill.data.odata.service.datasource
+
+import io.qpointz.mill.data.odata.exec.ODataFeedPage
+
+/**
+ * Request-thread handoff between {@link MillODataSyncService} and {@link MillODataDataSourceProvider}.
+ *
+ * <p>RWS only lets a query strategy return a materialized {@code QueryResult}. While an exchange is open,
+ * collection reads instead execute one server-driven page and park it here; the sync service then streams
+ * it to the servlet response, bypassing RWS rendering.
+ *
+ * <p>{@code $skiptoken}, {@code $count} and {@code $apply} are resolved by Mill rather than the RWS parser,
+ * so they travel here too.
+ *
+ * @property pageSize maximum entities per page
+ * @property skipToken raw {@code $skiptoken} of the request, if any
+ * @property count requested form of {@code $count}
+ * @property apply raw {@code $apply} of the request, if any
+ */
+class ODataFeedExchange @JvmOverloads constructor(
+    val pageSize: Int,
+    val skipToken: String? = null,
+    val count: Count = Count.NONE,
+    val apply: String? = null,
+) {
+
+    /** Page parked by the data source provider, or null when the request was rendered by RWS. */
+    var feed: PendingFeed? = null
+
+    /** Result of a {@code /$count} request. */
+    var countValue: Long? = null
+
+    enum class Count {
+        /** No count requested. */
+        NONE,
+
+        /** {@code $count=true}: {@code @odata.count} alongside the entities. */
+        INLINE,
+
+        /** {@code /$count} path: the bare count as {@code text/plain}. */
+        VALUE,
+    }
+
+    /**
+     * @property page executed page
+     * @property contextName entity set name, with the aggregated properties for {@code $apply}
+     * @property serviceRoot absolute OData service root
+     * @property count inline {@code @odata.count}, if requested
+     */
+    class PendingFeed(
+        val page: ODataFeedPage,
+        val contextName: String,
+        val serviceRoot: String,
+        val count: Long? = null,
+    )
+
+    companion object {
+        private val CURRENT = ThreadLocal<ODataFeedExchange>()
+
+        /**
+         * @return exchange open on the calling thread, if any
+         */
+        @JvmStatic
+        fun current(): ODataFeedExchange? = CURRENT.get()
+
+        /**
+         * Runs [action] with [exchange] open on the calling thread.
+         */
+        @JvmStatic
+        fun <T> open(exchange: ODataFeedExchange, action: () -> T): T {
+            CURRENT.set(exchange)
+            try {
+                return action()
+            } finally {
+                CURRENT.remove()
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package io.qpointz.mill.data.odata.service.edm
 
 import com.github.benmanes.caffeine.cache.Cache
 import com.github.benmanes.caffeine.cache.Caffeine
+import com.github.benmanes.caffeine.cache.LoadingCache
+import com.github.benmanes.caffeine.cache.Ticker
 import com.sdl.odata.api.edm.model.EntityDataModel
 import io.qpointz.mill.data.odata.annotation.EdmAnnotationModel
 import io.qpointz.mill.data.odata.edm.SchemaEdmPackage
@@ -9,20 +11,48 @@ import io.qpointz.mill.data.odata.resolve.SchemaTableCache
 import io.qpointz.mill.data.schema.SchemaTableWithFacets
 import io.qpointz.mill.metadata.service.MetadataContext
 import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
 
 /**
  * Caffeine-backed cache for OData EDM documents and per-table facet metadata.
  *
- * @param enabled when false, all lookups delegate to loaders without retaining entries
+ * <p>Loads are single-flight: concurrent requests for a cold or expired key wait for one build instead of
+ * each rebuilding the EDM. EDM packages are refreshed ahead of expiry — the first read after
+ * [refreshAfter] rebuilds the package on [executor] while the current one keeps being served.
+ *
+ * @property enabled when false, all lookups delegate to loaders without retaining entries
  * @param ttl optional write expiration; when null entries do not expire by time
+ * @param refreshAfter optional background refresh interval; defaults to 80% of [ttl]
  */
-class ODataEdmCache(
-    private val enabled: Boolean,
+class ODataEdmCache internal constructor(
+    val enabled: Boolean,
     private val ttl: Duration?,
+    refreshAfter: Duration?,
+    private val ticker: Ticker,
+    private val executor: Executor,
 ) {
 
-    private val packageCache: Cache<String, SchemaEdmPackage>? = if (enabled) newCache() else null
-    private val tableCache: Cache<String, SchemaTableWithFacets>? = if (enabled) newCache() else null
+    @JvmOverloads
+    constructor(enabled: Boolean, ttl: Duration?, refreshAfter: Duration? = null) :
+        this(enabled, ttl, refreshAfter, Ticker.systemTicker(), ForkJoinPool.commonPool())
+
+    private val refreshInterval: Duration? = refreshAfter ?: ttl?.multipliedBy(REFRESH_PERCENT)?.dividedBy(100)
+
+    /** Last loader seen per key; refresh-ahead reuses it off the request thread. */
+    private val packageLoaders = ConcurrentHashMap<String, () -> SchemaEdmPackage>()
+
+    private val packageCache: LoadingCache<String, SchemaEdmPackage>? =
+        if (enabled) {
+            val builder = newBuilder()
+            refreshInterval?.let { builder.refreshAfterWrite(it) }
+            builder.build<String, SchemaEdmPackage> { key -> packageLoaders.getValue(key)() }
+        } else {
+            null
+        }
+    private val tableCache: Cache<String, SchemaTableWithFacets>? =
+        if (enabled) newBuilder().build<String, SchemaTableWithFacets>() else null
 
     /**
      * @param key schema and metadata scope key
@@ -40,10 +70,16 @@ class ODataEdmCache(
      */
     fun getSchemaEdmPackage(key: String, loader: () -> SchemaEdmPackage): SchemaEdmPackage {
         val cache = packageCache ?: return loader()
-        cache.getIfPresent(key)?.let { return it }
-        val built = loader()
-        cache.put(key, built)
-        return built
+        packageLoaders[key] = loader
+        return cache.get(key)
+    }
+
+    /**
+     * Drops all cached EDM packages and table metadata; the next request rebuilds them.
+     */
+    fun invalidateAll() {
+        packageCache?.invalidateAll()
+        tableCache?.invalidateAll()
     }
 
     /**
@@ -52,18 +88,20 @@ class ODataEdmCache(
     fun schemaTableCache(): SchemaTableCache? =
         tableCache?.let { cache ->
             SchemaTableCache { key, loader ->
-                cache.getIfPresent(key) ?: loader()?.also { cache.put(key, it) }
+                cache.get(key) { loader() }
             }
         }
 
-    private fun <T> newCache(): Cache<String, T> {
-        val builder = Caffeine.newBuilder()
+    private fun newBuilder(): Caffeine<Any, Any> {
+        val builder = Caffeine.newBuilder().ticker(ticker).executor(executor)
         ttl?.let { builder.expireAfterWrite(it) }
-        return builder.build()
+        return builder
     }
 
     companion object {
 
+        private const val REFRESH_PERCENT = 80L
+
         /**
          * @param schemaName physical schema name
          * @param context metadata read scope
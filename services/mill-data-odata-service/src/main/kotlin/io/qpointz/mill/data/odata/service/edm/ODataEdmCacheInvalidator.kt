@@ -0,0 +1,34 @@
+package io.qpointz.mill.data.odata.service.edm
+
+import io.qpointz.mill.metadata.domain.MetadataChangeEvent
+import io.qpointz.mill.metadata.domain.MetadataChangeObserverDelegate
+import org.slf4j.LoggerFactory
+
+/**
+ * Drops cached EDM packages when metadata changes, so facet edits reach {@code $metadata} and
+ * facet-driven reads without waiting for the cache TTL.
+ *
+ * <p>Any entity or facet may contribute to an EDM (descriptions, relations, scopes), so every event
+ * invalidates the whole cache; rebuilds stay single-flight per schema.
+ *
+ * @param edmCache EDM and table metadata cache
+ */
+class ODataEdmCacheInvalidator(
+    private val edmCache: ODataEdmCache,
+) : MetadataChangeObserverDelegate {
+
+    override fun onEvent(event: MetadataChangeEvent) {
+        if (!edmCache.enabled) {
+            return
+        }
+        runCatching { edmCache.invalidateAll() }
+            .onSuccess {
+                LOG.debug("Invalidated OData EDM cache after {} on {}", event::class.simpleName, event.entityId)
+            }
+            .onFailure { e -> LOG.warn("Failed to invalidate OData EDM cache: {}", e.message) }
+    }
+
+    private companion object {
+        private val LOG = LoggerFactory.getLogger(ODataEdmCacheInvalidator::class.java)
+    }
+}
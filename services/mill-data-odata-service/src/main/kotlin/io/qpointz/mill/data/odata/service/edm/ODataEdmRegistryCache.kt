@@ -8,6 +8,7 @@ import io.qpointz.mill.data.odata.annotation.EdmAnnotationModel
 import io.qpointz.mill.data.odata.annotation.EdmAnnotationProvider
 import io.qpointz.mill.data.odata.edm.EntityDataModelFactory
 import io.qpointz.mill.data.odata.edm.SchemaEdmPackage
+import io.qpointz.mill.data.odata.service.render.ODataMetadataDocumentCache
 import io.qpointz.mill.metadata.service.MetadataContext
 import java.util.concurrent.ConcurrentHashMap
 
@@ -16,21 +17,28 @@ import java.util.concurrent.ConcurrentHashMap
  *
  * @param factory Mill schema-backed EDM builder
  * @param edmCache optional Caffeine cache for built [SchemaEdmPackage] instances
+ * @param documents optional {@code $metadata} document cache, rendered as soon as a cached package is built
  */
-class ODataEdmRegistryCache(
+class ODataEdmRegistryCache @JvmOverloads constructor(
     private val factory: EntityDataModelFactory,
     private val edmCache: ODataEdmCache,
+    private val documents: ODataMetadataDocumentCache? = null,
 ) : EdmAnnotationProvider {
 
     private val registries = ConcurrentHashMap<String, ODataEdmRegistry>()
     private val packages = ConcurrentHashMap<String, SchemaEdmPackage>()
 
+    /** Only cached packages are pre-rendered; uncached ones would render on every data request. */
+    private val prerendered = documents?.takeIf { edmCache.enabled }
+
     /**
      * @param schemaName physical schema name
      * @return EDM registry scoped to that schema
      */
     fun registryFor(schemaName: String): ODataEdmRegistry =
-        registries.computeIfAbsent(schemaName) { SchemaODataEdmRegistry(schemaName, factory, edmCache, packages) }
+        registries.computeIfAbsent(schemaName) {
+            SchemaODataEdmRegistry(schemaName, factory, edmCache, prerendered, packages)
+        }
 
     /**
      * @param schemaName physical schema name (OData service container name)
@@ -43,6 +51,7 @@ class ODataEdmRegistryCache(
         private val schemaName: String,
         private val factory: EntityDataModelFactory,
         private val edmCache: ODataEdmCache,
+        private val documents: ODataMetadataDocumentCache?,
         private val packages: ConcurrentHashMap<String, SchemaEdmPackage>,
     ) : ODataEdmRegistryImpl() {
 
@@ -51,7 +60,7 @@ class ODataEdmRegistryCache(
             val context = MetadataContext.global()
             val key = ODataEdmCache.edmKey(schemaName, context)
             val schemaPackage = edmCache.getSchemaEdmPackage(key) {
-                factory.buildPackageForSchema(schemaName, context)
+                factory.buildPackageForSchema(schemaName, context).also { documents?.prerender(it) }
             }
             packages[schemaName] = schemaPackage
             return schemaPackage.entityDataModel
@@ -5,25 +5,28 @@ import com.sdl.odata.api.ODataSystemException
 import com.sdl.odata.api.parser.MetadataUri
 import com.sdl.odata.api.parser.ODataUri
 import com.sdl.odata.api.processor.query.QueryResult
+import com.sdl.odata.api.service.MediaType
+import com.sdl.odata.api.service.ODataRequest
 import com.sdl.odata.api.service.ODataRequestContext
 import com.sdl.odata.api.service.ODataResponse
 import com.sdl.odata.renderer.AbstractRenderer
-import com.sdl.odata.renderer.metadata.MetadataDocumentWriter
 import io.qpointz.mill.data.odata.annotation.EdmAnnotationProvider
-import io.qpointz.mill.data.odata.render.CsdlMetadataAnnotationEnhancer
 import org.slf4j.LoggerFactory
 import org.springframework.stereotype.Component
-import java.io.UnsupportedEncodingException
+import java.net.URLDecoder
 import java.nio.charset.StandardCharsets
 
 /**
  * Renders {@code $metadata} with facet-derived CSDL annotations.
  *
  * <p>Scores above RWS {@code MetadataDocumentRenderer} so Mill replaces the default metadata output.
+ * Documents come pre-rendered from {@link ODataMetadataDocumentCache} as CSDL XML or, for
+ * {@code $format=json} or a JSON-only {@code Accept}, CSDL JSON, each with a strong {@code ETag}.
  */
 @Component
 class MillMetadataDocumentRenderer(
     private val annotationProvider: EdmAnnotationProvider,
+    private val documents: ODataMetadataDocumentCache,
 ) : AbstractRenderer() {
 
     /**
@@ -50,29 +53,51 @@ class MillMetadataDocumentRenderer(
         LOG.debug("Rendering annotated \$metadata for request: {}", requestContext)
 
         val edm = requestContext.entityDataModel
-        val writer = MetadataDocumentWriter(edm)
-        writer.startDocument()
-        writer.writeMetadataDocument()
-        writer.endDocument()
-
         val schemaName = edm.entityContainer.name
-        val annotations = annotationProvider.annotationsForSchema(schemaName)
-        val xml = CsdlMetadataAnnotationEnhancer.enhance(writer.xml, annotations)
-
-        try {
-            responseBuilder
-                .setStatus(ODataResponse.Status.OK)
-                .setContentType(com.sdl.odata.api.service.MediaType.XML)
-                .setHeader("OData-Version", ODATA_VERSION_HEADER)
-                .setBodyText(xml, StandardCharsets.UTF_8.name())
-        } catch (e: UnsupportedEncodingException) {
+        val document = try {
+            documents.documentFor(edm, annotationProvider.annotationsForSchema(schemaName))
+        } catch (e: RuntimeException) {
             throw ODataSystemException(e)
         }
+        val json = isJsonRequested(requestContext.request)
+        val representation = if (json) document.json else document.xml
+
+        responseBuilder
+            .setStatus(ODataResponse.Status.OK)
+            .setContentType(if (json) MediaType.JSON else MediaType.XML)
+            .setHeader("OData-Version", ODATA_VERSION_HEADER)
+            .setHeader(ETAG_HEADER, representation.etag)
+            .setHeader(VARY_HEADER, ACCEPT_HEADER)
+            .setBody(representation.body)
+    }
+
+    /**
+     * @return whether CSDL JSON was asked for: {@code $format} wins, otherwise an {@code Accept} header that
+     *         names JSON but not XML
+     */
+    private fun isJsonRequested(request: ODataRequest): Boolean {
+        val format = request.uri.substringAfter('?', "")
+            .split('&')
+            .firstOrNull { URLDecoder.decode(it.substringBefore('='), StandardCharsets.UTF_8) == FORMAT }
+            ?.let { URLDecoder.decode(it.substringAfter('=', ""), StandardCharsets.UTF_8) }
+        if (format != null) {
+            return format.startsWith("json", ignoreCase = true) ||
+                format.startsWith("application/json", ignoreCase = true)
+        }
+        val accept = request.headers.entries
+            .firstOrNull { it.key.equals(ACCEPT_HEADER, ignoreCase = true) }
+            ?.value
+            ?: return false
+        return accept.contains("json", ignoreCase = true) && !accept.contains("xml", ignoreCase = true)
     }
 
     private companion object {
         private val LOG = LoggerFactory.getLogger(MillMetadataDocumentRenderer::class.java)
         private const val SCORE = 101
         private const val ODATA_VERSION_HEADER = "4.0"
+        private const val ETAG_HEADER = "ETag"
+        private const val VARY_HEADER = "Vary"
+        private const val ACCEPT_HEADER = "Accept"
+        private const val FORMAT = "\$format"
     }
 }
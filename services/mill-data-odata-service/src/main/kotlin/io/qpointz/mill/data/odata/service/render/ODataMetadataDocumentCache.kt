@@ -0,0 +1,86 @@
+package io.qpointz.mill.data.odata.service.render
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.sdl.odata.api.edm.model.EntityDataModel
+import com.sdl.odata.renderer.metadata.MetadataDocumentWriter
+import io.qpointz.mill.data.odata.annotation.EdmAnnotationModel
+import io.qpointz.mill.data.odata.edm.SchemaEdmPackage
+import io.qpointz.mill.data.odata.render.CsdlJsonMetadataWriter
+import io.qpointz.mill.data.odata.render.CsdlMetadataAnnotationEnhancer
+import java.nio.charset.StandardCharsets
+import java.security.MessageDigest
+import java.util.Base64
+
+/**
+ * Pre-rendered {@code $metadata} documents, one per built EDM instance.
+ *
+ * <p>Entries are keyed by EDM identity with weak keys, so a rebuilt or invalidated EDM (see
+ * {@link io.qpointz.mill.data.odata.service.edm.ODataEdmCache}) gets a fresh document and the old one is
+ * collected with its model.
+ */
+class ODataMetadataDocumentCache {
+
+    private val documents: Cache<EntityDataModel, ODataMetadataDocument> =
+        Caffeine.newBuilder().weakKeys().build()
+
+    /**
+     * @param edm schema EDM
+     * @param annotations facet-derived CSDL annotations of the same schema
+     * @return cached or freshly rendered documents
+     */
+    fun documentFor(edm: EntityDataModel, annotations: EdmAnnotationModel): ODataMetadataDocument =
+        documents.get(edm) { ODataMetadataDocument.render(edm, annotations) }
+
+    /**
+     * Renders the documents of a newly built EDM package ahead of the first {@code $metadata} request.
+     *
+     * @param schemaPackage freshly built EDM package
+     */
+    fun prerender(schemaPackage: SchemaEdmPackage) {
+        documentFor(schemaPackage.entityDataModel, schemaPackage.annotations)
+    }
+}
+
+/**
+ * CSDL XML and CSDL JSON renderings of one EDM.
+ *
+ * @property xml CSDL XML document
+ * @property json CSDL JSON document
+ */
+class ODataMetadataDocument(
+    val xml: Representation,
+    val json: Representation,
+) {
+
+    /**
+     * @property body UTF-8 encoded document
+     * @property etag strong entity tag (quoted) derived from [body]
+     */
+    class Representation(val body: ByteArray) {
+        val etag: String = "\"${Base64.getUrlEncoder().withoutPadding().encodeToString(sha256(body))}\""
+    }
+
+    companion object {
+
+        /**
+         * @param edm schema EDM
+         * @param annotations facet-derived CSDL annotations of the same schema
+         * @return rendered documents
+         */
+        @JvmStatic
+        fun render(edm: EntityDataModel, annotations: EdmAnnotationModel): ODataMetadataDocument {
+            val writer = MetadataDocumentWriter(edm)
+            writer.startDocument()
+            writer.writeMetadataDocument()
+            writer.endDocument()
+            val xml = CsdlMetadataAnnotationEnhancer.enhance(writer.xml, annotations)
+            return ODataMetadataDocument(
+                Representation(xml.toByteArray(StandardCharsets.UTF_8)),
+                Representation(CsdlJsonMetadataWriter.write(xml).toByteArray(StandardCharsets.UTF_8)),
+            )
+        }
+
+        private fun sha256(bytes: ByteArray): ByteArray = MessageDigest.getInstance("SHA-256").digest(bytes)
+    }
+}
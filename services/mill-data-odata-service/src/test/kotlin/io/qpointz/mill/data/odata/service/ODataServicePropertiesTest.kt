@@ -23,11 +23,13 @@ class ODataServicePropertiesTest {
             .withPropertyValues(
                 "mill.data.services.odata.cache.edm.enabled:true",
                 "mill.data.services.odata.cache.edm.ttl:2m",
+                "mill.data.services.odata.cache.edm.refresh-after:90s",
             )
             .run { context ->
                 val props = context.getBean(ODataServiceProperties::class.java)
                 assertThat(props.cache.getEdm().isEnabled).isTrue()
                 assertThat(props.cache.getEdm().getTtl()).isEqualTo(Duration.ofMinutes(2))
+                assertThat(props.cache.getEdm().getRefreshAfter()).isEqualTo(Duration.ofSeconds(90))
             }
     }
 
@@ -39,4 +41,13 @@ class ODataServicePropertiesTest {
             assertThat(props.cache.getEdm().getTtl()).isNull()
         }
     }
+
+    @Test
+    fun shouldBindMaxPageSize() {
+        contextRunner
+            .withPropertyValues("mill.data.services.odata.max-page-size:250")
+            .run { context ->
+                assertThat(context.getBean(ODataServiceProperties::class.java).maxPageSize).isEqualTo(250)
+            }
+    }
 }
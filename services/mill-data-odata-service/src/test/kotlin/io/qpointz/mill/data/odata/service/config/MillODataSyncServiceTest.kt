@@ -0,0 +1,25 @@
+package io.qpointz.mill.data.odata.service.config
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+
+class MillODataSyncServiceTest {
+
+    @Test
+    fun shouldConsumeSkipAndReduceTopInNextLink() {
+        val link = MillODataSyncService.nextLink(
+            "http://localhost/odata/s.svc/cities?\$filter=id%20gt%201&\$skip=5&%24top=10&\$count=true&\$skiptoken=old",
+            "abc_-",
+            7,
+        )
+
+        assertThat(link).isEqualTo("http://localhost/odata/s.svc/cities?\$filter=id%20gt%201&%24top=7&%24skiptoken=abc_-")
+    }
+
+    @Test
+    fun shouldOmitTop_whenRequestIsUnbounded() {
+        val link = MillODataSyncService.nextLink("http://localhost/odata/s.svc/cities", "abc", null)
+
+        assertThat(link).isEqualTo("http://localhost/odata/s.svc/cities?%24skiptoken=abc")
+    }
+}
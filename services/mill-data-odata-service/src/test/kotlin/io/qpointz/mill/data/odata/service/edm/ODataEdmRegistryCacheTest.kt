@@ -3,6 +3,7 @@ package io.qpointz.mill.data.odata.service.edm
 import io.qpointz.mill.data.odata.annotation.EdmAnnotationModel
 import io.qpointz.mill.data.odata.edm.EntityDataModelFactory
 import io.qpointz.mill.data.odata.edm.SchemaEdmPackage
+import io.qpointz.mill.metadata.domain.MetadataChangeEvent
 import io.qpointz.mill.metadata.service.MetadataContext
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
@@ -11,6 +12,11 @@ import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
 import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
 
 class ODataEdmRegistryCacheTest {
 
@@ -48,4 +54,78 @@ class ODataEdmRegistryCacheTest {
 
         verify(factory, times(1)).buildPackageForSchema("skymill", MetadataContext.global())
     }
+
+    @Test
+    fun shouldBuildEdmOnceForConcurrentColdReads() {
+        val factory = mock<EntityDataModelFactory>()
+        val edm = mock<com.sdl.odata.api.edm.model.EntityDataModel>()
+        val schemaPackage = SchemaEdmPackage(edm, EdmAnnotationModel.Builder().build())
+        val started = CountDownLatch(1)
+        whenever(factory.buildPackageForSchema("skymill", MetadataContext.global())).thenAnswer {
+            started.await(5, TimeUnit.SECONDS)
+            schemaPackage
+        }
+        val registry = ODataEdmRegistryCache(factory, ODataEdmCache(enabled = true, ttl = null))
+            .registryFor("skymill")
+
+        val pool = Executors.newFixedThreadPool(8)
+        try {
+            val reads = (1..8).map {
+                pool.submit<com.sdl.odata.api.edm.model.EntityDataModel> { registry.entityDataModel }
+            }
+            started.countDown()
+            reads.forEach { assertThat(it.get(5, TimeUnit.SECONDS)).isSameAs(edm) }
+        } finally {
+            pool.shutdownNow()
+        }
+
+        verify(factory, times(1)).buildPackageForSchema("skymill", MetadataContext.global())
+    }
+
+    @Test
+    fun shouldRefreshEdmAheadOfExpiry() {
+        val factory = mock<EntityDataModelFactory>()
+        val first = mock<com.sdl.odata.api.edm.model.EntityDataModel>()
+        val second = mock<com.sdl.odata.api.edm.model.EntityDataModel>()
+        whenever(factory.buildPackageForSchema("skymill", MetadataContext.global())).thenReturn(
+            SchemaEdmPackage(first, EdmAnnotationModel.Builder().build()),
+            SchemaEdmPackage(second, EdmAnnotationModel.Builder().build()),
+        )
+        val nanos = AtomicLong()
+        val edmCache = ODataEdmCache(true, Duration.ofMinutes(10), null, { nanos.get() }, Runnable::run)
+        val registry = ODataEdmRegistryCache(factory, edmCache).registryFor("skymill")
+
+        assertThat(registry.entityDataModel).isSameAs(first)
+        nanos.addAndGet(Duration.ofMinutes(9).toNanos())
+        registry.entityDataModel
+
+        assertThat(registry.entityDataModel).isSameAs(second)
+        verify(factory, times(2)).buildPackageForSchema("skymill", MetadataContext.global())
+    }
+
+    @Test
+    fun shouldRebuildEdmAfterMetadataChange() {
+        val factory = mock<EntityDataModelFactory>()
+        val edm = mock<com.sdl.odata.api.edm.model.EntityDataModel>()
+        val schemaPackage = SchemaEdmPackage(edm, EdmAnnotationModel.Builder().build())
+        whenever(factory.buildPackageForSchema("skymill", MetadataContext.global())).thenReturn(schemaPackage)
+        val edmCache = ODataEdmCache(enabled = true, ttl = null)
+        val registry = ODataEdmRegistryCache(factory, edmCache).registryFor("skymill")
+
+        registry.entityDataModel
+        ODataEdmCacheInvalidator(edmCache).onEvent(
+            MetadataChangeEvent.FacetUpdated(
+                entityId = "skymill.cities",
+                actorId = "test",
+                occurredAt = Instant.now(),
+                facetType = "urn:mill/metadata/facet-type:descriptive",
+                scopeKey = "urn:mill/metadata/scope:global",
+                before = null,
+                after = mapOf("description" to "Cities"),
+            ),
+        )
+        registry.entityDataModel
+
+        verify(factory, times(2)).buildPackageForSchema("skymill", MetadataContext.global())
+    }
 }
@@ -1,5 +1,6 @@
 package io.qpointz.mill.data.query.web
 
+import io.qpointz.mill.data.backend.dispatchers.ResultResourcesExhaustedException
 import io.qpointz.mill.data.query.engine.QueryEpochConflictException
 import io.qpointz.mill.data.query.engine.QuerySessionForbiddenException
 import io.qpointz.mill.data.query.engine.QuerySessionNotFoundException
@@ -63,6 +64,13 @@ class QueryResultExceptionHandler(
     fun unprocessable(ex: QuerySqlExecutionException): ResponseEntity<String> =
         error(HttpStatus.UNPROCESSABLE_ENTITY, "sql_execution_failed", ex.message ?: "Execution failed")
 
+    /**
+     * @param ex result cursor or memory caps reached (`mill.data.results.*`)
+     */
+    @ExceptionHandler(ResultResourcesExhaustedException::class)
+    fun exhausted(ex: ResultResourcesExhaustedException): ResponseEntity<String> =
+        error(HttpStatus.TOO_MANY_REQUESTS, "result_capacity_exhausted", ex.message ?: "Result capacity exhausted")
+
     /**
      * @param ex invalid paging, unknown format at core boundary, etc.
      */
@@ -36,6 +36,7 @@ include (":persistence")
 include (":persistence:mill-persistence")
 include (":persistence:mill-persistence-autoconfigure")
 include (":persistence:mill-analysis-persistence")
+include (":persistence:mill-data-persistence")
 include (":data")
 include (":data:mill-data-backend-core")
 include (":data:mill-data-backends")
@@ -62,6 +63,7 @@ include(":security:mill-security-autoconfigure")
 include(":services:mill-service-api")
 include(":services:mill-service-common")
 include (":services:mill-data-grpc-service")
+include (":services:mill-data-flight-service")
 include (":services:mill-data-http-service")
 include (":services:mill-export-service")
 include (":services:mill-data-query-service")